@@ -0,0 +1,580 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import cz.muni.fi.spnp.core.models.PetriNet;
+import cz.muni.fi.spnp.core.models.arcs.ArcDirection;
+import cz.muni.fi.spnp.core.models.arcs.InhibitorArc;
+import cz.muni.fi.spnp.core.models.arcs.StandardArc;
+import cz.muni.fi.spnp.core.models.functions.FunctionType;
+import cz.muni.fi.spnp.core.models.places.Place;
+import cz.muni.fi.spnp.core.models.places.StandardPlace;
+import cz.muni.fi.spnp.core.models.transitions.ImmediateTransition;
+import cz.muni.fi.spnp.core.models.transitions.TimedTransition;
+import cz.muni.fi.spnp.core.models.transitions.Transition;
+import cz.muni.fi.spnp.core.models.transitions.probabilities.ConstantTransitionProbability;
+import cz.muni.fi.spnp.core.transformators.spnp.distributions.ExponentialTransitionDistribution;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ *  Flat, array based representation of a generated Petri net which is used by the
+ * analysis engines. Places and transitions are indexed, arcs are stored in a compressed
+ * row layout per transition and all CSPL functions are compiled into marking functions.
+ * The firing rules follow SPNP: enabled immediate transitions pre-empt timed ones
+ * and only the enabled transitions of the highest priority may fire.
+ *
+ */
+public class CompiledNet {
+    private final Place[] places;
+    private final String[] placeNames;
+    private final Map<String, Integer> placeIndices;
+    private final int[] initialMarking;
+
+    private final Transition[] transitions;
+    private final String[] transitionNames;
+    private final boolean[] immediate;
+    private final int[] priorities;
+    private final CsplExpression[] guardExpressions;
+    private final MarkingFunction[] guards;
+    private final CsplExpression[] rateExpressions;
+    private final MarkingFunction[] rates;
+
+    /* Arcs of the transition t are stored at the indices [arcStart[t], arcStart[t + 1]) */
+    private final int[] inputStart;
+    private final int[] inputPlaces;
+    private final int[] inputWeights;
+    private final CsplExpression[] inputWeightExpressions;
+    private final MarkingFunction[] inputWeightFunctions;
+    private final int[] outputStart;
+    private final int[] outputPlaces;
+    private final int[] outputWeights;
+    private final CsplExpression[] outputWeightExpressions;
+    private final MarkingFunction[] outputWeightFunctions;
+    private final int[] inhibitorStart;
+    private final int[] inhibitorPlaces;
+    private final int[] inhibitorWeights;
+
+    private final CsplExpression[] haltingExpressions;
+    private final MarkingFunction[] haltingFunctions;
+
+    private CompiledNet(Builder builder) {
+        this.places = builder.places.toArray(new Place[0]);
+        this.placeNames = new String[places.length];
+        this.placeIndices = builder.placeIndices;
+        this.initialMarking = new int[places.length];
+        for(int p = 0; p < places.length; p++) {
+            placeNames[p] = places[p].getName();
+            if(places[p] instanceof StandardPlace)
+                initialMarking[p] = ((StandardPlace) places[p]).getNumberOfTokens();
+        }
+
+        var count = builder.transitions.size();
+        this.transitions = builder.transitions.toArray(new Transition[0]);
+        this.transitionNames = new String[count];
+        this.immediate = builder.immediate;
+        this.priorities = builder.priorities;
+        this.guardExpressions = builder.guardExpressions;
+        this.rateExpressions = builder.rateExpressions;
+        this.guards = new MarkingFunction[count];
+        this.rates = new MarkingFunction[count];
+        for(int t = 0; t < count; t++) {
+            transitionNames[t] = transitions[t].getName();
+            guards[t] = guardExpressions[t] == null ? null : guardExpressions[t].compile();
+            rates[t] = rateExpressions[t].compile();
+        }
+
+        this.inputStart = builder.inputArcs.start(count);
+        this.inputPlaces = builder.inputArcs.places();
+        this.inputWeights = builder.inputArcs.weights();
+        this.inputWeightExpressions = builder.inputArcs.expressions();
+        this.inputWeightFunctions = compileAll(inputWeightExpressions);
+        this.outputStart = builder.outputArcs.start(count);
+        this.outputPlaces = builder.outputArcs.places();
+        this.outputWeights = builder.outputArcs.weights();
+        this.outputWeightExpressions = builder.outputArcs.expressions();
+        this.outputWeightFunctions = compileAll(outputWeightExpressions);
+        this.inhibitorStart = builder.inhibitorArcs.start(count);
+        this.inhibitorPlaces = builder.inhibitorArcs.places();
+        this.inhibitorWeights = builder.inhibitorArcs.weights();
+
+        this.haltingExpressions = builder.haltingExpressions.toArray(new CsplExpression[0]);
+        this.haltingFunctions = new MarkingFunction[haltingExpressions.length];
+        for(int i = 0; i < haltingExpressions.length; i++)
+            haltingFunctions[i] = haltingExpressions[i].compile();
+    }
+
+    private static MarkingFunction[] compileAll(CsplExpression[] expressions) {
+        var result = new MarkingFunction[expressions.length];
+        for(int i = 0; i < expressions.length; i++)
+            result[i] = expressions[i] == null ? null : expressions[i].compile();
+        return result;
+    }
+
+    /**
+     * Compiles the Petri net.
+     *
+     * @param petriNet Generated Petri net.
+     * @return Compiled net or null if the net contains a construct which can not be analyzed.
+     */
+    public static CompiledNet compile(PetriNet petriNet) {
+        return compile(petriNet, Map.of());
+    }
+
+    /**
+     * Compiles the Petri net.
+     *
+     * @param petriNet Generated Petri net.
+     * @param parameters Values of the input parameters referenced by the functions of the net.
+     * @return Compiled net or null if the net contains a construct which can not be analyzed.
+     */
+    public static CompiledNet compile(PetriNet petriNet, Map<String, Double> parameters) {
+        var builder = new Builder();
+        for(var place : petriNet.getPlaces()) {
+            builder.placeIndices.put(place.getName(), builder.places.size());
+            builder.places.add(place);
+        }
+        var parser = new ExpressionParser(builder.placeIndices, parameters);
+
+        var transitionIndices = new IdentityHashMap<Transition, Integer>();
+        for(var transition : petriNet.getTransitions()) {
+            transitionIndices.put(transition, builder.transitions.size());
+            builder.transitions.add(transition);
+        }
+        var count = builder.transitions.size();
+        builder.immediate = new boolean[count];
+        builder.priorities = new int[count];
+        builder.guardExpressions = new CsplExpression[count];
+        builder.rateExpressions = new CsplExpression[count];
+
+        for(int t = 0; t < count; t++) {
+            var transition = builder.transitions.get(t);
+            builder.priorities[t] = transition.getPriority();
+
+            var guardFunction = transition.getGuardFunction();
+            if(guardFunction != null) {
+                var guard = parser.parseFunctionBody(guardFunction.getBody());
+                if(guard == null) {
+                    System.err.println(String.format("Compiled net: unsupported guard \"%s\" of transition \"%s\".",
+                                                     guardFunction.getName(), transition.getName()));
+                    return null;
+                }
+                builder.guardExpressions[t] = guard;
+            }
+
+            if(transition instanceof ImmediateTransition) {
+                builder.immediate[t] = true;
+                var probability = ((ImmediateTransition) transition).getTransitionProbability();
+                if(!(probability instanceof ConstantTransitionProbability)) {
+                    System.err.println(String.format("Compiled net: transition \"%s\" does not have a constant probability.",
+                                                     transition.getName()));
+                    return null;
+                }
+                builder.rateExpressions[t] = new CsplExpression.Constant(((ConstantTransitionProbability) probability).getValue());
+            }
+            else if(transition instanceof TimedTransition) {
+                var distribution = ((TimedTransition) transition).getTransitionDistribution();
+                if(!(distribution instanceof ExponentialTransitionDistribution)) {
+                    System.err.println(String.format("Compiled net: transition \"%s\" does not have an exponential distribution.",
+                                                     transition.getName()));
+                    return null;
+                }
+                var exponential = (ExponentialTransitionDistribution) distribution;
+                var rateFunction = exponential.getDistributionFunction();
+                if(rateFunction != null) {
+                    var rate = parser.parseFunctionBody(rateFunction.getBody());
+                    if(rate == null) {
+                        System.err.println(String.format("Compiled net: unsupported rate function \"%s\" of transition \"%s\".",
+                                                         rateFunction.getName(), transition.getName()));
+                        return null;
+                    }
+                    builder.rateExpressions[t] = rate;
+                }
+                else {
+                    builder.rateExpressions[t] = new CsplExpression.Constant(exponential.getRate());
+                }
+            }
+            else {
+                System.err.println(String.format("Compiled net: unsupported transition type of \"%s\".", transition.getName()));
+                return null;
+            }
+        }
+
+        for(var arc : petriNet.getArcs()) {
+            var placeIndex = builder.placeIndices.get(arc.getPlace().getName());
+            var transitionIndex = transitionIndices.get(arc.getTransition());
+            if(placeIndex == null || transitionIndex == null) {
+                System.err.println("Compiled net: arc connects an element which is not part of the net.");
+                return null;
+            }
+
+            if(arc instanceof InhibitorArc) {
+                builder.inhibitorArcs.add(transitionIndex, placeIndex, arc.getMultiplicity(), null);
+            }
+            else if(arc instanceof StandardArc) {
+                var standardArc = (StandardArc) arc;
+                CsplExpression weightFunction = null;
+                var cardinalityFunction = standardArc.getMultiplicityFunction();
+                if(cardinalityFunction != null) {
+                    weightFunction = parser.parseFunctionBody(cardinalityFunction.getBody());
+                    if(weightFunction == null) {
+                        System.err.println(String.format("Compiled net: unsupported cardinality function \"%s\".", cardinalityFunction.getName()));
+                        return null;
+                    }
+                }
+                var arcs = standardArc.getArcDirection() == ArcDirection.Input ? builder.inputArcs : builder.outputArcs;
+                arcs.add(transitionIndex, placeIndex, standardArc.getMultiplicity(), weightFunction);
+            }
+        }
+
+        for(var function : petriNet.getFunctions()) {
+            if(function.getFunctionType() == FunctionType.Halting) {
+                var halting = parser.parseFunctionBody(function.getBody());
+                if(halting == null) {
+                    System.err.println(String.format("Compiled net: unsupported halting function \"%s\".", function.getName()));
+                    return null;
+                }
+                builder.haltingExpressions.add(halting);
+            }
+        }
+        return new CompiledNet(builder);
+    }
+
+    public int getPlaceCount() {
+        return places.length;
+    }
+
+    public int getTransitionCount() {
+        return transitions.length;
+    }
+
+    public Place getPlace(int place) {
+        return places[place];
+    }
+
+    public String getPlaceName(int place) {
+        return placeNames[place];
+    }
+
+    /**
+     *
+     * @param placeName Name of the place.
+     * @return Index of the place or -1 if there is no such place.
+     */
+    public int getPlaceIndex(String placeName) {
+        var index = placeIndices.get(placeName);
+        return index == null ? -1 : index;
+    }
+
+    public Map<String, Integer> getPlaceIndices() {
+        return placeIndices;
+    }
+
+    public int[] getInitialMarking() {
+        return Arrays.copyOf(initialMarking, initialMarking.length);
+    }
+
+    public Transition getTransition(int transition) {
+        return transitions[transition];
+    }
+
+    public String getTransitionName(int transition) {
+        return transitionNames[transition];
+    }
+
+    public boolean isImmediate(int transition) {
+        return immediate[transition];
+    }
+
+    public int getPriority(int transition) {
+        return priorities[transition];
+    }
+
+    /**
+     *
+     * @param transition Index of the transition.
+     * @return Guard expression or null if the transition has no guard.
+     */
+    public CsplExpression getGuardExpression(int transition) {
+        return guardExpressions[transition];
+    }
+
+    /**
+     *
+     * @param transition Index of the transition.
+     * @return Rate expression of a timed transition or the probability weight of an immediate transition.
+     */
+    public CsplExpression getRateExpression(int transition) {
+        return rateExpressions[transition];
+    }
+
+    public CsplExpression[] getHaltingExpressions() {
+        return haltingExpressions;
+    }
+
+    public int[] getInputPlaces(int transition) {
+        return Arrays.copyOfRange(inputPlaces, inputStart[transition], inputStart[transition + 1]);
+    }
+
+    public int[] getOutputPlaces(int transition) {
+        return Arrays.copyOfRange(outputPlaces, outputStart[transition], outputStart[transition + 1]);
+    }
+
+    public int[] getInhibitorPlaces(int transition) {
+        return Arrays.copyOfRange(inhibitorPlaces, inhibitorStart[transition], inhibitorStart[transition + 1]);
+    }
+
+    /**
+     *
+     * @param transition Index of the transition.
+     * @return Constant weights of the input arcs, marking dependent arcs have the weight -1.
+     */
+    public int[] getInputWeights(int transition) {
+        var result = Arrays.copyOfRange(inputWeights, inputStart[transition], inputStart[transition + 1]);
+        for(int i = 0; i < result.length; i++)
+            if(inputWeightFunctions[inputStart[transition] + i] != null)
+                result[i] = -1;
+        return result;
+    }
+
+    /**
+     *
+     * @param transition Index of the transition.
+     * @return Constant weights of the output arcs, marking dependent arcs have the weight -1.
+     */
+    public int[] getOutputWeights(int transition) {
+        var result = Arrays.copyOfRange(outputWeights, outputStart[transition], outputStart[transition + 1]);
+        for(int i = 0; i < result.length; i++)
+            if(outputWeightFunctions[outputStart[transition] + i] != null)
+                result[i] = -1;
+        return result;
+    }
+
+    public int[] getInhibitorWeights(int transition) {
+        return Arrays.copyOfRange(inhibitorWeights, inhibitorStart[transition], inhibitorStart[transition + 1]);
+    }
+
+    /**
+     * Collects the places which decide whether the transition has concession and its rate
+     * (input and inhibitor places and the places referenced by the guard, the rate and
+     * the input cardinality functions).
+     *
+     * @param transition Index of the transition.
+     * @param result Set to which the place indices are added.
+     */
+    public void collectEnablingPlaces(int transition, Set<Integer> result) {
+        for(int arc = inputStart[transition]; arc < inputStart[transition + 1]; arc++) {
+            result.add(inputPlaces[arc]);
+            if(inputWeightExpressions[arc] != null)
+                inputWeightExpressions[arc].collectPlaces(result);
+        }
+        for(int arc = inhibitorStart[transition]; arc < inhibitorStart[transition + 1]; arc++)
+            result.add(inhibitorPlaces[arc]);
+        if(guardExpressions[transition] != null)
+            guardExpressions[transition].collectPlaces(result);
+        rateExpressions[transition].collectPlaces(result);
+    }
+
+    /**
+     * Collects all places which are read or changed by the firing of the transition.
+     *
+     * @param transition Index of the transition.
+     * @param result Set to which the place indices are added.
+     */
+    public void collectReferencedPlaces(int transition, Set<Integer> result) {
+        collectEnablingPlaces(transition, result);
+        for(int arc = outputStart[transition]; arc < outputStart[transition + 1]; arc++) {
+            result.add(outputPlaces[arc]);
+            if(outputWeightExpressions[arc] != null)
+                outputWeightExpressions[arc].collectPlaces(result);
+        }
+    }
+
+    private int inputWeight(int arc, int[] marking) {
+        var function = inputWeightFunctions[arc];
+        return function == null ? inputWeights[arc] : (int) function.evaluate(marking);
+    }
+
+    private int outputWeight(int arc, int[] marking) {
+        var function = outputWeightFunctions[arc];
+        return function == null ? outputWeights[arc] : (int) function.evaluate(marking);
+    }
+
+    /**
+     * Checks the arcs and the guard of a transition, the priorities are not considered.
+     *
+     * @param transition Index of the transition.
+     * @param marking Marking.
+     * @return True if the transition has concession in the marking.
+     */
+    public boolean hasConcession(int transition, int[] marking) {
+        if(!hasArcConcession(transition, marking))
+            return false;
+        var guard = guards[transition];
+        return guard == null || CsplExpression.isTrue(guard.evaluate(marking));
+    }
+
+    /**
+     * Checks only the input and inhibitor arcs of a transition, the guard is not evaluated.
+     *
+     * @param transition Index of the transition.
+     * @param marking Marking.
+     * @return True if the marking satisfies the arcs of the transition.
+     */
+    public boolean hasArcConcession(int transition, int[] marking) {
+        for(int arc = inputStart[transition]; arc < inputStart[transition + 1]; arc++) {
+            if(marking[inputPlaces[arc]] < inputWeight(arc, marking))
+                return false;
+        }
+        for(int arc = inhibitorStart[transition]; arc < inhibitorStart[transition + 1]; arc++) {
+            var weight = inhibitorWeights[arc];
+            if(weight > 0 && marking[inhibitorPlaces[arc]] >= weight)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Finds the transitions which may fire in a marking according to the SPNP semantics.
+     *
+     * @param marking Marking.
+     * @param result Array of at least getTransitionCount() elements to which the enabled transitions are written.
+     * @return Number of enabled transitions.
+     */
+    public int getEnabledTransitions(int[] marking, int[] result) {
+        int count = 0;
+        boolean immediateEnabled = false;
+        int highestPriority = Integer.MIN_VALUE;
+        for(int t = 0; t < transitions.length; t++) {
+            // Cheap checks first, the guard is evaluated only for the candidates
+            if(immediateEnabled && (!immediate[t] || priorities[t] < highestPriority))
+                continue;
+            if(!immediateEnabled && !immediate[t] && priorities[t] < highestPriority)
+                continue;
+            if(!hasConcession(t, marking))
+                continue;
+
+            if(immediate[t] && !immediateEnabled) {
+                immediateEnabled = true;
+                highestPriority = Integer.MIN_VALUE;
+            }
+            if(priorities[t] > highestPriority) {
+                highestPriority = priorities[t];
+                count = 0;
+            }
+            result[count++] = t;
+        }
+        return count;
+    }
+
+    /**
+     *
+     * @param marking Marking.
+     * @return True if any of the halting functions evaluates to zero (the marking is absorbing).
+     */
+    public boolean isHalted(int[] marking) {
+        for(var halting : haltingFunctions) {
+            if(!CsplExpression.isTrue(halting.evaluate(marking)))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     *
+     * @param transition Index of the transition.
+     * @param marking Marking.
+     * @return Firing rate of a timed transition or the firing weight of an immediate transition.
+     */
+    public double getRate(int transition, int[] marking) {
+        return rates[transition].evaluate(marking);
+    }
+
+    /**
+     * Fires a transition, the arc cardinalities are evaluated in the original marking.
+     *
+     * @param transition Index of the transition.
+     * @param marking Original marking.
+     * @param result Array to which the new marking is written, may not be the original marking.
+     */
+    public void fire(int transition, int[] marking, int[] result) {
+        System.arraycopy(marking, 0, result, 0, marking.length);
+        for(int arc = inputStart[transition]; arc < inputStart[transition + 1]; arc++)
+            result[inputPlaces[arc]] -= inputWeight(arc, marking);
+        for(int arc = outputStart[transition]; arc < outputStart[transition + 1]; arc++)
+            result[outputPlaces[arc]] += outputWeight(arc, marking);
+    }
+
+    public String markingToString(int[] marking) {
+        var result = new StringBuilder("{");
+        boolean first = true;
+        for(int p = 0; p < marking.length; p++) {
+            if(marking[p] == 0)
+                continue;
+            if(!first)
+                result.append(", ");
+            result.append(String.format("%s: %d", placeNames[p], marking[p]));
+            first = false;
+        }
+        result.append("}");
+        return result.toString();
+    }
+
+    private static class Builder {
+        private final List<Place> places = new ArrayList<>();
+        private final Map<String, Integer> placeIndices = new HashMap<>();
+        private final List<Transition> transitions = new ArrayList<>();
+        private boolean[] immediate;
+        private int[] priorities;
+        private CsplExpression[] guardExpressions;
+        private CsplExpression[] rateExpressions;
+        private final ArcList inputArcs = new ArcList();
+        private final ArcList outputArcs = new ArcList();
+        private final ArcList inhibitorArcs = new ArcList();
+        private final List<CsplExpression> haltingExpressions = new ArrayList<>();
+    }
+
+    /**
+     *  Arcs collected in an arbitrary order which are sorted by the transition afterwards.
+     */
+    private static class ArcList {
+        private final List<int[]> arcs = new ArrayList<>();
+        private final List<CsplExpression> functions = new ArrayList<>();
+        private int[] order = null;
+
+        private void add(int transition, int place, int weight, CsplExpression function) {
+            arcs.add(new int[] {transition, place, weight, functions.size()});
+            functions.add(function);
+        }
+
+        private int[] start(int transitionCount) {
+            arcs.sort((a, b) -> Integer.compare(a[0], b[0]));
+            var result = new int[transitionCount + 1];
+            arcs.forEach(arc -> result[arc[0] + 1]++);
+            for(int t = 0; t < transitionCount; t++)
+                result[t + 1] += result[t];
+            order = new int[arcs.size()];
+            for(int i = 0; i < order.length; i++)
+                order[i] = arcs.get(i)[3];
+            return result;
+        }
+
+        private int[] places() {
+            return arcs.stream().mapToInt(arc -> arc[1]).toArray();
+        }
+
+        private int[] weights() {
+            return arcs.stream().mapToInt(arc -> arc[2]).toArray();
+        }
+
+        private CsplExpression[] expressions() {
+            var result = new CsplExpression[order.length];
+            for(int i = 0; i < order.length; i++)
+                result[i] = functions.get(order[i]);
+            return result;
+        }
+    }
+}
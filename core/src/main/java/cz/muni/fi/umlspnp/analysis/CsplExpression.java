@@ -0,0 +1,309 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import java.util.Set;
+
+/**
+ *  Syntax tree of the expression returned by a generated CSPL function.
+ * Only the subset of C which is produced by the transformation is represented
+ * (numbers, mark("place") calls and arithmetic, relational and logical operators).
+ *
+ */
+public abstract class CsplExpression {
+
+    /**
+     * Compiles the expression into a lambda which is evaluated over a marking vector.
+     * Constant subexpressions are folded during the compilation.
+     *
+     * @return Compiled function.
+     */
+    public abstract MarkingFunction compile();
+
+    /**
+     *
+     * @param places Set to which the indices of all places referenced by the expression are added.
+     */
+    public abstract void collectPlaces(Set<Integer> places);
+
+    public boolean isConstant() {
+        return false;
+    }
+
+    public double getConstantValue() {
+        throw new UnsupportedOperationException("Expression is not a constant");
+    }
+
+    public static boolean isTrue(double value) {
+        return value != 0.0;
+    }
+
+    public static double fromBoolean(boolean value) {
+        return value ? 1.0 : 0.0;
+    }
+
+    /**
+     *  A numeric literal.
+     */
+    public static class Constant extends CsplExpression {
+        private final double value;
+
+        public Constant(double value) {
+            this.value = value;
+        }
+
+        @Override
+        public MarkingFunction compile() {
+            final double constant = value;
+            return marking -> constant;
+        }
+
+        @Override
+        public void collectPlaces(Set<Integer> places) {
+        }
+
+        @Override
+        public boolean isConstant() {
+            return true;
+        }
+
+        @Override
+        public double getConstantValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(value);
+        }
+    }
+
+    /**
+     *  The mark("place") call - number of tokens in a place.
+     */
+    public static class Mark extends CsplExpression {
+        private final int place;
+        private final String placeName;
+
+        public Mark(int place, String placeName) {
+            this.place = place;
+            this.placeName = placeName;
+        }
+
+        public int getPlace() {
+            return place;
+        }
+
+        @Override
+        public MarkingFunction compile() {
+            final int index = place;
+            return marking -> marking[index];
+        }
+
+        @Override
+        public void collectPlaces(Set<Integer> places) {
+            places.add(place);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("mark(\"%s\")", placeName);
+        }
+    }
+
+    public enum UnaryOperator {
+        NOT("!"),
+        MINUS("-");
+
+        private final String symbol;
+
+        UnaryOperator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+    }
+
+    /**
+     *  Logical negation or arithmetic minus.
+     */
+    public static class Unary extends CsplExpression {
+        private final UnaryOperator operator;
+        private final CsplExpression operand;
+
+        public Unary(UnaryOperator operator, CsplExpression operand) {
+            this.operator = operator;
+            this.operand = operand;
+        }
+
+        public UnaryOperator getOperator() {
+            return operator;
+        }
+
+        public CsplExpression getOperand() {
+            return operand;
+        }
+
+        @Override
+        public MarkingFunction compile() {
+            if(operand.isConstant()) {
+                return new Constant(getConstantValue()).compile();
+            }
+            final var inner = operand.compile();
+            switch(operator) {
+                case NOT:
+                    return marking -> fromBoolean(!isTrue(inner.evaluate(marking)));
+                default:
+                    return marking -> -inner.evaluate(marking);
+            }
+        }
+
+        @Override
+        public void collectPlaces(Set<Integer> places) {
+            operand.collectPlaces(places);
+        }
+
+        @Override
+        public boolean isConstant() {
+            return operand.isConstant();
+        }
+
+        @Override
+        public double getConstantValue() {
+            var value = operand.getConstantValue();
+            if(operator == UnaryOperator.NOT)
+                return fromBoolean(!isTrue(value));
+            return -value;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s(%s)", operator.getSymbol(), operand);
+        }
+    }
+
+    public enum BinaryOperator {
+        OR("||"),
+        AND("&&"),
+        EQUAL("=="),
+        NOT_EQUAL("!="),
+        LESS("<"),
+        LESS_EQUAL("<="),
+        GREATER(">"),
+        GREATER_EQUAL(">="),
+        PLUS("+"),
+        MINUS("-"),
+        MULTIPLY("*"),
+        DIVIDE("/");
+
+        private final String symbol;
+
+        BinaryOperator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+
+        public double apply(double left, double right) {
+            switch(this) {
+                case OR: return fromBoolean(isTrue(left) || isTrue(right));
+                case AND: return fromBoolean(isTrue(left) && isTrue(right));
+                case EQUAL: return fromBoolean(left == right);
+                case NOT_EQUAL: return fromBoolean(left != right);
+                case LESS: return fromBoolean(left < right);
+                case LESS_EQUAL: return fromBoolean(left <= right);
+                case GREATER: return fromBoolean(left > right);
+                case GREATER_EQUAL: return fromBoolean(left >= right);
+                case PLUS: return left + right;
+                case MINUS: return left - right;
+                case MULTIPLY: return left * right;
+                default: return left / right;
+            }
+        }
+    }
+
+    /**
+     *  Binary operation, the logical operators are short-circuited as in C.
+     */
+    public static class Binary extends CsplExpression {
+        private final BinaryOperator operator;
+        private final CsplExpression left;
+        private final CsplExpression right;
+
+        public Binary(BinaryOperator operator, CsplExpression left, CsplExpression right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        public BinaryOperator getOperator() {
+            return operator;
+        }
+
+        public CsplExpression getLeft() {
+            return left;
+        }
+
+        public CsplExpression getRight() {
+            return right;
+        }
+
+        @Override
+        public MarkingFunction compile() {
+            if(isConstant())
+                return new Constant(getConstantValue()).compile();
+
+            final var l = left.compile();
+            final var r = right.compile();
+            switch(operator) {
+                case OR: return marking -> fromBoolean(isTrue(l.evaluate(marking)) || isTrue(r.evaluate(marking)));
+                case AND: return marking -> fromBoolean(isTrue(l.evaluate(marking)) && isTrue(r.evaluate(marking)));
+                case EQUAL: return marking -> fromBoolean(l.evaluate(marking) == r.evaluate(marking));
+                case NOT_EQUAL: return marking -> fromBoolean(l.evaluate(marking) != r.evaluate(marking));
+                case LESS: return marking -> fromBoolean(l.evaluate(marking) < r.evaluate(marking));
+                case LESS_EQUAL: return marking -> fromBoolean(l.evaluate(marking) <= r.evaluate(marking));
+                case GREATER: return marking -> fromBoolean(l.evaluate(marking) > r.evaluate(marking));
+                case GREATER_EQUAL: return marking -> fromBoolean(l.evaluate(marking) >= r.evaluate(marking));
+                case PLUS: return marking -> l.evaluate(marking) + r.evaluate(marking);
+                case MINUS: return marking -> l.evaluate(marking) - r.evaluate(marking);
+                case MULTIPLY: return marking -> l.evaluate(marking) * r.evaluate(marking);
+                default: return marking -> l.evaluate(marking) / r.evaluate(marking);
+            }
+        }
+
+        @Override
+        public void collectPlaces(Set<Integer> places) {
+            left.collectPlaces(places);
+            right.collectPlaces(places);
+        }
+
+        @Override
+        public boolean isConstant() {
+            if(left.isConstant() && right.isConstant())
+                return true;
+            // "0 && ..." and "1 || ..." are constant regardless of the right operand
+            if(left.isConstant() && operator == BinaryOperator.AND)
+                return !isTrue(left.getConstantValue());
+            if(left.isConstant() && operator == BinaryOperator.OR)
+                return isTrue(left.getConstantValue());
+            return false;
+        }
+
+        @Override
+        public double getConstantValue() {
+            var leftValue = left.getConstantValue();
+            if(operator == BinaryOperator.AND && !isTrue(leftValue))
+                return 0.0;
+            if(operator == BinaryOperator.OR && isTrue(leftValue))
+                return 1.0;
+            return operator.apply(leftValue, right.getConstantValue());
+        }
+
+        @Override
+        public String toString() {
+            return String.format("(%s %s %s)", left, operator.getSymbol(), right);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package cz.muni.fi.umlspnp.analysis;
+
+/**
+ *  Standard measures of a CTMC solution as printed by pr_std_average(): the probability
+ * that a place is not empty, the average number of tokens, the probability that a timed
+ * transition is enabled and its throughput. Time-averaged values are computed as well
+ * when the solution contains the cumulative sojourn times.
+ *
+ */
+public class CtmcMeasures {
+    private final CompiledNet net;
+    private final CtmcSolution solution;
+
+    private final double[] placeNonEmpty;
+    private final double[] placeTokens;
+    private final double[] transitionEnabled;
+    private final double[] transitionThroughput;
+    private final double[] averagePlaceTokens;
+    private final double[] averageTransitionThroughput;
+
+    public CtmcMeasures(ReachabilityGraph graph, CtmcSolution solution) {
+        this.net = graph.getNet();
+        this.solution = solution;
+
+        var places = net.getPlaceCount();
+        var transitions = net.getTransitionCount();
+        placeNonEmpty = new double[places];
+        placeTokens = new double[places];
+        transitionEnabled = new double[transitions];
+        transitionThroughput = new double[transitions];
+
+        var cumulative = solution.getCumulative();
+        var time = solution.getTime();
+        averagePlaceTokens = cumulative != null ? new double[places] : null;
+        averageTransitionThroughput = cumulative != null ? new double[transitions] : null;
+
+        var probabilities = solution.getProbabilities();
+        var enabled = new int[transitions];
+        for(int s = 0; s < graph.getStateCount(); s++) {
+            var probability = probabilities[s];
+            var sojourn = cumulative != null && time > 0.0 ? cumulative[s] / time : 0.0;
+            if(probability == 0.0 && sojourn == 0.0)
+                continue;
+            var marking = graph.getMarking(s);
+            for(int p = 0; p < places; p++) {
+                if(marking[p] > 0)
+                    placeNonEmpty[p] += probability;
+                placeTokens[p] += probability * marking[p];
+                if(averagePlaceTokens != null)
+                    averagePlaceTokens[p] += sojourn * marking[p];
+            }
+            if(net.isHalted(marking))
+                continue;
+            var count = net.getEnabledTransitions(marking, enabled);
+            for(int i = 0; i < count; i++) {
+                var transition = enabled[i];
+                if(net.isImmediate(transition))
+                    continue;
+                var rate = net.getRate(transition, marking);
+                transitionEnabled[transition] += probability;
+                transitionThroughput[transition] += probability * rate;
+                if(averageTransitionThroughput != null)
+                    averageTransitionThroughput[transition] += sojourn * rate;
+            }
+        }
+    }
+
+    public CtmcSolution getSolution() {
+        return solution;
+    }
+
+    public double getPlaceNonEmptyProbability(int place) {
+        return placeNonEmpty[place];
+    }
+
+    public double getPlaceAverageTokens(int place) {
+        return placeTokens[place];
+    }
+
+    public double getTransitionEnabledProbability(int transition) {
+        return transitionEnabled[transition];
+    }
+
+    public double getTransitionThroughput(int transition) {
+        return transitionThroughput[transition];
+    }
+
+    @Override
+    public String toString() {
+        var result = new StringBuilder();
+        var timeLabel = solution.isSteadyState() ? "INFINITY" : Double.toString(solution.getTime());
+        result.append(String.format("Solution at time %s:%n", timeLabel));
+        result.append(String.format("  iterations: %d%s, time: %d ms%n",
+                                    solution.getIterations(),
+                                    solution.isConverged() ? "" : " (precision NOT reached)",
+                                    solution.getSolutionTime()));
+        if(!Double.isNaN(solution.getMeanTimeToAbsorption()))
+            result.append(String.format("  mean time to absorption: %.6g%n", solution.getMeanTimeToAbsorption()));
+
+        result.append(String.format("  %-40s %16s %16s", "PLACE", "Prob. nonempty", "Avg. tokens"));
+        if(averagePlaceTokens != null)
+            result.append(String.format(" %16s", "Time-avg. tokens"));
+        result.append(System.lineSeparator());
+        for(int p = 0; p < net.getPlaceCount(); p++) {
+            result.append(String.format("  %-40s %16.6e %16.6e", net.getPlaceName(p), placeNonEmpty[p], placeTokens[p]));
+            if(averagePlaceTokens != null)
+                result.append(String.format(" %16.6e", averagePlaceTokens[p]));
+            result.append(System.lineSeparator());
+        }
+
+        result.append(String.format("  %-40s %16s %16s", "TRANSITION", "Prob. enabled", "Throughput"));
+        if(averageTransitionThroughput != null)
+            result.append(String.format(" %16s", "Time-avg. thr."));
+        result.append(System.lineSeparator());
+        for(int t = 0; t < net.getTransitionCount(); t++) {
+            if(net.isImmediate(t))
+                continue;
+            result.append(String.format("  %-40s %16.6e %16.6e", net.getTransitionName(t), transitionEnabled[t], transitionThroughput[t]));
+            if(averageTransitionThroughput != null)
+                result.append(String.format(" %16.6e", averageTransitionThroughput[t]));
+            result.append(System.lineSeparator());
+        }
+        return result.toString();
+    }
+}
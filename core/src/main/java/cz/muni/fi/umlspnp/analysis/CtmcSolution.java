@@ -0,0 +1,74 @@
+package cz.muni.fi.umlspnp.analysis;
+
+/**
+ *  Probability distribution over the tangible states computed by the CTMC solver
+ * for one time point (INFINITY for the steady state).
+ *
+ */
+public class CtmcSolution {
+    private final double time;
+    private final double[] probabilities;
+    private final double[] cumulative;
+    private final boolean converged;
+    private final int iterations;
+    private final double meanTimeToAbsorption;
+    private final long solutionTime;
+
+    /**
+     *
+     * @param time Time point, Double.POSITIVE_INFINITY for the steady state.
+     * @param probabilities State probabilities.
+     * @param cumulative Expected time spent in the states during [0, time] or null.
+     * @param converged False if the iteration limit was reached before the precision.
+     * @param iterations Number of iterations (matrix-vector products).
+     * @param meanTimeToAbsorption Mean time to absorption or NaN if the CTMC has no absorbing state.
+     * @param solutionTime Duration of the solution in milliseconds.
+     */
+    public CtmcSolution(double time,
+                        double[] probabilities,
+                        double[] cumulative,
+                        boolean converged,
+                        int iterations,
+                        double meanTimeToAbsorption,
+                        long solutionTime) {
+        this.time = time;
+        this.probabilities = probabilities;
+        this.cumulative = cumulative;
+        this.converged = converged;
+        this.iterations = iterations;
+        this.meanTimeToAbsorption = meanTimeToAbsorption;
+        this.solutionTime = solutionTime;
+    }
+
+    public double getTime() {
+        return time;
+    }
+
+    public boolean isSteadyState() {
+        return Double.isInfinite(time);
+    }
+
+    public double[] getProbabilities() {
+        return probabilities;
+    }
+
+    public double[] getCumulative() {
+        return cumulative;
+    }
+
+    public boolean isConverged() {
+        return converged;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public double getMeanTimeToAbsorption() {
+        return meanTimeToAbsorption;
+    }
+
+    public long getSolutionTime() {
+        return solutionTime;
+    }
+}
@@ -0,0 +1,447 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ *  Numerical solver of the CTMC given by a tangible reachability graph. The steady
+ * state is computed by SOR, Gauss-Seidel or the power method, the transient solution by
+ * uniformization. If the CTMC has absorbing states, the steady state is the distribution
+ * of the absorbing states reached from the initial distribution.
+ *
+ */
+public class CtmcSolver {
+    private static final double UNIFORMIZATION_FACTOR = 1.02;
+    private static final double MAX_RELAXATION = 1.9;
+
+    private final ReachabilityGraph graph;
+    private final SolverOptions options;
+    private final SparseMatrix incoming;
+    private final double[] exitRates;
+    private final double[] initial;
+    private final int absorbingCount;
+    private final double uniformizationRate;
+
+    public CtmcSolver(ReachabilityGraph graph, SolverOptions options) {
+        this.graph = graph;
+        this.options = options;
+
+        var rates = SparseMatrix.fromReachabilityGraph(graph);
+        this.incoming = rates.transpose();
+        this.exitRates = rates.getRowSums();
+
+        this.initial = new double[graph.getStateCount()];
+        var initialStates = graph.getInitialStates();
+        var initialProbabilities = graph.getInitialProbabilities();
+        for(int i = 0; i < initialStates.length; i++)
+            initial[initialStates[i]] += initialProbabilities[i];
+
+        int absorbing = 0;
+        double maxExitRate = 0.0;
+        for(var exitRate : exitRates) {
+            if(exitRate <= 0.0)
+                absorbing++;
+            maxExitRate = Math.max(maxExitRate, exitRate);
+        }
+        this.absorbingCount = absorbing;
+        this.uniformizationRate = maxExitRate * UNIFORMIZATION_FACTOR;
+    }
+
+    public ReachabilityGraph getGraph() {
+        return graph;
+    }
+
+    public int getAbsorbingStateCount() {
+        return absorbingCount;
+    }
+
+    public int getNonZeroCount() {
+        return incoming.getNonZeroCount();
+    }
+
+    /**
+     * Computes the steady state probabilities by the method given in the options.
+     * For a CTMC with absorbing states the expected times spent in the transient states
+     * are computed instead and the absorption probabilities are derived from them.
+     *
+     * @return The steady state solution.
+     * @throws CancellationException If the calling thread is interrupted.
+     */
+    public CtmcSolution solveSteadyState() {
+        var start = System.currentTimeMillis();
+        var n = graph.getStateCount();
+        var absorbing = absorbingCount > 0;
+
+        // Ergodic: pi_j = sum(pi_i * r_ij) / e_j, normalized
+        // Absorbing: tau_j = (pi0_j + sum(tau_i * r_ij)) / e_j for the transient states
+        var x = new double[n];
+        if(absorbing) {
+            for(int s = 0; s < n; s++)
+                x[s] = exitRates[s] > 0.0 ? initial[s] / exitRates[s] : 0.0;
+        }
+        else {
+            Arrays.fill(x, 1.0 / n);
+        }
+
+        var method = options.getSteadyStateMethod();
+        boolean converged = false;
+        int iteration = 0;
+        try(var pool = createPool()) {
+            var next = method == SolverOptions.SteadyStateMethod.POWER ? new double[n] : null;
+            double relaxation = 1.0;
+            var previousChange = Double.MAX_VALUE;
+            while(!converged && iteration < options.getIterations()) {
+                if(Thread.currentThread().isInterrupted())
+                    throw new CancellationException();
+                iteration++;
+                double change;
+                if(method == SolverOptions.SteadyStateMethod.POWER)
+                    change = absorbing ? jacobiStep(x, next, pool.get()) : powerStep(x, next, pool.get());
+                else
+                    change = sorSweep(x, relaxation, absorbing);
+
+                // Adaptive over-relaxation: speed up while the changes shrink, fall back if they grow
+                if(method == SolverOptions.SteadyStateMethod.SOR && iteration % 10 == 0) {
+                    if(change < previousChange)
+                        relaxation = Math.min(MAX_RELAXATION, relaxation + 0.1);
+                    else
+                        relaxation = 1.0;
+                    previousChange = change;
+                }
+                converged = change < options.getPrecision();
+            }
+        }
+
+        double[] probabilities;
+        double meanTimeToAbsorption = Double.NaN;
+        if(absorbing) {
+            probabilities = new double[n];
+            meanTimeToAbsorption = 0.0;
+            for(int j = 0; j < n; j++) {
+                if(exitRates[j] > 0.0) {
+                    meanTimeToAbsorption += x[j];
+                    continue;
+                }
+                double sum = initial[j];
+                for(int e = incoming.getRowStart(j); e < incoming.getRowEnd(j); e++)
+                    sum += x[incoming.getColumn(e)] * incoming.getValue(e);
+                probabilities[j] = sum;
+            }
+            normalize(probabilities);
+        }
+        else {
+            probabilities = x;
+        }
+        return new CtmcSolution(Double.POSITIVE_INFINITY, probabilities, null, converged, iteration,
+                                meanTimeToAbsorption, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Computes the transient state probabilities by uniformization. The Fox-Glynn variant
+     * skips the left tail of the Poisson distribution, which keeps the weights representable
+     * for large products of the time and the uniformization rate.
+     *
+     * @param time Time point.
+     * @return The transient solution.
+     */
+    public CtmcSolution solveTransient(double time) {
+        return solveTransient(new double[] {time})[0];
+    }
+
+    /**
+     * Computes the transient state probabilities of several time points in one uniformization
+     * sweep, the powers of the uniformized matrix are shared and weighted by the Poisson
+     * probabilities of each time point.
+     *
+     * @param times Time points.
+     * @return The transient solutions in the order of the time points.
+     * @throws CancellationException If the calling thread is interrupted.
+     */
+    public CtmcSolution[] solveTransient(double... times) {
+        var start = System.currentTimeMillis();
+        var n = graph.getStateCount();
+        var count = times.length;
+        var solutions = new CtmcSolution[count];
+        var v = initial.clone();
+        var results = new double[count][];
+        var cumulatives = new double[count][];
+        var weights = new double[count][];
+        var lefts = new int[count];
+        var rights = new int[count];
+        var qs = new double[count];
+        var active = new boolean[count];
+        int activeCount = 0;
+        for(int i = 0; i < count; i++) {
+            var time = times[i];
+            results[i] = new double[n];
+            cumulatives[i] = options.isCumulative() ? new double[n] : null;
+            if(uniformizationRate <= 0.0 || time <= 0.0) {
+                System.arraycopy(v, 0, results[i], 0, n);
+                if(cumulatives[i] != null) {
+                    for(int s = 0; s < n; s++)
+                        cumulatives[i][s] = v[s] * time;
+                }
+                solutions[i] = new CtmcSolution(time, results[i], cumulatives[i], true, 0, Double.NaN, System.currentTimeMillis() - start);
+                continue;
+            }
+            qs[i] = uniformizationRate * time;
+            weights[i] = options.getTransientMethod() == SolverOptions.TransientMethod.FOX_GLYNN
+                         ? foxGlynnWeights(qs[i], options.getPrecision())
+                         : poissonWeights(qs[i], options.getPrecision());
+            lefts[i] = (int) weights[i][0];
+            rights[i] = lefts[i] + weights[i].length - 2;
+            active[i] = true;
+            activeCount++;
+        }
+
+        var next = new double[n];
+        var detectionPrecision = options.getPrecision() * options.getSteadyStatePrecision();
+        var distributions = new double[count];
+        var cumulativeWeights = new double[count];
+        var iterations = new int[count];
+        int k = 0;
+        try(var pool = createPool()) {
+            while(activeCount > 0) {
+                if(Thread.currentThread().isInterrupted())
+                    throw new CancellationException();
+                for(int i = 0; i < count; i++) {
+                    if(!active[i])
+                        continue;
+                    var weight = k >= lefts[i] ? weights[i][k - lefts[i] + 1] : 0.0;
+                    distributions[i] += weight;
+                    if(weight > 0.0) {
+                        var result = results[i];
+                        for(int s = 0; s < n; s++)
+                            result[s] += weight * v[s];
+                    }
+                    if(cumulatives[i] != null) {
+                        var cumulative = cumulatives[i];
+                        var tail = Math.max(0.0, 1.0 - distributions[i]);
+                        cumulativeWeights[i] += tail;
+                        for(int s = 0; s < n; s++)
+                            cumulative[s] += tail * v[s];
+                    }
+                    if(k >= rights[i]) {
+                        active[i] = false;
+                        activeCount--;
+                        iterations[i] = k;
+                    }
+                }
+                if(activeCount == 0)
+                    break;
+
+                var change = powerStep(v, next, pool.get());
+                k++;
+                if(options.isSteadyStateDetection() && change < detectionPrecision) {
+                    // The remaining Poisson mass multiplies the same vector
+                    for(int i = 0; i < count; i++) {
+                        if(!active[i])
+                            continue;
+                        var result = results[i];
+                        var remaining = Math.max(0.0, 1.0 - distributions[i]);
+                        for(int s = 0; s < n; s++)
+                            result[s] += remaining * v[s];
+                        if(cumulatives[i] != null) {
+                            var cumulative = cumulatives[i];
+                            var remainingCumulative = Math.max(0.0, qs[i] - cumulativeWeights[i]);
+                            for(int s = 0; s < n; s++)
+                                cumulative[s] += remainingCumulative * v[s];
+                            cumulativeWeights[i] = qs[i];
+                        }
+                        active[i] = false;
+                        iterations[i] = k;
+                    }
+                    activeCount = 0;
+                }
+            }
+        }
+        var solutionTime = System.currentTimeMillis() - start;
+        for(int i = 0; i < count; i++) {
+            if(solutions[i] != null)
+                continue;
+            normalize(results[i]);
+            if(cumulatives[i] != null) {
+                for(int s = 0; s < n; s++)
+                    cumulatives[i][s] /= uniformizationRate;
+            }
+            solutions[i] = new CtmcSolution(times[i], results[i], cumulatives[i], true, iterations[i], Double.NaN, solutionTime);
+        }
+        return solutions;
+    }
+
+    /**
+     * One step of x = x * P with P = I + Q / uniformizationRate, the incoming rates are multiplied in parallel.
+     *
+     * @return Maximal relative change of the vector.
+     */
+    private double powerStep(double[] x, double[] next, ForkJoinPool pool) {
+        incoming.multiply(x, next, pool);
+        double change = 0.0;
+        for(int j = 0; j < x.length; j++) {
+            var value = next[j] / uniformizationRate + x[j] * (1.0 - exitRates[j] / uniformizationRate);
+            change = Math.max(change, relativeChange(x[j], value));
+            x[j] = value;
+        }
+        return change;
+    }
+
+    /**
+     * One Jacobi step of the expected sojourn times in the transient states.
+     *
+     * @return Maximal relative change of the vector.
+     */
+    private double jacobiStep(double[] x, double[] next, ForkJoinPool pool) {
+        incoming.multiply(x, next, pool);
+        double change = 0.0;
+        for(int j = 0; j < x.length; j++) {
+            if(exitRates[j] <= 0.0)
+                continue;
+            var value = (initial[j] + next[j]) / exitRates[j];
+            change = Math.max(change, relativeChange(x[j], value));
+            x[j] = value;
+        }
+        return change;
+    }
+
+    /**
+     * One forward sweep of SOR, with relaxation 1.0 it is the Gauss-Seidel method.
+     *
+     * @return Maximal relative change of the vector.
+     */
+    private double sorSweep(double[] x, double relaxation, boolean absorbing) {
+        double change = 0.0;
+        for(int j = 0; j < x.length; j++) {
+            if(exitRates[j] <= 0.0)
+                continue;
+            double sum = absorbing ? initial[j] : 0.0;
+            for(int e = incoming.getRowStart(j); e < incoming.getRowEnd(j); e++) {
+                var i = incoming.getColumn(e);
+                if(i != j)
+                    sum += x[i] * incoming.getValue(e);
+            }
+            var value = (1.0 - relaxation) * x[j] + relaxation * sum / exitRates[j];
+            if(value < 0.0)
+                value = 0.0;
+            change = Math.max(change, relativeChange(x[j], value));
+            x[j] = value;
+        }
+        if(!absorbing)
+            normalize(x);
+        return change;
+    }
+
+    private PoolHandle createPool() {
+        return new PoolHandle(options.getParallelism() > 1 && graph.getStateCount() > 8192
+                              ? new ForkJoinPool(options.getParallelism())
+                              : null);
+    }
+
+    private static double relativeChange(double previous, double current) {
+        var difference = Math.abs(current - previous);
+        return current > 0.0 ? difference / current : difference;
+    }
+
+    private static void normalize(double[] vector) {
+        double sum = 0.0;
+        for(var value : vector)
+            sum += value;
+        if(sum > 0.0) {
+            for(int i = 0; i < vector.length; i++)
+                vector[i] /= sum;
+        }
+    }
+
+    /**
+     * Poisson probabilities from zero up to the point where the right tail is below the precision.
+     *
+     * @return The left truncation point (always 0) followed by the weights.
+     */
+    static double[] poissonWeights(double q, double precision) {
+        var weights = new double[64];
+        weights[0] = 0.0;
+        double logWeight = -q;
+        double total = 0.0;
+        int k = 0;
+        while(true) {
+            var weight = Math.exp(logWeight);
+            if(k + 1 == weights.length)
+                weights = Arrays.copyOf(weights, weights.length * 2);
+            weights[k + 1] = weight;
+            total += weight;
+            if(total >= 1.0 - precision / 2 || (k > q && weight == 0.0))
+                break;
+            k++;
+            logWeight += Math.log(q) - Math.log(k);
+        }
+        return Arrays.copyOf(weights, k + 2);
+    }
+
+    /**
+     * Poisson probabilities between the left and the right truncation points computed from
+     * the mode towards both tails and normalized afterwards (after Fox and Glynn).
+     *
+     * @return The left truncation point followed by the weights.
+     */
+    static double[] foxGlynnWeights(double q, double precision) {
+        var mode = (int) Math.floor(q);
+        var cutoff = precision / 2 * 1e-3;
+
+        int left = mode;
+        double weight = 1.0;
+        double leftSum = 0.0;
+        while(left > 0) {
+            var previous = weight * left / q;
+            if(previous < cutoff)
+                break;
+            weight = previous;
+            leftSum += weight;
+            left--;
+        }
+        int right = mode;
+        weight = 1.0;
+        double rightSum = 0.0;
+        while(true) {
+            var following = weight * q / (right + 1);
+            if(following < cutoff && right > q)
+                break;
+            weight = following;
+            rightSum += weight;
+            right++;
+        }
+
+        var weights = new double[right - left + 2];
+        weights[0] = left;
+        weights[mode - left + 1] = 1.0;
+        for(int k = mode - 1; k >= left; k--)
+            weights[k - left + 1] = weights[k - left + 2] * (k + 1) / q;
+        for(int k = mode + 1; k <= right; k++)
+            weights[k - left + 1] = weights[k - left] * q / k;
+        var total = 1.0 + leftSum + rightSum;
+        for(int i = 1; i < weights.length; i++)
+            weights[i] /= total;
+        return weights;
+    }
+
+    /**
+     *  Closeable holder of the pool used by the parallel matrix-vector products.
+     *
+     */
+    private static class PoolHandle implements AutoCloseable {
+        private final ForkJoinPool pool;
+
+        PoolHandle(ForkJoinPool pool) {
+            this.pool = pool;
+        }
+
+        ForkJoinPool get() {
+            return pool;
+        }
+
+        @Override
+        public void close() {
+            if(pool != null)
+                pool.shutdown();
+        }
+    }
+}
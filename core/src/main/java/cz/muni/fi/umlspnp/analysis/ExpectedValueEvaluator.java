@@ -0,0 +1,145 @@
+package cz.muni.fi.umlspnp.analysis;
+
+/**
+ *  Evaluates CSPL expressions when some places hold a token only with a probability.
+ * The random places are treated as independent, so conjunctions multiply the probabilities
+ * and products multiply the expected values. Subexpressions which do not reference
+ * a random place are evaluated exactly.
+ *
+ */
+public class ExpectedValueEvaluator {
+    private final boolean[] random;
+
+    /**
+     *
+     * @param random Flags of the places whose values are token probabilities (at most one token).
+     */
+    public ExpectedValueEvaluator(boolean[] random) {
+        this.random = random;
+    }
+
+    public boolean isRandom(CsplExpression expression) {
+        if(expression instanceof CsplExpression.Mark)
+            return random[((CsplExpression.Mark) expression).getPlace()];
+        if(expression instanceof CsplExpression.Unary)
+            return isRandom(((CsplExpression.Unary) expression).getOperand());
+        if(expression instanceof CsplExpression.Binary) {
+            var binary = (CsplExpression.Binary) expression;
+            return isRandom(binary.getLeft()) || isRandom(binary.getRight());
+        }
+        return false;
+    }
+
+    /**
+     *
+     * @param expression Expression.
+     * @param values Token probabilities of the random places and the numbers of tokens of the other places.
+     * @return Approximate expected value of the expression.
+     */
+    public double expectation(CsplExpression expression, double[] values) {
+        if(expression instanceof CsplExpression.Constant)
+            return expression.getConstantValue();
+        if(expression instanceof CsplExpression.Mark)
+            return values[((CsplExpression.Mark) expression).getPlace()];
+        if(expression instanceof CsplExpression.Unary) {
+            var unary = (CsplExpression.Unary) expression;
+            if(unary.getOperator() == CsplExpression.UnaryOperator.NOT)
+                return 1.0 - probability(unary.getOperand(), values);
+            return -expectation(unary.getOperand(), values);
+        }
+        var binary = (CsplExpression.Binary) expression;
+        switch(binary.getOperator()) {
+            case PLUS:
+            case MINUS:
+            case MULTIPLY:
+            case DIVIDE:
+                // First order approximation, the expected value of a quotient is the quotient of the expected values
+                return binary.getOperator().apply(expectation(binary.getLeft(), values), expectation(binary.getRight(), values));
+            default:
+                return probability(binary, values);
+        }
+    }
+
+    /**
+     *
+     * @param expression Expression.
+     * @param values Token probabilities of the random places and the numbers of tokens of the other places.
+     * @return Approximate probability that the expression is non-zero.
+     */
+    public double probability(CsplExpression expression, double[] values) {
+        if(!isRandom(expression))
+            return CsplExpression.isTrue(exact(expression, values)) ? 1.0 : 0.0;
+        if(expression instanceof CsplExpression.Mark)
+            return clamp(values[((CsplExpression.Mark) expression).getPlace()]);
+        if(expression instanceof CsplExpression.Unary) {
+            var unary = (CsplExpression.Unary) expression;
+            if(unary.getOperator() == CsplExpression.UnaryOperator.NOT)
+                return 1.0 - probability(unary.getOperand(), values);
+            return probability(unary.getOperand(), values);
+        }
+        var binary = (CsplExpression.Binary) expression;
+        var left = binary.getLeft();
+        var right = binary.getRight();
+        switch(binary.getOperator()) {
+            case AND:
+                return probability(left, values) * probability(right, values);
+            case OR: {
+                var a = probability(left, values);
+                var b = probability(right, values);
+                return a + b - a * b;
+            }
+            case EQUAL:
+            case NOT_EQUAL:
+            case LESS:
+            case LESS_EQUAL:
+            case GREATER:
+            case GREATER_EQUAL:
+                return comparisonProbability(binary, values);
+            default:
+                return clamp(expectation(binary, values));
+        }
+    }
+
+    private double comparisonProbability(CsplExpression.Binary binary, double[] values) {
+        var operator = binary.getOperator();
+        var left = binary.getLeft();
+        var right = binary.getRight();
+        // A random place holds zero or one token, both cases are weighted by the probability
+        if(left instanceof CsplExpression.Mark && !isRandom(right)) {
+            var p = clamp(values[((CsplExpression.Mark) left).getPlace()]);
+            var r = exact(right, values);
+            return p * operator.apply(1.0, r) + (1.0 - p) * operator.apply(0.0, r);
+        }
+        if(right instanceof CsplExpression.Mark && !isRandom(left)) {
+            var p = clamp(values[((CsplExpression.Mark) right).getPlace()]);
+            var l = exact(left, values);
+            return p * operator.apply(l, 1.0) + (1.0 - p) * operator.apply(l, 0.0);
+        }
+        return operator.apply(expectation(left, values), expectation(right, values));
+    }
+
+    private double exact(CsplExpression expression, double[] values) {
+        if(expression instanceof CsplExpression.Constant)
+            return expression.getConstantValue();
+        if(expression instanceof CsplExpression.Mark)
+            return values[((CsplExpression.Mark) expression).getPlace()];
+        if(expression instanceof CsplExpression.Unary) {
+            var unary = (CsplExpression.Unary) expression;
+            var operand = exact(unary.getOperand(), values);
+            if(unary.getOperator() == CsplExpression.UnaryOperator.NOT)
+                return CsplExpression.fromBoolean(!CsplExpression.isTrue(operand));
+            return -operand;
+        }
+        var binary = (CsplExpression.Binary) expression;
+        var left = exact(binary.getLeft(), values);
+        if(binary.getOperator() == CsplExpression.BinaryOperator.AND && !CsplExpression.isTrue(left))
+            return 0.0;
+        if(binary.getOperator() == CsplExpression.BinaryOperator.OR && CsplExpression.isTrue(left))
+            return 1.0;
+        return binary.getOperator().apply(left, exact(binary.getRight(), values));
+    }
+
+    private static double clamp(double value) {
+        return Math.max(0.0, Math.min(1.0, value));
+    }
+}
@@ -0,0 +1,336 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import cz.muni.fi.umlspnp.analysis.CsplExpression.BinaryOperator;
+import cz.muni.fi.umlspnp.analysis.CsplExpression.UnaryOperator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ *  Recursive descent parser of the CSPL function bodies generated by the transformation.
+ * Operator precedence follows C. The body has to end with its only return statement,
+ * the statements preceding it are accepted only when they are output calls, optionally
+ * guarded by an if (e.g. the debug prints), as they have no effect on the returned value.
+ *
+ */
+public class ExpressionParser {
+    private static final Pattern COMMENTS = Pattern.compile("/\\*.*?\\*/|//[^\\n]*", Pattern.DOTALL);
+    private static final Pattern STRING_LITERALS = Pattern.compile("\"(\\\\.|[^\"\\\\])*\"");
+    private static final Pattern ASSIGNMENT = Pattern.compile("[^=!<>]=[^=]|\\+\\+|--");
+    private static final Pattern OUTPUT_CALL = Pattern.compile("f?printf\\s*\\(.*\\)", Pattern.DOTALL);
+    private static final Pattern RETURN_STATEMENT = Pattern.compile("return\\b(.*)", Pattern.DOTALL);
+
+    private final Map<String, Integer> placeIndices;
+    private final Map<String, Double> parameters;
+
+    private String input;
+    private int position;
+
+    /**
+     *
+     * @param placeIndices Mapping of place names to the place indices of the compiled net.
+     */
+    public ExpressionParser(Map<String, Integer> placeIndices) {
+        this(placeIndices, Map.of());
+    }
+
+    /**
+     *
+     * @param placeIndices Mapping of place names to the place indices of the compiled net.
+     * @param parameters Values of the input parameters referenced by the functions.
+     */
+    public ExpressionParser(Map<String, Integer> placeIndices, Map<String, Double> parameters) {
+        this.placeIndices = placeIndices;
+        this.parameters = parameters;
+    }
+
+    /**
+     * Parses a function body.
+     *
+     * @param body Body of the CSPL function.
+     * @return Expression of the return statement or null if the body is not supported.
+     */
+    public CsplExpression parseFunctionBody(String body) {
+        if(body == null)
+            return null;
+        var text = COMMENTS.matcher(body).replaceAll(" ");
+        // The string literals are masked, the statement bounds stay the same in both texts
+        var masked = STRING_LITERALS.matcher(text).replaceAll(m -> "_".repeat(m.group().length()));
+        var bounds = splitStatements(masked);
+        if(bounds == null || bounds.isEmpty())
+            return null;
+
+        for(int i = 0; i < bounds.size() - 1; i++) {
+            var statement = masked.substring(bounds.get(i)[0], bounds.get(i)[1]).trim();
+            if(!isOutputStatement(statement))
+                return null;
+        }
+        var last = bounds.get(bounds.size() - 1);
+        var returnStatement = RETURN_STATEMENT.matcher(masked.substring(last[0], last[1]).trim());
+        if(!returnStatement.matches())
+            return null;
+        var expressionStart = last[0] + masked.substring(last[0]).indexOf("return") + "return".length();
+        return parseExpression(text.substring(expressionStart, last[1]));
+    }
+
+    /**
+     * Splits the body into the statements terminated by semicolons outside of parentheses.
+     *
+     * @param masked Body with the string literals masked.
+     * @return Start and end (semicolon excluded) of the statements or null if the body
+     * contains a block or text after the last statement.
+     */
+    private static List<int[]> splitStatements(String masked) {
+        var result = new ArrayList<int[]>();
+        int depth = 0;
+        int start = 0;
+        for(int i = 0; i < masked.length(); i++) {
+            var c = masked.charAt(i);
+            if(c == '(')
+                depth++;
+            else if(c == ')')
+                depth--;
+            else if(c == '{' || c == '}')
+                return null;
+            else if(c == ';' && depth == 0) {
+                result.add(new int[] {start, i});
+                start = i + 1;
+            }
+        }
+        if(!masked.substring(start).isBlank())
+            return null;
+        return result;
+    }
+
+    /**
+     *
+     * @param statement Statement with the string literals masked.
+     * @return True if the statement is an output call without assignments, optionally guarded by ifs.
+     */
+    private static boolean isOutputStatement(String statement) {
+        if(ASSIGNMENT.matcher(statement).find())
+            return false;
+        while(statement.startsWith("if") && statement.substring(2).trim().startsWith("(")) {
+            var open = statement.indexOf('(');
+            var close = findClosingParenthesis(statement, open);
+            if(close < 0)
+                return false;
+            statement = statement.substring(close + 1).trim();
+        }
+        if(!OUTPUT_CALL.matcher(statement).matches())
+            return false;
+        return findClosingParenthesis(statement, statement.indexOf('(')) == statement.length() - 1;
+    }
+
+    private static int findClosingParenthesis(String text, int open) {
+        int depth = 0;
+        for(int i = open; i < text.length(); i++) {
+            if(text.charAt(i) == '(')
+                depth++;
+            else if(text.charAt(i) == ')' && --depth == 0)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Parses a single expression.
+     *
+     * @param expression C expression.
+     * @return Parsed expression or null if the expression is not supported.
+     */
+    public CsplExpression parseExpression(String expression) {
+        input = expression;
+        position = 0;
+        try {
+            var result = parseOr();
+            skipWhitespace();
+            if(position != input.length())
+                throw new IllegalArgumentException(String.format("unexpected \"%s\"", input.substring(position)));
+            return result;
+        }
+        catch(IllegalArgumentException ex) {
+            System.err.println(String.format("Expression parser: unsupported expression \"%s\": %s", expression.trim(), ex.getMessage()));
+            return null;
+        }
+    }
+
+    private CsplExpression parseOr() {
+        var left = parseAnd();
+        while(accept("||"))
+            left = new CsplExpression.Binary(BinaryOperator.OR, left, parseAnd());
+        return left;
+    }
+
+    private CsplExpression parseAnd() {
+        var left = parseEquality();
+        while(accept("&&"))
+            left = new CsplExpression.Binary(BinaryOperator.AND, left, parseEquality());
+        return left;
+    }
+
+    private CsplExpression parseEquality() {
+        var left = parseRelational();
+        while(true) {
+            if(accept("=="))
+                left = new CsplExpression.Binary(BinaryOperator.EQUAL, left, parseRelational());
+            else if(accept("!="))
+                left = new CsplExpression.Binary(BinaryOperator.NOT_EQUAL, left, parseRelational());
+            else
+                return left;
+        }
+    }
+
+    private CsplExpression parseRelational() {
+        var left = parseAdditive();
+        while(true) {
+            if(accept("<="))
+                left = new CsplExpression.Binary(BinaryOperator.LESS_EQUAL, left, parseAdditive());
+            else if(accept(">="))
+                left = new CsplExpression.Binary(BinaryOperator.GREATER_EQUAL, left, parseAdditive());
+            else if(accept("<"))
+                left = new CsplExpression.Binary(BinaryOperator.LESS, left, parseAdditive());
+            else if(accept(">"))
+                left = new CsplExpression.Binary(BinaryOperator.GREATER, left, parseAdditive());
+            else
+                return left;
+        }
+    }
+
+    private CsplExpression parseAdditive() {
+        var left = parseMultiplicative();
+        while(true) {
+            if(accept("+"))
+                left = new CsplExpression.Binary(BinaryOperator.PLUS, left, parseMultiplicative());
+            else if(accept("-"))
+                left = new CsplExpression.Binary(BinaryOperator.MINUS, left, parseMultiplicative());
+            else
+                return left;
+        }
+    }
+
+    private CsplExpression parseMultiplicative() {
+        var left = parseUnary();
+        while(true) {
+            if(accept("*"))
+                left = new CsplExpression.Binary(BinaryOperator.MULTIPLY, left, parseUnary());
+            else if(accept("/"))
+                left = new CsplExpression.Binary(BinaryOperator.DIVIDE, left, parseUnary());
+            else
+                return left;
+        }
+    }
+
+    private CsplExpression parseUnary() {
+        if(accept("!"))
+            return new CsplExpression.Unary(UnaryOperator.NOT, parseUnary());
+        if(accept("-"))
+            return new CsplExpression.Unary(UnaryOperator.MINUS, parseUnary());
+        if(accept("+"))
+            return parseUnary();
+        return parsePrimary();
+    }
+
+    private CsplExpression parsePrimary() {
+        skipWhitespace();
+        if(accept("(")) {
+            var inner = parseOr();
+            expect(")");
+            return inner;
+        }
+        if(acceptWord("mark")) {
+            expect("(");
+            var placeName = parseStringLiteral();
+            expect(")");
+            var index = placeIndices.get(placeName);
+            if(index == null)
+                throw new IllegalArgumentException(String.format("unknown place \"%s\"", placeName));
+            return new CsplExpression.Mark(index, placeName);
+        }
+        if(position < input.length() && Character.isJavaIdentifierStart(input.charAt(position))) {
+            var identifier = parseIdentifier();
+            var value = parameters.get(identifier);
+            if(value == null)
+                throw new IllegalArgumentException(String.format("unknown identifier \"%s\"", identifier));
+            return new CsplExpression.Constant(value);
+        }
+        return new CsplExpression.Constant(parseNumber());
+    }
+
+    private String parseIdentifier() {
+        int start = position;
+        while(position < input.length() && Character.isJavaIdentifierPart(input.charAt(position)))
+            position++;
+        return input.substring(start, position);
+    }
+
+    private double parseNumber() {
+        skipWhitespace();
+        int start = position;
+        while(position < input.length()) {
+            var c = input.charAt(position);
+            var isExponentSign = (c == '+' || c == '-') && position > start &&
+                                 Character.toLowerCase(input.charAt(position - 1)) == 'e';
+            if(Character.isDigit(c) || c == '.' || c == 'e' || c == 'E' || isExponentSign)
+                position++;
+            else
+                break;
+        }
+        if(start == position)
+            throw new IllegalArgumentException(String.format("unexpected \"%s\"", input.substring(start)));
+        try {
+            return Double.parseDouble(input.substring(start, position));
+        }
+        catch(NumberFormatException ex) {
+            throw new IllegalArgumentException(String.format("invalid number \"%s\"", input.substring(start, position)));
+        }
+    }
+
+    private String parseStringLiteral() {
+        skipWhitespace();
+        if(position >= input.length() || input.charAt(position) != '"')
+            throw new IllegalArgumentException("string literal expected");
+        int end = input.indexOf('"', position + 1);
+        if(end < 0)
+            throw new IllegalArgumentException("unterminated string literal");
+        var result = input.substring(position + 1, end);
+        position = end + 1;
+        return result;
+    }
+
+    private boolean acceptWord(String word) {
+        skipWhitespace();
+        if(!input.startsWith(word, position))
+            return false;
+        int end = position + word.length();
+        if(end < input.length() && Character.isJavaIdentifierPart(input.charAt(end)))
+            return false;
+        position = end;
+        return true;
+    }
+
+    private boolean accept(String token) {
+        skipWhitespace();
+        if(!input.startsWith(token, position))
+            return false;
+        // Do not split the two character operators
+        if(token.length() == 1 && position + 1 < input.length()) {
+            var next = input.charAt(position + 1);
+            if((token.equals("<") || token.equals(">") || token.equals("!")) && next == '=')
+                return false;
+        }
+        position += token.length();
+        return true;
+    }
+
+    private void expect(String token) {
+        if(!accept(token))
+            throw new IllegalArgumentException(String.format("\"%s\" expected", token));
+    }
+
+    private void skipWhitespace() {
+        while(position < input.length() && Character.isWhitespace(input.charAt(position)))
+            position++;
+    }
+}
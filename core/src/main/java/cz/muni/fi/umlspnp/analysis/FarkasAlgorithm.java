@@ -0,0 +1,355 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ *  Computes the minimal semi-positive solutions y of y * C = 0 (the minimal-support
+ * invariants) with the Farkas (Fourier-Motzkin) elimination. The columns are eliminated
+ * in the order which creates the fewest new rows and every new row whose support contains
+ * the support of another row is dropped, so the rows are kept minimal during the whole run.
+ * Rows are sparse, the invariant part is indexed by the rows of C.
+ *
+ */
+public class FarkasAlgorithm {
+    private final IncidenceMatrix matrix;
+    private int rowLimit = 100000;
+    private String error = null;
+
+    /* State of the elimination */
+    private List<Row>[] columnRows;
+    private List<Row>[] rowsByFirst;
+    private int[] positive;
+    private int[] negative;
+    private int aliveRows;
+
+    /**
+     *
+     * @param matrix Matrix C, the invariants are combinations of its rows.
+     */
+    public FarkasAlgorithm(IncidenceMatrix matrix) {
+        this.matrix = matrix;
+    }
+
+    /**
+     *
+     * @param rowLimit Number of intermediate rows after which the computation is aborted.
+     */
+    public void setRowLimit(int rowLimit) {
+        this.rowLimit = rowLimit;
+    }
+
+    /**
+     *
+     * @return Reason of the last failure or null.
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Computes the minimal invariants, the rows connected to marking dependent arcs
+     * are not used.
+     *
+     * @return The invariants or null if the row limit was exceeded or the weights overflowed.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Invariant> compute() {
+        var rows = matrix.getRows();
+        var columns = matrix.getColumns();
+        error = null;
+        columnRows = (List<Row>[]) new List<?>[columns];
+        rowsByFirst = (List<Row>[]) new List<?>[rows];
+        positive = new int[columns];
+        negative = new int[columns];
+        aliveRows = 0;
+        for(int c = 0; c < columns; c++)
+            columnRows[c] = new ArrayList<>();
+        for(int r = 0; r < rows; r++)
+            rowsByFirst[r] = new ArrayList<>();
+
+        for(int r = 0; r < rows; r++) {
+            if(matrix.isVariableRow(r))
+                continue;
+            var start = matrix.getRowStart(r);
+            var length = matrix.getRowEnd(r) - start;
+            var rowColumns = new int[length];
+            var rowValues = new long[length];
+            for(int i = 0; i < length; i++) {
+                rowColumns[i] = matrix.getColumn(start + i);
+                rowValues[i] = matrix.getValue(start + i);
+            }
+            sortByColumn(rowColumns, rowValues);
+            addRow(new Row(new int[] {r}, new long[] {1}, rowColumns, rowValues));
+        }
+
+        var eliminated = new boolean[columns];
+        while(true) {
+            int column = -1;
+            long bestCost = Long.MAX_VALUE;
+            for(int c = 0; c < columns; c++) {
+                if(eliminated[c] || positive[c] + negative[c] == 0)
+                    continue;
+                var cost = (long) positive[c] * negative[c] - positive[c] - negative[c];
+                if(cost < bestCost) {
+                    bestCost = cost;
+                    column = c;
+                }
+            }
+            if(column < 0)
+                break;
+            eliminated[column] = true;
+            if(!eliminate(column))
+                return null;
+        }
+
+        var invariants = new ArrayList<Invariant>();
+        for(var byFirst : rowsByFirst) {
+            for(var row : byFirst) {
+                if(row.alive)
+                    invariants.add(new Invariant(row.support, row.weights));
+            }
+        }
+        columnRows = null;
+        rowsByFirst = null;
+        return invariants;
+    }
+
+    private boolean eliminate(int column) {
+        var positiveRows = new ArrayList<Row>();
+        var negativeRows = new ArrayList<Row>();
+        for(var row : columnRows[column]) {
+            if(!row.alive)
+                continue;
+            var value = row.getValue(column);
+            if(value > 0)
+                positiveRows.add(row);
+            else if(value < 0)
+                negativeRows.add(row);
+        }
+        columnRows[column] = new ArrayList<>();
+        for(var row : positiveRows)
+            removeRow(row);
+        for(var row : negativeRows)
+            removeRow(row);
+
+        var created = new ArrayList<Row>();
+        try {
+            for(var p : positiveRows) {
+                for(var n : negativeRows) {
+                    var row = combine(p, n, column);
+                    if(!isDominated(row, created))
+                        created.add(row);
+                    if(aliveRows + created.size() > rowLimit) {
+                        error = String.format("more than %d intermediate rows", rowLimit);
+                        return false;
+                    }
+                }
+            }
+        }
+        catch(ArithmeticException ex) {
+            error = "the invariant weights overflowed";
+            return false;
+        }
+        for(var row : created) {
+            if(row.alive)
+                addRow(row);
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the support of the row contains the support of another row, the rows
+     * created in the current step whose support contains the new one are removed.
+     */
+    private boolean isDominated(Row row, List<Row> created) {
+        for(var element : row.support) {
+            for(var other : rowsByFirst[element]) {
+                if(other.alive && isSubset(other.support, row.support))
+                    return true;
+            }
+        }
+        for(var other : created) {
+            if(!other.alive)
+                continue;
+            if(isSubset(other.support, row.support))
+                return true;
+            if(isSubset(row.support, other.support))
+                other.alive = false;
+        }
+        return false;
+    }
+
+    private static boolean isSubset(int[] subset, int[] set) {
+        if(subset.length > set.length)
+            return false;
+        int j = 0;
+        for(var element : subset) {
+            while(j < set.length && set[j] < element)
+                j++;
+            if(j == set.length || set[j] != element)
+                return false;
+            j++;
+        }
+        return true;
+    }
+
+    /**
+     *
+     * @return Combination p * |n[column]| + n * p[column] with the column eliminated, divided by the gcd.
+     */
+    private static Row combine(Row p, Row n, int column) {
+        var pFactor = -n.getValue(column);
+        var nFactor = p.getValue(column);
+
+        var support = new int[p.support.length + n.support.length];
+        var weights = new long[support.length];
+        var supportLength = merge(p.support, p.weights, pFactor, n.support, n.weights, nFactor, support, weights, -1);
+        var columns = new int[p.columns.length + n.columns.length];
+        var values = new long[columns.length];
+        var columnsLength = merge(p.columns, p.values, pFactor, n.columns, n.values, nFactor, columns, values, column);
+
+        long gcd = 0;
+        for(int i = 0; i < supportLength; i++)
+            gcd = gcd(gcd, weights[i]);
+        for(int i = 0; i < columnsLength && gcd != 1; i++)
+            gcd = gcd(gcd, values[i]);
+        if(gcd > 1) {
+            for(int i = 0; i < supportLength; i++)
+                weights[i] /= gcd;
+            for(int i = 0; i < columnsLength; i++)
+                values[i] /= gcd;
+        }
+        return new Row(Arrays.copyOf(support, supportLength), Arrays.copyOf(weights, supportLength),
+                       Arrays.copyOf(columns, columnsLength), Arrays.copyOf(values, columnsLength));
+    }
+
+    /**
+     * Merges two sparse vectors multiplied by factors, zero results and the skipped index are left out.
+     *
+     * @return Number of written elements.
+     */
+    private static int merge(int[] aIndices, long[] aValues, long aFactor,
+                             int[] bIndices, long[] bValues, long bFactor,
+                             int[] indices, long[] values, int skip) {
+        int i = 0, j = 0, count = 0;
+        while(i < aIndices.length || j < bIndices.length) {
+            int index;
+            long value;
+            if(j == bIndices.length || (i < aIndices.length && aIndices[i] < bIndices[j])) {
+                index = aIndices[i];
+                value = Math.multiplyExact(aValues[i++], aFactor);
+            }
+            else if(i == aIndices.length || bIndices[j] < aIndices[i]) {
+                index = bIndices[j];
+                value = Math.multiplyExact(bValues[j++], bFactor);
+            }
+            else {
+                index = aIndices[i];
+                value = Math.addExact(Math.multiplyExact(aValues[i++], aFactor), Math.multiplyExact(bValues[j++], bFactor));
+            }
+            if(value != 0 && index != skip) {
+                indices[count] = index;
+                values[count++] = value;
+            }
+        }
+        return count;
+    }
+
+    private static long gcd(long a, long b) {
+        a = Math.abs(a);
+        b = Math.abs(b);
+        while(b != 0) {
+            var t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    private static void sortByColumn(int[] columns, long[] values) {
+        for(int i = 1; i < columns.length; i++) {
+            var column = columns[i];
+            var value = values[i];
+            int j = i - 1;
+            while(j >= 0 && columns[j] > column) {
+                columns[j + 1] = columns[j];
+                values[j + 1] = values[j];
+                j--;
+            }
+            columns[j + 1] = column;
+            values[j + 1] = value;
+        }
+    }
+
+    private void addRow(Row row) {
+        rowsByFirst[row.support[0]].add(row);
+        for(int i = 0; i < row.columns.length; i++) {
+            columnRows[row.columns[i]].add(row);
+            if(row.values[i] > 0)
+                positive[row.columns[i]]++;
+            else
+                negative[row.columns[i]]++;
+        }
+        aliveRows++;
+    }
+
+    private void removeRow(Row row) {
+        row.alive = false;
+        for(int i = 0; i < row.columns.length; i++) {
+            if(row.values[i] > 0)
+                positive[row.columns[i]]--;
+            else
+                negative[row.columns[i]]--;
+        }
+        aliveRows--;
+    }
+
+    /**
+     *  Row of the elimination, the invariant part (support and weights) and the remaining
+     * part of y * C (columns and values), both sorted by the index.
+     *
+     */
+    private static class Row {
+        private final int[] support;
+        private final long[] weights;
+        private final int[] columns;
+        private final long[] values;
+        private boolean alive = true;
+
+        Row(int[] support, long[] weights, int[] columns, long[] values) {
+            this.support = support;
+            this.weights = weights;
+            this.columns = columns;
+            this.values = values;
+        }
+
+        long getValue(int column) {
+            var index = Arrays.binarySearch(columns, column);
+            return index >= 0 ? values[index] : 0;
+        }
+    }
+
+    /**
+     *  Minimal-support invariant, the indices are sorted.
+     *
+     */
+    public static class Invariant {
+        private final int[] indices;
+        private final long[] weights;
+
+        public Invariant(int[] indices, long[] weights) {
+            this.indices = indices;
+            this.weights = weights;
+        }
+
+        public int[] getIndices() {
+            return indices;
+        }
+
+        public long[] getWeights() {
+            return weights;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *  Importance function of the splitting (RESTART) simulation derived from the model
+ * structure. The importance of a marking is the maximum over the terms, each term is
+ * a weighted sum of tokens in places (e.g. the DOWN places of a redundancy group).
+ *
+ */
+public class ImportanceFunction {
+    private final String description;
+    private final List<Term> terms = new ArrayList<>();
+
+    /**
+     *
+     * @param description What the importance measures, printed in the reports.
+     */
+    public ImportanceFunction(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Adds a term.
+     *
+     * @param name Name of the term (e.g. the redundancy group).
+     * @param places Names of the places.
+     * @param weights Weights of the places.
+     */
+    public void addTerm(String name, List<String> places, List<Integer> weights) {
+        terms.add(new Term(name, places, weights));
+    }
+
+    public boolean isEmpty() {
+        return terms.isEmpty();
+    }
+
+    /**
+     *
+     * @return Upper bound of the importance if every place holds at most one token.
+     */
+    public int getMaximalLevel() {
+        int result = 0;
+        for(var term : terms) {
+            int sum = 0;
+            for(var weight : term.weights)
+                sum += Math.max(0, weight);
+            result = Math.max(result, sum);
+        }
+        return result;
+    }
+
+    /**
+     *
+     * @return Body of the CSPL function which computes the importance.
+     */
+    public String toCspl() {
+        var result = new StringBuilder();
+        result.append(String.format("int level = 0, value;%n"));
+        terms.forEach(term -> {
+            result.append(String.format("%n/* %s */%n", term.name));
+            result.append("value = ");
+            for(int i = 0; i < term.places.size(); i++) {
+                if(i > 0)
+                    result.append(String.format("%n      + "));
+                var weight = term.weights.get(i);
+                if(weight != 1)
+                    result.append(weight).append(" * ");
+                result.append(String.format("mark(\"%s\")", term.places.get(i)));
+            }
+            if(term.places.isEmpty())
+                result.append("0");
+            result.append(String.format(";%nif(value > level)%n    level = value;%n"));
+        });
+        result.append(String.format("%nreturn level;"));
+        return result.toString();
+    }
+
+    /**
+     * Resolves the places in a compiled net.
+     *
+     * @param net Compiled net.
+     * @return Function evaluating the importance of the markings of the net or null if a place is missing.
+     */
+    public MarkingFunction bind(CompiledNet net) {
+        var termPlaces = new int[terms.size()][];
+        var termWeights = new int[terms.size()][];
+        for(int t = 0; t < terms.size(); t++) {
+            var term = terms.get(t);
+            termPlaces[t] = new int[term.places.size()];
+            termWeights[t] = new int[term.places.size()];
+            for(int i = 0; i < termPlaces[t].length; i++) {
+                termPlaces[t][i] = net.getPlaceIndex(term.places.get(i));
+                termWeights[t][i] = term.weights.get(i);
+                if(termPlaces[t][i] < 0) {
+                    System.err.println(String.format("Importance function: place \"%s\" is not part of the net.", term.places.get(i)));
+                    return null;
+                }
+            }
+        }
+        return marking -> {
+            int level = 0;
+            for(int t = 0; t < termPlaces.length; t++) {
+                int value = 0;
+                for(int i = 0; i < termPlaces[t].length; i++)
+                    value += termWeights[t][i] * marking[termPlaces[t][i]];
+                level = Math.max(level, value);
+            }
+            return level;
+        };
+    }
+
+    @Override
+    public String toString() {
+        var result = new StringBuilder();
+        result.append(String.format("Importance function (%s):%n", description));
+        terms.forEach(term -> result.append(String.format("  %s: %d places%n", term.name, term.places.size())));
+        return result.toString();
+    }
+
+    /**
+     *  Weighted sum of tokens in places.
+     *
+     */
+    private static class Term {
+        private final String name;
+        private final List<String> places;
+        private final List<Integer> weights;
+
+        Term(String name, List<String> places, List<Integer> weights) {
+            this.name = name;
+            this.places = new ArrayList<>(places);
+            this.weights = new ArrayList<>(weights);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ *  Short pilot simulation which suggests the thresholds of the splitting (RESTART)
+ * simulation. Every run records the highest importance reached before the time limit,
+ * the thresholds are placed so that the conditional probability of reaching the next
+ * threshold from the previous one is close to the target stage probability.
+ *
+ */
+public class ImportancePilot {
+    private static final int VANISHING_STEP_LIMIT = 100000;
+
+    private final CompiledNet net;
+    private final ImportanceFunction importanceFunction;
+    private int runs = 1000;
+    private double length = 50.0;
+    private long seed = 52836;
+    private double stageProbability = Math.exp(-2.0);
+
+    /* Number of runs which reached at least the importance level (the index) */
+    private long[] reached = null;
+    private List<Integer> thresholds = null;
+    private long events = 0;
+    private long pilotTime = 0;
+
+    public ImportancePilot(CompiledNet net, ImportanceFunction importanceFunction) {
+        this.net = net;
+        this.importanceFunction = importanceFunction;
+    }
+
+    public void setRuns(int runs) {
+        this.runs = runs;
+    }
+
+    /**
+     *
+     * @param length Simulated time of each run.
+     */
+    public void setLength(double length) {
+        this.length = length;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     *
+     * @param stageProbability Target probability of reaching the next threshold, e^-2 by default.
+     */
+    public void setStageProbability(double stageProbability) {
+        this.stageProbability = stageProbability;
+    }
+
+    /**
+     * Performs the pilot runs and places the thresholds.
+     *
+     * @return False if the importance function does not match the net.
+     */
+    public boolean run() {
+        var start = System.currentTimeMillis();
+        var importance = importanceFunction.bind(net);
+        if(importance == null)
+            return false;
+
+        var maximalLevel = importanceFunction.getMaximalLevel();
+        reached = new long[maximalLevel + 1];
+        events = 0;
+        var random = new SplittableRandom(seed);
+        var enabled = new int[net.getTransitionCount()];
+        var weights = new double[net.getTransitionCount()];
+        var marking = new int[net.getPlaceCount()];
+        var next = new int[net.getPlaceCount()];
+        for(int r = 0; r < runs; r++) {
+            System.arraycopy(net.getInitialMarking(), 0, marking, 0, marking.length);
+            int highest = (int) importance.evaluate(marking);
+            double time = 0.0;
+            int vanishingSteps = 0;
+            while(!net.isHalted(marking)) {
+                var count = net.getEnabledTransitions(marking, enabled);
+                if(count == 0)
+                    break;
+                double total = 0.0;
+                for(int i = 0; i < count; i++) {
+                    var weight = net.getRate(enabled[i], marking);
+                    weights[i] = weight > 0.0 && Double.isFinite(weight) ? weight : 0.0;
+                    total += weights[i];
+                }
+                if(total <= 0.0)
+                    break;
+                if(net.isImmediate(enabled[0])) {
+                    if(++vanishingSteps > VANISHING_STEP_LIMIT)
+                        break;
+                }
+                else {
+                    vanishingSteps = 0;
+                    time += -Math.log(1.0 - random.nextDouble()) / total;
+                    if(time > length)
+                        break;
+                }
+
+                var point = random.nextDouble() * total;
+                int chosen = count - 1;
+                for(int i = 0; i < count; i++) {
+                    point -= weights[i];
+                    if(point < 0.0 && weights[i] > 0.0) {
+                        chosen = i;
+                        break;
+                    }
+                }
+                net.fire(enabled[chosen], marking, next);
+                var swap = marking;
+                marking = next;
+                next = swap;
+                events++;
+                highest = Math.max(highest, (int) importance.evaluate(marking));
+            }
+            for(int level = 0; level <= Math.min(highest, maximalLevel); level++)
+                reached[level]++;
+        }
+        thresholds = placeThresholds();
+        pilotTime = System.currentTimeMillis() - start;
+        return true;
+    }
+
+    private List<Integer> placeThresholds() {
+        var result = new ArrayList<Integer>();
+        int previous = 0;
+        for(int level = 1; level < reached.length && reached[level] > 0; level++) {
+            if(reached[previous] > 0 && (double) reached[level] / reached[previous] <= stageProbability) {
+                result.add(level);
+                previous = level;
+            }
+        }
+        // The levels which were not reached are rare, each of them is a separate stage
+        for(int level = previous + 1; level < reached.length; level++) {
+            if(reached[level] == 0)
+                result.add(level);
+        }
+        return result;
+    }
+
+    /**
+     *
+     * @param level Importance level.
+     * @return Fraction of the pilot runs which reached the level.
+     */
+    public double getReachedProbability(int level) {
+        if(reached == null || level >= reached.length || runs == 0)
+            return 0.0;
+        return (double) reached[level] / runs;
+    }
+
+    /**
+     *
+     * @return Suggested thresholds (importance levels) or null if the pilot did not run.
+     */
+    public List<Integer> getThresholds() {
+        return thresholds;
+    }
+
+    /**
+     *
+     * @return Suggested number of splits of a trajectory at each threshold (the inverse of the stage probability).
+     */
+    public List<Integer> getSplittingFactors() {
+        var result = new ArrayList<Integer>();
+        if(thresholds == null)
+            return result;
+        int previous = 0;
+        for(var threshold : thresholds) {
+            var probability = reached[previous] > 0 ? (double) reached[threshold] / reached[previous] : 0.0;
+            result.add(probability > 0.0 ? (int) Math.max(1, Math.round(1.0 / probability)) : (int) Math.round(1.0 / stageProbability));
+            previous = threshold;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        var result = new StringBuilder();
+        result.append(importanceFunction);
+        if(reached == null)
+            return result.append(String.format("  pilot not run%n")).toString();
+        result.append(String.format("Pilot simulation: %d runs of length %s, events: %d, time: %d ms%n",
+                                    runs, Double.toString(length), events, pilotTime));
+        result.append(String.format("  %-10s %12s %14s%n", "LEVEL", "Runs", "Probability"));
+        for(int level = 0; level < reached.length; level++) {
+            if(reached[level] > 0)
+                result.append(String.format("  %-10d %12d %14s%n", level, reached[level], Double.toString(getReachedProbability(level))));
+            else
+                result.append(String.format("  %-10d %12d %14s%n", level, 0, String.format("< %s", Double.toString(1.0 / runs))));
+        }
+        var factors = getSplittingFactors();
+        result.append(String.format("  suggested thresholds: %d%n", thresholds.size()));
+        for(int i = 0; i < thresholds.size(); i++)
+            result.append(String.format("    level %d, splitting factor %d%n", thresholds.get(i), factors.get(i)));
+        return result.toString();
+    }
+}
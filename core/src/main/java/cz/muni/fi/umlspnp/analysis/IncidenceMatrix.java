@@ -0,0 +1,177 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import java.util.Arrays;
+
+/**
+ *  Incidence matrix C (places x transitions) of a compiled net in the compressed sparse
+ * row layout, C[p][t] is the change of the number of tokens in p when t fires.
+ * Marking dependent arcs have no constant effect, their places and transitions are flagged
+ * and the arcs are left out of the matrix.
+ *
+ */
+public class IncidenceMatrix {
+    private final int rows;
+    private final int columns;
+    private final int[] rowStart;
+    private final int[] columnIndices;
+    private final int[] values;
+    private final boolean[] variableRows;
+    private final boolean[] variableColumns;
+
+    private IncidenceMatrix(int rows, int columns, int[] rowStart, int[] columnIndices, int[] values,
+                            boolean[] variableRows, boolean[] variableColumns) {
+        this.rows = rows;
+        this.columns = columns;
+        this.rowStart = rowStart;
+        this.columnIndices = columnIndices;
+        this.values = values;
+        this.variableRows = variableRows;
+        this.variableColumns = variableColumns;
+    }
+
+    public static IncidenceMatrix fromNet(CompiledNet net) {
+        var placeCount = net.getPlaceCount();
+        var transitionCount = net.getTransitionCount();
+        var variablePlaces = new boolean[placeCount];
+        var variableTransitions = new boolean[transitionCount];
+
+        // Changes of the places by the transitions, collected per transition (column)
+        var columnStart = new int[transitionCount + 1];
+        var columnPlaces = new int[16];
+        var columnValues = new int[16];
+        int count = 0;
+        var change = new int[placeCount];
+        var touched = new int[placeCount];
+        for(int t = 0; t < transitionCount; t++) {
+            int touchedCount = 0;
+            var inputPlaces = net.getInputPlaces(t);
+            var inputWeights = net.getInputWeights(t);
+            for(int i = 0; i < inputPlaces.length; i++) {
+                var place = inputPlaces[i];
+                if(inputWeights[i] < 0) {
+                    variablePlaces[place] = true;
+                    variableTransitions[t] = true;
+                    continue;
+                }
+                if(change[place] == 0)
+                    touched[touchedCount++] = place;
+                change[place] -= inputWeights[i];
+            }
+            var outputPlaces = net.getOutputPlaces(t);
+            var outputWeights = net.getOutputWeights(t);
+            for(int i = 0; i < outputPlaces.length; i++) {
+                var place = outputPlaces[i];
+                if(outputWeights[i] < 0) {
+                    variablePlaces[place] = true;
+                    variableTransitions[t] = true;
+                    continue;
+                }
+                if(change[place] == 0)
+                    touched[touchedCount++] = place;
+                change[place] += outputWeights[i];
+            }
+            for(int i = 0; i < touchedCount; i++) {
+                var place = touched[i];
+                if(change[place] != 0) {
+                    if(count == columnPlaces.length) {
+                        columnPlaces = Arrays.copyOf(columnPlaces, count * 2);
+                        columnValues = Arrays.copyOf(columnValues, count * 2);
+                    }
+                    columnPlaces[count] = place;
+                    columnValues[count++] = change[place];
+                }
+                change[place] = 0;
+            }
+            columnStart[t + 1] = count;
+        }
+
+        // Transposition into rows of places
+        var rowStart = new int[placeCount + 1];
+        for(int i = 0; i < count; i++)
+            rowStart[columnPlaces[i] + 1]++;
+        for(int p = 0; p < placeCount; p++)
+            rowStart[p + 1] += rowStart[p];
+        var position = Arrays.copyOf(rowStart, placeCount);
+        var columnIndices = new int[count];
+        var values = new int[count];
+        for(int t = 0; t < transitionCount; t++) {
+            for(int i = columnStart[t]; i < columnStart[t + 1]; i++) {
+                var index = position[columnPlaces[i]]++;
+                columnIndices[index] = t;
+                values[index] = columnValues[i];
+            }
+        }
+        return new IncidenceMatrix(placeCount, transitionCount, rowStart, columnIndices, values,
+                                   variablePlaces, variableTransitions);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getNonZeroCount() {
+        return values.length;
+    }
+
+    public int getRowStart(int row) {
+        return rowStart[row];
+    }
+
+    public int getRowEnd(int row) {
+        return rowStart[row + 1];
+    }
+
+    public int getColumn(int index) {
+        return columnIndices[index];
+    }
+
+    public int getValue(int index) {
+        return values[index];
+    }
+
+    /**
+     *
+     * @param row Index of the row (a place, a transition in the transposed matrix).
+     * @return True if the row is connected to a marking dependent arc.
+     */
+    public boolean isVariableRow(int row) {
+        return variableRows[row];
+    }
+
+    /**
+     *
+     * @param column Index of the column (a transition, a place in the transposed matrix).
+     * @return True if the column is connected to a marking dependent arc.
+     */
+    public boolean isVariableColumn(int column) {
+        return variableColumns[column];
+    }
+
+    /**
+     *
+     * @return The transposed matrix (transitions x places) in the same layout.
+     */
+    public IncidenceMatrix transpose() {
+        var transposedStart = new int[columns + 1];
+        for(var column : columnIndices)
+            transposedStart[column + 1]++;
+        for(int c = 0; c < columns; c++)
+            transposedStart[c + 1] += transposedStart[c];
+        var position = Arrays.copyOf(transposedStart, columns);
+        var transposedColumns = new int[values.length];
+        var transposedValues = new int[values.length];
+        for(int r = 0; r < rows; r++) {
+            for(int i = rowStart[r]; i < rowStart[r + 1]; i++) {
+                var index = position[columnIndices[i]]++;
+                transposedColumns[index] = r;
+                transposedValues[index] = values[i];
+            }
+        }
+        return new IncidenceMatrix(columns, rows, transposedStart, transposedColumns, transposedValues,
+                                   variableColumns, variableRows);
+    }
+}
@@ -0,0 +1,128 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import java.util.Arrays;
+
+/**
+ *  Binary min-heap of the items 0 to capacity - 1 ordered by their keys. The position
+ * of every item is indexed, so the keys can be changed and the items removed in logarithmic
+ * time. No objects are allocated after the construction.
+ *
+ */
+public class IndexedHeap {
+    private final double[] keys;
+    private final int[] heap;
+    private final int[] positions;
+    private int size = 0;
+
+    public IndexedHeap(int capacity) {
+        this.keys = new double[capacity];
+        this.heap = new int[capacity];
+        this.positions = new int[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int item) {
+        return positions[item] >= 0;
+    }
+
+    public double getKey(int item) {
+        return keys[item];
+    }
+
+    /**
+     *
+     * @return The item with the lowest key, the heap may not be empty.
+     */
+    public int peek() {
+        return heap[0];
+    }
+
+    /**
+     * Inserts the item or changes its key.
+     *
+     * @param item Item.
+     * @param key New key of the item.
+     */
+    public void set(int item, double key) {
+        var position = positions[item];
+        if(position < 0) {
+            keys[item] = key;
+            heap[size] = item;
+            positions[item] = size;
+            siftUp(size++);
+            return;
+        }
+        var previous = keys[item];
+        keys[item] = key;
+        if(key < previous)
+            siftUp(position);
+        else
+            siftDown(position);
+    }
+
+    public void remove(int item) {
+        var position = positions[item];
+        if(position < 0)
+            return;
+        positions[item] = -1;
+        size--;
+        if(position == size)
+            return;
+        var last = heap[size];
+        heap[position] = last;
+        positions[last] = position;
+        siftDown(position);
+        if(heap[position] == last)
+            siftUp(position);
+    }
+
+    public void clear() {
+        for(int i = 0; i < size; i++)
+            positions[heap[i]] = -1;
+        size = 0;
+    }
+
+    private void siftUp(int position) {
+        var item = heap[position];
+        var key = keys[item];
+        while(position > 0) {
+            var parent = (position - 1) >>> 1;
+            var parentItem = heap[parent];
+            if(keys[parentItem] <= key)
+                break;
+            heap[position] = parentItem;
+            positions[parentItem] = position;
+            position = parent;
+        }
+        heap[position] = item;
+        positions[item] = position;
+    }
+
+    private void siftDown(int position) {
+        var item = heap[position];
+        var key = keys[item];
+        var half = size >>> 1;
+        while(position < half) {
+            var child = 2 * position + 1;
+            var right = child + 1;
+            if(right < size && keys[heap[right]] < keys[heap[child]])
+                child = right;
+            var childItem = heap[child];
+            if(key <= keys[childItem])
+                break;
+            heap[position] = childItem;
+            positions[childItem] = position;
+            position = child;
+        }
+        heap[position] = item;
+        positions[item] = position;
+    }
+}
@@ -0,0 +1,282 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ *  Structural analysis of a compiled net by its minimal P-invariants and T-invariants.
+ * Every place covered by a P-invariant y is bounded by y * M0 / y[p] in all reachable
+ * markings, the uncovered places may be unbounded (or bounded only by inhibitor arcs
+ * and guards). The places connected to marking dependent arcs are never covered.
+ *
+ */
+public class InvariantAnalysis {
+    private static final int PRINTED_INVARIANT_LIMIT = 50;
+
+    private final CompiledNet net;
+    private int rowLimit = 100000;
+
+    private IncidenceMatrix matrix = null;
+    private List<FarkasAlgorithm.Invariant> placeInvariants = null;
+    private List<FarkasAlgorithm.Invariant> transitionInvariants = null;
+    private String placeInvariantError = null;
+    private String transitionInvariantError = null;
+    private long[] placeBounds = null;
+    private long analysisTime = 0;
+
+    public InvariantAnalysis(CompiledNet net) {
+        this.net = net;
+    }
+
+    /**
+     *
+     * @param rowLimit Number of intermediate rows of the Farkas algorithm after which it is aborted.
+     */
+    public void setRowLimit(int rowLimit) {
+        this.rowLimit = rowLimit;
+    }
+
+    /**
+     * Computes the invariants and the place bounds.
+     *
+     * @return False if the P-invariants could not be computed.
+     */
+    public boolean analyze() {
+        var start = System.currentTimeMillis();
+        matrix = IncidenceMatrix.fromNet(net);
+
+        var placeFarkas = new FarkasAlgorithm(matrix);
+        placeFarkas.setRowLimit(rowLimit);
+        placeInvariants = placeFarkas.compute();
+        placeInvariantError = placeFarkas.getError();
+
+        var transitionFarkas = new FarkasAlgorithm(matrix.transpose());
+        transitionFarkas.setRowLimit(rowLimit);
+        transitionInvariants = transitionFarkas.compute();
+        transitionInvariantError = transitionFarkas.getError();
+
+        if(placeInvariants != null)
+            placeBounds = computeBounds();
+        analysisTime = System.currentTimeMillis() - start;
+        return placeInvariants != null;
+    }
+
+    private long[] computeBounds() {
+        var bounds = new long[net.getPlaceCount()];
+        Arrays.fill(bounds, -1);
+        var initial = net.getInitialMarking();
+        for(var invariant : placeInvariants) {
+            var tokens = getTokenSum(invariant, initial);
+            var places = invariant.getIndices();
+            var weights = invariant.getWeights();
+            for(int i = 0; i < places.length; i++) {
+                var bound = tokens / weights[i];
+                if(bounds[places[i]] < 0 || bound < bounds[places[i]])
+                    bounds[places[i]] = bound;
+            }
+        }
+        return bounds;
+    }
+
+    private static long getTokenSum(FarkasAlgorithm.Invariant invariant, int[] marking) {
+        long result = 0;
+        var places = invariant.getIndices();
+        var weights = invariant.getWeights();
+        for(int i = 0; i < places.length; i++)
+            result += weights[i] * marking[places[i]];
+        return result;
+    }
+
+    public IncidenceMatrix getIncidenceMatrix() {
+        return matrix;
+    }
+
+    /**
+     *
+     * @return Minimal P-invariants or null if they could not be computed.
+     */
+    public List<FarkasAlgorithm.Invariant> getPlaceInvariants() {
+        return placeInvariants;
+    }
+
+    /**
+     *
+     * @return Minimal T-invariants or null if they could not be computed.
+     */
+    public List<FarkasAlgorithm.Invariant> getTransitionInvariants() {
+        return transitionInvariants;
+    }
+
+    /**
+     *
+     * @param place Index of the place.
+     * @return Structural bound of the place or -1 if the place is not covered by a P-invariant.
+     */
+    public long getPlaceBound(int place) {
+        return placeBounds == null ? -1 : placeBounds[place];
+    }
+
+    public List<Integer> getUncoveredPlaces() {
+        var result = new ArrayList<Integer>();
+        for(int p = 0; p < net.getPlaceCount(); p++) {
+            if(getPlaceBound(p) < 0)
+                result.add(p);
+        }
+        return result;
+    }
+
+    /**
+     *
+     * @return Transitions which are not part of any T-invariant (no firing sequence
+     *         containing them reproduces a marking), empty if the T-invariants are not known.
+     */
+    public List<Integer> getUncoveredTransitions() {
+        var result = new ArrayList<Integer>();
+        if(transitionInvariants == null)
+            return result;
+        var covered = new boolean[net.getTransitionCount()];
+        transitionInvariants.forEach(invariant -> {
+            for(var transition : invariant.getIndices())
+                covered[transition] = true;
+        });
+        for(int t = 0; t < covered.length; t++) {
+            if(!covered[t])
+                result.add(t);
+        }
+        return result;
+    }
+
+    /**
+     * Bounds for the compact encoding of the markings (see MarkingEncoder), the structural
+     * bounds are used for the covered places and the estimate for the others.
+     *
+     * @param estimate Estimated bounds of the places (e.g. ReachabilityGraphGenerator.estimateBounds).
+     * @return The bounds.
+     */
+    public int[] getEncodingBounds(int[] estimate) {
+        var result = Arrays.copyOf(estimate, estimate.length);
+        for(int p = 0; p < result.length; p++) {
+            var bound = getPlaceBound(p);
+            if(bound >= 0)
+                result[p] = (int) Math.max(1, Math.min(Integer.MAX_VALUE, bound));
+        }
+        return result;
+    }
+
+    /**
+     * Groups the places connected by the supports of the P-invariants, the weighted sum
+     * of the tokens of each invariant in a component is conserved.
+     *
+     * @return Places of the components with more than one place.
+     */
+    public List<int[]> getConservativeComponents() {
+        var result = new ArrayList<int[]>();
+        if(placeInvariants == null)
+            return result;
+        var parent = new int[net.getPlaceCount()];
+        for(int p = 0; p < parent.length; p++)
+            parent[p] = p;
+        placeInvariants.forEach(invariant -> {
+            var places = invariant.getIndices();
+            for(int i = 1; i < places.length; i++)
+                parent[find(parent, places[i])] = find(parent, places[0]);
+        });
+        var componentSizes = new int[parent.length];
+        for(int p = 0; p < parent.length; p++)
+            componentSizes[find(parent, p)]++;
+        for(int root = 0; root < parent.length; root++) {
+            if(componentSizes[root] < 2 || find(parent, root) != root)
+                continue;
+            var component = new int[componentSizes[root]];
+            int count = 0;
+            for(int p = 0; p < parent.length; p++) {
+                if(find(parent, p) == root)
+                    component[count++] = p;
+            }
+            result.add(component);
+        }
+        return result;
+    }
+
+    private static int find(int[] parent, int element) {
+        while(parent[element] != element) {
+            parent[element] = parent[parent[element]];
+            element = parent[element];
+        }
+        return element;
+    }
+
+    private String invariantToString(FarkasAlgorithm.Invariant invariant, boolean places) {
+        var result = new StringBuilder();
+        var indices = invariant.getIndices();
+        var weights = invariant.getWeights();
+        for(int i = 0; i < indices.length; i++) {
+            if(i > 0)
+                result.append(" + ");
+            if(weights[i] != 1)
+                result.append(weights[i]).append('*');
+            result.append(places ? net.getPlaceName(indices[i]) : net.getTransitionName(indices[i]));
+        }
+        return result.toString();
+    }
+
+    @Override
+    public String toString() {
+        var result = new StringBuilder();
+        result.append(String.format("Structural analysis:%n"));
+        if(matrix == null)
+            return result.append(String.format("  not analyzed%n")).toString();
+        result.append(String.format("  places: %d, transitions: %d, incidence non-zeros: %d, time: %d ms%n",
+                                    matrix.getRows(), matrix.getColumns(), matrix.getNonZeroCount(), analysisTime));
+
+        if(placeInvariants == null) {
+            result.append(String.format("  P-invariants could not be computed: %s%n", placeInvariantError));
+        }
+        else {
+            var initial = net.getInitialMarking();
+            result.append(String.format("  minimal P-invariants: %d%n", placeInvariants.size()));
+            placeInvariants.stream().limit(PRINTED_INVARIANT_LIMIT).forEach(invariant -> {
+                result.append(String.format("    %s = %d%n", invariantToString(invariant, true), getTokenSum(invariant, initial)));
+            });
+            if(placeInvariants.size() > PRINTED_INVARIANT_LIMIT)
+                result.append(String.format("    ... (%d more)%n", placeInvariants.size() - PRINTED_INVARIANT_LIMIT));
+
+            var uncovered = getUncoveredPlaces();
+            if(uncovered.isEmpty())
+                result.append(String.format("  the net is covered by P-invariants (structurally bounded)%n"));
+            else {
+                result.append(String.format("  places not covered by P-invariants (possibly unbounded): %d%n", uncovered.size()));
+                uncovered.forEach(place -> {
+                    result.append(String.format("    %s%s%n", net.getPlaceName(place),
+                                                matrix.isVariableRow(place) ? " (marking dependent arc)" : ""));
+                });
+            }
+            result.append(String.format("  conservative components: %d%n", getConservativeComponents().size()));
+
+            result.append(String.format("  %-40s %12s%n", "PLACE", "Bound"));
+            for(int p = 0; p < net.getPlaceCount(); p++) {
+                var bound = getPlaceBound(p);
+                result.append(String.format("  %-40s %12s%n", net.getPlaceName(p), bound < 0 ? "?" : Long.toString(bound)));
+            }
+        }
+
+        if(transitionInvariants == null) {
+            result.append(String.format("  T-invariants could not be computed: %s%n", transitionInvariantError));
+        }
+        else {
+            result.append(String.format("  minimal T-invariants: %d%n", transitionInvariants.size()));
+            transitionInvariants.stream().limit(PRINTED_INVARIANT_LIMIT).forEach(invariant -> {
+                result.append(String.format("    %s%n", invariantToString(invariant, false)));
+            });
+            if(transitionInvariants.size() > PRINTED_INVARIANT_LIMIT)
+                result.append(String.format("    ... (%d more)%n", transitionInvariants.size() - PRINTED_INVARIANT_LIMIT));
+            var uncovered = getUncoveredTransitions();
+            if(!uncovered.isEmpty()) {
+                result.append(String.format("  transitions not covered by T-invariants: %d%n", uncovered.size()));
+                uncovered.forEach(transition -> result.append(String.format("    %s%n", net.getTransitionName(transition))));
+            }
+        }
+        return result.toString();
+    }
+}
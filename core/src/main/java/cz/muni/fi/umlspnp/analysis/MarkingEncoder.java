@@ -0,0 +1,96 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import java.util.Arrays;
+
+/**
+ *  Packs markings into arrays of long words. Every place gets the number of bits
+ * needed for its token bound and a place never straddles two words, so the
+ * decoding is a single shift and mask.
+ *
+ */
+public class MarkingEncoder {
+    private final int[] bounds;
+    private final int[] words;
+    private final int[] shifts;
+    private final long[] masks;
+    private final int wordCount;
+
+    /**
+     *
+     * @param bounds Maximal number of tokens in each place.
+     */
+    public MarkingEncoder(int[] bounds) {
+        this.bounds = Arrays.copyOf(bounds, bounds.length);
+        this.words = new int[bounds.length];
+        this.shifts = new int[bounds.length];
+        this.masks = new long[bounds.length];
+
+        int word = 0;
+        int shift = 0;
+        for(int p = 0; p < bounds.length; p++) {
+            var bits = getBitWidth(bounds[p]);
+            if(shift + bits > Long.SIZE) {
+                word++;
+                shift = 0;
+            }
+            words[p] = word;
+            shifts[p] = shift;
+            masks[p] = (1L << bits) - 1;
+            shift += bits;
+        }
+        this.wordCount = bounds.length == 0 ? 1 : word + 1;
+    }
+
+    public static int getBitWidth(int bound) {
+        return Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(bound));
+    }
+
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    public int getPlaceCount() {
+        return bounds.length;
+    }
+
+    /**
+     *
+     * @param place Index of the place.
+     * @return Largest number of tokens which can be encoded for the place.
+     */
+    public int getCapacity(int place) {
+        return (int) masks[place];
+    }
+
+    public int[] getBounds() {
+        return Arrays.copyOf(bounds, bounds.length);
+    }
+
+    /**
+     * Encodes a marking.
+     *
+     * @param marking Marking.
+     * @param result Destination array.
+     * @param offset Index of the first destination word.
+     * @return Index of the first place which does not fit into its bits or -1 if the marking was encoded.
+     */
+    public int encode(int[] marking, long[] result, int offset) {
+        Arrays.fill(result, offset, offset + wordCount, 0L);
+        for(int p = 0; p < marking.length; p++) {
+            var tokens = marking[p];
+            if(tokens < 0 || tokens > masks[p])
+                return p;
+            result[offset + words[p]] |= ((long) tokens) << shifts[p];
+        }
+        return -1;
+    }
+
+    public void decode(long[] packed, int offset, int[] marking) {
+        for(int p = 0; p < marking.length; p++)
+            marking[p] = (int) ((packed[offset + words[p]] >>> shifts[p]) & masks[p]);
+    }
+
+    public int decodePlace(long[] packed, int offset, int place) {
+        return (int) ((packed[offset + words[place]] >>> shifts[place]) & masks[place]);
+    }
+}
@@ -0,0 +1,16 @@
+package cz.muni.fi.umlspnp.analysis;
+
+/**
+ *  A compiled CSPL function body (guard, rate, cardinality or halting function)
+ * which is evaluated directly over a marking vector.
+ *
+ */
+@FunctionalInterface
+public interface MarkingFunction {
+    /**
+     *
+     * @param marking Number of tokens in each place, indexed by the place index of the compiled net.
+     * @return Value of the function in the given marking (boolean results are 1 or 0).
+     */
+    public double evaluate(int[] marking);
+}
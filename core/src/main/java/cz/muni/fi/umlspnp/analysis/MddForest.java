@@ -0,0 +1,338 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ *  Forest of quasi-reduced multi-valued decision diagrams. A node at the level k has
+ * one child per local state of the level, the children are nodes at the level k - 1
+ * and the missing (trailing) children are the empty set. Nodes are unique, so equal
+ * sets are represented by the same node identifier.
+ * The operation caches have a fixed size and older entries are overwritten, nodes which
+ * are not reachable from the given roots are reclaimed by the garbage collection.
+ *
+ */
+public class MddForest {
+    public static final int EMPTY = 0;
+    public static final int TERMINAL = 1;
+    /* Operation codes from OP_CLIENT up are free for the operations of the users of the forest */
+    public static final int OP_CLIENT = 16;
+
+    private static final int OP_UNION = 1;
+    private static final int OP_INTERSECT = 2;
+    private static final int OP_DIFFERENCE = 3;
+
+    private static final int[] NO_CHILDREN = new int[0];
+
+    private int[] levels = new int[1024];
+    private int[][] children = new int[1024][];
+    private int nodeCount = 2;
+    private int[] freeNodes = new int[64];
+    private int freeCount = 0;
+
+    private int[] uniqueTable = new int[2048];
+    private int uniqueCount = 0;
+
+    private final int cacheMask;
+    private final int[] cacheOperations;
+    private final int[] cacheLeft;
+    private final int[] cacheRight;
+    private final int[] cacheResults;
+
+    private final int nodeLimit;
+
+    /**
+     *
+     * @param cacheBits Base two logarithm of the number of the operation cache entries.
+     * @param nodeLimit Number of live nodes after which the garbage collection should be performed.
+     */
+    public MddForest(int cacheBits, int nodeLimit) {
+        var cacheSize = 1 << cacheBits;
+        this.cacheMask = cacheSize - 1;
+        this.cacheOperations = new int[cacheSize];
+        this.cacheLeft = new int[cacheSize];
+        this.cacheRight = new int[cacheSize];
+        this.cacheResults = new int[cacheSize];
+        this.nodeLimit = nodeLimit;
+        children[EMPTY] = NO_CHILDREN;
+        children[TERMINAL] = NO_CHILDREN;
+    }
+
+    public int getLevel(int node) {
+        return levels[node];
+    }
+
+    public int getChildCount(int node) {
+        return children[node].length;
+    }
+
+    public int getChild(int node, int index) {
+        var nodeChildren = children[node];
+        return index < nodeChildren.length ? nodeChildren[index] : EMPTY;
+    }
+
+    /**
+     *
+     * @return Number of nodes which are currently allocated.
+     */
+    public int getNodeCount() {
+        return nodeCount - freeCount;
+    }
+
+    public boolean isCollectionNeeded() {
+        return getNodeCount() > nodeLimit;
+    }
+
+    /**
+     * Finds or creates a node.
+     *
+     * @param level Level of the node.
+     * @param nodeChildren Children of the node, the array is not retained.
+     * @return The unique node or EMPTY if all children are empty.
+     */
+    public int makeNode(int level, int[] nodeChildren) {
+        int length = nodeChildren.length;
+        while(length > 0 && nodeChildren[length - 1] == EMPTY)
+            length--;
+        if(length == 0)
+            return EMPTY;
+
+        var hash = hash(level, nodeChildren, length);
+        var mask = uniqueTable.length - 1;
+        var slot = hash & mask;
+        while(uniqueTable[slot] != 0) {
+            var candidate = uniqueTable[slot];
+            if(levels[candidate] == level && equalChildren(children[candidate], nodeChildren, length))
+                return candidate;
+            slot = (slot + 1) & mask;
+        }
+
+        var node = allocate();
+        levels[node] = level;
+        children[node] = Arrays.copyOf(nodeChildren, length);
+        uniqueTable[slot] = node;
+        if(++uniqueCount * 2 > uniqueTable.length)
+            rebuildUniqueTable(uniqueTable.length * 2);
+        return node;
+    }
+
+    public int union(int a, int b) {
+        if(a == EMPTY || a == b)
+            return b;
+        if(b == EMPTY)
+            return a;
+        if(a > b) {
+            var swap = a;
+            a = b;
+            b = swap;
+        }
+        var cached = cacheLookup(OP_UNION, a, b);
+        if(cached >= 0)
+            return cached;
+
+        var length = Math.max(children[a].length, children[b].length);
+        var result = new int[length];
+        for(int i = 0; i < length; i++)
+            result[i] = union(getChild(a, i), getChild(b, i));
+        return cacheStore(OP_UNION, a, b, makeNode(levels[a], result));
+    }
+
+    public int intersect(int a, int b) {
+        if(a == EMPTY || b == EMPTY)
+            return EMPTY;
+        if(a == b)
+            return a;
+        if(a > b) {
+            var swap = a;
+            a = b;
+            b = swap;
+        }
+        var cached = cacheLookup(OP_INTERSECT, a, b);
+        if(cached >= 0)
+            return cached;
+
+        var length = Math.min(children[a].length, children[b].length);
+        var result = new int[length];
+        for(int i = 0; i < length; i++)
+            result[i] = intersect(children[a][i], children[b][i]);
+        return cacheStore(OP_INTERSECT, a, b, makeNode(levels[a], result));
+    }
+
+    public int difference(int a, int b) {
+        if(a == EMPTY || a == b)
+            return EMPTY;
+        if(b == EMPTY)
+            return a;
+        var cached = cacheLookup(OP_DIFFERENCE, a, b);
+        if(cached >= 0)
+            return cached;
+
+        var length = children[a].length;
+        var result = new int[length];
+        for(int i = 0; i < length; i++)
+            result[i] = difference(children[a][i], getChild(b, i));
+        return cacheStore(OP_DIFFERENCE, a, b, makeNode(levels[a], result));
+    }
+
+    /**
+     *
+     * @param root Root node.
+     * @return Number of paths from the root to the terminal node (number of states).
+     */
+    public BigInteger count(int root) {
+        return count(root, new HashMap<>());
+    }
+
+    private BigInteger count(int node, Map<Integer, BigInteger> memo) {
+        if(node == EMPTY)
+            return BigInteger.ZERO;
+        if(node == TERMINAL)
+            return BigInteger.ONE;
+        var known = memo.get(node);
+        if(known != null)
+            return known;
+        var result = BigInteger.ZERO;
+        for(var child : children[node])
+            result = result.add(count(child, memo));
+        memo.put(node, result);
+        return result;
+    }
+
+    /**
+     * Reclaims all nodes which are not reachable from the roots and clears the operation caches.
+     *
+     * @param roots Nodes which must be preserved.
+     */
+    public void collectGarbage(int... roots) {
+        var marked = new boolean[nodeCount];
+        marked[EMPTY] = true;
+        marked[TERMINAL] = true;
+        var stack = new int[64];
+        int top = 0;
+        for(var root : roots) {
+            if(!marked[root]) {
+                marked[root] = true;
+                if(top == stack.length)
+                    stack = Arrays.copyOf(stack, top * 2);
+                stack[top++] = root;
+            }
+        }
+        while(top > 0) {
+            var node = stack[--top];
+            for(var child : children[node]) {
+                if(!marked[child]) {
+                    marked[child] = true;
+                    if(top == stack.length)
+                        stack = Arrays.copyOf(stack, top * 2);
+                    stack[top++] = child;
+                }
+            }
+        }
+
+        freeCount = 0;
+        for(int node = nodeCount - 1; node > TERMINAL; node--) {
+            if(!marked[node]) {
+                children[node] = null;
+                if(freeCount == freeNodes.length)
+                    freeNodes = Arrays.copyOf(freeNodes, freeCount * 2);
+                freeNodes[freeCount++] = node;
+            }
+        }
+        rebuildUniqueTable(uniqueTable.length);
+        Arrays.fill(cacheOperations, 0);
+    }
+
+    private int allocate() {
+        if(freeCount > 0)
+            return freeNodes[--freeCount];
+        if(nodeCount == levels.length) {
+            levels = Arrays.copyOf(levels, nodeCount * 2);
+            children = Arrays.copyOf(children, nodeCount * 2);
+        }
+        return nodeCount++;
+    }
+
+    private void rebuildUniqueTable(int capacity) {
+        var live = getNodeCount() - 2;
+        while(live * 2 > capacity)
+            capacity *= 2;
+        uniqueTable = new int[capacity];
+        uniqueCount = 0;
+        var mask = capacity - 1;
+        for(int node = 2; node < nodeCount; node++) {
+            if(children[node] == null)
+                continue;
+            var slot = hash(levels[node], children[node], children[node].length) & mask;
+            while(uniqueTable[slot] != 0)
+                slot = (slot + 1) & mask;
+            uniqueTable[slot] = node;
+            uniqueCount++;
+        }
+    }
+
+    /**
+     * Looks up the result of an operation of the user of the forest (e.g. the saturation of a node)
+     * in the operation cache, which is shared with the set operations.
+     *
+     * @param operation Operation code, at least OP_CLIENT.
+     * @param a First operand.
+     * @param b Second operand.
+     * @return The cached result or -1 if it is not known.
+     */
+    public int lookup(int operation, int a, int b) {
+        return cacheLookup(operation, a, b);
+    }
+
+    /**
+     * Stores the result of an operation of the user of the forest in the operation cache.
+     * The entry can be overwritten at any time and it is dropped by the garbage collection.
+     *
+     * @param operation Operation code, at least OP_CLIENT.
+     * @param a First operand.
+     * @param b Second operand.
+     * @param result Result node.
+     * @return The result node.
+     */
+    public int store(int operation, int a, int b, int result) {
+        return cacheStore(operation, a, b, result);
+    }
+
+    private int cacheLookup(int operation, int a, int b) {
+        var slot = cacheSlot(operation, a, b);
+        if(cacheOperations[slot] == operation && cacheLeft[slot] == a && cacheRight[slot] == b)
+            return cacheResults[slot];
+        return -1;
+    }
+
+    private int cacheStore(int operation, int a, int b, int result) {
+        var slot = cacheSlot(operation, a, b);
+        cacheOperations[slot] = operation;
+        cacheLeft[slot] = a;
+        cacheRight[slot] = b;
+        cacheResults[slot] = result;
+        return result;
+    }
+
+    private int cacheSlot(int operation, int a, int b) {
+        var h = (a * 0x9E3779B1) ^ (b * 0x85EBCA77) ^ (operation * 0xC2B2AE3D);
+        return (h ^ (h >>> 15)) & cacheMask;
+    }
+
+    private static int hash(int level, int[] nodeChildren, int length) {
+        int h = level * 0x9E3779B1;
+        for(int i = 0; i < length; i++)
+            h = (h ^ nodeChildren[i]) * 0x01000193;
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean equalChildren(int[] existing, int[] candidate, int length) {
+        if(existing.length != length)
+            return false;
+        for(int i = 0; i < length; i++)
+            if(existing[i] != candidate[i])
+                return false;
+        return true;
+    }
+}
@@ -0,0 +1,634 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ *  Mean-field (fluid) approximation for nets with many nodes. Every population group
+ * is a state machine of one node (one token among the state places), identical groups
+ * form a class whose state is the fraction of the nodes in each state. The fractions
+ * follow ODEs given by the constant rates of the state transitions, the immediate
+ * transitions which force a node into its DOWN state are approximated by the flow
+ * caused by the growth of the probability of their guard.
+ * The rest of the net (the service segments) is solved as an absorbing CTMC in which
+ * the guards and the rate functions are evaluated with the node fractions, assuming
+ * the node states do not change while the scenario runs.
+ *
+ */
+public class MeanFieldAnalysis {
+    private static final int VANISHING_STEP_LIMIT = 100000;
+    private static final double NEGLIGIBLE_PROBABILITY = 1e-14;
+    private static final double DIFFERENCE_STEP = 1e-6;
+
+    private final CompiledNet net;
+    private final List<int[]> groups;
+    private final List<String> groupNames;
+    private final int[] downPlaces;
+
+    private final boolean[] population;
+    private final ExpectedValueEvaluator evaluator;
+    private final List<PopulationClass> classes = new ArrayList<>();
+    private final List<Integer> serviceTransitions = new ArrayList<>();
+    private int dimension = 0;
+
+    private double relativeTolerance = 1e-6;
+    private double steadyStateTolerance = 1e-6;
+    private double maxTime = 1e6;
+
+    /**
+     *
+     * @param net Compiled net.
+     * @param groups State places of the nodes, one array per node.
+     * @param groupNames Names of the nodes.
+     * @param downPlaces DOWN state place of every node or -1 if the node has no DOWN state.
+     */
+    public MeanFieldAnalysis(CompiledNet net, List<int[]> groups, List<String> groupNames, int[] downPlaces) {
+        this.net = net;
+        this.groups = groups;
+        this.groupNames = groupNames;
+        this.downPlaces = downPlaces;
+        this.population = new boolean[net.getPlaceCount()];
+        for(var group : groups)
+            for(var place : group)
+                population[place] = true;
+        this.evaluator = new ExpectedValueEvaluator(population);
+    }
+
+    public void setRelativeTolerance(double relativeTolerance) {
+        this.relativeTolerance = relativeTolerance;
+    }
+
+    public void setSteadyStateTolerance(double steadyStateTolerance) {
+        this.steadyStateTolerance = steadyStateTolerance;
+    }
+
+    public int getClassCount() {
+        return classes.size();
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Splits the transitions into the node-local and the service transitions and lumps
+     * the identical nodes into classes.
+     *
+     * @return False if the net does not have the structure required by the approximation.
+     */
+    public boolean prepare() {
+        var placeGroup = new int[net.getPlaceCount()];
+        var localIndex = new int[net.getPlaceCount()];
+        Arrays.fill(placeGroup, -1);
+        for(int g = 0; g < groups.size(); g++) {
+            for(int s = 0; s < groups.get(g).length; s++) {
+                placeGroup[groups.get(g)[s]] = g;
+                localIndex[groups.get(g)[s]] = s;
+            }
+        }
+
+        var localTransitions = new ArrayList<List<double[]>>();
+        var forcingGuards = new ArrayList<CsplExpression[]>();
+        for(var group : groups) {
+            localTransitions.add(new ArrayList<>());
+            forcingGuards.add(new CsplExpression[group.length]);
+        }
+
+        for(int t = 0; t < net.getTransitionCount(); t++) {
+            var places = new HashSet<Integer>();
+            for(var place : net.getInputPlaces(t))
+                places.add(place);
+            for(var place : net.getOutputPlaces(t))
+                places.add(place);
+            for(var place : net.getInhibitorPlaces(t))
+                places.add(place);
+            var touched = places.stream().filter(place -> population[place]).mapToInt(place -> placeGroup[place]).distinct().toArray();
+            if(touched.length == 0) {
+                serviceTransitions.add(t);
+                continue;
+            }
+            var inputs = net.getInputPlaces(t);
+            var outputs = net.getOutputPlaces(t);
+            var group = touched[0];
+            var local = touched.length == 1 && inputs.length == 1 && outputs.length == 1
+                        && net.getInhibitorPlaces(t).length == 0
+                        && placeGroup[inputs[0]] == group && placeGroup[outputs[0]] == group
+                        && net.getInputWeights(t)[0] == 1 && net.getOutputWeights(t)[0] == 1;
+            if(local && !net.isImmediate(t) && net.getGuardExpression(t) == null && net.getRateExpression(t).isConstant()) {
+                localTransitions.get(group).add(new double[] {localIndex[inputs[0]], localIndex[outputs[0]],
+                                                              net.getRateExpression(t).getConstantValue()});
+            }
+            else if(local && net.isImmediate(t) && outputs[0] == downPlaces[group]) {
+                var guard = net.getGuardExpression(t);
+                forcingGuards.get(group)[localIndex[inputs[0]]] = guard != null ? guard : new CsplExpression.Constant(1.0);
+            }
+            else {
+                System.err.println(String.format("Mean-field approximation error: transition \"%s\" is neither a node state transition nor a service transition",
+                                                 net.getTransitionName(t)));
+                return false;
+            }
+        }
+
+        // Identical nodes (same states, rates and forcing conditions) share one class
+        var initial = net.getInitialMarking();
+        var signatures = new LinkedHashMap<String, PopulationClass>();
+        for(int g = 0; g < groups.size(); g++) {
+            var group = groups.get(g);
+            int initialState = -1;
+            for(int s = 0; s < group.length; s++) {
+                if(initial[group[s]] == 1 && initialState < 0)
+                    initialState = s;
+                else if(initial[group[s]] != 0)
+                    initialState = -2;
+            }
+            if(initialState < 0) {
+                System.err.println(String.format("Mean-field approximation error: node \"%s\" must start in exactly one state", groupNames.get(g)));
+                return false;
+            }
+            var down = downPlaces[g] >= 0 ? localIndex[downPlaces[g]] : -1;
+            var transitions = localTransitions.get(g);
+            transitions.sort((a, b) -> Arrays.compare(a, b));
+            var signature = new StringBuilder();
+            signature.append(group.length).append(';').append(initialState).append(';').append(down);
+            transitions.forEach(transition -> signature.append(';').append(Arrays.toString(transition)));
+            for(var guard : forcingGuards.get(g))
+                signature.append(';').append(guard);
+
+            var populationClass = signatures.get(signature.toString());
+            if(populationClass == null) {
+                populationClass = new PopulationClass(group.length, initialState, down,
+                                                      transitions.toArray(new double[0][]), forcingGuards.get(g));
+                signatures.put(signature.toString(), populationClass);
+                classes.add(populationClass);
+            }
+            populationClass.members.add(g);
+        }
+
+        orderClasses();
+        for(var populationClass : classes) {
+            populationClass.offset = dimension;
+            dimension += populationClass.size;
+        }
+        return true;
+    }
+
+    /**
+     * Orders the classes so that the classes referenced by the forcing guards come first.
+     */
+    private void orderClasses() {
+        var placeClass = new int[net.getPlaceCount()];
+        Arrays.fill(placeClass, -1);
+        for(int c = 0; c < classes.size(); c++)
+            for(var member : classes.get(c).members)
+                for(var place : groups.get(member))
+                    placeClass[place] = c;
+
+        var ordered = new ArrayList<PopulationClass>();
+        var state = new int[classes.size()];
+        for(int c = 0; c < classes.size(); c++)
+            visit(c, placeClass, state, ordered);
+        classes.clear();
+        classes.addAll(ordered);
+    }
+
+    private void visit(int c, int[] placeClass, int[] state, List<PopulationClass> ordered) {
+        if(state[c] != 0)
+            return;
+        state[c] = 1;
+        var populationClass = classes.get(c);
+        var places = new HashSet<Integer>();
+        for(var guard : populationClass.forcingGuards)
+            if(guard != null)
+                guard.collectPlaces(places);
+        populationClass.guardPlaces = places.stream().filter(place -> population[place]).mapToInt(Integer::intValue).toArray();
+        for(var place : populationClass.guardPlaces) {
+            var dependency = placeClass[place];
+            if(dependency >= 0 && dependency != c) {
+                if(state[dependency] == 1)
+                    System.err.println("Mean-field approximation warning: cyclic dependency of the node failures, the result may be less accurate");
+                visit(dependency, placeClass, state, ordered);
+            }
+        }
+        state[c] = 2;
+        ordered.add(populationClass);
+    }
+
+    /**
+     * Integrates the fractions up to the given times and to the steady state and solves
+     * the scenario with the fractions at each of these times.
+     *
+     * @param times Time points of the transient results.
+     * @return The approximate results or null if the computation failed.
+     * @throws CancellationException If the calling thread is interrupted.
+     */
+    public MeanFieldResult solve(double... times) {
+        var start = System.currentTimeMillis();
+        var values = new double[net.getPlaceCount()];
+        var rates = new double[net.getPlaceCount()];
+        var initial = net.getInitialMarking();
+        OdeSystem system = (time, state, derivative) -> derivative(state, derivative, initial, values, rates);
+
+        var integrator = new RungeKuttaIntegrator(system, dimension);
+        integrator.setTolerances(relativeTolerance, relativeTolerance * 1e-3);
+        var state = initialState();
+        var sortedTimes = times.clone();
+        Arrays.sort(sortedTimes);
+
+        var snapshots = new ArrayList<MeanFieldResult.Snapshot>();
+        double time = 0.0;
+        for(var target : sortedTimes) {
+            if(!integrator.integrate(state, time, target)) {
+                System.err.println(String.format("Mean-field approximation error: integration failed before the time %s", Double.toString(target)));
+                return null;
+            }
+            time = target;
+            snapshots.add(createSnapshot(target, state));
+        }
+        var steadyState = state.clone();
+        var steadyTime = integrator.integrateToSteadyState(steadyState, steadyStateTolerance, maxTime);
+        var steadySnapshot = createSnapshot(Double.POSITIVE_INFINITY, steadyState);
+        steadySnapshot.setSteadyStateTime(time + steadyTime);
+        snapshots.add(steadySnapshot);
+
+        return new MeanFieldResult(snapshots, integrator.getTotalSteps(), System.currentTimeMillis() - start);
+    }
+
+    private double[] initialState() {
+        var state = new double[dimension];
+        for(var populationClass : classes)
+            state[populationClass.offset + populationClass.initialState] = 1.0;
+        return state;
+    }
+
+    private void derivative(double[] state, double[] derivative, int[] initial, double[] values, double[] rates) {
+        if(Thread.currentThread().isInterrupted())
+            throw new CancellationException();
+        Arrays.fill(derivative, 0.0);
+        for(int p = 0; p < values.length; p++)
+            values[p] = initial[p];
+        setPopulationValues(state, values);
+
+        for(var populationClass : classes) {
+            var offset = populationClass.offset;
+            var down = populationClass.down;
+
+            // Probability that the node is forced DOWN and its growth rate (along the already computed classes)
+            double forced = 0.0;
+            double forcedGrowth = 0.0;
+            var guard = populationClass.getForcingGuard();
+            if(guard != null && down >= 0) {
+                forced = evaluator.probability(guard, values);
+                for(var place : populationClass.guardPlaces)
+                    values[place] += DIFFERENCE_STEP * rates[place];
+                forcedGrowth = (evaluator.probability(guard, values) - forced) / DIFFERENCE_STEP;
+                for(var place : populationClass.guardPlaces)
+                    values[place] -= DIFFERENCE_STEP * rates[place];
+            }
+
+            for(var transition : populationClass.transitions) {
+                var from = (int) transition[0];
+                var to = (int) transition[1];
+                var flow = transition[2] * state[offset + from];
+                // Leaving DOWN succeeds only if the forcing condition does not hold
+                if(from == down && forced > 0.0) {
+                    var downFraction = state[offset + down];
+                    flow = downFraction > 0.0 ? flow * Math.max(0.0, downFraction - forced) / downFraction : 0.0;
+                }
+                derivative[offset + from] -= flow;
+                derivative[offset + to] += flow;
+            }
+
+            if(forcedGrowth > 0.0 && forced < 1.0) {
+                for(int s = 0; s < populationClass.size; s++) {
+                    if(s == down || populationClass.forcingGuards[s] == null)
+                        continue;
+                    var flow = state[offset + s] * forcedGrowth / (1.0 - forced);
+                    derivative[offset + s] -= flow;
+                    derivative[offset + down] += flow;
+                }
+            }
+
+            for(var member : populationClass.members) {
+                var group = groups.get(member);
+                for(int s = 0; s < group.length; s++)
+                    rates[group[s]] = derivative[offset + s];
+            }
+        }
+    }
+
+    private void setPopulationValues(double[] state, double[] values) {
+        for(var populationClass : classes) {
+            for(var member : populationClass.members) {
+                var group = groups.get(member);
+                for(int s = 0; s < group.length; s++)
+                    values[group[s]] = state[populationClass.offset + s];
+            }
+        }
+    }
+
+    private MeanFieldResult.Snapshot createSnapshot(double time, double[] state) {
+        var snapshot = new MeanFieldResult.Snapshot(time);
+        for(var populationClass : classes) {
+            var representative = populationClass.members.get(0);
+            var group = groups.get(representative);
+            var fractions = Arrays.copyOfRange(state, populationClass.offset, populationClass.offset + populationClass.size);
+            var stateNames = new String[group.length];
+            for(int s = 0; s < group.length; s++)
+                stateNames[s] = net.getPlaceName(group[s]);
+            var names = new ArrayList<String>();
+            populationClass.members.forEach(member -> names.add(groupNames.get(member)));
+            snapshot.addClass(names, stateNames, fractions, populationClass.down);
+        }
+
+        var values = new double[net.getPlaceCount()];
+        setPopulationValues(state, values);
+        solveScenario(values, snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Solves the service part of the net as an absorbing CTMC with the node states frozen
+     * at the given fractions.
+     */
+    private void solveScenario(double[] populationValues, MeanFieldResult.Snapshot snapshot) {
+        var generationStart = System.currentTimeMillis();
+        var encoder = new MarkingEncoder(ReachabilityGraphGenerator.estimateBounds(net));
+        var words = encoder.getWordCount();
+        var states = new PackedStateSet(words, 1, false);
+        var packed = new long[words];
+        var markings = new ArrayList<int[]>();
+
+        var values = populationValues.clone();
+        var rowStart = new GrowableInts();
+        var targets = new GrowableInts();
+        var rates = new GrowableDoubles();
+        var dead = new GrowableInts();
+        var initialStates = new GrowableInts();
+        var initialProbabilities = new GrowableDoubles();
+
+        var initial = net.getInitialMarking();
+        for(int p = 0; p < initial.length; p++)
+            if(population[p])
+                initial[p] = 0;
+
+        var resolvedMarkings = new ArrayList<int[]>();
+        var resolvedProbabilities = new GrowableDoubles();
+        if(!resolve(initial, 1.0, values, resolvedMarkings, resolvedProbabilities))
+            return;
+        for(int i = 0; i < resolvedMarkings.size(); i++) {
+            var id = addState(resolvedMarkings.get(i), encoder, states, packed, markings);
+            if(id == Integer.MIN_VALUE)
+                return;
+            initialStates.add(id < 0 ? -id - 1 : id);
+            initialProbabilities.add(resolvedProbabilities.get(i));
+        }
+
+        for(int s = 0; s < markings.size(); s++) {
+            rowStart.add(targets.size());
+            var marking = markings.get(s);
+            if(net.isHalted(marking)) {
+                dead.add(s);
+                continue;
+            }
+            fillValues(marking, values);
+            int highestPriority = Integer.MIN_VALUE;
+            var timed = new ArrayList<double[]>();
+            for(var t : serviceTransitions) {
+                if(net.isImmediate(t) || !net.hasArcConcession(t, marking))
+                    continue;
+                var guard = net.getGuardExpression(t);
+                var probability = guard == null ? 1.0 : evaluator.probability(guard, values);
+                var rate = probability * evaluator.expectation(net.getRateExpression(t), values);
+                if(!(rate > 0.0) || Double.isInfinite(rate) || net.getPriority(t) < highestPriority)
+                    continue;
+                if(net.getPriority(t) > highestPriority) {
+                    highestPriority = net.getPriority(t);
+                    timed.clear();
+                }
+                timed.add(new double[] {t, rate});
+            }
+            if(timed.isEmpty())
+                dead.add(s);
+
+            var next = new int[marking.length];
+            for(var entry : timed) {
+                net.fire((int) entry[0], marking, next);
+                resolvedMarkings.clear();
+                resolvedProbabilities.clear();
+                if(!resolve(next, 1.0, values, resolvedMarkings, resolvedProbabilities))
+                    return;
+                for(int i = 0; i < resolvedMarkings.size(); i++) {
+                    var id = addState(resolvedMarkings.get(i), encoder, states, packed, markings);
+                    if(id == Integer.MIN_VALUE)
+                        return;
+                    targets.add(id < 0 ? -id - 1 : id);
+                    rates.add(entry[1] * resolvedProbabilities.get(i));
+                }
+            }
+        }
+        rowStart.add(targets.size());
+
+        var graph = new ReachabilityGraph(net, encoder, states, rowStart.toArray(), targets.toArray(), rates.toArray(),
+                                          initialStates.toArray(), initialProbabilities.toArray(), dead.toArray(),
+                                          true, System.currentTimeMillis() - generationStart);
+        var solution = new CtmcSolver(graph, new SolverOptions()).solveSteadyState();
+        double completed = 0.0;
+        double absorbed = 0.0;
+        for(var state : graph.getDeadStates()) {
+            var probability = solution.getProbabilities()[state];
+            absorbed += probability;
+            if(net.isHalted(markings.get(state)))
+                completed += probability;
+        }
+        snapshot.setScenario(graph.getStateCount(), completed, absorbed - completed, solution.getMeanTimeToAbsorption());
+    }
+
+    private void fillValues(int[] marking, double[] values) {
+        for(int p = 0; p < marking.length; p++) {
+            if(!population[p])
+                values[p] = marking[p];
+        }
+    }
+
+    /**
+     *
+     * @return Identifier of the state, -(id + 1) if it already existed or Integer.MIN_VALUE on an error.
+     */
+    private int addState(int[] marking, MarkingEncoder encoder, PackedStateSet states, long[] packed, List<int[]> markings) {
+        var overflow = encoder.encode(marking, packed, 0);
+        if(overflow >= 0) {
+            System.err.println(String.format("Mean-field approximation error: place \"%s\" exceeds its estimated bound", net.getPlaceName(overflow)));
+            return Integer.MIN_VALUE;
+        }
+        var id = states.add(packed, 0);
+        if(id >= 0)
+            markings.add(marking.clone());
+        return id;
+    }
+
+    /**
+     * Fires the immediate transitions from the marking. The guards which depend on the node
+     * states hold with a probability, so the marking may be left with a probability
+     * and stay tangible otherwise.
+     */
+    private boolean resolve(int[] marking, double probability, double[] values, List<int[]> resultMarkings, GrowableDoubles resultProbabilities) {
+        var stack = new ArrayDeque<Object[]>();
+        stack.push(new Object[] {marking.clone(), probability});
+        int steps = 0;
+        while(!stack.isEmpty()) {
+            if(++steps > VANISHING_STEP_LIMIT) {
+                System.err.println("Mean-field approximation error: too many immediate transition firings (a loop of immediate transitions?)");
+                return false;
+            }
+            var entry = stack.pop();
+            var current = (int[]) entry[0];
+            var currentProbability = (double) entry[1];
+            if(net.isHalted(current)) {
+                addResolved(current, currentProbability, resultMarkings, resultProbabilities);
+                continue;
+            }
+            fillValues(current, values);
+
+            var candidates = new ArrayList<double[]>();
+            for(var t : serviceTransitions) {
+                if(!net.isImmediate(t) || !net.hasArcConcession(t, current))
+                    continue;
+                var guard = net.getGuardExpression(t);
+                var enabled = guard == null ? 1.0 : evaluator.probability(guard, values);
+                if(enabled > 0.0)
+                    candidates.add(new double[] {t, enabled, evaluator.expectation(net.getRateExpression(t), values)});
+            }
+            candidates.sort((a, b) -> Integer.compare(net.getPriority((int) b[0]), net.getPriority((int) a[0])));
+
+            // Higher priority classes win, the probability that no class fires stays in the marking
+            double noneFired = 1.0;
+            int i = 0;
+            while(i < candidates.size() && noneFired > NEGLIGIBLE_PROBABILITY) {
+                var priority = net.getPriority((int) candidates.get(i)[0]);
+                int end = i;
+                double noneEnabled = 1.0;
+                double weightSum = 0.0;
+                while(end < candidates.size() && net.getPriority((int) candidates.get(end)[0]) == priority) {
+                    noneEnabled *= 1.0 - candidates.get(end)[1];
+                    weightSum += candidates.get(end)[1] * candidates.get(end)[2];
+                    end++;
+                }
+                var anyEnabled = 1.0 - noneEnabled;
+                for(int c = i; c < end && weightSum > 0.0; c++) {
+                    var candidate = candidates.get(c);
+                    var firing = currentProbability * noneFired * anyEnabled * candidate[1] * candidate[2] / weightSum;
+                    if(firing <= NEGLIGIBLE_PROBABILITY)
+                        continue;
+                    var next = new int[current.length];
+                    net.fire((int) candidate[0], current, next);
+                    stack.push(new Object[] {next, firing});
+                }
+                noneFired *= noneEnabled;
+                i = end;
+            }
+            if(noneFired > NEGLIGIBLE_PROBABILITY)
+                addResolved(current, currentProbability * noneFired, resultMarkings, resultProbabilities);
+        }
+        return true;
+    }
+
+    private static void addResolved(int[] marking, double probability, List<int[]> markings, GrowableDoubles probabilities) {
+        for(int i = 0; i < markings.size(); i++) {
+            if(Arrays.equals(markings.get(i), marking)) {
+                probabilities.set(i, probabilities.get(i) + probability);
+                return;
+            }
+        }
+        markings.add(marking);
+        probabilities.add(probability);
+    }
+
+    /**
+     *  Class of identical nodes.
+     *
+     */
+    private static class PopulationClass {
+        private final int size;
+        private final int initialState;
+        private final int down;
+        private final double[][] transitions;
+        private final CsplExpression[] forcingGuards;
+        private final List<Integer> members = new ArrayList<>();
+        private int[] guardPlaces = new int[0];
+        private int offset;
+
+        PopulationClass(int size, int initialState, int down, double[][] transitions, CsplExpression[] forcingGuards) {
+            this.size = size;
+            this.initialState = initialState;
+            this.down = down;
+            this.transitions = transitions;
+            this.forcingGuards = forcingGuards;
+        }
+
+        CsplExpression getForcingGuard() {
+            for(var guard : forcingGuards)
+                if(guard != null)
+                    return guard;
+            return null;
+        }
+    }
+
+    /**
+     *  Growable array of ints.
+     *
+     */
+    private static class GrowableInts {
+        private int[] data = new int[16];
+        private int size = 0;
+
+        void add(int value) {
+            if(size == data.length)
+                data = Arrays.copyOf(data, size * 2);
+            data[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+
+    /**
+     *  Growable array of doubles.
+     *
+     */
+    private static class GrowableDoubles {
+        private double[] data = new double[16];
+        private int size = 0;
+
+        void add(double value) {
+            if(size == data.length)
+                data = Arrays.copyOf(data, size * 2);
+            data[size++] = value;
+        }
+
+        double get(int index) {
+            return data[index];
+        }
+
+        void set(int index, double value) {
+            data[index] = value;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        double[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *  Results of the mean-field approximation. For every time point (and the steady state)
+ * it contains the fractions of the nodes of each class in their states and the metrics
+ * of the scenario solved with these fractions.
+ *
+ */
+public class MeanFieldResult {
+    private final List<Snapshot> snapshots;
+    private final long integrationSteps;
+    private final long solutionTime;
+
+    public MeanFieldResult(List<Snapshot> snapshots, long integrationSteps, long solutionTime) {
+        this.snapshots = snapshots;
+        this.integrationSteps = integrationSteps;
+        this.solutionTime = solutionTime;
+    }
+
+    public List<Snapshot> getSnapshots() {
+        return snapshots;
+    }
+
+    public long getIntegrationSteps() {
+        return integrationSteps;
+    }
+
+    public long getSolutionTime() {
+        return solutionTime;
+    }
+
+    @Override
+    public String toString() {
+        var result = new StringBuilder();
+        result.append(String.format("APPROXIMATION (mean-field), not an exact solution:%n"));
+        result.append(String.format("  integration steps: %d, time: %d ms%n", integrationSteps, solutionTime));
+        snapshots.forEach(snapshot -> result.append(snapshot));
+        return result.toString();
+    }
+
+    /**
+     *  Approximate state of the model at one time point.
+     *
+     */
+    public static class Snapshot {
+        private final double time;
+        private final List<NodeClass> classes = new ArrayList<>();
+        private double steadyStateTime = Double.NaN;
+        private int scenarioStates = 0;
+        private double completionProbability = Double.NaN;
+        private double failureProbability = Double.NaN;
+        private double meanCompletionTime = Double.NaN;
+
+        public Snapshot(double time) {
+            this.time = time;
+        }
+
+        void addClass(List<String> members, String[] stateNames, double[] fractions, int down) {
+            classes.add(new NodeClass(members, stateNames, fractions, down));
+        }
+
+        void setSteadyStateTime(double steadyStateTime) {
+            this.steadyStateTime = steadyStateTime;
+        }
+
+        void setScenario(int states, double completionProbability, double failureProbability, double meanCompletionTime) {
+            this.scenarioStates = states;
+            this.completionProbability = completionProbability;
+            this.failureProbability = failureProbability;
+            this.meanCompletionTime = meanCompletionTime;
+        }
+
+        /**
+         *
+         * @return Time point or positive infinity for the steady state.
+         */
+        public double getTime() {
+            return time;
+        }
+
+        public List<NodeClass> getClasses() {
+            return classes;
+        }
+
+        public double getCompletionProbability() {
+            return completionProbability;
+        }
+
+        public double getFailureProbability() {
+            return failureProbability;
+        }
+
+        public double getMeanCompletionTime() {
+            return meanCompletionTime;
+        }
+
+        @Override
+        public String toString() {
+            var result = new StringBuilder();
+            if(Double.isInfinite(time)) {
+                result.append(String.format("  steady state%s:%n", Double.isNaN(steadyStateTime)
+                                                                   ? " (NOT reached)"
+                                                                   : String.format(" (reached at %s)", Double.toString(steadyStateTime))));
+            }
+            else
+                result.append(String.format("  time %s:%n", Double.toString(time)));
+            classes.forEach(nodeClass -> result.append(nodeClass));
+            if(scenarioStates > 0) {
+                result.append(String.format("    scenario (%d states): completed %.6e, not completed %.6e, mean time to absorption %.6e%n",
+                                            scenarioStates, completionProbability, failureProbability, meanCompletionTime));
+            }
+            return result.toString();
+        }
+    }
+
+    /**
+     *  Fractions of the states of a class of identical nodes.
+     *
+     */
+    public static class NodeClass {
+        private final List<String> members;
+        private final String[] stateNames;
+        private final double[] fractions;
+        private final int down;
+
+        NodeClass(List<String> members, String[] stateNames, double[] fractions, int down) {
+            this.members = members;
+            this.stateNames = stateNames;
+            this.fractions = fractions;
+            this.down = down;
+        }
+
+        public List<String> getMembers() {
+            return members;
+        }
+
+        public double getFraction(int state) {
+            return fractions[state];
+        }
+
+        /**
+         *
+         * @return Fraction of the nodes which are not DOWN.
+         */
+        public double getAvailability() {
+            return down >= 0 ? 1.0 - fractions[down] : 1.0;
+        }
+
+        @Override
+        public String toString() {
+            var result = new StringBuilder();
+            var names = members.size() > 3
+                        ? String.format("%s, ... (%d nodes)", String.join(", ", members.subList(0, 3)), members.size())
+                        : String.join(", ", members);
+            result.append(String.format("    %s: availability %.6e%n", names, getAvailability()));
+            for(int s = 0; s < stateNames.length; s++)
+                result.append(String.format("      %-38s %.6e%n", stateNames[s], fractions[s]));
+            return result.toString();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package cz.muni.fi.umlspnp.analysis;
+
+/**
+ *  System of ordinary differential equations y' = f(t, y).
+ *
+ */
+@FunctionalInterface
+public interface OdeSystem {
+    /**
+     *
+     * @param time Time.
+     * @param state Current values.
+     * @param derivative Array to which the derivatives are written.
+     */
+    void derivative(double time, double[] state, double[] derivative);
+}
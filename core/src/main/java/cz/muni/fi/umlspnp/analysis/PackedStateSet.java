@@ -0,0 +1,219 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ *  Concurrent set of packed markings which assigns dense identifiers to the states.
+ * The hash table is split into independently locked segments with open addressing
+ * tables of primitive integers. The packed keys are stored once, in chunks indexed
+ * by the state identifier, either on the heap or in direct (off-heap) buffers.
+ *
+ */
+public class PackedStateSet {
+    private static final int CHUNK_BITS = 14;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int MAX_CHUNKS = 1 << (31 - CHUNK_BITS);
+    private static final int INITIAL_SEGMENT_CAPACITY = 1 << 8;
+
+    private final int words;
+    private final boolean offHeap;
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicReferenceArray<Object> chunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+
+    /**
+     *
+     * @param words Number of long words of a single key.
+     * @param concurrency Expected number of concurrently inserting threads.
+     * @param offHeap True if the keys should be stored in direct buffers outside of the heap.
+     */
+    public PackedStateSet(int words, int concurrency, boolean offHeap) {
+        this.words = words;
+        this.offHeap = offHeap;
+        int segmentCount = Integer.highestOneBit(Math.max(1, concurrency) * 16 - 1) << 1;
+        this.segments = new Segment[segmentCount];
+        this.segmentMask = segmentCount - 1;
+        for(int i = 0; i < segmentCount; i++)
+            segments[i] = new Segment();
+    }
+
+    public int getWordCount() {
+        return words;
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Adds the key if it is not present.
+     *
+     * @param key Array containing the packed key.
+     * @param offset Index of the first word of the key.
+     * @return Identifier of a newly added key or -(identifier + 1) if the key was already present.
+     */
+    public int add(long[] key, int offset) {
+        var hash = hash(key, offset);
+        return segments[Integer.reverse(hash) & segmentMask].add(key, offset, hash);
+    }
+
+    /**
+     *
+     * @param key Array containing the packed key.
+     * @param offset Index of the first word of the key.
+     * @return Identifier of the key or -1 if the key is not present.
+     */
+    public int find(long[] key, int offset) {
+        var hash = hash(key, offset);
+        return segments[Integer.reverse(hash) & segmentMask].find(key, offset, hash);
+    }
+
+    /**
+     * Copies the key with the given identifier.
+     *
+     * @param id Identifier of the key.
+     * @param result Destination array.
+     * @param offset Index of the first destination word.
+     */
+    public void get(int id, long[] result, int offset) {
+        var chunk = chunks.get(id >>> CHUNK_BITS);
+        var base = (id & (CHUNK_SIZE - 1)) * words;
+        if(offHeap) {
+            var buffer = (LongBuffer) chunk;
+            for(int w = 0; w < words; w++)
+                result[offset + w] = buffer.get(base + w);
+        }
+        else {
+            System.arraycopy((long[]) chunk, base, result, offset, words);
+        }
+    }
+
+    /**
+     *
+     * @return Approximate number of bytes occupied by the stored keys.
+     */
+    public long getKeyMemory() {
+        return (long) ((size() >>> CHUNK_BITS) + 1) * CHUNK_SIZE * words * Long.BYTES;
+    }
+
+    private boolean keyEquals(int id, long[] key, int offset) {
+        var chunk = chunks.get(id >>> CHUNK_BITS);
+        var base = (id & (CHUNK_SIZE - 1)) * words;
+        if(offHeap) {
+            var buffer = (LongBuffer) chunk;
+            for(int w = 0; w < words; w++)
+                if(buffer.get(base + w) != key[offset + w])
+                    return false;
+        }
+        else {
+            var array = (long[]) chunk;
+            for(int w = 0; w < words; w++)
+                if(array[base + w] != key[offset + w])
+                    return false;
+        }
+        return true;
+    }
+
+    private int store(long[] key, int offset) {
+        var id = size.getAndIncrement();
+        if(id < 0 || (id >>> CHUNK_BITS) >= MAX_CHUNKS)
+            throw new IllegalStateException("State set capacity exceeded");
+        var chunkIndex = id >>> CHUNK_BITS;
+        var chunk = chunks.get(chunkIndex);
+        if(chunk == null) {
+            Object newChunk = offHeap ?
+                    ByteBuffer.allocateDirect(CHUNK_SIZE * words * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer() :
+                    new long[CHUNK_SIZE * words];
+            if(!chunks.compareAndSet(chunkIndex, null, newChunk))
+                newChunk = chunks.get(chunkIndex);
+            chunk = newChunk;
+        }
+        var base = (id & (CHUNK_SIZE - 1)) * words;
+        if(offHeap) {
+            var buffer = (LongBuffer) chunk;
+            for(int w = 0; w < words; w++)
+                buffer.put(base + w, key[offset + w]);
+        }
+        else {
+            System.arraycopy(key, offset, (long[]) chunk, base, words);
+        }
+        return id;
+    }
+
+    private int hash(long[] key, int offset) {
+        long h = 0x9E3779B97F4A7C15L;
+        for(int w = 0; w < words; w++) {
+            h ^= key[offset + w];
+            h *= 0xFF51AFD7ED558CCDL;
+            h ^= h >>> 33;
+        }
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    /**
+     *  Open addressing table of state identifiers (stored as id + 1, zero is an empty slot)
+     * with the hashes cached for probing and resizing.
+     */
+    private class Segment {
+        private int[] ids = new int[INITIAL_SEGMENT_CAPACITY];
+        private int[] hashes = new int[INITIAL_SEGMENT_CAPACITY];
+        private int count = 0;
+
+        private synchronized int add(long[] key, int offset, int hash) {
+            var mask = ids.length - 1;
+            var slot = hash & mask;
+            while(ids[slot] != 0) {
+                var id = ids[slot] - 1;
+                if(hashes[slot] == hash && keyEquals(id, key, offset))
+                    return -(id + 1);
+                slot = (slot + 1) & mask;
+            }
+            var id = store(key, offset);
+            ids[slot] = id + 1;
+            hashes[slot] = hash;
+            if(++count * 4 > ids.length * 3)
+                resize();
+            return id;
+        }
+
+        private synchronized int find(long[] key, int offset, int hash) {
+            var mask = ids.length - 1;
+            var slot = hash & mask;
+            while(ids[slot] != 0) {
+                var id = ids[slot] - 1;
+                if(hashes[slot] == hash && keyEquals(id, key, offset))
+                    return id;
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private void resize() {
+            var oldIds = ids;
+            var oldHashes = hashes;
+            ids = new int[oldIds.length * 2];
+            hashes = new int[oldIds.length * 2];
+            var mask = ids.length - 1;
+            for(int i = 0; i < oldIds.length; i++) {
+                if(oldIds[i] == 0)
+                    continue;
+                var slot = oldHashes[i] & mask;
+                while(ids[slot] != 0)
+                    slot = (slot + 1) & mask;
+                ids[slot] = oldIds[i];
+                hashes[slot] = oldHashes[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+/**
+ *  Tangible reachability graph of a compiled net. The vanishing markings are
+ * eliminated, so the edges carry the rates of the underlying CTMC. Edges are stored
+ * in a compressed sparse row layout indexed by the state identifiers.
+ *
+ */
+public class ReachabilityGraph {
+    private final CompiledNet net;
+    private final MarkingEncoder encoder;
+    private final PackedStateSet states;
+
+    private final int[] rowStart;
+    private final int[] targets;
+    private final double[] rates;
+    private final int[] initialStates;
+    private final double[] initialProbabilities;
+    private final int[] deadStates;
+    private final boolean complete;
+    private final long generationTime;
+
+    public ReachabilityGraph(CompiledNet net,
+                             MarkingEncoder encoder,
+                             PackedStateSet states,
+                             int[] rowStart,
+                             int[] targets,
+                             double[] rates,
+                             int[] initialStates,
+                             double[] initialProbabilities,
+                             int[] deadStates,
+                             boolean complete,
+                             long generationTime) {
+        this.net = net;
+        this.encoder = encoder;
+        this.states = states;
+        this.rowStart = rowStart;
+        this.targets = targets;
+        this.rates = rates;
+        this.initialStates = initialStates;
+        this.initialProbabilities = initialProbabilities;
+        this.deadStates = deadStates;
+        this.complete = complete;
+        this.generationTime = generationTime;
+    }
+
+    public CompiledNet getNet() {
+        return net;
+    }
+
+    public MarkingEncoder getEncoder() {
+        return encoder;
+    }
+
+    public int getStateCount() {
+        return rowStart.length - 1;
+    }
+
+    public int getEdgeCount() {
+        return targets.length;
+    }
+
+    /**
+     *
+     * @return False if the generation was stopped by the state limit.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     *
+     * @return Duration of the generation in milliseconds.
+     */
+    public long getGenerationTime() {
+        return generationTime;
+    }
+
+    public int[] getMarking(int state) {
+        var packed = new long[encoder.getWordCount()];
+        states.get(state, packed, 0);
+        var marking = new int[encoder.getPlaceCount()];
+        encoder.decode(packed, 0, marking);
+        return marking;
+    }
+
+    /**
+     *
+     * @param marking Marking.
+     * @return Identifier of the tangible state or -1 if the marking is not a reachable tangible marking.
+     */
+    public int findState(int[] marking) {
+        var packed = new long[encoder.getWordCount()];
+        if(encoder.encode(marking, packed, 0) >= 0)
+            return -1;
+        var id = states.find(packed, 0);
+        return id < getStateCount() ? id : -1;
+    }
+
+    public int getRowStart(int state) {
+        return rowStart[state];
+    }
+
+    public int getRowEnd(int state) {
+        return rowStart[state + 1];
+    }
+
+    public int getTarget(int edge) {
+        return targets[edge];
+    }
+
+    public double getRate(int edge) {
+        return rates[edge];
+    }
+
+    public int[] getRowStarts() {
+        return rowStart;
+    }
+
+    public int[] getTargets() {
+        return targets;
+    }
+
+    public double[] getRates() {
+        return rates;
+    }
+
+    public int[] getInitialStates() {
+        return initialStates;
+    }
+
+    public double[] getInitialProbabilities() {
+        return initialProbabilities;
+    }
+
+    /**
+     *
+     * @return States without any outgoing edge (including the halted markings).
+     */
+    public int[] getDeadStates() {
+        return deadStates;
+    }
+
+    /**
+     * Exports the states and the rates of the CTMC into a text file.
+     *
+     * @param fileName Path to the output file.
+     * @return True if the export succeeded.
+     */
+    public boolean exportCTMC(String fileName) {
+        try(var writer = new PrintWriter(new BufferedWriter(new FileWriter(fileName)))) {
+            writer.println(String.format("# states %d edges %d", getStateCount(), getEdgeCount()));
+            writer.print("# places");
+            for(int p = 0; p < net.getPlaceCount(); p++)
+                writer.print(" " + net.getPlaceName(p));
+            writer.println();
+
+            writer.println("initial");
+            for(int i = 0; i < initialStates.length; i++)
+                writer.println(String.format("%d %s", initialStates[i], Double.toString(initialProbabilities[i])));
+
+            writer.println("states");
+            for(int s = 0; s < getStateCount(); s++) {
+                var marking = getMarking(s);
+                var line = new StringBuilder(Integer.toString(s));
+                for(var tokens : marking)
+                    line.append(' ').append(tokens);
+                writer.println(line);
+            }
+
+            writer.println("rates");
+            for(int s = 0; s < getStateCount(); s++) {
+                for(int e = rowStart[s]; e < rowStart[s + 1]; e++)
+                    writer.println(String.format("%d %d %s", s, targets[e], Double.toString(rates[e])));
+            }
+            return true;
+        }
+        catch(IOException ex) {
+            System.err.println(String.format("Unable to export the CTMC to \"%s\": %s", fileName, ex.getMessage()));
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        var result = new StringBuilder();
+        result.append(String.format("Reachability graph:%n"));
+        result.append(String.format("  tangible states: %d%s%n", getStateCount(), complete ? "" : " (incomplete, state limit reached)"));
+        result.append(String.format("  edges: %d%n", getEdgeCount()));
+        result.append(String.format("  dead states: %d%n", deadStates.length));
+        result.append(String.format("  packed marking: %d word(s), %s%n", encoder.getWordCount(), states.isOffHeap() ? "off-heap" : "heap"));
+        result.append(String.format("  generation time: %d ms%n", generationTime));
+        Arrays.stream(deadStates).limit(10).forEach(state -> {
+            result.append(String.format("  dead %d: %s%n", state, net.markingToString(getMarking(state))));
+        });
+        return result.toString();
+    }
+}
@@ -0,0 +1,426 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *  Generates the tangible reachability graph of a compiled net by a parallel breadth
+ * first search. Every BFS level is split into fork/join tasks (work stealing balances
+ * the load), the markings are bit-packed and stored in a shared concurrent state set.
+ * Vanishing markings are eliminated on the fly, so only tangible markings are stored.
+ * When a marking exceeds the bits reserved for a place, the place bound is widened
+ * and the generation is restarted.
+ *
+ */
+public class ReachabilityGraphGenerator {
+    private static final int TASK_THRESHOLD = 256;
+    private static final int VANISHING_STEP_LIMIT = 100000;
+    private static final int MAX_WIDENING_ATTEMPTS = 32;
+
+    private final CompiledNet net;
+    private int[] bounds;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private boolean offHeap = false;
+    private int stateLimit = Integer.MAX_VALUE - 1;
+
+    /* State of the current generation */
+    private PackedStateSet states;
+    private MarkingEncoder encoder;
+    private ThreadLocal<Worker> workers;
+    private ConcurrentLinkedQueue<Worker> allWorkers;
+    private volatile boolean aborted;
+    private volatile boolean limitReached;
+    private AtomicInteger overflowPlace;
+    private volatile String error;
+    /* Thread which called generate, the workers stop when it is interrupted */
+    private Thread caller;
+
+    public ReachabilityGraphGenerator(CompiledNet net) {
+        this.net = net;
+        this.bounds = estimateBounds(net);
+    }
+
+    /**
+     * Estimates the place bounds from the initial marking and the arc weights.
+     * The estimate is widened during the generation when it turns out to be too small.
+     *
+     * @param net Compiled net.
+     * @return Estimated number of tokens of each place.
+     */
+    public static int[] estimateBounds(CompiledNet net) {
+        var result = net.getInitialMarking();
+        for(int p = 0; p < result.length; p++)
+            result[p] = Math.max(1, result[p]);
+        for(int t = 0; t < net.getTransitionCount(); t++) {
+            var inhibitorPlaces = net.getInhibitorPlaces(t);
+            var inhibitorWeights = net.getInhibitorWeights(t);
+            for(int i = 0; i < inhibitorPlaces.length; i++)
+                result[inhibitorPlaces[i]] = Math.max(result[inhibitorPlaces[i]], inhibitorWeights[i]);
+            var outputPlaces = net.getOutputPlaces(t);
+            var outputWeights = net.getOutputWeights(t);
+            for(int i = 0; i < outputPlaces.length; i++)
+                result[outputPlaces[i]] = Math.max(result[outputPlaces[i]], outputWeights[i]);
+        }
+        return result;
+    }
+
+    /**
+     *
+     * @param bounds Known bounds of the places (e.g. computed from the place invariants).
+     */
+    public void setBounds(int[] bounds) {
+        this.bounds = Arrays.copyOf(bounds, bounds.length);
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public void setOffHeap(boolean offHeap) {
+        this.offHeap = offHeap;
+    }
+
+    /**
+     *
+     * @param stateLimit Number of tangible states after which the exploration stops.
+     */
+    public void setStateLimit(int stateLimit) {
+        this.stateLimit = stateLimit;
+    }
+
+    /**
+     * Generates the reachability graph.
+     *
+     * @return The tangible reachability graph or null if the generation failed.
+     * @throws CancellationException If the calling thread is interrupted.
+     */
+    public ReachabilityGraph generate() {
+        var startTime = System.currentTimeMillis();
+        var currentBounds = Arrays.copyOf(bounds, bounds.length);
+        caller = Thread.currentThread();
+
+        for(int attempt = 0; attempt < MAX_WIDENING_ATTEMPTS; attempt++) {
+            encoder = new MarkingEncoder(currentBounds);
+            var pool = new ForkJoinPool(parallelism);
+            try {
+                var graph = explore(pool, startTime);
+                if(graph != null)
+                    return graph;
+            }
+            finally {
+                pool.shutdownNow();
+            }
+
+            if(error != null) {
+                System.err.println(String.format("Reachability graph error: %s", error));
+                return null;
+            }
+            var place = overflowPlace.get();
+            if(place < 0)
+                return null;
+            if(MarkingEncoder.getBitWidth(currentBounds[place]) >= Integer.SIZE - 1) {
+                System.err.println(String.format("Reachability graph error: place \"%s\" is unbounded.", net.getPlaceName(place)));
+                return null;
+            }
+            currentBounds[place] = encoder.getCapacity(place) * 2 + 1;
+        }
+        System.err.println("Reachability graph error: the place bounds could not be determined.");
+        return null;
+    }
+
+    private ReachabilityGraph explore(ForkJoinPool pool, long startTime) {
+        states = new PackedStateSet(encoder.getWordCount(), parallelism, offHeap);
+        workers = ThreadLocal.withInitial(this::createWorker);
+        allWorkers = new ConcurrentLinkedQueue<>();
+        aborted = false;
+        limitReached = false;
+        overflowPlace = new AtomicInteger(-1);
+        error = null;
+
+        // Initial marking may be vanishing, its tangible successors form the initial distribution
+        var initialWorker = workers.get();
+        initialWorker.targetCount = 0;
+        initialWorker.resolve(net.getInitialMarking(), 1.0);
+        if(Thread.currentThread().isInterrupted())
+            throw new CancellationException();
+        if(aborted)
+            return null;
+        var initialStates = Arrays.copyOf(initialWorker.targetIds, initialWorker.targetCount);
+        var initialProbabilities = Arrays.copyOf(initialWorker.targetRates, initialWorker.targetCount);
+
+        var frontier = collectDiscovered();
+        while(frontier.length > 0 && !limitReached) {
+            pool.invoke(new ExploreTask(frontier, 0, frontier.length));
+            if(Thread.currentThread().isInterrupted())
+                throw new CancellationException();
+            if(aborted)
+                return null;
+            frontier = collectDiscovered();
+        }
+
+        return buildGraph(initialStates, initialProbabilities, System.currentTimeMillis() - startTime);
+    }
+
+    private Worker createWorker() {
+        var worker = new Worker();
+        allWorkers.add(worker);
+        return worker;
+    }
+
+    private int[] collectDiscovered() {
+        int total = 0;
+        for(var worker : allWorkers)
+            total += worker.discovered.size;
+        var result = new int[total];
+        int position = 0;
+        for(var worker : allWorkers) {
+            System.arraycopy(worker.discovered.values, 0, result, position, worker.discovered.size);
+            position += worker.discovered.size;
+            worker.discovered.size = 0;
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    private ReachabilityGraph buildGraph(int[] initialStates, double[] initialProbabilities, long generationTime) {
+        var stateCount = states.size();
+        var rowStart = new int[stateCount + 1];
+        int edgeCount = 0;
+        int deadCount = 0;
+        for(var worker : allWorkers) {
+            edgeCount += worker.edgeCount;
+            deadCount += worker.dead.size;
+            for(int e = 0; e < worker.edgeCount; e++)
+                rowStart[worker.edgeSources[e] + 1]++;
+        }
+        for(int s = 0; s < stateCount; s++)
+            rowStart[s + 1] += rowStart[s];
+
+        var fill = Arrays.copyOf(rowStart, stateCount);
+        var targets = new int[edgeCount];
+        var rates = new double[edgeCount];
+        var dead = new int[deadCount];
+        int deadPosition = 0;
+        for(var worker : allWorkers) {
+            for(int e = 0; e < worker.edgeCount; e++) {
+                var position = fill[worker.edgeSources[e]]++;
+                targets[position] = worker.edgeTargets[e];
+                rates[position] = worker.edgeRates[e];
+            }
+            System.arraycopy(worker.dead.values, 0, dead, deadPosition, worker.dead.size);
+            deadPosition += worker.dead.size;
+        }
+        Arrays.sort(dead);
+
+        return new ReachabilityGraph(net, encoder, states, rowStart, targets, rates,
+                                     initialStates, initialProbabilities, dead, !limitReached, generationTime);
+    }
+
+    private void abort(String message) {
+        if(message != null)
+            error = message;
+        aborted = true;
+    }
+
+    /**
+     *  Expands a range of the current BFS level, large ranges are split in halves.
+     */
+    private class ExploreTask extends RecursiveAction {
+        private final int[] frontier;
+        private final int from;
+        private final int to;
+
+        private ExploreTask(int[] frontier, int from, int to) {
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from > TASK_THRESHOLD) {
+                var middle = (from + to) >>> 1;
+                invokeAll(new ExploreTask(frontier, from, middle), new ExploreTask(frontier, middle, to));
+                return;
+            }
+            if(caller.isInterrupted()) {
+                aborted = true;
+                return;
+            }
+            var worker = workers.get();
+            for(int i = from; i < to && !aborted; i++)
+                worker.expand(frontier[i]);
+        }
+    }
+
+    /**
+     *  Per thread scratch buffers and results, no synchronization is needed except the state set.
+     * Expanding a state allocates nothing once the buffers have grown to the needed size.
+     */
+    private class Worker {
+        private final int places = net.getPlaceCount();
+        private final long[] packed = new long[encoder.getWordCount()];
+        private final int[] marking = new int[places];
+        private final int[] enabled = new int[net.getTransitionCount()];
+        private final int[] successor = new int[places];
+
+        /* Vanishing markings waiting for resolution, stored one after another */
+        private int[] stackMarkings = new int[8 * places];
+        private double[] stackWeights = new double[8];
+        private final int[] vanishing = new int[places];
+        private final int[] vanishingEnabled = new int[net.getTransitionCount()];
+
+        private final IntList discovered = new IntList();
+        private final IntList dead = new IntList();
+
+        /* Tangible targets of the currently expanded state */
+        private int[] targetIds = new int[16];
+        private double[] targetRates = new double[16];
+        private int targetCount = 0;
+
+        private int[] edgeSources = new int[1024];
+        private int[] edgeTargets = new int[1024];
+        private double[] edgeRates = new double[1024];
+        private int edgeCount = 0;
+
+        private void expand(int state) {
+            states.get(state, packed, 0);
+            encoder.decode(packed, 0, marking);
+            if(net.isHalted(marking)) {
+                dead.add(state);
+                return;
+            }
+
+            var count = net.getEnabledTransitions(marking, enabled);
+            targetCount = 0;
+            for(int i = 0; i < count && !aborted; i++) {
+                var transition = enabled[i];
+                var rate = net.getRate(transition, marking);
+                if(rate <= 0.0)
+                    continue;
+                net.fire(transition, marking, successor);
+                resolve(successor, rate);
+            }
+
+            if(targetCount == 0) {
+                dead.add(state);
+                return;
+            }
+            for(int i = 0; i < targetCount; i++)
+                addEdge(state, targetIds[i], targetRates[i]);
+        }
+
+        /**
+         * Follows the immediate transitions from a marking until tangible markings are reached.
+         *
+         * @param start Marking reached by a timed firing, it is not modified.
+         * @param weight Rate (or probability) with which the marking is reached.
+         */
+        private void resolve(int[] start, double weight) {
+            int top = 0;
+            push(top++, start, weight);
+            int steps = 0;
+
+            while(top > 0 && !aborted) {
+                top--;
+                // The successors are pushed over the popped slot, so the marking is moved out first
+                System.arraycopy(stackMarkings, top * places, vanishing, 0, places);
+                var currentWeight = stackWeights[top];
+                if(++steps > VANISHING_STEP_LIMIT) {
+                    abort(String.format("vanishing loop detected in marking %s", net.markingToString(vanishing)));
+                    return;
+                }
+
+                if(!net.isHalted(vanishing)) {
+                    var count = net.getEnabledTransitions(vanishing, vanishingEnabled);
+                    if(count > 0 && net.isImmediate(vanishingEnabled[0])) {
+                        double total = 0.0;
+                        for(int i = 0; i < count; i++)
+                            total += net.getRate(vanishingEnabled[i], vanishing);
+                        if(total > 0.0) {
+                            for(int i = 0; i < count; i++) {
+                                var probability = net.getRate(vanishingEnabled[i], vanishing) / total;
+                                if(probability <= 0.0)
+                                    continue;
+                                net.fire(vanishingEnabled[i], vanishing, successor);
+                                push(top++, successor, currentWeight * probability);
+                            }
+                            continue;
+                        }
+                    }
+                }
+                addTarget(vanishing, currentWeight);
+            }
+        }
+
+        private void push(int slot, int[] vanishingMarking, double weight) {
+            if(slot == stackWeights.length) {
+                stackMarkings = Arrays.copyOf(stackMarkings, slot * 2 * places);
+                stackWeights = Arrays.copyOf(stackWeights, slot * 2);
+            }
+            System.arraycopy(vanishingMarking, 0, stackMarkings, slot * places, places);
+            stackWeights[slot] = weight;
+        }
+
+        private void addTarget(int[] tangible, double weight) {
+            var overflow = encoder.encode(tangible, packed, 0);
+            if(overflow >= 0) {
+                overflowPlace.compareAndSet(-1, overflow);
+                abort(null);
+                return;
+            }
+            var id = states.add(packed, 0);
+            if(id >= 0) {
+                discovered.add(id);
+                if(id + 1 >= stateLimit)
+                    limitReached = true;
+            }
+            else {
+                id = -id - 1;
+            }
+
+            for(int i = 0; i < targetCount; i++) {
+                if(targetIds[i] == id) {
+                    targetRates[i] += weight;
+                    return;
+                }
+            }
+            if(targetCount == targetIds.length) {
+                targetIds = Arrays.copyOf(targetIds, targetCount * 2);
+                targetRates = Arrays.copyOf(targetRates, targetCount * 2);
+            }
+            targetIds[targetCount] = id;
+            targetRates[targetCount++] = weight;
+        }
+
+        private void addEdge(int source, int target, double rate) {
+            if(edgeCount == edgeSources.length) {
+                var capacity = edgeCount * 2;
+                edgeSources = Arrays.copyOf(edgeSources, capacity);
+                edgeTargets = Arrays.copyOf(edgeTargets, capacity);
+                edgeRates = Arrays.copyOf(edgeRates, capacity);
+            }
+            edgeSources[edgeCount] = source;
+            edgeTargets[edgeCount] = target;
+            edgeRates[edgeCount++] = rate;
+        }
+    }
+
+    /**
+     *  Growable list of primitive integers.
+     */
+    private static class IntList {
+        private int[] values = new int[256];
+        private int size = 0;
+
+        private void add(int value) {
+            if(size == values.length)
+                values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+    }
+}
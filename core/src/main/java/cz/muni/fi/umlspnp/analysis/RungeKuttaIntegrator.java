@@ -0,0 +1,165 @@
+package cz.muni.fi.umlspnp.analysis;
+
+/**
+ *  Adaptive explicit Runge-Kutta integrator (Dormand-Prince 5(4) pair). The step size
+ * is controlled by the embedded fourth order error estimate, all work arrays are
+ * allocated once per integrator.
+ *
+ */
+public class RungeKuttaIntegrator {
+    private static final double C2 = 1.0 / 5, C3 = 3.0 / 10, C4 = 4.0 / 5, C5 = 8.0 / 9;
+    private static final double A21 = 1.0 / 5;
+    private static final double A31 = 3.0 / 40, A32 = 9.0 / 40;
+    private static final double A41 = 44.0 / 45, A42 = -56.0 / 15, A43 = 32.0 / 9;
+    private static final double A51 = 19372.0 / 6561, A52 = -25360.0 / 2187, A53 = 64448.0 / 6561, A54 = -212.0 / 729;
+    private static final double A61 = 9017.0 / 3168, A62 = -355.0 / 33, A63 = 46732.0 / 5247, A64 = 49.0 / 176, A65 = -5103.0 / 18656;
+    private static final double B1 = 35.0 / 384, B3 = 500.0 / 1113, B4 = 125.0 / 192, B5 = -2187.0 / 6784, B6 = 11.0 / 84;
+    private static final double E1 = 71.0 / 57600, E3 = -71.0 / 16695, E4 = 71.0 / 1920, E5 = -17253.0 / 339200, E6 = 22.0 / 525, E7 = -1.0 / 40;
+
+    private final OdeSystem system;
+    private final int dimension;
+    private final double[] k1, k2, k3, k4, k5, k6, k7;
+    private final double[] stage;
+    private final double[] candidate;
+
+    private double relativeTolerance = 1e-6;
+    private double absoluteTolerance = 1e-9;
+    private int maxSteps = 1000000;
+    private double step = 0.0;
+    private long totalSteps = 0;
+
+    public RungeKuttaIntegrator(OdeSystem system, int dimension) {
+        this.system = system;
+        this.dimension = dimension;
+        k1 = new double[dimension];
+        k2 = new double[dimension];
+        k3 = new double[dimension];
+        k4 = new double[dimension];
+        k5 = new double[dimension];
+        k6 = new double[dimension];
+        k7 = new double[dimension];
+        stage = new double[dimension];
+        candidate = new double[dimension];
+    }
+
+    public void setTolerances(double relativeTolerance, double absoluteTolerance) {
+        this.relativeTolerance = relativeTolerance;
+        this.absoluteTolerance = absoluteTolerance;
+    }
+
+    public void setMaxSteps(int maxSteps) {
+        this.maxSteps = maxSteps;
+    }
+
+    /**
+     *
+     * @return Number of accepted steps of all integrations.
+     */
+    public long getTotalSteps() {
+        return totalSteps;
+    }
+
+    /**
+     * Integrates the system from the time start to the time end, the state is updated in place.
+     *
+     * @param state Values at the start, replaced by the values at the end.
+     * @param start Initial time.
+     * @param end Final time.
+     * @return False if the step limit was reached or the step size underflowed.
+     */
+    public boolean integrate(double[] state, double start, double end) {
+        var time = start;
+        if(end <= start)
+            return true;
+        if(step <= 0.0)
+            step = Math.min(end - start, initialStep(state, start));
+        system.derivative(time, state, k1);
+        for(int steps = 0; steps < maxSteps; steps++) {
+            var h = Math.min(step, end - time);
+            var error = attempt(state, time, h);
+            if(error <= 1.0) {
+                time += h;
+                System.arraycopy(candidate, 0, state, 0, dimension);
+                System.arraycopy(k7, 0, k1, 0, dimension);
+                totalSteps++;
+                if(time >= end)
+                    return true;
+            }
+            var factor = error == 0.0 ? 5.0 : Math.min(5.0, Math.max(0.2, 0.9 * Math.pow(error, -0.2)));
+            step = h * factor;
+            if(step < Math.ulp(time) * 16)
+                return false;
+        }
+        return false;
+    }
+
+    /**
+     * Integrates until the largest derivative is below the tolerance.
+     *
+     * @param state Initial values, replaced by the values at the end.
+     * @param tolerance Tolerance of the derivative.
+     * @param maxTime Time after which the integration stops.
+     * @return Time at which the steady state was detected or NaN if it was not reached.
+     */
+    public double integrateToSteadyState(double[] state, double tolerance, double maxTime) {
+        var time = 0.0;
+        var interval = 1.0;
+        var derivative = new double[dimension];
+        while(time < maxTime) {
+            var next = Math.min(maxTime, time + interval);
+            if(!integrate(state, time, next))
+                return Double.NaN;
+            time = next;
+            system.derivative(time, state, derivative);
+            double largest = 0.0;
+            for(var value : derivative)
+                largest = Math.max(largest, Math.abs(value));
+            if(largest < tolerance)
+                return time;
+            interval *= 2.0;
+        }
+        return Double.NaN;
+    }
+
+    private double initialStep(double[] state, double time) {
+        system.derivative(time, state, k1);
+        double norm = 0.0;
+        for(int i = 0; i < dimension; i++)
+            norm = Math.max(norm, Math.abs(k1[i]) / (absoluteTolerance + relativeTolerance * Math.abs(state[i])));
+        return norm > 0.0 ? 0.01 / norm : 1.0;
+    }
+
+    /**
+     * One Dormand-Prince step from the state, the derivative at the start is k1.
+     *
+     * @return Scaled error estimate, the step is accepted if it is at most 1.
+     */
+    private double attempt(double[] y, double t, double h) {
+        for(int i = 0; i < dimension; i++)
+            stage[i] = y[i] + h * A21 * k1[i];
+        system.derivative(t + C2 * h, stage, k2);
+        for(int i = 0; i < dimension; i++)
+            stage[i] = y[i] + h * (A31 * k1[i] + A32 * k2[i]);
+        system.derivative(t + C3 * h, stage, k3);
+        for(int i = 0; i < dimension; i++)
+            stage[i] = y[i] + h * (A41 * k1[i] + A42 * k2[i] + A43 * k3[i]);
+        system.derivative(t + C4 * h, stage, k4);
+        for(int i = 0; i < dimension; i++)
+            stage[i] = y[i] + h * (A51 * k1[i] + A52 * k2[i] + A53 * k3[i] + A54 * k4[i]);
+        system.derivative(t + C5 * h, stage, k5);
+        for(int i = 0; i < dimension; i++)
+            stage[i] = y[i] + h * (A61 * k1[i] + A62 * k2[i] + A63 * k3[i] + A64 * k4[i] + A65 * k5[i]);
+        system.derivative(t + h, stage, k6);
+        for(int i = 0; i < dimension; i++)
+            candidate[i] = y[i] + h * (B1 * k1[i] + B3 * k3[i] + B4 * k4[i] + B5 * k5[i] + B6 * k6[i]);
+        system.derivative(t + h, candidate, k7);
+
+        double error = 0.0;
+        for(int i = 0; i < dimension; i++) {
+            var estimate = h * (E1 * k1[i] + E3 * k3[i] + E4 * k4[i] + E5 * k5[i] + E6 * k6[i] + E7 * k7[i]);
+            var scale = absoluteTolerance + relativeTolerance * Math.max(Math.abs(y[i]), Math.abs(candidate[i]));
+            error = Math.max(error, Math.abs(estimate) / scale);
+        }
+        return error;
+    }
+}
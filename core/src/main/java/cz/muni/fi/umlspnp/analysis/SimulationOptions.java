@@ -0,0 +1,147 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import java.util.Map;
+
+/**
+ *  Settings of the in-process simulator taken from the SPNP simulation options.
+ *
+ */
+public class SimulationOptions {
+    private int runs = 100000;
+    private long seed = 52836;
+    private double length = 50.0;
+    private double confidence = 0.95;
+    private double error = 0.1;
+    private boolean cumulative = true;
+    private int minimalRuns = 100;
+    private int batchSize = 64;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Reads the settings from the option values, unknown or missing options keep their defaults.
+     *
+     * @param optionValues SPNP option keys mapped to their values (constant names or numbers).
+     * @return The simulation options.
+     */
+    public static SimulationOptions fromOptionValues(Map<String, String> optionValues) {
+        var result = new SimulationOptions();
+        try {
+            if(optionValues.containsKey("IOP_SIM_RUNS"))
+                result.setRuns(Integer.parseInt(optionValues.get("IOP_SIM_RUNS")));
+            if(optionValues.containsKey("IOP_SIM_SEED"))
+                result.setSeed(Long.parseLong(optionValues.get("IOP_SIM_SEED")));
+            if(optionValues.containsKey("FOP_SIM_LENGTH"))
+                result.setLength(Double.parseDouble(optionValues.get("FOP_SIM_LENGTH")));
+            if(optionValues.containsKey("FOP_SIM_CONFIDENCE"))
+                result.setConfidence(Double.parseDouble(optionValues.get("FOP_SIM_CONFIDENCE")));
+            if(optionValues.containsKey("FOP_SIM_ERROR"))
+                result.setError(Double.parseDouble(optionValues.get("FOP_SIM_ERROR")));
+        }
+        catch(NumberFormatException ex) {
+            System.err.println(String.format("Simulation options: invalid numeric option value (%s), using the defaults.", ex.getMessage()));
+        }
+        if(optionValues.containsKey("IOP_SIM_CUMULATIVE"))
+            result.setCumulative("VAL_YES".equals(optionValues.get("IOP_SIM_CUMULATIVE")));
+        return result;
+    }
+
+    /**
+     *
+     * @return Maximal number of replications (IOP_SIM_RUNS).
+     */
+    public int getRuns() {
+        return runs;
+    }
+
+    public void setRuns(int runs) {
+        this.runs = Math.max(1, runs);
+    }
+
+    /**
+     *
+     * @return Seed from which the random streams of all replications are split (IOP_SIM_SEED).
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     *
+     * @return Simulated time of one replication (FOP_SIM_LENGTH).
+     */
+    public double getLength() {
+        return length;
+    }
+
+    public void setLength(double length) {
+        this.length = length;
+    }
+
+    /**
+     *
+     * @return Confidence level of the intervals (FOP_SIM_CONFIDENCE).
+     */
+    public double getConfidence() {
+        return confidence;
+    }
+
+    public void setConfidence(double confidence) {
+        this.confidence = confidence;
+    }
+
+    /**
+     *
+     * @return Relative half-width of the confidence intervals at which the simulation stops (FOP_SIM_ERROR).
+     */
+    public double getError() {
+        return error;
+    }
+
+    public void setError(double error) {
+        this.error = error;
+    }
+
+    /**
+     *
+     * @return True if the stopping rule checks the time-averaged measures, otherwise the measures at the end of the run (IOP_SIM_CUMULATIVE).
+     */
+    public boolean isCumulative() {
+        return cumulative;
+    }
+
+    public void setCumulative(boolean cumulative) {
+        this.cumulative = cumulative;
+    }
+
+    public int getMinimalRuns() {
+        return minimalRuns;
+    }
+
+    public void setMinimalRuns(int minimalRuns) {
+        this.minimalRuns = minimalRuns;
+    }
+
+    /**
+     *
+     * @return Number of replications which share one random stream and one task.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+}
@@ -0,0 +1,120 @@
+package cz.muni.fi.umlspnp.analysis;
+
+/**
+ *  Estimates of the measures computed by the simulator with the half-widths
+ * of their confidence intervals. The measures are the time-averaged numbers
+ * of tokens, the numbers of tokens at the end of the run, the throughputs
+ * of the transitions and the probability that the run ended absorbed.
+ *
+ */
+public class SimulationResult {
+    private final CompiledNet net;
+    private final SimulationOptions options;
+    private final double[] means;
+    private final double[] halfWidths;
+    private final int replications;
+    private final boolean precise;
+    private final long trappedReplications;
+    private final long simulationTime;
+
+    public SimulationResult(CompiledNet net,
+                            SimulationOptions options,
+                            double[] means,
+                            double[] halfWidths,
+                            int replications,
+                            boolean precise,
+                            long trappedReplications,
+                            long simulationTime) {
+        this.net = net;
+        this.options = options;
+        this.means = means;
+        this.halfWidths = halfWidths;
+        this.replications = replications;
+        this.precise = precise;
+        this.trappedReplications = trappedReplications;
+        this.simulationTime = simulationTime;
+    }
+
+    static int getMeasureCount(CompiledNet net) {
+        return 2 * net.getPlaceCount() + net.getTransitionCount() + 1;
+    }
+
+    public int getReplications() {
+        return replications;
+    }
+
+    /**
+     *
+     * @return True if the stopping rule was satisfied before the replication limit.
+     */
+    public boolean isPrecise() {
+        return precise;
+    }
+
+    public long getSimulationTime() {
+        return simulationTime;
+    }
+
+    public double getAverageTokens(int place) {
+        return means[place];
+    }
+
+    public double getAverageTokensHalfWidth(int place) {
+        return halfWidths[place];
+    }
+
+    public double getFinalTokens(int place) {
+        return means[net.getPlaceCount() + place];
+    }
+
+    public double getFinalTokensHalfWidth(int place) {
+        return halfWidths[net.getPlaceCount() + place];
+    }
+
+    public double getThroughput(int transition) {
+        return means[2 * net.getPlaceCount() + transition];
+    }
+
+    public double getThroughputHalfWidth(int transition) {
+        return halfWidths[2 * net.getPlaceCount() + transition];
+    }
+
+    public double getAbsorptionProbability() {
+        return means[means.length - 1];
+    }
+
+    public double getAbsorptionProbabilityHalfWidth() {
+        return halfWidths[halfWidths.length - 1];
+    }
+
+    @Override
+    public String toString() {
+        var result = new StringBuilder();
+        result.append(String.format("Simulation:%n"));
+        result.append(String.format("  replications: %d%s, length: %s, confidence: %s, time: %d ms%n",
+                                    replications,
+                                    precise ? "" : " (precision NOT reached)",
+                                    Double.toString(options.getLength()),
+                                    Double.toString(options.getConfidence()),
+                                    simulationTime));
+        if(trappedReplications > 0)
+            result.append(String.format("  replications stopped in a loop of immediate transitions: %d%n", trappedReplications));
+        result.append(String.format("  absorbed before the end: %.6e +- %.2e%n",
+                                    getAbsorptionProbability(), getAbsorptionProbabilityHalfWidth()));
+
+        result.append(String.format("  %-40s %26s %26s%n", "PLACE", "Time-avg. tokens", "Tokens at end"));
+        for(int p = 0; p < net.getPlaceCount(); p++) {
+            result.append(String.format("  %-40s %14.6e +- %.2e %14.6e +- %.2e%n",
+                                        net.getPlaceName(p),
+                                        getAverageTokens(p), getAverageTokensHalfWidth(p),
+                                        getFinalTokens(p), getFinalTokensHalfWidth(p)));
+        }
+        result.append(String.format("  %-40s %26s%n", "TRANSITION", "Throughput"));
+        for(int t = 0; t < net.getTransitionCount(); t++) {
+            result.append(String.format("  %-40s %14.6e +- %.2e%n",
+                                        net.getTransitionName(t),
+                                        getThroughput(t), getThroughputHalfWidth(t)));
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,436 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *  Discrete-event simulator of a compiled net with exponentially distributed firing
+ * times. Independent replications are grouped into batches, every batch has its own
+ * random stream split from the seed, so the results do not depend on the number of threads.
+ * The simulation stops when the confidence intervals of the monitored measures are
+ * narrow enough or the number of replications reaches the limit.
+ *
+ */
+public class Simulator {
+    private static final int BATCHES_PER_ROUND = 16;
+    private static final int VANISHING_STEP_LIMIT = 100000;
+
+    private final CompiledNet net;
+    private final SimulationOptions options;
+    private final int[] initialMarking;
+
+    // Transitions whose concession or rate may change when the place changes
+    private final int[][] placeDependents;
+    private final int[][] changedPlaces;
+    private final boolean uniformTimedPriority;
+
+    public Simulator(CompiledNet net, SimulationOptions options) {
+        this.net = net;
+        this.options = options;
+        this.initialMarking = net.getInitialMarking();
+
+        var places = net.getPlaceCount();
+        var transitions = net.getTransitionCount();
+        var dependents = new ArrayList<ArrayList<Integer>>();
+        for(int p = 0; p < places; p++)
+            dependents.add(new ArrayList<>());
+        changedPlaces = new int[transitions][];
+        int timedPriority = Integer.MIN_VALUE;
+        boolean uniform = true;
+        for(int t = 0; t < transitions; t++) {
+            var enabling = new HashSet<Integer>();
+            net.collectEnablingPlaces(t, enabling);
+            for(var place : enabling)
+                dependents.get(place).add(t);
+
+            var changed = new HashSet<Integer>();
+            for(var place : net.getInputPlaces(t))
+                changed.add(place);
+            for(var place : net.getOutputPlaces(t))
+                changed.add(place);
+            changedPlaces[t] = changed.stream().mapToInt(Integer::intValue).sorted().toArray();
+
+            if(!net.isImmediate(t)) {
+                if(timedPriority != Integer.MIN_VALUE && timedPriority != net.getPriority(t))
+                    uniform = false;
+                timedPriority = net.getPriority(t);
+            }
+        }
+        placeDependents = new int[places][];
+        for(int p = 0; p < places; p++)
+            placeDependents[p] = dependents.get(p).stream().mapToInt(Integer::intValue).toArray();
+        uniformTimedPriority = uniform;
+    }
+
+    /**
+     * Runs the replications in parallel until the precision or the replication limit is reached.
+     *
+     * @return The simulation result or null if the simulation failed.
+     * @throws CancellationException If the calling thread is interrupted.
+     */
+    public SimulationResult run() {
+        var start = System.currentTimeMillis();
+        var measureCount = SimulationResult.getMeasureCount(net);
+        var sums = new double[measureCount];
+        var squares = new double[measureCount];
+        var root = new SplittableRandom(options.getSeed());
+        var quantile = normalQuantile((1.0 + options.getConfidence()) / 2.0);
+
+        var threadReplicators = ThreadLocal.withInitial(() -> new Replicator());
+        var executor = Executors.newFixedThreadPool(options.getParallelism(), runnable -> {
+            var thread = new Thread(runnable, "simulation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int replications = 0;
+        long trapped = 0;
+        boolean precise = false;
+        try {
+            while(replications < options.getRuns() && !precise) {
+                var tasks = new ArrayList<Callable<Batch>>();
+                var planned = replications;
+                for(int b = 0; b < BATCHES_PER_ROUND && planned < options.getRuns(); b++) {
+                    var size = Math.min(options.getBatchSize(), options.getRuns() - planned);
+                    var random = root.split();
+                    tasks.add(() -> threadReplicators.get().runBatch(random, size));
+                    planned += size;
+                }
+                // Summed in the batch order, so the result is reproducible
+                for(Future<Batch> future : executor.invokeAll(tasks)) {
+                    var batch = future.get();
+                    for(int i = 0; i < measureCount; i++) {
+                        sums[i] += batch.sums[i];
+                        squares[i] += batch.squares[i];
+                    }
+                    replications += batch.replications;
+                    trapped += batch.trapped;
+                }
+                if(replications >= options.getMinimalRuns())
+                    precise = isPrecise(sums, squares, replications, quantile);
+            }
+        }
+        catch(InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        }
+        catch(ExecutionException ex) {
+            System.err.println(String.format("Simulation error: %s", ex.getCause()));
+            return null;
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        var means = new double[measureCount];
+        var halfWidths = new double[measureCount];
+        for(int i = 0; i < measureCount; i++) {
+            means[i] = sums[i] / replications;
+            halfWidths[i] = quantile * standardError(sums[i], squares[i], replications);
+        }
+        return new SimulationResult(net, options, means, halfWidths, replications, precise, trapped,
+                                    System.currentTimeMillis() - start);
+    }
+
+    private boolean isPrecise(double[] sums, double[] squares, int replications, double quantile) {
+        var places = net.getPlaceCount();
+        var monitoredFrom = options.isCumulative() ? 0 : places;
+        for(int i = 0; i < sums.length; i++) {
+            var isPlace = i < 2 * places;
+            if(isPlace && (i < monitoredFrom || i >= monitoredFrom + places))
+                continue;
+            var mean = sums[i] / replications;
+            if(mean == 0.0)
+                continue;
+            var halfWidth = quantile * standardError(sums[i], squares[i], replications);
+            if(halfWidth > options.getError() * Math.abs(mean))
+                return false;
+        }
+        return true;
+    }
+
+    private static double standardError(double sum, double squares, int count) {
+        if(count < 2)
+            return Double.POSITIVE_INFINITY;
+        var mean = sum / count;
+        var variance = Math.max(0.0, (squares - count * mean * mean) / (count - 1));
+        return Math.sqrt(variance / count);
+    }
+
+    /**
+     * Inverse of the standard normal distribution function (rational approximation by Acklam,
+     * relative error below 1.15e-9).
+     *
+     * @param p Probability in (0, 1).
+     * @return The quantile.
+     */
+    static double normalQuantile(double p) {
+        final double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+                            1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        final double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+                            6.680131188771972e+01, -1.328068155288572e+01};
+        final double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+                            -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        final double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+                            3.754408661907416e+00};
+        var low = 0.02425;
+        if(p < low) {
+            var q = Math.sqrt(-2 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                   / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        if(p > 1 - low)
+            return -normalQuantile(1 - p);
+        var q = p - 0.5;
+        var r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+               / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+
+    /**
+     *  Sums of the measures over the replications of one batch.
+     *
+     */
+    private static class Batch {
+        private final double[] sums;
+        private final double[] squares;
+        private int replications = 0;
+        private long trapped = 0;
+
+        Batch(int measureCount) {
+            sums = new double[measureCount];
+            squares = new double[measureCount];
+        }
+    }
+
+    /**
+     *  Simulation state of one thread. All arrays are allocated once and reused
+     * by the replications.
+     *
+     */
+    private class Replicator {
+        private int[] marking;
+        private int[] next;
+        private final int[] enabled;
+        private final IndexedHeap schedule;
+        private final double[] scheduledRates;
+
+        private final int[] affected;
+        private final int[] affectedStamps;
+        private int affectedCount = 0;
+        private int epoch = 0;
+
+        private final double[] tokenIntegrals;
+        private final double[] lastChange;
+        private final long[] firings;
+        private final double[] values;
+
+        private double now;
+
+        Replicator() {
+            var places = net.getPlaceCount();
+            var transitions = net.getTransitionCount();
+            marking = new int[places];
+            next = new int[places];
+            enabled = new int[transitions];
+            schedule = new IndexedHeap(transitions);
+            scheduledRates = new double[transitions];
+            affected = new int[transitions];
+            affectedStamps = new int[transitions];
+            tokenIntegrals = new double[places];
+            lastChange = new double[places];
+            firings = new long[transitions];
+            values = new double[SimulationResult.getMeasureCount(net)];
+        }
+
+        Batch runBatch(SplittableRandom random, int replications) {
+            var batch = new Batch(values.length);
+            for(int r = 0; r < replications; r++) {
+                if(Thread.currentThread().isInterrupted())
+                    throw new CancellationException();
+                if(!replicate(random))
+                    batch.trapped++;
+                for(int i = 0; i < values.length; i++) {
+                    batch.sums[i] += values[i];
+                    batch.squares[i] += values[i] * values[i];
+                }
+                batch.replications++;
+            }
+            return batch;
+        }
+
+        /**
+         * Simulates one run and writes its measures into the values.
+         *
+         * @return False if the run was stopped in a loop of immediate transitions.
+         */
+        private boolean replicate(SplittableRandom random) {
+            var places = net.getPlaceCount();
+            var transitions = net.getTransitionCount();
+            var length = options.getLength();
+            System.arraycopy(initialMarking, 0, marking, 0, places);
+            Arrays.fill(tokenIntegrals, 0.0);
+            Arrays.fill(lastChange, 0.0);
+            Arrays.fill(firings, 0);
+            schedule.clear();
+            now = 0.0;
+
+            // Initially all transitions are considered as affected
+            beginStep();
+            for(int t = 0; t < transitions; t++)
+                markAffected(t);
+            var state = settle(random);
+            if(state == State.TANGIBLE)
+                reschedule(random, -1);
+
+            while(state == State.TANGIBLE && !schedule.isEmpty()) {
+                var transition = schedule.peek();
+                var time = schedule.getKey(transition);
+                if(time >= length)
+                    break;
+                now = time;
+                beginStep();
+                fire(transition);
+                state = settle(random);
+                if(state == State.TANGIBLE)
+                    reschedule(random, transition);
+            }
+
+            // Measures: time-averaged tokens, tokens at the end, throughputs, absorption
+            for(int p = 0; p < places; p++) {
+                var integral = tokenIntegrals[p] + marking[p] * (length - lastChange[p]);
+                values[p] = integral / length;
+                values[places + p] = marking[p];
+            }
+            for(int t = 0; t < transitions; t++)
+                values[2 * places + t] = firings[t] / length;
+            values[2 * places + transitions] = state != State.TANGIBLE || schedule.isEmpty() ? 1.0 : 0.0;
+            return state != State.TRAPPED;
+        }
+
+        private void beginStep() {
+            affectedCount = 0;
+            if(++epoch == 0) {
+                Arrays.fill(affectedStamps, 0);
+                epoch = 1;
+            }
+        }
+
+        private void markAffected(int transition) {
+            if(affectedStamps[transition] != epoch) {
+                affectedStamps[transition] = epoch;
+                affected[affectedCount++] = transition;
+            }
+        }
+
+        private void fire(int transition) {
+            net.fire(transition, marking, next);
+            for(var place : changedPlaces[transition]) {
+                if(next[place] == marking[place])
+                    continue;
+                tokenIntegrals[place] += marking[place] * (now - lastChange[place]);
+                lastChange[place] = now;
+                for(var dependent : placeDependents[place])
+                    markAffected(dependent);
+            }
+            var swap = marking;
+            marking = next;
+            next = swap;
+            firings[transition]++;
+        }
+
+        /**
+         * Fires the immediate transitions until a tangible or an absorbing marking is reached.
+         * In a tangible marking no immediate transition has concession, so only the immediate
+         * transitions affected by the last firings need to be checked.
+         */
+        private State settle(SplittableRandom random) {
+            for(int step = 0; step < VANISHING_STEP_LIMIT; step++) {
+                if(net.isHalted(marking))
+                    return State.HALTED;
+                boolean vanishing = false;
+                for(int i = 0; i < affectedCount && !vanishing; i++) {
+                    var transition = affected[i];
+                    vanishing = net.isImmediate(transition) && net.hasConcession(transition, marking);
+                }
+                if(!vanishing)
+                    return State.TANGIBLE;
+
+                var count = net.getEnabledTransitions(marking, enabled);
+                if(count == 0 || !net.isImmediate(enabled[0]))
+                    return State.TANGIBLE;
+                var chosen = enabled[0];
+                if(count > 1) {
+                    double total = 0.0;
+                    for(int i = 0; i < count; i++)
+                        total += net.getRate(enabled[i], marking);
+                    var threshold = random.nextDouble() * total;
+                    for(int i = 0; i < count; i++) {
+                        chosen = enabled[i];
+                        threshold -= net.getRate(chosen, marking);
+                        if(threshold < 0.0)
+                            break;
+                    }
+                }
+                fire(chosen);
+            }
+            return State.TRAPPED;
+        }
+
+        /**
+         * Updates the firing times of the affected timed transitions, the exponential
+         * distribution is memoryless, so a new firing time is sampled only if the rate changed.
+         */
+        private void reschedule(SplittableRandom random, int fired) {
+            if(fired >= 0)
+                schedule.remove(fired);
+            if(uniformTimedPriority) {
+                if(fired >= 0)
+                    markAffected(fired);
+                for(int i = 0; i < affectedCount; i++) {
+                    var transition = affected[i];
+                    if(!net.isImmediate(transition))
+                        update(random, transition, net.hasConcession(transition, marking));
+                }
+                return;
+            }
+            // Priorities of the timed transitions decide globally, all of them are checked
+            beginStep();
+            var count = net.getEnabledTransitions(marking, enabled);
+            for(int i = 0; i < count; i++)
+                markAffected(enabled[i]);
+            for(int t = 0; t < net.getTransitionCount(); t++) {
+                if(!net.isImmediate(t))
+                    update(random, t, affectedStamps[t] == epoch);
+            }
+        }
+
+        private void update(SplittableRandom random, int transition, boolean isEnabled) {
+            if(!isEnabled) {
+                schedule.remove(transition);
+                return;
+            }
+            var rate = net.getRate(transition, marking);
+            if(!(rate > 0.0)) {
+                schedule.remove(transition);
+                return;
+            }
+            if(schedule.contains(transition) && scheduledRates[transition] == rate)
+                return;
+            scheduledRates[transition] = rate;
+            schedule.set(transition, now - Math.log(1.0 - random.nextDouble()) / rate);
+        }
+    }
+
+    private enum State {
+        TANGIBLE,
+        HALTED,
+        TRAPPED
+    }
+}
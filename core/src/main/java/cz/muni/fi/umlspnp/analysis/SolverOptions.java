@@ -0,0 +1,179 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import java.util.Map;
+
+/**
+ *  Settings of the in-process CTMC solver. The values are taken from the SPNP
+ * options of the numerical solution, so both solvers are configured the same way.
+ *
+ */
+public class SolverOptions {
+    public enum SteadyStateMethod {
+        SOR("VAL_SSSOR"),
+        GAUSS_SEIDEL("VAL_GASEI"),
+        POWER("VAL_POWER");
+
+        private final String optionValue;
+
+        SteadyStateMethod(String optionValue) {
+            this.optionValue = optionValue;
+        }
+
+        public String getOptionValue() {
+            return optionValue;
+        }
+    }
+
+    public enum TransientMethod {
+        UNIFORMIZATION("VAL_TSUNIF"),
+        FOX_GLYNN("VAL_FOXUNIF");
+
+        private final String optionValue;
+
+        TransientMethod(String optionValue) {
+            this.optionValue = optionValue;
+        }
+
+        public String getOptionValue() {
+            return optionValue;
+        }
+    }
+
+    private SteadyStateMethod steadyStateMethod = SteadyStateMethod.SOR;
+    private TransientMethod transientMethod = TransientMethod.FOX_GLYNN;
+    private double precision = 0.000001;
+    private int iterations = 2000;
+    private boolean steadyStateDetection = true;
+    private double steadyStatePrecision = 0.25;
+    private boolean cumulative = true;
+    private double[] transientTimes = new double[] {100.0};
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Reads the settings from the option values, unknown or missing options keep their defaults.
+     *
+     * @param optionValues SPNP option keys mapped to their values (constant names or numbers).
+     * @return The solver options.
+     */
+    public static SolverOptions fromOptionValues(Map<String, String> optionValues) {
+        var result = new SolverOptions();
+        var ssMethod = optionValues.get("IOP_SSMETHOD");
+        for(var method : SteadyStateMethod.values()) {
+            if(method.getOptionValue().equals(ssMethod))
+                result.setSteadyStateMethod(method);
+        }
+        var tsMethod = optionValues.get("IOP_TSMETHOD");
+        for(var method : TransientMethod.values()) {
+            if(method.getOptionValue().equals(tsMethod))
+                result.setTransientMethod(method);
+        }
+        try {
+            if(optionValues.containsKey("FOP_PRECISION"))
+                result.setPrecision(Double.parseDouble(optionValues.get("FOP_PRECISION")));
+            if(optionValues.containsKey("IOP_ITERATIONS"))
+                result.setIterations(Integer.parseInt(optionValues.get("IOP_ITERATIONS")));
+            if(optionValues.containsKey("FOP_SSPRES"))
+                result.setSteadyStatePrecision(Double.parseDouble(optionValues.get("FOP_SSPRES")));
+        }
+        catch(NumberFormatException ex) {
+            System.err.println(String.format("Solver options: invalid numeric option value (%s), using the defaults.", ex.getMessage()));
+        }
+        if(optionValues.containsKey("IOP_SSDETECT"))
+            result.setSteadyStateDetection("VAL_YES".equals(optionValues.get("IOP_SSDETECT")));
+        if(optionValues.containsKey("IOP_CUMULATIVE"))
+            result.setCumulative("VAL_YES".equals(optionValues.get("IOP_CUMULATIVE")));
+        return result;
+    }
+
+    public SteadyStateMethod getSteadyStateMethod() {
+        return steadyStateMethod;
+    }
+
+    public void setSteadyStateMethod(SteadyStateMethod steadyStateMethod) {
+        this.steadyStateMethod = steadyStateMethod;
+    }
+
+    public TransientMethod getTransientMethod() {
+        return transientMethod;
+    }
+
+    public void setTransientMethod(TransientMethod transientMethod) {
+        this.transientMethod = transientMethod;
+    }
+
+    /**
+     *
+     * @return Convergence criterion of the iterative methods (FOP_PRECISION).
+     */
+    public double getPrecision() {
+        return precision;
+    }
+
+    public void setPrecision(double precision) {
+        this.precision = precision;
+    }
+
+    /**
+     *
+     * @return Maximal number of iterations of the iterative methods (IOP_ITERATIONS).
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+    }
+
+    /**
+     *
+     * @return True if the uniformization should stop once the steady state is detected (IOP_SSDETECT).
+     */
+    public boolean isSteadyStateDetection() {
+        return steadyStateDetection;
+    }
+
+    public void setSteadyStateDetection(boolean steadyStateDetection) {
+        this.steadyStateDetection = steadyStateDetection;
+    }
+
+    /**
+     *
+     * @return Precision of the steady state detection relative to the precision (FOP_SSPRES).
+     */
+    public double getSteadyStatePrecision() {
+        return steadyStatePrecision;
+    }
+
+    public void setSteadyStatePrecision(double steadyStatePrecision) {
+        this.steadyStatePrecision = steadyStatePrecision;
+    }
+
+    /**
+     *
+     * @return True if the time-averaged (cumulative) transient measures should be computed (IOP_CUMULATIVE).
+     */
+    public boolean isCumulative() {
+        return cumulative;
+    }
+
+    public void setCumulative(boolean cumulative) {
+        this.cumulative = cumulative;
+    }
+
+    public double[] getTransientTimes() {
+        return transientTimes;
+    }
+
+    public void setTransientTimes(double... transientTimes) {
+        this.transientTimes = transientTimes;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+}
@@ -0,0 +1,267 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import cz.muni.fi.spnp.core.models.PetriNet;
+import cz.muni.fi.spnp.core.models.arcs.ArcDirection;
+import cz.muni.fi.spnp.core.models.arcs.StandardArc;
+import cz.muni.fi.spnp.core.models.places.StandardPlace;
+import cz.muni.fi.spnp.core.models.transitions.ImmediateTransition;
+import cz.muni.fi.spnp.core.models.transitions.TimedTransition;
+import cz.muni.fi.spnp.core.models.transitions.probabilities.ConstantTransitionProbability;
+import cz.muni.fi.spnp.core.transformators.spnp.distributions.ExponentialTransitionDistribution;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *  Numerical self-check of the in-process analysis: --self-check [--tolerance X]
+ * Solves a birth-death chain (a queue with the capacity K, arrivals passing through
+ * an immediate transition) whose steady state has a closed form by all steady state
+ * methods, the two-state chain (K = 1) with a known transient solution by both
+ * uniformization variants, and checks the place bound given by the P-invariants and
+ * the number of markings found by the symbolic generation.
+ *
+ */
+public class SolverSelfCheck {
+    public static final String COMMAND = "--self-check";
+
+    private static final double ARRIVAL_RATE = 2.0;
+    private static final double SERVICE_RATE = 3.0;
+    private static final int CAPACITY = 20;
+    private static final double[] TIMES = new double[] {0.1, 0.5, 2.0, 10.0};
+
+    private final double tolerance;
+    private final List<String> failures = new ArrayList<>();
+
+    private SolverSelfCheck(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    /**
+     *
+     * @param args Arguments following the --self-check command.
+     * @return Exit code, 0 if all results match the closed forms.
+     */
+    public static int run(String[] args) {
+        var tolerance = 1e-6;
+        try {
+            for(int i = 0; i < args.length; i++) {
+                switch(args[i]) {
+                    case "--tolerance":
+                        tolerance = Double.parseDouble(args[++i]);
+                        break;
+                    default:
+                        printUsage();
+                        return 2;
+                }
+            }
+        }
+        catch(NumberFormatException | ArrayIndexOutOfBoundsException ex) {
+            printUsage();
+            return 2;
+        }
+        if(!(tolerance > 0.0)) {
+            printUsage();
+            return 2;
+        }
+
+        var selfCheck = new SolverSelfCheck(tolerance);
+        if(!selfCheck.checkAll())
+            return 1;
+        if(!selfCheck.failures.isEmpty()) {
+            System.err.println(String.format("Self-check failed: %d check(s) exceed the tolerance %s", selfCheck.failures.size(), Double.toString(tolerance)));
+            selfCheck.failures.forEach(failure -> System.err.println(String.format("  %s", failure)));
+            return 1;
+        }
+        System.out.println("Self-check passed");
+        return 0;
+    }
+
+    private static void printUsage() {
+        System.err.println(String.format("Usage: %s [--tolerance X]", COMMAND));
+    }
+
+    private boolean checkAll() {
+        System.out.println(String.format("Self-check of the queue with the capacity %d (arrival rate %s, service rate %s):",
+                                         CAPACITY, Double.toString(ARRIVAL_RATE), Double.toString(SERVICE_RATE)));
+        System.out.println(String.format("  %-44s %14s %14s", "check", "value", "expected"));
+        var queue = compileQueue(CAPACITY);
+        if(queue == null)
+            return false;
+        var graph = generate(queue);
+        if(graph == null)
+            return false;
+        var queuePlace = queue.getPlaceIndex("queue");
+        var serviceTransition = findTransition(queue, "service");
+
+        check("tangible markings", graph.getStateCount(), CAPACITY + 1);
+        var invariantAnalysis = new InvariantAnalysis(queue);
+        if(invariantAnalysis.analyze())
+            check("place bound of the queue", invariantAnalysis.getPlaceBound(queuePlace), CAPACITY);
+        else
+            failures.add("P-invariants: not computed");
+
+        var stateSpace = new SymbolicStateSpace(queue, List.of(new int[] {queuePlace}));
+        stateSpace.generate();
+        check("symbolic tangible markings", stateSpace.getTangibleStateCount().longValue(), CAPACITY + 1);
+        // Every arrival passes through a vanishing marking
+        check("symbolic markings", stateSpace.getStateCount().longValue(), 2 * CAPACITY + 1);
+
+        var expected = steadyState(CAPACITY);
+        var expectedTokens = 0.0;
+        for(int k = 0; k <= CAPACITY; k++)
+            expectedTokens += k * expected[k];
+        for(var method : SolverOptions.SteadyStateMethod.values()) {
+            var options = createOptions();
+            options.setSteadyStateMethod(method);
+            var solution = new CtmcSolver(graph, options).solveSteadyState();
+            var name = String.format("steady state %s", method.getOptionValue());
+            check(name, solution.isConverged());
+            check(name + " probabilities", byTokens(graph, queuePlace, solution.getProbabilities()), expected);
+            var measures = new CtmcMeasures(graph, solution);
+            check(name + " average tokens", measures.getPlaceAverageTokens(queuePlace), expectedTokens);
+            check(name + " throughput", measures.getTransitionThroughput(serviceTransition), SERVICE_RATE * (1.0 - expected[0]));
+        }
+
+        var twoState = compileQueue(1);
+        if(twoState == null)
+            return false;
+        var twoStateGraph = generate(twoState);
+        if(twoStateGraph == null)
+            return false;
+        var twoStateQueue = twoState.getPlaceIndex("queue");
+        for(var method : SolverOptions.TransientMethod.values()) {
+            var options = createOptions();
+            options.setTransientMethod(method);
+            options.setSteadyStateDetection(false);
+            var solutions = new CtmcSolver(twoStateGraph, options).solveTransient(TIMES);
+            for(var solution : solutions) {
+                var name = String.format("transient %s at %s", method.getOptionValue(), Double.toString(solution.getTime()));
+                var probabilities = byTokens(twoStateGraph, twoStateQueue, solution.getProbabilities());
+                check(name, probabilities[1], transientBusy(solution.getTime()));
+                var sojourn = byTokens(twoStateGraph, twoStateQueue, solution.getCumulative());
+                check(name + " cumulative", sojourn[1], cumulativeBusy(solution.getTime()));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Builds the queue: free --arrival--> arrived --enqueue (immediate)--> queue --service--> free
+     *
+     * @param capacity Number of the tokens in the free place.
+     * @return The compiled net or null if it could not be compiled.
+     */
+    private static CompiledNet compileQueue(int capacity) {
+        var petriNet = new PetriNet();
+        var free = new StandardPlace(1, "free");
+        free.setNumberOfTokens(capacity);
+        var arrived = new StandardPlace(2, "arrived");
+        var queue = new StandardPlace(3, "queue");
+        petriNet.addPlace(free);
+        petriNet.addPlace(arrived);
+        petriNet.addPlace(queue);
+
+        var arrival = new TimedTransition(1, "arrival", 0, null, new ExponentialTransitionDistribution(ARRIVAL_RATE));
+        var enqueue = new ImmediateTransition(2, "enqueue", 1, null, new ConstantTransitionProbability(1.0));
+        var service = new TimedTransition(3, "service", 0, null, new ExponentialTransitionDistribution(SERVICE_RATE));
+        petriNet.addTransition(arrival);
+        petriNet.addTransition(enqueue);
+        petriNet.addTransition(service);
+
+        petriNet.addArc(new StandardArc(1, ArcDirection.Input, free, arrival));
+        petriNet.addArc(new StandardArc(2, ArcDirection.Output, arrived, arrival));
+        petriNet.addArc(new StandardArc(3, ArcDirection.Input, arrived, enqueue));
+        petriNet.addArc(new StandardArc(4, ArcDirection.Output, queue, enqueue));
+        petriNet.addArc(new StandardArc(5, ArcDirection.Input, queue, service));
+        petriNet.addArc(new StandardArc(6, ArcDirection.Output, free, service));
+        return CompiledNet.compile(petriNet);
+    }
+
+    private static ReachabilityGraph generate(CompiledNet net) {
+        var graph = new ReachabilityGraphGenerator(net).generate();
+        if(graph == null || !graph.isComplete()) {
+            System.err.println("Self-check error: the reachability graph of the queue could not be generated");
+            return null;
+        }
+        return graph;
+    }
+
+    private static int findTransition(CompiledNet net, String name) {
+        for(int t = 0; t < net.getTransitionCount(); t++) {
+            if(net.getTransitionName(t).equals(name))
+                return t;
+        }
+        return -1;
+    }
+
+    private SolverOptions createOptions() {
+        var options = new SolverOptions();
+        options.setPrecision(tolerance * 1e-3);
+        options.setIterations(100000);
+        return options;
+    }
+
+    /**
+     *
+     * @return Values of the states summed by the number of tokens in the place.
+     */
+    private static double[] byTokens(ReachabilityGraph graph, int place, double[] values) {
+        var result = new double[graph.getStateCount() + 1];
+        for(int s = 0; s < graph.getStateCount(); s++)
+            result[graph.getMarking(s)[place]] += values[s];
+        return result;
+    }
+
+    /**
+     * pi_k = rho^k * (1 - rho) / (1 - rho^(K + 1))
+     */
+    private static double[] steadyState(int capacity) {
+        var rho = ARRIVAL_RATE / SERVICE_RATE;
+        var result = new double[capacity + 1];
+        for(int k = 0; k <= capacity; k++)
+            result[k] = Math.pow(rho, k) * (1.0 - rho) / (1.0 - Math.pow(rho, capacity + 1));
+        return result;
+    }
+
+    /**
+     * P(busy at t) = lambda / (lambda + mu) * (1 - e^(-(lambda + mu) t)) starting empty.
+     */
+    private static double transientBusy(double time) {
+        var sum = ARRIVAL_RATE + SERVICE_RATE;
+        return ARRIVAL_RATE / sum * (1.0 - Math.exp(-sum * time));
+    }
+
+    /**
+     * Integral of the busy probability over [0, t].
+     */
+    private static double cumulativeBusy(double time) {
+        var sum = ARRIVAL_RATE + SERVICE_RATE;
+        return ARRIVAL_RATE / sum * (time - (1.0 - Math.exp(-sum * time)) / sum);
+    }
+
+    private void check(String name, boolean value) {
+        if(!value)
+            failures.add(String.format("%s: not converged", name));
+    }
+
+    private void check(String name, long actual, long expected) {
+        System.out.println(String.format("  %-44s %14d %14d", name, actual, expected));
+        if(actual != expected)
+            failures.add(String.format("%s: %d, expected %d", name, actual, expected));
+    }
+
+    private void check(String name, double actual, double expected) {
+        var error = Math.abs(actual - expected);
+        System.out.println(String.format("  %-44s %14.8e %14.8e", name, actual, expected));
+        if(!(error <= tolerance * Math.max(1.0, Math.abs(expected))))
+            failures.add(String.format("%s: %s, expected %s", name, Double.toString(actual), Double.toString(expected)));
+    }
+
+    private void check(String name, double[] actual, double[] expected) {
+        var maxError = 0.0;
+        for(int k = 0; k < expected.length; k++)
+            maxError = Math.max(maxError, Math.abs(actual[k] - expected[k]));
+        System.out.println(String.format("  %-44s %14.8e", name + " max. error", maxError));
+        if(!(maxError <= tolerance))
+            failures.add(String.format("%s: max. error %s", name, Double.toString(maxError)));
+    }
+}
@@ -0,0 +1,146 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ *  Sparse matrix of doubles in the compressed sparse row layout. Only primitive
+ * arrays are used, the products with vectors are computed in parallel by blocks of rows.
+ *
+ */
+public class SparseMatrix {
+    private static final int PARALLEL_BLOCK = 4096;
+
+    private final int rows;
+    private final int columns;
+    private final int[] rowStart;
+    private final int[] columnIndices;
+    private final double[] values;
+
+    public SparseMatrix(int rows, int columns, int[] rowStart, int[] columnIndices, double[] values) {
+        this.rows = rows;
+        this.columns = columns;
+        this.rowStart = rowStart;
+        this.columnIndices = columnIndices;
+        this.values = values;
+    }
+
+    /**
+     * Creates the matrix of the transition rates between different tangible states,
+     * the self loops are left out because they have no effect on the CTMC.
+     *
+     * @param graph Tangible reachability graph.
+     * @return Off-diagonal rate matrix R (the generator is Q = R - diag(rowSums(R))).
+     */
+    public static SparseMatrix fromReachabilityGraph(ReachabilityGraph graph) {
+        var n = graph.getStateCount();
+        var rowStart = new int[n + 1];
+        int count = 0;
+        for(int s = 0; s < n; s++) {
+            for(int e = graph.getRowStart(s); e < graph.getRowEnd(s); e++) {
+                if(graph.getTarget(e) != s)
+                    count++;
+            }
+            rowStart[s + 1] = count;
+        }
+        var columnIndices = new int[count];
+        var values = new double[count];
+        int position = 0;
+        for(int s = 0; s < n; s++) {
+            for(int e = graph.getRowStart(s); e < graph.getRowEnd(s); e++) {
+                if(graph.getTarget(e) != s) {
+                    columnIndices[position] = graph.getTarget(e);
+                    values[position++] = graph.getRate(e);
+                }
+            }
+        }
+        return new SparseMatrix(n, n, rowStart, columnIndices, values);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getNonZeroCount() {
+        return values.length;
+    }
+
+    public int getRowStart(int row) {
+        return rowStart[row];
+    }
+
+    public int getRowEnd(int row) {
+        return rowStart[row + 1];
+    }
+
+    public int getColumn(int entry) {
+        return columnIndices[entry];
+    }
+
+    public double getValue(int entry) {
+        return values[entry];
+    }
+
+    public double[] getRowSums() {
+        var result = new double[rows];
+        for(int r = 0; r < rows; r++) {
+            double sum = 0.0;
+            for(int e = rowStart[r]; e < rowStart[r + 1]; e++)
+                sum += values[e];
+            result[r] = sum;
+        }
+        return result;
+    }
+
+    public SparseMatrix transpose() {
+        var start = new int[columns + 1];
+        for(var column : columnIndices)
+            start[column + 1]++;
+        for(int c = 0; c < columns; c++)
+            start[c + 1] += start[c];
+        var fill = Arrays.copyOf(start, columns);
+        var indices = new int[values.length];
+        var transposedValues = new double[values.length];
+        for(int r = 0; r < rows; r++) {
+            for(int e = rowStart[r]; e < rowStart[r + 1]; e++) {
+                var position = fill[columnIndices[e]]++;
+                indices[position] = r;
+                transposedValues[position] = values[e];
+            }
+        }
+        return new SparseMatrix(columns, rows, start, indices, transposedValues);
+    }
+
+    /**
+     * Computes result = this * vector, the rows are processed in parallel.
+     *
+     * @param vector Input vector of the length getColumns().
+     * @param result Output vector of the length getRows().
+     * @param pool Pool which executes the blocks of rows, null for a sequential product.
+     */
+    public void multiply(double[] vector, double[] result, ForkJoinPool pool) {
+        var blocks = (rows + PARALLEL_BLOCK - 1) / PARALLEL_BLOCK;
+        if(pool == null || blocks < 2) {
+            multiplyRows(vector, result, 0, rows);
+            return;
+        }
+        pool.submit(() -> IntStream.range(0, blocks).parallel().forEach(block -> {
+            var from = block * PARALLEL_BLOCK;
+            multiplyRows(vector, result, from, Math.min(rows, from + PARALLEL_BLOCK));
+        })).join();
+    }
+
+    private void multiplyRows(double[] vector, double[] result, int from, int to) {
+        for(int r = from; r < to; r++) {
+            double sum = 0.0;
+            for(int e = rowStart[r]; e < rowStart[r + 1]; e++)
+                sum += values[e] * vector[columnIndices[e]];
+            result[r] = sum;
+        }
+    }
+}
@@ -0,0 +1,649 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.function.Predicate;
+
+/**
+ *  Symbolic reachability analysis of a compiled net. Every group of places (e.g. the
+ * places of one segment) forms a single MDD level whose local states are discovered
+ * during the generation. Transitions are events which only touch the levels of their
+ * support, the image is computed between the top and the bottom level of the event
+ * and the nodes above are shared. The reachable set is generated by saturation: the nodes
+ * are saturated bottom-up, a node of the level k is saturated when its children are saturated
+ * and it is closed under all events whose top level is k, the images of the events are
+ * saturated before they are added.
+ * The SPNP priorities are respected: a transition does not fire from markings where
+ * a transition of a higher priority class has concession, halted markings are absorbing.
+ * The top level of an event therefore includes the levels of the places deciding whether
+ * it is blocked, so timed transitions preempted by immediate ones on the higher levels
+ * are saturated only on those levels.
+ *
+ */
+public class SymbolicStateSpace {
+    private static final int DEFAULT_CACHE_BITS = 20;
+    private static final int DEFAULT_NODE_LIMIT = 4000000;
+    private static final int FIRE_CACHE_BITS = 16;
+    private static final int[] NO_ASSIGNMENT = new int[0];
+
+    /* Operations stored in the operation cache of the forest */
+    private static final int OP_SATURATE = MddForest.OP_CLIENT;
+    private static final int OP_FIRE = MddForest.OP_CLIENT + 1;
+
+    private final CompiledNet net;
+    private final MddForest forest;
+    private final int levelCount;
+
+    /* Level 1 is the bottom level, placeLevels[p] is the level of the place p */
+    private final int[][] levelPlaces;
+    private final int[] placeLevels;
+    private final List<List<int[]>> localStates = new ArrayList<>();
+    private final List<Map<LocalState, Integer>> localIndices = new ArrayList<>();
+    private int version = 0;
+
+    private final int[][] eventSupports;
+    private final int[][] enablingSupports;
+    private final int[] eventTops;
+    private final List<List<Integer>> eventsByTop = new ArrayList<>();
+
+    private final int[] marking;
+    private final int[] successor;
+
+    private int reachable = MddForest.EMPTY;
+    private long generationTime = 0;
+
+    /* Sets which are valid for the current version of the local state spaces, -1 if not built */
+    private int cacheVersion = -1;
+    private final int[] allNodes;
+    private final int[] concessionNodes;
+    private final int[] blockedNodes;
+    private int haltedNode = -1;
+
+    /* Direct-mapped cache of the images below the top level of the events,
+       the entries are overwritten on collisions */
+    private final int fireCacheMask = (1 << FIRE_CACHE_BITS) - 1;
+    private final int[] fireCacheTransitions = new int[1 << FIRE_CACHE_BITS];
+    private final int[] fireCacheNodes = new int[1 << FIRE_CACHE_BITS];
+    private final int[][] fireCacheAssignments = new int[1 << FIRE_CACHE_BITS][];
+    private final FireResult[] fireCacheResults = new FireResult[1 << FIRE_CACHE_BITS];
+
+    /**
+     *
+     * @param net Compiled net.
+     * @param placeGroups Groups of place indices ordered from the bottom level, places which
+     *                    are not contained in any group form an additional top level.
+     */
+    public SymbolicStateSpace(CompiledNet net, List<int[]> placeGroups) {
+        this(net, placeGroups, DEFAULT_CACHE_BITS, DEFAULT_NODE_LIMIT);
+    }
+
+    public SymbolicStateSpace(CompiledNet net, List<int[]> placeGroups, int cacheBits, int nodeLimit) {
+        this.net = net;
+        this.forest = new MddForest(cacheBits, nodeLimit);
+        this.marking = new int[net.getPlaceCount()];
+        this.successor = new int[net.getPlaceCount()];
+
+        placeLevels = new int[net.getPlaceCount()];
+        var groups = new ArrayList<int[]>();
+        for(var group : placeGroups) {
+            var unassigned = Arrays.stream(group).filter(p -> placeLevels[p] == 0).distinct().toArray();
+            if(unassigned.length == 0)
+                continue;
+            groups.add(unassigned);
+            for(var place : unassigned)
+                placeLevels[place] = groups.size();
+        }
+        var remaining = new ArrayList<Integer>();
+        for(int p = 0; p < placeLevels.length; p++)
+            if(placeLevels[p] == 0)
+                remaining.add(p);
+        if(!remaining.isEmpty()) {
+            groups.add(remaining.stream().mapToInt(Integer::intValue).toArray());
+            for(var place : remaining)
+                placeLevels[place] = groups.size();
+        }
+
+        levelCount = groups.size();
+        levelPlaces = new int[levelCount + 1][];
+        localStates.add(null);
+        localIndices.add(null);
+        for(int level = 1; level <= levelCount; level++) {
+            levelPlaces[level] = groups.get(level - 1);
+            localStates.add(new ArrayList<>());
+            localIndices.add(new HashMap<>());
+        }
+
+        var transitionCount = net.getTransitionCount();
+        allNodes = new int[levelCount + 1];
+        concessionNodes = new int[transitionCount];
+        blockedNodes = new int[transitionCount];
+        eventSupports = new int[transitionCount][];
+        enablingSupports = new int[transitionCount][];
+        eventTops = new int[transitionCount];
+        for(int level = 0; level <= levelCount; level++)
+            eventsByTop.add(new ArrayList<>());
+        for(int t = 0; t < transitionCount; t++) {
+            var enablingPlaces = new HashSet<Integer>();
+            net.collectEnablingPlaces(t, enablingPlaces);
+            enablingSupports[t] = toLevels(enablingPlaces);
+            var places = new HashSet<Integer>();
+            net.collectReferencedPlaces(t, places);
+            eventSupports[t] = toLevels(places);
+        }
+
+        var haltingPlaces = new HashSet<Integer>();
+        for(var halting : net.getHaltingExpressions())
+            halting.collectPlaces(haltingPlaces);
+        var haltingLevels = toLevels(haltingPlaces);
+        var haltingTop = haltingLevels.length > 0 ? haltingLevels[0] : 0;
+        for(int t = 0; t < transitionCount; t++) {
+            if(eventSupports[t].length == 0)
+                continue;
+            // The blocking markings are decided on the levels of the halting functions
+            // and of the enabling places of the preempting transitions
+            var top = Math.max(eventSupports[t][0], haltingTop);
+            for(int u = 0; u < transitionCount; u++) {
+                if(preempts(u, t) && enablingSupports[u].length > 0)
+                    top = Math.max(top, enablingSupports[u][0]);
+            }
+            eventTops[t] = top;
+            eventsByTop.get(top).add(t);
+        }
+    }
+
+    /**
+     *
+     * @param places Set of place indices.
+     * @return Levels of the places in descending order.
+     */
+    private int[] toLevels(Set<Integer> places) {
+        var levels = new TreeSet<Integer>();
+        places.forEach(p -> levels.add(placeLevels[p]));
+        return levels.descendingSet().stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public int getLevelCount() {
+        return levelCount;
+    }
+
+    public int getLocalStateCount(int level) {
+        return localStates.get(level).size();
+    }
+
+    public MddForest getForest() {
+        return forest;
+    }
+
+    public long getGenerationTime() {
+        return generationTime;
+    }
+
+    /**
+     * Generates the set of reachable markings (both tangible and vanishing).
+     *
+     * @return Root node of the reachable set.
+     * @throws CancellationException If the calling thread is interrupted.
+     */
+    public int generate() {
+        var startTime = System.currentTimeMillis();
+        var initial = net.getInitialMarking();
+        var path = new int[levelCount + 1];
+        for(int level = 1; level <= levelCount; level++)
+            path[level] = getLocalIndex(level, initial);
+        int node = MddForest.TERMINAL;
+        for(int level = 1; level <= levelCount; level++) {
+            var nodeChildren = new int[path[level] + 1];
+            nodeChildren[path[level]] = node;
+            node = forest.makeNode(level, nodeChildren);
+        }
+        reachable = saturate(node, levelCount);
+        generationTime = System.currentTimeMillis() - startTime;
+        return reachable;
+    }
+
+    public int getReachable() {
+        return reachable;
+    }
+
+    public BigInteger getStateCount() {
+        return forest.count(reachable);
+    }
+
+    /**
+     *
+     * @return Number of the reachable tangible markings (halted markings are tangible).
+     */
+    public BigInteger getTangibleStateCount() {
+        int vanishing = MddForest.EMPTY;
+        for(int t = 0; t < net.getTransitionCount(); t++) {
+            if(net.isImmediate(t))
+                vanishing = forest.union(vanishing, getConcession(t));
+        }
+        vanishing = forest.difference(vanishing, getHalted());
+        return forest.count(forest.difference(reachable, vanishing));
+    }
+
+    /**
+     * Counts the reachable markings which satisfy a condition.
+     *
+     * @param condition C expression over the places, e.g. mark("P1") && !mark("P2").
+     * @return Number of the markings or null if the condition could not be parsed.
+     */
+    public BigInteger countStates(String condition) {
+        var expression = new ExpressionParser(net.getPlaceIndices()).parseExpression(condition);
+        if(expression == null)
+            return null;
+        var places = new HashSet<Integer>();
+        expression.collectPlaces(places);
+        var function = expression.compile();
+        var conditionNode = buildPredicate(toLevels(places), m -> CsplExpression.isTrue(function.evaluate(m)));
+        return forest.count(forest.intersect(reachable, conditionNode));
+    }
+
+    /**
+     *
+     * @param condition C expression over the places.
+     * @return True if a reachable marking satisfies the condition.
+     */
+    public boolean isReachable(String condition) {
+        var count = countStates(condition);
+        return count != null && count.signum() > 0;
+    }
+
+    private int getLocalIndex(int level, int[] fullMarking) {
+        var places = levelPlaces[level];
+        var tokens = new int[places.length];
+        for(int i = 0; i < places.length; i++)
+            tokens[i] = fullMarking[places[i]];
+        var key = new LocalState(tokens);
+        var index = localIndices.get(level).get(key);
+        if(index == null) {
+            index = localStates.get(level).size();
+            localStates.get(level).add(tokens);
+            localIndices.get(level).put(key, index);
+            version++;
+        }
+        return index;
+    }
+
+    private void setLocalState(int level, int index, int[] fullMarking) {
+        var places = levelPlaces[level];
+        var tokens = localStates.get(level).get(index);
+        for(int i = 0; i < places.length; i++)
+            fullMarking[places[i]] = tokens[i];
+    }
+
+    private void validateCaches() {
+        if(cacheVersion == version)
+            return;
+        Arrays.fill(allNodes, -1);
+        Arrays.fill(concessionNodes, -1);
+        Arrays.fill(blockedNodes, -1);
+        haltedNode = -1;
+        cacheVersion = version;
+    }
+
+    /**
+     *
+     * @param level Level.
+     * @return Node of all the combinations of the currently known local states from the level down.
+     */
+    private int getAll(int level) {
+        if(level == 0)
+            return MddForest.TERMINAL;
+        validateCaches();
+        if(allNodes[level] >= 0)
+            return allNodes[level];
+        var child = getAll(level - 1);
+        var nodeChildren = new int[getLocalStateCount(level)];
+        Arrays.fill(nodeChildren, child);
+        var result = forest.makeNode(level, nodeChildren);
+        allNodes[level] = result;
+        return result;
+    }
+
+    /**
+     * Builds the set of markings (over the currently known local states) satisfying a predicate.
+     *
+     * @param support Levels of the places referenced by the predicate, in descending order.
+     * @param predicate Predicate over the marking.
+     * @return Root node of the set.
+     */
+    private int buildPredicate(int[] support, Predicate<int[]> predicate) {
+        Arrays.fill(marking, 0);
+        return buildPredicate(levelCount, support, 0, predicate);
+    }
+
+    private int buildPredicate(int level, int[] support, int supportIndex, Predicate<int[]> predicate) {
+        if(supportIndex == support.length)
+            return predicate.test(marking) ? getAll(level) : MddForest.EMPTY;
+
+        var count = getLocalStateCount(level);
+        var nodeChildren = new int[count];
+        if(support[supportIndex] == level) {
+            for(int i = 0; i < count; i++) {
+                setLocalState(level, i, marking);
+                nodeChildren[i] = buildPredicate(level - 1, support, supportIndex + 1, predicate);
+            }
+            for(var place : levelPlaces[level])
+                marking[place] = 0;
+        }
+        else {
+            var child = buildPredicate(level - 1, support, supportIndex, predicate);
+            Arrays.fill(nodeChildren, child);
+        }
+        return forest.makeNode(level, nodeChildren);
+    }
+
+    private int getConcession(int transition) {
+        validateCaches();
+        if(concessionNodes[transition] >= 0)
+            return concessionNodes[transition];
+        var result = buildPredicate(enablingSupports[transition],
+                                    m -> net.hasConcession(transition, m) && net.getRate(transition, m) > 0.0);
+        concessionNodes[transition] = result;
+        return result;
+    }
+
+    private int getHalted() {
+        validateCaches();
+        if(haltedNode >= 0)
+            return haltedNode;
+        var places = new HashSet<Integer>();
+        for(var halting : net.getHaltingExpressions())
+            halting.collectPlaces(places);
+        haltedNode = buildPredicate(toLevels(places), net::isHalted);
+        return haltedNode;
+    }
+
+    /**
+     *
+     * @param u Index of a transition.
+     * @param transition Index of a transition.
+     * @return True if the concession of u prevents the transition from firing.
+     */
+    private boolean preempts(int u, int transition) {
+        var isImmediate = net.isImmediate(transition);
+        var priority = net.getPriority(transition);
+        if(net.isImmediate(u))
+            return !isImmediate || net.getPriority(u) > priority;
+        return !isImmediate && net.getPriority(u) > priority;
+    }
+
+    /**
+     *
+     * @param transition Index of the transition.
+     * @return Markings from which the transition can not fire because of a halting
+     *         function or a transition with a higher priority.
+     */
+    private int getBlocked(int transition) {
+        validateCaches();
+        if(blockedNodes[transition] >= 0)
+            return blockedNodes[transition];
+
+        var result = getHalted();
+        for(int u = 0; u < net.getTransitionCount(); u++) {
+            if(preempts(u, transition))
+                result = forest.union(result, getConcession(u));
+        }
+        blockedNodes[transition] = result;
+        return result;
+    }
+
+    /**
+     * The blocking markings do not depend on the levels above the top level of the event,
+     * so all nodes of the blocked set above the top level have equal children.
+     *
+     * @param transition Index of the transition.
+     * @return Node of the top level of the event with the local states from which the transition can not fire.
+     */
+    private int getBlockedBelowTop(int transition) {
+        var node = getBlocked(transition);
+        for(int level = levelCount; level > eventTops[transition]; level--)
+            node = forest.getChild(node, 0);
+        return node;
+    }
+
+    /**
+     * Saturates a node: the result contains the markings reachable from the markings
+     * of the node by the events whose top level is at most the level of the node.
+     *
+     * @param node Node at the given level.
+     * @param level Level of the node.
+     * @return The saturated node.
+     */
+    private int saturate(int node, int level) {
+        if(level == 0 || node == MddForest.EMPTY)
+            return node;
+        var cached = forest.lookup(OP_SATURATE, node, 0);
+        if(cached >= 0)
+            return cached;
+        if(Thread.currentThread().isInterrupted())
+            throw new CancellationException();
+
+        var count = forest.getChildCount(node);
+        var nodeChildren = new int[count];
+        for(int i = 0; i < count; i++)
+            nodeChildren[i] = saturate(forest.getChild(node, i), level - 1);
+        // The union of saturated nodes is saturated, so the children stay saturated
+        var result = forest.makeNode(level, nodeChildren);
+        int before;
+        do {
+            before = result;
+            for(var transition : eventsByTop.get(level)) {
+                var source = forest.difference(result, getBlockedBelowTop(transition));
+                result = forest.union(result, fireSaturated(transition, source, level));
+            }
+            if(level == levelCount)
+                collectGarbageIfNeeded(result);
+        } while(result != before);
+
+        // The nodes of the top level can be reclaimed during the saturation
+        if(level < levelCount) {
+            forest.store(OP_SATURATE, node, 0, result);
+            forest.store(OP_SATURATE, result, 0, result);
+        }
+        return result;
+    }
+
+    /**
+     *
+     * @param transition Index of the transition.
+     * @param node Node at the top level of the event.
+     * @param level Top level of the event.
+     * @return Image of the node with saturated children.
+     */
+    private int fireSaturated(int transition, int node, int level) {
+        if(node == MddForest.EMPTY)
+            return MddForest.EMPTY;
+        var cached = forest.lookup(OP_FIRE, transition, node);
+        if(cached >= 0)
+            return cached;
+
+        var fired = fire(transition, node, level, NO_ASSIGNMENT, 0);
+        var image = fired.size == 0 ? MddForest.EMPTY : fired.nodes[0];
+        var count = forest.getChildCount(image);
+        var nodeChildren = new int[count];
+        for(int i = 0; i < count; i++)
+            nodeChildren[i] = saturate(forest.getChild(image, i), level - 1);
+        return forest.store(OP_FIRE, transition, node, forest.makeNode(level, nodeChildren));
+    }
+
+    /**
+     * Computes the image of an event below its top level.
+     *
+     * @param transition Index of the transition.
+     * @param node Node at the given level.
+     * @param level Current level.
+     * @param assignment Original local states of the support levels above the current level.
+     * @param supportIndex Index of the next support level.
+     * @return Image nodes by the new local states of the support levels above the current level.
+     */
+    private FireResult fire(int transition, int node, int level, int[] assignment, int supportIndex) {
+        var support = eventSupports[transition];
+        var slot = fireCacheSlot(transition, node, assignment);
+        var cached = fireCacheResults[slot];
+        if(cached != null && fireCacheTransitions[slot] == transition && fireCacheNodes[slot] == node
+                && Arrays.equals(fireCacheAssignments[slot], assignment))
+            return cached;
+
+        var builders = new HashMap<LocalState, int[]>();
+        var isSupport = support[supportIndex] == level;
+        var isBottom = isSupport && supportIndex == support.length - 1;
+        var count = forest.getChildCount(node);
+
+        for(int i = 0; i < count; i++) {
+            var child = forest.getChild(node, i);
+            if(child == MddForest.EMPTY)
+                continue;
+
+            if(isBottom) {
+                var oldLocals = Arrays.copyOf(assignment, assignment.length + 1);
+                oldLocals[assignment.length] = i;
+                Arrays.fill(marking, 0);
+                for(int s = 0; s < support.length; s++)
+                    setLocalState(support[s], oldLocals[s], marking);
+                if(!net.hasConcession(transition, marking) || net.getRate(transition, marking) <= 0.0)
+                    continue;
+                net.fire(transition, marking, successor);
+
+                var newLocals = new int[support.length];
+                for(int s = 0; s < support.length; s++)
+                    newLocals[s] = getLocalIndex(support[s], successor);
+                var above = new LocalState(Arrays.copyOf(newLocals, support.length - 1));
+                addChild(builders, above, newLocals[support.length - 1], child);
+            }
+            else if(isSupport) {
+                var nextAssignment = Arrays.copyOf(assignment, assignment.length + 1);
+                nextAssignment[assignment.length] = i;
+                var below = fire(transition, child, level - 1, nextAssignment, supportIndex + 1);
+                for(int r = 0; r < below.size; r++) {
+                    var tokens = below.getLocals(r);
+                    var above = new LocalState(Arrays.copyOf(tokens, tokens.length - 1));
+                    addChild(builders, above, tokens[tokens.length - 1], below.nodes[r]);
+                }
+            }
+            else {
+                var below = fire(transition, child, level - 1, assignment, supportIndex);
+                for(int r = 0; r < below.size; r++)
+                    addChild(builders, new LocalState(below.getLocals(r)), i, below.nodes[r]);
+            }
+        }
+
+        var result = new FireResult(supportIndex, builders.size());
+        builders.forEach((key, nodeChildren) -> {
+            var resultNode = forest.makeNode(level, nodeChildren);
+            if(resultNode != MddForest.EMPTY)
+                result.add(key.tokens, resultNode);
+        });
+        fireCacheTransitions[slot] = transition;
+        fireCacheNodes[slot] = node;
+        fireCacheAssignments[slot] = assignment;
+        fireCacheResults[slot] = result;
+        return result;
+    }
+
+    private int fireCacheSlot(int transition, int node, int[] assignment) {
+        var h = (transition * 0x9E3779B1) ^ (node * 0x85EBCA77) ^ (Arrays.hashCode(assignment) * 0xC2B2AE3D);
+        return (h ^ (h >>> 15)) & fireCacheMask;
+    }
+
+    private void addChild(Map<LocalState, int[]> builders, LocalState key, int index, int child) {
+        var nodeChildren = builders.get(key);
+        if(nodeChildren == null || nodeChildren.length <= index) {
+            var grown = new int[Math.max(index + 1, nodeChildren == null ? 0 : nodeChildren.length)];
+            if(nodeChildren != null)
+                System.arraycopy(nodeChildren, 0, grown, 0, nodeChildren.length);
+            nodeChildren = grown;
+            builders.put(key, nodeChildren);
+        }
+        nodeChildren[index] = forest.union(nodeChildren[index], child);
+    }
+
+    /**
+     * Reclaims the nodes which are not reachable from the root when the node limit is exceeded,
+     * called only by the saturation of the top level, when no other nodes are in use.
+     *
+     * @param root Currently generated set.
+     */
+    private void collectGarbageIfNeeded(int root) {
+        if(!forest.isCollectionNeeded())
+            return;
+        Arrays.fill(fireCacheResults, null);
+        Arrays.fill(fireCacheAssignments, null);
+        cacheVersion = -1;
+        validateCaches();
+        forest.collectGarbage(root);
+    }
+
+    @Override
+    public String toString() {
+        var result = new StringBuilder();
+        result.append(String.format("Symbolic state space:%n"));
+        result.append(String.format("  levels: %d%n", levelCount));
+        for(int level = levelCount; level >= 1; level--)
+            result.append(String.format("  level %d: %d place(s), %d local state(s)%n", level, levelPlaces[level].length, getLocalStateCount(level)));
+        result.append(String.format("  reachable markings: %s%n", getStateCount()));
+        result.append(String.format("  tangible markings: %s%n", getTangibleStateCount()));
+        result.append(String.format("  MDD nodes: %d%n", forest.getNodeCount()));
+        result.append(String.format("  generation time: %d ms%n", generationTime));
+        return result.toString();
+    }
+
+    /**
+     *  Tuple of integers used as a hash key.
+     */
+    private static class LocalState {
+        private final int[] tokens;
+        private final int hash;
+
+        private LocalState(int[] tokens) {
+            this.tokens = tokens;
+            this.hash = Arrays.hashCode(tokens);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof LocalState && Arrays.equals(tokens, ((LocalState) other).tokens);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     *  Image nodes of an event below its top level, each with the new local states
+     * of the support levels above, stored one after another.
+     */
+    private static class FireResult {
+        private final int width;
+        private final int[] locals;
+        private final int[] nodes;
+        private int size = 0;
+
+        private FireResult(int width, int capacity) {
+            this.width = width;
+            this.locals = new int[width * capacity];
+            this.nodes = new int[capacity];
+        }
+
+        private void add(int[] newLocals, int node) {
+            System.arraycopy(newLocals, 0, locals, size * width, width);
+            nodes[size++] = node;
+        }
+
+        private int[] getLocals(int index) {
+            return Arrays.copyOfRange(locals, index * width, (index + 1) * width);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.Predicate;
+
+/**
+ *  Interactive token game on a compiled net. The transitions are enabled according
+ * to the SPNP semantics (the immediate transitions and the priorities pre-empt the timed
+ * transitions), random steps choose the transition by its weight or rate and sample
+ * the sojourn time of the tangible markings.
+ *
+ */
+public class TokenGame {
+    private static final int HISTORY_LIMIT = 10000;
+
+    private final CompiledNet net;
+    private final ArrayDeque<Step> history = new ArrayDeque<>();
+    private final int[] enabled;
+    private int enabledCount = 0;
+    private int[] marking;
+    private int[] next;
+    private double time = 0.0;
+    private long steps = 0;
+
+    public TokenGame(CompiledNet net) {
+        this.net = net;
+        this.enabled = new int[net.getTransitionCount()];
+        this.next = new int[net.getPlaceCount()];
+        reset();
+    }
+
+    public CompiledNet getNet() {
+        return net;
+    }
+
+    public final void reset() {
+        marking = net.getInitialMarking();
+        history.clear();
+        time = 0.0;
+        steps = 0;
+        updateEnabled();
+    }
+
+    public int[] getMarking() {
+        return marking;
+    }
+
+    /**
+     *
+     * @return Time elapsed in the tangible markings during the random steps.
+     */
+    public double getTime() {
+        return time;
+    }
+
+    public long getSteps() {
+        return steps;
+    }
+
+    /**
+     *
+     * @return Transitions which may fire in the current marking.
+     */
+    public int[] getEnabledTransitions() {
+        return Arrays.copyOf(enabled, enabledCount);
+    }
+
+    public boolean isEnabled(int transition) {
+        for(int i = 0; i < enabledCount; i++) {
+            if(enabled[i] == transition)
+                return true;
+        }
+        return false;
+    }
+
+    public boolean isVanishing() {
+        return enabledCount > 0 && net.isImmediate(enabled[0]);
+    }
+
+    public boolean isHalted() {
+        return net.isHalted(marking);
+    }
+
+    /**
+     *
+     * @return True if no transition can fire (the marking is dead or halted).
+     */
+    public boolean isAbsorbing() {
+        return enabledCount == 0 || isHalted();
+    }
+
+    /**
+     * Fires an enabled transition without advancing the time.
+     *
+     * @param transition Index of the transition.
+     * @return False if the transition is not enabled.
+     */
+    public boolean fire(int transition) {
+        if(isHalted() || !isEnabled(transition))
+            return false;
+        fire(transition, 0.0);
+        return true;
+    }
+
+    /**
+     * Fires a randomly chosen enabled transition, the probabilities are proportional
+     * to the weights of the immediate transitions or the rates of the timed transitions.
+     *
+     * @param random Source of randomness.
+     * @return Index of the fired transition or -1 if the marking is absorbing.
+     */
+    public int randomStep(SplittableRandom random) {
+        if(isAbsorbing())
+            return -1;
+        double total = 0.0;
+        var weights = new double[enabledCount];
+        for(int i = 0; i < enabledCount; i++) {
+            var weight = net.getRate(enabled[i], marking);
+            weights[i] = weight > 0.0 && Double.isFinite(weight) ? weight : 0.0;
+            total += weights[i];
+        }
+        if(total <= 0.0)
+            return -1;
+
+        var point = random.nextDouble() * total;
+        int chosen = enabledCount - 1;
+        for(int i = 0; i < enabledCount; i++) {
+            point -= weights[i];
+            if(point < 0.0 && weights[i] > 0.0) {
+                chosen = i;
+                break;
+            }
+        }
+        var sojourn = isVanishing() ? 0.0 : -Math.log(1.0 - random.nextDouble()) / total;
+        var transition = enabled[chosen];
+        fire(transition, sojourn);
+        return transition;
+    }
+
+    /**
+     * Performs random steps until the condition holds, the marking is absorbing
+     * or the step limit is reached.
+     *
+     * @param random Source of randomness.
+     * @param maxSteps Maximal number of steps.
+     * @param condition Condition on the marking, null to perform all steps.
+     * @return Number of performed steps.
+     */
+    public int run(SplittableRandom random, int maxSteps, Predicate<int[]> condition) {
+        int performed = 0;
+        while(performed < maxSteps) {
+            if(condition != null && condition.test(marking))
+                break;
+            if(randomStep(random) < 0)
+                break;
+            performed++;
+        }
+        return performed;
+    }
+
+    /**
+     * Returns to the marking before the last step.
+     *
+     * @return False if there is no step to undo.
+     */
+    public boolean undo() {
+        if(history.isEmpty())
+            return false;
+        var step = history.pop();
+        marking = step.marking;
+        time -= step.sojourn;
+        steps--;
+        updateEnabled();
+        return true;
+    }
+
+    private void fire(int transition, double sojourn) {
+        net.fire(transition, marking, next);
+        history.push(new Step(marking, sojourn));
+        if(history.size() > HISTORY_LIMIT)
+            history.removeLast();
+        marking = next;
+        next = new int[marking.length];
+        time += sojourn;
+        steps++;
+        updateEnabled();
+    }
+
+    private void updateEnabled() {
+        enabledCount = net.getEnabledTransitions(marking, enabled);
+    }
+
+    /**
+     *  Marking before a step and the time spent in it.
+     *
+     */
+    private static class Step {
+        private final int[] marking;
+        private final double sojourn;
+
+        Step(int[] marking, double sojourn) {
+            this.marking = marking;
+            this.sojourn = sojourn;
+        }
+    }
+}
@@ -1,9 +1,8 @@
 package cz.muni.fi.umlspnp.common;
 
 import com.google.gson.annotations.Expose;
-import javafx.collections.FXCollections;
-import javafx.collections.MapChangeListener;
-import javafx.collections.ObservableMap;
+import cz.muni.fi.umlspnp.common.observable.MapChangeListener;
+import cz.muni.fi.umlspnp.common.observable.ObservableMap;
 
 /**
  * Container for a system of generally defined nodes and connections, each with
@@ -14,9 +13,9 @@ import javafx.collections.ObservableMap;
  */
 public class ElementContainer<T1, T2> {
     @Expose(serialize = true)
-    private final ObservableMap<Number, T1> allNodes = FXCollections.observableHashMap();
+    private final ObservableMap<Number, T1> allNodes = new ObservableMap<>();
     @Expose(serialize = true)
-    private final ObservableMap<Number, T2> allConnections = FXCollections.observableHashMap();
+    private final ObservableMap<Number, T2> allConnections = new ObservableMap<>();
     
     public ElementContainer(){
     }
@@ -47,19 +46,19 @@ public class ElementContainer<T1, T2> {
         return removed != null;
     }
     
-    public void addAllNodesChangeListener(MapChangeListener listener){
+    public void addAllNodesChangeListener(MapChangeListener<? super Number, ? super T1> listener){
         allNodes.addListener(listener);
     }
     
-    public void removeAllNodesChangeListener(MapChangeListener listener){
+    public void removeAllNodesChangeListener(MapChangeListener<? super Number, ? super T1> listener){
         allNodes.removeListener(listener);
     }
     
-    public void addAllConnectionsChangeListener(MapChangeListener listener){
+    public void addAllConnectionsChangeListener(MapChangeListener<? super Number, ? super T2> listener){
         allConnections.addListener(listener);
     }
     
-    public void removeAllConnectionsChangeListener(MapChangeListener listener){
+    public void removeAllConnectionsChangeListener(MapChangeListener<? super Number, ? super T2> listener){
         allConnections.removeListener(listener);
     }
     
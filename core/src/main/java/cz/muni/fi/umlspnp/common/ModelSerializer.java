@@ -0,0 +1,667 @@
+package cz.muni.fi.umlspnp.common;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSerializationContext;
+import com.google.gson.JsonSerializer;
+import cz.muni.fi.umlspnp.models.AnalysisPlan;
+import cz.muni.fi.umlspnp.models.BasicNode;
+import cz.muni.fi.umlspnp.models.ConnectionFailure;
+import cz.muni.fi.umlspnp.models.MainModel;
+import cz.muni.fi.umlspnp.models.OperationEntry;
+import cz.muni.fi.umlspnp.models.OperationType;
+import cz.muni.fi.umlspnp.models.ParameterSweep;
+import cz.muni.fi.umlspnp.models.deploymentdiagram.Artifact;
+import cz.muni.fi.umlspnp.models.deploymentdiagram.CommunicationLink;
+import cz.muni.fi.umlspnp.models.deploymentdiagram.DeploymentDiagram;
+import cz.muni.fi.umlspnp.models.deploymentdiagram.DeploymentTarget;
+import cz.muni.fi.umlspnp.models.deploymentdiagram.State;
+import cz.muni.fi.umlspnp.models.deploymentdiagram.StateOperation;
+import cz.muni.fi.umlspnp.models.deploymentdiagram.StateTransition;
+import cz.muni.fi.umlspnp.models.sequencediagram.Activation;
+import cz.muni.fi.umlspnp.models.sequencediagram.Lifeline;
+import cz.muni.fi.umlspnp.models.sequencediagram.Loop;
+import cz.muni.fi.umlspnp.models.sequencediagram.Message;
+import cz.muni.fi.umlspnp.models.sequencediagram.MessageFailureType;
+import cz.muni.fi.umlspnp.models.sequencediagram.SequenceDiagram;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Serializes and deserializes the UML models to/from their JSON representation
+ * without any controller or view, the editor's Serializer adds the views to it.
+ * It can be shared by several threads.
+ *
+ */
+public class ModelSerializer {
+    private final Gson origGson;
+    private final Gson gson;
+
+    public ModelSerializer() {
+        origGson = createOrigGson();
+        gson = registerSerializers(createBuilder()).create();
+    }
+
+    private static GsonBuilder createBuilder() {
+        // The readers expect the null members (e.g. parentId of a top level node)
+        return new GsonBuilder()
+            .serializeNulls()
+            .setPrettyPrinting()
+            .excludeFieldsWithoutExposeAnnotation();
+    }
+
+    private static Gson createOrigGson() {
+        return registerPropertyAdapters(createBuilder()).create();
+    }
+
+    /**
+     * Registers the adapters of the model properties (see PropertyTypeAdapterFactory).
+     *
+     * @param builder Builder of a Gson which reads or writes the models.
+     * @return The builder.
+     */
+    public static GsonBuilder registerPropertyAdapters(GsonBuilder builder) {
+        return builder.registerTypeAdapterFactory(new PropertyTypeAdapterFactory());
+    }
+
+    /**
+     * Registers the adapters of the model properties and the serializers of the model
+     * elements which reference other elements.
+     *
+     * @param builder Builder of the project Gson.
+     * @return The builder.
+     */
+    public GsonBuilder registerSerializers(GsonBuilder builder) {
+        var artifactSerializer = createArtifactSerializer();
+        return registerPropertyAdapters(builder)
+                .registerTypeAdapter(Artifact.class, artifactSerializer)
+                .registerTypeAdapter(DeploymentTarget.class, artifactSerializer)
+                .registerTypeAdapter(CommunicationLink.class, createCommunicationLinkSerializer())
+                .registerTypeAdapter(Lifeline.class, createLifelineSerializer())
+                .registerTypeAdapter(Loop.class, createLoopSerializer())
+                .registerTypeAdapter(Message.class, createMessageSerializer());
+    }
+
+    /**
+     *
+     * @param model The model.
+     * @return Project document with the model and no views, readModel reads it.
+     */
+    public JsonObject toJson(MainModel model) {
+        var json = new JsonObject();
+        json.add("model", gson.toJsonTree(model, MainModel.class));
+        return json;
+    }
+
+    /**
+     * Reads an element without the references to the other elements.
+     *
+     * @param <T> Type of the element.
+     * @param json The serialized element.
+     * @param type Class of the element.
+     * @return The element.
+     */
+    public <T> T fromJson(JsonElement json, Class<T> type) {
+        return origGson.fromJson(json, type);
+    }
+
+    /**
+     * Recreates the elements of a deployment diagram read by fromJson.
+     *
+     * @param je The serialized deployment diagram.
+     * @param dd The deployment diagram read by fromJson.
+     */
+    public void readDeploymentDiagramElements(JsonElement je, DeploymentDiagram dd) {
+        recreateDeploymentDiagram(dd);
+        deserializeDeploymentDiagramElements(je, dd);
+    }
+
+    /**
+     * Recreates the elements of a sequence diagram read by fromJson.
+     *
+     * @param je The serialized sequence diagram.
+     * @param dd The deployment diagram of the project.
+     * @param sd The sequence diagram read by fromJson.
+     */
+    public void readSequenceDiagramElements(JsonElement je, DeploymentDiagram dd, SequenceDiagram sd) {
+        recreateSequenceDiagram(dd, sd);
+        deserializeSequenceDiagramElements(je, dd, sd);
+    }
+
+    /**
+     * Reads the model of a project document without creating any controller or view.
+     * The orders which the editor computes from the views before the transformation are
+     * computed from the saved view positions: the activations of a lifeline are ordered
+     * by their vertical positions, the messages by their saved orders and the leftmost
+     * lifeline is the highest level lifeline. The messages of the loops are read from
+     * the saved message identifiers (projects saved by older versions have none).
+     *
+     * @param project The project document (see toJson and the editor's Serializer).
+     * @return The model ready to be transformed.
+     * @throws JsonParseException If the document is not a project.
+     */
+    public MainModel readModel(JsonObject project) {
+        var modelJson = project.getAsJsonObject("model");
+        if(modelJson == null || !modelJson.has("deploymentDiagram") || !modelJson.has("sequenceDiagram"))
+            throw new JsonParseException("the document is not a UML2SPNP project (no deployment or sequence diagram)");
+        var result = new MainModel();
+
+        var ddJson = modelJson.get("deploymentDiagram");
+        var dd = origGson.fromJson(ddJson, DeploymentDiagram.class);
+        result.setDeploymentDiagram(dd);
+        readDeploymentDiagramElements(ddJson, dd);
+
+        var sdJson = modelJson.get("sequenceDiagram");
+        var sd = origGson.fromJson(sdJson, SequenceDiagram.class);
+        result.setSequenceDiagram(sd);
+        readSequenceDiagramElements(sdJson, dd, sd);
+
+        sdJson.getAsJsonObject().get("allElements").getAsJsonObject()
+              .get("allConnections").getAsJsonObject().entrySet().forEach(entry -> {
+            var m = origGson.fromJson(entry.getValue(), Message.class);
+            var message = sd.getMessage(m.getObjectInfo().getID());
+            if(message != null)
+                message.setOrder(m.getOrder());
+        });
+        sd.getSortedMessages().sort(Comparator.comparing(Message::getOrder));
+
+        var loops = sdJson.getAsJsonObject().get("loops");
+        if(loops != null && loops.isJsonObject()) {
+            loops.getAsJsonObject().entrySet().forEach(entry -> {
+                var loopObj = entry.getValue().getAsJsonObject();
+                var loop = sd.getLoop(origGson.fromJson(loopObj, Loop.class).getObjectInfo().getID());
+                var messageIds = loopObj.get("messageIds");
+                if(messageIds == null) {
+                    System.err.println(String.format("Warning: %s has no saved messages, save the project again in the editor", loop.nameProperty().getValue()));
+                    return;
+                }
+                messageIds.getAsJsonArray().forEach(messageId -> {
+                    var message = sd.getMessage(messageId.getAsInt());
+                    if(message != null)
+                        loop.addMessage(message);
+                });
+            });
+        }
+
+        var activationPositions = new HashMap<Integer, Double>();
+        var lifelinePositions = new HashMap<Integer, Double>();
+        var viewJson = project.getAsJsonObject("view");
+        if(viewJson != null && viewJson.has("sequenceDiagramView")) {
+            var lifelineViews = viewJson.getAsJsonObject("sequenceDiagramView").getAsJsonObject("allElements").getAsJsonObject("allNodes");
+            lifelineViews.entrySet().forEach(entry -> {
+                var lifelineObj = entry.getValue().getAsJsonObject();
+                lifelinePositions.put(lifelineObj.get("objectId").getAsInt(), lifelineObj.get("x").getAsDouble());
+                lifelineObj.getAsJsonArray("ActivationViews").forEach(activation -> {
+                    var activationObj = activation.getAsJsonObject();
+                    activationPositions.put(activationObj.get("objectId").getAsInt(), activationObj.get("y").getAsDouble());
+                });
+            });
+        }
+        Comparator<BasicNode> byId = Comparator.comparingInt(node -> node.getObjectInfo().getID());
+        sd.getLifelines().forEach(lifeline -> {
+            var sortedActivations = new ArrayList<>(lifeline.getActivations());
+            sortedActivations.sort(Comparator.comparing((Activation activation) -> activationPositions.getOrDefault(activation.getObjectInfo().getID(), Double.POSITIVE_INFINITY))
+                                             .thenComparing(byId));
+            lifeline.setSortedActivations(sortedActivations);
+            sortedActivations.forEach(activation -> {
+                var sortedMessages = new ArrayList<>(activation.getMessages());
+                sortedMessages.sort(Comparator.comparing(Message::getOrder));
+                activation.setSortedMessages(sortedMessages);
+            });
+        });
+        sd.getLifelines().stream()
+          .min(Comparator.comparing((Lifeline lifeline) -> lifelinePositions.getOrDefault(lifeline.getObjectInfo().getID(), Double.POSITIVE_INFINITY))
+                         .thenComparing(byId))
+          .ifPresent(lifeline -> sd.setHighestLevelLifeline(lifeline.getObjectInfo().getID()));
+
+        if(modelJson.has("analysisPlan"))
+            result.setAnalysisPlan(origGson.fromJson(modelJson.get("analysisPlan"), AnalysisPlan.class));
+        if(modelJson.has("parameterSweep"))
+            result.setParameterSweep(origGson.fromJson(modelJson.get("parameterSweep"), ParameterSweep.class));
+        return result;
+    }
+    
+    /**
+     * Copies the model into a new model which is not referenced by any view or controller,
+     * so it can be transformed on a background thread while the original is being edited.
+     * Besides the saved state, the orders of the activations and messages computed from
+     * the views before the transformation and the highest level lifeline are copied.
+     *
+     * @param mainModel The copied model.
+     * @return Detached copy of the model with the same object identifiers.
+     */
+    public MainModel createSnapshot(MainModel mainModel) {
+        var result = new MainModel();
+        var sourceDD = mainModel.getDeploymentDiagram();
+        var dd = new DeploymentDiagram();
+        result.setDeploymentDiagram(dd);
+        sourceDD.getOperationTypes().forEach(opType -> dd.addOperationType(new OperationType(opType.getName())));
+        sourceDD.getRedundancyGroups().forEach(rg -> dd.addRedundancyGroup(rg.getGroupID()));
+        sourceDD.getAllLinkTypes().forEach(lt -> dd.createLinkType(lt.getName(), lt.getRate()));
+
+        var tmpDeploymentTargets = new ArrayList<DeploymentTarget>();
+        var tmpArtifacts = new ArrayList<Artifact>();
+        sourceDD.getNodes().forEach(node -> {
+            if(node instanceof DeploymentTarget)
+                tmpDeploymentTargets.add((DeploymentTarget) node);
+            else
+                tmpArtifacts.add(node);
+        });
+        // The parents need to be copied before their inner nodes
+        while(tmpDeploymentTargets.size() > 0) {
+            tmpDeploymentTargets.removeIf(dt -> {
+                var parent = dt.getParent();
+                if(parent != null && dd.getNode(parent.getObjectInfo().getID()) == null)
+                    return false;
+                recreateDeploymentTarget(dd, dt, parent == null ? null : parent.getObjectInfo().getID());
+                return true;
+            });
+        }
+        tmpArtifacts.forEach(artifact -> recreateArtifact(dd, artifact, artifact.getParent().getObjectInfo().getID()));
+        sourceDD.getCommunicationLinks().forEach(cl -> {
+            recreateCommunicationLink(dd, cl, cl.getFirst().getObjectInfo().getID(), cl.getSecond().getObjectInfo().getID());
+        });
+
+        var sourceSD = mainModel.getSequenceDiagram();
+        var sd = new SequenceDiagram();
+        result.setSequenceDiagram(sd);
+        sourceSD.getLifelines().forEach(lifeline -> {
+            recreateLifeline(dd, sd, lifeline, lifeline.getArtifact().getObjectInfo().getID());
+        });
+        sourceSD.getSortedMessages().forEach(m -> {
+            var newMessage = recreateMessage(dd, sd, m, m.getFrom().getObjectInfo().getID(), m.getTo().getObjectInfo().getID());
+            newMessage.setOrder(m.getOrder());
+        });
+        sourceSD.getLoops().forEach(loop -> {
+            var newLoop = new Loop();
+            newLoop.setId(loop.getObjectInfo().getID());
+            sd.addLoop(newLoop);
+            newLoop.setIterations(loop.getIterations());
+            newLoop.setRestartRate(loop.getRestartRate());
+            loop.getMessages().forEach(m -> newLoop.addMessage(sd.getMessage(m.getObjectInfo().getID())));
+        });
+
+        sourceSD.getLifelines().forEach(lifeline -> {
+            var newLifeline = sd.getLifeline(lifeline.getObjectInfo().getID());
+            if(lifeline.getSortedActivations() != null) {
+                var sortedActivations = new ArrayList<Activation>();
+                lifeline.getSortedActivations().forEach(activation -> {
+                    sortedActivations.add(sd.getActivation(activation.getObjectInfo().getID()));
+                });
+                newLifeline.setSortedActivations(sortedActivations);
+            }
+            lifeline.getActivations().forEach(activation -> {
+                if(activation.getSortedMessages() == null)
+                    return;
+                var sortedMessages = new ArrayList<Message>();
+                activation.getSortedMessages().forEach(m -> sortedMessages.add(sd.getMessage(m.getObjectInfo().getID())));
+                sd.getActivation(activation.getObjectInfo().getID()).setSortedMessages(sortedMessages);
+            });
+        });
+        var highestLevelLifeline = sourceSD.getHighestLevelLifeline();
+        if(highestLevelLifeline != null)
+            sd.setHighestLevelLifeline(highestLevelLifeline.getObjectInfo().getID());
+
+        result.setAnalysisPlan(origGson.fromJson(origGson.toJsonTree(mainModel.getAnalysisPlan()), AnalysisPlan.class));
+        result.setParameterSweep(origGson.fromJson(origGson.toJsonTree(mainModel.getParameterSweep()), ParameterSweep.class));
+        return result;
+    }
+    
+    private JsonSerializer<Artifact> createArtifactSerializer() {
+        return new JsonSerializer<Artifact>() {  
+            @Override
+            public JsonElement serialize(Artifact src, Type typeOfSrc, JsonSerializationContext context) {
+                var element = origGson.toJsonTree(src);
+                JsonObject json = element.getAsJsonObject();
+                var parent = src.getParent();
+                if(src instanceof DeploymentTarget)
+                    json.addProperty("type", "DeploymentTarget");
+                else
+                    json.addProperty("type", "Artifact");
+
+                if(parent == null)
+                    json.add("parentId", null);
+                else
+                    json.addProperty("parentId", parent.getObjectInfo().getID());
+                json.addProperty("objectId", src.getObjectInfo().getID());
+                return json;
+            }
+        };
+    }
+            
+    private JsonSerializer<CommunicationLink> createCommunicationLinkSerializer() {
+        return new JsonSerializer<CommunicationLink>() {  
+            @Override
+            public JsonElement serialize(CommunicationLink src, Type typeOfSrc, JsonSerializationContext context) {
+                var element = origGson.toJsonTree(src);
+                JsonObject json = element.getAsJsonObject();
+                var dtFrom = src.getFirst();
+                var dtTo = src.getSecond();
+                json.addProperty("firstDtId", dtFrom.getObjectInfo().getID());
+                json.addProperty("secondDtId", dtTo.getObjectInfo().getID());
+                return json;
+            }
+        };
+    }
+
+    private JsonSerializer<Lifeline> createLifelineSerializer() {
+        return new JsonSerializer<Lifeline>() {  
+            @Override
+            public JsonElement serialize(Lifeline src, Type typeOfSrc, JsonSerializationContext context) {
+                var element = origGson.toJsonTree(src);
+                JsonObject json = element.getAsJsonObject();
+                var artifact = src.getArtifact();
+                json.addProperty("artifactId", artifact.getObjectInfo().getID());
+                return json;
+            }
+        };
+    }
+
+    private JsonSerializer<Loop> createLoopSerializer() {
+        return new JsonSerializer<Loop>() {  
+            @Override
+            public JsonElement serialize(Loop src, Type typeOfSrc, JsonSerializationContext context) {
+                var element = origGson.toJsonTree(src);
+                JsonObject json = element.getAsJsonObject();
+                // The messages of a loop are otherwise only known from the intersections of their views
+                var messageIds = new JsonArray();
+                src.getMessages().forEach(message -> {
+                    messageIds.add(message.getObjectInfo().getID());
+                });
+                json.add("messageIds", messageIds);
+                return json;
+            }
+        };
+    }
+
+    private JsonSerializer<Message> createMessageSerializer() {
+        return new JsonSerializer<Message>() {  
+            @Override
+            public JsonElement serialize(Message src, Type typeOfSrc, JsonSerializationContext context) {
+                var element = origGson.toJsonTree(src);
+                JsonObject json = element.getAsJsonObject();
+                var activationFrom = src.getFrom();
+                var activationTo = src.getTo();
+                json.addProperty("fromActivationId", activationFrom.getObjectInfo().getID());
+                json.addProperty("toActivationId", activationTo.getObjectInfo().getID());
+                return json;
+            }
+        };
+    }
+            
+    private void recreateDeploymentDiagram(DeploymentDiagram dd) {
+        var tmpOpTypes = new HashSet<>(dd.getOperationTypes());
+        tmpOpTypes.forEach(opType -> {
+            dd.removeOperationType(opType);
+            dd.addOperationType(new OperationType(opType.getName()));
+        });
+        
+        var tmpRedundancyGroups = new HashSet<>(dd.getRedundancyGroups());
+        tmpRedundancyGroups.forEach(rg -> {
+            dd.removeRedundancyGroup(rg);
+        });
+        tmpRedundancyGroups.forEach(rg -> {
+            dd.addRedundancyGroup(rg.getGroupID());
+        });
+        
+        var tmpLinkTypes = new HashSet<>(dd.getAllLinkTypes());
+        tmpLinkTypes.forEach(lt -> {
+            dd.removeLinkType(lt);
+            dd.createLinkType(lt.getName(), lt.getRate());
+        });
+    }
+        
+    private void recreateSequenceDiagram(DeploymentDiagram dd, SequenceDiagram sd) {
+        var tmpLoops = new HashSet<>(sd.getLoops());
+        sd.clearLoops();
+        
+        tmpLoops.forEach(loop -> {
+            var newLoop = new Loop();
+            newLoop.setId(loop.getObjectInfo().getID());
+            sd.addLoop(newLoop);
+            newLoop.setIterations(loop.getIterations());
+            newLoop.setRestartRate(loop.getRestartRate());
+        });
+    }
+    
+    private void recreateArtifact(DeploymentDiagram dd, Artifact a, Integer parentId) {
+        DeploymentTarget parent = null;
+        parent = (DeploymentTarget) dd.getNode(parentId);
+        var newArtifact = new Artifact(a.getNameProperty().getValue(),
+                                       parent);
+
+        newArtifact.getObjectInfo().setID(a.getObjectInfo().getID());
+        parent.addInnerNode(newArtifact);
+        dd.addNode(newArtifact);
+    }
+    
+    private void recreateDeploymentTarget(DeploymentDiagram dd, DeploymentTarget dt, Integer parentId) {
+        DeploymentTarget parent = null;
+        if(parentId != null)
+            parent = (DeploymentTarget) dd.getNode(parentId);
+        var newDT = new DeploymentTarget(dd.getElementContainer(),
+                                         dt.getNameProperty().getValue(),
+                                         parent);
+
+        newDT.getObjectInfo().setID(dt.getObjectInfo().getID());
+
+        if(parent != null) {
+            parent.addInnerNode(newDT);
+        }
+        
+        dd.addNode(newDT);
+        
+        dt.getStates().forEach(state -> {
+            var newState = new State(state.nameProperty().getValue());
+            newState.setDefault(state.isDefaultProperty().getValue());
+            newState.setStateDOWN(state.isStateDOWN());
+            newState.setLocked(state.isLocked());
+            newDT.addState(newState);
+        });
+        
+        dt.getStateTransitions().forEach(stateTransition -> {
+            State stateFrom = newDT.getState(stateTransition.getStateFrom().nameProperty().getValue());
+            State stateTo = newDT.getState(stateTransition.getStateTo().nameProperty().getValue());
+
+            newDT.addStateTransition(new StateTransition(stateFrom,
+                                                         stateTo,
+                                                         stateTransition.nameProperty().getValue(),
+                                                         stateTransition.rateProperty().getValue()));
+        });
+        
+        dt.getStateOperations().forEach(stateOperation -> {
+            var newOperation = new StateOperation(newDT.getState(stateOperation.getState().nameProperty().getValue()));
+            stateOperation.getOperationEntries().forEach(entry -> {
+                OperationType operationType = dd.getOperationType(entry.getOperationType().getName());
+                newOperation.addOperationEntry(new OperationEntry(operationType, entry.getSpeedLimit()));
+            });
+
+            newDT.addStateOperation(newOperation);
+        });
+
+        var rg = dt.getRedundancyGroup();
+        if(rg != null) {
+            newDT.setRedundancyGroup(dd.getRedundancyGroup(rg.getGroupID()));
+        }
+    }
+    
+    private void recreateCommunicationLink(DeploymentDiagram dd, CommunicationLink cl, Integer firstDtId, Integer secondDtId) {
+        var firstDt = dd.getDeploymentTarget(firstDtId);
+        var secondDt = dd.getDeploymentTarget(secondDtId);
+        var newLink = new CommunicationLink(firstDt, secondDt, dd.getAllLinkTypes());
+        newLink.setId(cl.getObjectInfo().getID());
+        
+        dd.addCommunicationLink(newLink);
+        firstDt.addInnerConnection(newLink);
+        secondDt.addInnerConnection(newLink);
+
+        var linkTypeName = cl.getLinkType().getName();
+        newLink.setLinkType(dd.getLinkType(linkTypeName));
+        
+        cl.getLinkFailures().forEach(failure -> {
+            var newFailure = new ConnectionFailure(failure.nameProperty().getValue(), failure.rateProperty().getValue());
+            newLink.addLinkFailure(newFailure);
+        });
+    }
+    
+    private void recreateLifeline(DeploymentDiagram dd, SequenceDiagram sd, Lifeline lifeline, Integer artifactId) {
+        var artifact = dd.getNode(artifactId);
+        var newLifeline = new Lifeline(artifact);
+        newLifeline.setId(lifeline.getObjectInfo().getID());
+
+        sd.addLifeline(newLifeline);
+
+        lifeline.getActivations().forEach(activation -> {
+            var newActivation = new Activation(newLifeline);
+            newActivation.setId(activation.getObjectInfo().getID());
+            // A weight which was never set stays unset, the activation does not form a workload
+            if(activation.isScenarioWeightSet())
+                newActivation.setScenarioWeight(activation.getScenarioWeight());
+            newLifeline.addActivation(newActivation);
+        });
+    }
+    
+    private Message recreateMessage(DeploymentDiagram dd, SequenceDiagram sd, Message m, Integer fromActivationId, Integer toActivationId) {
+        var fromActivation = sd.getActivation(fromActivationId);
+        var toActivation = sd.getActivation(toActivationId);
+        var newMessage = new Message(fromActivation, toActivation);
+        newMessage.setId(m.getObjectInfo().getID());
+        
+        sd.addMessage(newMessage);
+        
+        newMessage.nameProperty().setValue(m.nameProperty().getValue());
+        
+        var executionTime = m.getExecutionTime();
+        if(executionTime != null)
+            newMessage.setExecutionTime(m.getExecutionTimeValue());
+        
+        var messageSize = m.getMessageSize();
+        if(messageSize != null)
+            newMessage.setMessageSize(messageSize.messageSizeProperty().getValue());
+        
+        var opType = m.getOperationType();
+        if(opType != null)
+            newMessage.setOperationType(dd.getOperationType(opType.getName()));
+        
+        m.getMessageFailures().forEach(failure -> {
+            newMessage.addMessageFailure(new MessageFailureType(failure.nameProperty().getValue(),
+                                                                failure.rateProperty().getValue(),
+                                                                failure.causeHWfailProperty().getValue()));
+        });
+        return newMessage;
+    }
+
+    private void deserializeDeploymentDiagramElements(JsonElement je, DeploymentDiagram result) {
+        JsonObject jobj = je.getAsJsonObject();
+        var elements = jobj.get("allElements").getAsJsonObject();
+        var nodes = elements.get("allNodes").getAsJsonObject().entrySet();
+        var links = elements.get("allConnections").getAsJsonObject().entrySet();
+
+        var tmpArtifacts = new HashSet<JsonElement>();
+        var tmpDeploymentTargets = new HashSet<JsonElement>();
+        nodes.forEach(entry -> {
+            var node = entry.getValue().getAsJsonObject();
+            var nodeType = node.get("type").getAsString();
+            if(nodeType.equals("Artifact"))
+                tmpArtifacts.add(entry.getValue());
+            else if(nodeType.equals("DeploymentTarget"))
+                tmpDeploymentTargets.add(entry.getValue());
+        });
+        deserializeDeploymentTargets(origGson, result, tmpDeploymentTargets);
+        deserializeArtifacts(origGson, result, tmpArtifacts);
+
+        var tmpLinks = new HashSet<JsonElement>();
+        links.forEach(entry -> {
+            tmpLinks.add(entry.getValue());
+        });
+
+        deserializeCommunicationLinks(origGson, result, tmpLinks);
+    }
+
+    private void deserializeSequenceDiagramElements(JsonElement je, DeploymentDiagram dd, SequenceDiagram result) {
+        JsonObject jobj = je.getAsJsonObject();
+        var elements = jobj.get("allElements").getAsJsonObject();
+        var lifelines = elements.get("allNodes").getAsJsonObject().entrySet();
+        var messages = elements.get("allConnections").getAsJsonObject().entrySet();
+
+        var tmpLifelines = new HashSet<JsonElement>();
+        lifelines.forEach(entry -> {
+            tmpLifelines.add(entry.getValue());
+        });
+        deserializeLifelines(origGson, dd, result, tmpLifelines);
+
+        var tmpMessages = new HashSet<JsonElement>();
+        messages.forEach(entry -> {
+            tmpMessages.add(entry.getValue());
+        });
+        deserializeMessages(origGson, dd, result, tmpMessages);
+    }
+
+    private void deserializeArtifacts(Gson origGson, DeploymentDiagram result, Set<JsonElement> tmpNodes) {
+        tmpNodes.forEach(node -> {
+            var artifact = origGson.fromJson(node, Artifact.class);
+            var nodeObj = node.getAsJsonObject();
+            var parentId = nodeObj.get("parentId").getAsInt();
+            recreateArtifact(result, artifact, parentId);
+        });
+    }
+    
+    private void deserializeDeploymentTargets(Gson origGson, DeploymentDiagram result, Set<JsonElement> tmpNodes) {
+        var removedNodes = new HashSet<JsonElement>();
+        // The deserialization needs to be performed in the correct order (due to parental structure)
+        while(tmpNodes.size() > 0) {
+            removedNodes.clear();
+            for(var node : tmpNodes) {
+                var dt = origGson.fromJson(node, DeploymentTarget.class);
+                var nodeObj = node.getAsJsonObject();
+                var parentId = nodeObj.get("parentId");
+                if(parentId.isJsonNull()) {
+                    recreateDeploymentTarget(result, dt, null);
+                    removedNodes.add(node);
+                }
+                else if(result.getNode(parentId.getAsInt()) != null) {
+                    recreateDeploymentTarget(result, dt, parentId.getAsInt());
+                    removedNodes.add(node);
+                }
+            }
+            tmpNodes.removeIf(node -> removedNodes.contains(node));
+        }
+    }
+    
+    private void deserializeCommunicationLinks(Gson origGson, DeploymentDiagram result, Set<JsonElement> tmpLinks) {
+        for(var link : tmpLinks) {
+             var cl = origGson.fromJson(link, CommunicationLink.class);
+             var linkObj = link.getAsJsonObject();
+             var firstDtId = linkObj.get("firstDtId");
+             var secondDtId = linkObj.get("secondDtId");
+            recreateCommunicationLink(result, cl, firstDtId.getAsInt(), secondDtId.getAsInt());
+         }
+    }
+    
+    private void deserializeLifelines(Gson origGson, DeploymentDiagram dd, SequenceDiagram result, Set<JsonElement> tmpLifelines) {
+        for(var lifeline : tmpLifelines) {
+             var l = origGson.fromJson(lifeline, Lifeline.class);
+             var lifelineObj = lifeline.getAsJsonObject();
+             var artifactId = lifelineObj.get("artifactId");
+            recreateLifeline(dd, result, l, artifactId.getAsInt());
+         }
+    }
+
+    private void deserializeMessages(Gson origGson, DeploymentDiagram dd, SequenceDiagram result, Set<JsonElement> tmpMessages) {
+        for(var message : tmpMessages) {
+             var m = origGson.fromJson(message, Message.class);
+             var messageObj = message.getAsJsonObject();
+             var fromActivationId = messageObj.get("fromActivationId");
+             var toActivationId = messageObj.get("toActivationId");
+            recreateMessage(dd, result, m, fromActivationId.getAsInt(), toActivationId.getAsInt());
+         }
+    }
+}
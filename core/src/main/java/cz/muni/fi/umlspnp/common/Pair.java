@@ -0,0 +1,48 @@
+package cz.muni.fi.umlspnp.common;
+
+import java.util.Objects;
+
+/**
+ * Immutable pair of two values, the models and the transformation use it
+ * instead of javafx.util.Pair so that they do not need the JavaFX toolkit.
+ * 
+ * @param <K> Type of the key.
+ * @param <V> Type of the value.
+ */
+public final class Pair<K, V> {
+    private final K key;
+    private final V value;
+
+    public Pair(K key, V value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    public K getKey() {
+        return key;
+    }
+
+    public V getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if(this == obj)
+            return true;
+        if(!(obj instanceof Pair))
+            return false;
+        var other = (Pair<?, ?>) obj;
+        return Objects.equals(key, other.key) && Objects.equals(value, other.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(key, value);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s=%s", key, value);
+    }
+}
@@ -0,0 +1,87 @@
+package cz.muni.fi.umlspnp.common;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import cz.muni.fi.umlspnp.common.observable.BooleanProperty;
+import cz.muni.fi.umlspnp.common.observable.DoubleProperty;
+import cz.muni.fi.umlspnp.common.observable.IntegerProperty;
+import cz.muni.fi.umlspnp.common.observable.ObjectProperty;
+import cz.muni.fi.umlspnp.common.observable.Property;
+import cz.muni.fi.umlspnp.common.observable.StringProperty;
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.function.Function;
+
+/**
+ * Serializes the properties of the models as their values, the same JSON as fx-gson wrote
+ * for the JavaFX properties. The read properties have no bean and no name.
+ * The observable lists and maps are serialized by Gson as any other list and map.
+ *
+ */
+final class PropertyTypeAdapterFactory implements TypeAdapterFactory {
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        var rawType = type.getRawType();
+        if(!Property.class.isAssignableFrom(rawType))
+            return null;
+
+        Type valueType;
+        Function<Object, Property<?>> create;
+        if(StringProperty.class.isAssignableFrom(rawType)) {
+            valueType = String.class;
+            create = value -> new StringProperty(null, null, (String) value);
+        }
+        else if(IntegerProperty.class.isAssignableFrom(rawType)) {
+            valueType = Integer.class;
+            create = value -> new IntegerProperty(null, null, value == null ? 0 : (Integer) value);
+        }
+        else if(DoubleProperty.class.isAssignableFrom(rawType)) {
+            valueType = Double.class;
+            create = value -> new DoubleProperty(null, null, value == null ? 0.0 : (Double) value);
+        }
+        else if(BooleanProperty.class.isAssignableFrom(rawType)) {
+            valueType = Boolean.class;
+            create = value -> new BooleanProperty(null, null, value == null ? false : (Boolean) value);
+        }
+        else if(ObjectProperty.class.isAssignableFrom(rawType)) {
+            valueType = Object.class;
+            if(type.getType() instanceof ParameterizedType)
+                valueType = ((ParameterizedType) type.getType()).getActualTypeArguments()[0];
+            create = value -> new ObjectProperty<>(null, null, value);
+        }
+        else {
+            return null;
+        }
+        var valueAdapter = (TypeAdapter<Object>) gson.getAdapter(TypeToken.get(valueType));
+        return (TypeAdapter<T>) new PropertyTypeAdapter(valueAdapter, create);
+    }
+
+    private static final class PropertyTypeAdapter extends TypeAdapter<Property<?>> {
+        private final TypeAdapter<Object> valueAdapter;
+        private final Function<Object, Property<?>> create;
+
+        PropertyTypeAdapter(TypeAdapter<Object> valueAdapter, Function<Object, Property<?>> create) {
+            this.valueAdapter = valueAdapter;
+            this.create = create;
+        }
+
+        @Override
+        public void write(JsonWriter out, Property<?> property) throws IOException {
+            if(property == null)
+                out.nullValue();
+            else
+                valueAdapter.write(out, property.getValue());
+        }
+
+        @Override
+        public Property<?> read(JsonReader in) throws IOException {
+            return create.apply(valueAdapter.read(in));
+        }
+    }
+}
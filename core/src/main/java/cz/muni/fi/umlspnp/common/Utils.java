@@ -0,0 +1,30 @@
+package cz.muni.fi.umlspnp.common;
+
+/**
+ * Constants and functions used in the modeling part of the project.
+ * 
+ */
+public class Utils {
+    // Note: The name itself is not restricted anymore, however during the 
+    // transformation all illegal characters will be removed (replaced with a "")
+    public static String SPNP_NAME_RESTRICTION_REGEX = "^.*$";
+    public static String SPNP_NAME_RESTRICTION_REPLACE_REGEX = "[^a-zA-Z0-9_]";
+    private static int objectIDCounter = 0;
+    
+    public static synchronized int generateObjectID(){
+        return ++objectIDCounter;
+    }
+    
+    public static synchronized void updateId(Integer id) {
+        if(id > objectIDCounter)
+            objectIDCounter = id;
+    }
+
+    public static String shortenString(String text, int maxLength){
+        String shortenedString = text;
+        if (text.length() > maxLength){
+            shortenedString = text.substring(0, maxLength).concat("...");
+        }
+        return shortenedString;
+    }
+}
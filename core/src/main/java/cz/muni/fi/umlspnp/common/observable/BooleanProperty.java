@@ -0,0 +1,44 @@
+package cz.muni.fi.umlspnp.common.observable;
+
+/**
+ * A boolean property, setting null sets false.
+ *
+ */
+public class BooleanProperty extends Property<Boolean> {
+    private boolean value;
+
+    public BooleanProperty() {
+        this(null, null);
+    }
+
+    public BooleanProperty(Object bean, String name) {
+        this(bean, name, false);
+    }
+
+    public BooleanProperty(Object bean, String name, boolean initialValue) {
+        super(bean, name);
+        this.value = initialValue;
+    }
+
+    public boolean get() {
+        return value;
+    }
+
+    public void set(boolean newValue) {
+        if(value == newValue)
+            return;
+        var oldValue = value;
+        value = newValue;
+        fireValueChanged(oldValue, newValue);
+    }
+
+    @Override
+    public Boolean getValue() {
+        return value;
+    }
+
+    @Override
+    public void setValue(Boolean newValue) {
+        set(newValue == null ? false : newValue);
+    }
+}
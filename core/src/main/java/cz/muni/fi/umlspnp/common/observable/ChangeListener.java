@@ -0,0 +1,17 @@
+package cz.muni.fi.umlspnp.common.observable;
+
+/**
+ * Notified when the value of an ObservableValue changes.
+ *
+ * @param <T> Type of the value.
+ */
+@FunctionalInterface
+public interface ChangeListener<T> {
+    /**
+     *
+     * @param observable The changed value.
+     * @param oldValue The value before the change.
+     * @param newValue The value after the change.
+     */
+    void changed(ObservableValue<? extends T> observable, T oldValue, T newValue);
+}
@@ -0,0 +1,44 @@
+package cz.muni.fi.umlspnp.common.observable;
+
+/**
+ * A double property, setting null sets 0.
+ *
+ */
+public class DoubleProperty extends Property<Double> {
+    private double value;
+
+    public DoubleProperty() {
+        this(null, null);
+    }
+
+    public DoubleProperty(Object bean, String name) {
+        this(bean, name, 0.0);
+    }
+
+    public DoubleProperty(Object bean, String name, double initialValue) {
+        super(bean, name);
+        this.value = initialValue;
+    }
+
+    public double get() {
+        return value;
+    }
+
+    public void set(double newValue) {
+        if(Double.compare(value, newValue) == 0)
+            return;
+        var oldValue = value;
+        value = newValue;
+        fireValueChanged(oldValue, newValue);
+    }
+
+    @Override
+    public Double getValue() {
+        return value;
+    }
+
+    @Override
+    public void setValue(Double newValue) {
+        set(newValue == null ? 0.0 : newValue);
+    }
+}
@@ -0,0 +1,44 @@
+package cz.muni.fi.umlspnp.common.observable;
+
+/**
+ * An integer property, setting null sets 0.
+ *
+ */
+public class IntegerProperty extends Property<Integer> {
+    private int value;
+
+    public IntegerProperty() {
+        this(null, null);
+    }
+
+    public IntegerProperty(Object bean, String name) {
+        this(bean, name, 0);
+    }
+
+    public IntegerProperty(Object bean, String name, int initialValue) {
+        super(bean, name);
+        this.value = initialValue;
+    }
+
+    public int get() {
+        return value;
+    }
+
+    public void set(int newValue) {
+        if(value == newValue)
+            return;
+        var oldValue = value;
+        value = newValue;
+        fireValueChanged(oldValue, newValue);
+    }
+
+    @Override
+    public Integer getValue() {
+        return value;
+    }
+
+    @Override
+    public void setValue(Integer newValue) {
+        set(newValue == null ? 0 : newValue);
+    }
+}
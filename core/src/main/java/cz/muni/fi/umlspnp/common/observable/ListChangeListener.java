@@ -0,0 +1,80 @@
+package cz.muni.fi.umlspnp.common.observable;
+
+import java.util.List;
+
+/**
+ * Notified about each change of an ObservableList.
+ *
+ * @param <E> Type of the elements.
+ */
+@FunctionalInterface
+public interface ListChangeListener<E> {
+    void onChanged(Change<? extends E> change);
+
+    /**
+     * A single change of the list: the elements in [from, to) were added and the removed
+     * elements were at the index from, or the list was sorted (permutated), or the element
+     * at the index from was updated (a value observed by the list changed).
+     *
+     * @param <E> Type of the elements.
+     */
+    final class Change<E> {
+        private final ObservableList<E> list;
+        private final int from;
+        private final int to;
+        private final List<E> removed;
+        private final boolean permutated;
+        private final boolean updated;
+
+        Change(ObservableList<E> list, int from, int to, List<E> removed, boolean permutated, boolean updated) {
+            this.list = list;
+            this.from = from;
+            this.to = to;
+            this.removed = removed;
+            this.permutated = permutated;
+            this.updated = updated;
+        }
+
+        public ObservableList<E> getList() {
+            return list;
+        }
+
+        public int getFrom() {
+            return from;
+        }
+
+        public int getTo() {
+            return to;
+        }
+
+        public List<E> getRemoved() {
+            return removed;
+        }
+
+        public List<E> getAddedSubList() {
+            if(!wasAdded())
+                return List.of();
+            return list.subList(from, to);
+        }
+
+        public boolean wasAdded() {
+            return !permutated && !updated && to > from;
+        }
+
+        public boolean wasRemoved() {
+            return !removed.isEmpty();
+        }
+
+        public boolean wasReplaced() {
+            return wasAdded() && wasRemoved();
+        }
+
+        public boolean wasPermutated() {
+            return permutated;
+        }
+
+        public boolean wasUpdated() {
+            return updated;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package cz.muni.fi.umlspnp.common.observable;
+
+/**
+ * Notified about each change of an ObservableMap.
+ *
+ * @param <K> Type of the keys.
+ * @param <V> Type of the values.
+ */
+@FunctionalInterface
+public interface MapChangeListener<K, V> {
+    void onChanged(Change<? extends K, ? extends V> change);
+
+    /**
+     * A change of the value of a single key, replacing a value both removes and adds.
+     *
+     * @param <K> Type of the keys.
+     * @param <V> Type of the values.
+     */
+    final class Change<K, V> {
+        private final ObservableMap<K, V> map;
+        private final K key;
+        private final V valueAdded;
+        private final V valueRemoved;
+        private final boolean added;
+        private final boolean removed;
+
+        Change(ObservableMap<K, V> map, K key, V valueAdded, V valueRemoved, boolean added, boolean removed) {
+            this.map = map;
+            this.key = key;
+            this.valueAdded = valueAdded;
+            this.valueRemoved = valueRemoved;
+            this.added = added;
+            this.removed = removed;
+        }
+
+        public ObservableMap<K, V> getMap() {
+            return map;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public V getValueAdded() {
+            return valueAdded;
+        }
+
+        public V getValueRemoved() {
+            return valueRemoved;
+        }
+
+        public boolean wasAdded() {
+            return added;
+        }
+
+        public boolean wasRemoved() {
+            return removed;
+        }
+    }
+}
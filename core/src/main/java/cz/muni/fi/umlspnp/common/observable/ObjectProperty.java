@@ -0,0 +1,46 @@
+package cz.muni.fi.umlspnp.common.observable;
+
+/**
+ * A property referencing an object, the listeners are notified when it references
+ * another object (not when the referenced object changes).
+ *
+ * @param <T> Type of the referenced object.
+ */
+public class ObjectProperty<T> extends Property<T> {
+    private T value;
+
+    public ObjectProperty() {
+        this(null, null);
+    }
+
+    public ObjectProperty(Object bean, String name) {
+        this(bean, name, null);
+    }
+
+    public ObjectProperty(Object bean, String name, T initialValue) {
+        super(bean, name);
+        this.value = initialValue;
+    }
+
+    public T get() {
+        return value;
+    }
+
+    public void set(T newValue) {
+        if(value == newValue)
+            return;
+        var oldValue = value;
+        value = newValue;
+        fireValueChanged(oldValue, newValue);
+    }
+
+    @Override
+    public T getValue() {
+        return value;
+    }
+
+    @Override
+    public void setValue(T newValue) {
+        set(newValue);
+    }
+}
@@ -0,0 +1,204 @@
+package cz.muni.fi.umlspnp.common.observable;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.Function;
+
+/**
+ * An array list which notifies its listeners about each change.
+ * The extractor returns values of an element which the list observes, a change of one of them
+ * is reported as an update of the element (e.g. the editor redraws the element then).
+ * Bulk operations (addAll, setAll, clear, sort) are reported as a single change,
+ * removeIf and removeAll report each removed element.
+ *
+ * @param <E> Type of the elements.
+ */
+public class ObservableList<E> extends AbstractList<E> implements RandomAccess {
+    private final ArrayList<E> elements = new ArrayList<>();
+    private final Function<E, ObservableValue<?>[]> extractor;
+
+    /* Observers of the extracted values, by element (compared by identity) */
+    private Map<E, ElementObserver> observers = null;
+    /* Replaced on each change so that the listeners can be added and removed while notified */
+    private List<ListChangeListener<? super E>> listeners = List.of();
+
+    public ObservableList() {
+        this(null);
+    }
+
+    /**
+     *
+     * @param extractor Values of an element to observe, may be null.
+     */
+    public ObservableList(Function<E, ObservableValue<?>[]> extractor) {
+        this.extractor = extractor;
+    }
+
+    public void addListener(ListChangeListener<? super E> listener) {
+        var extended = new ArrayList<ListChangeListener<? super E>>(listeners);
+        extended.add(listener);
+        listeners = extended;
+    }
+
+    public void removeListener(ListChangeListener<? super E> listener) {
+        var reduced = new ArrayList<ListChangeListener<? super E>>(listeners);
+        if(reduced.remove(listener))
+            listeners = reduced;
+    }
+
+    @Override
+    public E get(int index) {
+        return elements.get(index);
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    @Override
+    public E set(int index, E element) {
+        var removed = elements.set(index, element);
+        unobserve(removed);
+        observe(element);
+        fireChange(index, index + 1, Collections.singletonList(removed), false, false);
+        return removed;
+    }
+
+    @Override
+    public void add(int index, E element) {
+        elements.add(index, element);
+        modCount++;
+        observe(element);
+        fireChange(index, index + 1, List.of(), false, false);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> added) {
+        return addAll(elements.size(), added);
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends E> added) {
+        if(added.isEmpty())
+            return false;
+        var copy = new ArrayList<E>(added);
+        elements.addAll(index, copy);
+        modCount++;
+        copy.forEach(this::observe);
+        fireChange(index, index + copy.size(), List.of(), false, false);
+        return true;
+    }
+
+    @Override
+    public E remove(int index) {
+        var removed = elements.remove(index);
+        modCount++;
+        unobserve(removed);
+        fireChange(index, index, Collections.singletonList(removed), false, false);
+        return removed;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if(fromIndex >= toIndex)
+            return;
+        var range = elements.subList(fromIndex, toIndex);
+        var removed = new ArrayList<E>(range);
+        range.clear();
+        modCount++;
+        removed.forEach(this::unobserve);
+        fireChange(fromIndex, fromIndex, removed, false, false);
+    }
+
+    @Override
+    public void clear() {
+        removeRange(0, elements.size());
+    }
+
+    /**
+     * Replaces all elements by the given ones.
+     *
+     * @param replacement The new elements.
+     */
+    public void setAll(Collection<? extends E> replacement) {
+        var removed = new ArrayList<E>(elements);
+        var copy = new ArrayList<E>(replacement);
+        elements.clear();
+        elements.addAll(copy);
+        modCount++;
+        removed.forEach(this::unobserve);
+        copy.forEach(this::observe);
+        if(!removed.isEmpty() || !copy.isEmpty())
+            fireChange(0, copy.size(), removed, false, false);
+    }
+
+    @Override
+    public void sort(Comparator<? super E> comparator) {
+        elements.sort(comparator);
+        modCount++;
+        fireChange(0, elements.size(), List.of(), true, false);
+    }
+
+    private void observe(E element) {
+        if(extractor == null || element == null)
+            return;
+        if(observers == null)
+            observers = new IdentityHashMap<>();
+        var observer = observers.get(element);
+        if(observer != null) {
+            observer.count++;
+            return;
+        }
+        observer = new ElementObserver(element, extractor.apply(element));
+        observers.put(element, observer);
+        for(var value : observer.values)
+            value.addListener(observer);
+    }
+
+    private void unobserve(E element) {
+        if(observers == null || element == null)
+            return;
+        var observer = observers.get(element);
+        if(observer == null || --observer.count > 0)
+            return;
+        observers.remove(element);
+        for(var value : observer.values)
+            value.removeListener(observer);
+    }
+
+    private void fireChange(int from, int to, List<E> removed, boolean permutated, boolean updated) {
+        var current = listeners;
+        if(current.isEmpty())
+            return;
+        var change = new ListChangeListener.Change<E>(this, from, to, removed, permutated, updated);
+        for(var listener : current)
+            listener.onChanged(change);
+    }
+
+    private final class ElementObserver implements ChangeListener<Object> {
+        private final E element;
+        private final ObservableValue<?>[] values;
+        private int count = 1;
+
+        ElementObserver(E element, ObservableValue<?>[] values) {
+            this.element = element;
+            this.values = values;
+        }
+
+        @Override
+        public void changed(ObservableValue<?> observable, Object oldValue, Object newValue) {
+            for(int i = 0; i < elements.size(); i++) {
+                if(elements.get(i) == element)
+                    fireChange(i, i + 1, List.of(), false, true);
+            }
+        }
+    }
+}
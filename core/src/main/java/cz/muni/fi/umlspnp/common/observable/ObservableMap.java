@@ -0,0 +1,102 @@
+package cz.muni.fi.umlspnp.common.observable;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An insertion-ordered map which notifies its listeners about each added, replaced and removed value.
+ * Its views (keySet, values, entrySet) are read only.
+ *
+ * @param <K> Type of the keys.
+ * @param <V> Type of the values.
+ */
+public class ObservableMap<K, V> extends AbstractMap<K, V> {
+    private final LinkedHashMap<K, V> entries = new LinkedHashMap<>();
+
+    /* Replaced on each change so that the listeners can be added and removed while notified */
+    private List<MapChangeListener<? super K, ? super V>> listeners = List.of();
+
+    public ObservableMap() {
+    }
+
+    public void addListener(MapChangeListener<? super K, ? super V> listener) {
+        var extended = new ArrayList<MapChangeListener<? super K, ? super V>>(listeners);
+        extended.add(listener);
+        listeners = extended;
+    }
+
+    public void removeListener(MapChangeListener<? super K, ? super V> listener) {
+        var reduced = new ArrayList<MapChangeListener<? super K, ? super V>>(listeners);
+        if(reduced.remove(listener))
+            listeners = reduced;
+    }
+
+    @Override
+    public V get(Object key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return entries.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public V put(K key, V value) {
+        var contained = entries.containsKey(key);
+        var removed = entries.put(key, value);
+        fireChange(key, value, removed, true, contained);
+        return removed;
+    }
+
+    @Override
+    public V remove(Object key) {
+        if(!entries.containsKey(key))
+            return null;
+        var removed = entries.remove(key);
+        @SuppressWarnings("unchecked")
+        var removedKey = (K) key;
+        fireChange(removedKey, null, removed, false, true);
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        for(var key : new ArrayList<>(entries.keySet()))
+            remove(key);
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    @Override
+    public Collection<V> values() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return Collections.unmodifiableSet(entries.entrySet());
+    }
+
+    private void fireChange(K key, V added, V removed, boolean wasAdded, boolean wasRemoved) {
+        var current = listeners;
+        if(current.isEmpty())
+            return;
+        var change = new MapChangeListener.Change<K, V>(this, key, added, removed, wasAdded, wasRemoved);
+        for(var listener : current)
+            listener.onChanged(change);
+    }
+}
@@ -0,0 +1,28 @@
+package cz.muni.fi.umlspnp.common.observable;
+
+/**
+ * A value which notifies its listeners when it changes, the models use it
+ * instead of the JavaFX properties so that they do not need the JavaFX toolkit.
+ * The editor adapts the values to the JavaFX properties.
+ *
+ * @param <T> Type of the value.
+ */
+public interface ObservableValue<T> {
+    T getValue();
+
+    void addListener(ChangeListener<? super T> listener);
+
+    void removeListener(ChangeListener<? super T> listener);
+
+    /**
+     *
+     * @return The element which contains the value, may be null.
+     */
+    Object getBean();
+
+    /**
+     *
+     * @return Name of the value in its bean, may be null.
+     */
+    String getName();
+}
@@ -0,0 +1,100 @@
+package cz.muni.fi.umlspnp.common.observable;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A writable observable value with its bean and name, the models create a property
+ * per editable value, usually only when the editor requests it.
+ * The listeners are notified only when the value changes.
+ *
+ * @param <T> Type of the value.
+ */
+public abstract class Property<T> implements ObservableValue<T> {
+    private final Object bean;
+    private final String name;
+
+    /* Null, a single listener or an array of the listeners, the array is replaced
+       on each change so that the listeners can be added and removed while notified */
+    private Object listeners = null;
+
+    protected Property(Object bean, String name) {
+        this.bean = bean;
+        this.name = name == null ? "" : name;
+    }
+
+    public abstract void setValue(T value);
+
+    @Override
+    public Object getBean() {
+        return bean;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void addListener(ChangeListener<? super T> listener) {
+        Objects.requireNonNull(listener);
+        if(listeners == null) {
+            listeners = listener;
+        }
+        else if(listeners instanceof ChangeListener) {
+            listeners = new ChangeListener<?>[] {(ChangeListener<?>) listeners, listener};
+        }
+        else {
+            var current = (ChangeListener<?>[]) listeners;
+            var extended = Arrays.copyOf(current, current.length + 1);
+            extended[current.length] = listener;
+            listeners = extended;
+        }
+    }
+
+    @Override
+    public void removeListener(ChangeListener<? super T> listener) {
+        if(listeners == null)
+            return;
+        if(listeners instanceof ChangeListener) {
+            if(listeners.equals(listener))
+                listeners = null;
+            return;
+        }
+        var current = (ChangeListener<?>[]) listeners;
+        for(int i = 0; i < current.length; i++) {
+            if(current[i].equals(listener)) {
+                if(current.length == 2) {
+                    listeners = current[1 - i];
+                }
+                else {
+                    var reduced = new ChangeListener<?>[current.length - 1];
+                    System.arraycopy(current, 0, reduced, 0, i);
+                    System.arraycopy(current, i + 1, reduced, i, current.length - i - 1);
+                    listeners = reduced;
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Called after the value changed, before the listeners are notified,
+     * the models override it to keep their plain fields up to date.
+     */
+    protected void invalidated() {
+    }
+
+    @SuppressWarnings("unchecked")
+    protected final void fireValueChanged(T oldValue, T newValue) {
+        invalidated();
+        var current = listeners;
+        if(current instanceof ChangeListener) {
+            ((ChangeListener<? super T>) current).changed(this, oldValue, newValue);
+        }
+        else if(current != null) {
+            for(var listener : (ChangeListener<?>[]) current)
+                ((ChangeListener<? super T>) listener).changed(this, oldValue, newValue);
+        }
+    }
+}
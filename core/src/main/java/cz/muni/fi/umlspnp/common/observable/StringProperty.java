@@ -0,0 +1,46 @@
+package cz.muni.fi.umlspnp.common.observable;
+
+import java.util.Objects;
+
+/**
+ * A string property.
+ *
+ */
+public class StringProperty extends Property<String> {
+    private String value;
+
+    public StringProperty() {
+        this(null, null);
+    }
+
+    public StringProperty(Object bean, String name) {
+        this(bean, name, null);
+    }
+
+    public StringProperty(Object bean, String name, String initialValue) {
+        super(bean, name);
+        this.value = initialValue;
+    }
+
+    public String get() {
+        return value;
+    }
+
+    public void set(String newValue) {
+        if(Objects.equals(value, newValue))
+            return;
+        var oldValue = value;
+        value = newValue;
+        fireValueChanged(oldValue, newValue);
+    }
+
+    @Override
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public void setValue(String newValue) {
+        set(newValue);
+    }
+}
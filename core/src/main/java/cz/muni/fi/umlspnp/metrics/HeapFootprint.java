@@ -0,0 +1,281 @@
+package cz.muni.fi.umlspnp.metrics;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import cz.muni.fi.umlspnp.common.ElementContainer;
+import cz.muni.fi.umlspnp.models.ConnectionFailure;
+import cz.muni.fi.umlspnp.models.ObservableString;
+import cz.muni.fi.umlspnp.models.OperationEntry;
+import cz.muni.fi.umlspnp.models.OperationType;
+import cz.muni.fi.umlspnp.models.deploymentdiagram.Artifact;
+import cz.muni.fi.umlspnp.models.deploymentdiagram.CommunicationLink;
+import cz.muni.fi.umlspnp.models.deploymentdiagram.DeploymentTarget;
+import cz.muni.fi.umlspnp.models.deploymentdiagram.LinkType;
+import cz.muni.fi.umlspnp.models.deploymentdiagram.RedundancyGroup;
+import cz.muni.fi.umlspnp.models.deploymentdiagram.State;
+import cz.muni.fi.umlspnp.models.deploymentdiagram.StateOperation;
+import cz.muni.fi.umlspnp.models.deploymentdiagram.StateTransition;
+import cz.muni.fi.umlspnp.models.sequencediagram.Activation;
+import cz.muni.fi.umlspnp.models.sequencediagram.ExecutionTime;
+import cz.muni.fi.umlspnp.models.sequencediagram.Lifeline;
+import cz.muni.fi.umlspnp.models.sequencediagram.Loop;
+import cz.muni.fi.umlspnp.models.sequencediagram.MessageSize;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ *  Heap footprint benchmark of the model elements: allocates COUNT elements of each type
+ * and reports the retained bytes per element, both as created by the transformation
+ * and after the editor requested their properties and string representations:
+ * --heap-footprint [--count N] [--rounds N] [--output FILE.json]
+ * The retained size is the difference of the used heap after a full collection,
+ * so the results of a round can be off when the collector does not finish,
+ * the median of the rounds is reported.
+ *
+ */
+public class HeapFootprint {
+    public static final String COMMAND = "--heap-footprint";
+
+    private static final int GC_ATTEMPTS = 5;
+
+    private final int count;
+    private final int rounds;
+    private final List<ElementFootprint> results = new ArrayList<>();
+
+    /* Elements referenced by the measured ones, replaced before each round
+       because the observed elements register their listeners on them */
+    private ElementContainer<Artifact, CommunicationLink> container = null;
+    private OperationType operationType = null;
+    private State stateFrom = null;
+    private State stateTo = null;
+    private Lifeline lifeline = null;
+
+    private HeapFootprint(int count, int rounds) {
+        this.count = count;
+        this.rounds = rounds;
+    }
+
+    /**
+     *
+     * @param args Arguments following the --heap-footprint command.
+     * @return Exit code, 0 if all elements were measured.
+     */
+    public static int run(String[] args) {
+        var count = 100000;
+        var rounds = 3;
+        Path output = null;
+        try {
+            for(int i = 0; i < args.length; i++) {
+                switch(args[i]) {
+                    case "--count":
+                        count = Integer.parseInt(args[++i]);
+                        break;
+                    case "--rounds":
+                        rounds = Integer.parseInt(args[++i]);
+                        break;
+                    case "--output":
+                        output = Path.of(args[++i]);
+                        break;
+                    default:
+                        printUsage();
+                        return 2;
+                }
+            }
+        }
+        catch(NumberFormatException | ArrayIndexOutOfBoundsException ex) {
+            printUsage();
+            return 2;
+        }
+        if(count < 1 || rounds < 1) {
+            printUsage();
+            return 2;
+        }
+
+        var benchmark = new HeapFootprint(count, rounds);
+        try {
+            benchmark.measureAll();
+        }
+        catch(InterruptedException ex) {
+            System.err.println("Heap footprint error: interrupted");
+            return 1;
+        }
+        catch(OutOfMemoryError ex) {
+            System.err.println(String.format("Heap footprint error: %d elements do not fit into the heap, use a lower --count or a larger -Xmx", count));
+            return 1;
+        }
+
+        System.out.println(benchmark);
+        if(output != null && !benchmark.writeJson(output))
+            return 1;
+        return 0;
+    }
+
+    private static void printUsage() {
+        System.err.println(String.format("Usage: %s [--count N] [--rounds N] [--output FILE.json]", COMMAND));
+    }
+
+    private void measureAll() throws InterruptedException {
+        measure("State", i -> new State("state"), null);
+        measure("StateTransition", i -> new StateTransition(stateFrom, stateTo, "transition", 0.5), null);
+        measure("OperationType", i -> new OperationType("operation"), null);
+        measure("OperationEntry", i -> new OperationEntry(operationType, 50),
+                element -> {
+                    var entry = (OperationEntry) element;
+                    entry.operationTypeProperty();
+                    entry.speedLimitProperty();
+                });
+        measure("StateOperation", i -> {
+                    var operation = new StateOperation(stateFrom);
+                    operation.addOperationEntry(operationType, null);
+                    return operation;
+                }, null);
+        measure("LinkType", i -> new LinkType("link", 1.0), null);
+        measure("ConnectionFailure", i -> new ConnectionFailure("failure", 0.01), null);
+        measure("RedundancyGroup", i -> new RedundancyGroup(i),
+                element -> ((RedundancyGroup) element).groupIDProperty());
+        measure("MessageSize", i -> new MessageSize(1), null);
+        measure("ExecutionTime", i -> new ExecutionTime(1), null);
+        measure("Loop", i -> new Loop(),
+                element -> {
+                    var loop = (Loop) element;
+                    loop.nameProperty();
+                    loop.iterationsProperty();
+                    loop.restartRateProperty();
+                });
+        measure("Activation", i -> new Activation(lifeline),
+                element -> ((Activation) element).scenarioWeightProperty());
+        measure("Artifact", i -> new Artifact("artifact", null), null);
+        measure("DeploymentTarget", i -> new DeploymentTarget(container, "node", null),
+                element -> {
+                    var target = (DeploymentTarget) element;
+                    target.getAllOperationEntries();
+                    target.getStatesWithoutOperations();
+                });
+        measure("DeploymentTarget (initial data)", i -> {
+                    var target = new DeploymentTarget(container, "node", null);
+                    target.createInitialData();
+                    return target;
+                },
+                element -> {
+                    var target = (DeploymentTarget) element;
+                    target.getAllOperationEntries();
+                    target.getStatesWithoutOperations();
+                });
+    }
+
+    /**
+     * Measures the elements as created and again after observe (the string representation
+     * is requested for all elements which have one) was called on each of them.
+     *
+     * @param create Creates the element with the given index.
+     * @param observe Requests the properties created on demand, may be null.
+     */
+    private void measure(String element, IntFunction<Object> create, Consumer<Object> observe) throws InterruptedException {
+        var created = new long[rounds];
+        var observed = new long[rounds];
+        var elements = new Object[count];
+        for(int round = 0; round < rounds; round++) {
+            container = new ElementContainer<>();
+            operationType = new OperationType("operation");
+            stateFrom = new State("UP");
+            stateTo = new State("DOWN");
+            lifeline = new Lifeline(null);
+            var before = usedHeap();
+            for(int i = 0; i < count; i++)
+                elements[i] = create.apply(i);
+            var afterCreate = usedHeap();
+            for(var item : elements) {
+                if(item instanceof ObservableString)
+                    ((ObservableString) item).stringRepresentationProperty();
+                if(observe != null)
+                    observe.accept(item);
+            }
+            var afterObserve = usedHeap();
+            created[round] = afterCreate - before;
+            observed[round] = afterObserve - before;
+            Arrays.fill(elements, null);
+        }
+        results.add(new ElementFootprint(element, median(created) / count, median(observed) / count));
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        var runtime = Runtime.getRuntime();
+        var used = Long.MAX_VALUE;
+        for(int i = 0; i < GC_ATTEMPTS; i++) {
+            System.gc();
+            Thread.sleep(20);
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    private static double median(long[] values) {
+        var sorted = values.clone();
+        Arrays.sort(sorted);
+        var middle = sorted.length / 2;
+        if(sorted.length % 2 == 0)
+            return (sorted[middle - 1] + sorted[middle]) / 2.0;
+        return sorted[middle];
+    }
+
+    private boolean writeJson(Path file) {
+        var json = new JsonObject();
+        json.addProperty("javaVersion", System.getProperty("java.version"));
+        json.addProperty("count", count);
+        json.addProperty("rounds", rounds);
+        var elements = new JsonArray();
+        results.forEach(footprint -> elements.add(footprint.toJson()));
+        json.add("elements", elements);
+        try {
+            Files.writeString(file, new GsonBuilder().setPrettyPrinting().create().toJson(json) + System.lineSeparator(), StandardCharsets.UTF_8);
+            return true;
+        }
+        catch(IOException ex) {
+            System.err.println(String.format("Heap footprint error: unable to write \"%s\": %s", file, ex.getMessage()));
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        var result = new StringBuilder();
+        result.append(String.format("Heap footprint per element (%d elements, median of %d rounds, Java %s):%n",
+                                    count, rounds, System.getProperty("java.version")));
+        result.append(String.format("%-32s %12s %14s%n", "element", "bytes", "observed bytes"));
+        results.forEach(footprint -> result.append(String.format("%s%n", footprint)));
+        return result.toString();
+    }
+
+    private static class ElementFootprint {
+        private final String element;
+        private final double bytes;
+        private final double observedBytes;
+
+        ElementFootprint(String element, double bytes, double observedBytes) {
+            this.element = element;
+            this.bytes = bytes;
+            this.observedBytes = observedBytes;
+        }
+
+        JsonObject toJson() {
+            var json = new JsonObject();
+            json.addProperty("element", element);
+            json.addProperty("bytes", bytes);
+            json.addProperty("observedBytes", observedBytes);
+            return json;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-32s %12.1f %14.1f", element, bytes, observedBytes);
+        }
+    }
+}
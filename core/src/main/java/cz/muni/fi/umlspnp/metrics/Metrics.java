@@ -0,0 +1,189 @@
+package cz.muni.fi.umlspnp.metrics;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import jdk.jfr.Event;
+
+/**
+ *  Registry of the timers, counters and gauges of the transformation, serialization and UI.
+ * The phases are always emitted as flight recorder events (they cost nothing while no
+ * recording is running), the registry itself only records when it is enabled by
+ * the --metrics-json flag and is written as JSON after each run.
+ *
+ */
+public class Metrics {
+    public static final String FLAG = "--metrics-json";
+
+    private static Path jsonFile = null;
+    /* count, total and maximum time in nanoseconds */
+    private static final Map<String, long[]> timers = new LinkedHashMap<>();
+    private static final Map<String, Long> counters = new LinkedHashMap<>();
+    private static final Map<String, Number> gauges = new LinkedHashMap<>();
+
+    private Metrics() {
+    }
+
+    /**
+     * A measured phase, closing it ends the flight recorder event and records its time.
+     */
+    public static class Phase implements AutoCloseable {
+        private final String name;
+        private final Event event;
+        private final long start;
+
+        private Phase(String name, Event event) {
+            this.name = name;
+            this.event = event;
+            this.start = System.nanoTime();
+            event.begin();
+        }
+
+        @Override
+        public void close() {
+            event.end();
+            if(event.shouldCommit())
+                event.commit();
+            time(name, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Enables the registry.
+     *
+     * @param file File the metrics are written to after each run.
+     */
+    public static synchronized void enable(Path file) {
+        jsonFile = file;
+    }
+
+    public static synchronized boolean isEnabled() {
+        return jsonFile != null;
+    }
+
+    /**
+     * Removes the flag and its file argument from the command line arguments and enables
+     * the registry if the flag is present.
+     *
+     * @param args Command line arguments.
+     * @return The remaining arguments or null if the flag has no file argument.
+     */
+    public static String[] parseFlag(String[] args) {
+        var index = -1;
+        for(int i = 0; i < args.length && index < 0; i++) {
+            if(args[i].equals(FLAG))
+                index = i;
+        }
+        if(index < 0)
+            return args;
+        if(index + 1 >= args.length) {
+            System.err.println(String.format("Usage: %s FILE.json", FLAG));
+            return null;
+        }
+        enable(Path.of(args[index + 1]));
+        var result = new String[args.length - 2];
+        System.arraycopy(args, 0, result, 0, index);
+        System.arraycopy(args, index + 2, result, index, args.length - index - 2);
+        return result;
+    }
+
+    /**
+     *
+     * @param name Name of the timer.
+     * @return A phase emitting the transformation phase event.
+     */
+    public static Phase phase(String name) {
+        return new Phase(name, new TransformPhaseEvent(name));
+    }
+
+    /**
+     *
+     * @param name Name of the timer.
+     * @param event Flight recorder event of the phase, it is begun immediately.
+     * @return A phase emitting the given event.
+     */
+    public static Phase phase(String name, Event event) {
+        return new Phase(name, event);
+    }
+
+    public static synchronized void time(String name, long nanos) {
+        if(jsonFile == null)
+            return;
+        var timer = timers.computeIfAbsent(name, key -> new long[3]);
+        timer[0]++;
+        timer[1] += nanos;
+        timer[2] = Math.max(timer[2], nanos);
+    }
+
+    public static synchronized void count(String name, long value) {
+        if(jsonFile == null)
+            return;
+        counters.merge(name, value, Long::sum);
+    }
+
+    public static synchronized void gauge(String name, Number value) {
+        if(jsonFile == null)
+            return;
+        gauges.put(name, value);
+    }
+
+    /**
+     *
+     * @param run Name of the finished run.
+     * @return The metrics recorded since the last run.
+     */
+    public static synchronized JsonObject toJson(String run) {
+        var result = new JsonObject();
+        result.addProperty("run", run);
+        result.addProperty("timestamp", Instant.now().toString());
+
+        var timersJson = new JsonObject();
+        timers.forEach((name, timer) -> {
+            var timerJson = new JsonObject();
+            timerJson.addProperty("count", timer[0]);
+            timerJson.addProperty("totalMillis", timer[1] / 1e6);
+            timerJson.addProperty("maxMillis", timer[2] / 1e6);
+            timersJson.add(name, timerJson);
+        });
+        result.add("timers", timersJson);
+
+        var countersJson = new JsonObject();
+        counters.forEach(countersJson::addProperty);
+        result.add("counters", countersJson);
+
+        var gaugesJson = new JsonObject();
+        gauges.forEach(gaugesJson::addProperty);
+        result.add("gauges", gaugesJson);
+        return result;
+    }
+
+    /**
+     * Writes the metrics recorded since the last run into the file given by the flag
+     * and clears the registry. Does nothing if the registry is not enabled.
+     *
+     * @param run Name of the finished run (e.g. transform, save, solve).
+     * @return False if the file could not be written.
+     */
+    public static synchronized boolean endRun(String run) {
+        if(jsonFile == null)
+            return true;
+        var json = new GsonBuilder().setPrettyPrinting().create().toJson(toJson(run));
+        timers.clear();
+        counters.clear();
+        gauges.clear();
+        try {
+            Files.writeString(jsonFile, json + System.lineSeparator(), StandardCharsets.UTF_8);
+            return true;
+        }
+        catch(IOException ex) {
+            System.err.println(String.format("Metrics error: unable to write \"%s\": %s", jsonFile, ex.getMessage()));
+            return false;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package cz.muni.fi.umlspnp.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ *  Flight recorder event with the size of the elements of one segment type of the transformed net.
+ *
+ */
+@Name("cz.muni.fi.umlspnp.NetStatistics")
+@Label("Net Statistics")
+@Category({"UML2SPNP", "Transformation"})
+@Description("Places, transitions, arcs, functions and guard lengths of one segment type of the transformed net")
+@StackTrace(false)
+public class NetStatisticsEvent extends Event {
+    @Label("Segment Type")
+    String segmentType;
+
+    @Label("Places")
+    int places;
+
+    @Label("Transitions")
+    int transitions;
+
+    @Label("Arcs")
+    int arcs;
+
+    @Label("Functions")
+    int functions;
+
+    @Label("Guard mark() Terms")
+    int guardMarkTerms;
+
+    @Label("Longest Guard mark() Terms")
+    int maxGuardMarkTerms;
+
+    public NetStatisticsEvent(String segmentType, int places, int transitions, int arcs, int functions,
+                              int guardMarkTerms, int maxGuardMarkTerms) {
+        this.segmentType = segmentType;
+        this.places = places;
+        this.transitions = transitions;
+        this.arcs = arcs;
+        this.functions = functions;
+        this.guardMarkTerms = guardMarkTerms;
+        this.maxGuardMarkTerms = maxGuardMarkTerms;
+    }
+}
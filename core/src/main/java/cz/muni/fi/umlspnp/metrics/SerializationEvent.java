@@ -0,0 +1,41 @@
+package cz.muni.fi.umlspnp.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ *  Flight recorder event of saving or loading a project file.
+ *
+ */
+@Name("cz.muni.fi.umlspnp.Serialization")
+@Label("Project Serialization")
+@Category({"UML2SPNP", "Serialization"})
+@Description("Saving or loading of a project file")
+public class SerializationEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("File")
+    String file;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+
+    public SerializationEvent(String operation, String file) {
+        this.operation = operation;
+        this.file = file;
+    }
+
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+}
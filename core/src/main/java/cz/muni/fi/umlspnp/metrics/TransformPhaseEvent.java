@@ -0,0 +1,24 @@
+package cz.muni.fi.umlspnp.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ *  Flight recorder event of one phase of the transformation (or of the actions preceding it).
+ *
+ */
+@Name("cz.muni.fi.umlspnp.TransformPhase")
+@Label("Transformation Phase")
+@Category({"UML2SPNP", "Transformation"})
+@Description("One phase of the transformation of the UML models into the SPNP code")
+public class TransformPhaseEvent extends Event {
+    @Label("Phase")
+    String phase;
+
+    public TransformPhaseEvent(String phase) {
+        this.phase = phase;
+    }
+}
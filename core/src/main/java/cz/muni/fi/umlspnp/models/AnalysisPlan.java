@@ -0,0 +1,127 @@
+package cz.muni.fi.umlspnp.models;
+
+import com.google.gson.annotations.Expose;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *  Measures and analyses performed by the generated SPNP code (the ac_final function),
+ * stored with the project.
+ *
+ */
+public class AnalysisPlan {
+    @Expose(serialize = true)
+    private boolean steadyState = true;
+    @Expose(serialize = true)
+    private List<Double> transientTimes = new ArrayList<>(List.of(100.0));
+
+    @Expose(serialize = true)
+    private boolean printQcol = true;
+    @Expose(serialize = true)
+    private boolean printRgraph = true;
+    @Expose(serialize = true)
+    private boolean printQrow = true;
+    @Expose(serialize = true)
+    private boolean printMcInfo = true;
+    @Expose(serialize = true)
+    private boolean printStdAverage = true;
+
+    @Expose(serialize = true)
+    private boolean scenarioSuccess = true;
+    @Expose(serialize = true)
+    private boolean nodeAvailability = true;
+    @Expose(serialize = true)
+    private boolean failureProbabilities = true;
+
+    public boolean isSteadyState() {
+        return steadyState;
+    }
+
+    public void setSteadyState(boolean steadyState) {
+        this.steadyState = steadyState;
+    }
+
+    public List<Double> getTransientTimes() {
+        return transientTimes;
+    }
+
+    public void setTransientTimes(List<Double> transientTimes) {
+        this.transientTimes = new ArrayList<>(transientTimes);
+    }
+
+    public boolean isPrintQcol() {
+        return printQcol;
+    }
+
+    public void setPrintQcol(boolean printQcol) {
+        this.printQcol = printQcol;
+    }
+
+    public boolean isPrintRgraph() {
+        return printRgraph;
+    }
+
+    public void setPrintRgraph(boolean printRgraph) {
+        this.printRgraph = printRgraph;
+    }
+
+    public boolean isPrintQrow() {
+        return printQrow;
+    }
+
+    public void setPrintQrow(boolean printQrow) {
+        this.printQrow = printQrow;
+    }
+
+    public boolean isPrintMcInfo() {
+        return printMcInfo;
+    }
+
+    public void setPrintMcInfo(boolean printMcInfo) {
+        this.printMcInfo = printMcInfo;
+    }
+
+    public boolean isPrintStdAverage() {
+        return printStdAverage;
+    }
+
+    public void setPrintStdAverage(boolean printStdAverage) {
+        this.printStdAverage = printStdAverage;
+    }
+
+    /**
+     *
+     * @return True if the probability that the scenario reaches the control end place is printed.
+     */
+    public boolean isScenarioSuccess() {
+        return scenarioSuccess;
+    }
+
+    public void setScenarioSuccess(boolean scenarioSuccess) {
+        this.scenarioSuccess = scenarioSuccess;
+    }
+
+    /**
+     *
+     * @return True if the probability that a node is not DOWN is printed for every node.
+     */
+    public boolean isNodeAvailability() {
+        return nodeAvailability;
+    }
+
+    public void setNodeAvailability(boolean nodeAvailability) {
+        this.nodeAvailability = nodeAvailability;
+    }
+
+    /**
+     *
+     * @return True if the probability of every failure place of the execution and communication segments is printed.
+     */
+    public boolean isFailureProbabilities() {
+        return failureProbabilities;
+    }
+
+    public void setFailureProbabilities(boolean failureProbabilities) {
+        this.failureProbabilities = failureProbabilities;
+    }
+}
@@ -1,12 +1,8 @@
 package cz.muni.fi.umlspnp.models;
 
 import com.google.gson.annotations.Expose;
-import javafx.beans.property.DoubleProperty;
-import javafx.beans.property.SimpleDoubleProperty;
-import javafx.beans.property.SimpleStringProperty;
-import javafx.beans.property.StringProperty;
-import javafx.beans.value.ChangeListener;
-import javafx.beans.value.ObservableValue;
+import cz.muni.fi.umlspnp.common.observable.DoubleProperty;
+import cz.muni.fi.umlspnp.common.observable.StringProperty;
 
 /**
  * A connection failure type with its name and rate.
@@ -16,23 +12,19 @@ import javafx.beans.value.ObservableValue;
  */
 public class ConnectionFailure extends ObservableString {
     @Expose(serialize = true)
-    private final StringProperty failureName = new SimpleStringProperty();
+    private final StringProperty failureName = new StringProperty(this, "failureName");
     @Expose(serialize = true)
-    private final DoubleProperty rate = new SimpleDoubleProperty();
+    private final DoubleProperty rate = new DoubleProperty(this, "rate");
     
     public ConnectionFailure(String name, double rate){
         this.setName(name);
         this.setRate(rate);
-        
-        var stringChangeListener = new ChangeListener(){
-            @Override
-            public void changed(ObservableValue ov, Object t, Object t1) {
-                updateStringRepresentation();
-            }
-        };
-        
-        this.failureName.addListener(stringChangeListener);
-        this.rate.addListener(stringChangeListener);
+    }
+
+    @Override
+    protected void observeStringDependencies() {
+        this.failureName.addListener(STRING_CHANGE_LISTENER);
+        this.rate.addListener(STRING_CHANGE_LISTENER);
     }
 
     public final void setName(String name){
@@ -13,11 +13,17 @@ public class MainModel {
     private DeploymentDiagram deploymentDiagram;
     @Expose(serialize = true)
     private SequenceDiagram sequenceDiagram;
+    @Expose(serialize = true)
+    private AnalysisPlan analysisPlan;
+    @Expose(serialize = true)
+    private ParameterSweep parameterSweep;
     
     public MainModel(){
         deploymentDiagram = new DeploymentDiagram();
         deploymentDiagram.createSampleData();
         sequenceDiagram = new SequenceDiagram();
+        analysisPlan = new AnalysisPlan();
+        parameterSweep = new ParameterSweep();
     }
     
     public void setDeploymentDiagram(DeploymentDiagram dd){
@@ -36,8 +42,26 @@ public class MainModel {
         return sequenceDiagram;
     }
     
+    public void setAnalysisPlan(AnalysisPlan analysisPlan){
+        this.analysisPlan = analysisPlan;
+    }
+
+    public AnalysisPlan getAnalysisPlan(){
+        return analysisPlan;
+    }
+    
+    public void setParameterSweep(ParameterSweep parameterSweep){
+        this.parameterSweep = parameterSweep;
+    }
+
+    public ParameterSweep getParameterSweep(){
+        return parameterSweep;
+    }
+    
     public void clear() {
         sequenceDiagram.clear();
         deploymentDiagram.clear();
+        analysisPlan = new AnalysisPlan();
+        parameterSweep = new ParameterSweep();
     }
 }
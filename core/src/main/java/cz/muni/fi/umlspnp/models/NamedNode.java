@@ -1,8 +1,7 @@
 package cz.muni.fi.umlspnp.models;
 
 import com.google.gson.annotations.Expose;
-import javafx.beans.property.SimpleStringProperty;
-import javafx.beans.property.StringProperty;
+import cz.muni.fi.umlspnp.common.observable.StringProperty;
 
 /**
  *  Represents some named entity in the Deployment and Sequence diagram.
@@ -10,7 +9,7 @@ import javafx.beans.property.StringProperty;
  */
 public abstract class NamedNode extends BasicNode{
     @Expose(serialize = true)
-    private final StringProperty name = new SimpleStringProperty();
+    private final StringProperty name = new StringProperty();
     
     public NamedNode(String name){
         super();
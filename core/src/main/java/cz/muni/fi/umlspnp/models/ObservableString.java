@@ -0,0 +1,54 @@
+package cz.muni.fi.umlspnp.models;
+
+import cz.muni.fi.umlspnp.common.observable.ChangeListener;
+import cz.muni.fi.umlspnp.common.observable.ObservableValue;
+import cz.muni.fi.umlspnp.common.observable.StringProperty;
+
+/**
+ *  Provides more general string observation with arbitrary structure.
+ *  The string representation is created on the first request, until then
+ *  the element does not observe its own properties.
+ *
+ */
+public abstract class ObservableString {
+    /**
+     * Updates the string representation of the bean of the changed property,
+     * shared by all elements instead of a listener per element.
+     */
+    protected static final ChangeListener<Object> STRING_CHANGE_LISTENER = new ChangeListener<>() {
+        @Override
+        public void changed(ObservableValue<?> ov, Object oldValue, Object newValue) {
+            var bean = ov.getBean();
+            if(bean instanceof ObservableString)
+                ((ObservableString) bean).updateStringRepresentation();
+        }
+    };
+
+    private StringProperty stringRepresentation = null;
+
+    public ObservableString(){
+
+    }
+
+    public ObservableValue<String> stringRepresentationProperty(){
+        if(stringRepresentation == null) {
+            stringRepresentation = new StringProperty(this, "stringRepresentation", this.toString());
+            observeStringDependencies();
+        }
+        return stringRepresentation;
+    }
+
+    /**
+     * Adds the listeners updating the string representation, called once
+     * when the string representation is first requested.
+     * Properties of the element itself are observed by STRING_CHANGE_LISTENER,
+     * so they have to be created with the element as their bean.
+     */
+    protected abstract void observeStringDependencies();
+
+    protected final void updateStringRepresentation(){
+        if(stringRepresentation == null)
+            return;
+        stringRepresentation.setValue(this.toString());
+    }
+}
@@ -0,0 +1,121 @@
+package cz.muni.fi.umlspnp.models;
+
+import com.google.gson.annotations.Expose;
+import cz.muni.fi.umlspnp.common.observable.ChangeListener;
+import cz.muni.fi.umlspnp.common.observable.IntegerProperty;
+import cz.muni.fi.umlspnp.common.observable.ObjectProperty;
+import cz.muni.fi.umlspnp.common.observable.ObservableValue;
+import cz.muni.fi.umlspnp.common.observable.StringProperty;
+
+/**
+ * Ties operation type with optional speed limit.
+ * The properties are created only when they are requested, e.g. by the editor.
+ *
+ */
+public class OperationEntry extends ObservableString {
+    @Expose(serialize = true)
+    private OperationType operationType;
+    @Expose(serialize = true)
+    private int speedLimit;
+
+    private ObjectProperty<OperationType> operationTypeProperty = null;
+    private IntegerProperty speedLimitProperty = null;
+
+    public OperationEntry(OperationType operationType, Integer speedLimit){
+        this.operationType = operationType;
+        if(speedLimit == null)
+            this.speedLimit = -1;
+        else
+            this.speedLimit = speedLimit;
+    }
+
+    @Override
+    protected void observeStringDependencies() {
+        var stringChangeListener = new ChangeListener<String>(){
+            @Override
+            public void changed(ObservableValue<? extends String> ov, String t, String t1) {
+                updateStringRepresentation();
+            }
+        };
+
+        var operationTypeChangeListener = new ChangeListener<OperationType>(){
+            @Override
+            public void changed(ObservableValue<? extends OperationType> ov, OperationType oldOperationType, OperationType newOperationType) {
+                if(oldOperationType != null)
+                    oldOperationType.stringRepresentationProperty().removeListener(stringChangeListener);
+                if(newOperationType != null)
+                    newOperationType.stringRepresentationProperty().addListener(stringChangeListener);
+            }
+        };
+
+        var op = operationTypeProperty();
+        op.addListener(STRING_CHANGE_LISTENER);
+        op.addListener(operationTypeChangeListener);
+        speedLimitProperty().addListener(STRING_CHANGE_LISTENER);
+
+        if(op.getValue() != null)
+            op.getValue().stringRepresentationProperty().addListener(stringChangeListener);
+    }
+
+    public StringProperty nameProperty(){
+        var op = getOperationType();
+        if(op != null)
+            return op.nameProperty();
+        return null;
+    }
+
+    public IntegerProperty speedLimitProperty(){
+        if(speedLimitProperty == null) {
+            speedLimitProperty = new IntegerProperty(this, "speedLimit", speedLimit) {
+                @Override
+                protected void invalidated() {
+                    speedLimit = get();
+                }
+            };
+        }
+        return speedLimitProperty;
+    }
+
+    public String getName(){
+        return nameProperty().getValue();
+    }
+
+    public ObjectProperty<OperationType> operationTypeProperty() {
+        if(operationTypeProperty == null) {
+            operationTypeProperty = new ObjectProperty<>(this, "operationType", operationType) {
+                @Override
+                protected void invalidated() {
+                    operationType = get();
+                }
+            };
+        }
+        return operationTypeProperty;
+    }
+
+    public OperationType getOperationType() {
+        return operationType;
+    }
+
+    public void setOperationType(OperationType newOp) {
+        if(operationTypeProperty != null)
+            operationTypeProperty.setValue(newOp);
+        else
+            operationType = newOp;
+    }
+
+    public Integer getSpeedLimit(){
+        return speedLimit;
+    }
+
+    @Override
+    public String toString() {
+        String opString = "None";
+        if(getOperationType() != null)
+            opString = getOperationType().getName();
+
+        if (speedLimit < 0)
+            return opString;
+        else
+            return opString + "<processing speed " + speedLimit + "%>";
+    }
+}
@@ -1,10 +1,7 @@
 package cz.muni.fi.umlspnp.models;
 
 import com.google.gson.annotations.Expose;
-import javafx.beans.property.SimpleStringProperty;
-import javafx.beans.property.StringProperty;
-import javafx.beans.value.ChangeListener;
-import javafx.beans.value.ObservableValue;
+import cz.muni.fi.umlspnp.common.observable.StringProperty;
 
 /**
  *  A globally identified operation type for Messages in sequence diagram.
@@ -15,16 +12,12 @@ public class OperationType extends ObservableString {
     private final StringProperty name;
     
     public OperationType(String name){
-        this.name = new SimpleStringProperty(name);
-        
-        var stringChangeListener = new ChangeListener(){
-            @Override
-            public void changed(ObservableValue ov, Object t, Object t1) {
-                updateStringRepresentation();
-            }
-        };
+        this.name = new StringProperty(this, "name", name);
+    }
 
-        this.name.addListener(stringChangeListener);
+    @Override
+    protected void observeStringDependencies() {
+        this.name.addListener(STRING_CHANGE_LISTENER);
     }
 
     public StringProperty nameProperty(){
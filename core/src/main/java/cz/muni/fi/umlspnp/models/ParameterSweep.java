@@ -0,0 +1,62 @@
+package cz.muni.fi.umlspnp.models;
+
+import com.google.gson.annotations.Expose;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *  Parameter sweep over the model annotations stored with the project. Every point
+ * of the cartesian product of the dimensions is transformed into its own CSPL file.
+ *
+ */
+public class ParameterSweep {
+    @Expose(serialize = true)
+    private List<SweepDimension> dimensions = new ArrayList<>();
+    @Expose(serialize = true)
+    private boolean structuralSharing = true;
+    @Expose(serialize = true)
+    private int threads = 0;
+
+    public List<SweepDimension> getDimensions() {
+        return dimensions;
+    }
+
+    public void setDimensions(List<SweepDimension> dimensions) {
+        this.dimensions = new ArrayList<>(dimensions);
+    }
+
+    /**
+     *
+     * @return True if the net structure is generated once and only the rate functions are rewritten per point.
+     */
+    public boolean isStructuralSharing() {
+        return structuralSharing;
+    }
+
+    public void setStructuralSharing(boolean structuralSharing) {
+        this.structuralSharing = structuralSharing;
+    }
+
+    /**
+     *
+     * @return Number of the worker threads, 0 for the number of available processors.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     *
+     * @return Number of the points of the sweep.
+     */
+    public long getPointCount() {
+        long result = 1;
+        for(var dimension : dimensions)
+            result *= dimension.getValues().size();
+        return dimensions.isEmpty() ? 0 : result;
+    }
+}
@@ -0,0 +1,117 @@
+package cz.muni.fi.umlspnp.models;
+
+import com.google.gson.annotations.Expose;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *  One dimension of a parameter sweep, a model property and the range of its values.
+ * The element is referenced by name, "node/transition" for the state transitions and
+ * "message/failure" or "link type/failure" for the failure types.
+ *
+ */
+public class SweepDimension {
+    public enum PropertyType {
+        STATE_TRANSITION_RATE,
+        EXECUTION_TIME,
+        LINK_RATE,
+        FAILURE_RATE,
+        LOOP_RESTART_RATE,
+        LOOP_ITERATIONS
+    }
+
+    @Expose(serialize = true)
+    private PropertyType property;
+    @Expose(serialize = true)
+    private String element;
+    @Expose(serialize = true)
+    private double from;
+    @Expose(serialize = true)
+    private double to;
+    @Expose(serialize = true)
+    private int steps;
+    @Expose(serialize = true)
+    private boolean logarithmic;
+
+    public SweepDimension(PropertyType property, String element, double from, double to, int steps, boolean logarithmic) {
+        this.property = property;
+        this.element = element;
+        this.from = from;
+        this.to = to;
+        this.steps = steps;
+        this.logarithmic = logarithmic;
+    }
+
+    public PropertyType getProperty() {
+        return property;
+    }
+
+    public String getElement() {
+        return element;
+    }
+
+    public double getFrom() {
+        return from;
+    }
+
+    public double getTo() {
+        return to;
+    }
+
+    public int getSteps() {
+        return steps;
+    }
+
+    public boolean isLogarithmic() {
+        return logarithmic;
+    }
+
+    /**
+     *
+     * @return True if the property is an integer, its values are rounded.
+     */
+    public boolean isIntegral() {
+        return property == PropertyType.EXECUTION_TIME || property == PropertyType.LOOP_ITERATIONS;
+    }
+
+    /**
+     *
+     * @return Values of the range, evenly spaced (on the logarithmic scale if selected).
+     * Values of the integer properties are rounded, the repeated values are left out.
+     */
+    public List<Double> getValues() {
+        var result = new ArrayList<Double>();
+        if(steps <= 1) {
+            addValue(result, from);
+            return result;
+        }
+        for(int i = 0; i < steps; i++) {
+            var fraction = (double) i / (steps - 1);
+            if(logarithmic)
+                addValue(result, from * Math.pow(to / from, fraction));
+            else
+                addValue(result, from + (to - from) * fraction);
+        }
+        return result;
+    }
+
+    private void addValue(List<Double> values, double value) {
+        if(isIntegral())
+            value = Math.round(value);
+        if(!values.contains(value))
+            values.add(value);
+    }
+
+    /**
+     *
+     * @return Label of the dimension in the sweep manifest.
+     */
+    public String getLabel() {
+        return String.format("%s:%s", property, element);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s; %s; %s; %s; %d%s", property, element, Double.toString(from), Double.toString(to), steps, logarithmic ? "; log" : "");
+    }
+}
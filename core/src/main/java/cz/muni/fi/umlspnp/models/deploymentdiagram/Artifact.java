@@ -1,9 +1,9 @@
 package cz.muni.fi.umlspnp.models.deploymentdiagram;
 
+import cz.muni.fi.umlspnp.common.Pair;
 import cz.muni.fi.umlspnp.models.NamedNode;
 import java.util.HashSet;
 import java.util.Set;
-import javafx.util.Pair;
 
 /**
  * Artifact (Component) as specified by the formal deployment diagram specification.
@@ -47,7 +47,7 @@ public class Artifact extends NamedNode{
      */
     public Set<Pair<CommunicationLink, Artifact>> getConnectedNodes(boolean directionUp, boolean shallow){
         if(directionUp) {
-            var connectedNodes = new HashSet();
+            var connectedNodes = new HashSet<Pair<CommunicationLink, Artifact>>();
             // NOTE: Add connected nodes if it will be possible to create artifact connections
             return connectedNodes;
         }
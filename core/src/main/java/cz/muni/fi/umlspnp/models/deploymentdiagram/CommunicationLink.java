@@ -1,13 +1,11 @@
 package cz.muni.fi.umlspnp.models.deploymentdiagram;
 
 import com.google.gson.annotations.Expose;
+import cz.muni.fi.umlspnp.common.observable.ListChangeListener;
+import cz.muni.fi.umlspnp.common.observable.ObservableList;
+import cz.muni.fi.umlspnp.common.observable.ObservableValue;
 import cz.muni.fi.umlspnp.models.ConnectionFailure;
 import cz.muni.fi.umlspnp.models.Connection;
-import javafx.beans.Observable;
-import javafx.collections.FXCollections;
-import javafx.collections.ListChangeListener;
-import javafx.collections.ObservableList;
-import javafx.util.Callback;
 
 /**
  * Connection between Deployment Targets in Deployment Diagram.
@@ -27,40 +25,26 @@ public class CommunicationLink extends Connection<DeploymentTarget> {
         
         this.allLinkTypes = allLinkTypes;
         
-        this.allLinkTypes.addListener(new ListChangeListener(){
+        this.allLinkTypes.addListener(new ListChangeListener<LinkType>(){
             @Override
-            public void onChanged(ListChangeListener.Change change) {
-                while (change.next()) {
-                    if(change.wasRemoved()){
-                        for(var removed : change.getRemoved()){
-                            if (removed.equals(getLinkType())){
-                                setDefaultLinkType();
-                            }
+            public void onChanged(ListChangeListener.Change<? extends LinkType> change) {
+                if(change.wasRemoved()){
+                    for(var removed : change.getRemoved()){
+                        if (removed.equals(getLinkType())){
+                            setDefaultLinkType();
                         }
                     }
                 }
             }
         });
 
-        linkType = FXCollections.observableArrayList(
-                new Callback<LinkType, Observable[]>() {
-                    @Override
-                    public Observable[] call(LinkType param) {
-                        return new Observable[]{
-                            param.stringRepresentationProperty()
-                        };
-                    }
-                });
+        linkType = new ObservableList<>((LinkType param) -> new ObservableValue<?>[]{
+            param.stringRepresentationProperty()
+        });
         
-        linkFailures = FXCollections.observableArrayList(
-                new Callback<ConnectionFailure, Observable[]>() {
-                    @Override
-                    public Observable[] call(ConnectionFailure param) {
-                        return new Observable[]{
-                            param.stringRepresentationProperty()
-                        };
-                    }
-                });
+        linkFailures = new ObservableList<>((ConnectionFailure param) -> new ObservableValue<?>[]{
+            param.stringRepresentationProperty()
+        });
         
         setDefaultLinkType();
     }
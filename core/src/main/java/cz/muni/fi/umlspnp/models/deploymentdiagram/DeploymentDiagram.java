@@ -3,6 +3,10 @@ package cz.muni.fi.umlspnp.models.deploymentdiagram;
 
 import com.google.gson.annotations.Expose;
 import cz.muni.fi.umlspnp.common.ElementContainer;
+import cz.muni.fi.umlspnp.common.Pair;
+import cz.muni.fi.umlspnp.common.observable.MapChangeListener;
+import cz.muni.fi.umlspnp.common.observable.ObservableList;
+import cz.muni.fi.umlspnp.common.observable.ObservableValue;
 import cz.muni.fi.umlspnp.models.Connection;
 import cz.muni.fi.umlspnp.models.Diagram;
 import cz.muni.fi.umlspnp.models.OperationType;
@@ -10,11 +14,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Objects;
 import java.util.Set;
-import javafx.beans.Observable;
-import javafx.collections.FXCollections;
-import javafx.collections.MapChangeListener;
-import javafx.collections.ObservableList;
-import javafx.util.Pair;
 
 /**
  *  The deployment diagram representation which holds all deployment targets, artifacts,
@@ -33,13 +32,13 @@ public class DeploymentDiagram implements Diagram {
     private final ObservableList<RedundancyGroup> redundancyGroups;
     
     public DeploymentDiagram(){
-	operationTypes = FXCollections.observableArrayList((OperationType param) -> new Observable[]{
+	operationTypes = new ObservableList<>((OperationType param) -> new ObservableValue<?>[]{
             param.stringRepresentationProperty()
         });
 
-	redundancyGroups = FXCollections.observableArrayList();
+	redundancyGroups = new ObservableList<>();
 
-        allLinkTypes = FXCollections.observableArrayList((LinkType param) -> new Observable[]{
+        allLinkTypes = new ObservableList<>((LinkType param) -> new ObservableValue<?>[]{
             param.stringRepresentationProperty()
         });
 
@@ -52,12 +51,11 @@ public class DeploymentDiagram implements Diagram {
     
     private void initAllElements(){
         var connections = allElements.getConnections();
-        connections.addListener(new MapChangeListener(){
+        connections.addListener(new MapChangeListener<Number, CommunicationLink>(){
             @Override
-            public void onChanged(MapChangeListener.Change change) {
+            public void onChanged(MapChangeListener.Change<? extends Number, ? extends CommunicationLink> change) {
                 if(change.wasRemoved()){
-                    var removedConnection = (CommunicationLink) change.getValueRemoved();
-                    removedConnection.cleanup();
+                    change.getValueRemoved().cleanup();
                 }
             }
         
@@ -68,11 +66,11 @@ public class DeploymentDiagram implements Diagram {
         return allElements;
     }
     
-    public void addAllNodesChangeListener(MapChangeListener listener){
+    public void addAllNodesChangeListener(MapChangeListener<? super Number, ? super Artifact> listener){
         allElements.addAllNodesChangeListener(listener);
     }
     
-    public void addCommunicationLinksChangeListener(MapChangeListener listener){
+    public void addCommunicationLinksChangeListener(MapChangeListener<? super Number, ? super CommunicationLink> listener){
         allElements.addAllConnectionsChangeListener(listener);
     }
     
@@ -171,9 +169,8 @@ public class DeploymentDiagram implements Diagram {
                 parent.removeInnerNode(objectID);
             removedDeploymentTarget.cleanupRecursive();
         }
-        else if(removed instanceof Artifact){
-            var removedArtifact = (Artifact) removed;
-            DeploymentTarget parent = removedArtifact.getParent();
+        else {
+            DeploymentTarget parent = removed.getParent();
             if(parent != null)
                 parent.removeInnerNode(objectID);
         }
@@ -216,7 +213,7 @@ public class DeploymentDiagram implements Diagram {
     }
     
     @Override
-    public Connection getConnection(int objectID) {
+    public Connection<?> getConnection(int objectID) {
         return getCommunicationLink(objectID);
     }
     
@@ -3,21 +3,18 @@ package cz.muni.fi.umlspnp.models.deploymentdiagram;
 import com.google.gson.annotations.Expose;
 import cz.muni.fi.umlspnp.models.OperationEntry;
 import cz.muni.fi.umlspnp.common.ElementContainer;
+import cz.muni.fi.umlspnp.common.Pair;
+import cz.muni.fi.umlspnp.common.observable.ListChangeListener;
+import cz.muni.fi.umlspnp.common.observable.MapChangeListener;
+import cz.muni.fi.umlspnp.common.observable.ObjectProperty;
+import cz.muni.fi.umlspnp.common.observable.ObservableList;
+import cz.muni.fi.umlspnp.common.observable.ObservableMap;
+import cz.muni.fi.umlspnp.common.observable.ObservableValue;
 import cz.muni.fi.umlspnp.models.OperationType;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
-import javafx.beans.Observable;
-import javafx.beans.property.ObjectProperty;
-import javafx.beans.property.SimpleObjectProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ListChangeListener;
-import javafx.collections.MapChangeListener;
-import javafx.collections.ObservableList;
-import javafx.collections.ObservableMap;
-import javafx.util.Pair;
+import java.util.stream.Collectors;
 
 /**
  * Deployment Target as specified by the formal deployment diagram specification.
@@ -29,7 +26,7 @@ public class DeploymentTarget extends Artifact {
     private final ElementContainer<Artifact, CommunicationLink> allElements;
     
     @Expose(serialize = true)
-    private final ObjectProperty<RedundancyGroup> redundancyGroup = new SimpleObjectProperty<>();
+    private final ObjectProperty<RedundancyGroup> redundancyGroup = new ObjectProperty<>();
 
     private final ObservableMap<Number, Artifact> innerNodes;
     private final ObservableMap<Number, CommunicationLink> innerConnections;
@@ -42,38 +39,29 @@ public class DeploymentTarget extends Artifact {
     @Expose(serialize = true)
     private final ObservableList<StateOperation> stateOperations;
 
-    // Listeners
-    private final Map<StateOperation, ListChangeListener> OperationEntriesListeners = new HashMap();
-
-    // Shortcuts
-    private final ObservableList<State> statesWithoutOperations;
-    private final ObservableList<OperationEntry> allOperationEntries;
+    // Shortcuts, created on the first request
+    private ObservableList<State> statesWithoutOperations = null;
+    private ObservableList<OperationEntry> allOperationEntries = null;
+    private ListChangeListener<OperationEntry> operationEntriesListener = null;
 
     public DeploymentTarget(ElementContainer<Artifact, CommunicationLink> allElements, String name, DeploymentTarget parent){
         super(name, parent);
         
         this.allElements = allElements;
-        innerNodes = FXCollections.observableHashMap();
-        innerConnections = FXCollections.observableHashMap();
+        innerNodes = new ObservableMap<>();
+        innerConnections = new ObservableMap<>();
         
-        states = FXCollections.observableArrayList((State param) -> new Observable[]{
+        states = new ObservableList<>((State param) -> new ObservableValue<?>[]{
             param.stringRepresentationProperty()
         });
         
-        stateTransitions = FXCollections.observableArrayList((StateTransition param) -> new Observable[]{
-            param.stringRepresentationProperty()
-        });
-
-        stateOperations = FXCollections.observableArrayList((StateOperation param) -> new Observable[]{
+        stateTransitions = new ObservableList<>((StateTransition param) -> new ObservableValue<?>[]{
             param.stringRepresentationProperty()
         });
 
-        allOperationEntries = FXCollections.observableArrayList((OperationEntry param) -> new Observable[]{
+        stateOperations = new ObservableList<>((StateOperation param) -> new ObservableValue<?>[]{
             param.stringRepresentationProperty()
         });
-        
-        statesWithoutOperations = FXCollections.observableArrayList();
-        initStatesWithoutOperations();
     }
     
     public final void createInitialData() {
@@ -152,7 +140,7 @@ public class DeploymentTarget extends Artifact {
         return removed != null;
     }
 
-    public void addInnerNodesChangeListener(MapChangeListener listener){
+    public void addInnerNodesChangeListener(MapChangeListener<? super Number, ? super Artifact> listener){
         innerNodes.addListener(listener);
     }
 
@@ -164,7 +152,7 @@ public class DeploymentTarget extends Artifact {
         innerConnections.remove(removedConnection.getObjectInfo().getID());
     }
     
-    public void addInnerConnectionsChangeListener(MapChangeListener listener){
+    public void addInnerConnectionsChangeListener(MapChangeListener<? super Number, ? super CommunicationLink> listener){
         innerConnections.addListener(listener);
     }
 
@@ -201,15 +189,15 @@ public class DeploymentTarget extends Artifact {
         return result;
     }
 
-    public void addStatesChangeListener(ListChangeListener listener){
+    public void addStatesChangeListener(ListChangeListener<? super State> listener){
         states.addListener(listener);
     }
     
-    public void addStateTransitionsChangeListener(ListChangeListener listener){
+    public void addStateTransitionsChangeListener(ListChangeListener<? super StateTransition> listener){
         stateTransitions.addListener(listener);
     }
     
-    public void addStateOperationsChangeListener(ListChangeListener listener){
+    public void addStateOperationsChangeListener(ListChangeListener<? super StateOperation> listener){
         stateOperations.addListener(listener);
     }
     
@@ -250,38 +238,57 @@ public class DeploymentTarget extends Artifact {
     
     public void addStateOperation(StateOperation newOperation){
         stateOperations.add(newOperation);
-        
-        var operationsListener = new ListChangeListener(){
-                @Override
-                public void onChanged(ListChangeListener.Change change) {
-                    while (change.next()) {
-                        if(change.wasAdded()){
-                            for(var addedObject : change.getAddedSubList()){
-                                var addedEntry = (OperationEntry) addedObject;
-                                allOperationEntries.add(addedEntry);
-                            }
-                        }
-                        else if(change.wasRemoved()){
-                            for(var removedObject : change.getRemoved()){
-                                var removedEntry = (OperationEntry) removedObject;
-                                allOperationEntries.remove(removedEntry);
-                            }
-                        }
-                    }
-                }
-            };
-        newOperation.getOperationEntries().addListener(operationsListener);
-        OperationEntriesListeners.put(newOperation, operationsListener);
     }
     
     public boolean removeStateOperation(StateOperation removedOperation){
-        var listener = OperationEntriesListeners.get(removedOperation);
-        removedOperation.getOperationEntries().removeListener(listener);
-        OperationEntriesListeners.remove(removedOperation);
         return stateOperations.remove(removedOperation);
     }
     
+    /**
+     * The operation entries of all state operations, created on the first request
+     * and then kept up to date by one listener shared by the state operations.
+     *
+     * @return The operation entries.
+     */
     public ObservableList<OperationEntry> getAllOperationEntries(){
+        if(allOperationEntries == null) {
+            allOperationEntries = new ObservableList<>((OperationEntry param) -> new ObservableValue<?>[]{
+                param.stringRepresentationProperty()
+            });
+
+            operationEntriesListener = new ListChangeListener<>(){
+                @Override
+                public void onChanged(ListChangeListener.Change<? extends OperationEntry> change) {
+                    if(change.wasRemoved()){
+                        allOperationEntries.removeAll(change.getRemoved());
+                    }
+                    if(change.wasAdded()){
+                        allOperationEntries.addAll(change.getAddedSubList());
+                    }
+                }
+            };
+
+            stateOperations.forEach(operation -> {
+                allOperationEntries.addAll(operation.getOperationEntries());
+                operation.getOperationEntries().addListener(operationEntriesListener);
+            });
+
+            stateOperations.addListener(new ListChangeListener<StateOperation>(){
+                @Override
+                public void onChanged(ListChangeListener.Change<? extends StateOperation> change) {
+                    if(change.wasPermutated() || change.wasUpdated())
+                        return;
+                    change.getRemoved().forEach(operation -> {
+                        operation.getOperationEntries().removeListener(operationEntriesListener);
+                        allOperationEntries.removeAll(operation.getOperationEntries());
+                    });
+                    change.getAddedSubList().forEach(operation -> {
+                        allOperationEntries.addAll(operation.getOperationEntries());
+                        operation.getOperationEntries().addListener(operationEntriesListener);
+                    });
+                }
+            });
+        }
         return allOperationEntries;
     }
 
@@ -290,6 +297,10 @@ public class DeploymentTarget extends Artifact {
     }
     
     public ObservableList<State> getStatesWithoutOperations() {
+        if(this.statesWithoutOperations == null) {
+            this.statesWithoutOperations = new ObservableList<>();
+            initStatesWithoutOperations();
+        }
         return this.statesWithoutOperations;
     }
     
@@ -320,35 +331,33 @@ public class DeploymentTarget extends Artifact {
     }
     
     public void refilterStatesWithoutOperations(){
-        this.statesWithoutOperations.setAll(states.filtered(state -> !stateHasOperations(state)));
+        if(this.statesWithoutOperations == null)
+            return;
+        this.statesWithoutOperations.setAll(states.stream().filter(state -> !stateHasOperations(state)).collect(Collectors.toList()));
     }
     
-    public final void initStatesWithoutOperations(){
+    private void initStatesWithoutOperations(){
         refilterStatesWithoutOperations();
         
-        states.addListener(new ListChangeListener(){
+        states.addListener(new ListChangeListener<State>(){
             @Override
-            public void onChanged(ListChangeListener.Change change) {
-                while (change.next()) {
-                    if (change.wasAdded()) {
-                        for (var addedItem : change.getAddedSubList()){
-                            var addedState = (State) addedItem;
-                            statesWithoutOperations.add(addedState);
-                        }
+            public void onChanged(ListChangeListener.Change<? extends State> change) {
+                if (change.wasAdded()) {
+                    for (var addedState : change.getAddedSubList()){
+                        statesWithoutOperations.add(addedState);
                     }
-                    else if (change.wasRemoved()) {
-                        for(var removedItem : change.getRemoved()){
-                            var removedState = (State) removedItem;
-                            statesWithoutOperations.remove(removedState);
-                        }
+                }
+                else if (change.wasRemoved()) {
+                    for(var removedState : change.getRemoved()){
+                        statesWithoutOperations.remove(removedState);
                     }
                 }
             }
         });
         
-        stateOperations.addListener(new ListChangeListener(){
+        stateOperations.addListener(new ListChangeListener<StateOperation>(){
             @Override
-            public void onChanged(ListChangeListener.Change change) {
+            public void onChanged(ListChangeListener.Change<? extends StateOperation> change) {
                 refilterStatesWithoutOperations();
             }
         });
@@ -1,13 +1,9 @@
 package cz.muni.fi.umlspnp.models.deploymentdiagram;
 
 import com.google.gson.annotations.Expose;
+import cz.muni.fi.umlspnp.common.observable.DoubleProperty;
+import cz.muni.fi.umlspnp.common.observable.StringProperty;
 import cz.muni.fi.umlspnp.models.ObservableString;
-import javafx.beans.property.DoubleProperty;
-import javafx.beans.property.SimpleDoubleProperty;
-import javafx.beans.property.SimpleStringProperty;
-import javafx.beans.property.StringProperty;
-import javafx.beans.value.ChangeListener;
-import javafx.beans.value.ObservableValue;
 
 /**
  *  A Communication Link type which contains a name and probability rate.
@@ -15,23 +11,19 @@ import javafx.beans.value.ObservableValue;
  */
 public class LinkType extends ObservableString {
     @Expose(serialize = true)
-    private final StringProperty name = new SimpleStringProperty();
+    private final StringProperty name = new StringProperty(this, "name");
     @Expose(serialize = true)
-    private final DoubleProperty rate = new SimpleDoubleProperty();
+    private final DoubleProperty rate = new DoubleProperty(this, "rate");
     
     public LinkType(String name, double rate){
         this.setName(name);
         this.setRate(rate);
-        
-        var stringChangeListener = new ChangeListener(){
-            @Override
-            public void changed(ObservableValue ov, Object t, Object t1) {
-                updateStringRepresentation();
-            }
-        };
-        
-        this.name.addListener(stringChangeListener);
-        this.rate.addListener(stringChangeListener);
+    }
+
+    @Override
+    protected void observeStringDependencies() {
+        this.name.addListener(STRING_CHANGE_LISTENER);
+        this.rate.addListener(STRING_CHANGE_LISTENER);
     }
 
     public final String getName() {
@@ -1,13 +1,9 @@
 package cz.muni.fi.umlspnp.models.deploymentdiagram;
 
 import com.google.gson.annotations.Expose;
+import cz.muni.fi.umlspnp.common.observable.IntegerProperty;
+import cz.muni.fi.umlspnp.common.observable.ObservableList;
 import cz.muni.fi.umlspnp.models.ObservableString;
-import javafx.beans.property.IntegerProperty;
-import javafx.beans.property.SimpleIntegerProperty;
-import javafx.beans.value.ChangeListener;
-import javafx.beans.value.ObservableValue;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 
 /**
  *  Deployment Target nodes can be part of a Redundancy Group which represents their interchangeability.
@@ -15,29 +11,26 @@ import javafx.collections.ObservableList;
  */
 public class RedundancyGroup extends ObservableString {
     @Expose(serialize = true)
-    private final IntegerProperty groupID = new SimpleIntegerProperty();
-    private final ObservableList<DeploymentTarget> nodes;
+    private Integer groupID;
+    private IntegerProperty groupIDProperty = null;
+    private ObservableList<DeploymentTarget> nodes = null;
 
     public RedundancyGroup(Integer groupID) {
-        this.groupID.setValue(groupID);
-        
-        nodes = FXCollections.observableArrayList();
-        
-        var stringChangeListener = new ChangeListener(){
-            @Override
-            public void changed(ObservableValue ov, Object t, Object t1) {
-                updateStringRepresentation();
-            }
-        };
+        this.groupID = groupID;
+    }
 
-        this.groupID.addListener(stringChangeListener);
+    @Override
+    protected void observeStringDependencies() {
+        groupIDProperty().addListener(STRING_CHANGE_LISTENER);
     }
 
     public void addNode(DeploymentTarget node) {
-        nodes.add(node);
+        getNodes().add(node);
     }
 
     public boolean removeNode(DeploymentTarget node) {
+        if(nodes == null)
+            return false;
         return nodes.remove(node);
     }
     
@@ -52,22 +45,31 @@ public class RedundancyGroup extends ObservableString {
     }
 
     public ObservableList<DeploymentTarget> getNodes() {
+        if(nodes == null)
+            nodes = new ObservableList<>();
         return nodes;
     }
 
     public IntegerProperty groupIDProperty() {
-        return groupID;
+        if(groupIDProperty == null) {
+            groupIDProperty = new IntegerProperty(this, "groupID", groupID == null ? 0 : groupID) {
+                @Override
+                protected void invalidated() {
+                    groupID = get();
+                }
+            };
+        }
+        return groupIDProperty;
     }
 
     public Integer getGroupID() {
-        return groupID.getValue();
+        return groupID;
     }
     
     @Override
     public String toString() {
-        if(groupID.getValue() == null)
+        if(groupID == null)
             return "";
-        return groupID.getValue().toString().concat(".");
+        return groupID.toString().concat(".");
     }
 }
-
@@ -1,13 +1,9 @@
 package cz.muni.fi.umlspnp.models.deploymentdiagram;
 
 import com.google.gson.annotations.Expose;
+import cz.muni.fi.umlspnp.common.observable.BooleanProperty;
+import cz.muni.fi.umlspnp.common.observable.StringProperty;
 import cz.muni.fi.umlspnp.models.ObservableString;
-import javafx.beans.property.BooleanProperty;
-import javafx.beans.property.SimpleBooleanProperty;
-import javafx.beans.property.SimpleStringProperty;
-import javafx.beans.property.StringProperty;
-import javafx.beans.value.ChangeListener;
-import javafx.beans.value.ObservableValue;
 
 /**
  *  A Deployment Target node state.
@@ -17,9 +13,9 @@ import javafx.beans.value.ObservableValue;
  */
 public class State extends ObservableString{
     @Expose(serialize = true)
-    private final StringProperty stateName = new SimpleStringProperty();
+    private final StringProperty stateName = new StringProperty(this, "stateName");
     @Expose(serialize = true)
-    private final BooleanProperty isDefaultState = new SimpleBooleanProperty();
+    private final BooleanProperty isDefaultState = new BooleanProperty(this, "isDefaultState");
     
     @Expose(serialize = true)
     private boolean isLocked = false; // Locked state can not be edited or removed
@@ -30,16 +26,12 @@ public class State extends ObservableString{
         this.setName(name);
 
         setDefault(false);
-        
-        var stringChangeListener = new ChangeListener(){
-            @Override
-            public void changed(ObservableValue ov, Object t, Object t1) {
-                updateStringRepresentation();
-            }
-        };
-        
-        stateName.addListener(stringChangeListener);
-        isDefaultState.addListener(stringChangeListener);
+    }
+
+    @Override
+    protected void observeStringDependencies() {
+        stateName.addListener(STRING_CHANGE_LISTENER);
+        isDefaultState.addListener(STRING_CHANGE_LISTENER);
     }
 
     public void setLocked(boolean value) {
@@ -1,17 +1,14 @@
 package cz.muni.fi.umlspnp.models.deploymentdiagram;
 
 import com.google.gson.annotations.Expose;
+import cz.muni.fi.umlspnp.common.observable.ChangeListener;
+import cz.muni.fi.umlspnp.common.observable.ListChangeListener;
+import cz.muni.fi.umlspnp.common.observable.ObjectProperty;
+import cz.muni.fi.umlspnp.common.observable.ObservableList;
+import cz.muni.fi.umlspnp.common.observable.ObservableValue;
 import cz.muni.fi.umlspnp.models.OperationEntry;
 import cz.muni.fi.umlspnp.models.ObservableString;
 import cz.muni.fi.umlspnp.models.OperationType;
-import javafx.beans.Observable;
-import javafx.beans.property.ObjectProperty;
-import javafx.beans.property.SimpleObjectProperty;
-import javafx.beans.value.ChangeListener;
-import javafx.beans.value.ObservableValue;
-import javafx.collections.FXCollections;
-import javafx.collections.ListChangeListener;
-import javafx.collections.ObservableList;
 
 /**
  *  Class containing information about the node state's supported operations.
@@ -19,50 +16,49 @@ import javafx.collections.ObservableList;
  */
 public class StateOperation extends ObservableString {
     @Expose(serialize = true)
-    private final ObjectProperty<State> state = new SimpleObjectProperty<>();
+    private final ObjectProperty<State> state = new ObjectProperty<>(this, "state");
     @Expose(serialize = true)
     private final ObservableList<OperationEntry> operationEntries;
     
     public StateOperation(State state){
-        this.operationEntries = FXCollections.observableArrayList((OperationEntry param) -> new Observable[]{
+        this.operationEntries = new ObservableList<>((OperationEntry param) -> new ObservableValue<?>[]{
             param.stringRepresentationProperty()
         });
 
-        var stringChangeListener = new ChangeListener(){
+        this.state.setValue(state);
+    }
+
+    @Override
+    protected void observeStringDependencies() {
+        var stringChangeListener = new ChangeListener<String>(){
             @Override
-            public void changed(ObservableValue ov, Object t, Object t1) {
+            public void changed(ObservableValue<? extends String> ov, String t, String t1) {
                 updateStringRepresentation();
             }
         };
 
-        var stateChangeListener = new ChangeListener(){
+        var stateChangeListener = new ChangeListener<State>(){
             @Override
-            public void changed(ObservableValue ov, Object oldValue, Object newValue) {
-                if(oldValue != null) {
-                    var oldState = (State) oldValue;
+            public void changed(ObservableValue<? extends State> ov, State oldState, State newState) {
+                if(oldState != null)
                     oldState.stringRepresentationProperty().removeListener(stringChangeListener);
-                }
-                if(newValue != null) {
-                    var newState = (State) newValue;
+                if(newState != null)
                     newState.stringRepresentationProperty().addListener(stringChangeListener);
-                }
             }
         };
         
-        var stringListChangeListener = new ListChangeListener(){
+        var stringListChangeListener = new ListChangeListener<OperationEntry>(){
             @Override
-            public void onChanged(ListChangeListener.Change change) {
+            public void onChanged(ListChangeListener.Change<? extends OperationEntry> change) {
                 updateStringRepresentation();
             }
         };
         
-        this.state.addListener(stringChangeListener);
+        this.state.addListener(STRING_CHANGE_LISTENER);
         this.state.addListener(stateChangeListener);
         this.operationEntries.addListener(stringListChangeListener);
 
-        this.state.setValue(state);
-
-        this.updateStringRepresentation();
+        stateChangeListener.changed(this.state, null, getState());
     }
     
     public State getState(){
@@ -1,15 +1,12 @@
 package cz.muni.fi.umlspnp.models.deploymentdiagram;
 
 import com.google.gson.annotations.Expose;
+import cz.muni.fi.umlspnp.common.observable.ChangeListener;
+import cz.muni.fi.umlspnp.common.observable.DoubleProperty;
+import cz.muni.fi.umlspnp.common.observable.ObjectProperty;
+import cz.muni.fi.umlspnp.common.observable.ObservableValue;
+import cz.muni.fi.umlspnp.common.observable.StringProperty;
 import cz.muni.fi.umlspnp.models.ObservableString;
-import javafx.beans.property.DoubleProperty;
-import javafx.beans.property.ObjectProperty;
-import javafx.beans.property.SimpleDoubleProperty;
-import javafx.beans.property.SimpleObjectProperty;
-import javafx.beans.property.SimpleStringProperty;
-import javafx.beans.property.StringProperty;
-import javafx.beans.value.ChangeListener;
-import javafx.beans.value.ObservableValue;
 
 /**
  *  Contains information about the node transition between two states.
@@ -17,13 +14,13 @@ import javafx.beans.value.ObservableValue;
  */
 public class StateTransition extends ObservableString {
     @Expose(serialize = true)
-    private final ObjectProperty<State> from = new SimpleObjectProperty<>();
+    private final ObjectProperty<State> from = new ObjectProperty<>(this, "from");
     @Expose(serialize = true)
-    private final ObjectProperty<State> to = new SimpleObjectProperty<>();
+    private final ObjectProperty<State> to = new ObjectProperty<>(this, "to");
     @Expose(serialize = true)
-    private final StringProperty transitionName = new SimpleStringProperty();
+    private final StringProperty transitionName = new StringProperty(this, "transitionName");
     @Expose(serialize = true)
-    private final DoubleProperty rate = new SimpleDoubleProperty();
+    private final DoubleProperty rate = new DoubleProperty(this, "rate");
     
     @Expose(serialize = true)
     private boolean isLocked = false; // Locked transition can not be edited or removed
@@ -32,36 +29,38 @@ public class StateTransition extends ObservableString {
         this.setName(name);
         this.setRate(rate);
         
-        var stringChangeListener = new ChangeListener(){
+        this.from.setValue(fromState);
+        this.to.setValue(toState);
+    }
+
+    @Override
+    protected void observeStringDependencies() {
+        var stringChangeListener = new ChangeListener<String>(){
             @Override
-            public void changed(ObservableValue ov, Object t, Object t1) {
+            public void changed(ObservableValue<? extends String> ov, String t, String t1) {
                 updateStringRepresentation();
             }
         };
         
-        var stateChangeListener = new ChangeListener(){
+        var stateChangeListener = new ChangeListener<State>(){
             @Override
-            public void changed(ObservableValue ov, Object oldValue, Object newValue) {
-                if(oldValue != null) {
-                    var oldState = (State) oldValue;
+            public void changed(ObservableValue<? extends State> ov, State oldState, State newState) {
+                if(oldState != null)
                     oldState.stringRepresentationProperty().removeListener(stringChangeListener);
-                }
-                if(newValue != null) {
-                    var newState = (State) newValue;
+                if(newState != null)
                     newState.stringRepresentationProperty().addListener(stringChangeListener);
-                }
             }
         };
         
-        this.transitionName.addListener(stringChangeListener);
-        this.rate.addListener(stringChangeListener);
-        this.from.addListener(stringChangeListener);
+        this.transitionName.addListener(STRING_CHANGE_LISTENER);
+        this.rate.addListener(STRING_CHANGE_LISTENER);
+        this.from.addListener(STRING_CHANGE_LISTENER);
         this.from.addListener(stateChangeListener);
-        this.to.addListener(stringChangeListener);
+        this.to.addListener(STRING_CHANGE_LISTENER);
         this.to.addListener(stateChangeListener);
         
-        this.from.setValue(fromState);
-        this.to.setValue(toState);
+        stateChangeListener.changed(this.from, null, getStateFrom());
+        stateChangeListener.changed(this.to, null, getStateTo());
     }
 
     public void setLocked(boolean value) {
@@ -80,11 +79,11 @@ public class StateTransition extends ObservableString {
         return this.to.getValue();
     }
     
-    public ObjectProperty fromStateProperty(){
+    public ObjectProperty<State> fromStateProperty(){
         return this.from;
     }
     
-    public ObjectProperty toStateProperty(){
+    public ObjectProperty<State> toStateProperty(){
         return this.to;
     }
 
@@ -0,0 +1,109 @@
+package cz.muni.fi.umlspnp.models.sequencediagram;
+
+import com.google.gson.annotations.Expose;
+import cz.muni.fi.umlspnp.common.observable.DoubleProperty;
+import cz.muni.fi.umlspnp.common.observable.MapChangeListener;
+import cz.muni.fi.umlspnp.common.observable.ObservableMap;
+import cz.muni.fi.umlspnp.models.BasicNode;
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Lifeline activation which contains the individual messages
+ * as specified by the sequence diagram specification 
+ * The scenario weight property is created only when it is requested, e.g. by the editor.
+ *
+ */
+public class Activation extends BasicNode {
+    private static final Double DEFAULT_SCENARIO_WEIGHT = 1.0;
+
+    private final Lifeline lifeline;
+    private final ObservableMap<Number, Message> messages;
+
+    /* Weight of the scenario started by this activation (only used on the highest lifeline),
+       null until it is set explicitly, as in the projects saved before the weights were introduced */
+    @Expose(serialize = true)
+    private Double scenarioWeight = null;
+
+    private DoubleProperty scenarioWeightProperty = null;
+    
+    // Only available while transforming into SPNP
+    private ArrayList<Message> sortedMessages = null;
+    
+    public Activation(Lifeline lifeline) {
+        this.lifeline = lifeline;
+        this.messages = new ObservableMap<>();
+    }
+
+    public Lifeline getLifeline() {
+        return lifeline;
+    }
+    
+    public void addMessage(Message newMessage){
+        messages.put(newMessage.getObjectInfo().getID(), newMessage);
+    }
+
+    public void removeMessage(Message removedMessage){
+        messages.remove(removedMessage.getObjectInfo().getID());
+    }
+    
+    public Collection<Message> getMessages(){
+        return messages.values();
+    }
+    
+    public void addMessagesChangeListener(MapChangeListener<? super Number, ? super Message> listener){
+        messages.addListener(listener);
+    }
+    
+    public DoubleProperty scenarioWeightProperty() {
+        if(scenarioWeightProperty == null) {
+            scenarioWeightProperty = new DoubleProperty(this, "scenarioWeight", getScenarioWeight()) {
+                @Override
+                protected void invalidated() {
+                    scenarioWeight = get();
+                }
+            };
+        }
+        return scenarioWeightProperty;
+    }
+    
+    /**
+     *
+     * @return The scenario weight, 1 if it is not set.
+     */
+    public double getScenarioWeight() {
+        if(scenarioWeight == null)
+            return DEFAULT_SCENARIO_WEIGHT;
+        return scenarioWeight;
+    }
+    
+    /**
+     * 
+     * @return False if the weight was never set, e.g. in a project saved before the scenario weights
+     *         were introduced. Only the activations with a weight form a workload (see ServiceCallTree).
+     */
+    public boolean isScenarioWeightSet() {
+        return scenarioWeight != null;
+    }
+    
+    /**
+     * 
+     * @param weight The scenario weight, greater or equal to 0.
+     * @throws IllegalArgumentException If the weight is negative or not a number.
+     */
+    public void setScenarioWeight(double weight) {
+        if(!(weight >= 0.0))
+            throw new IllegalArgumentException(String.format("Scenario weight has to be greater or equal to 0 (%s)", Double.toString(weight)));
+        scenarioWeight = weight;
+        if(scenarioWeightProperty != null)
+            scenarioWeightProperty.set(weight);
+    }
+    
+    public void setSortedMessages(ArrayList<Message> sortedMessages) {
+        this.sortedMessages = sortedMessages;
+    }
+
+    public ArrayList<Message> getSortedMessages() {
+        return sortedMessages;
+    }
+}
@@ -1,11 +1,8 @@
 package cz.muni.fi.umlspnp.models.sequencediagram;
 
 import com.google.gson.annotations.Expose;
+import cz.muni.fi.umlspnp.common.observable.IntegerProperty;
 import cz.muni.fi.umlspnp.models.ObservableString;
-import javafx.beans.property.IntegerProperty;
-import javafx.beans.property.SimpleIntegerProperty;
-import javafx.beans.value.ChangeListener;
-import javafx.beans.value.ObservableValue;
 
 /**
  *  Represents the execution time of a execution (leaf) message.
@@ -13,19 +10,15 @@ import javafx.beans.value.ObservableValue;
  */
 public class ExecutionTime extends ObservableString{
     @Expose(serialize = true)
-    private final IntegerProperty executionTime = new SimpleIntegerProperty();
+    private final IntegerProperty executionTime = new IntegerProperty(this, "executionTime");
     
     public ExecutionTime(int value){
         executionTime.set(value);
-        
-        var stringChangeListener = new ChangeListener(){
-            @Override
-            public void changed(ObservableValue ov, Object t, Object t1) {
-                updateStringRepresentation();
-            }
-        };
-        
-        executionTime.addListener(stringChangeListener);
+    }
+
+    @Override
+    protected void observeStringDependencies() {
+        executionTime.addListener(STRING_CHANGE_LISTENER);
     }
 
     public void setValue(int newValue){
@@ -1,17 +1,16 @@
 package cz.muni.fi.umlspnp.models.sequencediagram;
 
 import com.google.gson.annotations.Expose;
+import cz.muni.fi.umlspnp.common.observable.MapChangeListener;
+import cz.muni.fi.umlspnp.common.observable.ObservableList;
+import cz.muni.fi.umlspnp.common.observable.ObservableMap;
+import cz.muni.fi.umlspnp.common.observable.StringProperty;
 import cz.muni.fi.umlspnp.models.BasicNode;
 import cz.muni.fi.umlspnp.models.OperationEntry;
 import cz.muni.fi.umlspnp.models.deploymentdiagram.Artifact;
 import cz.muni.fi.umlspnp.models.deploymentdiagram.DeploymentTarget;
 import java.util.ArrayList;
 import java.util.Collection;
-import javafx.beans.property.StringProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.MapChangeListener;
-import javafx.collections.ObservableList;
-import javafx.collections.ObservableMap;
 
 /**
  *  Lifeline which contains activations with messages as 
@@ -30,7 +29,7 @@ public class Lifeline extends BasicNode {
     public Lifeline(Artifact linkedArtifact){
         this.artifact = linkedArtifact;
         
-        this.activations = FXCollections.observableHashMap();
+        this.activations = new ObservableMap<>();
     }
     
     public Activation createActivation(){
@@ -58,7 +57,7 @@ public class Lifeline extends BasicNode {
         return activations.values();
     }
     
-    public void addActivationsChangeListener(MapChangeListener listener){
+    public void addActivationsChangeListener(MapChangeListener<? super Number, ? super Activation> listener){
         activations.addListener(listener);
     }
     
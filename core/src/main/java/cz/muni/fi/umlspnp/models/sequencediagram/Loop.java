@@ -0,0 +1,122 @@
+package cz.muni.fi.umlspnp.models.sequencediagram;
+
+import com.google.gson.annotations.Expose;
+import cz.muni.fi.umlspnp.common.observable.ChangeListener;
+import cz.muni.fi.umlspnp.common.observable.DoubleProperty;
+import cz.muni.fi.umlspnp.common.observable.IntegerProperty;
+import cz.muni.fi.umlspnp.common.observable.ObservableValue;
+import cz.muni.fi.umlspnp.common.observable.StringProperty;
+import cz.muni.fi.umlspnp.models.BasicNode;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ *  A loop which can encapsulate messages and has a maximal number of iterations.
+ *
+ */
+public class Loop extends BasicNode {
+    @Expose(serialize = true)
+    private int iterations;
+    @Expose(serialize = true)
+    private double restartRate;
+
+    private StringProperty name = null;
+    private IntegerProperty iterationsProperty = null;
+    private DoubleProperty restartRateProperty = null;
+
+    /* Ordered, the transformation iterates the messages */
+    private final Set<Message> messages = new LinkedHashSet<>();
+
+    public Loop() {
+        setIterations(2);
+    }
+    
+    /**
+     * The name is derived from the iterations and the restart rate,
+     * it is created on the first request and then kept up to date.
+     *
+     * @return The loop name.
+     */
+    public StringProperty nameProperty(){
+        if(name == null) {
+            name = new StringProperty(this, "name", createName());
+            var stringChangeListener = new ChangeListener<Number>(){
+                @Override
+                public void changed(ObservableValue<? extends Number> ov, Number t, Number t1) {
+                    name.setValue(createName());
+                }
+            };
+            iterationsProperty().addListener(stringChangeListener);
+            restartRateProperty().addListener(stringChangeListener);
+        }
+        return name;
+    }
+
+    private String createName() {
+        var rateString = restartRate > 0.0 ? Double.toString(restartRate) : "immediate";
+        return String.format("Loop " + iterations + "x [restart %s]", rateString);
+    }
+    
+    public IntegerProperty iterationsProperty(){
+        if(iterationsProperty == null) {
+            iterationsProperty = new IntegerProperty(this, "iterations", iterations) {
+                @Override
+                protected void invalidated() {
+                    iterations = get();
+                }
+            };
+        }
+        return iterationsProperty;
+    }
+
+    public Integer getIterations(){
+        return iterations;
+    }
+    
+    public final void setIterations(int newValue){
+        if(newValue >= 2){
+            if(iterationsProperty != null)
+                iterationsProperty.setValue(newValue);
+            else
+                iterations = newValue;
+        }
+        else {
+            System.err.println("Error: iterations has to be greater or equal to 2");
+        }
+    }
+    
+    public DoubleProperty restartRateProperty() {
+        if(restartRateProperty == null) {
+            restartRateProperty = new DoubleProperty(this, "restartRate", restartRate) {
+                @Override
+                protected void invalidated() {
+                    restartRate = get();
+                }
+            };
+        }
+        return restartRateProperty;
+    }
+    
+    public Double getRestartRate() {
+        return restartRate;
+    }
+    
+    public void setRestartRate(Double rate) {
+        if(restartRateProperty != null)
+            restartRateProperty.setValue(rate);
+        else
+            restartRate = rate;
+    }
+
+    public Set<Message> getMessages() {
+        return messages;
+    }
+
+    public void addMessage(Message message) {
+        messages.add(message);
+    }
+
+    public boolean removeMessage(Message message) {
+        return messages.remove(message);
+    }
+}
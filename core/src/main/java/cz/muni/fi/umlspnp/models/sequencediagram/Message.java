@@ -1,19 +1,16 @@
 package cz.muni.fi.umlspnp.models.sequencediagram;
 
 import com.google.gson.annotations.Expose;
+import cz.muni.fi.umlspnp.common.Pair;
+import cz.muni.fi.umlspnp.common.observable.IntegerProperty;
+import cz.muni.fi.umlspnp.common.observable.ObservableList;
+import cz.muni.fi.umlspnp.common.observable.ObservableValue;
+import cz.muni.fi.umlspnp.common.observable.StringProperty;
 import cz.muni.fi.umlspnp.models.Connection;
 import cz.muni.fi.umlspnp.models.OperationType;
 import cz.muni.fi.umlspnp.models.deploymentdiagram.Artifact;
 import cz.muni.fi.umlspnp.models.deploymentdiagram.CommunicationLink;
 import java.util.Set;
-import javafx.beans.Observable;
-import javafx.beans.property.IntegerProperty;
-import javafx.beans.property.SimpleIntegerProperty;
-import javafx.beans.property.SimpleStringProperty;
-import javafx.beans.property.StringProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.util.Pair;
 
 /**
  * A message as described in the sequence diagram specification.
@@ -23,9 +20,9 @@ import javafx.util.Pair;
  */
 public class Message extends Connection<Activation> {
     @Expose(serialize = true)
-    private final IntegerProperty order = new SimpleIntegerProperty();
+    private final IntegerProperty order = new IntegerProperty();
     @Expose(serialize = true)
-    private final StringProperty name = new SimpleStringProperty();
+    private final StringProperty name = new StringProperty();
     
     @Expose(serialize = true)
     private final ObservableList<ExecutionTime> executionTime; // Exactly 1 item
@@ -41,19 +38,19 @@ public class Message extends Connection<Activation> {
         super(from, to);
         name.setValue("newMessage()");
         
-        executionTime = FXCollections.observableArrayList((ExecutionTime param) -> new Observable[]{
+        executionTime = new ObservableList<>((ExecutionTime param) -> new ObservableValue<?>[]{
             param.stringRepresentationProperty()
         });
         
-        messageSize = FXCollections.observableArrayList((MessageSize param) -> new Observable[]{
+        messageSize = new ObservableList<>((MessageSize param) -> new ObservableValue<?>[]{
             param.stringRepresentationProperty()
         });
         
-        messageFailures = FXCollections.observableArrayList((MessageFailureType param) -> new Observable[]{
+        messageFailures = new ObservableList<>((MessageFailureType param) -> new ObservableValue<?>[]{
             param.stringRepresentationProperty()
         });
 
-        operationTypeList = FXCollections.observableArrayList((OperationType param) -> new Observable[]{
+        operationTypeList = new ObservableList<>((OperationType param) -> new ObservableValue<?>[]{
             param.stringRepresentationProperty()
         });
 
@@ -105,7 +102,7 @@ public class Message extends Connection<Activation> {
         executionTime.clear();
     }
     
-    public ObservableList getExecutionTimeList(){
+    public ObservableList<ExecutionTime> getExecutionTimeList(){
         return executionTime;
     }
     
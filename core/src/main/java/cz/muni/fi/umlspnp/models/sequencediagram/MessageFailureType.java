@@ -1,11 +1,8 @@
 package cz.muni.fi.umlspnp.models.sequencediagram;
 
 import com.google.gson.annotations.Expose;
+import cz.muni.fi.umlspnp.common.observable.BooleanProperty;
 import cz.muni.fi.umlspnp.models.ConnectionFailure;
-import javafx.beans.property.BooleanProperty;
-import javafx.beans.property.SimpleBooleanProperty;
-import javafx.beans.value.ChangeListener;
-import javafx.beans.value.ObservableValue;
 
 
 public class MessageFailureType extends ConnectionFailure {
@@ -15,16 +12,13 @@ public class MessageFailureType extends ConnectionFailure {
     public MessageFailureType(String name, double rate, boolean HWfail) {
         super(name, rate);
         
-        causeHWfail = new SimpleBooleanProperty(HWfail);
-        
-        var stringChangeListener = new ChangeListener(){
-            @Override
-            public void changed(ObservableValue ov, Object t, Object t1) {
-                updateStringRepresentation();
-            }
-        };
-        
-        causeHWfail.addListener(stringChangeListener);
+        causeHWfail = new BooleanProperty(this, "causeHWfail", HWfail);
+    }
+
+    @Override
+    protected void observeStringDependencies() {
+        super.observeStringDependencies();
+        causeHWfail.addListener(STRING_CHANGE_LISTENER);
     }
     
     public BooleanProperty causeHWfailProperty() {
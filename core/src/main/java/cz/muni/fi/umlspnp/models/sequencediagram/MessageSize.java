@@ -1,11 +1,8 @@
 package cz.muni.fi.umlspnp.models.sequencediagram;
 
 import com.google.gson.annotations.Expose;
+import cz.muni.fi.umlspnp.common.observable.IntegerProperty;
 import cz.muni.fi.umlspnp.models.ObservableString;
-import javafx.beans.property.IntegerProperty;
-import javafx.beans.property.SimpleIntegerProperty;
-import javafx.beans.value.ChangeListener;
-import javafx.beans.value.ObservableValue;
 
 /**
  * Represents the size of a execution (leaf) message.
@@ -14,19 +11,15 @@ import javafx.beans.value.ObservableValue;
 public class MessageSize extends ObservableString {
     // TODO double?
     @Expose(serialize = true)
-    private final IntegerProperty messageSize = new SimpleIntegerProperty();
+    private final IntegerProperty messageSize = new IntegerProperty(this, "messageSize");
     
     public MessageSize(int value){
         messageSize.set(value);
-        
-        var stringChangeListener = new ChangeListener(){
-            @Override
-            public void changed(ObservableValue ov, Object t, Object t1) {
-                updateStringRepresentation();
-            }
-        };
-        
-        messageSize.addListener(stringChangeListener);
+    }
+
+    @Override
+    protected void observeStringDependencies() {
+        messageSize.addListener(STRING_CHANGE_LISTENER);
     }
 
     public void setValue(int newValue){
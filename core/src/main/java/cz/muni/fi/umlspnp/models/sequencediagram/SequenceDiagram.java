@@ -2,16 +2,15 @@ package cz.muni.fi.umlspnp.models.sequencediagram;
 
 import com.google.gson.annotations.Expose;
 import cz.muni.fi.umlspnp.common.ElementContainer;
+import cz.muni.fi.umlspnp.common.observable.MapChangeListener;
+import cz.muni.fi.umlspnp.common.observable.ObservableList;
+import cz.muni.fi.umlspnp.common.observable.ObservableMap;
 import cz.muni.fi.umlspnp.models.BasicNode;
 import cz.muni.fi.umlspnp.models.Connection;
 import cz.muni.fi.umlspnp.models.Diagram;
 import cz.muni.fi.umlspnp.models.deploymentdiagram.Artifact;
 import java.util.ArrayList;
 import java.util.Collection;
-import javafx.collections.FXCollections;
-import javafx.collections.MapChangeListener;
-import javafx.collections.ObservableList;
-import javafx.collections.ObservableMap;
 
 /**
  *  The sequence diagram representation which holds all lifelines, messages and loops
@@ -28,27 +27,27 @@ public class SequenceDiagram implements Diagram {
     private Lifeline highestLevelLifeline = null;
     
     public SequenceDiagram(){
-        sortedMessages = FXCollections.observableArrayList();
-        loops = FXCollections.observableHashMap();
+        sortedMessages = new ObservableList<>();
+        loops = new ObservableMap<>();
     }
     
-    public void addLifelinesListener(MapChangeListener listener){
+    public void addLifelinesListener(MapChangeListener<? super Number, ? super Lifeline> listener){
         allElements.addAllNodesChangeListener(listener);
     }
     
-    public void removeLifelinesListener(MapChangeListener listener){
+    public void removeLifelinesListener(MapChangeListener<? super Number, ? super Lifeline> listener){
         allElements.removeAllNodesChangeListener(listener);
     }
     
-    public void addMessagesListener(MapChangeListener listener){
+    public void addMessagesListener(MapChangeListener<? super Number, ? super Message> listener){
         allElements.addAllConnectionsChangeListener(listener);
     }
     
-    public void removeMessagesListener(MapChangeListener listener){
+    public void removeMessagesListener(MapChangeListener<? super Number, ? super Message> listener){
         allElements.removeAllConnectionsChangeListener(listener);
     }
     
-    public ElementContainer getElementContainer(){
+    public ElementContainer<Lifeline, Message> getElementContainer(){
         return allElements;
     }
     
@@ -92,10 +91,7 @@ public class SequenceDiagram implements Diagram {
     }
     
     public Lifeline getLifeline(int objectID){
-        var lifeline = allElements.getNode(objectID);
-        if(lifeline instanceof Lifeline)
-            return (Lifeline) lifeline;
-        return null;
+        return allElements.getNode(objectID);
     }
     
     public Activation getActivation(int objectID){
@@ -194,7 +190,7 @@ public class SequenceDiagram implements Diagram {
         return loops.values();
     }
     
-    public void addLoopsChangeListener(MapChangeListener listener){
+    public void addLoopsChangeListener(MapChangeListener<? super Number, ? super Loop> listener){
         loops.addListener(listener);
     }
     
@@ -230,7 +226,7 @@ public class SequenceDiagram implements Diagram {
     }
 
     @Override
-    public Connection getConnection(int modelID) {
+    public Connection<?> getConnection(int modelID) {
         return getMessage(modelID);
     }
 }
@@ -0,0 +1,59 @@
+package cz.muni.fi.umlspnp.service;
+
+import cz.muni.fi.umlspnp.analysis.SolverSelfCheck;
+import cz.muni.fi.umlspnp.metrics.HeapFootprint;
+import cz.muni.fi.umlspnp.metrics.Metrics;
+import cz.muni.fi.umlspnp.solver.SolverCommand;
+import java.util.Arrays;
+
+/**
+ *  Entry point of the core module, runs the commands which do not need the editor
+ * (and its JavaFX toolkit) on a plain JRE: --solve, --serve, --watch, --heap-footprint
+ * and --self-check.
+ * The editor's Main runs them the same way.
+ *
+ */
+public class HeadlessMain {
+    public static void main(String[] args) {
+        args = Metrics.parseFlag(args);
+        if(args == null)
+            System.exit(2);
+        var exitCode = run(args);
+        if(exitCode == null) {
+            printUsage();
+            exitCode = 2;
+        }
+        System.exit(exitCode);
+    }
+
+    /**
+     *
+     * @param args Arguments starting with the command, without the metrics flag.
+     * @return Exit code of the command or null if the arguments do not start with a headless command.
+     */
+    public static Integer run(String[] args) {
+        if(args.length == 0)
+            return null;
+        var commandArgs = Arrays.copyOfRange(args, 1, args.length);
+        switch(args[0]) {
+            case SolverCommand.COMMAND:
+                return SolverCommand.run(commandArgs);
+            case TransformationService.COMMAND:
+                return TransformationService.run(commandArgs);
+            case ProjectWatcher.COMMAND:
+                return ProjectWatcher.run(commandArgs);
+            case HeapFootprint.COMMAND:
+                return HeapFootprint.run(commandArgs);
+            case SolverSelfCheck.COMMAND:
+                return SolverSelfCheck.run(commandArgs);
+            default:
+                return null;
+        }
+    }
+
+    private static void printUsage() {
+        System.err.println(String.format("Usage: %s|%s|%s|%s|%s ARGUMENTS... (a command followed by --help prints its usage)",
+                                         SolverCommand.COMMAND, TransformationService.COMMAND, ProjectWatcher.COMMAND,
+                                         HeapFootprint.COMMAND, SolverSelfCheck.COMMAND));
+    }
+}
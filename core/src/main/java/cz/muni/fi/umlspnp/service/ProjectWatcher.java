@@ -0,0 +1,471 @@
+package cz.muni.fi.umlspnp.service;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import cz.muni.fi.umlspnp.common.ModelSerializer;
+import cz.muni.fi.umlspnp.metrics.Metrics;
+import cz.muni.fi.umlspnp.transformations.DefaultTransformator;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *  Watches a directory tree and transforms the changed project documents into CSPL:
+ * --watch [--threads N] [--debounce MILLIS] [--settings FILE] [--initial] DIRECTORY
+ * The events of a project are debounced, the project is transformed once it is quiet
+ * for the debounce time. A project is transformed only if its content (or the settings)
+ * changed, the code is written next to it (model.json to model.c) with the hash of the
+ * transformed content in the first line, so that the unchanged projects are skipped even
+ * after a restart. The independent projects are transformed in parallel, a project
+ * at most once at a time, and the code replaces the previous file atomically.
+ *
+ */
+public class ProjectWatcher {
+    public static final String COMMAND = "--watch";
+    private static final String PROJECT_EXTENSION = ".json";
+    private static final String CODE_EXTENSION = ".c";
+    private static final String HASH_PREFIX = "/* UML2SPNP project SHA-256: ";
+    private static final String HASH_SUFFIX = " */";
+
+    private final Path root;
+    private final TransformationRequest settings;
+    private final byte[] settingsContent;
+    private final long debounceNanos;
+    private final int threads;
+    private final ExecutorService workers;
+    private final WatchService watchService;
+    private final ModelSerializer serializer = new ModelSerializer();
+
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+    /* The changed projects and the times (System.nanoTime) when their events settle */
+    private final Map<Path, Long> pendingProjects = new HashMap<>();
+    private final Set<Path> runningProjects = new HashSet<>();
+    /* Hashes of the transformed content of the projects, the missing ones are read from the code */
+    private final Map<Path, String> hashes = new ConcurrentHashMap<>();
+
+    private final AtomicLong events = new AtomicLong();
+    private final AtomicLong overflows = new AtomicLong();
+    private final AtomicLong transformedProjects = new AtomicLong();
+    private final AtomicLong unchangedProjects = new AtomicLong();
+    private final AtomicLong skippedFiles = new AtomicLong();
+    private final AtomicLong failedProjects = new AtomicLong();
+
+    /**
+     *
+     * @param root The watched directory.
+     * @param settings Settings of the transformations, see TransformationRequest.parseSettings.
+     * @param settingsContent Content of the settings, it is a part of the hashes.
+     * @param debounceMillis Time without events after which a project is transformed.
+     * @param threads Number of the workers, 0 for the number of processors.
+     * @throws IOException If the watch service can not be created.
+     */
+    public ProjectWatcher(Path root, TransformationRequest settings, byte[] settingsContent, long debounceMillis, int threads) throws IOException {
+        this.root = root;
+        this.settings = settings;
+        this.settingsContent = settingsContent;
+        this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.workers = Executors.newFixedThreadPool(this.threads, task -> {
+            var thread = new Thread(task, "project-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.watchService = root.getFileSystem().newWatchService();
+    }
+
+    /**
+     * Registers the directories of the tree.
+     *
+     * @param initialScan Whether to schedule all projects of the tree, only those whose code is missing
+     * or was generated from a different content are transformed.
+     * @throws IOException If the tree can not be read.
+     */
+    public void start(boolean initialScan) throws IOException {
+        register(root, initialScan);
+    }
+
+    public void stop() {
+        workers.shutdownNow();
+        try {
+            watchService.close();
+        }
+        catch(IOException ex) {
+            System.err.println(String.format("Watch error: %s", ex.getMessage()));
+        }
+    }
+
+    private void register(Path directory, boolean scheduleProjects) throws IOException {
+        Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) throws IOException {
+                var key = dir.register(watchService,
+                                       StandardWatchEventKinds.ENTRY_CREATE,
+                                       StandardWatchEventKinds.ENTRY_MODIFY,
+                                       StandardWatchEventKinds.ENTRY_DELETE);
+                directories.put(key, dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if(scheduleProjects && attributes.isRegularFile() && isProject(file))
+                    schedule(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException ex) {
+                System.err.println(String.format("Watch error: unable to read \"%s\": %s", file, ex.getMessage()));
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Processes the events until the thread is interrupted or the watcher is stopped.
+     */
+    public void run() {
+        try {
+            while(!Thread.currentThread().isInterrupted()) {
+                var timeout = nextTimeout();
+                var key = timeout < 0 ? watchService.take() : watchService.poll(timeout, TimeUnit.NANOSECONDS);
+                if(key != null)
+                    processEvents(key);
+                submitSettledProjects();
+            }
+        }
+        catch(InterruptedException | ClosedWatchServiceException | RejectedExecutionException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void processEvents(WatchKey key) {
+        var directory = directories.get(key);
+        for(var event : key.pollEvents()) {
+            events.incrementAndGet();
+            if(event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflows.incrementAndGet();
+                System.err.println("Watch warning: events were lost, rescanning the directory tree");
+                rescan();
+                continue;
+            }
+            if(directory == null)
+                continue;
+            var path = directory.resolve((Path) event.context());
+            if(event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                hashes.remove(path);
+                synchronized(pendingProjects) {
+                    pendingProjects.remove(path);
+                }
+                /* The deleted code of an unchanged project is generated again */
+                var project = getProject(path);
+                if(project != null && hashes.remove(project) != null)
+                    schedule(project);
+            }
+            else if(event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                try {
+                    register(path, true);
+                }
+                catch(IOException ex) {
+                    System.err.println(String.format("Watch error: unable to watch \"%s\": %s", path, ex.getMessage()));
+                }
+            }
+            else if(isProject(path)) {
+                schedule(path);
+            }
+        }
+        if(!key.reset())
+            directories.remove(key);
+    }
+
+    private void rescan() {
+        directories.keySet().forEach(WatchKey::cancel);
+        directories.clear();
+        try {
+            register(root, true);
+        }
+        catch(IOException ex) {
+            System.err.println(String.format("Watch error: unable to rescan \"%s\": %s", root, ex.getMessage()));
+        }
+    }
+
+    private static boolean isProject(Path path) {
+        var name = path.getFileName().toString();
+        return name.endsWith(PROJECT_EXTENSION) && !name.startsWith(".");
+    }
+
+    private void schedule(Path project) {
+        synchronized(pendingProjects) {
+            pendingProjects.put(project, System.nanoTime() + debounceNanos);
+        }
+    }
+
+    /**
+     *
+     * @return Nanoseconds until the next project settles, -1 if no project is pending.
+     */
+    private long nextTimeout() {
+        var now = System.nanoTime();
+        var result = -1L;
+        synchronized(pendingProjects) {
+            for(var entry : pendingProjects.entrySet()) {
+                /* A project changed during its transformation waits for it */
+                var deadline = runningProjects.contains(entry.getKey()) ? now + debounceNanos : entry.getValue();
+                var timeout = Math.max(0, deadline - now);
+                if(result < 0 || timeout < result)
+                    result = timeout;
+            }
+        }
+        return result;
+    }
+
+    private void submitSettledProjects() {
+        var now = System.nanoTime();
+        synchronized(pendingProjects) {
+            var iterator = pendingProjects.entrySet().iterator();
+            while(iterator.hasNext()) {
+                var entry = iterator.next();
+                var project = entry.getKey();
+                if(entry.getValue() - now > 0 || runningProjects.contains(project))
+                    continue;
+                iterator.remove();
+                runningProjects.add(project);
+                workers.execute(() -> process(project));
+            }
+        }
+    }
+
+    /**
+     * Transforms the project if its content differs from the content of the last transformation.
+     */
+    private void process(Path project) {
+        try {
+            var content = Files.readAllBytes(project);
+            var hash = TransformationRequest.hash(settingsContent, content);
+            var codeFile = getCodeFile(project);
+            var transformedHash = hashes.computeIfAbsent(project, p -> readHash(codeFile));
+            if(hash.equals(transformedHash)) {
+                unchangedProjects.incrementAndGet();
+                Metrics.count("watch.projects.unchanged", 1);
+                return;
+            }
+
+            var json = JsonParser.parseString(new String(content, StandardCharsets.UTF_8));
+            if(!json.isJsonObject() || !json.getAsJsonObject().has("model")) {
+                /* Other JSON documents in the tree, they are checked again when they change */
+                hashes.put(project, hash);
+                skippedFiles.incrementAndGet();
+                return;
+            }
+            var start = System.nanoTime();
+            try(var phase = Metrics.phase("watch.transform")) {
+                var request = settings.withProject(json.getAsJsonObject(), hash);
+                var transformator = new DefaultTransformator(serializer.readModel(request.getProject()));
+                request.apply(transformator);
+                transformator.transform(request.getGenerateComments());
+                transformator.eliminateDeadElements();
+                transformator.getNetStatistics().record();
+                writeAtomically(codeFile, HASH_PREFIX + hash + HASH_SUFFIX + System.lineSeparator() + transformator.getOutput());
+            }
+            hashes.put(project, hash);
+            transformedProjects.incrementAndGet();
+            Metrics.count("watch.projects.transformed", 1);
+            System.err.println(String.format("Transformed \"%s\" into \"%s\" (%.1f ms)",
+                                             root.relativize(project), root.relativize(codeFile), (System.nanoTime() - start) / 1e6));
+        }
+        catch(NoSuchFileException ex) {
+            hashes.remove(project);
+        }
+        catch(IOException | JsonParseException | IllegalArgumentException ex) {
+            /* Usually a project which is still being written, it is processed again on its next event */
+            failedProjects.incrementAndGet();
+            Metrics.count("watch.projects.failed", 1);
+            System.err.println(String.format("Watch error: unable to transform \"%s\": %s", root.relativize(project), ex));
+        }
+        catch(RuntimeException ex) {
+            failedProjects.incrementAndGet();
+            Metrics.count("watch.projects.failed", 1);
+            System.err.println(String.format("Watch error: transformation of \"%s\" failed: %s", root.relativize(project), ex));
+        }
+        finally {
+            synchronized(pendingProjects) {
+                runningProjects.remove(project);
+            }
+        }
+    }
+
+    private static Path getCodeFile(Path project) {
+        var name = project.getFileName().toString();
+        return project.resolveSibling(name.substring(0, name.length() - PROJECT_EXTENSION.length()) + CODE_EXTENSION);
+    }
+
+    /**
+     *
+     * @return The project of the code file or null if the file is not a code file of a project.
+     */
+    private static Path getProject(Path codeFile) {
+        var name = codeFile.getFileName().toString();
+        if(!name.endsWith(CODE_EXTENSION))
+            return null;
+        var project = codeFile.resolveSibling(name.substring(0, name.length() - CODE_EXTENSION.length()) + PROJECT_EXTENSION);
+        return Files.isRegularFile(project) ? project : null;
+    }
+
+    /**
+     *
+     * @return The hash in the first line of the code or null if there is no such code.
+     */
+    private static String readHash(Path codeFile) {
+        try(var reader = Files.newBufferedReader(codeFile, StandardCharsets.UTF_8)) {
+            var line = reader.readLine();
+            if(line != null && line.startsWith(HASH_PREFIX) && line.endsWith(HASH_SUFFIX))
+                return line.substring(HASH_PREFIX.length(), line.length() - HASH_SUFFIX.length());
+        }
+        catch(IOException ex) {
+            /* Missing or unreadable code is generated again */
+        }
+        return null;
+    }
+
+    /**
+     * Writes the file through a temporary file in the same directory, the readers
+     * see either the previous or the complete new content.
+     */
+    private static void writeAtomically(Path file, String content) throws IOException {
+        var temporaryFile = Files.createTempFile(file.getParent(), "." + file.getFileName(), ".tmp");
+        try {
+            Files.writeString(temporaryFile, content, StandardCharsets.UTF_8);
+            try {
+                Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            catch(AtomicMoveNotSupportedException ex) {
+                Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Project watcher (%d workers) of \"%s\": %d events, %d overflows, %d transformed, %d unchanged, %d skipped, %d failed%n",
+                             threads, root, events.get(), overflows.get(), transformedProjects.get(),
+                             unchangedProjects.get(), skippedFiles.get(), failedProjects.get());
+    }
+
+    /**
+     * Watches the directory until the process is terminated.
+     *
+     * @param args Arguments following the --watch command.
+     * @return Exit code.
+     */
+    public static int run(String[] args) {
+        var threads = 0;
+        var debounceMillis = 500L;
+        Path settingsFile = null;
+        var initialScan = false;
+        Path root = null;
+        try {
+            for(int i = 0; i < args.length; i++) {
+                switch(args[i]) {
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--debounce":
+                        debounceMillis = Long.parseLong(args[++i]);
+                        break;
+                    case "--settings":
+                        settingsFile = Path.of(args[++i]);
+                        break;
+                    case "--initial":
+                        initialScan = true;
+                        break;
+                    default:
+                        if(root != null || args[i].startsWith("--")) {
+                            printUsage();
+                            return 2;
+                        }
+                        root = Path.of(args[i]);
+                        break;
+                }
+            }
+        }
+        catch(NumberFormatException | ArrayIndexOutOfBoundsException ex) {
+            printUsage();
+            return 2;
+        }
+        if(root == null || debounceMillis < 0) {
+            printUsage();
+            return 2;
+        }
+        if(!Files.isDirectory(root)) {
+            System.err.println(String.format("Error: \"%s\" is not a directory", root));
+            return 1;
+        }
+
+        var settingsContent = "{}".getBytes(StandardCharsets.UTF_8);
+        TransformationRequest settings;
+        try {
+            if(settingsFile != null)
+                settingsContent = Files.readAllBytes(settingsFile);
+            settings = TransformationRequest.parseSettings(settingsContent);
+        }
+        catch(IOException ex) {
+            System.err.println(String.format("Error: unable to read the settings \"%s\": %s", settingsFile, ex.getMessage()));
+            return 1;
+        }
+        catch(IllegalArgumentException ex) {
+            System.err.println(String.format("Error: invalid settings \"%s\": %s", settingsFile, ex.getMessage()));
+            return 1;
+        }
+
+        ProjectWatcher watcher;
+        try {
+            watcher = new ProjectWatcher(root.toAbsolutePath().normalize(), settings, settingsContent, debounceMillis, threads);
+            watcher.start(initialScan);
+        }
+        catch(IOException ex) {
+            System.err.println(String.format("Error: unable to watch \"%s\": %s", root, ex.getMessage()));
+            return 1;
+        }
+        System.err.println(String.format("Watching \"%s\" (%d workers, %d ms debounce%s)",
+                                         watcher.root, watcher.threads, debounceMillis, initialScan ? ", initial scan" : ""));
+
+        var watcherThread = Thread.currentThread();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            watcher.stop();
+            watcherThread.interrupt();
+            System.err.println(watcher);
+            Metrics.endRun("watch");
+        }));
+        watcher.run();
+        return 0;
+    }
+
+    private static void printUsage() {
+        System.err.println(String.format("Usage: %s [--threads N] [--debounce MILLIS] [--settings FILE] [--initial] DIRECTORY", COMMAND));
+    }
+}
@@ -0,0 +1,126 @@
+package cz.muni.fi.umlspnp.service;
+
+import com.google.gson.JsonObject;
+
+/**
+ *  A transformation request accepted by the service and its result.
+ *
+ */
+public class TransformationJob {
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        FINISHED,
+        FAILED
+    }
+
+    private final String id;
+    private final String hash;
+    private TransformationRequest request;
+    private final long submitted = System.nanoTime();
+    private long started = 0;
+    private long ended = 0;
+    private Status status = Status.QUEUED;
+    private String code = null;
+    private String error = null;
+
+    public TransformationJob(String id, TransformationRequest request) {
+        this.id = id;
+        this.hash = request.getHash();
+        this.request = request;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    /**
+     *
+     * @return The request or null if the job is done (the project is not kept after the transformation).
+     */
+    public synchronized TransformationRequest getRequest() {
+        return request;
+    }
+
+    public synchronized Status getStatus() {
+        return status;
+    }
+
+    public synchronized boolean isDone() {
+        return status == Status.FINISHED || status == Status.FAILED;
+    }
+
+    /**
+     *
+     * @return The generated CSPL code or null if the job did not finish.
+     */
+    public synchronized String getCode() {
+        return code;
+    }
+
+    public synchronized String getError() {
+        return error;
+    }
+
+    /**
+     *
+     * @return Time spent in the queue in nanoseconds.
+     */
+    public synchronized long getQueueTime() {
+        return (started > 0 ? started : System.nanoTime()) - submitted;
+    }
+
+    /**
+     *
+     * @return Time of the transformation in nanoseconds.
+     */
+    public synchronized long getTransformationTime() {
+        if(started == 0)
+            return 0;
+        return (ended > 0 ? ended : System.nanoTime()) - started;
+    }
+
+    public synchronized void start() {
+        started = System.nanoTime();
+        status = Status.RUNNING;
+    }
+
+    public synchronized void finish(String code) {
+        ended = System.nanoTime();
+        this.code = code;
+        request = null;
+        status = Status.FINISHED;
+    }
+
+    public synchronized void fail(String error) {
+        if(started == 0)
+            started = System.nanoTime();
+        ended = System.nanoTime();
+        this.error = error;
+        request = null;
+        status = Status.FAILED;
+    }
+
+    public synchronized JsonObject toJson() {
+        var result = new JsonObject();
+        result.addProperty("id", id);
+        result.addProperty("status", status.name().toLowerCase());
+        result.addProperty("hash", hash);
+        result.addProperty("queueMillis", getQueueTime() / 1e6);
+        result.addProperty("transformationMillis", getTransformationTime() / 1e6);
+        if(code != null)
+            result.addProperty("codeLength", code.length());
+        if(error != null)
+            result.addProperty("error", error);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s [%s] %s", id, hash.substring(0, 12), getStatus().name().toLowerCase());
+    }
+}
@@ -0,0 +1,196 @@
+package cz.muni.fi.umlspnp.service;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import cz.muni.fi.spnp.core.transformators.spnp.options.ConstantValue;
+import cz.muni.fi.spnp.core.transformators.spnp.options.OptionKey;
+import cz.muni.fi.umlspnp.transformations.DefaultTransformator;
+import cz.muni.fi.umlspnp.transformations.RateParameters;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ *  A request of the transformation service, the body is either a project document
+ * (the ModelSerializer format) or an object with the project and the transformation settings:
+ * {"project": {...}, "options": {"IOP_SIMULATION": "VAL_YES", "IOP_SIM_RUNS": 1000, "FOP_SIM_LENGTH": 50.0},
+ * "comments": false, "inputParameters": false}.
+ * The string options are SPNP constants, the numeric FOP_ options are doubles and the other
+ * numeric options are integers.
+ *
+ */
+public class TransformationRequest {
+    private final JsonObject project;
+    private final Map<String, JsonElement> options = new LinkedHashMap<>();
+    private final boolean generateComments;
+    private final boolean inputParameters;
+    private final String hash;
+
+    private TransformationRequest(JsonObject project, boolean generateComments, boolean inputParameters, String hash) {
+        this.project = project;
+        this.generateComments = generateComments;
+        this.inputParameters = inputParameters;
+        this.hash = hash;
+    }
+
+    /**
+     *
+     * @param body The request body (UTF-8 JSON).
+     * @return The request.
+     * @throws IllegalArgumentException If the body is not a valid request, the message describes the problem.
+     */
+    public static TransformationRequest parse(byte[] body) {
+        var json = parseObject(body);
+        if(!json.has("project")) {
+            if(!json.has("model"))
+                throw new IllegalArgumentException("the request has neither a project nor a model");
+            return new TransformationRequest(json, false, false, hash(body));
+        }
+        if(!json.get("project").isJsonObject())
+            throw new IllegalArgumentException("the project is not a JSON object");
+        return readSettings(json, json.getAsJsonObject("project"), hash(body));
+    }
+
+    /**
+     * Parses the settings of requests without a project, {"options": {...}, "comments": false,
+     * "inputParameters": false}, the projects are added by withProject.
+     *
+     * @param settings The settings (UTF-8 JSON).
+     * @return The settings with no project.
+     * @throws IllegalArgumentException If the settings are not valid, the message describes the problem.
+     */
+    public static TransformationRequest parseSettings(byte[] settings) {
+        return readSettings(parseObject(settings), null, hash(settings));
+    }
+
+    /**
+     *
+     * @param project The project document.
+     * @param hash Hash identifying the project and the settings.
+     * @return Request of the project with the settings of this request.
+     */
+    public TransformationRequest withProject(JsonObject project, String hash) {
+        var result = new TransformationRequest(project, generateComments, inputParameters, hash);
+        result.options.putAll(options);
+        return result;
+    }
+
+    private static JsonObject parseObject(byte[] content) {
+        try {
+            var element = JsonParser.parseString(new String(content, StandardCharsets.UTF_8));
+            if(!element.isJsonObject())
+                throw new IllegalArgumentException("the document is not a JSON object");
+            return element.getAsJsonObject();
+        }
+        catch(JsonParseException ex) {
+            throw new IllegalArgumentException(String.format("malformed JSON: %s", ex.getMessage()));
+        }
+    }
+
+    private static TransformationRequest readSettings(JsonObject json, JsonObject project, String hash) {
+        var result = new TransformationRequest(project,
+                                               getBoolean(json, "comments"),
+                                               getBoolean(json, "inputParameters"),
+                                               hash);
+        var optionsJson = json.get("options");
+        if(optionsJson != null && !optionsJson.isJsonNull()) {
+            if(!optionsJson.isJsonObject())
+                throw new IllegalArgumentException("the options are not a JSON object");
+            optionsJson.getAsJsonObject().entrySet().forEach(entry -> result.addOption(entry.getKey(), entry.getValue()));
+        }
+        return result;
+    }
+
+    private static boolean getBoolean(JsonObject json, String name) {
+        var value = json.get(name);
+        if(value == null || value.isJsonNull())
+            return false;
+        if(!value.isJsonPrimitive() || !value.getAsJsonPrimitive().isBoolean())
+            throw new IllegalArgumentException(String.format("\"%s\" is not a boolean", name));
+        return value.getAsBoolean();
+    }
+
+    private void addOption(String key, JsonElement value) {
+        try {
+            OptionKey.valueOf(key);
+        }
+        catch(IllegalArgumentException ex) {
+            throw new IllegalArgumentException(String.format("unknown SPNP option %s", key));
+        }
+        if(!value.isJsonPrimitive())
+            throw new IllegalArgumentException(String.format("the value of %s is not a string or a number", key));
+        var primitive = value.getAsJsonPrimitive();
+        if(primitive.isString()) {
+            try {
+                ConstantValue.valueOf(primitive.getAsString());
+            }
+            catch(IllegalArgumentException ex) {
+                throw new IllegalArgumentException(String.format("unknown SPNP constant %s of %s", primitive.getAsString(), key));
+            }
+        }
+        else if(!primitive.isNumber())
+            throw new IllegalArgumentException(String.format("the value of %s is not a string or a number", key));
+        else if(!key.startsWith("FOP_") && primitive.getAsDouble() != Math.rint(primitive.getAsDouble()))
+            throw new IllegalArgumentException(String.format("the value of %s is not an integer", key));
+        options.put(key, primitive);
+    }
+
+    /**
+     *
+     * @return SHA-256 of the concatenated contents (hexadecimal).
+     */
+    static String hash(byte[]... contents) {
+        try {
+            var messageDigest = MessageDigest.getInstance("SHA-256");
+            for(var content : contents)
+                messageDigest.update(content);
+            var digest = messageDigest.digest();
+            var result = new StringBuilder();
+            for(var b : digest)
+                result.append(String.format("%02x", b));
+            return result.toString();
+        }
+        catch(NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    public JsonObject getProject() {
+        return project;
+    }
+
+    public boolean getGenerateComments() {
+        return generateComments;
+    }
+
+    /**
+     *
+     * @return SHA-256 of the request body (hexadecimal), identical requests are cached by it.
+     */
+    public String getHash() {
+        return hash;
+    }
+
+    /**
+     * Creates the options and the input parameters of the request in the transformator.
+     *
+     * @param transformator A transformator which was not transformed yet.
+     */
+    public void apply(DefaultTransformator transformator) {
+        options.forEach((key, value) -> {
+            var primitive = value.getAsJsonPrimitive();
+            if(primitive.isString())
+                transformator.createSPNPOptionConstant(key, primitive.getAsString());
+            else if(key.startsWith("FOP_"))
+                transformator.createSPNPOptionDouble(key, primitive.getAsDouble());
+            else
+                transformator.createSPNPOptionInteger(key, primitive.getAsInt());
+        });
+        if(inputParameters)
+            transformator.setRateParameters(RateParameters.all());
+    }
+}
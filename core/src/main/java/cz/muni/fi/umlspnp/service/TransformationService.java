@@ -0,0 +1,431 @@
+package cz.muni.fi.umlspnp.service;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import cz.muni.fi.umlspnp.common.ModelSerializer;
+import cz.muni.fi.umlspnp.metrics.Metrics;
+import cz.muni.fi.umlspnp.transformations.DefaultTransformator;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *  Local HTTP service which transforms project documents into CSPL without the GUI:
+ * --serve [--port N] [--threads N] [--queue N] [--max-request-bytes N] [--retain N] [--cache]
+ * The service only listens on the loopback interface:
+ *   POST /transformations            submits a request (see TransformationRequest), 202 with the job
+ *   GET  /transformations/{id}       the state of the job
+ *   GET  /transformations/{id}/cspl  the generated code (202 while the job is queued or running)
+ *   GET  /metrics                    counters of the service and the metrics registry
+ * The jobs are transformed by a bounded pool of workers, each job with its own model and
+ * transformator. A request which does not fit into the queue is answered with 503,
+ * with --cache the identical requests share one job.
+ *
+ */
+public class TransformationService {
+    public static final String COMMAND = "--serve";
+    private static final String TRANSFORMATIONS_PATH = "/transformations";
+    private static final String CODE_PATH = "/cspl";
+    private static final String JSON_TYPE = "application/json; charset=utf-8";
+    private static final String TEXT_TYPE = "text/plain; charset=utf-8";
+    private static final int HTTP_THREADS = 4;
+
+    private final ModelSerializer serializer = new ModelSerializer();
+    private final ThreadPoolExecutor workers;
+    private final ExecutorService httpExecutor;
+    private final int threads;
+    private final int queueCapacity;
+    private final int maxRequestBytes;
+    private final int retainedJobs;
+    private final boolean caching;
+    private HttpServer server = null;
+
+    /* The accepted jobs in the order of their submission, the oldest finished jobs are forgotten */
+    private final Map<String, TransformationJob> jobs = new LinkedHashMap<>();
+    private final Map<String, TransformationJob> jobsByHash = new HashMap<>();
+    private final AtomicLong lastJobId = new AtomicLong();
+
+    private final AtomicLong receivedRequests = new AtomicLong();
+    private final AtomicLong acceptedRequests = new AtomicLong();
+    private final AtomicLong rejectedRequests = new AtomicLong();
+    private final AtomicLong tooLargeRequests = new AtomicLong();
+    private final AtomicLong invalidRequests = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong finishedJobs = new AtomicLong();
+    private final AtomicLong failedJobs = new AtomicLong();
+    private final AtomicLong queueTime = new AtomicLong();
+    private final AtomicLong transformationTime = new AtomicLong();
+    private final AtomicLong maxTransformationTime = new AtomicLong();
+
+    /**
+     *
+     * @param threads Number of the workers, 0 for the number of processors.
+     * @param queueCapacity Number of the jobs waiting for a worker, further requests are rejected.
+     * @param maxRequestBytes Size limit of the request body.
+     * @param retainedJobs Number of the jobs whose results are kept.
+     * @param caching Whether the identical requests share one job.
+     */
+    public TransformationService(int threads, int queueCapacity, int maxRequestBytes, int retainedJobs, boolean caching) {
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.queueCapacity = queueCapacity;
+        this.maxRequestBytes = maxRequestBytes;
+        this.retainedJobs = retainedJobs;
+        this.caching = caching;
+        this.workers = new ThreadPoolExecutor(this.threads, this.threads, 0, TimeUnit.MILLISECONDS,
+                                              new ArrayBlockingQueue<>(queueCapacity), task -> {
+            var thread = new Thread(task, "transformation-service");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.httpExecutor = Executors.newFixedThreadPool(HTTP_THREADS, task -> {
+            var thread = new Thread(task, "transformation-service-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts listening on the loopback interface.
+     *
+     * @param port The port, 0 for any free port.
+     * @throws IOException If the port can not be bound.
+     */
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext(TRANSFORMATIONS_PATH, this::handleTransformations);
+        server.createContext("/metrics", this::handleMetrics);
+        server.setExecutor(httpExecutor);
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        if(server != null)
+            server.stop(0);
+        workers.shutdownNow();
+        httpExecutor.shutdownNow();
+    }
+
+    private void handleTransformations(HttpExchange exchange) throws IOException {
+        try {
+            var path = exchange.getRequestURI().getPath().substring(TRANSFORMATIONS_PATH.length());
+            var method = exchange.getRequestMethod();
+            if(path.isEmpty() || path.equals("/")) {
+                if(method.equals("POST"))
+                    submit(exchange);
+                else
+                    sendError(exchange, 405, "use POST to submit a transformation");
+                return;
+            }
+            if(!method.equals("GET")) {
+                sendError(exchange, 405, "use GET to read a transformation");
+                return;
+            }
+            var code = path.endsWith(CODE_PATH);
+            var id = path.substring(1, code ? path.length() - CODE_PATH.length() : path.length());
+            TransformationJob job;
+            synchronized(jobs) {
+                job = jobs.get(id);
+            }
+            if(job == null)
+                sendError(exchange, 404, String.format("unknown transformation %s", id));
+            else if(code)
+                sendCode(exchange, job);
+            else
+                sendJson(exchange, 200, job.toJson());
+        }
+        catch(RuntimeException ex) {
+            System.err.println(String.format("Transformation service error: %s", ex));
+            sendError(exchange, 500, String.valueOf(ex));
+        }
+        finally {
+            exchange.close();
+        }
+    }
+
+    private void submit(HttpExchange exchange) throws IOException {
+        receivedRequests.incrementAndGet();
+        var contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        if(contentLength != null && contentLength.matches("\\d{1,18}") && Long.parseLong(contentLength) > maxRequestBytes) {
+            tooLargeRequests.incrementAndGet();
+            sendError(exchange, 413, String.format("the request is larger than %d bytes", maxRequestBytes));
+            return;
+        }
+        var body = exchange.getRequestBody().readNBytes(maxRequestBytes + 1);
+        if(body.length > maxRequestBytes) {
+            tooLargeRequests.incrementAndGet();
+            sendError(exchange, 413, String.format("the request is larger than %d bytes", maxRequestBytes));
+            return;
+        }
+
+        TransformationRequest request;
+        try {
+            request = TransformationRequest.parse(body);
+        }
+        catch(IllegalArgumentException ex) {
+            invalidRequests.incrementAndGet();
+            sendError(exchange, 400, ex.getMessage());
+            return;
+        }
+
+        TransformationJob job;
+        var cached = false;
+        synchronized(jobs) {
+            job = caching ? jobsByHash.get(request.getHash()) : null;
+            if(job != null && job.getStatus() != TransformationJob.Status.FAILED) {
+                cached = true;
+            }
+            else {
+                var newJob = new TransformationJob(Long.toString(lastJobId.incrementAndGet()), request);
+                try {
+                    workers.execute(() -> transform(newJob));
+                    job = newJob;
+                    jobs.put(job.getId(), job);
+                    if(caching)
+                        jobsByHash.put(job.getHash(), job);
+                    forgetFinishedJobs();
+                }
+                catch(RejectedExecutionException ex) {
+                    job = null;
+                }
+            }
+        }
+
+        if(job == null) {
+            rejectedRequests.incrementAndGet();
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            sendError(exchange, 503, String.format("all %d workers are busy and %d requests are queued, retry later", threads, queueCapacity));
+            return;
+        }
+        if(cached)
+            cacheHits.incrementAndGet();
+        else
+            acceptedRequests.incrementAndGet();
+        var json = job.toJson();
+        json.addProperty("cached", cached);
+        exchange.getResponseHeaders().set("Location", String.format("%s/%s", TRANSFORMATIONS_PATH, job.getId()));
+        sendJson(exchange, job.isDone() ? 200 : 202, json);
+    }
+
+    private void forgetFinishedJobs() {
+        var iterator = jobs.values().iterator();
+        while(jobs.size() > retainedJobs && iterator.hasNext()) {
+            var job = iterator.next();
+            if(job.isDone()) {
+                iterator.remove();
+                jobsByHash.remove(job.getHash(), job);
+            }
+        }
+    }
+
+    /**
+     * Transforms the project of the job with a new transformator, the net counters
+     * of the transformation belong to the worker thread.
+     * Any throwable of the transformation (e.g. a StackOverflowError of a deeply nested model)
+     * fails the job, so it never stays RUNNING.
+     */
+    private void transform(TransformationJob job) {
+        var request = job.getRequest();
+        job.start();
+        try(var phase = Metrics.phase("service.transform")) {
+            var model = serializer.readModel(request.getProject());
+            var transformator = new DefaultTransformator(model);
+            request.apply(transformator);
+            transformator.transform(request.getGenerateComments());
+            transformator.eliminateDeadElements();
+            transformator.getNetStatistics().record();
+            job.finish(transformator.getOutput());
+            finishedJobs.incrementAndGet();
+        }
+        catch(Exception | Error ex) {
+            job.fail(String.valueOf(ex));
+            failedJobs.incrementAndGet();
+            System.err.println(String.format("Transformation service error: job %s failed: %s", job, ex));
+        }
+        queueTime.addAndGet(job.getQueueTime());
+        transformationTime.addAndGet(job.getTransformationTime());
+        maxTransformationTime.accumulateAndGet(job.getTransformationTime(), Math::max);
+        Metrics.count(String.format("service.jobs.%s", job.getStatus().name().toLowerCase()), 1);
+    }
+
+    private void sendCode(HttpExchange exchange, TransformationJob job) throws IOException {
+        switch(job.getStatus()) {
+            case FINISHED:
+                send(exchange, 200, TEXT_TYPE, job.getCode());
+                break;
+            case FAILED:
+                sendJson(exchange, 422, job.toJson());
+                break;
+            default:
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendJson(exchange, 202, job.toJson());
+                break;
+        }
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try {
+            if(exchange.getRequestMethod().equals("GET"))
+                sendJson(exchange, 200, toJson());
+            else
+                sendError(exchange, 405, "use GET to read the metrics");
+        }
+        finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     *
+     * @return The counters of the service and the metrics registry if it is enabled.
+     */
+    public JsonObject toJson() {
+        var result = new JsonObject();
+        result.addProperty("workers", threads);
+        result.addProperty("queueCapacity", queueCapacity);
+        result.addProperty("queuedJobs", workers.getQueue().size());
+        result.addProperty("runningJobs", workers.getActiveCount());
+        synchronized(jobs) {
+            result.addProperty("retainedJobs", jobs.size());
+        }
+        result.addProperty("receivedRequests", receivedRequests.get());
+        result.addProperty("acceptedRequests", acceptedRequests.get());
+        result.addProperty("rejectedRequests", rejectedRequests.get());
+        result.addProperty("tooLargeRequests", tooLargeRequests.get());
+        result.addProperty("invalidRequests", invalidRequests.get());
+        result.addProperty("cacheHits", cacheHits.get());
+        result.addProperty("finishedJobs", finishedJobs.get());
+        result.addProperty("failedJobs", failedJobs.get());
+        var doneJobs = finishedJobs.get() + failedJobs.get();
+        result.addProperty("meanQueueMillis", doneJobs > 0 ? queueTime.get() / 1e6 / doneJobs : 0.0);
+        result.addProperty("meanTransformationMillis", doneJobs > 0 ? transformationTime.get() / 1e6 / doneJobs : 0.0);
+        result.addProperty("maxTransformationMillis", maxTransformationTime.get() / 1e6);
+        if(Metrics.isEnabled())
+            result.add("registry", Metrics.toJson("service"));
+        return result;
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, JsonObject json) throws IOException {
+        send(exchange, status, JSON_TYPE, new GsonBuilder().setPrettyPrinting().create().toJson(json) + System.lineSeparator());
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        var json = new JsonObject();
+        json.addProperty("error", message);
+        sendJson(exchange, status, json);
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String content) throws IOException {
+        var bytes = content.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try(var output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Transformation service (%d workers, queue of %d): %d requests, %d accepted, %d rejected, %d cache hits, %d finished, %d failed%n",
+                             threads, queueCapacity, receivedRequests.get(), acceptedRequests.get(), rejectedRequests.get(),
+                             cacheHits.get(), finishedJobs.get(), failedJobs.get());
+    }
+
+    /**
+     * Runs the service until the process is terminated.
+     *
+     * @param args Arguments following the --serve command.
+     * @return Exit code.
+     */
+    public static int run(String[] args) {
+        var port = 8642;
+        var threads = 0;
+        var queueCapacity = 32;
+        var maxRequestBytes = 16 << 20;
+        var retainedJobs = 256;
+        var caching = false;
+        try {
+            for(int i = 0; i < args.length; i++) {
+                switch(args[i]) {
+                    case "--port":
+                        port = Integer.parseInt(args[++i]);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--queue":
+                        queueCapacity = Integer.parseInt(args[++i]);
+                        break;
+                    case "--max-request-bytes":
+                        maxRequestBytes = Integer.parseInt(args[++i]);
+                        break;
+                    case "--retain":
+                        retainedJobs = Integer.parseInt(args[++i]);
+                        break;
+                    case "--cache":
+                        caching = true;
+                        break;
+                    default:
+                        printUsage();
+                        return 2;
+                }
+            }
+        }
+        catch(NumberFormatException | ArrayIndexOutOfBoundsException ex) {
+            printUsage();
+            return 2;
+        }
+        if(queueCapacity < 1 || maxRequestBytes < 1 || retainedJobs < 1) {
+            printUsage();
+            return 2;
+        }
+
+        var service = new TransformationService(threads, queueCapacity, maxRequestBytes, retainedJobs, caching);
+        try {
+            service.start(port);
+        }
+        catch(IOException ex) {
+            System.err.println(String.format("Error: unable to start the transformation service on port %d: %s", port, ex.getMessage()));
+            return 1;
+        }
+        System.err.println(String.format("Transformation service listening on http://%s:%d%s (%d workers, queue of %d requests%s)",
+                                         InetAddress.getLoopbackAddress().getHostAddress(), service.getPort(), TRANSFORMATIONS_PATH,
+                                         service.threads, queueCapacity, caching ? ", caching" : ""));
+
+        var stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            service.stop();
+            System.err.println(service);
+            Metrics.endRun("service");
+            stopped.countDown();
+        }));
+        try {
+            stopped.await();
+        }
+        catch(InterruptedException ex) {
+            return 1;
+        }
+        return 0;
+    }
+
+    private static void printUsage() {
+        System.err.println(String.format("Usage: %s [--port N] [--threads N] [--queue N] [--max-request-bytes N] [--retain N] [--cache]", COMMAND));
+    }
+}
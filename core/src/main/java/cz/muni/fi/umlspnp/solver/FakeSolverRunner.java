@@ -0,0 +1,109 @@
+package cz.muni.fi.umlspnp.solver;
+
+import java.util.ArrayList;
+import java.util.regex.Pattern;
+
+/**
+ *  Stand-in for the SPNP installation. Counts the places, transitions and arcs of the
+ * CSPL code and reports a synthetic value in [0, 1) for every pr_expected measure of every
+ * solve() call. The values are derived from the content hash, so the same code always gives
+ * the same results. An optional delay per net element imitates the solution time, which
+ * allows testing and benchmarking the whole pipeline without SPNP.
+ *
+ */
+public class FakeSolverRunner implements SolverRunner {
+    private static final Pattern NET_FUNCTION = Pattern.compile("\\bvoid\\s+net\\s*\\(");
+    private static final Pattern PLACE = Pattern.compile("\\bplace\\s*\\(");
+    private static final Pattern TRANSITION = Pattern.compile("\\btrans\\s*\\(");
+    private static final Pattern ARC = Pattern.compile("\\b[a-z]*arc\\s*\\(");
+    private static final Pattern SOLVE = Pattern.compile("\\bsolve\\s*\\(\\s*([^)]*)\\)");
+    private static final Pattern EXPECTED = Pattern.compile("\\bpr_expected\\s*\\(\\s*\"((?:[^\"\\\\]|\\\\.)*)\"");
+    private static final long DELAY_STEP = 10;
+
+    private double delayPerElement = 0.0;
+
+    /**
+     *
+     * @param delayPerElement Imitated solution time in milliseconds per place, transition and arc.
+     */
+    public void setDelayPerElement(double delayPerElement) {
+        this.delayPerElement = delayPerElement;
+    }
+
+    @Override
+    public String getName() {
+        return "stand-in solver";
+    }
+
+    @Override
+    public SolverResult solve(SolverJob job, SolverListener listener) throws InterruptedException {
+        var start = System.currentTimeMillis();
+        var code = job.getCode();
+        var output = new StringBuilder();
+        if(!NET_FUNCTION.matcher(code).find()) {
+            var message = "Stand-in solver error: the code has no net() function";
+            listener.output(job, true, message);
+            return new SolverResult(job, getName(), SolverResult.Status.FAILED, 1, "", message, System.currentTimeMillis() - start);
+        }
+
+        var places = count(PLACE, code);
+        var transitions = count(TRANSITION, code);
+        var arcs = count(ARC, code);
+        emit(job, listener, output, String.format("PLACES: %d", places));
+        emit(job, listener, output, String.format("TRANSITIONS: %d", transitions));
+        emit(job, listener, output, String.format("ARCS: %d", arcs));
+
+        // Imitated solution time, the job can be cancelled or time out meanwhile
+        var delay = (long) (delayPerElement * (places + transitions + arcs));
+        var deadline = job.getTimeout() > 0 ? start + job.getTimeout() : Long.MAX_VALUE;
+        while(System.currentTimeMillis() - start < delay) {
+            if(System.currentTimeMillis() >= deadline)
+                return new SolverResult(job, getName(), SolverResult.Status.TIMEOUT, -1, output.toString(), "", System.currentTimeMillis() - start);
+            Thread.sleep(Math.min(DELAY_STEP, delay - (System.currentTimeMillis() - start) + 1));
+        }
+
+        var times = new ArrayList<String>();
+        var solveMatcher = SOLVE.matcher(code);
+        while(solveMatcher.find())
+            times.add(solveMatcher.group(1).strip());
+        if(times.isEmpty())
+            times.add("INFINITY");
+        var measures = new ArrayList<String>();
+        var expectedMatcher = EXPECTED.matcher(code);
+        while(expectedMatcher.find()) {
+            if(!measures.contains(expectedMatcher.group(1)))
+                measures.add(expectedMatcher.group(1));
+        }
+        // The analysis plan already distinguishes the measures of the time points by their names
+        for(var measure : measures) {
+            var name = measure.replace("\\\"", "\"");
+            emit(job, listener, output, String.format("%s: %s", name, Double.toString(syntheticValue(job.getHash(), name))));
+        }
+        if(measures.isEmpty()) {
+            for(var time : times)
+                emit(job, listener, output, String.format("solve(%s): %s", time, Double.toString(syntheticValue(job.getHash(), time))));
+        }
+        return new SolverResult(job, getName(), SolverResult.Status.FINISHED, 0, output.toString(), "", System.currentTimeMillis() - start);
+    }
+
+    private static int count(Pattern pattern, String code) {
+        var matcher = pattern.matcher(code);
+        int result = 0;
+        while(matcher.find())
+            result++;
+        return result;
+    }
+
+    private static void emit(SolverJob job, SolverListener listener, StringBuilder output, String line) {
+        output.append(line).append(System.lineSeparator());
+        listener.output(job, false, line);
+    }
+
+    private static double syntheticValue(String hash, String name) {
+        long seed = String.format("%s/%s", hash, name).hashCode();
+        seed = (seed ^ (seed >>> 33)) * 0xff51afd7ed558ccdL;
+        seed = (seed ^ (seed >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        seed ^= seed >>> 33;
+        return (seed >>> 11) * 0x1.0p-53;
+    }
+}
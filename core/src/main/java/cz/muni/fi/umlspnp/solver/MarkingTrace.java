@@ -0,0 +1,144 @@
+package cz.muni.fi.umlspnp.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ *  Decoded binary marking trace (see MarkingTraceDecoder), the token counts of all records
+ * are stored in one primitive array, one row of the watched places per record.
+ *
+ */
+public class MarkingTrace {
+    private final String[] placeNames;
+    private final String[] placeSegments;
+    private final int[] markingIndices;
+    private final short[] tokens;
+    private final int recordCount;
+    private final long droppedBytes;
+
+    MarkingTrace(String[] placeNames, String[] placeSegments, int[] markingIndices, short[] tokens, int recordCount, long droppedBytes) {
+        this.placeNames = placeNames;
+        this.placeSegments = placeSegments;
+        this.markingIndices = markingIndices;
+        this.tokens = tokens;
+        this.recordCount = recordCount;
+        this.droppedBytes = droppedBytes;
+    }
+
+    public int getPlaceCount() {
+        return placeNames.length;
+    }
+
+    public String getPlaceName(int place) {
+        return placeNames[place];
+    }
+
+    /**
+     *
+     * @return Name of the segment which created the place (see DefaultTransformator.getSegmentNames).
+     */
+    public String getPlaceSegment(int place) {
+        return placeSegments[place];
+    }
+
+    /**
+     *
+     * @return Names of the segments of the watched places in the order of the places.
+     */
+    public List<String> getSegments() {
+        return new ArrayList<>(new LinkedHashSet<>(Arrays.asList(placeSegments)));
+    }
+
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     *
+     * @return Index of the marking (in the order in which SPNP evaluated the guards) of the record.
+     */
+    public long getMarkingIndex(int record) {
+        return markingIndices[record] & 0xFFFFFFFFL;
+    }
+
+    /**
+     *
+     * @return Number of tokens of the place in the record, saturated at 65535.
+     */
+    public int getTokens(int record, int place) {
+        return tokens[record * placeNames.length + place] & 0xFFFF;
+    }
+
+    /**
+     *
+     * @param segment Prefix of the segment names (e.g. node or msg_Login_12) or null for all places.
+     * @return Indices of the places of the matching segments.
+     */
+    public int[] getPlaces(String segment) {
+        var result = new int[placeNames.length];
+        int count = 0;
+        for(int place = 0; place < placeNames.length; place++) {
+            if(segment == null || segment.isEmpty() || placeSegments[place].startsWith(segment))
+                result[count++] = place;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Formats the records as a table, one column per place.
+     *
+     * @param segment Prefix of the segment names of the shown places or null for all places.
+     * @param changedOnly True if the records which do not change the shown places should be skipped.
+     * @param rowLimit Maximal number of the shown records.
+     * @return The table.
+     */
+    public String formatTable(String segment, boolean changedOnly, int rowLimit) {
+        var places = getPlaces(segment);
+        var widths = new int[places.length];
+        var result = new StringBuilder();
+        result.append(String.format("%12s", "marking"));
+        for(int i = 0; i < places.length; i++) {
+            widths[i] = Math.max(5, placeNames[places[i]].length());
+            result.append(' ').append(String.format("%" + widths[i] + "s", placeNames[places[i]]));
+        }
+        result.append(System.lineSeparator());
+
+        int rows = 0;
+        int previous = -1;
+        for(int record = 0; record < recordCount && rows < rowLimit; record++) {
+            if(changedOnly && previous >= 0 && sameTokens(previous, record, places))
+                continue;
+            previous = record;
+            rows++;
+            result.append(String.format("%12d", getMarkingIndex(record)));
+            for(int i = 0; i < places.length; i++)
+                result.append(' ').append(String.format("%" + widths[i] + "d", getTokens(record, places[i])));
+            result.append(System.lineSeparator());
+        }
+        if(rows == rowLimit)
+            result.append(String.format("... (first %d rows shown)%n", rowLimit));
+        return result.toString();
+    }
+
+    private boolean sameTokens(int first, int second, int[] places) {
+        for(var place : places) {
+            if(getTokens(first, place) != getTokens(second, place))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        var result = new StringBuilder();
+        result.append(String.format("Marking trace: %d records, %d watched places in %d segments",
+                                    recordCount, placeNames.length, getSegments().size()));
+        if(recordCount > 0)
+            result.append(String.format(", markings %d - %d", getMarkingIndex(0), getMarkingIndex(recordCount - 1)));
+        if(droppedBytes > 0)
+            result.append(String.format(", %d bytes of an incomplete record dropped", droppedBytes));
+        return result.append(System.lineSeparator()).toString();
+    }
+}
@@ -0,0 +1,120 @@
+package cz.muni.fi.umlspnp.solver;
+
+import cz.muni.fi.umlspnp.transformations.MarkingTraceSegment;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ *  Decodes the binary marking trace written by the trace segment (see MarkingTraceSegment).
+ * The byte order is detected from the magic number, the records are read through
+ * memory-mapped windows of whole records. An incomplete last record (of a killed
+ * SPNP run) is dropped.
+ *
+ */
+public class MarkingTraceDecoder {
+    private static final long WINDOW_SIZE = 1L << 30;
+    private static final int HEADER_INTS = 3;
+
+    private MarkingTraceDecoder() {
+    }
+
+    /**
+     *
+     * @param file The trace file.
+     * @return The decoded trace or null if the file could not be read.
+     */
+    public static MarkingTrace decode(Path file) {
+        try(var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            var size = channel.size();
+            var header = ByteBuffer.allocate(HEADER_INTS * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if(!readFully(channel, header, 0)) {
+                System.err.println(String.format("Marking trace error: \"%s\" has no header", file));
+                return null;
+            }
+            var magic = header.getInt(0);
+            if(magic == Integer.reverseBytes(MarkingTraceSegment.MAGIC))
+                header.order(ByteOrder.BIG_ENDIAN);
+            else if(magic != MarkingTraceSegment.MAGIC) {
+                System.err.println(String.format("Marking trace error: \"%s\" is not a marking trace", file));
+                return null;
+            }
+            var order = header.order();
+            var version = header.getInt(Integer.BYTES);
+            var placeCount = header.getInt(2 * Integer.BYTES);
+            if(version != MarkingTraceSegment.VERSION || placeCount <= 0) {
+                System.err.println(String.format("Marking trace error: unsupported version %d or place count %d in \"%s\"",
+                                                 version, placeCount, file));
+                return null;
+            }
+
+            // Names of the places and their segments
+            var placeNames = new String[placeCount];
+            var placeSegments = new String[placeCount];
+            long position = header.capacity();
+            var lengthBuffer = ByteBuffer.allocate(1);
+            for(int place = 0; place < 2 * placeCount; place++) {
+                lengthBuffer.clear();
+                if(!readFully(channel, lengthBuffer, position)) {
+                    System.err.println(String.format("Marking trace error: truncated header of \"%s\"", file));
+                    return null;
+                }
+                var nameBuffer = ByteBuffer.allocate(lengthBuffer.get(0) & 0xFF);
+                if(!readFully(channel, nameBuffer, position + 1)) {
+                    System.err.println(String.format("Marking trace error: truncated header of \"%s\"", file));
+                    return null;
+                }
+                position += 1 + nameBuffer.capacity();
+                var name = new String(nameBuffer.array(), StandardCharsets.UTF_8);
+                if(place % 2 == 0)
+                    placeNames[place / 2] = name;
+                else
+                    placeSegments[place / 2] = name;
+            }
+
+            var recordSize = Integer.BYTES + (long) placeCount * Short.BYTES;
+            var recordCount = (size - position) / recordSize;
+            var droppedBytes = (size - position) % recordSize;
+            if(recordCount * placeCount > Integer.MAX_VALUE - 8) {
+                System.err.println(String.format("Marking trace error: \"%s\" has too many records (%d), sample the markings", file, recordCount));
+                return null;
+            }
+            var markingIndices = new int[(int) recordCount];
+            var tokens = new short[(int) (recordCount * placeCount)];
+            var windowRecords = Math.max(1, WINDOW_SIZE / recordSize);
+            int record = 0;
+            while(record < recordCount) {
+                var count = (int) Math.min(windowRecords, recordCount - record);
+                var buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, count * recordSize).order(order);
+                int offset = 0;
+                for(int i = 0; i < count; i++, record++) {
+                    markingIndices[record] = buffer.getInt(offset);
+                    offset += Integer.BYTES;
+                    var base = record * placeCount;
+                    for(int place = 0; place < placeCount; place++, offset += Short.BYTES)
+                        tokens[base + place] = buffer.getShort(offset);
+                }
+                position += count * recordSize;
+            }
+            return new MarkingTrace(placeNames, placeSegments, markingIndices, tokens, (int) recordCount, droppedBytes);
+        }
+        catch(IOException ex) {
+            System.err.println(String.format("Marking trace error: unable to read \"%s\": %s", file, ex.getMessage()));
+            return null;
+        }
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining()) {
+            var read = channel.read(buffer, position);
+            if(read < 0)
+                return false;
+            position += read;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,73 @@
+package cz.muni.fi.umlspnp.solver;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ *  Maps the SPNP results of the places and transitions back to the UML elements
+ * (nodes, messages, links, loops) which produced them, using the element origins
+ * kept from the transformation.
+ *
+ */
+public class ResultAnnotation {
+    private final Map<Integer, StringBuilder> descriptions = new TreeMap<>();
+    private int annotatedPlaces = 0;
+    private int annotatedTransitions = 0;
+    private int unknownElements = 0;
+
+    /**
+     *
+     * @param results The parsed results.
+     * @param elementOrigins Identifiers of the model objects which produced the places and transitions, by their names.
+     */
+    public ResultAnnotation(SpnpResults results, Map<String, Integer> elementOrigins) {
+        for(int place = 0; place < results.getPlaceCount(); place++) {
+            var average = results.getPlaceAverage(place);
+            if(Double.isNaN(average))
+                continue;
+            var objectID = elementOrigins.get(results.getPlaceName(place));
+            if(objectID == null) {
+                unknownElements++;
+                continue;
+            }
+            var probability = results.getPlaceProbability(place);
+            var line = Double.isNaN(probability)
+                       ? String.format("%s: average tokens %.6g", results.getPlaceName(place), average)
+                       : String.format("%s: average tokens %.6g, P(non-empty) %.6g", results.getPlaceName(place), average, probability);
+            append(objectID, line);
+            annotatedPlaces++;
+        }
+        for(int transition = 0; transition < results.getTransitionCount(); transition++) {
+            var throughput = results.getTransitionThroughput(transition);
+            if(Double.isNaN(throughput))
+                continue;
+            var objectID = elementOrigins.get(results.getTransitionName(transition));
+            if(objectID == null) {
+                unknownElements++;
+                continue;
+            }
+            append(objectID, String.format("%s: throughput %.6g", results.getTransitionName(transition), throughput));
+            annotatedTransitions++;
+        }
+    }
+
+    private void append(int objectID, String line) {
+        descriptions.computeIfAbsent(objectID, key -> new StringBuilder()).append(line).append(System.lineSeparator());
+    }
+
+    /**
+     *
+     * @return Result descriptions of the model objects by their identifiers.
+     */
+    public Map<Integer, String> getDescriptions() {
+        var result = new TreeMap<Integer, String>();
+        descriptions.forEach((objectID, description) -> result.put(objectID, description.toString().strip()));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Back-annotation: %d places and %d transitions on %d model elements, %d elements without origin%n",
+                             annotatedPlaces, annotatedTransitions, descriptions.size(), unknownElements);
+    }
+}
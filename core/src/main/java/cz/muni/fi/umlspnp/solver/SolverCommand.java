@@ -0,0 +1,103 @@
+package cz.muni.fi.umlspnp.solver;
+
+import cz.muni.fi.umlspnp.metrics.Metrics;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *  Command line front end of the solver pool, solves generated CSPL files without the GUI:
+ * --solve [--fake] [--jobs N] [--timeout SECONDS] [--quiet] FILE.c...
+ * With --metrics-json FILE (see Metrics) the solve time and job counts are written as JSON.
+ *
+ */
+public class SolverCommand {
+    public static final String COMMAND = "--solve";
+
+    private SolverCommand() {
+    }
+
+    /**
+     *
+     * @param args Arguments following the --solve command.
+     * @return Exit code, 0 if all jobs finished.
+     */
+    public static int run(String[] args) {
+        var fake = false;
+        var quiet = false;
+        var threads = 0;
+        long timeout = 0;
+        var files = new ArrayList<Path>();
+        try {
+            for(int i = 0; i < args.length; i++) {
+                switch(args[i]) {
+                    case "--fake":
+                        fake = true;
+                        break;
+                    case "--quiet":
+                        quiet = true;
+                        break;
+                    case "--jobs":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--timeout":
+                        timeout = (long) (Double.parseDouble(args[++i]) * 1000);
+                        break;
+                    default:
+                        files.add(Path.of(args[i]));
+                        break;
+                }
+            }
+        }
+        catch(NumberFormatException | ArrayIndexOutOfBoundsException ex) {
+            printUsage();
+            return 2;
+        }
+        if(files.isEmpty()) {
+            printUsage();
+            return 2;
+        }
+
+        var jobs = new ArrayList<SolverJob>();
+        for(var file : files) {
+            try {
+                var name = file.getFileName().toString().replaceFirst("\\.c$", "");
+                jobs.add(new SolverJob(name, Files.readString(file, StandardCharsets.UTF_8), timeout));
+            }
+            catch(IOException ex) {
+                System.err.println(String.format("Error: unable to read file \"%s\"", file));
+                return 1;
+            }
+        }
+
+        var streamOutput = !quiet;
+        SolverListener listener = (job, error, line) -> {
+            if(streamOutput)
+                (error ? System.err : System.out).println(String.format("[%s] %s", job.getName(), line));
+        };
+        var pool = new SolverPool(fake ? new FakeSolverRunner() : new SpnpProcessRunner(), threads, listener);
+        List<SolverResult> results;
+        try(var phase = Metrics.phase("solver.solveAll")) {
+            results = pool.solveAll(jobs);
+        }
+        catch(InterruptedException ex) {
+            pool.shutdown();
+            return 1;
+        }
+        pool.shutdown();
+        results.forEach(result -> {
+            System.out.println(result);
+            Metrics.count(String.format("solver.jobs.%s", result.getStatus().name().toLowerCase()), 1);
+        });
+        System.err.println(pool);
+        Metrics.endRun("solve");
+        return results.stream().allMatch(SolverResult::isFinished) ? 0 : 1;
+    }
+
+    private static void printUsage() {
+        System.err.println(String.format("Usage: %s [--fake] [--jobs N] [--timeout SECONDS] [--quiet] FILE.c...", COMMAND));
+    }
+}
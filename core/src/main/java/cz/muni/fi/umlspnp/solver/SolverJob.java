@@ -0,0 +1,67 @@
+package cz.muni.fi.umlspnp.solver;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ *  A CSPL model submitted to a solver.
+ *
+ */
+public class SolverJob {
+    private final String name;
+    private final String code;
+    private final long timeout;
+    private final String hash;
+
+    /**
+     *
+     * @param name Name of the model (a valid file name without the extension).
+     * @param code The CSPL code.
+     * @param timeout Time limit of the job in milliseconds, 0 for no limit.
+     */
+    public SolverJob(String name, String code, long timeout) {
+        this.name = name;
+        this.code = code;
+        this.timeout = timeout;
+        this.hash = hash(code);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     *
+     * @return SHA-256 of the code (hexadecimal), the results are cached by it.
+     */
+    public String getHash() {
+        return hash;
+    }
+
+    private static String hash(String content) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            var result = new StringBuilder();
+            for(var b : digest)
+                result.append(String.format("%02x", b));
+            return result.toString();
+        }
+        catch(NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s [%s]", name, hash.substring(0, 12));
+    }
+}
@@ -0,0 +1,16 @@
+package cz.muni.fi.umlspnp.solver;
+
+/**
+ *  Receives the output of the solver jobs while they run.
+ *
+ */
+@FunctionalInterface
+public interface SolverListener {
+    /**
+     *
+     * @param job The job which produced the line.
+     * @param error True if the line comes from the standard error output.
+     * @param line The output line without the line separator.
+     */
+    void output(SolverJob job, boolean error, String line);
+}
@@ -0,0 +1,175 @@
+package cz.muni.fi.umlspnp.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *  Runs the solver jobs concurrently on a bounded pool of threads. The finished results
+ * are cached by the content hash of the code, a job whose code was already solved (or is
+ * being solved) by the same runner does not start the solver again.
+ *
+ */
+public class SolverPool {
+    private final SolverRunner runner;
+    private final SolverListener listener;
+    private final ExecutorService executor;
+    private final int threads;
+
+    private final Map<String, SolverResult> cache = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<SolverResult>> running = new ConcurrentHashMap<>();
+    private final Map<CompletableFuture<SolverResult>, Future<?>> tasks = new ConcurrentHashMap<>();
+
+    private final AtomicInteger submittedJobs = new AtomicInteger();
+    private final AtomicInteger cacheHits = new AtomicInteger();
+    private final AtomicInteger solvedJobs = new AtomicInteger();
+    private final AtomicLong solverTime = new AtomicLong();
+
+    /**
+     *
+     * @param runner The solver.
+     * @param threads Number of concurrently running jobs, 0 for the number of processors.
+     * @param listener Receives the output of all jobs.
+     */
+    public SolverPool(SolverRunner runner, int threads, SolverListener listener) {
+        this.runner = runner;
+        this.listener = listener;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = Executors.newFixedThreadPool(this.threads, task -> {
+            var thread = new Thread(task, "solver-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public SolverRunner getRunner() {
+        return runner;
+    }
+
+    /**
+     * Submits the job or returns the cached result.
+     *
+     * @param job The job.
+     * @return The future result, cancelling it stops the solver.
+     */
+    public CompletableFuture<SolverResult> submit(SolverJob job) {
+        submittedJobs.incrementAndGet();
+        var key = job.getHash();
+        var cached = cache.get(key);
+        if(cached != null) {
+            cacheHits.incrementAndGet();
+            return CompletableFuture.completedFuture(cached.fromCache(job));
+        }
+
+        var created = new CompletableFuture<SolverResult>();
+        var existing = running.putIfAbsent(key, created);
+        if(existing != null) {
+            cacheHits.incrementAndGet();
+            return existing.thenApply(result -> result.fromCache(job));
+        }
+
+        var task = executor.submit(() -> {
+            var start = System.currentTimeMillis();
+            try {
+                var result = runner.solve(job, listener);
+                solvedJobs.incrementAndGet();
+                solverTime.addAndGet(result.getTime());
+                if(result.isFinished())
+                    cache.put(key, result);
+                created.complete(result);
+            }
+            catch(InterruptedException ex) {
+                created.complete(SolverResult.cancelled(job, runner.getName(), System.currentTimeMillis() - start));
+            }
+            catch(RuntimeException ex) {
+                created.completeExceptionally(ex);
+            }
+            finally {
+                running.remove(key, created);
+                tasks.remove(created);
+            }
+        });
+        tasks.put(created, task);
+        if(created.isDone())
+            tasks.remove(created);
+        // Cancelling the result interrupts the solver thread
+        created.whenComplete((result, exception) -> {
+            if(created.isCancelled()) {
+                task.cancel(true);
+                running.remove(key, created);
+                tasks.remove(created);
+            }
+        });
+        return created;
+    }
+
+    /**
+     * Submits all jobs and waits for their results.
+     *
+     * @param jobs The jobs.
+     * @return Results in the order of the jobs.
+     * @throws InterruptedException If the waiting thread was interrupted, the jobs are cancelled.
+     */
+    public List<SolverResult> solveAll(List<SolverJob> jobs) throws InterruptedException {
+        var futures = new ArrayList<CompletableFuture<SolverResult>>();
+        jobs.forEach(job -> futures.add(submit(job)));
+        var results = new ArrayList<SolverResult>();
+        try {
+            for(int i = 0; i < jobs.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                }
+                catch(CancellationException ex) {
+                    results.add(SolverResult.cancelled(jobs.get(i), runner.getName(), 0));
+                }
+                catch(ExecutionException ex) {
+                    System.err.println(String.format("Solver error: job %s failed: %s", jobs.get(i), ex.getCause()));
+                    results.add(new SolverResult(jobs.get(i), runner.getName(), SolverResult.Status.FAILED, -1, "", String.valueOf(ex.getCause()), 0));
+                }
+            }
+        }
+        catch(InterruptedException ex) {
+            futures.forEach(future -> future.cancel(true));
+            throw ex;
+        }
+        return results;
+    }
+
+    /**
+     * Cancels all running and waiting jobs.
+     *
+     * @return Number of the cancelled jobs.
+     */
+    public int cancelAll() {
+        int result = 0;
+        for(var future : new ArrayList<>(tasks.keySet())) {
+            if(future.cancel(true))
+                result++;
+        }
+        return result;
+    }
+
+    public void clearCache() {
+        cache.clear();
+    }
+
+    public void shutdown() {
+        cancelAll();
+        executor.shutdownNow();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Solver pool (%s, %d threads): %d jobs submitted, %d solved, %d cache hits, %d cached results, solver time: %d ms%n",
+                             runner.getName(), threads, submittedJobs.get(), solvedJobs.get(), cacheHits.get(), cache.size(), solverTime.get());
+    }
+}
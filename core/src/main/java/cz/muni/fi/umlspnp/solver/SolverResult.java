@@ -0,0 +1,125 @@
+package cz.muni.fi.umlspnp.solver;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ *  Outcome of a solver job with the output of the solver and the measures found in it.
+ *
+ */
+public class SolverResult {
+    /* "name: value" or "name = value" lines, e.g. the expected values printed by pr_expected */
+    private static final Pattern MEASURE = Pattern.compile("^\\s*(.*\\S)\\s*[:=]\\s*([-+]?(?:\\d+\\.?\\d*|\\.\\d+)(?:[eE][-+]?\\d+)?)\\s*$");
+
+    public enum Status {
+        FINISHED,
+        FAILED,
+        TIMEOUT,
+        CANCELLED
+    }
+
+    private final SolverJob job;
+    private final String runnerName;
+    private final Status status;
+    private final int exitCode;
+    private final String output;
+    private final String errorOutput;
+    private final Map<String, Double> measures;
+    private final long time;
+    private final boolean cached;
+
+    public SolverResult(SolverJob job, String runnerName, Status status, int exitCode, String output, String errorOutput, long time) {
+        this(job, runnerName, status, exitCode, output, errorOutput, parseMeasures(output), time, false);
+    }
+
+    private SolverResult(SolverJob job, String runnerName, Status status, int exitCode, String output, String errorOutput,
+                         Map<String, Double> measures, long time, boolean cached) {
+        this.job = job;
+        this.runnerName = runnerName;
+        this.status = status;
+        this.exitCode = exitCode;
+        this.output = output;
+        this.errorOutput = errorOutput;
+        this.measures = measures;
+        this.time = time;
+        this.cached = cached;
+    }
+
+    /**
+     *
+     * @param job The job which hit the cache.
+     * @return The same result reported for another job with the same code.
+     */
+    public SolverResult fromCache(SolverJob job) {
+        return new SolverResult(job, runnerName, status, exitCode, output, errorOutput, measures, time, true);
+    }
+
+    public static SolverResult cancelled(SolverJob job, String runnerName, long time) {
+        return new SolverResult(job, runnerName, Status.CANCELLED, -1, "", "", time);
+    }
+
+    private static Map<String, Double> parseMeasures(String output) {
+        var result = new LinkedHashMap<String, Double>();
+        for(var line : output.split("\\R")) {
+            var matcher = MEASURE.matcher(line);
+            if(matcher.matches())
+                result.put(matcher.group(1), Double.parseDouble(matcher.group(2)));
+        }
+        return result;
+    }
+
+    public SolverJob getJob() {
+        return job;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isFinished() {
+        return status == Status.FINISHED;
+    }
+
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
+    public String getErrorOutput() {
+        return errorOutput;
+    }
+
+    /**
+     *
+     * @return Values of the measures printed by the solver, by their names.
+     */
+    public Map<String, Double> getMeasures() {
+        return Collections.unmodifiableMap(measures);
+    }
+
+    /**
+     *
+     * @return Run time of the solver in milliseconds (of the original run for the cached results).
+     */
+    public long getTime() {
+        return time;
+    }
+
+    public boolean isCached() {
+        return cached;
+    }
+
+    @Override
+    public String toString() {
+        var result = new StringBuilder();
+        result.append(String.format("Solver result of %s (%s): %s, exit code %d, time: %d ms%s%n",
+                                    job, runnerName, status, exitCode, time, cached ? ", cached" : ""));
+        measures.forEach((name, value) -> result.append(String.format("  %-40s %s%n", name, Double.toString(value))));
+        return result.toString();
+    }
+}
@@ -0,0 +1,24 @@
+package cz.muni.fi.umlspnp.solver;
+
+/**
+ *  Compiles and runs a CSPL model and collects its results. The runners are called
+ * from the threads of the SolverPool, a cancelled job interrupts the calling thread.
+ *
+ */
+public interface SolverRunner {
+    /**
+     *
+     * @return Name of the runner, part of the result cache key.
+     */
+    String getName();
+
+    /**
+     * Solves the model synchronously.
+     *
+     * @param job The model and its limits.
+     * @param listener Receives the output lines of the solver as they are produced.
+     * @return Result of the job, also for the failed and timed out jobs.
+     * @throws InterruptedException If the job was cancelled.
+     */
+    SolverResult solve(SolverJob job, SolverListener listener) throws InterruptedException;
+}
@@ -0,0 +1,164 @@
+package cz.muni.fi.umlspnp.solver;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  Runs the SPNP installation as an external process. The model is written into
+ * a temporary directory, compiled by the optional compile command and solved by the run
+ * command. "{model}" in the commands is replaced by the model name. The SPNP results
+ * file (the model name with the ".out" extension) is appended to the output.
+ *
+ */
+public class SpnpProcessRunner implements SolverRunner {
+    private static final String MODEL_PLACEHOLDER = "{model}";
+    private static final long READER_JOIN_TIMEOUT = 1000;
+    private static final int TIMEOUT_EXIT_CODE = -1;
+
+    private final List<String> compileCommand;
+    private final List<String> runCommand;
+    private boolean keepFiles = false;
+
+    /**
+     * Uses the "spnp" script of the SPNP installation which compiles and runs the model.
+     */
+    public SpnpProcessRunner() {
+        this(List.of(), List.of("spnp", MODEL_PLACEHOLDER));
+    }
+
+    /**
+     *
+     * @param compileCommand Command compiling the model, empty if the run command compiles it.
+     * @param runCommand Command running the model.
+     */
+    public SpnpProcessRunner(List<String> compileCommand, List<String> runCommand) {
+        this.compileCommand = new ArrayList<>(compileCommand);
+        this.runCommand = new ArrayList<>(runCommand);
+    }
+
+    /**
+     *
+     * @param keepFiles True if the working directory of the jobs should not be deleted.
+     */
+    public void setKeepFiles(boolean keepFiles) {
+        this.keepFiles = keepFiles;
+    }
+
+    @Override
+    public String getName() {
+        return String.format("SPNP process (%s)", String.join(" ", runCommand));
+    }
+
+    @Override
+    public SolverResult solve(SolverJob job, SolverListener listener) throws InterruptedException {
+        var start = System.currentTimeMillis();
+        var deadline = job.getTimeout() > 0 ? start + job.getTimeout() : Long.MAX_VALUE;
+        Path directory = null;
+        try {
+            directory = Files.createTempDirectory("umlspnp-");
+            Files.writeString(directory.resolve(String.format("%s.c", job.getName())), job.getCode(), StandardCharsets.UTF_8);
+
+            var output = new StringBuilder();
+            var errorOutput = new StringBuilder();
+            var status = SolverResult.Status.FINISHED;
+            var exitCode = 0;
+            if(!compileCommand.isEmpty()) {
+                exitCode = execute(compileCommand, job, directory, deadline, listener, output, errorOutput);
+                status = getStatus(exitCode);
+            }
+            if(status == SolverResult.Status.FINISHED) {
+                exitCode = execute(runCommand, job, directory, deadline, listener, output, errorOutput);
+                status = getStatus(exitCode);
+            }
+            var resultsFile = directory.resolve(String.format("%s.out", job.getName()));
+            if(Files.exists(resultsFile))
+                output.append(Files.readString(resultsFile, StandardCharsets.ISO_8859_1));
+            return new SolverResult(job, getName(), status, exitCode, output.toString(), errorOutput.toString(),
+                                    System.currentTimeMillis() - start);
+        }
+        catch(IOException ex) {
+            var message = String.format("Solver error: %s", ex.getMessage());
+            listener.output(job, true, message);
+            return new SolverResult(job, getName(), SolverResult.Status.FAILED, -1, "", message, System.currentTimeMillis() - start);
+        }
+        finally {
+            if(directory != null && !keepFiles)
+                deleteDirectory(directory);
+        }
+    }
+
+    private static SolverResult.Status getStatus(int exitCode) {
+        if(exitCode == TIMEOUT_EXIT_CODE)
+            return SolverResult.Status.TIMEOUT;
+        return exitCode == 0 ? SolverResult.Status.FINISHED : SolverResult.Status.FAILED;
+    }
+
+    /**
+     *
+     * @return Exit code of the process or TIMEOUT_EXIT_CODE if the deadline passed.
+     */
+    private int execute(List<String> command, SolverJob job, Path directory, long deadline, SolverListener listener,
+                        StringBuilder output, StringBuilder errorOutput) throws IOException, InterruptedException {
+        var resolved = new ArrayList<String>();
+        command.forEach(item -> resolved.add(item.replace(MODEL_PLACEHOLDER, job.getName())));
+        var process = new ProcessBuilder(resolved).directory(directory.toFile()).start();
+        var outputReader = startReader(process.getInputStream(), job, false, listener, output);
+        var errorReader = startReader(process.getErrorStream(), job, true, listener, errorOutput);
+        try {
+            var remaining = deadline - System.currentTimeMillis();
+            if(!process.waitFor(Math.max(0, remaining), TimeUnit.MILLISECONDS)) {
+                process.descendants().forEach(ProcessHandle::destroyForcibly);
+                process.destroyForcibly();
+                outputReader.join(READER_JOIN_TIMEOUT);
+                errorReader.join(READER_JOIN_TIMEOUT);
+                return TIMEOUT_EXIT_CODE;
+            }
+            outputReader.join();
+            errorReader.join();
+            return process.exitValue();
+        }
+        catch(InterruptedException ex) {
+            process.descendants().forEach(ProcessHandle::destroyForcibly);
+            process.destroyForcibly();
+            throw ex;
+        }
+    }
+
+    private static Thread startReader(InputStream stream, SolverJob job, boolean error, SolverListener listener, StringBuilder result) {
+        var thread = new Thread(() -> {
+            try(var reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.ISO_8859_1))) {
+                String line;
+                while((line = reader.readLine()) != null) {
+                    synchronized(result) {
+                        result.append(line).append(System.lineSeparator());
+                    }
+                    listener.output(job, error, line);
+                }
+            }
+            catch(IOException ex) {
+                // The stream is closed when the process is destroyed
+            }
+        }, String.format("solver-%s-%s", job.getName(), error ? "stderr" : "stdout"));
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static void deleteDirectory(Path directory) {
+        try(var paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+        catch(IOException ex) {
+            System.err.println(String.format("Solver error: unable to delete \"%s\"", directory));
+        }
+    }
+}
@@ -0,0 +1,437 @@
+package cz.muni.fi.umlspnp.solver;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ *  Streaming parser of the SPNP output files (.out, .log, .rg). The files are read through
+ * memory-mapped windows line by line, the numbers and the names are read directly from the
+ * mapped bytes, only the names seen for the first time become strings. Recognized lines:
+ * <ul>
+ * <li>the place table (a header with PLACE and AVERAGE): "name average [probability]",</li>
+ * <li>the transition table (a header with TRANSITION and THROUGHPUT): "name throughput [probability]",</li>
+ * <li>the markings: "MARKING|STATE [#]id[:] name:tokens ... [prob[:] probability]",</li>
+ * <li>the measures (e.g. of pr_expected): "name: value" or "name = value".</li>
+ * </ul>
+ * The sections end with an empty line, other lines are skipped.
+ *
+ */
+public class SpnpResultParser {
+    private static final long WINDOW_SIZE = 1L << 30;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private enum Section {
+        NONE,
+        PLACES,
+        TRANSITIONS
+    }
+
+    private final SpnpResults results = new SpnpResults();
+    private final NameTable places = new NameTable();
+    private final NameTable transitions = new NameTable();
+    private Section section = Section.NONE;
+    private long bytes = 0;
+    private long lines = 0;
+
+    /* Token boundaries of the current line */
+    private int[] tokenStarts = new int[64];
+    private int[] tokenEnds = new int[64];
+    private int tokenCount = 0;
+
+    /**
+     * Open addressing table of the names, looked up directly by the bytes of the buffer.
+     */
+    private static class NameTable {
+        private byte[][] names = new byte[256][];
+        private int[] indices = new int[256];
+        private int size = 0;
+
+        int find(MappedByteBuffer buffer, int start, int end) {
+            var mask = names.length - 1;
+            var slot = hash(buffer, start, end) & mask;
+            while(names[slot] != null) {
+                if(equals(names[slot], buffer, start, end))
+                    return indices[slot];
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        void put(byte[] name, int index) {
+            if((size + 1) * 2 > names.length)
+                rehash();
+            var mask = names.length - 1;
+            var slot = hash(name) & mask;
+            while(names[slot] != null)
+                slot = (slot + 1) & mask;
+            names[slot] = name;
+            indices[slot] = index;
+            size++;
+        }
+
+        private void rehash() {
+            var oldNames = names;
+            var oldIndices = indices;
+            names = new byte[oldNames.length * 2][];
+            indices = new int[oldNames.length * 2];
+            size = 0;
+            for(int i = 0; i < oldNames.length; i++) {
+                if(oldNames[i] != null)
+                    put(oldNames[i], oldIndices[i]);
+            }
+        }
+
+        private static int hash(MappedByteBuffer buffer, int start, int end) {
+            int result = 1;
+            for(int i = start; i < end; i++)
+                result = 31 * result + buffer.get(i);
+            return result ^ (result >>> 16);
+        }
+
+        private static int hash(byte[] name) {
+            int result = 1;
+            for(var b : name)
+                result = 31 * result + b;
+            return result ^ (result >>> 16);
+        }
+
+        private static boolean equals(byte[] name, MappedByteBuffer buffer, int start, int end) {
+            if(name.length != end - start)
+                return false;
+            for(int i = 0; i < name.length; i++) {
+                if(name[i] != buffer.get(start + i))
+                    return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Parses the file, can be called repeatedly for the files of one SPNP run (.out, .rg).
+     *
+     * @param file The SPNP output file.
+     * @return False if the file could not be read.
+     */
+    public boolean parse(Path file) {
+        var start = System.currentTimeMillis();
+        section = Section.NONE;
+        try(var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            var size = channel.size();
+            long position = 0;
+            while(position < size) {
+                var length = Math.min(WINDOW_SIZE, size - position);
+                var buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                var last = position + length >= size;
+                var consumed = parseWindow(buffer, (int) length, last);
+                if(consumed == 0) {
+                    System.err.println(String.format("SPNP results error: a line of \"%s\" is longer than %d bytes", file, WINDOW_SIZE));
+                    return false;
+                }
+                position += consumed;
+            }
+            bytes += size;
+        }
+        catch(IOException ex) {
+            System.err.println(String.format("SPNP results error: unable to read \"%s\": %s", file, ex.getMessage()));
+            return false;
+        }
+        results.setStatistics(bytes, lines, System.currentTimeMillis() - start);
+        return true;
+    }
+
+    /**
+     *
+     * @return The results of all parsed files.
+     */
+    public SpnpResults getResults() {
+        results.deriveMissingPlaceAverages();
+        return results;
+    }
+
+    /**
+     *
+     * @return Number of the bytes consumed (complete lines, the whole window if it is the last one).
+     */
+    private int parseWindow(MappedByteBuffer buffer, int length, boolean last) {
+        int lineStart = 0;
+        for(int i = 0; i < length; i++) {
+            if(buffer.get(i) == '\n') {
+                parseLine(buffer, lineStart, i);
+                lineStart = i + 1;
+            }
+        }
+        if(last && lineStart < length) {
+            parseLine(buffer, lineStart, length);
+            lineStart = length;
+        }
+        return lineStart;
+    }
+
+    private void parseLine(MappedByteBuffer buffer, int start, int end) {
+        lines++;
+        tokenize(buffer, start, end);
+        if(tokenCount == 0) {
+            section = Section.NONE;
+            return;
+        }
+        if(isKeyword(buffer, 0, "MARKING") || isKeyword(buffer, 0, "STATE")) {
+            if(parseMarking(buffer))
+                return;
+        }
+        if(containsKeyword(buffer, "PLACE") && containsKeyword(buffer, "AVERAGE")) {
+            section = Section.PLACES;
+            return;
+        }
+        if(containsKeyword(buffer, "TRANSITION") && containsKeyword(buffer, "THROUGHPUT")) {
+            section = Section.TRANSITIONS;
+            return;
+        }
+        if(section != Section.NONE && tokenCount >= 2 && isNumber(buffer, 1)) {
+            var value = parseNumber(buffer, 1);
+            var probability = tokenCount >= 3 && isNumber(buffer, 2) ? parseNumber(buffer, 2) : Double.NaN;
+            if(section == Section.PLACES)
+                results.setPlaceValues(getPlace(buffer, 0), value, probability);
+            else
+                results.setTransitionValues(getTransition(buffer, 0), value, probability);
+            return;
+        }
+        parseMeasure(buffer, start, end);
+    }
+
+    /* MARKING|STATE [#]id[:] name:tokens ... [prob probability] */
+    private boolean parseMarking(MappedByteBuffer buffer) {
+        if(tokenCount < 2 || !isInteger(buffer, 1))
+            return false;
+        results.startState((int) parseNumber(buffer, 1));
+        int token = 2;
+        while(token + 1 < tokenCount) {
+            if(isKeyword(buffer, token, "PROB") || isKeyword(buffer, token, "PROBABILITY")) {
+                if(isNumber(buffer, token + 1))
+                    results.setStateProbability(parseNumber(buffer, token + 1));
+            }
+            else if(isInteger(buffer, token + 1))
+                results.addMarkingEntry(getPlace(buffer, token), (int) parseNumber(buffer, token + 1));
+            token += 2;
+        }
+        return true;
+    }
+
+    /* name: value or name = value, the name may contain spaces */
+    private void parseMeasure(MappedByteBuffer buffer, int start, int end) {
+        if(tokenCount < 2 || !isNumber(buffer, tokenCount - 1))
+            return;
+        var separator = -1;
+        for(int i = tokenStarts[tokenCount - 1] - 1; i >= start; i--) {
+            var b = buffer.get(i);
+            if(b == ':' || b == '=') {
+                separator = i;
+                break;
+            }
+            if(b != ' ' && b != '\t')
+                return;
+        }
+        if(separator < 0)
+            return;
+        var nameEnd = separator;
+        while(nameEnd > start && isWhitespace(buffer.get(nameEnd - 1)))
+            nameEnd--;
+        var nameStart = start;
+        while(nameStart < nameEnd && isWhitespace(buffer.get(nameStart)))
+            nameStart++;
+        if(nameStart == nameEnd)
+            return;
+        results.putMeasure(toString(buffer, nameStart, nameEnd), parseNumber(buffer, tokenCount - 1));
+    }
+
+    private int getPlace(MappedByteBuffer buffer, int token) {
+        var index = places.find(buffer, tokenStarts[token], tokenEnds[token]);
+        if(index < 0) {
+            var name = toString(buffer, tokenStarts[token], tokenEnds[token]);
+            index = results.addPlace(name);
+            places.put(name.getBytes(StandardCharsets.ISO_8859_1), index);
+        }
+        return index;
+    }
+
+    private int getTransition(MappedByteBuffer buffer, int token) {
+        var index = transitions.find(buffer, tokenStarts[token], tokenEnds[token]);
+        if(index < 0) {
+            var name = toString(buffer, tokenStarts[token], tokenEnds[token]);
+            index = results.addTransition(name);
+            transitions.put(name.getBytes(StandardCharsets.ISO_8859_1), index);
+        }
+        return index;
+    }
+
+    /* The tokens are separated by whitespace, colons, equal signs, commas and parentheses */
+    private void tokenize(MappedByteBuffer buffer, int start, int end) {
+        tokenCount = 0;
+        int i = start;
+        while(i < end) {
+            while(i < end && isSeparator(buffer.get(i)))
+                i++;
+            if(i >= end)
+                break;
+            var tokenStart = i;
+            while(i < end && !isSeparator(buffer.get(i)))
+                i++;
+            if(tokenCount == tokenStarts.length) {
+                tokenStarts = Arrays.copyOf(tokenStarts, tokenCount * 2);
+                tokenEnds = Arrays.copyOf(tokenEnds, tokenCount * 2);
+            }
+            tokenStarts[tokenCount] = tokenStart;
+            tokenEnds[tokenCount] = i;
+            tokenCount++;
+        }
+    }
+
+    private static boolean isSeparator(byte b) {
+        return isWhitespace(b) || b == ':' || b == '=' || b == ',' || b == '(' || b == ')';
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    private boolean isKeyword(MappedByteBuffer buffer, int token, String keyword) {
+        var start = tokenStarts[token];
+        if(start < tokenEnds[token] && buffer.get(start) == '#')
+            start++;
+        if(tokenEnds[token] - start != keyword.length())
+            return false;
+        for(int i = 0; i < keyword.length(); i++) {
+            if(Character.toUpperCase((char) buffer.get(start + i)) != keyword.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    private boolean containsKeyword(MappedByteBuffer buffer, String keyword) {
+        for(int token = 0; token < tokenCount; token++) {
+            if(isKeyword(buffer, token, keyword))
+                return true;
+        }
+        return false;
+    }
+
+    private boolean isInteger(MappedByteBuffer buffer, int token) {
+        var start = tokenStarts[token];
+        if(start < tokenEnds[token] && buffer.get(start) == '#')
+            start++;
+        if(start == tokenEnds[token])
+            return false;
+        for(int i = start; i < tokenEnds[token]; i++) {
+            var b = buffer.get(i);
+            if(b < '0' || b > '9')
+                return false;
+        }
+        return true;
+    }
+
+    private boolean isNumber(MappedByteBuffer buffer, int token) {
+        var start = tokenStarts[token];
+        var end = tokenEnds[token];
+        if(start < end && (buffer.get(start) == '-' || buffer.get(start) == '+'))
+            start++;
+        var digits = false;
+        for(int i = start; i < end; i++) {
+            var b = buffer.get(i);
+            if(b >= '0' && b <= '9')
+                digits = true;
+            else if(b == 'e' || b == 'E') {
+                if(!digits)
+                    return false;
+                var exponent = i + 1;
+                if(exponent < end && (buffer.get(exponent) == '-' || buffer.get(exponent) == '+'))
+                    exponent++;
+                if(exponent == end)
+                    return false;
+                for(int j = exponent; j < end; j++) {
+                    if(buffer.get(j) < '0' || buffer.get(j) > '9')
+                        return false;
+                }
+                return true;
+            }
+            else if(b != '.')
+                return false;
+        }
+        return digits;
+    }
+
+    /**
+     * Parses a token checked by isNumber (or isInteger). Numbers with at most 18 significant
+     * digits and a small exponent are computed exactly from the mapped bytes, the rest falls
+     * back to Double.parseDouble.
+     */
+    private double parseNumber(MappedByteBuffer buffer, int token) {
+        var start = tokenStarts[token];
+        var end = tokenEnds[token];
+        if(buffer.get(start) == '#')
+            start++;
+        var negative = false;
+        int i = start;
+        if(buffer.get(i) == '-' || buffer.get(i) == '+') {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        var fraction = false;
+        for(; i < end; i++) {
+            var b = buffer.get(i);
+            if(b == '.')
+                fraction = true;
+            else if(b >= '0' && b <= '9') {
+                if(mantissa == 0 && b == '0') {
+                    if(fraction)
+                        exponent--;
+                    continue;
+                }
+                if(digits >= 18)
+                    return Double.parseDouble(toString(buffer, start, end));
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if(fraction)
+                    exponent--;
+            }
+            else
+                break;
+        }
+        if(i < end) {
+            i++;
+            var exponentNegative = false;
+            if(buffer.get(i) == '-' || buffer.get(i) == '+') {
+                exponentNegative = buffer.get(i) == '-';
+                i++;
+            }
+            int value = 0;
+            for(; i < end && value < 10000; i++)
+                value = value * 10 + (buffer.get(i) - '0');
+            exponent += exponentNegative ? -value : value;
+        }
+        if(mantissa == 0)
+            return negative ? -0.0 : 0.0;
+        // Exact when the mantissa fits into the 53 bits of a double
+        if(mantissa < (1L << 53) && Math.abs(exponent) < POWERS_OF_TEN.length) {
+            var value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(toString(buffer, start, end));
+    }
+
+    private static String toString(MappedByteBuffer buffer, int start, int end) {
+        var bytes = new byte[end - start];
+        for(int i = 0; i < bytes.length; i++)
+            bytes[i] = buffer.get(start + i);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,239 @@
+package cz.muni.fi.umlspnp.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *  Results read from the SPNP output files, stored in primitive arrays. The places and
+ * transitions are indexed in the order in which they first appeared in the files, the
+ * markings of the states are stored sparsely (place index and token count pairs of the
+ * non-empty places).
+ *
+ */
+public class SpnpResults {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Map<String, Double> measures = new LinkedHashMap<>();
+
+    private final List<String> placeNames = new ArrayList<>();
+    private double[] placeAverages = new double[INITIAL_CAPACITY];
+    private double[] placeProbabilities = new double[INITIAL_CAPACITY];
+
+    private final List<String> transitionNames = new ArrayList<>();
+    private double[] transitionThroughputs = new double[INITIAL_CAPACITY];
+    private double[] transitionProbabilities = new double[INITIAL_CAPACITY];
+
+    private int stateCount = 0;
+    private int[] stateIDs = new int[INITIAL_CAPACITY];
+    private double[] stateProbabilities = new double[INITIAL_CAPACITY];
+    /* Offsets of the states into the marking entries, stateCount + 1 values */
+    private int[] markingOffsets = new int[INITIAL_CAPACITY + 1];
+    private int[] markingPlaces = new int[INITIAL_CAPACITY];
+    private int[] markingTokens = new int[INITIAL_CAPACITY];
+    private int markingEntryCount = 0;
+
+    private long bytes = 0;
+    private long lines = 0;
+    private long time = 0;
+
+    void putMeasure(String name, double value) {
+        measures.put(name, value);
+    }
+
+    int addPlace(String name) {
+        placeNames.add(name);
+        var index = placeNames.size() - 1;
+        if(index >= placeAverages.length) {
+            placeAverages = grow(placeAverages, Double.NaN);
+            placeProbabilities = grow(placeProbabilities, Double.NaN);
+        }
+        placeAverages[index] = Double.NaN;
+        placeProbabilities[index] = Double.NaN;
+        return index;
+    }
+
+    void setPlaceValues(int place, double average, double probability) {
+        placeAverages[place] = average;
+        placeProbabilities[place] = probability;
+    }
+
+    int addTransition(String name) {
+        transitionNames.add(name);
+        var index = transitionNames.size() - 1;
+        if(index >= transitionThroughputs.length) {
+            transitionThroughputs = grow(transitionThroughputs, Double.NaN);
+            transitionProbabilities = grow(transitionProbabilities, Double.NaN);
+        }
+        transitionThroughputs[index] = Double.NaN;
+        transitionProbabilities[index] = Double.NaN;
+        return index;
+    }
+
+    void setTransitionValues(int transition, double throughput, double probability) {
+        transitionThroughputs[transition] = throughput;
+        transitionProbabilities[transition] = probability;
+    }
+
+    void startState(int stateID) {
+        if(stateCount >= stateIDs.length) {
+            stateIDs = Arrays.copyOf(stateIDs, stateIDs.length * 2);
+            stateProbabilities = grow(stateProbabilities, Double.NaN);
+            markingOffsets = Arrays.copyOf(markingOffsets, stateIDs.length + 1);
+        }
+        stateIDs[stateCount] = stateID;
+        stateProbabilities[stateCount] = Double.NaN;
+        markingOffsets[stateCount] = markingEntryCount;
+        stateCount++;
+        markingOffsets[stateCount] = markingEntryCount;
+    }
+
+    void addMarkingEntry(int place, int tokens) {
+        // The places which are not listed are empty
+        if(tokens == 0)
+            return;
+        if(markingEntryCount >= markingPlaces.length) {
+            markingPlaces = Arrays.copyOf(markingPlaces, markingPlaces.length * 2);
+            markingTokens = Arrays.copyOf(markingTokens, markingTokens.length * 2);
+        }
+        markingPlaces[markingEntryCount] = place;
+        markingTokens[markingEntryCount] = tokens;
+        markingEntryCount++;
+        markingOffsets[stateCount] = markingEntryCount;
+    }
+
+    void setStateProbability(double probability) {
+        if(stateCount > 0)
+            stateProbabilities[stateCount - 1] = probability;
+    }
+
+    void setStatistics(long bytes, long lines, long time) {
+        this.bytes = bytes;
+        this.lines = lines;
+        this.time = time;
+    }
+
+    private static double[] grow(double[] array, double fill) {
+        var result = Arrays.copyOf(array, array.length * 2);
+        Arrays.fill(result, array.length, result.length, fill);
+        return result;
+    }
+
+    /**
+     * Computes the average number of tokens of the places which have no value in the place table
+     * from the state probabilities and the markings.
+     */
+    void deriveMissingPlaceAverages() {
+        var averages = new double[placeNames.size()];
+        var probabilities = new double[placeNames.size()];
+        var known = false;
+        for(int state = 0; state < stateCount; state++) {
+            var probability = stateProbabilities[state];
+            if(Double.isNaN(probability))
+                continue;
+            known = true;
+            for(int entry = markingOffsets[state]; entry < markingOffsets[state + 1]; entry++) {
+                averages[markingPlaces[entry]] += probability * markingTokens[entry];
+                if(markingTokens[entry] > 0)
+                    probabilities[markingPlaces[entry]] += probability;
+            }
+        }
+        if(!known)
+            return;
+        for(int place = 0; place < placeNames.size(); place++) {
+            if(Double.isNaN(placeAverages[place]))
+                setPlaceValues(place, averages[place], probabilities[place]);
+        }
+    }
+
+    public Map<String, Double> getMeasures() {
+        return Collections.unmodifiableMap(measures);
+    }
+
+    public int getPlaceCount() {
+        return placeNames.size();
+    }
+
+    public String getPlaceName(int place) {
+        return placeNames.get(place);
+    }
+
+    /**
+     *
+     * @return Average number of tokens in the place or NaN if the files do not contain it.
+     */
+    public double getPlaceAverage(int place) {
+        return placeAverages[place];
+    }
+
+    /**
+     *
+     * @return Probability that the place is not empty or NaN if the files do not contain it.
+     */
+    public double getPlaceProbability(int place) {
+        return placeProbabilities[place];
+    }
+
+    public int getTransitionCount() {
+        return transitionNames.size();
+    }
+
+    public String getTransitionName(int transition) {
+        return transitionNames.get(transition);
+    }
+
+    public double getTransitionThroughput(int transition) {
+        return transitionThroughputs[transition];
+    }
+
+    /**
+     *
+     * @param transitionName Name of the transition.
+     * @return Throughput of the transition or NaN if the results do not contain it.
+     */
+    public double getTransitionThroughput(String transitionName) {
+        var transition = transitionNames.indexOf(transitionName);
+        return transition < 0 ? Double.NaN : transitionThroughputs[transition];
+    }
+
+    public double getTransitionProbability(int transition) {
+        return transitionProbabilities[transition];
+    }
+
+    public int getStateCount() {
+        return stateCount;
+    }
+
+    public int getStateID(int state) {
+        return stateIDs[state];
+    }
+
+    public double getStateProbability(int state) {
+        return stateProbabilities[state];
+    }
+
+    /**
+     *
+     * @return Number of tokens in the place in the state (the places which are not listed are empty).
+     */
+    public int getTokens(int state, int place) {
+        for(int entry = markingOffsets[state]; entry < markingOffsets[state + 1]; entry++) {
+            if(markingPlaces[entry] == place)
+                return markingTokens[entry];
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        var result = new StringBuilder();
+        result.append(String.format("SPNP results: %d bytes, %d lines, parsed in %d ms%n", bytes, lines, time));
+        result.append(String.format("  measures: %d, places: %d, transitions: %d, states: %d, marking entries: %d%n",
+                                    measures.size(), placeNames.size(), transitionNames.size(), stateCount, markingEntryCount));
+        measures.forEach((name, value) -> result.append(String.format("  %-40s %s%n", name, Double.toString(value))));
+        return result.toString();
+    }
+}
@@ -14,7 +14,7 @@ import cz.muni.fi.spnp.core.transformators.spnp.code.FunctionSPNP;
 import cz.muni.fi.spnp.core.transformators.spnp.distributions.ExponentialTransitionDistribution;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -24,7 +24,7 @@ import java.util.Map;
  */
 public class CommunicationSegment extends Segment implements ActionServiceSegment {
     private final String commentPrefix;
-    protected ControlServiceSegment controlServiceSegment = null;
+    protected List<ControlServiceSegment> controlServiceSegments = null;
     protected List<PhysicalSegment> physicalSegments = null;
 
     protected final ServiceCallTreeNode treeRoot;
@@ -41,16 +41,17 @@ public class CommunicationSegment extends Segment implements ActionServiceSegmen
     protected ImmediateTransition failHWTransition = null;
     protected StandardPlace failHWPlace = null;
     
-    protected Map<TimedTransition, StandardPlace> failTypes = new HashMap<>();
+    protected Map<TimedTransition, StandardPlace> failTypes = new LinkedHashMap<>();
 
     protected ImmediateTransition flushTransition = null;
     protected List<StandardPlace> flushDependentPlaces = new ArrayList<>();
 
     public CommunicationSegment(PetriNet petriNet,
                                 boolean generateComments,
+                                RateParameters rateParameters,
                                 ServiceCallTreeNode treeRoot,
                                 CommunicationLink communicationLink) {
-        super(petriNet, generateComments);
+        super(petriNet, generateComments, rateParameters);
 
         this.treeRoot = treeRoot;
         this.communicationLink = communicationLink;
@@ -108,20 +109,22 @@ public class CommunicationSegment extends Segment implements ActionServiceSegmen
     } 
 
     private void resolveControlServiceCalls() {
-        controlServiceSegment.getControlServiceCalls().forEach(controlPair -> {
-            var controlServiceCall = controlPair.getValue();
-            if(controlServiceCall.isCommunicationServiceCall()) {
-                var controlCommunicationLink = controlServiceCall.getMessage().getCommunicationLink();
-                if(communicationLink == controlCommunicationLink) {
-                    controlServiceCalls.add(controlServiceCall);
+        controlServiceSegments.forEach(controlServiceSegment -> {
+            controlServiceSegment.getControlServiceCalls().forEach(controlPair -> {
+                var controlServiceCall = controlPair.getValue();
+                if(controlServiceCall.isCommunicationServiceCall()) {
+                    var controlCommunicationLink = controlServiceCall.getMessage().getCommunicationLink();
+                    if(communicationLink == controlCommunicationLink) {
+                        controlServiceCalls.add(controlServiceCall);
+                    }
                 }
-            }
+            });
         });
     }
 
     private void transformInitialTransition(String communicationLinkName) {
         var initialTransitionName = SPNPUtils.createTransitionName(communicationLinkName, "comStart");
-        initialTransition = new ImmediateTransition(SPNPUtils.transitionCounter++, initialTransitionName,
+        initialTransition = new ImmediateTransition(SPNPUtils.nextTransitionNumber(), initialTransitionName,
                             SPNPUtils.TR_PRIORTY_DEFAULT_IMMEDIATE, null, new ConstantTransitionProbability(1.0));
         if(generateComments)
             initialTransition.setCommentary(String.format("%s - Initial transition", commentPrefix));
@@ -161,18 +164,18 @@ public class CommunicationSegment extends Segment implements ActionServiceSegmen
     
     private void transformStartPlace(String communicationLinkName) {
         var startPlaceName = SPNPUtils.createPlaceName(communicationLinkName, "trStart");
-        startPlace = new StandardPlace(SPNPUtils.placeCounter++, startPlaceName);
+        startPlace = new StandardPlace(SPNPUtils.nextPlaceNumber(), startPlaceName);
         if(generateComments)
             startPlace.setCommentary(String.format("%s - Start place", commentPrefix));
         petriNet.addPlace(startPlace);
 
-        var outputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Output, startPlace, initialTransition);
+        var outputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Output, startPlace, initialTransition);
         petriNet.addArc(outputArc);
     }
     
     private void transformFlushTransition(String communicationLinkName) {
         var flushTransitionName = SPNPUtils.createTransitionName(communicationLinkName, "comFlush");
-        flushTransition = new ImmediateTransition(SPNPUtils.transitionCounter++, flushTransitionName,
+        flushTransition = new ImmediateTransition(SPNPUtils.nextTransitionNumber(), flushTransitionName,
                             SPNPUtils.TR_PRIORTY_ACTION_FLUSH, null, new ConstantTransitionProbability(1.0));
         if(generateComments)
             flushTransition.setCommentary(String.format("%s - Flush transition", commentPrefix));
@@ -215,12 +218,12 @@ public class CommunicationSegment extends Segment implements ActionServiceSegmen
         if(downPlaceFrom != null && downPlaceTo != null)
             return String.format("return mark(\"%s\") || mark(\"%s\");",
                                  downPlaceFrom.getName(), downPlaceTo.getName());
-        return "return 0";
+        return "return 0;";
     }
 
     private void transformFailHW(DeploymentTarget targetNodeFirst, DeploymentTarget targetNodeSecond, String communicationLinkName) {
         String failHWPlaceName = SPNPUtils.createPlaceName(communicationLinkName, "HWf");
-        failHWPlace = new StandardPlace(SPNPUtils.placeCounter++, failHWPlaceName);
+        failHWPlace = new StandardPlace(SPNPUtils.nextPlaceNumber(), failHWPlaceName);
         if(generateComments)
             failHWPlace.setCommentary(String.format("%s - Hardware failure place", commentPrefix));
         petriNet.addPlace(failHWPlace);
@@ -233,22 +236,22 @@ public class CommunicationSegment extends Segment implements ActionServiceSegmen
                                                          Integer.class);
 
         String failHWTransitionName = SPNPUtils.createTransitionName(communicationLinkName, "HWf");
-        failHWTransition = new ImmediateTransition(SPNPUtils.transitionCounter++, failHWTransitionName,
+        failHWTransition = new ImmediateTransition(SPNPUtils.nextTransitionNumber(), failHWTransitionName,
                                 SPNPUtils.TR_PRIORTY_DEFAULT_IMMEDIATE, guard, new ConstantTransitionProbability(1.0));
         if(generateComments)
             failHWTransition.setCommentary(String.format("%s - Hardware failure transition", commentPrefix));
         petriNet.addTransition(failHWTransition);
 
-        var inputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Input, startPlace, failHWTransition);
+        var inputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Input, startPlace, failHWTransition);
         petriNet.addArc(inputArc);
 
-        var outputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Output, failHWPlace, failHWTransition);
+        var outputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Output, failHWPlace, failHWTransition);
         petriNet.addArc(outputArc);
 
         var cardinalityFunctionName = SPNPUtils.createFunctionName(String.format("cardinality_%s_HWf_to_flush", SPNPUtils.prepareName(communicationLinkName, 15)));
         var cardinalityFunctionBody = String.format("return mark(\"%s\");", failHWPlace.getName());
         var cardinalityFunction = new FunctionSPNP<Integer>(cardinalityFunctionName, FunctionType.ArcCardinality, cardinalityFunctionBody, Integer.class);
-        var flushInputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Input, failHWPlace, flushTransition, cardinalityFunction);
+        var flushInputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Input, failHWPlace, flushTransition, cardinalityFunction);
         petriNet.addArc(flushInputArc);
     }
     
@@ -256,7 +259,13 @@ public class CommunicationSegment extends Segment implements ActionServiceSegmen
         var distributionFunctionName = SPNPUtils.createFunctionName(String.format("comm_trans_dist_func__%s", SPNPUtils.prepareName(communicationLinkName, 15)));
         StringBuilder distributionValues = new StringBuilder();
 
+        var linkTypeName = communicationLink.getLinkType().nameProperty().getValue();
         double transferRate = communicationLink.getLinkType().rateProperty().getValue();
+        String transferRateReference = null;
+        if(transferRate > 0 && rateParameters.isLifted(RateParameters.Category.LINK))
+            transferRateReference = rateParameters.reference(RateParameters.Category.LINK, linkTypeName,
+                                                             String.format("Transfer rate of %s", linkTypeName), transferRate);
+        final var transferRateParameter = transferRateReference;
 
         controlServiceCalls.forEach(controlServiceCall -> {
             var messageSizeObj = controlServiceCall.getMessage().getMessageSize();
@@ -269,7 +278,10 @@ public class CommunicationSegment extends Segment implements ActionServiceSegmen
 
             if(distributionValues.length() > 0)
                 distributionValues.append(" + ");
-            distributionValues.append(String.format("mark(\"%s\") * %f", controlServiceCall.getPlace().getName(), rate));
+            if(transferRateParameter != null && transmitTime > 0)
+                distributionValues.append(String.format("mark(\"%s\") * %s / %f", controlServiceCall.getPlace().getName(), transferRateParameter, messageSize));
+            else
+                distributionValues.append(String.format("mark(\"%s\") * %f", controlServiceCall.getPlace().getName(), rate));
         });
 
         if(distributionValues.length() < 1)
@@ -282,7 +294,7 @@ public class CommunicationSegment extends Segment implements ActionServiceSegmen
     
     private void transformEndPlace(String communicationLinkName) {
         var endPlaceName = SPNPUtils.createPlaceName(communicationLinkName, "trEnd");
-        endPlace = new StandardPlace(SPNPUtils.placeCounter++, endPlaceName);
+        endPlace = new StandardPlace(SPNPUtils.nextPlaceNumber(), endPlaceName);
         if(generateComments)
             endPlace.setCommentary(String.format("%s - End place", commentPrefix));
         petriNet.addPlace(endPlace);
@@ -292,35 +304,37 @@ public class CommunicationSegment extends Segment implements ActionServiceSegmen
         var endTransitionName = SPNPUtils.createTransitionName(communicationLinkName, "trEnd");
   
         var distribution = new ExponentialTransitionDistribution(createDistributionFunction(communicationLinkName));
-        endTransition = new TimedTransition(SPNPUtils.transitionCounter++, endTransitionName,
+        endTransition = new TimedTransition(SPNPUtils.nextTransitionNumber(), endTransitionName,
                         SPNPUtils.TR_PRIORTY_DEFAULT, null, distribution);
         if(generateComments)
             endTransition.setCommentary(String.format("%s - End transition", commentPrefix));
         petriNet.addTransition(endTransition);
 
-        var inputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Input, startPlace, endTransition);
+        var inputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Input, startPlace, endTransition);
         petriNet.addArc(inputArc);
 
-        var outputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Output, endPlace, endTransition);
+        var outputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Output, endPlace, endTransition);
         petriNet.addArc(outputArc);
 
         var cardinalityFunctionName = SPNPUtils.createFunctionName(String.format("cardinality_%s_trEnd_to_flush", SPNPUtils.prepareName(communicationLinkName, 15)));
         var cardinalityFunctionBody = String.format("return mark(\"%s\");", endPlace.getName());
         var cardinalityFunction = new FunctionSPNP<Integer>(cardinalityFunctionName, FunctionType.ArcCardinality, cardinalityFunctionBody, Integer.class);
-        var flushInputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Input, endPlace, flushTransition, cardinalityFunction);
+        var flushInputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Input, endPlace, flushTransition, cardinalityFunction);
         petriNet.addArc(flushInputArc);
     }
     
     private void transformFailType(String failTypeName, double failTypeRate) {
         var failTypePlaceName = SPNPUtils.createPlaceName(failTypeName, "trFail");
-        var failTypePlace = new StandardPlace(SPNPUtils.placeCounter++, failTypePlaceName);
+        var failTypePlace = new StandardPlace(SPNPUtils.nextPlaceNumber(), failTypePlaceName);
         if(generateComments)
             failTypePlace.setCommentary(String.format("%s - Failure place (\"%s\")", commentPrefix, failTypeName));
         petriNet.addPlace(failTypePlace);
 
         var failTypeTransitionName = SPNPUtils.createTransitionName(failTypeName, "trFail");       
-        var distribution = new ExponentialTransitionDistribution(failTypeRate);
-        var failTypeTransition = new TimedTransition(SPNPUtils.transitionCounter++, failTypeTransitionName,
+        var linkTypeName = communicationLink.getLinkType().nameProperty().getValue();
+        var distribution = rateParameters.createDistribution(RateParameters.Category.FAILURE, String.format("%s/%s", linkTypeName, failTypeName),
+                                                             String.format("Rate of failure %s", failTypeName), failTypeRate);
+        var failTypeTransition = new TimedTransition(SPNPUtils.nextTransitionNumber(), failTypeTransitionName,
                                     SPNPUtils.TR_PRIORTY_DEFAULT, null, distribution);
         if(generateComments)
             failTypeTransition.setCommentary(String.format("%s - Failure transition (\"%s\")", commentPrefix, failTypeName));
@@ -328,16 +342,16 @@ public class CommunicationSegment extends Segment implements ActionServiceSegmen
 
         failTypes.put(failTypeTransition, failTypePlace);
 
-        var inputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Input, startPlace, failTypeTransition);
+        var inputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Input, startPlace, failTypeTransition);
         petriNet.addArc(inputArc);
 
-        var outputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Output, failTypePlace, failTypeTransition);
+        var outputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Output, failTypePlace, failTypeTransition);
         petriNet.addArc(outputArc);
         
         var cardinalityFunctionName = SPNPUtils.createFunctionName(String.format("cardinality_%s_trFail_to_flush", SPNPUtils.prepareName(failTypeName, 15)));
         var cardinalityFunctionBody = String.format("return mark(\"%s\");", failTypePlace.getName());
         var cardinalityFunction = new FunctionSPNP<Integer>(cardinalityFunctionName, FunctionType.ArcCardinality, cardinalityFunctionBody, Integer.class);
-        var flushInputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Input, failTypePlace, flushTransition, cardinalityFunction);
+        var flushInputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Input, failTypePlace, flushTransition, cardinalityFunction);
         petriNet.addArc(flushInputArc);
     }
     
@@ -345,8 +359,12 @@ public class CommunicationSegment extends Segment implements ActionServiceSegmen
         return SPNPUtils.prepareName(communicationLink.getLinkType().nameProperty().getValue(), 8);
     }
 
-    public void transformControlServiceSegmentDependencies(ControlServiceSegment controlServiceSegment) {
-        this.controlServiceSegment = controlServiceSegment;
+    /**
+     * 
+     * @param controlServiceSegments Control service segments of all scenarios, the link is shared by them.
+     */
+    public void transformControlServiceSegmentDependencies(List<ControlServiceSegment> controlServiceSegments) {
+        this.controlServiceSegments = controlServiceSegments;
         
         String communicationLinkName = getCommunicationLinkNameSPNP();
 
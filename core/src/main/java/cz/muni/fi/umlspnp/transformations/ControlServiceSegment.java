@@ -1,5 +1,6 @@
 package cz.muni.fi.umlspnp.transformations;
 
+import cz.muni.fi.umlspnp.metrics.Metrics;
 import cz.muni.fi.umlspnp.models.sequencediagram.Loop;
 import cz.muni.fi.umlspnp.models.sequencediagram.Message;
 import cz.muni.fi.spnp.core.models.PetriNet;
@@ -10,13 +11,16 @@ import cz.muni.fi.spnp.core.models.places.StandardPlace;
 import cz.muni.fi.spnp.core.models.transitions.ImmediateTransition;
 import cz.muni.fi.spnp.core.models.transitions.probabilities.ConstantTransitionProbability;
 import cz.muni.fi.spnp.core.transformators.spnp.code.FunctionSPNP;
+import cz.muni.fi.umlspnp.common.Pair;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import javafx.util.Pair;
 
 /**
  * The intermediate control service segment modeling the execution flow.
+ * In a workload of several scenarios every scenario has its own control service segment,
+ * its start place is marked by the scenario choice and all of them end in the shared
+ * end place (see WorkloadSegment).
  *
  */
 public class ControlServiceSegment extends Segment {
@@ -26,30 +30,63 @@ public class ControlServiceSegment extends Segment {
     private final Collection<Loop> loops;
 
     protected final ServiceCallTreeNode treeRoot;
+    private final Scenario scenario;
+    private final StandardPlace sharedEndPlace;
 
     protected final List<Pair<ImmediateTransition, ServiceCall>> controlServiceCalls = new ArrayList<>();
     protected StandardPlace initialPlace = null;
     protected ImmediateTransition initialTransition = null;
     protected StandardPlace endPlace = null;
+    protected FunctionSPNP<Integer> haltingFunction = null;
+    protected ImmediateTransition restartTransition = null;
     
     private final List<LoopSegment> loopSegments = new ArrayList<>();
 
     public ControlServiceSegment(PetriNet petriNet,
                             boolean generateComments,
+                            RateParameters rateParameters,
                             List<PhysicalSegment> physicalSegments,
                             List<CommunicationSegment> communicationSegments,
                             Collection<Loop> loops,
                             ServiceCallTreeNode treeRoot) {
-        super(petriNet, generateComments);
+        super(petriNet, generateComments, rateParameters);
 
         this.physicalSegments = physicalSegments;
         this.communicationSegments = communicationSegments;
         this.loops = loops;
         this.treeRoot = treeRoot;
+        this.scenario = null;
+        this.sharedEndPlace = null;
         
         this.commentPrefix = "Control segment";
     }
 
+    /**
+     * Control service segment of one scenario of a workload.
+     * 
+     * @param scenario The scenario.
+     * @param sharedEndPlace End place of all scenarios, it has no halting function of its own.
+     */
+    public ControlServiceSegment(PetriNet petriNet,
+                            boolean generateComments,
+                            RateParameters rateParameters,
+                            List<PhysicalSegment> physicalSegments,
+                            List<CommunicationSegment> communicationSegments,
+                            Collection<Loop> loops,
+                            Scenario scenario,
+                            StandardPlace sharedEndPlace) {
+        super(petriNet, generateComments, rateParameters);
+
+        this.physicalSegments = physicalSegments;
+        this.communicationSegments = communicationSegments;
+        this.loops = loops;
+        this.treeRoot = scenario.getRoot();
+        this.scenario = scenario;
+        this.sharedEndPlace = sharedEndPlace;
+        
+        this.commentPrefix = String.format("Control segment of scenario %d", scenario.getIndex());
+    }
+
     public List<ServiceCall> getControlServiceCalls(Message message) {
         List<ServiceCall> result = new ArrayList<>();
         for(var pair : controlServiceCalls) {
@@ -74,7 +111,7 @@ public class ControlServiceSegment extends Segment {
     }
 
     public ActionServiceSegment transformExecutionServiceSegment(ServiceCall serviceCall, ServiceCallTreeNode serviceCallNode) {
-        var executionServiceSegment = new ServiceLeafSegment(petriNet, generateComments, physicalSegments, serviceCallNode, serviceCall);
+        var executionServiceSegment = new ServiceLeafSegment(petriNet, generateComments, rateParameters, physicalSegments, serviceCallNode, serviceCall);
         executionServiceSegment.transform();
         return executionServiceSegment;
     }
@@ -100,7 +137,7 @@ public class ControlServiceSegment extends Segment {
         var messageName = prefix + message.nameProperty().getValue();
 
         var serviceCallPlaceName = SPNPUtils.createPlaceName(messageName, artifact.getNameProperty().getValue());
-        var serviceCallPlace = new StandardPlace(SPNPUtils.placeCounter++, serviceCallPlaceName);
+        var serviceCallPlace = new StandardPlace(SPNPUtils.nextPlaceNumber(), serviceCallPlaceName);
         if(generateComments) {
             serviceCallPlace.setCommentary(String.format("%s - Control place of %s (\"%s\")",
                                                             commentPrefix,
@@ -109,7 +146,7 @@ public class ControlServiceSegment extends Segment {
         }
         petriNet.addPlace(serviceCallPlace);
 
-        var outputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Output, serviceCallPlace, getPreviousTransition());
+        var outputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Output, serviceCallPlace, getPreviousTransition());
         petriNet.addArc(outputArc);
 
         var serviceCall = new ServiceCall(message, serviceCallPlace);
@@ -121,7 +158,7 @@ public class ControlServiceSegment extends Segment {
         serviceCall.setActionSegment(actionServiceSegment);
         
         var serviceCallTransitionName = SPNPUtils.createTransitionName(messageName);
-        var serviceCallTransition = new ImmediateTransition(SPNPUtils.transitionCounter++, serviceCallTransitionName,
+        var serviceCallTransition = new ImmediateTransition(SPNPUtils.nextTransitionNumber(), serviceCallTransitionName,
                                     SPNPUtils.TR_PRIORTY_DEFAULT_IMMEDIATE, null, new ConstantTransitionProbability(1.0));
         if(generateComments) {
             serviceCallTransition.setCommentary(String.format("%s - Control transition of %s (\"%s\")",
@@ -133,13 +170,13 @@ public class ControlServiceSegment extends Segment {
         
         // Arc from the execution/communication segment end place to the control segment transition
         var actionSegmentEndPlace = actionServiceSegment.getEndPlace();
-        var endPlaceInputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Input, actionSegmentEndPlace, serviceCallTransition);
+        var endPlaceInputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Input, actionSegmentEndPlace, serviceCallTransition);
         petriNet.addArc(endPlaceInputArc);
 
-        var inputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Input, serviceCallPlace, serviceCallTransition);
+        var inputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Input, serviceCallPlace, serviceCallTransition);
         petriNet.addArc(inputArc);
 
-        controlServiceCalls.add(new Pair(serviceCallTransition, serviceCall));
+        controlServiceCalls.add(new Pair<>(serviceCallTransition, serviceCall));
     }
     
     private void transformCommunicationControlServiceCall(ServiceCallTreeNode treeNode) {
@@ -172,41 +209,55 @@ public class ControlServiceSegment extends Segment {
         }
     }
 
+    private String getControlName() {
+        if(scenario == null)
+            return "control";
+        return String.format("control%d", scenario.getIndex());
+    }
+
     private void transformStart() {
-        var initialPlaceName = SPNPUtils.createPlaceName("control", "start");
-        initialPlace = new StandardPlace(SPNPUtils.placeCounter++, initialPlaceName);
+        var initialPlaceName = SPNPUtils.createPlaceName(getControlName(), "start");
+        initialPlace = new StandardPlace(SPNPUtils.nextPlaceNumber(), initialPlaceName);
         if(generateComments)
             initialPlace.setCommentary(String.format("%s - Control start place", commentPrefix));
-        initialPlace.setNumberOfTokens(1);
+        // The start place of a scenario is marked by the scenario choice
+        if(scenario == null)
+            initialPlace.setNumberOfTokens(1);
         petriNet.addPlace(initialPlace);
 
-        var initTransitionName = SPNPUtils.createTransitionName("control", "start");
-        initialTransition = new ImmediateTransition(SPNPUtils.transitionCounter++, initTransitionName,
+        var initTransitionName = SPNPUtils.createTransitionName(getControlName(), "start");
+        initialTransition = new ImmediateTransition(SPNPUtils.nextTransitionNumber(), initTransitionName,
                             SPNPUtils.TR_PRIORTY_DEFAULT_IMMEDIATE, null, new ConstantTransitionProbability(1.0));
         if(generateComments)
             initialTransition.setCommentary(String.format("%s - Control start transition", commentPrefix));
         petriNet.addTransition(initialTransition);
         
-        var inputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Input, initialPlace, initialTransition);
+        var inputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Input, initialPlace, initialTransition);
         petriNet.addArc(inputArc);
     }
 
     private void transformEnd() {
+        if(sharedEndPlace != null) {
+            endPlace = sharedEndPlace;
+            var outputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Output, endPlace, getPreviousTransition());
+            petriNet.addArc(outputArc);
+            return;
+        }
         var endPlaceName = SPNPUtils.createPlaceName("control", "end");
-        endPlace = new StandardPlace(SPNPUtils.placeCounter++, endPlaceName);
+        endPlace = new StandardPlace(SPNPUtils.nextPlaceNumber(), endPlaceName);
         if(generateComments)
             endPlace.setCommentary(String.format("%s - Control end place", commentPrefix));
         petriNet.addPlace(endPlace);
 
-        var outputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Output, endPlace, getPreviousTransition());
+        var outputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Output, endPlace, getPreviousTransition());
         petriNet.addArc(outputArc);
     }
 
     private void transformEndPlaceHaltingFunction(String lifelineName) {
         String functionName = SPNPUtils.createFunctionName(String.format("halting_%s", SPNPUtils.prepareName(lifelineName, 15)));
-        FunctionSPNP<Integer> haltingFunction = new FunctionSPNP<>(functionName,
-                                                                   FunctionType.Halting, String.format("return !mark(\"%s\");", endPlace.getName()),
-                                                                   Integer.class);
+        haltingFunction = new FunctionSPNP<>(functionName,
+                                             FunctionType.Halting, String.format("return !mark(\"%s\");", endPlace.getName()),
+                                             Integer.class);
         petriNet.addFunction(haltingFunction);
     }
     
@@ -241,11 +292,36 @@ public class ControlServiceSegment extends Segment {
         if(!validateLoop(highestServiceCallNodes))
             return;
 
-        var loopSegment = new LoopSegment(petriNet, generateComments, this, highestServiceCallNodes.get(0), loop);
+        var loopSegment = new LoopSegment(petriNet, generateComments, rateParameters, this, highestServiceCallNodes.get(0), loop);
         loopSegment.transform();
         loopSegments.add(loopSegment);
     }
     
+    /**
+     * Closes the control flow for the regenerative simulation (VAL_REG, VAL_ISREG).
+     * The halting function is replaced by a restart transition from the end place back
+     * to the initial place, so the initial marking (the control start place and all nodes
+     * in their default states) is the regeneration point which SPNP returns to.
+     */
+    public void transformRegeneration() {
+        if(haltingFunction != null) {
+            petriNet.removeFunction(haltingFunction);
+            haltingFunction = null;
+        }
+
+        var restartTransitionName = SPNPUtils.createTransitionName("control", "restart");
+        restartTransition = new ImmediateTransition(SPNPUtils.nextTransitionNumber(), restartTransitionName,
+                            SPNPUtils.TR_PRIORTY_DEFAULT_IMMEDIATE, null, new ConstantTransitionProbability(1.0));
+        if(generateComments)
+            restartTransition.setCommentary(String.format("%s - Control restart transition (regenerative simulation)", commentPrefix));
+        petriNet.addTransition(restartTransition);
+
+        var inputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Input, endPlace, restartTransition);
+        petriNet.addArc(inputArc);
+        var outputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Output, initialPlace, restartTransition);
+        petriNet.addArc(outputArc);
+    }
+
     private ImmediateTransition getPreviousTransition() {
         if(controlServiceCalls.size() < 1)
             return initialTransition;
@@ -274,6 +350,18 @@ public class ControlServiceSegment extends Segment {
         return controlServiceCalls;
     }
     
+    public List<LoopSegment> getLoopSegments() {
+        return loopSegments;
+    }
+    
+    /**
+     * 
+     * @return The scenario or null if the segment models the only scenario of the project.
+     */
+    public Scenario getScenario() {
+        return scenario;
+    }
+    
     public ImmediateTransition getInitialTransition() {
         return initialTransition;
     }
@@ -286,6 +374,14 @@ public class ControlServiceSegment extends Segment {
         return endPlace;
     }
 
+    /**
+     * 
+     * @return The restart transition or null if the regeneration was not transformed.
+     */
+    public ImmediateTransition getRestartTransition() {
+        return restartTransition;
+    }
+
     public void transform() {
         var lifelineName = treeRoot.getArtifact().getNameProperty().getValue();
         
@@ -297,12 +393,15 @@ public class ControlServiceSegment extends Segment {
 
         // End place and transition
         transformEnd();
-        transformEndPlaceHaltingFunction(lifelineName);
+        if(sharedEndPlace == null)
+            transformEndPlaceHaltingFunction(lifelineName);
         
         // Loops
-        loops.forEach(loop -> {
-            transformLoop(loop);
-        });
+        try(var phase = Metrics.phase("transform.loop")) {
+            loops.forEach(loop -> {
+                transformLoop(loop);
+            });
+        }
         
         // Action segments flush transitions (depend on loop segments)
         controlServiceCalls.forEach(serviceCallPair -> {
@@ -314,13 +413,18 @@ public class ControlServiceSegment extends Segment {
     @Override
     public String toString() {
         var result = new StringBuilder();
-        result.append(String.format("Control Service Segment:%n"));
+        if(scenario != null)
+            result.append(String.format("Control Service Segment of %s:%n", scenario.getName()));
+        else
+            result.append(String.format("Control Service Segment:%n"));
         result.append(String.format("(InitialPlace %s)", this.initialPlace.getName()));
         result.append(String.format(" -> [InitialTransition %s]", this.initialTransition.getName()));
         controlServiceCalls.forEach(pair -> {
             result.append(String.format(" -> (%s) -> [%s]", pair.getValue().getPlace().getName(), pair.getKey().getName()));
         });
         result.append(String.format(" -> (EndPlace %s)", this.endPlace.getName()));
+        if(restartTransition != null)
+            result.append(String.format(" -> [RestartTransition %s] -> (InitialPlace %s)", restartTransition.getName(), initialPlace.getName()));
         // TODO add loops? It might actually be too obstructive.
         return result.toString();
     }
@@ -0,0 +1,396 @@
+package cz.muni.fi.umlspnp.transformations;
+
+import cz.muni.fi.umlspnp.analysis.CsplExpression;
+import cz.muni.fi.umlspnp.analysis.ExpressionParser;
+import cz.muni.fi.spnp.core.models.PetriNet;
+import cz.muni.fi.spnp.core.models.arcs.Arc;
+import cz.muni.fi.spnp.core.models.arcs.ArcDirection;
+import cz.muni.fi.spnp.core.models.arcs.InhibitorArc;
+import cz.muni.fi.spnp.core.models.arcs.StandardArc;
+import cz.muni.fi.spnp.core.models.functions.Function;
+import cz.muni.fi.spnp.core.models.places.Place;
+import cz.muni.fi.spnp.core.models.places.StandardPlace;
+import cz.muni.fi.spnp.core.models.transitions.TimedTransition;
+import cz.muni.fi.spnp.core.models.transitions.Transition;
+import cz.muni.fi.spnp.core.transformators.spnp.distributions.ExponentialTransitionDistribution;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ *  Removes the transitions which can never fire from the generated Petri net together
+ * with the places, arcs and functions which are left without use.
+ * A place is markable if it is marked initially or it is an output place of a transition
+ * which may fire, a transition may fire if all its input places are markable and its guard
+ * is not false when the places which are not markable are empty. The markable places
+ * are propagated to a fixed point. Places and transitions referenced by name in the
+ * remaining functions (e.g. by the debug print segment) are never removed.
+ *
+ */
+public class DeadElementElimination {
+    private static final Pattern QUOTED_NAME = Pattern.compile("\"([^\"\\\\]*)\"");
+
+    private final PetriNet petriNet;
+
+    private final List<Transition> removedTransitions = new ArrayList<>();
+    private final List<Place> removedPlaces = new ArrayList<>();
+    private final List<Arc> removedArcs = new ArrayList<>();
+    private final List<Function> removedFunctions = new ArrayList<>();
+
+    /* State of the propagation */
+    private List<Place> places;
+    private List<Transition> transitions;
+    private Map<String, Integer> placeIndices;
+    private Map<Transition, Integer> transitionIndices;
+    private ExpressionParser parser;
+    private CsplExpression[] guards;
+    private List<Arc>[] transitionArcs;
+    private boolean[] markable;
+
+    public DeadElementElimination(PetriNet petriNet) {
+        this.petriNet = petriNet;
+    }
+
+    /**
+     * Finds and removes the dead elements.
+     *
+     * @return Number of removed places and transitions.
+     */
+    @SuppressWarnings("unchecked")
+    public int eliminate() {
+        removedTransitions.clear();
+        removedPlaces.clear();
+        removedArcs.clear();
+        removedFunctions.clear();
+
+        places = new ArrayList<>(petriNet.getPlaces());
+        transitions = new ArrayList<>(petriNet.getTransitions());
+        placeIndices = new HashMap<>();
+        for(int p = 0; p < places.size(); p++)
+            placeIndices.put(places.get(p).getName(), p);
+        transitionIndices = new IdentityHashMap<>();
+        for(int t = 0; t < transitions.size(); t++)
+            transitionIndices.put(transitions.get(t), t);
+        parser = new ExpressionParser(placeIndices);
+
+        transitionArcs = (List<Arc>[]) new List<?>[transitions.size()];
+        for(int t = 0; t < transitionArcs.length; t++)
+            transitionArcs[t] = new ArrayList<>();
+        var placeArcs = (List<Arc>[]) new List<?>[places.size()];
+        for(int p = 0; p < placeArcs.length; p++)
+            placeArcs[p] = new ArrayList<>();
+        for(var arc : petriNet.getArcs()) {
+            var transition = transitionIndices.get(arc.getTransition());
+            var place = placeIndices.get(arc.getPlace().getName());
+            if(transition == null || place == null) {
+                System.err.println("Dead element elimination: arc connects an element which is not part of the net.");
+                return 0;
+            }
+            transitionArcs[transition].add(arc);
+            placeArcs[place].add(arc);
+        }
+
+        guards = new CsplExpression[transitions.size()];
+        for(int t = 0; t < guards.length; t++) {
+            var guardFunction = transitions.get(t).getGuardFunction();
+            if(guardFunction != null)
+                guards[t] = parser.parseFunctionBody(guardFunction.getBody());
+        }
+
+        var live = propagate();
+
+        // Dead transitions and the arcs which can not have any effect
+        var removedTransitionSet = Collections.newSetFromMap(new IdentityHashMap<Transition, Boolean>());
+        for(int t = 0; t < live.length; t++) {
+            if(!live[t])
+                removedTransitionSet.add(transitions.get(t));
+        }
+        Set<Arc> removedArcSet;
+        Set<String> referencedNames;
+        while(true) {
+            removedArcSet = Collections.newSetFromMap(new IdentityHashMap<Arc, Boolean>());
+            for(var arc : petriNet.getArcs()) {
+                if(removedTransitionSet.contains(arc.getTransition()) || isIneffective(arc))
+                    removedArcSet.add(arc);
+            }
+            referencedNames = getReferencedNames(removedTransitionSet, removedArcSet);
+            var kept = false;
+            for(var iterator = removedTransitionSet.iterator(); iterator.hasNext();) {
+                if(referencedNames.contains(iterator.next().getName())) {
+                    iterator.remove();
+                    kept = true;
+                }
+            }
+            if(!kept)
+                break;
+        }
+
+        // Places which are never marked and are left without arcs
+        var removedPlaceSet = Collections.newSetFromMap(new IdentityHashMap<Place, Boolean>());
+        for(int p = 0; p < places.size(); p++) {
+            if(markable[p] || referencedNames.contains(places.get(p).getName()))
+                continue;
+            var connected = false;
+            for(var arc : placeArcs[p]) {
+                if(!removedArcSet.contains(arc)) {
+                    connected = true;
+                    break;
+                }
+            }
+            if(!connected)
+                removedPlaceSet.add(places.get(p));
+        }
+
+        var keptFunctions = Collections.newSetFromMap(new IdentityHashMap<Function, Boolean>());
+        var candidateFunctions = Collections.newSetFromMap(new IdentityHashMap<Function, Boolean>());
+        for(var transition : transitions)
+            addFunctions(transition, removedTransitionSet.contains(transition) ? candidateFunctions : keptFunctions);
+        for(var arc : petriNet.getArcs())
+            addFunctions(arc, removedArcSet.contains(arc) ? candidateFunctions : keptFunctions);
+
+        // Removal in the order of the net
+        for(var arc : new ArrayList<>(petriNet.getArcs())) {
+            if(removedArcSet.contains(arc)) {
+                petriNet.removeArc(arc);
+                removedArcs.add(arc);
+            }
+        }
+        for(var transition : transitions) {
+            if(removedTransitionSet.contains(transition)) {
+                petriNet.removeTransition(transition);
+                removedTransitions.add(transition);
+            }
+        }
+        for(var place : places) {
+            if(removedPlaceSet.contains(place)) {
+                petriNet.removePlace(place);
+                removedPlaces.add(place);
+            }
+        }
+        for(var function : new ArrayList<>(petriNet.getFunctions())) {
+            if(candidateFunctions.contains(function) && !keptFunctions.contains(function)) {
+                petriNet.removeFunction(function);
+                removedFunctions.add(function);
+            }
+        }
+
+        places = null;
+        transitions = null;
+        transitionArcs = null;
+        return removedTransitions.size() + removedPlaces.size();
+    }
+
+    /**
+     * Propagates the markable places from the initial marking.
+     *
+     * @return Flags of the transitions which may fire.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean[] propagate() {
+        markable = new boolean[places.size()];
+        for(int p = 0; p < markable.length; p++) {
+            var place = places.get(p);
+            markable[p] = !(place instanceof StandardPlace) || ((StandardPlace) place).getNumberOfTokens() > 0;
+        }
+
+        // Transitions which need to be checked again when a place becomes markable
+        var dependents = (List<Integer>[]) new List<?>[places.size()];
+        for(int p = 0; p < dependents.length; p++)
+            dependents[p] = new ArrayList<>();
+        var referenced = new HashSet<Integer>();
+        for(int t = 0; t < transitions.size(); t++) {
+            referenced.clear();
+            if(guards[t] != null)
+                guards[t].collectPlaces(referenced);
+            for(var arc : transitionArcs[t]) {
+                if(isInputArc(arc))
+                    referenced.add(placeIndices.get(arc.getPlace().getName()));
+            }
+            for(var place : referenced)
+                dependents[place].add(t);
+        }
+
+        var live = new boolean[transitions.size()];
+        var queue = new ArrayDeque<Integer>();
+        for(int t = 0; t < transitions.size(); t++)
+            queue.add(t);
+        while(!queue.isEmpty()) {
+            int t = queue.poll();
+            if(live[t] || !mayFire(t))
+                continue;
+            live[t] = true;
+            for(var arc : transitionArcs[t]) {
+                if(!(arc instanceof StandardArc) || ((StandardArc) arc).getArcDirection() != ArcDirection.Output)
+                    continue;
+                int place = placeIndices.get(arc.getPlace().getName());
+                if(!markable[place]) {
+                    markable[place] = true;
+                    queue.addAll(dependents[place]);
+                }
+            }
+        }
+        return live;
+    }
+
+    private boolean mayFire(int transition) {
+        if(guards[transition] != null && isFalse(evaluate(guards[transition])))
+            return false;
+        for(var arc : transitionArcs[transition]) {
+            if(!isInputArc(arc) || markable[placeIndices.get(arc.getPlace().getName())])
+                continue;
+            var multiplicityFunction = ((StandardArc) arc).getMultiplicityFunction();
+            if(multiplicityFunction == null)
+                return false;
+            // A marking dependent arc requires tokens only if its cardinality is positive
+            var multiplicity = parser.parseFunctionBody(multiplicityFunction.getBody());
+            var value = multiplicity == null ? null : evaluate(multiplicity);
+            if(value != null && value > 0.0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Arcs of the live transitions which never move a token or never disable the transition,
+     * the inhibitor arcs and the marking dependent input arcs of zero cardinality
+     * connected to places which are never marked.
+     */
+    private boolean isIneffective(Arc arc) {
+        var place = placeIndices.get(arc.getPlace().getName());
+        if(markable[place])
+            return false;
+        if(arc instanceof InhibitorArc)
+            return true;
+        if(!isInputArc(arc))
+            return false;
+        var multiplicityFunction = ((StandardArc) arc).getMultiplicityFunction();
+        if(multiplicityFunction == null)
+            return false;
+        var multiplicity = parser.parseFunctionBody(multiplicityFunction.getBody());
+        var value = multiplicity == null ? null : evaluate(multiplicity);
+        return value != null && value == 0.0;
+    }
+
+    private static boolean isInputArc(Arc arc) {
+        return arc instanceof StandardArc && ((StandardArc) arc).getArcDirection() == ArcDirection.Input;
+    }
+
+    private static boolean isFalse(Double value) {
+        return value != null && !CsplExpression.isTrue(value);
+    }
+
+    /**
+     * Evaluates the expression in all markings in which the places which are not markable are empty.
+     *
+     * @return The value or null if it depends on the marking.
+     */
+    private Double evaluate(CsplExpression expression) {
+        if(expression.isConstant())
+            return expression.getConstantValue();
+        if(expression instanceof CsplExpression.Mark)
+            return markable[((CsplExpression.Mark) expression).getPlace()] ? null : 0.0;
+        if(expression instanceof CsplExpression.Unary) {
+            var unary = (CsplExpression.Unary) expression;
+            var operand = evaluate(unary.getOperand());
+            if(operand == null)
+                return null;
+            if(unary.getOperator() == CsplExpression.UnaryOperator.NOT)
+                return CsplExpression.fromBoolean(!CsplExpression.isTrue(operand));
+            return -operand;
+        }
+        if(expression instanceof CsplExpression.Binary) {
+            var binary = (CsplExpression.Binary) expression;
+            var operator = binary.getOperator();
+            var left = evaluate(binary.getLeft());
+            var right = evaluate(binary.getRight());
+            if(operator == CsplExpression.BinaryOperator.AND && (isFalse(left) || isFalse(right)))
+                return 0.0;
+            if(operator == CsplExpression.BinaryOperator.OR
+                    && ((left != null && CsplExpression.isTrue(left)) || (right != null && CsplExpression.isTrue(right))))
+                return 1.0;
+            if(left == null || right == null)
+                return null;
+            return operator.apply(left, right);
+        }
+        return null;
+    }
+
+    /**
+     *
+     * @return Names quoted in the functions of the elements which are not removed and in the other functions of the net.
+     */
+    private Set<String> getReferencedNames(Set<Transition> removedTransitionSet, Set<Arc> removedArcSet) {
+        var functions = Collections.newSetFromMap(new IdentityHashMap<Function, Boolean>());
+        var removedOwners = Collections.newSetFromMap(new IdentityHashMap<Function, Boolean>());
+        transitions.forEach(transition -> addFunctions(transition, removedTransitionSet.contains(transition) ? removedOwners : functions));
+        petriNet.getArcs().forEach(arc -> addFunctions(arc, removedArcSet.contains(arc) ? removedOwners : functions));
+        petriNet.getFunctions().forEach(function -> {
+            if(!removedOwners.contains(function))
+                functions.add(function);
+        });
+
+        var result = new HashSet<String>();
+        functions.forEach(function -> {
+            if(function.getBody() == null)
+                return;
+            var matcher = QUOTED_NAME.matcher(function.getBody());
+            while(matcher.find())
+                result.add(matcher.group(1));
+        });
+        return result;
+    }
+
+    private static void addFunctions(Transition transition, Set<Function> functions) {
+        if(transition.getGuardFunction() != null)
+            functions.add(transition.getGuardFunction());
+        if(transition instanceof TimedTransition) {
+            var distribution = ((TimedTransition) transition).getTransitionDistribution();
+            if(distribution instanceof ExponentialTransitionDistribution) {
+                var distributionFunction = ((ExponentialTransitionDistribution) distribution).getDistributionFunction();
+                if(distributionFunction != null)
+                    functions.add(distributionFunction);
+            }
+        }
+    }
+
+    private static void addFunctions(Arc arc, Set<Function> functions) {
+        if(arc instanceof StandardArc && ((StandardArc) arc).getMultiplicityFunction() != null)
+            functions.add(((StandardArc) arc).getMultiplicityFunction());
+    }
+
+    public List<Transition> getRemovedTransitions() {
+        return removedTransitions;
+    }
+
+    public List<Place> getRemovedPlaces() {
+        return removedPlaces;
+    }
+
+    public List<Arc> getRemovedArcs() {
+        return removedArcs;
+    }
+
+    public List<Function> getRemovedFunctions() {
+        return removedFunctions;
+    }
+
+    @Override
+    public String toString() {
+        var result = new StringBuilder();
+        result.append(String.format("Dead element elimination:%n"));
+        result.append(String.format("  removed transitions: %d, places: %d, arcs: %d, functions: %d%n",
+                                    removedTransitions.size(), removedPlaces.size(), removedArcs.size(), removedFunctions.size()));
+        removedTransitions.forEach(transition -> result.append(String.format("    transition %s%n", transition.getName())));
+        removedPlaces.forEach(place -> result.append(String.format("    place %s%n", place.getName())));
+        removedArcs.forEach(arc -> result.append(String.format("    arc %s - %s%n", arc.getPlace().getName(), arc.getTransition().getName())));
+        removedFunctions.forEach(function -> result.append(String.format("    function %s%n", function.getName())));
+        return result.toString();
+    }
+}
@@ -19,58 +19,61 @@ import java.util.List;
  *
  */
 public class DebugPrintSegment extends Segment {
-    private final ControlServiceSegment controlServiceSegment;
+    private final List<ControlServiceSegment> controlServiceSegments;
     private final List<PhysicalSegment> physicalSegments;
     private final List<CommunicationSegment> communicationSegments;
     
     public DebugPrintSegment(PetriNet petriNet,
-                             ControlServiceSegment controlServiceSegment,
+                             List<ControlServiceSegment> controlServiceSegments,
                              List<PhysicalSegment> physicalSegments,
                              List<CommunicationSegment> communicationSegments) {
         super(petriNet, true);
         
-        this.controlServiceSegment = controlServiceSegment;
+        this.controlServiceSegments = controlServiceSegments;
         this.physicalSegments = physicalSegments;
         this.communicationSegments = communicationSegments;
     }
     
     public void transform() {
         var guardBody = new StringBuilder();
-        generateControlSegmentDebugPrint(guardBody);
+        controlServiceSegments.forEach(controlServiceSegment -> generateControlSegmentDebugPrint(guardBody, controlServiceSegment));
         generatePhysicalSegmentsDebugPrint(guardBody);
         generateCommunicationSegmentsDebugPrint(guardBody);
-        generateExecutionSegmentsDebugPrint(guardBody);
+        controlServiceSegments.forEach(controlServiceSegment -> generateExecutionSegmentsDebugPrint(guardBody, controlServiceSegment));
         
         guardBody.append(String.format("%nfprintf(stderr, \"\\n\");%n"));
         guardBody.append(String.format("%nreturn 0;"));
         
         var p1_name = SPNPUtils.createPlaceName("PRINT", "P1");
-        var p1 = new StandardPlace(SPNPUtils.placeCounter++, p1_name);
+        var p1 = new StandardPlace(SPNPUtils.nextPlaceNumber(), p1_name);
         p1.setNumberOfTokens(1);
         petriNet.addPlace(p1);
         var p2_name = SPNPUtils.createPlaceName("PRINT", "P2");
-        var p2 = new StandardPlace(SPNPUtils.placeCounter++, p2_name);
+        var p2 = new StandardPlace(SPNPUtils.nextPlaceNumber(), p2_name);
         petriNet.addPlace(p2);
         
         var t1_name = SPNPUtils.createTransitionName("PRINT", "T1");
         var guard = new FunctionSPNP<>("__PRINT_GUARD", FunctionType.Guard, guardBody.toString(), Integer.class);
-        var t1 = new ImmediateTransition(SPNPUtils.transitionCounter++, t1_name,
+        var t1 = new ImmediateTransition(SPNPUtils.nextTransitionNumber(), t1_name,
                         SPNPUtils.TR_PRIORITY_DEBUG_PRINT, guard, new ConstantTransitionProbability(1.0));
         petriNet.addTransition(t1);
 
-        var inputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Input, p1, t1);
+        var inputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Input, p1, t1);
         petriNet.addArc(inputArc);
-        var outputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Output, p2, t1);
+        var outputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Output, p2, t1);
         petriNet.addArc(outputArc);
     }
     
-    private void generateControlSegmentDebugPrint(StringBuilder guardBody) {
+    private void generateControlSegmentDebugPrint(StringBuilder guardBody, ControlServiceSegment controlServiceSegment) {
         var control_s = controlServiceSegment;
         guardBody.append(String.format("if(mark(\"%s\"))%n", control_s.getInitialPlace().getName()));
         guardBody.append(String.format("    fprintf(stderr, \"\\n\\n\\n\\n\");%n%n"));
 
-        guardBody.append(String.format("/* CONTROL SEGMENT */%n"));
-        guardBody.append(String.format("fprintf(stderr, \"CONTROL SEGMENT: "));
+        var segmentLabel = "CONTROL SEGMENT";
+        if(control_s.getScenario() != null)
+            segmentLabel = String.format("CONTROL SEGMENT %d", control_s.getScenario().getIndex());
+        guardBody.append(String.format("/* %s */%n", segmentLabel));
+        guardBody.append(String.format("fprintf(stderr, \"%s: ", segmentLabel));
         guardBody.append(String.format("(%%d) -> [%%d]"));
         control_s.controlServiceCalls.forEach(_unused -> {
             guardBody.append(String.format(" -> (%%d) -> [%%d]"));
@@ -152,7 +155,7 @@ public class DebugPrintSegment extends Segment {
         });
     }
     
-    private void generateExecutionSegmentsDebugPrint(StringBuilder guardBody) {
+    private void generateExecutionSegmentsDebugPrint(StringBuilder guardBody, ControlServiceSegment controlServiceSegment) {
         var control_s = controlServiceSegment;
 
         control_s.getControlServiceCalls().forEach(pair -> {
@@ -0,0 +1,797 @@
+package cz.muni.fi.umlspnp.transformations;
+import cz.muni.fi.umlspnp.analysis.ImportanceFunction;
+import cz.muni.fi.umlspnp.metrics.Metrics;
+import cz.muni.fi.umlspnp.models.AnalysisPlan;
+import cz.muni.fi.umlspnp.models.MainModel;
+import cz.muni.fi.umlspnp.models.deploymentdiagram.DeploymentTarget;
+import cz.muni.fi.umlspnp.models.deploymentdiagram.RedundancyGroup;
+import cz.muni.fi.umlspnp.models.sequencediagram.Loop;
+import cz.muni.fi.spnp.core.models.PetriNet;
+import cz.muni.fi.spnp.core.models.functions.FunctionType;
+import cz.muni.fi.spnp.core.models.places.Place;
+import cz.muni.fi.spnp.core.models.places.StandardPlace;
+import cz.muni.fi.spnp.core.models.transitions.ImmediateTransition;
+import cz.muni.fi.spnp.core.models.transitions.Transition;
+import cz.muni.fi.spnp.core.transformators.spnp.*;
+import cz.muni.fi.spnp.core.transformators.spnp.code.FunctionSPNP;
+import cz.muni.fi.spnp.core.transformators.spnp.code.Include;
+import cz.muni.fi.spnp.core.transformators.spnp.code.SPNPCode;
+import cz.muni.fi.spnp.core.transformators.spnp.options.ConstantTypeOption;
+import cz.muni.fi.spnp.core.transformators.spnp.options.ConstantValue;
+import cz.muni.fi.spnp.core.transformators.spnp.options.DoubleTypeOption;
+import cz.muni.fi.spnp.core.transformators.spnp.options.IntegerTypeOption;
+import cz.muni.fi.spnp.core.transformators.spnp.options.Option;
+import cz.muni.fi.spnp.core.transformators.spnp.options.OptionKey;
+import cz.muni.fi.spnp.core.transformators.spnp.options.SPNPOptions;
+import cz.muni.fi.spnp.core.transformators.spnp.parameters.InputParameter;
+import cz.muni.fi.umlspnp.common.Pair;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ *  Transforms the deployment and sequence models into the appropriate SPNP code.
+ *
+ */
+public class DefaultTransformator implements Transformator{
+    private static final int TRANSIENT_LABEL_LENGTH = 256;
+
+    MainModel model = null;
+
+    private final SPNPTransformator transformator;
+    private final SPNPCode code;
+    private final SPNPOptions options;
+    private final PetriNet petriNet;
+    private final Map<String, String> optionValues = new LinkedHashMap<>();
+    private final Map<String, Integer> elementOrigins = new LinkedHashMap<>();
+
+    private final List<PhysicalSegment> physicalSegments = new ArrayList<>();
+    private final List<CommunicationSegment> communicationSegments = new ArrayList<>();
+    private final List<ControlServiceSegment> controlServiceSegments = new ArrayList<>();
+    private WorkloadSegment workloadSegment = null;
+    private ImportanceFunction importanceFunction = null;
+    private RegenerationCycle regenerationCycle = null;
+    private RateParameters rateParameters = new RateParameters();
+    private final Set<InputParameter> inputParameters = new LinkedHashSet<>();
+
+    private final ServiceCallTree serviceCallTree;
+    private BiConsumer<String, Double> progressListener = null;
+
+    public DefaultTransformator(MainModel mainModel){
+        this.model = mainModel;
+
+        this.code = createCode();
+        this.options = createOptions();
+        this.petriNet = createPetriNet();
+        this.transformator = new SPNPTransformator(code, options);
+        
+        this.serviceCallTree = new ServiceCallTree(mainModel.getSequenceDiagram());
+    }
+
+    protected final SPNPCode createCode() {
+        var spnpCode = new SPNPCode();
+        spnpCode.addInclude(new Include("\"user.h\""));
+        // The ac_final function is created from the analysis plan by the transformation
+        return spnpCode;
+    }
+
+    protected final SPNPOptions createOptions() {
+        var optionsSet = new LinkedHashSet<Option>();
+        return new SPNPOptions(inputParameters, optionsSet);
+    }
+    
+    public void createSPNPOptionConstant(String key, String value) {
+        var option = OptionKey.valueOf(key);
+        var optionValue = ConstantValue.valueOf(value);
+        addSPNPOption(new ConstantTypeOption(option, optionValue));
+        optionValues.put(key, value);
+    }
+
+    public void createSPNPOptionInteger(String key, int value) {
+        var option = OptionKey.valueOf(key);
+        addSPNPOption(new IntegerTypeOption(option, value));
+        optionValues.put(key, Integer.toString(value));
+    }
+
+    public void createSPNPOptionDouble(String key, double value) {
+        var option = OptionKey.valueOf(key);
+        addSPNPOption(new DoubleTypeOption(option, value));
+        optionValues.put(key, Double.toString(value));
+    }
+    
+    private void addSPNPOption(Option option) {
+        options.getOptions().add(option);
+    }
+
+    protected final PetriNet createPetriNet() {
+        var net = new PetriNet();
+
+        /* Any global net alterations here */
+
+        return net;
+    }
+
+    /**
+     * 
+     * @return The service call tree, the segments of the transformed Petri net and the input parameters.
+     */
+    public String getDebugInfo() {
+        var result = new StringBuilder();
+        result.append(String.format("Service Call Tree:%n------------------%n"));
+        result.append(String.format("%s%n", serviceCallTree));
+        
+        result.append(String.format("%nPetri net:%n----------%n"));
+
+        // Physical Segments
+        physicalSegments.forEach(physicalSegment -> appendSegment(result, physicalSegment));
+        
+        // Control Service Segments
+        if(workloadSegment != null)
+            appendSegment(result, workloadSegment);
+        controlServiceSegments.forEach(controlServiceSegment -> appendSegment(result, controlServiceSegment));
+
+        // Execution Segments
+        getControlServiceCalls().forEach(controlSegmentPair -> {
+            var serviceCall = controlSegmentPair.getValue();
+            if(serviceCall.isExecutionServiceCall())
+                appendSegment(result, (ServiceLeafSegment) serviceCall.getActionSegment());
+        });
+
+        // Communication Segments
+        communicationSegments.forEach(communicationSegment -> appendSegment(result, communicationSegment));
+        
+        // Input parameters
+        if(!rateParameters.isEmpty())
+            result.append(String.format("%s%n", rateParameters));
+        return result.toString();
+    }
+
+    private static void appendSegment(StringBuilder result, Segment segment) {
+        result.append(String.format("%s%n%n%n", segment));
+    }
+    
+    public PetriNet getPetriNet() {
+        return petriNet;
+    }
+
+    /**
+     * Groups the places by the segments which created them, ordered as the levels
+     * of the symbolic state space (physical segments at the bottom, control segment at the top).
+     * 
+     * @return Groups of places.
+     */
+    public List<List<StandardPlace>> getSegmentPlaceGroups() {
+        var groups = new ArrayList<List<StandardPlace>>();
+        physicalSegments.forEach(physicalSegment -> {
+            groups.add(new ArrayList<>(physicalSegment.getStatePlaces().values()));
+        });
+        communicationSegments.forEach(communicationSegment -> {
+            var places = new ArrayList<StandardPlace>();
+            places.add(communicationSegment.getStartPlace());
+            places.add(communicationSegment.getEndPlace());
+            places.addAll(communicationSegment.getFailPlaces());
+            groups.add(places);
+        });
+        getControlServiceCalls().forEach(controlSegmentPair -> {
+            var serviceCall = controlSegmentPair.getValue();
+            if(serviceCall.isExecutionServiceCall()) {
+                var leafSegment = (ServiceLeafSegment) serviceCall.getActionSegment();
+                var places = new ArrayList<StandardPlace>();
+                places.add(leafSegment.getStartPlace());
+                places.add(leafSegment.getEndPlace());
+                places.addAll(leafSegment.getFailPlaces());
+                groups.add(places);
+            }
+        });
+        var controlPlaces = new ArrayList<StandardPlace>();
+        if(workloadSegment != null)
+            controlPlaces.add(workloadSegment.getChoicePlace());
+        controlServiceSegments.forEach(controlServiceSegment -> {
+            controlPlaces.add(controlServiceSegment.getInitialPlace());
+            controlPlaces.addAll(controlServiceSegment.getPlaces());
+            controlServiceSegment.getLoopSegments().forEach(loopSegment -> {
+                controlPlaces.add(loopSegment.getFlushPlace());
+                controlPlaces.add(loopSegment.getRepeatsPlace());
+            });
+        });
+        controlPlaces.add(getEndPlace());
+        groups.add(controlPlaces);
+        return groups;
+    }
+
+    public void generatePrintingSegment() {
+        var debugPrintSegment = new DebugPrintSegment(petriNet,
+                                                      controlServiceSegments,
+                                                      physicalSegments,
+                                                      communicationSegments);
+        debugPrintSegment.transform();
+    }
+
+    /**
+     * Generates the binary marking trace segment in place of the debug print segment.
+     * The watched places are chosen by their names and the segments which created them.
+     *
+     * @param options Sampling and place filters of the trace.
+     * @return Number of the watched places, the segment is not generated if no place is watched.
+     */
+    public int generateMarkingTraceSegment(MarkingTraceOptions options) {
+        var segmentNames = getSegmentNames();
+        var watchedPlaces = new LinkedHashMap<String, String>();
+        petriNet.getPlaces().forEach(place -> {
+            var objectID = elementOrigins.get(place.getName());
+            var segmentName = objectID != null ? segmentNames.getOrDefault(objectID, "other") : "other";
+            if(options.isWatched(place.getName(), segmentName))
+                watchedPlaces.put(place.getName(), segmentName);
+        });
+        if(watchedPlaces.isEmpty()) {
+            System.err.println(String.format("Marking trace error: no place matches the filters (%s)", options));
+            return 0;
+        }
+        var markingTraceSegment = new MarkingTraceSegment(petriNet, watchedPlaces, options);
+        markingTraceSegment.transform();
+        return watchedPlaces.size();
+    }
+
+    /**
+     * Sets the listener notified at the start of each phase of the transformation
+     * with the name of the phase and the finished part of the transformation (0 to 1).
+     * The listener is called on the thread performing the transformation.
+     *
+     * @param progressListener The listener or null.
+     */
+    public void setProgressListener(BiConsumer<String, Double> progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Starts a measured phase of the transformation, the transformation is cancelled
+     * between the phases when its thread is interrupted.
+     */
+    private Metrics.Phase startPhase(String name, double progress) {
+        if(Thread.currentThread().isInterrupted())
+            throw new CancellationException(String.format("Transformation cancelled before %s", name));
+        if(progressListener != null)
+            progressListener.accept(name, progress);
+        return Metrics.phase(name);
+    }
+
+    /**
+     * Performs the transformation into the intermediate Petri net model.
+     * Several segments are transformed in phases because they depend on 
+     * some other segment which needs to be transformed first
+     */
+    public void transform(boolean generateComments) {
+        SPNPUtils.resetCounters();
+        
+        var treeRoot = serviceCallTree.getRoot();
+        if(treeRoot == null) {
+            System.err.println("Transformator error: Service call tree is empty (no highest lifeline activation found)");
+            return;
+        }
+        var deploymentDiagram = model.getDeploymentDiagram();
+        var sequenceDiagram = model.getSequenceDiagram();
+
+        // Physical segments (the model elements are transformed in the order of their identifiers)
+        var nodes = new ArrayList<>(deploymentDiagram.getElementContainer().getNodes().values());
+        nodes.sort(Comparator.comparingInt(node -> node.getObjectInfo().getID()));
+        try(var phase = startPhase("transform.physical", 0.0)) {
+            nodes.forEach(node -> {
+                if(node instanceof DeploymentTarget) {
+                    var physicalSegment = new PhysicalSegment(petriNet, generateComments, rateParameters, (DeploymentTarget) node);
+                    physicalSegment.transform();
+                    recordOrigins(physicalSegment.getNode().getObjectInfo().getID());
+                    physicalSegments.add(physicalSegment);
+                }
+            });
+        }
+
+        // Communication segments
+        var communicationLinks = new ArrayList<>(deploymentDiagram.getCommunicationLinks());
+        communicationLinks.sort(Comparator.comparingInt(communicationLink -> communicationLink.getObjectInfo().getID()));
+        try(var phase = startPhase("transform.communication", 0.2)) {
+            communicationLinks.forEach(communicationLink -> {
+                var communicationSegment = new CommunicationSegment(petriNet, generateComments, rateParameters, treeRoot, communicationLink);
+                communicationSegment.transform();
+                communicationSegment.transformPhysicalSegmentDependencies(physicalSegments);
+                recordOrigins(communicationLink.getObjectInfo().getID());
+                communicationSegments.add(communicationSegment);
+            });
+        }
+
+        // Control service segments, one per scenario of a workload joined by the scenario choice
+        // (the loop segments are timed separately inside this phase)
+        var loops = new ArrayList<>(sequenceDiagram.getLoops());
+        loops.sort(Comparator.comparingInt(loop -> loop.getObjectInfo().getID()));
+        try(var phase = startPhase("transform.control", 0.4)) {
+            if(serviceCallTree.isWorkload()) {
+                var scenarios = serviceCallTree.getScenarios();
+                workloadSegment = new WorkloadSegment(petriNet, generateComments, rateParameters, scenarios);
+                workloadSegment.transformPlaces();
+                scenarios.forEach(scenario -> {
+                    var controlServiceSegment = new ControlServiceSegment(petriNet, generateComments, rateParameters, physicalSegments, communicationSegments,
+                                                                          getScenarioLoops(scenario, loops), scenario, workloadSegment.getEndPlace());
+                    controlServiceSegment.transform();
+                    controlServiceSegments.add(controlServiceSegment);
+                });
+                workloadSegment.transformChoice(controlServiceSegments);
+            }
+            else {
+                var controlServiceSegment = new ControlServiceSegment(petriNet, generateComments, rateParameters, physicalSegments, communicationSegments, loops, treeRoot);
+                controlServiceSegment.transform();
+                controlServiceSegments.add(controlServiceSegment);
+            }
+            recordControlServiceSegmentOrigins();
+            recordOrigins(treeRoot.getArtifact().getObjectInfo().getID());
+        }
+
+        try(var phase = startPhase("transform.dependencies", 0.7)) {
+            // Physical segment dependency transformations
+            physicalSegments.forEach(physicalSegment -> {
+                physicalSegment.transformControlServiceSegmentDependencies(physicalSegments, controlServiceSegments);
+                recordOrigins(physicalSegment.getNode().getObjectInfo().getID());
+            });
+
+            // Communictaion segment finish Control Service Segment dependent transformations
+            communicationSegments.forEach(communicationSegment -> {
+                communicationSegment.transformControlServiceSegmentDependencies(controlServiceSegments);
+                recordOrigins(communicationSegment.getCommunicationLink().getObjectInfo().getID());
+            });
+        }
+        
+        try(var phase = startPhase("transform.measures", 0.9)) {
+            // Restart path and regeneration point for the regenerative simulation
+            if(isRegenerativeSimulation()) {
+                if(workloadSegment != null) {
+                    workloadSegment.transformRegeneration();
+                    regenerationCycle = new RegenerationCycle(workloadSegment.getChoiceTransitions().stream()
+                                                                             .map(Transition::getName)
+                                                                             .collect(Collectors.toList()),
+                                                              workloadSegment.getRestartTransition().getName());
+                }
+                else {
+                    var controlServiceSegment = controlServiceSegments.get(0);
+                    controlServiceSegment.transformRegeneration();
+                    regenerationCycle = new RegenerationCycle(List.of(controlServiceSegment.getInitialTransition().getName()),
+                                                              controlServiceSegment.getRestartTransition().getName());
+                }
+                recordOrigins(treeRoot.getArtifact().getObjectInfo().getID());
+            }
+
+            // Importance function for the splitting simulation
+            if(isSplittingSimulation()) {
+                importanceFunction = createImportanceFunction();
+                petriNet.addFunction(new FunctionSPNP<>("importance", FunctionType.Other, importanceFunction.toCspl(), Integer.class));
+            }
+
+            // Measures of the analysis plan
+            transformAnalysisPlan(model.getAnalysisPlan());
+
+            // Lifted rates
+            inputParameters.addAll(rateParameters.createInputParameters());
+        }
+    }
+    
+    /**
+     * Sets which numeric annotations are emitted as SPNP input parameters instead of literals.
+     * Needs to be called before the transformation.
+     * 
+     * @param rateParameters The lifted categories of the annotations.
+     */
+    public void setRateParameters(RateParameters rateParameters) {
+        this.rateParameters = rateParameters;
+    }
+    
+    public RateParameters getRateParameters() {
+        return rateParameters;
+    }
+
+    List<PhysicalSegment> getPhysicalSegments() {
+        return physicalSegments;
+    }
+
+    Map<String, String> getOptionValues() {
+        return optionValues;
+    }
+
+    AnalysisPlan getAnalysisPlan() {
+        return model.getAnalysisPlan();
+    }
+    
+    /**
+     * Creates the reward functions of the selected measures and the ac_final body with
+     * the steady state and transient solutions of the analysis plan. The scenario success
+     * of the regenerative simulation is not a reward, the throughputs of the regeneration
+     * cycle are printed instead (see RegenerationCycle).
+     * 
+     * @param analysisPlan The analysis plan.
+     */
+    private void transformAnalysisPlan(AnalysisPlan analysisPlan) {
+        var rewards = new ArrayList<Pair<String, String>>();
+        // The end marking of the regenerative simulation is vanishing, the success is
+        // estimated per regeneration cycle from the printed throughputs (see RegenerationCycle)
+        var successPerCycle = analysisPlan.isScenarioSuccess() && regenerationCycle != null;
+        if(analysisPlan.isScenarioSuccess() && !successPerCycle) {
+            var endPlace = getEndPlace();
+            rewards.add(new Pair<>("Scenario success", createRewardFunction("reward_success",
+                                   String.format("return mark(\"%s\") > 0;", endPlace.getName()))));
+        }
+        if(analysisPlan.isNodeAvailability()) {
+            physicalSegments.forEach(physicalSegment -> {
+                var downPlace = physicalSegment.getDownStatePlace();
+                if(downPlace == null)
+                    return;
+                var nodeName = physicalSegment.getNode().getNameProperty().getValue();
+                var functionName = String.format("reward_%s_avail", SPNPUtils.prepareName(nodeName, 8));
+                rewards.add(new Pair<>(String.format("Availability of \\\"%s\\\"", nodeName), createRewardFunction(functionName,
+                                       String.format("return mark(\"%s\") == 0;", downPlace.getName()))));
+            });
+        }
+        if(analysisPlan.isFailureProbabilities()) {
+            var failPlaces = new ArrayList<StandardPlace>();
+            getControlServiceCalls().forEach(pair -> {
+                var actionSegment = pair.getValue().getActionSegment();
+                if(actionSegment != null)
+                    failPlaces.addAll(actionSegment.getFailPlaces());
+            });
+            communicationSegments.forEach(communicationSegment -> failPlaces.addAll(communicationSegment.getFailPlaces()));
+            failPlaces.forEach(failPlace -> {
+                var functionName = String.format("reward_%s", SPNPUtils.prepareName(failPlace.getName(), 8));
+                rewards.add(new Pair<>(String.format("Failure %s", failPlace.getName()), createRewardFunction(functionName,
+                                       String.format("return mark(\"%s\") > 0;", failPlace.getName()))));
+            });
+        }
+        
+        var acFinalBody = new StringBuilder();
+        if(analysisPlan.isSteadyState()) {
+            acFinalBody.append(String.format("solve(INFINITY);%n"));
+            rewards.forEach(reward -> acFinalBody.append(String.format("pr_expected(\"%s\", %s);%n", reward.getKey(), reward.getValue())));
+        }
+        transformTransientSweep(acFinalBody, analysisPlan.getTransientTimes(), rewards);
+        if(analysisPlan.isPrintQcol())
+            acFinalBody.append(String.format("print_qcol();%n"));
+        if(analysisPlan.isPrintRgraph())
+            acFinalBody.append(String.format("print_rgraph();%n"));
+        if(analysisPlan.isPrintQrow())
+            acFinalBody.append(String.format("print_qrow();%n"));
+        if(analysisPlan.isPrintMcInfo())
+            acFinalBody.append(String.format("pr_mc_info();%n"));
+        if(analysisPlan.isPrintStdAverage() || successPerCycle)
+            acFinalBody.append(String.format("pr_std_average();%n"));
+        code.setAcFinalFunction(new FunctionSPNP<>("ac_final", FunctionType.Other, acFinalBody.toString().strip(), Void.class));
+    }
+    
+    /**
+     * Appends a single loop over the sorted transient times of the analysis plan,
+     * each point is solved and its measures are printed with the time in the label.
+     * 
+     * @param acFinalBody The ac_final body.
+     * @param transientTimes The transient times of the analysis plan.
+     * @param rewards Labels and reward function names of the measures.
+     */
+    private void transformTransientSweep(StringBuilder acFinalBody, List<Double> transientTimes,
+                                         List<Pair<String, String>> rewards) {
+        var times = transientTimes.stream().distinct().sorted().map(time -> Double.toString(time)).collect(Collectors.toList());
+        if(times.isEmpty())
+            return;
+        acFinalBody.append(String.format("{%n"));
+        acFinalBody.append(String.format("    double transient_times[%d] = {%s};%n", times.size(), String.join(", ", times)));
+        acFinalBody.append(String.format("    char transient_label[%d];%n", TRANSIENT_LABEL_LENGTH));
+        acFinalBody.append(String.format("    int transient_index;%n"));
+        acFinalBody.append(String.format("    for(transient_index = 0; transient_index < %d; transient_index++) {%n", times.size()));
+        acFinalBody.append(String.format("        solve(transient_times[transient_index]);%n"));
+        rewards.forEach(reward -> {
+            // The label is a format string of sprintf, the time is its only conversion
+            var label = reward.getKey().replace("%", "%%");
+            acFinalBody.append(String.format("        snprintf(transient_label, %d, \"%s (t = %%.15g)\", transient_times[transient_index]);%n",
+                                             TRANSIENT_LABEL_LENGTH, label));
+            acFinalBody.append(String.format("        pr_expected(transient_label, %s);%n", reward.getValue()));
+        });
+        acFinalBody.append(String.format("    }%n"));
+        acFinalBody.append(String.format("}%n"));
+    }
+    
+    private String createRewardFunction(String name, String body) {
+        var functionName = SPNPUtils.createFunctionName(name);
+        petriNet.addFunction(new FunctionSPNP<>(functionName, FunctionType.Other, body, Double.class));
+        return functionName;
+    }
+
+    /**
+     * 
+     * @return True if the SPNP simulation run method needs an importance function (VAL_SPLIT, VAL_RESTART).
+     */
+    public boolean isSplittingSimulation() {
+        var runMethod = optionValues.get("IOP_SIM_RUNMETHOD");
+        return "VAL_SPLIT".equals(runMethod) || "VAL_RESTART".equals(runMethod);
+    }
+
+    /**
+     * The importance is the highest number of DOWN nodes within a redundancy group
+     * (a node outside of the groups forms its own group). If no node can go DOWN,
+     * the importance is the progress of the control token through the service calls.
+     */
+    private ImportanceFunction createImportanceFunction() {
+        var groups = new LinkedHashMap<Object, List<String>>();
+        physicalSegments.forEach(physicalSegment -> {
+            var downPlace = physicalSegment.getDownStatePlace();
+            if(downPlace == null)
+                return;
+            var node = physicalSegment.getNode();
+            Object group = node.getRedundancyGroup() != null ? node.getRedundancyGroup() : node;
+            groups.computeIfAbsent(group, key -> new ArrayList<>()).add(downPlace.getName());
+        });
+        
+        if(!groups.isEmpty()) {
+            var result = new ImportanceFunction("DOWN nodes within a redundancy group");
+            groups.forEach((group, places) -> {
+                String name;
+                if(group instanceof DeploymentTarget)
+                    name = String.format("node %s", ((DeploymentTarget) group).getNameProperty().getValue());
+                else
+                    name = String.format("redundancy group %d", ((RedundancyGroup) group).getGroupID());
+                var weights = new ArrayList<Integer>();
+                places.forEach(place -> weights.add(1));
+                result.addTerm(name, places, weights);
+            });
+            return result;
+        }
+        
+        var result = new ImportanceFunction("progress of the control token");
+        var places = new ArrayList<String>();
+        var weights = new ArrayList<Integer>();
+        controlServiceSegments.forEach(controlServiceSegment -> {
+            controlServiceSegment.getPlaces().forEach(place -> {
+                places.add(place.getName());
+                weights.add(places.size());
+            });
+        });
+        places.add(getEndPlace().getName());
+        weights.add(places.size());
+        result.addTerm("control service segment", places, weights);
+        return result;
+    }
+
+    /**
+     * 
+     * @return The importance function or null if the run method does not use it.
+     */
+    public ImportanceFunction getImportanceFunction() {
+        return importanceFunction;
+    }
+
+    /**
+     * 
+     * @return The transitions of the regeneration cycle or null if the run method is not regenerative.
+     */
+    public RegenerationCycle getRegenerationCycle() {
+        return regenerationCycle;
+    }
+
+    /**
+     * 
+     * @return True if the SPNP simulation run method needs regeneration points (VAL_REG, VAL_ISREG).
+     */
+    public boolean isRegenerativeSimulation() {
+        var runMethod = optionValues.get("IOP_SIM_RUNMETHOD");
+        return "VAL_REG".equals(runMethod) || "VAL_ISREG".equals(runMethod);
+    }
+
+    /**
+     * Assigns the places and transitions which have no origin yet (the ones created
+     * by the last transformation step) to a model object.
+     */
+    private void recordOrigins(int objectID) {
+        petriNet.getPlaces().forEach(place -> elementOrigins.putIfAbsent(place.getName(), objectID));
+        petriNet.getTransitions().forEach(transition -> elementOrigins.putIfAbsent(transition.getName(), objectID));
+    }
+
+    private void recordOrigin(Place place, int objectID) {
+        if(place != null)
+            elementOrigins.put(place.getName(), objectID);
+    }
+
+    private void recordOrigin(Transition transition, int objectID) {
+        if(transition != null)
+            elementOrigins.put(transition.getName(), objectID);
+    }
+
+    /**
+     * The control service segment transforms the execution and loop segments, their elements
+     * belong to the messages and loops instead of the control lifeline.
+     */
+    private void recordControlServiceSegmentOrigins() {
+        getControlServiceCalls().forEach(controlSegmentPair -> {
+            var serviceCall = controlSegmentPair.getValue();
+            var messageID = serviceCall.getMessage().getObjectInfo().getID();
+            recordOrigin(serviceCall.getPlace(), messageID);
+            recordOrigin(controlSegmentPair.getKey(), messageID);
+            if(serviceCall.isExecutionServiceCall()) {
+                var leafSegment = (ServiceLeafSegment) serviceCall.getActionSegment();
+                recordOrigin(leafSegment.getStartPlace(), messageID);
+                recordOrigin(leafSegment.getEndPlace(), messageID);
+                recordOrigin(leafSegment.getFailHWPlace(), messageID);
+                leafSegment.getFailPlaces().forEach(place -> recordOrigin(place, messageID));
+                recordOrigin(leafSegment.getInitialTransition(), messageID);
+                recordOrigin(leafSegment.getEndTransition(), messageID);
+                recordOrigin(leafSegment.getFailHWTransition(), messageID);
+                recordOrigin(leafSegment.getFlushTransition(), messageID);
+                leafSegment.getFailTypes().keySet().forEach(transition -> recordOrigin(transition, messageID));
+            }
+        });
+        getLoopSegments().forEach(loopSegment -> {
+            var loopID = loopSegment.getLoop().getObjectInfo().getID();
+            recordOrigin(loopSegment.getFlushPlace(), loopID);
+            recordOrigin(loopSegment.getRepeatsPlace(), loopID);
+            recordOrigin(loopSegment.getFlushTransition(), loopID);
+            recordOrigin(loopSegment.getRestartTransition(), loopID);
+        });
+    }
+
+    /**
+     * A loop belongs to the scenario whose tree contains its messages, the loops without
+     * messages are left to the first scenario (the loop segment reports them).
+     */
+    private List<Loop> getScenarioLoops(Scenario scenario, List<Loop> loops) {
+        var result = new ArrayList<Loop>();
+        var root = scenario.getRoot();
+        loops.forEach(loop -> {
+            var messages = loop.getMessages();
+            if(messages.isEmpty()) {
+                if(scenario.getIndex() == 1)
+                    result.add(loop);
+                return;
+            }
+            var contained = messages.stream().filter(message -> root.getNodeWithMessage(message) != null).count();
+            if(contained == messages.size())
+                result.add(loop);
+            else if(contained > 0)
+                System.err.println(String.format("Loop transformation error: loop \"%s\" contains messages of several scenarios",
+                                                 loop.nameProperty().getValue()));
+        });
+        return result;
+    }
+
+    /**
+     * 
+     * @return Service calls of the control service segments of all scenarios.
+     */
+    private List<Pair<ImmediateTransition, ServiceCall>> getControlServiceCalls() {
+        var result = new ArrayList<Pair<ImmediateTransition, ServiceCall>>();
+        controlServiceSegments.forEach(controlServiceSegment -> result.addAll(controlServiceSegment.getControlServiceCalls()));
+        return result;
+    }
+
+    private List<LoopSegment> getLoopSegments() {
+        var result = new ArrayList<LoopSegment>();
+        controlServiceSegments.forEach(controlServiceSegment -> result.addAll(controlServiceSegment.getLoopSegments()));
+        return result;
+    }
+
+    /**
+     * 
+     * @return The end place of the control flow (shared by the scenarios of a workload) or null if the model was not transformed.
+     */
+    StandardPlace getEndPlace() {
+        if(workloadSegment != null)
+            return workloadSegment.getEndPlace();
+        if(controlServiceSegments.isEmpty())
+            return null;
+        return controlServiceSegments.get(0).getEndPlace();
+    }
+
+    /**
+     * 
+     * @return Identifiers of the model objects which produced the places and transitions, by their names.
+     */
+    public Map<String, Integer> getElementOrigins() {
+        return elementOrigins;
+    }
+
+    /**
+     * 
+     * @return Name of the end place of the control service segment or null if the model was not transformed.
+     */
+    public String getControlEndPlaceName() {
+        var endPlace = getEndPlace();
+        if(endPlace == null)
+            return null;
+        return endPlace.getName();
+    }
+
+    /**
+     * Removes the transitions which can never fire and the places, arcs and functions
+     * left without use from the transformed Petri net (see DeadElementElimination).
+     * Needs to be called after the debug print segment is generated, the elements referenced
+     * by the debug print segment are kept.
+     * 
+     * @return The finished elimination with the removed elements.
+     */
+    public DeadElementElimination eliminateDeadElements() {
+        var elimination = new DeadElementElimination(petriNet);
+        elimination.eliminate();
+        return elimination;
+    }
+
+    /**
+     * Transforms the intermediate Petri net model into SPNP code, the elements are
+     * emitted in the deterministic order in which the transformation created them.
+     * @return Final SPNP code representing the modeled system.
+     */
+    @Override
+    public String getOutput(){
+        try(var phase = Metrics.phase("transform.output")) {
+            return transformator.transform(petriNet);
+        }
+    }
+
+    /**
+     * 
+     * @return Sizes of the transformed net per segment type.
+     */
+    public NetStatistics getNetStatistics() {
+        return new NetStatistics(petriNet, elementOrigins, getSegmentNames());
+    }
+
+    /**
+     * Writes the SPNP code split into one C file per segment, a driver with the net()
+     * and ac_* functions, a shared header and a Makefile (see SegmentedOutput).
+     * Files whose content did not change are kept untouched.
+     * 
+     * @param directory Output directory.
+     * @param modelName Name of the driver file and the built executable.
+     * @return The written output with the file statistics or null if the files were not written.
+     */
+    public SegmentedOutput writeSegmentedOutput(Path directory, String modelName) {
+        var segmentedOutput = new SegmentedOutput(transformator.transform(petriNet), elementOrigins, getSegmentNames());
+        if(!segmentedOutput.parse()) {
+            System.err.println("Segmented output error: the generated code could not be split into statements");
+            return null;
+        }
+        if(!segmentedOutput.write(directory, modelName))
+            return null;
+        return segmentedOutput;
+    }
+
+    /**
+     * 
+     * @return Stable names (C identifiers) of the segments by the identifiers of the model objects
+     *         which produced their places and transitions.
+     */
+    public Map<Integer, String> getSegmentNames() {
+        var result = new LinkedHashMap<Integer, String>();
+        physicalSegments.forEach(physicalSegment -> {
+            var node = physicalSegment.getNode();
+            var objectID = node.getObjectInfo().getID();
+            result.put(objectID, String.format("node_%s_%d", SPNPUtils.prepareName(node.getNameProperty().getValue(), 12), objectID));
+        });
+        communicationSegments.forEach(communicationSegment -> {
+            var objectID = communicationSegment.getCommunicationLink().getObjectInfo().getID();
+            result.put(objectID, String.format("link_%d", objectID));
+        });
+        if(controlServiceSegments.isEmpty())
+            return result;
+        // The control lifeline may be a node which already has its physical segment
+        var controlID = serviceCallTree.getRoot().getArtifact().getObjectInfo().getID();
+        result.putIfAbsent(controlID, String.format("control_%d", controlID));
+        getControlServiceCalls().forEach(controlSegmentPair -> {
+            var message = controlSegmentPair.getValue().getMessage();
+            var objectID = message.getObjectInfo().getID();
+            result.put(objectID, String.format("msg_%s_%d", SPNPUtils.prepareName(message.nameProperty().getValue(), 12), objectID));
+        });
+        getLoopSegments().forEach(loopSegment -> {
+            var loop = loopSegment.getLoop();
+            var objectID = loop.getObjectInfo().getID();
+            result.put(objectID, String.format("loop_%s_%d", SPNPUtils.prepareName(loop.nameProperty().getValue(), 12), objectID));
+        });
+        return result;
+    }
+
+}
@@ -12,7 +12,6 @@ import cz.muni.fi.spnp.core.models.transitions.TimedTransition;
 import cz.muni.fi.spnp.core.models.transitions.Transition;
 import cz.muni.fi.spnp.core.models.transitions.probabilities.ConstantTransitionProbability;
 import cz.muni.fi.spnp.core.transformators.spnp.code.FunctionSPNP;
-import cz.muni.fi.spnp.core.transformators.spnp.distributions.ExponentialTransitionDistribution;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -37,10 +36,11 @@ public class LoopSegment extends Segment{
     
     public LoopSegment( PetriNet petriNet,
                         boolean generateComments,
+                        RateParameters rateParameters,
                         ControlServiceSegment controlServiceSegment,
                         ServiceCallTreeNode treeNode,
                         Loop loop) {
-        super(petriNet, generateComments);
+        super(petriNet, generateComments, rateParameters);
         
         this.controlServiceSegment = controlServiceSegment;
         this.highestTreeNode = treeNode;
@@ -112,7 +112,7 @@ public class LoopSegment extends Segment{
     private void transformFlushTransition() {
         var flushTransitionName = SPNPUtils.createTransitionName("loop", "flush");
     
-        flushTransition = new ImmediateTransition(SPNPUtils.transitionCounter++, flushTransitionName,
+        flushTransition = new ImmediateTransition(SPNPUtils.nextTransitionNumber(), flushTransitionName,
                               SPNPUtils.TR_PRIORTY_LOOP_FLUSH, createFlushTransitionGuard(), new ConstantTransitionProbability(1.0));
         if(generateComments)
             flushTransition.setCommentary(String.format("%s - Flush transition", commentPrefix));
@@ -124,19 +124,19 @@ public class LoopSegment extends Segment{
                                         SPNPUtils.prepareName(serviceCall.getMessage().nameProperty().getValue(), 15)));
             var cardinalityFunctionBody = String.format("return mark(\"%s\");", controlPlace.getName());
             var cardinalityFunction = new FunctionSPNP<Integer>(cardinalityFunctionName, FunctionType.ArcCardinality, cardinalityFunctionBody, Integer.class);
-            var flushInputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Input, controlPlace, flushTransition, cardinalityFunction);
+            var flushInputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Input, controlPlace, flushTransition, cardinalityFunction);
             petriNet.addArc(flushInputArc);
         });
     }
     
     private void transformFlushPlace() {
         var flushPlaceName = SPNPUtils.createPlaceName("loop", "flush");
-        flushPlace = new StandardPlace(SPNPUtils.placeCounter++, flushPlaceName);
+        flushPlace = new StandardPlace(SPNPUtils.nextPlaceNumber(), flushPlaceName);
         if(generateComments)
             flushPlace.setCommentary(String.format("%s - Flush place", commentPrefix));
         petriNet.addPlace(flushPlace);
         
-        var outputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Output, flushPlace, flushTransition);
+        var outputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Output, flushPlace, flushTransition);
         petriNet.addArc(outputArc);
     }
     
@@ -145,35 +145,37 @@ public class LoopSegment extends Segment{
         var restartTransitionName = SPNPUtils.createTransitionName("loop", "restart");
         
         if(rate > 0.0) {
-            var distribution = new ExponentialTransitionDistribution(rate);
-            restartTransition = new TimedTransition(SPNPUtils.transitionCounter++, restartTransitionName, SPNPUtils.TR_PRIORTY_DEFAULT, null, distribution);
+            var loopName = loop.nameProperty().getValue();
+            var distribution = rateParameters.createDistribution(RateParameters.Category.LOOP, loopName,
+                                                                 String.format("Restart rate of %s", loopName), rate);
+            restartTransition = new TimedTransition(SPNPUtils.nextTransitionNumber(), restartTransitionName, SPNPUtils.TR_PRIORTY_DEFAULT, null, distribution);
         }
         else {
-            restartTransition = new ImmediateTransition(SPNPUtils.transitionCounter++, restartTransitionName,
+            restartTransition = new ImmediateTransition(SPNPUtils.nextTransitionNumber(), restartTransitionName,
                                 SPNPUtils.TR_PRIORTY_LOOP_RESTART, null, new ConstantTransitionProbability(1.0));
         }
         if(generateComments)
             restartTransition.setCommentary(String.format("%s - Restart transition", commentPrefix));
         petriNet.addTransition(restartTransition);
 
-        var flushInputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Input, flushPlace, restartTransition);
+        var flushInputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Input, flushPlace, restartTransition);
         petriNet.addArc(flushInputArc);
 
-        var controlOutputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Output, highestControlServiceCall.getPlace(), restartTransition);
+        var controlOutputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Output, highestControlServiceCall.getPlace(), restartTransition);
         petriNet.addArc(controlOutputArc);
     }
 
     private void transformRepeatsPlace() {
         var repeatsPlaceName = SPNPUtils.createPlaceName("loop", "repeats");
-        repeatsPlace = new StandardPlace(SPNPUtils.placeCounter++, repeatsPlaceName);
+        repeatsPlace = new StandardPlace(SPNPUtils.nextPlaceNumber(), repeatsPlaceName);
         if(generateComments)
             repeatsPlace.setCommentary(String.format("%s - Repeats place", commentPrefix));
         petriNet.addPlace(repeatsPlace);
 
-        var outputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Output, repeatsPlace, restartTransition);
+        var outputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Output, repeatsPlace, restartTransition);
         petriNet.addArc(outputArc);
 
-        var inhibitorArc = new InhibitorArc(SPNPUtils.arcCounter++, repeatsPlace, flushTransition, loop.getIterations());
+        var inhibitorArc = new InhibitorArc(SPNPUtils.nextArcNumber(), repeatsPlace, flushTransition, loop.getIterations());
         petriNet.addArc(inhibitorArc);
     }
 
@@ -185,6 +187,22 @@ public class LoopSegment extends Segment{
         return flushPlace;
     }
 
+    public StandardPlace getRepeatsPlace() {
+        return repeatsPlace;
+    }
+
+    public ImmediateTransition getFlushTransition() {
+        return flushTransition;
+    }
+
+    public Transition getRestartTransition() {
+        return restartTransition;
+    }
+
+    public Loop getLoop() {
+        return loop;
+    }
+
     public void transform() {
         var serviceCall = controlServiceSegment.getHighestControlServiceCall(highestTreeNode);
         if(serviceCall != null) {
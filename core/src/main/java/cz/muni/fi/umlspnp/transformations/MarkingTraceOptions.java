@@ -0,0 +1,119 @@
+package cz.muni.fi.umlspnp.transformations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ *  Settings of the binary marking trace (see MarkingTraceSegment): which markings are
+ * sampled and which places are watched.
+ *
+ */
+public class MarkingTraceOptions {
+    private String fileName = "model.trace";
+    private int sampleEvery = 1;
+    private double sampleProbability = 1.0;
+    private long seed = 52836;
+    private final List<String> segments = new ArrayList<>();
+    private Pattern placeFilter = null;
+
+    /**
+     *
+     * @return Name of the trace file written by the SPNP executable (relative to its working directory).
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     *
+     * @return Only every N-th marking is written.
+     */
+    public int getSampleEvery() {
+        return sampleEvery;
+    }
+
+    public void setSampleEvery(int sampleEvery) {
+        this.sampleEvery = Math.max(1, sampleEvery);
+    }
+
+    /**
+     *
+     * @return Probability that a marking (which passed the every N-th sampling) is written.
+     */
+    public double getSampleProbability() {
+        return sampleProbability;
+    }
+
+    public void setSampleProbability(double sampleProbability) {
+        this.sampleProbability = Math.max(0.0, Math.min(1.0, sampleProbability));
+    }
+
+    /**
+     *
+     * @return Seed of the random generator of the probability sampling.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     *
+     * @return Prefixes of the watched segment names (node, link, control, msg, loop or a full
+     *         segment name), empty for all segments.
+     */
+    public List<String> getSegments() {
+        return Collections.unmodifiableList(segments);
+    }
+
+    public void setSegments(List<String> segments) {
+        this.segments.clear();
+        segments.forEach(segment -> {
+            if(!segment.isBlank())
+                this.segments.add(segment.strip());
+        });
+    }
+
+    /**
+     *
+     * @return Pattern which the names of the watched places have to contain or null for all places.
+     */
+    public Pattern getPlaceFilter() {
+        return placeFilter;
+    }
+
+    public void setPlaceFilter(Pattern placeFilter) {
+        this.placeFilter = placeFilter;
+    }
+
+    /**
+     *
+     * @param placeName Name of the place.
+     * @param segmentName Name of the segment which owns the place.
+     * @return True if the place is watched.
+     */
+    public boolean isWatched(String placeName, String segmentName) {
+        if(placeFilter != null && !placeFilter.matcher(placeName).find())
+            return false;
+        if(segments.isEmpty())
+            return true;
+        return segments.stream().anyMatch(segment -> segmentName.startsWith(segment));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Marking trace \"%s\": every %d. marking, probability %s, segments %s, places %s",
+                             fileName, sampleEvery, Double.toString(sampleProbability),
+                             segments.isEmpty() ? "all" : String.join(", ", segments),
+                             placeFilter == null ? "all" : "/" + placeFilter.pattern() + "/");
+    }
+}
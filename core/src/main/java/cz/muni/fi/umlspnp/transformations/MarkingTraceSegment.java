@@ -0,0 +1,152 @@
+package cz.muni.fi.umlspnp.transformations;
+
+import cz.muni.fi.spnp.core.models.PetriNet;
+import cz.muni.fi.spnp.core.models.arcs.ArcDirection;
+import cz.muni.fi.spnp.core.models.arcs.StandardArc;
+import cz.muni.fi.spnp.core.models.functions.FunctionType;
+import cz.muni.fi.spnp.core.models.places.StandardPlace;
+import cz.muni.fi.spnp.core.models.transitions.ImmediateTransition;
+import cz.muni.fi.spnp.core.models.transitions.probabilities.ConstantTransitionProbability;
+import cz.muni.fi.spnp.core.transformators.spnp.code.FunctionSPNP;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ *  Generates a trace segment which, like the debug print segment, has no effect on the
+ * solution. Its guard (on a transition with highest priority, always evaluating to zero)
+ * writes one fixed-width binary record per sampled marking instead of printing it:
+ * the marking index (uint32) and the token counts of the watched places (uint16 each,
+ * saturated). The file starts with a header: magic, version and number of the watched
+ * places (uint32 each, native byte order) followed by the name and the segment of every
+ * watched place (length byte and characters).
+ *
+ */
+public class MarkingTraceSegment extends Segment {
+    public static final int MAGIC = 0x544C4D55;
+    public static final int VERSION = 1;
+    public static final int MAX_TOKENS = 0xFFFF;
+    private static final int MAX_NAME_LENGTH = 255;
+
+    private final Map<String, String> watchedPlaces;
+    private final MarkingTraceOptions options;
+
+    /**
+     *
+     * @param petriNet The Petri net.
+     * @param watchedPlaces Segment names of the watched places by the place names.
+     * @param options Sampling of the markings.
+     */
+    public MarkingTraceSegment(PetriNet petriNet,
+                               Map<String, String> watchedPlaces,
+                               MarkingTraceOptions options) {
+        super(petriNet, true);
+
+        this.watchedPlaces = watchedPlaces;
+        this.options = options;
+    }
+
+    public void transform() {
+        var guardBody = new StringBuilder();
+        generateHeader(guardBody);
+        generateSampling(guardBody);
+        generateRecord(guardBody);
+        guardBody.append(String.format("%nreturn 0;"));
+
+        var p1_name = SPNPUtils.createPlaceName("TRACE", "P1");
+        var p1 = new StandardPlace(SPNPUtils.nextPlaceNumber(), p1_name);
+        p1.setNumberOfTokens(1);
+        petriNet.addPlace(p1);
+        var p2_name = SPNPUtils.createPlaceName("TRACE", "P2");
+        var p2 = new StandardPlace(SPNPUtils.nextPlaceNumber(), p2_name);
+        petriNet.addPlace(p2);
+
+        var t1_name = SPNPUtils.createTransitionName("TRACE", "T1");
+        var guard = new FunctionSPNP<>("__TRACE_GUARD", FunctionType.Guard, guardBody.toString(), Integer.class);
+        var t1 = new ImmediateTransition(SPNPUtils.nextTransitionNumber(), t1_name,
+                        SPNPUtils.TR_PRIORITY_DEBUG_PRINT, guard, new ConstantTransitionProbability(1.0));
+        petriNet.addTransition(t1);
+
+        var inputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Input, p1, t1);
+        petriNet.addArc(inputArc);
+        var outputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Output, p2, t1);
+        petriNet.addArc(outputArc);
+    }
+
+    private void generateHeader(StringBuilder guardBody) {
+        guardBody.append(String.format("/* BINARY MARKING TRACE (%d places) */%n", watchedPlaces.size()));
+        guardBody.append(String.format("static FILE *trace_file = NULL;%n"));
+        guardBody.append(String.format("static unsigned int trace_index = 0;%n"));
+        guardBody.append(String.format("static unsigned long long trace_random = %dULL;%n", options.getSeed()));
+        guardBody.append(String.format("unsigned int trace_marking;%n"));
+        guardBody.append(String.format("unsigned short trace_record[%d];%n", watchedPlaces.size()));
+        guardBody.append(String.format("int trace_tokens;%n%n"));
+
+        guardBody.append(String.format("if(trace_file == NULL) {%n"));
+        guardBody.append(String.format("    unsigned int trace_header[3] = {0x%08XU, %dU, %dU};%n", MAGIC, VERSION, watchedPlaces.size()));
+        guardBody.append(String.format("    trace_file = fopen(%s, \"wb\");%n", cString(options.getFileName().getBytes(StandardCharsets.UTF_8))));
+        guardBody.append(String.format("    if(trace_file == NULL)%n"));
+        guardBody.append(String.format("        return 0;%n"));
+        guardBody.append(String.format("    fwrite(trace_header, sizeof(unsigned int), 3, trace_file);%n"));
+        watchedPlaces.forEach((placeName, segmentName) -> {
+            var entry = new StringBuilder();
+            var entryLength = appendNameEntry(entry, placeName) + appendNameEntry(entry, segmentName);
+            guardBody.append(String.format("    fwrite(\"%s\", 1, %d, trace_file);%n", entry, entryLength));
+        });
+        guardBody.append(String.format("}%n%n"));
+    }
+
+    private void generateSampling(StringBuilder guardBody) {
+        guardBody.append(String.format("trace_marking = trace_index++;%n"));
+        if(options.getSampleEvery() > 1)
+            guardBody.append(String.format("if(trace_marking %% %dU != 0)%n    return 0;%n", options.getSampleEvery()));
+        if(options.getSampleProbability() < 1.0) {
+            // 64-bit LCG, the upper 53 bits give a uniform double in [0, 1)
+            guardBody.append(String.format("trace_random = trace_random * 6364136223846793005ULL + 1442695040888963407ULL;%n"));
+            guardBody.append(String.format("if((double) (trace_random >> 11) / 9007199254740992.0 >= %s)%n    return 0;%n",
+                                           Double.toString(options.getSampleProbability())));
+        }
+        guardBody.append(String.format("%n"));
+    }
+
+    private void generateRecord(StringBuilder guardBody) {
+        int index = 0;
+        for(var placeName : watchedPlaces.keySet()) {
+            guardBody.append(String.format("trace_tokens = mark(\"%s\");%n", placeName));
+            guardBody.append(String.format("trace_record[%d] = trace_tokens > %d ? %d : trace_tokens;%n", index, MAX_TOKENS, MAX_TOKENS));
+            index++;
+        }
+        guardBody.append(String.format("fwrite(&trace_marking, sizeof(unsigned int), 1, trace_file);%n"));
+        guardBody.append(String.format("fwrite(trace_record, sizeof(unsigned short), %d, trace_file);%n", watchedPlaces.size()));
+    }
+
+    /**
+     * Appends the length byte and the characters of the name as C string literal content.
+     *
+     * @return Number of the appended bytes.
+     */
+    private static int appendNameEntry(StringBuilder result, String name) {
+        var bytes = name.getBytes(StandardCharsets.UTF_8);
+        var length = Math.min(bytes.length, MAX_NAME_LENGTH);
+        appendEscaped(result, length);
+        for(int i = 0; i < length; i++)
+            appendEscaped(result, bytes[i] & 0xFF);
+        return length + 1;
+    }
+
+    private static String cString(byte[] bytes) {
+        var result = new StringBuilder("\"");
+        for(var b : bytes)
+            appendEscaped(result, b & 0xFF);
+        return result.append('"').toString();
+    }
+
+    /**
+     * Octal escapes always have three digits, so the following characters can not extend them.
+     */
+    private static void appendEscaped(StringBuilder result, int value) {
+        if(value >= 0x20 && value < 0x7F && value != '"' && value != '\\' && value != '?')
+            result.append((char) value);
+        else
+            result.append(String.format("\\%03o", value));
+    }
+}
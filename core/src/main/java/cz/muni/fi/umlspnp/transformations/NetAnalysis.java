@@ -0,0 +1,264 @@
+package cz.muni.fi.umlspnp.transformations;
+
+import cz.muni.fi.umlspnp.analysis.CompiledNet;
+import cz.muni.fi.umlspnp.analysis.CtmcMeasures;
+import cz.muni.fi.umlspnp.analysis.CtmcSolver;
+import cz.muni.fi.umlspnp.analysis.ImportancePilot;
+import cz.muni.fi.umlspnp.analysis.InvariantAnalysis;
+import cz.muni.fi.umlspnp.analysis.MeanFieldAnalysis;
+import cz.muni.fi.umlspnp.analysis.MeanFieldResult;
+import cz.muni.fi.umlspnp.analysis.ReachabilityGraph;
+import cz.muni.fi.umlspnp.analysis.ReachabilityGraphGenerator;
+import cz.muni.fi.umlspnp.analysis.SimulationOptions;
+import cz.muni.fi.umlspnp.analysis.SimulationResult;
+import cz.muni.fi.umlspnp.analysis.Simulator;
+import cz.muni.fi.umlspnp.analysis.SolverOptions;
+import cz.muni.fi.umlspnp.analysis.SymbolicStateSpace;
+import cz.muni.fi.umlspnp.analysis.TokenGame;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ *  In-process analyses of the net of a transformed model. The analyses return their
+ * results, presenting them is up to the caller.
+ * The net is compiled once, by the first analysis which needs it, so the analysis needs
+ * to be used before the debug print segment is generated and the dead elements are removed.
+ *
+ */
+public class NetAnalysis {
+    private static final int IMPORTANCE_PILOT_RUNS = 1000;
+
+    private final DefaultTransformator transformator;
+    private CompiledNet compiledNet = null;
+    private boolean compiled = false;
+
+    /**
+     *
+     * @param transformator The transformator whose transform has finished.
+     */
+    public NetAnalysis(DefaultTransformator transformator) {
+        this.transformator = transformator;
+    }
+
+    /**
+     * Compiles the transformed Petri net, the input parameters are replaced by their default values.
+     *
+     * @return Compiled net or null if the net can not be analyzed.
+     */
+    public CompiledNet getCompiledNet() {
+        if(!compiled) {
+            compiledNet = CompiledNet.compile(transformator.getPetriNet(), transformator.getRateParameters().getValues());
+            compiled = true;
+        }
+        return compiledNet;
+    }
+
+    /**
+     * Generates the tangible reachability graph of the transformed Petri net.
+     * The markings are encoded with the place bounds given by the P-invariants.
+     *
+     * @param offHeap True if the states should be stored outside of the Java heap.
+     * @return The reachability graph or null if the net could not be analyzed.
+     */
+    public ReachabilityGraph generateReachabilityGraph(boolean offHeap) {
+        var net = getCompiledNet();
+        if(net == null)
+            return null;
+        var generator = new ReachabilityGraphGenerator(net);
+        var invariantAnalysis = new InvariantAnalysis(net);
+        if(invariantAnalysis.analyze())
+            generator.setBounds(invariantAnalysis.getEncodingBounds(ReachabilityGraphGenerator.estimateBounds(net)));
+        generator.setOffHeap(offHeap);
+        return generator.generate();
+    }
+
+    /**
+     * Computes the minimal P-invariants and T-invariants of the transformed Petri net,
+     * the uncovered places and the place bounds.
+     *
+     * @return The analysis or null if the net could not be compiled.
+     */
+    public InvariantAnalysis analyzeInvariants() {
+        var net = getCompiledNet();
+        if(net == null)
+            return null;
+        var invariantAnalysis = new InvariantAnalysis(net);
+        invariantAnalysis.analyze();
+        return invariantAnalysis;
+    }
+
+    /**
+     * Solves the CTMC of the transformed Petri net in-process, the steady state and the transient
+     * solutions of all time points of the analysis plan in one uniformization sweep.
+     * The solver is configured by the numeric SPNP options.
+     *
+     * @param offHeap True if the states should be stored outside of the Java heap.
+     * @return The solution or null if the CTMC could not be solved.
+     */
+    public NumericSolution solveNumerically(boolean offHeap) {
+        var reachabilityGraph = generateReachabilityGraph(offHeap);
+        if(reachabilityGraph == null)
+            return null;
+        if(!reachabilityGraph.isComplete()) {
+            System.err.println("Numeric solution error: the reachability graph is incomplete (state limit reached)");
+            return null;
+        }
+        var analysisPlan = transformator.getAnalysisPlan();
+        var solverOptions = SolverOptions.fromOptionValues(transformator.getOptionValues());
+        solverOptions.setTransientTimes(analysisPlan.getTransientTimes().stream().mapToDouble(Double::doubleValue).toArray());
+        var solver = new CtmcSolver(reachabilityGraph, solverOptions);
+
+        CtmcMeasures steadyState = null;
+        if(analysisPlan.isSteadyState())
+            steadyState = new CtmcMeasures(reachabilityGraph, solver.solveSteadyState());
+        var transientSolutions = new ArrayList<CtmcMeasures>();
+        for(var solution : solver.solveTransient(solverOptions.getTransientTimes()))
+            transientSolutions.add(new CtmcMeasures(reachabilityGraph, solution));
+        return new NumericSolution(reachabilityGraph.getStateCount(), solver.getNonZeroCount(), solver.getAbsorbingStateCount(),
+                                   solverOptions, steadyState, transientSolutions);
+    }
+
+    /**
+     * Simulates the transformed Petri net in-process with independent replications
+     * running in parallel. The simulator is configured by the simulation SPNP options.
+     *
+     * @return The estimates or null if the simulation did not finish.
+     */
+    public SimulationResult simulate() {
+        var net = getCompiledNet();
+        if(net == null)
+            return null;
+        var simulationOptions = SimulationOptions.fromOptionValues(transformator.getOptionValues());
+        return new Simulator(net, simulationOptions).run();
+    }
+
+    /**
+     * Estimates the scenario success of the regenerative simulation (see RegenerationCycle).
+     *
+     * @param result The simulation result.
+     * @return Successful cycles per started cycle or NaN if the run method is not regenerative.
+     */
+    public double getCycleSuccessProbability(SimulationResult result) {
+        var regenerationCycle = transformator.getRegenerationCycle();
+        var net = getCompiledNet();
+        if(regenerationCycle == null || net == null)
+            return Double.NaN;
+        var transitionIndices = new HashMap<String, Integer>();
+        for(int t = 0; t < net.getTransitionCount(); t++)
+            transitionIndices.put(net.getTransitionName(t), t);
+        return regenerationCycle.getSuccessProbability(name -> {
+            var transition = transitionIndices.get(name);
+            return transition == null ? Double.NaN : result.getThroughput(transition);
+        });
+    }
+
+    /**
+     * Runs a short pilot simulation of the transformed Petri net for the importance levels
+     * it reaches and the suggested thresholds of the splitting simulation.
+     *
+     * @return The finished pilot or null if the run method has no importance function
+     * or the pilot did not finish.
+     */
+    public ImportancePilot runImportancePilot() {
+        var importanceFunction = transformator.getImportanceFunction();
+        if(importanceFunction == null)
+            return null;
+        var net = getCompiledNet();
+        if(net == null)
+            return null;
+        var simulationOptions = SimulationOptions.fromOptionValues(transformator.getOptionValues());
+        var pilot = new ImportancePilot(net, importanceFunction);
+        pilot.setRuns(IMPORTANCE_PILOT_RUNS);
+        pilot.setLength(simulationOptions.getLength());
+        pilot.setSeed(simulationOptions.getSeed());
+        if(!pilot.run())
+            return null;
+        return pilot;
+    }
+
+    /**
+     * Approximates the transformed Petri net by the mean-field analysis of the node states
+     * (see MeanFieldAnalysis). Suitable for models with many nodes whose state space is too
+     * large for the numeric solution.
+     *
+     * @return The approximate results or null if they could not be computed.
+     */
+    public MeanFieldResult solveMeanField() {
+        var net = getCompiledNet();
+        if(net == null)
+            return null;
+        var groups = new ArrayList<int[]>();
+        var names = new ArrayList<String>();
+        var downPlaces = new ArrayList<Integer>();
+        for(var physicalSegment : transformator.getPhysicalSegments()) {
+            var statePlaces = physicalSegment.getStatePlaces().values();
+            if(statePlaces.isEmpty())
+                continue;
+            groups.add(statePlaces.stream().mapToInt(place -> net.getPlaceIndex(place.getName())).toArray());
+            names.add(physicalSegment.getNode().getNameProperty().getValue());
+            var downPlace = physicalSegment.getDownStatePlace();
+            downPlaces.add(downPlace != null ? net.getPlaceIndex(downPlace.getName()) : -1);
+        }
+        var analysis = new MeanFieldAnalysis(net, groups, names, downPlaces.stream().mapToInt(Integer::intValue).toArray());
+        if(!analysis.prepare())
+            return null;
+        var solverOptions = SolverOptions.fromOptionValues(transformator.getOptionValues());
+        return analysis.solve(solverOptions.getTransientTimes());
+    }
+
+    /**
+     * Generates the reachable markings of the transformed Petri net symbolically,
+     * one decision diagram level per segment (see DefaultTransformator.getSegmentPlaceGroups).
+     *
+     * @return The symbolic state space or null if the net could not be analyzed.
+     */
+    public SymbolicStateSpace generateSymbolicStateSpace() {
+        var net = getCompiledNet();
+        if(net == null)
+            return null;
+        var placeGroups = new ArrayList<int[]>();
+        transformator.getSegmentPlaceGroups().forEach(group -> {
+            placeGroups.add(group.stream()
+                                 .filter(place -> place != null)
+                                 .mapToInt(place -> net.getPlaceIndex(place.getName()))
+                                 .filter(index -> index >= 0)
+                                 .toArray());
+        });
+        var stateSpace = new SymbolicStateSpace(net, placeGroups);
+        stateSpace.generate();
+        return stateSpace;
+    }
+
+    /**
+     *
+     * @return Descriptions and conditions of the reachability queries which are evaluated by default.
+     */
+    public Map<String, String> getDefaultReachabilityQueries() {
+        var queries = new LinkedHashMap<String, String>();
+        var endPlace = transformator.getEndPlace();
+        queries.put("Control end place reachable", String.format("mark(\"%s\")", endPlace.getName()));
+        transformator.getPhysicalSegments().forEach(physicalSegment -> {
+            var downPlace = physicalSegment.getDownStatePlace();
+            if(downPlace != null) {
+                var description = String.format("Control end place reachable while \"%s\" is DOWN",
+                                                physicalSegment.getNode().getNameProperty().getValue());
+                queries.put(description, String.format("mark(\"%s\") && mark(\"%s\")", endPlace.getName(), downPlace.getName()));
+            }
+        });
+        return queries;
+    }
+
+    /**
+     * Creates an interactive token game of the transformed Petri net.
+     *
+     * @return The token game or null if the net could not be compiled.
+     */
+    public TokenGame createTokenGame() {
+        var net = getCompiledNet();
+        if(net == null)
+            return null;
+        return new TokenGame(net);
+    }
+}
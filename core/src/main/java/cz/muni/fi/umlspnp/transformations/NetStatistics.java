@@ -0,0 +1,186 @@
+package cz.muni.fi.umlspnp.transformations;
+
+import cz.muni.fi.umlspnp.metrics.Metrics;
+import cz.muni.fi.umlspnp.metrics.NetStatisticsEvent;
+import cz.muni.fi.spnp.core.models.PetriNet;
+import cz.muni.fi.spnp.core.models.arcs.StandardArc;
+import cz.muni.fi.spnp.core.models.functions.Function;
+import cz.muni.fi.spnp.core.models.transitions.TimedTransition;
+import cz.muni.fi.spnp.core.transformators.spnp.distributions.ExponentialTransitionDistribution;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ *  Sizes of the transformed net per segment type (node, link, control, msg, loop, other):
+ * places, transitions, arcs, functions and the guard lengths in mark() terms.
+ * Functions belong to the segment of their transition or arc, the other functions
+ * to the segment of the first place or transition they reference.
+ *
+ */
+public class NetStatistics {
+    public static final String OTHER = "other";
+    private static final Pattern QUOTED_NAME = Pattern.compile("\"([^\"\\\\]*)\"");
+    private static final Pattern MARK_TERM = Pattern.compile("\\bmark\\s*\\(");
+
+    private static final int PLACES = 0;
+    private static final int TRANSITIONS = 1;
+    private static final int ARCS = 2;
+    private static final int FUNCTIONS = 3;
+    private static final int GUARD_MARK_TERMS = 4;
+    private static final int MAX_GUARD_MARK_TERMS = 5;
+    private static final int[] EMPTY = new int[MAX_GUARD_MARK_TERMS + 1];
+
+    private final Map<String, int[]> segmentTypes = new TreeMap<>();
+
+    /**
+     *
+     * @param petriNet The transformed net.
+     * @param elementOrigins Identifiers of the model objects which produced the places and transitions, by their names.
+     * @param segmentNames Names of the segments by the identifiers of the model objects.
+     */
+    public NetStatistics(PetriNet petriNet, Map<String, Integer> elementOrigins, Map<Integer, String> segmentNames) {
+        var functionTypes = new IdentityHashMap<Function, String>();
+        petriNet.getPlaces().forEach(place -> {
+            get(getSegmentType(place.getName(), elementOrigins, segmentNames))[PLACES]++;
+        });
+        petriNet.getTransitions().forEach(transition -> {
+            var segmentType = getSegmentType(transition.getName(), elementOrigins, segmentNames);
+            var statistics = get(segmentType);
+            statistics[TRANSITIONS]++;
+            var guardFunction = transition.getGuardFunction();
+            if(guardFunction != null) {
+                functionTypes.putIfAbsent(guardFunction, segmentType);
+                var markTerms = countMarkTerms(guardFunction.getBody());
+                statistics[GUARD_MARK_TERMS] += markTerms;
+                statistics[MAX_GUARD_MARK_TERMS] = Math.max(statistics[MAX_GUARD_MARK_TERMS], markTerms);
+            }
+            if(transition instanceof TimedTransition) {
+                var distribution = ((TimedTransition) transition).getTransitionDistribution();
+                if(distribution instanceof ExponentialTransitionDistribution) {
+                    var distributionFunction = ((ExponentialTransitionDistribution) distribution).getDistributionFunction();
+                    if(distributionFunction != null)
+                        functionTypes.putIfAbsent(distributionFunction, segmentType);
+                }
+            }
+        });
+        petriNet.getArcs().forEach(arc -> {
+            var segmentType = getSegmentType(arc.getTransition().getName(), elementOrigins, segmentNames);
+            get(segmentType)[ARCS]++;
+            if(arc instanceof StandardArc && ((StandardArc) arc).getMultiplicityFunction() != null)
+                functionTypes.putIfAbsent(((StandardArc) arc).getMultiplicityFunction(), segmentType);
+        });
+        petriNet.getFunctions().forEach(function -> {
+            if(functionTypes.containsKey(function))
+                return;
+            var segmentType = OTHER;
+            if(function.getBody() != null) {
+                var matcher = QUOTED_NAME.matcher(function.getBody());
+                if(matcher.find())
+                    segmentType = getSegmentType(matcher.group(1), elementOrigins, segmentNames);
+            }
+            functionTypes.put(function, segmentType);
+        });
+        functionTypes.values().forEach(segmentType -> get(segmentType)[FUNCTIONS]++);
+    }
+
+    private int[] get(String segmentType) {
+        return segmentTypes.computeIfAbsent(segmentType, key -> new int[EMPTY.length]);
+    }
+
+    private static String getSegmentType(String elementName, Map<String, Integer> elementOrigins, Map<Integer, String> segmentNames) {
+        var objectID = elementOrigins.get(elementName);
+        if(objectID == null || !segmentNames.containsKey(objectID))
+            return OTHER;
+        var segmentName = segmentNames.get(objectID);
+        var separator = segmentName.indexOf('_');
+        return separator < 0 ? segmentName : segmentName.substring(0, separator);
+    }
+
+    private static int countMarkTerms(String body) {
+        if(body == null)
+            return 0;
+        var matcher = MARK_TERM.matcher(body);
+        int result = 0;
+        while(matcher.find())
+            result++;
+        return result;
+    }
+
+    /**
+     *
+     * @return Names of the segment types present in the net.
+     */
+    public Iterable<String> getSegmentTypes() {
+        return segmentTypes.keySet();
+    }
+
+    public int getPlaces(String segmentType) {
+        return segmentTypes.getOrDefault(segmentType, EMPTY)[PLACES];
+    }
+
+    public int getTransitions(String segmentType) {
+        return segmentTypes.getOrDefault(segmentType, EMPTY)[TRANSITIONS];
+    }
+
+    public int getArcs(String segmentType) {
+        return segmentTypes.getOrDefault(segmentType, EMPTY)[ARCS];
+    }
+
+    public int getFunctions(String segmentType) {
+        return segmentTypes.getOrDefault(segmentType, EMPTY)[FUNCTIONS];
+    }
+
+    /**
+     *
+     * @return Sum of the mark() terms of all guards.
+     */
+    public int getGuardMarkTerms() {
+        return segmentTypes.values().stream().mapToInt(statistics -> statistics[GUARD_MARK_TERMS]).sum();
+    }
+
+    /**
+     *
+     * @return Number of the mark() terms of the longest guard.
+     */
+    public int getMaxGuardMarkTerms() {
+        return segmentTypes.values().stream().mapToInt(statistics -> statistics[MAX_GUARD_MARK_TERMS]).max().orElse(0);
+    }
+
+    /**
+     * Emits one flight recorder event per segment type and records the statistics
+     * as gauges of the metrics registry.
+     */
+    public void record() {
+        segmentTypes.forEach((segmentType, statistics) -> {
+            var event = new NetStatisticsEvent(segmentType, statistics[PLACES], statistics[TRANSITIONS], statistics[ARCS],
+                                               statistics[FUNCTIONS], statistics[GUARD_MARK_TERMS], statistics[MAX_GUARD_MARK_TERMS]);
+            if(event.shouldCommit())
+                event.commit();
+            var prefix = String.format("net.%s.", segmentType);
+            Metrics.gauge(prefix + "places", statistics[PLACES]);
+            Metrics.gauge(prefix + "transitions", statistics[TRANSITIONS]);
+            Metrics.gauge(prefix + "arcs", statistics[ARCS]);
+            Metrics.gauge(prefix + "functions", statistics[FUNCTIONS]);
+            Metrics.gauge(prefix + "guardMarkTerms", statistics[GUARD_MARK_TERMS]);
+            Metrics.gauge(prefix + "maxGuardMarkTerms", statistics[MAX_GUARD_MARK_TERMS]);
+        });
+        Metrics.gauge("net.guardMarkTerms", getGuardMarkTerms());
+        Metrics.gauge("net.maxGuardMarkTerms", getMaxGuardMarkTerms());
+    }
+
+    @Override
+    public String toString() {
+        var result = new StringBuilder();
+        result.append(String.format("Net statistics:%n"));
+        result.append(String.format("  %-10s %8s %12s %8s %10s %12s %10s%n",
+                                    "segment", "places", "transitions", "arcs", "functions", "guard terms", "max guard"));
+        segmentTypes.forEach((segmentType, statistics) -> {
+            result.append(String.format("  %-10s %8d %12d %8d %10d %12d %10d%n", segmentType, statistics[PLACES], statistics[TRANSITIONS],
+                                        statistics[ARCS], statistics[FUNCTIONS], statistics[GUARD_MARK_TERMS], statistics[MAX_GUARD_MARK_TERMS]));
+        });
+        result.append(String.format("  guard mark() terms: %d total, %d in the longest guard%n", getGuardMarkTerms(), getMaxGuardMarkTerms()));
+        return result.toString();
+    }
+}
@@ -0,0 +1,85 @@
+package cz.muni.fi.umlspnp.transformations;
+
+import cz.muni.fi.umlspnp.analysis.CtmcMeasures;
+import cz.muni.fi.umlspnp.analysis.SolverOptions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *  Result of the in-process numeric solution of the CTMC (see NetAnalysis): the measures
+ * of the steady state and of the transient time points of the analysis plan.
+ *
+ */
+public class NumericSolution {
+    private final int stateCount;
+    private final int nonZeroCount;
+    private final int absorbingStateCount;
+    private final SolverOptions solverOptions;
+    private final CtmcMeasures steadyState;
+    private final List<CtmcMeasures> transientSolutions;
+
+    /**
+     *
+     * @param stateCount Number of the tangible states.
+     * @param nonZeroCount Number of the non-zero rates of the generator matrix.
+     * @param absorbingStateCount Number of the absorbing states.
+     * @param solverOptions Settings of the solver.
+     * @param steadyState The steady state measures or null if the steady state was not solved.
+     * @param transientSolutions The measures of the transient time points.
+     */
+    public NumericSolution(int stateCount, int nonZeroCount, int absorbingStateCount, SolverOptions solverOptions,
+                           CtmcMeasures steadyState, List<CtmcMeasures> transientSolutions) {
+        this.stateCount = stateCount;
+        this.nonZeroCount = nonZeroCount;
+        this.absorbingStateCount = absorbingStateCount;
+        this.solverOptions = solverOptions;
+        this.steadyState = steadyState;
+        this.transientSolutions = List.copyOf(transientSolutions);
+    }
+
+    public int getStateCount() {
+        return stateCount;
+    }
+
+    public int getNonZeroCount() {
+        return nonZeroCount;
+    }
+
+    public int getAbsorbingStateCount() {
+        return absorbingStateCount;
+    }
+
+    public SolverOptions getSolverOptions() {
+        return solverOptions;
+    }
+
+    /**
+     *
+     * @return The steady state measures or null if the steady state was not solved.
+     */
+    public CtmcMeasures getSteadyState() {
+        return steadyState;
+    }
+
+    public List<CtmcMeasures> getTransientSolutions() {
+        return Collections.unmodifiableList(transientSolutions);
+    }
+
+    @Override
+    public String toString() {
+        var measures = new ArrayList<String>();
+        if(steadyState != null)
+            measures.add(steadyState.toString());
+        transientSolutions.forEach(solution -> measures.add(solution.toString()));
+        return String.format("%nCTMC:%n-----%n") +
+               String.format("  states: %d, non-zero rates: %d, absorbing states: %d%n",
+                             stateCount, nonZeroCount, absorbingStateCount) +
+               String.format("  steady state method: %s, transient method: %s, precision: %s, iterations: %d%n%n",
+                             solverOptions.getSteadyStateMethod().getOptionValue(),
+                             solverOptions.getTransientMethod().getOptionValue(),
+                             Double.toString(solverOptions.getPrecision()),
+                             solverOptions.getIterations()) +
+               String.join(System.lineSeparator(), measures);
+    }
+}
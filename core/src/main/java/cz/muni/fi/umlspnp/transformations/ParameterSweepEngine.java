@@ -0,0 +1,400 @@
+package cz.muni.fi.umlspnp.transformations;
+
+import cz.muni.fi.umlspnp.common.ModelSerializer;
+import cz.muni.fi.umlspnp.models.MainModel;
+import cz.muni.fi.umlspnp.models.ParameterSweep;
+import cz.muni.fi.umlspnp.models.SweepDimension;
+import cz.muni.fi.umlspnp.models.deploymentdiagram.DeploymentTarget;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ *  Transforms every point of a parameter sweep into its own CSPL file and writes
+ * a manifest (manifest.csv) with the values of the points. With the structural sharing
+ * the net is generated once with the swept rates lifted into parameters and only
+ * the rate functions are rewritten per point, in parallel. Otherwise every point
+ * is transformed from its own snapshot of the model (see ModelSerializer.createSnapshot)
+ * with the patched properties, the snapshots are transformed in parallel.
+ *
+ */
+public class ParameterSweepEngine {
+    private static final Pattern PARAMETER_REFERENCE = Pattern.compile("\\bpar\\d+_\\w*");
+    private static final String MANIFEST_FILE = "manifest.csv";
+
+    private final MainModel model;
+    private final ParameterSweep sweep;
+    private final Consumer<DefaultTransformator> optionsInitializer;
+    private final boolean generateComments;
+
+    private List<double[]> points = null;
+    private boolean sharedStructure = false;
+    private final List<String> manifest = new ArrayList<>();
+    private long sweepTime = 0;
+    private BiConsumer<String, Double> progressListener = null;
+
+    /**
+     *
+     * @param model The model, its parameter sweep is performed. The model is not modified,
+     * it must not be edited during the sweep, pass a snapshot when the sweep runs in the background.
+     * @param optionsInitializer Creates the SPNP options of every transformator.
+     * @param generateComments True if the comments should be generated.
+     */
+    public ParameterSweepEngine(MainModel model, Consumer<DefaultTransformator> optionsInitializer, boolean generateComments) {
+        this.model = model;
+        this.sweep = model.getParameterSweep();
+        this.optionsInitializer = optionsInitializer;
+        this.generateComments = generateComments;
+    }
+
+    /**
+     *
+     * @param progressListener Receives the finished part of the points, called from the worker threads.
+     */
+    public void setProgressListener(BiConsumer<String, Double> progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Performs the sweep.
+     *
+     * @param outputDirectory Directory of the CSPL files and the manifest.
+     * @return True if all points were written.
+     * @throws CancellationException If the calling thread is interrupted.
+     */
+    public boolean run(Path outputDirectory) {
+        var start = System.currentTimeMillis();
+        var dimensions = sweep.getDimensions();
+        if(dimensions.isEmpty()) {
+            System.err.println("Parameter sweep error: no dimension is defined.");
+            return false;
+        }
+        try {
+            Files.createDirectories(outputDirectory);
+        }
+        catch(IOException ex) {
+            System.err.println(String.format("Parameter sweep error: unable to create \"%s\": %s", outputDirectory, ex.getMessage()));
+            return false;
+        }
+        points = createPoints(dimensions);
+
+        var threads = sweep.getThreads() > 0 ? sweep.getThreads() : Runtime.getRuntime().availableProcessors();
+        var executor = Executors.newFixedThreadPool(threads);
+        var files = new String[points.size()];
+        boolean result;
+        try {
+            var writes = new ArrayList<Future<Boolean>>();
+            sharedStructure = sweep.isStructuralSharing() && runShared(dimensions, outputDirectory, files, executor, writes);
+            if(!sharedStructure) {
+                writes.clear();
+                if(!runPatched(dimensions, outputDirectory, files, executor, writes))
+                    return false;
+            }
+            result = true;
+            for(var write : writes)
+                result &= write.get();
+        }
+        catch(InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        }
+        catch(ExecutionException ex) {
+            System.err.println(String.format("Parameter sweep error: %s", ex.getMessage()));
+            return false;
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        result &= writeManifest(dimensions, outputDirectory, files);
+        sweepTime = System.currentTimeMillis() - start;
+        return result;
+    }
+
+    private static List<double[]> createPoints(List<SweepDimension> dimensions) {
+        var result = new ArrayList<double[]>();
+        result.add(new double[0]);
+        for(var dimension : dimensions) {
+            var extended = new ArrayList<double[]>();
+            for(var point : result) {
+                for(var value : dimension.getValues()) {
+                    var next = new double[point.length + 1];
+                    System.arraycopy(point, 0, next, 0, point.length);
+                    next[point.length] = value;
+                    extended.add(next);
+                }
+            }
+            result = extended;
+        }
+        return result;
+    }
+
+    private static RateParameters.Category getCategory(SweepDimension.PropertyType property) {
+        switch(property) {
+            case STATE_TRANSITION_RATE:
+                return RateParameters.Category.STATE_TRANSITION;
+            case EXECUTION_TIME:
+                return RateParameters.Category.EXECUTION;
+            case LINK_RATE:
+                return RateParameters.Category.LINK;
+            case FAILURE_RATE:
+                return RateParameters.Category.FAILURE;
+            case LOOP_RESTART_RATE:
+                return RateParameters.Category.LOOP;
+            default:
+                // The loop iterations change the structure of the net
+                return null;
+        }
+    }
+
+    private boolean runShared(List<SweepDimension> dimensions, Path outputDirectory, String[] files,
+                              ExecutorService executor, List<Future<Boolean>> writes) {
+        var categories = EnumSet.noneOf(RateParameters.Category.class);
+        for(var dimension : dimensions) {
+            var category = getCategory(dimension.getProperty());
+            if(category == null)
+                return false;
+            categories.add(category);
+        }
+        var rateParameters = new RateParameters(categories);
+        rateParameters.setDeclared(false);
+        var transformator = createTransformator(model, rateParameters);
+
+        var dimensionParameters = new ArrayList<List<String>>();
+        for(var dimension : dimensions) {
+            var names = rateParameters.getParameterNames(getCategory(dimension.getProperty()), dimension.getElement());
+            if(names.isEmpty()) {
+                System.err.println(String.format("Parameter sweep: \"%s\" is not referenced by a rate function, every point is transformed.",
+                                                 dimension.getLabel()));
+                return false;
+            }
+            dimensionParameters.add(names);
+        }
+
+        var template = transformator.getOutput();
+        var defaults = rateParameters.getValues();
+        var finished = new AtomicInteger();
+        for(int i = 0; i < points.size(); i++) {
+            var point = points.get(i);
+            var file = outputDirectory.resolve(String.format("point_%04d.c", i));
+            files[i] = file.getFileName().toString();
+            writes.add(executor.submit(() -> {
+                var values = new HashMap<String, Double>(defaults);
+                for(int d = 0; d < point.length; d++) {
+                    for(var name : dimensionParameters.get(d))
+                        values.put(name, point[d]);
+                }
+                var result = write(file, substitute(template, values));
+                pointFinished(finished);
+                return result;
+            }));
+        }
+        return true;
+    }
+
+    private static String substitute(String template, Map<String, Double> values) {
+        return PARAMETER_REFERENCE.matcher(template).replaceAll(match -> {
+            var value = values.get(match.group());
+            return Matcher.quoteReplacement(value == null ? match.group() : Double.toString(value));
+        });
+    }
+
+    private boolean runPatched(List<SweepDimension> dimensions, Path outputDirectory, String[] files,
+                               ExecutorService executor, List<Future<Boolean>> writes) {
+        for(var dimension : dimensions) {
+            if(!resolve(model, dimension, new ArrayList<>())) {
+                System.err.println(String.format("Parameter sweep error: element of \"%s\" not found.", dimension.getLabel()));
+                return false;
+            }
+        }
+        var serializer = new ModelSerializer();
+        var finished = new AtomicInteger();
+        for(int i = 0; i < points.size(); i++) {
+            var point = points.get(i);
+            var file = outputDirectory.resolve(String.format("point_%04d.c", i));
+            files[i] = file.getFileName().toString();
+            writes.add(executor.submit(() -> {
+                MainModel snapshot;
+                // The snapshots are created one at a time, the model is only read
+                synchronized(serializer) {
+                    snapshot = serializer.createSnapshot(model);
+                }
+                for(int d = 0; d < point.length; d++) {
+                    var setters = new ArrayList<DoubleConsumer>();
+                    resolve(snapshot, dimensions.get(d), setters);
+                    for(var setter : setters)
+                        setter.accept(point[d]);
+                }
+                var result = write(file, createTransformator(snapshot, new RateParameters()).getOutput());
+                pointFinished(finished);
+                return result;
+            }));
+        }
+        return true;
+    }
+
+    private void pointFinished(AtomicInteger finished) {
+        var count = finished.incrementAndGet();
+        if(progressListener != null)
+            progressListener.accept(String.format("point %d of %d", count, points.size()), (double) count / points.size());
+    }
+
+    private DefaultTransformator createTransformator(MainModel transformedModel, RateParameters rateParameters) {
+        var transformator = new DefaultTransformator(transformedModel);
+        optionsInitializer.accept(transformator);
+        transformator.setRateParameters(rateParameters);
+        transformator.transform(generateComments);
+        // The points are written like the single transformation, without the dead elements;
+        // the elimination is structural, so it does not depend on the swept values
+        transformator.eliminateDeadElements();
+        return transformator;
+    }
+
+    /**
+     * Finds the model properties of a dimension.
+     *
+     * @param patchedModel The model whose properties are set by the setters.
+     * @return False if no property was found.
+     */
+    private static boolean resolve(MainModel patchedModel, SweepDimension dimension, List<DoubleConsumer> setters) {
+        var element = dimension.getElement();
+        var deploymentDiagram = patchedModel.getDeploymentDiagram();
+        var sequenceDiagram = patchedModel.getSequenceDiagram();
+        switch(dimension.getProperty()) {
+            case STATE_TRANSITION_RATE:
+                deploymentDiagram.getNodes().forEach(node -> {
+                    if(!(node instanceof DeploymentTarget))
+                        return;
+                    var deploymentTarget = (DeploymentTarget) node;
+                    deploymentTarget.getStateTransitions().forEach(transition -> {
+                        var name = String.format("%s/%s", deploymentTarget.getNameProperty().getValue(), transition.nameProperty().getValue());
+                        if(name.equals(element))
+                            setters.add(value -> transition.rateProperty().setValue(value));
+                    });
+                });
+                break;
+            case EXECUTION_TIME:
+                sequenceDiagram.getSortedMessages().forEach(message -> {
+                    if(message.nameProperty().getValue().equals(element))
+                        setters.add(value -> message.setExecutionTime((int) Math.round(value)));
+                });
+                break;
+            case LINK_RATE:
+                deploymentDiagram.getAllLinkTypes().forEach(linkType -> {
+                    if(linkType.nameProperty().getValue().equals(element))
+                        setters.add(value -> linkType.rateProperty().setValue(value));
+                });
+                break;
+            case FAILURE_RATE:
+                sequenceDiagram.getSortedMessages().forEach(message -> {
+                    message.getMessageFailures().forEach(failure -> {
+                        var name = String.format("%s/%s", message.nameProperty().getValue(), failure.nameProperty().getValue());
+                        if(name.equals(element))
+                            setters.add(value -> failure.rateProperty().setValue(value));
+                    });
+                });
+                deploymentDiagram.getCommunicationLinks().forEach(communicationLink -> {
+                    communicationLink.getLinkFailures().forEach(failure -> {
+                        var name = String.format("%s/%s", communicationLink.getLinkType().nameProperty().getValue(), failure.nameProperty().getValue());
+                        if(name.equals(element))
+                            setters.add(value -> failure.rateProperty().setValue(value));
+                    });
+                });
+                break;
+            case LOOP_RESTART_RATE:
+            case LOOP_ITERATIONS:
+                var iterations = dimension.getProperty() == SweepDimension.PropertyType.LOOP_ITERATIONS;
+                sequenceDiagram.getLoops().forEach(loop -> {
+                    if(!loop.nameProperty().getValue().equals(element))
+                        return;
+                    if(iterations)
+                        setters.add(value -> loop.setIterations((int) Math.round(value)));
+                    else
+                        setters.add(value -> loop.setRestartRate(value));
+                });
+                break;
+        }
+        return !setters.isEmpty();
+    }
+
+    private static boolean write(Path file, String content) {
+        try {
+            Files.writeString(file, content, StandardCharsets.UTF_8);
+            return true;
+        }
+        catch(IOException ex) {
+            System.err.println(String.format("Parameter sweep error: unable to write \"%s\": %s", file, ex.getMessage()));
+            return false;
+        }
+    }
+
+    private boolean writeManifest(List<SweepDimension> dimensions, Path outputDirectory, String[] files) {
+        manifest.clear();
+        var header = new StringBuilder("point,file");
+        dimensions.forEach(dimension -> header.append(',').append(csvField(dimension.getLabel())));
+        manifest.add(header.toString());
+        for(int i = 0; i < points.size(); i++) {
+            var line = new StringBuilder();
+            line.append(i).append(',').append(files[i]);
+            for(var value : points.get(i))
+                line.append(',').append(Double.toString(value));
+            manifest.add(line.toString());
+        }
+        try {
+            Files.write(outputDirectory.resolve(MANIFEST_FILE), manifest, StandardCharsets.UTF_8);
+            return true;
+        }
+        catch(IOException ex) {
+            System.err.println(String.format("Parameter sweep error: unable to write the manifest: %s", ex.getMessage()));
+            return false;
+        }
+    }
+
+    private static String csvField(String value) {
+        if(value.contains(",") || value.contains("\""))
+            return String.format("\"%s\"", value.replace("\"", "\"\""));
+        return value;
+    }
+
+    public List<String> getManifest() {
+        return manifest;
+    }
+
+    /**
+     *
+     * @return True if the net was generated once and only the rate functions were rewritten.
+     */
+    public boolean isSharedStructure() {
+        return sharedStructure;
+    }
+
+    @Override
+    public String toString() {
+        var result = new StringBuilder();
+        result.append(String.format("Parameter sweep:%n"));
+        if(points == null)
+            return result.append(String.format("  not run%n")).toString();
+        result.append(String.format("  dimensions: %d, points: %d, structure shared: %s, time: %d ms%n",
+                                    sweep.getDimensions().size(), points.size(), sharedStructure, sweepTime));
+        sweep.getDimensions().forEach(dimension -> {
+            result.append(String.format("    %s: %d values%n", dimension.getLabel(), dimension.getValues().size()));
+        });
+        return result.toString();
+    }
+}
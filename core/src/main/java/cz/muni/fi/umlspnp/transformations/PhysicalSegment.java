@@ -12,9 +12,8 @@ import cz.muni.fi.spnp.core.models.transitions.ImmediateTransition;
 import cz.muni.fi.spnp.core.models.transitions.TimedTransition;
 import cz.muni.fi.spnp.core.models.transitions.probabilities.ConstantTransitionProbability;
 import cz.muni.fi.spnp.core.transformators.spnp.code.FunctionSPNP;
-import cz.muni.fi.spnp.core.transformators.spnp.distributions.ExponentialTransitionDistribution;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -25,15 +24,16 @@ import java.util.Map;
 public class PhysicalSegment extends Segment {
     private final String commentPrefix;
     protected final DeploymentTarget node;
-    protected Map<State, StandardPlace> statePlaces = new HashMap<>();
+    protected Map<State, StandardPlace> statePlaces = new LinkedHashMap<>();
     
-    protected Map<StateTransition, TimedTransition> stateTransitions = new HashMap<>();
-    protected Map<State, ImmediateTransition> parentFailTransitions = new HashMap<>();
+    protected Map<StateTransition, TimedTransition> stateTransitions = new LinkedHashMap<>();
+    protected Map<State, ImmediateTransition> parentFailTransitions = new LinkedHashMap<>();
 
     public PhysicalSegment( PetriNet petriNet,
                             boolean generateComments,
+                            RateParameters rateParameters,
                             DeploymentTarget node) {
-        super(petriNet, generateComments);
+        super(petriNet, generateComments, rateParameters);
         
         this.node = node;
         this.commentPrefix = String.format("Physical segment \"%s\"", node.getNameProperty().getValue());
@@ -67,7 +67,7 @@ public class PhysicalSegment extends Segment {
 
     private void transformState(String nodeName, State state) {
         var statePlaceName = SPNPUtils.createPlaceName(nodeName, state.nameProperty().getValue());
-        var statePlace = new StandardPlace(SPNPUtils.placeCounter++, statePlaceName);
+        var statePlace = new StandardPlace(SPNPUtils.nextPlaceNumber(), statePlaceName);
         if(generateComments)
             statePlace.setCommentary(String.format("%s - State \"%s\" place", commentPrefix, state.nameProperty().getValue()));
         if(state.isDefaultProperty().getValue())
@@ -79,7 +79,10 @@ public class PhysicalSegment extends Segment {
     private void transformTransition(String nodeName, StateTransition transition) {
         var transitionName = SPNPUtils.createTransitionName(nodeName, transition.nameProperty().getValue());
         var rate = transition.rateProperty().getValue();
-        var stateTransition = new TimedTransition(SPNPUtils.transitionCounter++, transitionName, new ExponentialTransitionDistribution(rate));
+        var distribution = rateParameters.createDistribution(RateParameters.Category.STATE_TRANSITION,
+                                                             String.format("%s/%s", nodeName, transition.nameProperty().getValue()),
+                                                             String.format("Rate of state transition %s of %s", transition.nameProperty().getValue(), nodeName), rate);
+        var stateTransition = new TimedTransition(SPNPUtils.nextTransitionNumber(), transitionName, distribution);
         if(generateComments){
             var nameFrom = transition.getStateFrom().nameProperty().getValue();
             var nameTo = transition.getStateTo().nameProperty().getValue();
@@ -93,7 +96,7 @@ public class PhysicalSegment extends Segment {
             System.err.println(String.format("Physical segment: Node \"%s\": Could not find place for source state \"%s\"", nodeName, stateFrom.nameProperty().getValue()));
         }
         else {
-            var inputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Input, placeFrom, stateTransition);
+            var inputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Input, placeFrom, stateTransition);
             petriNet.addArc(inputArc);
         }
         var stateTo = transition.getStateTo();
@@ -102,7 +105,7 @@ public class PhysicalSegment extends Segment {
             System.err.println(String.format("Physical segment: Node \"%s\": Could not find place for destination state \"%s\"", nodeName, stateTo.nameProperty().getValue()));
         }
         else {
-            var outputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Output, placeTo, stateTransition);
+            var outputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Output, placeTo, stateTransition);
             petriNet.addArc(outputArc);
         }
 
@@ -120,16 +123,16 @@ public class PhysicalSegment extends Segment {
         var downStatePlace = this.getDownStatePlace();
 
         var transitionName = SPNPUtils.createTransitionName(nodeName, "parent");
-        var parentFailTransition = new ImmediateTransition(SPNPUtils.transitionCounter++, transitionName,
+        var parentFailTransition = new ImmediateTransition(SPNPUtils.nextTransitionNumber(), transitionName,
                                    SPNPUtils.TR_PRIORTY_STRUCTURE, guard, new ConstantTransitionProbability(1.0));
         if(generateComments)
             parentFailTransition.setCommentary(String.format("%s - State to down transition [state \"%s\"]", commentPrefix, state.nameProperty().getValue()));
         petriNet.addTransition(parentFailTransition);
 
-        var outputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Output, downStatePlace, parentFailTransition);
+        var outputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Output, downStatePlace, parentFailTransition);
         petriNet.addArc(outputArc);
 
-        var flushInputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Input, place, parentFailTransition);
+        var flushInputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Input, place, parentFailTransition);
         petriNet.addArc(flushInputArc);
         
         parentFailTransitions.put(state, parentFailTransition);
@@ -154,10 +157,11 @@ public class PhysicalSegment extends Segment {
         return SPNPUtils.getDownPlace(physicalSegments, parentNode);
     }
     
-    private List<StandardPlace> getServiceFailPlaces(ControlServiceSegment controlSegment) {
+    private List<StandardPlace> getServiceFailPlaces(List<ControlServiceSegment> controlSegments) {
         var serviceFailPlaces = new ArrayList<StandardPlace>();
         
-        var serviceCalls = controlSegment.getControlServiceCalls(null);
+        var serviceCalls = new ArrayList<ServiceCall>();
+        controlSegments.forEach(controlSegment -> serviceCalls.addAll(controlSegment.getControlServiceCalls(null)));
         serviceCalls.forEach(serviceCall -> {
             var message = serviceCall.getMessage();
             var lifeline = message.getTo().getLifeline();
@@ -176,8 +180,13 @@ public class PhysicalSegment extends Segment {
         return serviceFailPlaces;
     }
     
-    public void transformControlServiceSegmentDependencies(List<PhysicalSegment> physicalSegments, ControlServiceSegment controlSegment) {
-        var failPlaces = getServiceFailPlaces(controlSegment);
+    /**
+     * 
+     * @param physicalSegments Physical segments of all nodes.
+     * @param controlSegments Control service segments of all scenarios, the node is shared by them.
+     */
+    public void transformControlServiceSegmentDependencies(List<PhysicalSegment> physicalSegments, List<ControlServiceSegment> controlSegments) {
+        var failPlaces = getServiceFailPlaces(controlSegments);
         var parentDownPlace = getParentDownPlace(physicalSegments);
         if(parentDownPlace != null)
             failPlaces.add(parentDownPlace);
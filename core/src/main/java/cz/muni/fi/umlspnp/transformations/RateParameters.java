@@ -0,0 +1,163 @@
+package cz.muni.fi.umlspnp.transformations;
+
+import cz.muni.fi.spnp.core.models.functions.FunctionType;
+import cz.muni.fi.spnp.core.transformators.spnp.code.FunctionSPNP;
+import cz.muni.fi.spnp.core.transformators.spnp.distributions.ExponentialTransitionDistribution;
+import cz.muni.fi.spnp.core.transformators.spnp.parameters.DoubleInputParameter;
+import cz.muni.fi.spnp.core.transformators.spnp.parameters.InputParameter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ *  Numeric annotations of the model lifted into SPNP input parameters. The rate and
+ * distribution functions reference the parameters by name, so one compiled SPNP model
+ * can be run with different values. Annotations of the categories which are not lifted
+ * are emitted as literals.
+ *
+ */
+public class RateParameters {
+    private static final int PARAMETER_NAME_LENGTH = 12;
+
+    public enum Category {
+        STATE_TRANSITION,
+        LINK,
+        EXECUTION,
+        FAILURE,
+        LOOP
+    }
+
+    private final Set<Category> lifted;
+    private final Map<String, Double> values = new LinkedHashMap<>();
+    private final Map<String, String> descriptions = new LinkedHashMap<>();
+    private final Map<String, String> keys = new LinkedHashMap<>();
+    private boolean declared = true;
+
+    /**
+     * No annotation is lifted, all values are emitted as literals.
+     */
+    public RateParameters() {
+        this(EnumSet.noneOf(Category.class));
+    }
+
+    /**
+     *
+     * @param lifted Categories of the annotations which are emitted as input parameters.
+     */
+    public RateParameters(Set<Category> lifted) {
+        this.lifted = lifted.isEmpty() ? EnumSet.noneOf(Category.class) : EnumSet.copyOf(lifted);
+    }
+
+    public static RateParameters all() {
+        return new RateParameters(EnumSet.allOf(Category.class));
+    }
+
+    public boolean isLifted(Category category) {
+        return lifted.contains(category);
+    }
+
+    /**
+     *
+     * @param declared False if the parameters are only referenced and not declared as SPNP input
+     *                 parameters, the references are then substituted by the values in the output.
+     */
+    public void setDeclared(boolean declared) {
+        this.declared = declared;
+    }
+
+    /**
+     * Registers a value which is used in a function body.
+     *
+     * @param category Category of the annotation.
+     * @param key Model element of the annotation (e.g. "node/transition").
+     * @param description Description of the value shown in the SPNP prompt and the reports.
+     * @param value Value of the annotation.
+     * @return Name of the input parameter or the literal value if the category is not lifted.
+     */
+    public String reference(Category category, String key, String description, double value) {
+        if(!isLifted(category))
+            return String.format("%f", value);
+        var parameterName = String.format("par%d_%s", values.size(), SPNPUtils.prepareName(key, PARAMETER_NAME_LENGTH));
+        values.put(parameterName, value);
+        descriptions.put(parameterName, description);
+        keys.put(parameterName, String.format("%s:%s", category, key));
+        return parameterName;
+    }
+
+    /**
+     * Creates the exponential distribution of a constant rate.
+     *
+     * @param category Category of the annotation.
+     * @param key Model element of the annotation (e.g. "node/transition").
+     * @param description Description of the rate shown in the SPNP prompt and the reports.
+     * @param rate The rate.
+     * @return Distribution with the rate or with a function returning the input parameter.
+     */
+    public ExponentialTransitionDistribution createDistribution(Category category, String key, String description, double rate) {
+        if(!isLifted(category))
+            return new ExponentialTransitionDistribution(rate);
+        var parameterName = reference(category, key, description, rate);
+        var functionName = SPNPUtils.createFunctionName(String.format("rate_%s", parameterName));
+        var function = new FunctionSPNP<>(functionName, FunctionType.Distribution, String.format("return %s;", parameterName), Double.class);
+        return new ExponentialTransitionDistribution(function);
+    }
+
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    /**
+     *
+     * @return Default values of the input parameters by their names.
+     */
+    public Map<String, Double> getValues() {
+        return Collections.unmodifiableMap(values);
+    }
+
+    public String getDescription(String parameterName) {
+        return descriptions.get(parameterName);
+    }
+
+    /**
+     *
+     * @param category Category of the annotation.
+     * @param key Model element of the annotation.
+     * @return Names of the parameters referencing the annotation (e.g. a link type used by several links).
+     */
+    public List<String> getParameterNames(Category category, String key) {
+        var wanted = String.format("%s:%s", category, key);
+        var result = new ArrayList<String>();
+        keys.forEach((parameterName, parameterKey) -> {
+            if(parameterKey.equals(wanted))
+                result.add(parameterName);
+        });
+        return result;
+    }
+
+    public List<InputParameter> createInputParameters() {
+        var result = new ArrayList<InputParameter>();
+        if(!declared)
+            return result;
+        values.forEach((name, value) -> {
+            // The prompt is emitted as a C string literal
+            var description = descriptions.get(name).replaceAll("[\"\\\\]", "");
+            var prompt = String.format("%s (default %s)", description, Double.toString(value));
+            result.add(new DoubleInputParameter(name, prompt));
+        });
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        var result = new StringBuilder();
+        result.append(String.format("Input parameters: %d%n", values.size()));
+        values.forEach((name, value) -> {
+            result.append(String.format("  %-20s %14s  %s%n", name, Double.toString(value), descriptions.get(name)));
+        });
+        return result.toString();
+    }
+}
@@ -0,0 +1,62 @@
+package cz.muni.fi.umlspnp.transformations;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ *  The transitions which start and successfully end a regeneration cycle of the regenerative
+ * simulation (VAL_REG, VAL_ISREG). A cycle is started by the initial transition of the control
+ * service segment (or by a choice transition of the workload) and ends successfully when the
+ * restart transition returns the token to the regeneration point. A failed cycle never reaches
+ * the restart transition.
+ * The probability of the scenario success is the number of the successful cycles per started
+ * cycle, estimated as the throughput of the restart transition divided by the sum of the
+ * throughputs of the start transitions. Unlike a reward of the marking, the estimate does not
+ * depend on how long the model stays in the vanishing end marking.
+ *
+ */
+public class RegenerationCycle {
+    private final List<String> startTransitionNames;
+    private final String restartTransitionName;
+
+    /**
+     *
+     * @param startTransitionNames Names of the transitions which start a cycle.
+     * @param restartTransitionName Name of the transition which ends a successful cycle.
+     */
+    public RegenerationCycle(List<String> startTransitionNames, String restartTransitionName) {
+        this.startTransitionNames = List.copyOf(startTransitionNames);
+        this.restartTransitionName = restartTransitionName;
+    }
+
+    public List<String> getStartTransitionNames() {
+        return Collections.unmodifiableList(startTransitionNames);
+    }
+
+    public String getRestartTransitionName() {
+        return restartTransitionName;
+    }
+
+    /**
+     * Estimates the probability of the scenario success per regeneration cycle.
+     *
+     * @param throughputs Throughput of a transition by its name (e.g. of the simulation results),
+     * NaN if the throughput is not known.
+     * @return Successful cycles per started cycle or NaN if no cycle was started.
+     */
+    public double getSuccessProbability(ToDoubleFunction<String> throughputs) {
+        var started = 0.0;
+        for(var startTransitionName : startTransitionNames)
+            started += throughputs.applyAsDouble(startTransitionName);
+        if(!(started > 0.0))
+            return Double.NaN;
+        return throughputs.applyAsDouble(restartTransitionName) / started;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Regeneration cycle: started by %s, ended successfully by %s",
+                             String.join(", ", startTransitionNames), restartTransitionName);
+    }
+}
@@ -8,6 +8,7 @@ import cz.muni.fi.spnp.core.models.PetriNet;
 import cz.muni.fi.spnp.core.models.places.Place;
 import cz.muni.fi.spnp.core.models.places.StandardPlace;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -16,11 +17,12 @@ import java.util.List;
  */
 public class SPNPUtils {
     public static final int SPNP_MAX_NAME_LENGTH = 20;
-    public static int placeCounter = 0;
-    public static int transitionCounter = 0;
-    public static int arcCounter = 0;
-
-    public static int functionCounter = 0;
+    private static final int PLACES = 0;
+    private static final int TRANSITIONS = 1;
+    private static final int ARCS = 2;
+    private static final int FUNCTIONS = 3;
+    /* The counters belong to the thread, so several nets can be transformed concurrently */
+    private static final ThreadLocal<int[]> counters = ThreadLocal.withInitial(() -> new int[FUNCTIONS + 1]);
 
     public static int TR_PRIORTY_DEFAULT = 0;
     public static int TR_PRIORTY_DEFAULT_IMMEDIATE = 1;
@@ -31,10 +33,31 @@ public class SPNPUtils {
     public static int TR_PRIORITY_DEBUG_PRINT = 1000;
 
     public static void resetCounters() {
-        placeCounter = 0;
-        transitionCounter = 0;
-        arcCounter = 0;
-        functionCounter = 0;
+        Arrays.fill(counters.get(), 0);
+    }
+
+    /**
+     *
+     * @return Number of the next place of the net transformed by the current thread.
+     */
+    public static int nextPlaceNumber() {
+        return counters.get()[PLACES]++;
+    }
+
+    /**
+     *
+     * @return Number of the next transition of the net transformed by the current thread.
+     */
+    public static int nextTransitionNumber() {
+        return counters.get()[TRANSITIONS]++;
+    }
+
+    /**
+     *
+     * @return Number of the next arc of the net transformed by the current thread.
+     */
+    public static int nextArcNumber() {
+        return counters.get()[ARCS]++;
     }
     
     public static Place getPlaceFromNet(PetriNet petriNet, String placeName) {
@@ -54,25 +77,25 @@ public class SPNPUtils {
     }
     
     public static String createPlaceName(String nodeName, String placeName) {
-        var suffix = String.format("_%d", placeCounter);
+        var suffix = String.format("_%d", counters.get()[PLACES]);
         var prefix = String.format("P%s_%s", prepareName(nodeName, 8), prepareName(placeName, 8));
         return String.format("%s%s", prepareName(prefix, SPNP_MAX_NAME_LENGTH - suffix.length()), suffix);
     }
     
     public static String createTransitionName(String nodeName, String transitionName) {
-        var suffix = String.format("_%d", transitionCounter);
+        var suffix = String.format("_%d", counters.get()[TRANSITIONS]);
         var prefix = String.format("T%s_%s", prepareName(nodeName, 8), prepareName(transitionName, 8));
         return String.format("%s%s", prepareName(prefix, SPNP_MAX_NAME_LENGTH - suffix.length()), suffix);
     } 
 
     public static String createTransitionName(String transitionName) {
-        var suffix = String.format("_%d", transitionCounter);
+        var suffix = String.format("_%d", counters.get()[TRANSITIONS]);
         var prefix = prepareName("T" + transitionName, SPNP_MAX_NAME_LENGTH - suffix.length());
         return String.format("%s%s", prefix, suffix);
     }
     
     public static String createFunctionName(String functionName) {
-        return String.format("_%d_%s", functionCounter++, functionName);
+        return String.format("_%d_%s", counters.get()[FUNCTIONS]++, functionName);
     }
 
     public static String getCombinedName(String firstNodeName, String secondNodeName) {
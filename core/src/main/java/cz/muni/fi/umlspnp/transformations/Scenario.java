@@ -0,0 +1,56 @@
+package cz.muni.fi.umlspnp.transformations;
+
+import cz.muni.fi.umlspnp.models.sequencediagram.Activation;
+
+/**
+ *  One scenario of the workload: a top-level activation of the highest lifeline
+ * with its service call tree and the weight with which it is chosen.
+ *
+ */
+public class Scenario {
+    private final int index;
+    private final Activation activation;
+    private final ServiceCallTreeNode root;
+
+    public Scenario(int index, Activation activation, ServiceCallTreeNode root) {
+        this.index = index;
+        this.activation = activation;
+        this.root = root;
+    }
+
+    /**
+     *
+     * @return Index of the scenario (from 1) in the order of the activations.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public Activation getActivation() {
+        return activation;
+    }
+
+    public ServiceCallTreeNode getRoot() {
+        return root;
+    }
+
+    public double getWeight() {
+        return activation.getScenarioWeight();
+    }
+
+    /**
+     *
+     * @return Name of the scenario taken from its first message.
+     */
+    public String getName() {
+        var messages = activation.getSortedMessages();
+        if(messages == null || messages.isEmpty())
+            return String.format("scenario %d", index);
+        return String.format("scenario %d (%s)", index, messages.get(0).nameProperty().getValue());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s, weight %s:%n%s", getName(), Double.toString(getWeight()), root);
+    }
+}
@@ -10,9 +10,15 @@ import cz.muni.fi.spnp.core.models.PetriNet;
 public abstract class Segment {
     protected final PetriNet petriNet;
     protected final boolean generateComments;
+    protected final RateParameters rateParameters;
     
     public Segment(PetriNet petriNet, boolean generateComments) {
+        this(petriNet, generateComments, new RateParameters());
+    }
+    
+    public Segment(PetriNet petriNet, boolean generateComments, RateParameters rateParameters) {
         this.petriNet = petriNet;
         this.generateComments = generateComments;
+        this.rateParameters = rateParameters;
     }
 }
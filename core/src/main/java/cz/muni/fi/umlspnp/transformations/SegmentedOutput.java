@@ -0,0 +1,515 @@
+package cz.muni.fi.umlspnp.transformations;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ *  Splits the generated CSPL code into one C translation unit per transformation segment. The net() statements and the functions are assigned
+ * to the segments by the model objects which produced the named places and transitions,
+ * the remaining code (options, ac_* functions, elements without origin) forms the driver.
+ * Only the files whose content changed are rewritten, so a make-style build recompiles
+ * only the changed segments.
+ *
+ */
+public class SegmentedOutput {
+    private static final Set<String> ENTRY_FUNCTIONS = Set.of("options", "parameters", "net", "assert",
+                                                              "ac_init", "ac_reach", "ac_final");
+    private static final Pattern COMMENT = Pattern.compile("(?s)/\\*.*?\\*/|//[^\\n]*");
+    private static final Pattern STRING_LITERAL = Pattern.compile("\"((?:[^\"\\\\]|\\\\.)*)\"");
+    private static final Pattern FUNCTION_NAME = Pattern.compile("(\\w+)\\s*\\([^()]*\\)\\s*$");
+    private static final Pattern STATEMENT_CALL = Pattern.compile("^(\\w+)\\s*\\(");
+    private static final String HEADER_FILE = "model.h";
+    private static final String MANIFEST_FILE = "segments.sha256";
+    private static final String SEGMENT_PREFIX = "seg_";
+
+    private final String code;
+    private final Map<String, Integer> elementOrigins;
+    private final Map<Integer, String> segmentNames;
+
+    /* Top-level chunks of the code (preprocessor lines, declarations and functions) */
+    private final List<Chunk> chunks = new ArrayList<>();
+    private final List<Statement> netStatements = new ArrayList<>();
+    private Chunk netFunction = null;
+
+    private int writtenFiles = 0;
+    private int unchangedFiles = 0;
+    private int removedFiles = 0;
+    private final Map<String, Integer> segmentSizes = new TreeMap<>();
+
+    private static class Chunk {
+        final String text;
+        final String functionName;
+
+        Chunk(String text) {
+            this.text = text;
+            var header = stripComments(text);
+            var brace = header.indexOf('{');
+            String name = null;
+            if(brace >= 0 && !header.startsWith("#")) {
+                var matcher = FUNCTION_NAME.matcher(header.substring(0, brace));
+                if(matcher.find())
+                    name = matcher.group(1);
+            }
+            this.functionName = name;
+        }
+
+        boolean isFunction() {
+            return functionName != null;
+        }
+
+        boolean isPreprocessor() {
+            return stripComments(text).startsWith("#");
+        }
+
+        String getHeader() {
+            var stripped = stripComments(text);
+            return stripped.substring(0, stripped.indexOf('{')).strip();
+        }
+
+        String getBody() {
+            return text.substring(text.indexOf('{') + 1, text.lastIndexOf('}'));
+        }
+    }
+
+    private static class Statement {
+        final String text;
+        final String call;
+        final String owner;
+
+        Statement(String text) {
+            this.text = text;
+            var stripped = stripComments(text);
+            var callMatcher = STATEMENT_CALL.matcher(stripped);
+            this.call = callMatcher.find() ? callMatcher.group(1) : "";
+            var ownerMatcher = STRING_LITERAL.matcher(stripped);
+            this.owner = ownerMatcher.find() ? ownerMatcher.group(1) : "";
+        }
+
+        boolean isArc() {
+            return call.endsWith("arc");
+        }
+
+        /* Places are declared before the transitions and the arcs last, as CSPL requires */
+        int getRank() {
+            switch(call) {
+                case "place":
+                    return 0;
+                case "init":
+                    return 1;
+                case "trans":
+                    return 2;
+                default:
+                    return isArc() ? 4 : 3;
+            }
+        }
+    }
+
+    private static final Comparator<Statement> STATEMENT_ORDER = Comparator.comparingInt(Statement::getRank)
+                                                                           .thenComparing(statement -> statement.owner);
+
+    /**
+     *
+     * @param code The CSPL code generated by the SPNP library.
+     * @param elementOrigins Identifiers of the model objects which produced the places and transitions, by their names.
+     * @param segmentNames Names of the segments (valid C identifiers) by the identifiers of the model objects.
+     */
+    public SegmentedOutput(String code, Map<String, Integer> elementOrigins, Map<Integer, String> segmentNames) {
+        this.code = code;
+        this.elementOrigins = elementOrigins;
+        this.segmentNames = segmentNames;
+    }
+
+    /**
+     * Splits the code into the top-level chunks and the net() function into statements.
+     *
+     * @return False if the code has unbalanced braces or no net() function.
+     */
+    public boolean parse() {
+        chunks.clear();
+        netStatements.clear();
+        netFunction = null;
+        var pieces = split(code, true);
+        if(pieces == null)
+            return false;
+        pieces.forEach(piece -> chunks.add(new Chunk(piece)));
+        for(var chunk : chunks) {
+            if("net".equals(chunk.functionName))
+                netFunction = chunk;
+        }
+        if(netFunction == null)
+            return false;
+        var statements = split(netFunction.getBody(), false);
+        if(statements == null)
+            return false;
+        statements.forEach(statement -> netStatements.add(new Statement(statement)));
+        return true;
+    }
+
+    /**
+     * Writes the driver, the segment files, the shared header, a Makefile and the manifest
+     * of the content hashes into the directory. Files with unchanged content are not rewritten.
+     *
+     * @param directory Output directory.
+     * @param modelName Name of the driver file and the built executable.
+     * @return False if a file could not be written.
+     */
+    public boolean write(Path directory, String modelName) {
+        writtenFiles = 0;
+        unchangedFiles = 0;
+        removedFiles = 0;
+        segmentSizes.clear();
+
+        var segmentDeclarations = new TreeMap<String, List<Statement>>();
+        var segmentArcs = new TreeMap<String, List<Statement>>();
+        var driverStatements = new ArrayList<Statement>();
+        netStatements.forEach(statement -> {
+            var segment = getSegment(statement.owner);
+            if(segment == null)
+                driverStatements.add(statement);
+            else {
+                segmentDeclarations.computeIfAbsent(segment, key -> new ArrayList<>());
+                segmentArcs.computeIfAbsent(segment, key -> new ArrayList<>());
+                (statement.isArc() ? segmentArcs : segmentDeclarations).get(segment).add(statement);
+            }
+        });
+
+        var segmentFunctions = new TreeMap<String, List<Chunk>>();
+        var driverFunctions = new ArrayList<Chunk>();
+        getUserFunctions().forEach(function -> {
+            var segment = getFunctionSegment(function.functionName);
+            if(segment == null || !segmentDeclarations.containsKey(segment))
+                driverFunctions.add(function);
+            else
+                segmentFunctions.computeIfAbsent(segment, key -> new ArrayList<>()).add(function);
+        });
+
+        var files = new LinkedHashMap<String, String>();
+        files.put(HEADER_FILE, createHeader(segmentDeclarations.keySet()));
+        files.put(String.format("%s.c", modelName), createDriver(segmentDeclarations.keySet(), driverStatements, driverFunctions));
+        segmentDeclarations.forEach((segment, declarations) -> {
+            var content = new StringBuilder(String.format("#include \"%s\"%n%n", HEADER_FILE));
+            segmentFunctions.getOrDefault(segment, List.of()).forEach(function -> appendChunk(content, function.text));
+            declarations.sort(STATEMENT_ORDER);
+            appendFunction(content, String.format("void net_%s(void)", segment), declarations);
+            var arcs = segmentArcs.get(segment);
+            arcs.sort(STATEMENT_ORDER.thenComparing(statement -> stripComments(statement.text)));
+            appendFunction(content, String.format("void net_%s_arcs(void)", segment), arcs);
+            files.put(String.format("%s%s.c", SEGMENT_PREFIX, segment), content.toString());
+            segmentSizes.put(segment, declarations.size() + arcs.size());
+        });
+        files.put("Makefile", createMakefile(modelName, files.keySet()));
+
+        try {
+            Files.createDirectories(directory);
+            var previousFiles = readManifest(directory.resolve(MANIFEST_FILE));
+            var manifest = new StringBuilder();
+            for(var entry : files.entrySet()) {
+                var hash = hash(entry.getValue());
+                var file = directory.resolve(entry.getKey());
+                if(Files.exists(file) && hash.equals(hash(Files.readString(file, StandardCharsets.UTF_8))))
+                    unchangedFiles++;
+                else {
+                    Files.writeString(file, entry.getValue(), StandardCharsets.UTF_8);
+                    writtenFiles++;
+                }
+                manifest.append(String.format("%s  %s%n", hash, entry.getKey()));
+            }
+            // Segments of the previous output which no longer exist
+            for(var previousFile : previousFiles) {
+                if(previousFile.startsWith(SEGMENT_PREFIX) && !files.containsKey(previousFile)
+                        && Files.deleteIfExists(directory.resolve(previousFile)))
+                    removedFiles++;
+            }
+            Files.writeString(directory.resolve(MANIFEST_FILE), manifest.toString(), StandardCharsets.UTF_8);
+        }
+        catch(IOException ex) {
+            System.err.println(String.format("Segmented output error: %s", ex.getMessage()));
+            return false;
+        }
+        return true;
+    }
+
+    private String getSegment(String elementName) {
+        var objectID = elementOrigins.get(elementName);
+        if(objectID == null)
+            return null;
+        return segmentNames.get(objectID);
+    }
+
+    /* The function belongs to the segment of the first net() statement referencing it */
+    private String getFunctionSegment(String functionName) {
+        var reference = Pattern.compile(String.format("\\b%s\\b", Pattern.quote(functionName)));
+        for(var statement : netStatements) {
+            if(reference.matcher(stripComments(statement.text)).find())
+                return getSegment(statement.owner);
+        }
+        return null;
+    }
+
+    private List<Chunk> getUserFunctions() {
+        var result = new ArrayList<Chunk>();
+        chunks.forEach(chunk -> {
+            if(chunk.isFunction() && !ENTRY_FUNCTIONS.contains(chunk.functionName))
+                result.add(chunk);
+        });
+        result.sort(Comparator.comparing(chunk -> chunk.functionName));
+        return result;
+    }
+
+    private String createHeader(Set<String> segments) {
+        var result = new StringBuilder();
+        result.append(String.format("#ifndef MODEL_H%n#define MODEL_H%n%n"));
+        chunks.stream().filter(Chunk::isPreprocessor).forEach(chunk -> result.append(String.format("%s%n", chunk.text.strip())));
+        result.append(System.lineSeparator());
+        chunks.stream().filter(chunk -> !chunk.isFunction() && !chunk.isPreprocessor()).forEach(chunk -> {
+            var declaration = getExternDeclaration(stripComments(chunk.text));
+            if(declaration != null)
+                result.append(String.format("%s%n", declaration));
+        });
+        getUserFunctions().forEach(function -> result.append(String.format("%s;%n", function.getHeader())));
+        segments.forEach(segment -> {
+            result.append(String.format("void net_%s(void);%n", segment));
+            result.append(String.format("void net_%s_arcs(void);%n", segment));
+        });
+        result.append(String.format("%n#endif%n"));
+        return result.toString();
+    }
+
+    /* Global variables are defined by the driver, the header only declares them */
+    private static String getExternDeclaration(String declaration) {
+        if(declaration.startsWith("static") || declaration.startsWith("typedef"))
+            return null;
+        if(declaration.startsWith("extern") || (declaration.contains("(") && !declaration.contains("=")))
+            return declaration;
+        var initializer = declaration.indexOf('=');
+        if(initializer >= 0)
+            declaration = String.format("%s;", declaration.substring(0, initializer).strip());
+        return String.format("extern %s", declaration);
+    }
+
+    private String createDriver(Set<String> segments, List<Statement> driverStatements, List<Chunk> driverFunctions) {
+        var result = new StringBuilder(String.format("#include \"%s\"%n%n", HEADER_FILE));
+        chunks.stream().filter(chunk -> !chunk.isFunction() && !chunk.isPreprocessor()).forEach(chunk -> {
+            if(!stripComments(chunk.text).startsWith("extern"))
+                appendChunk(result, chunk.text);
+        });
+        driverFunctions.forEach(function -> appendChunk(result, function.text));
+        chunks.stream().filter(chunk -> chunk.isFunction() && ENTRY_FUNCTIONS.contains(chunk.functionName)).forEach(chunk -> {
+            if(chunk != netFunction) {
+                appendChunk(result, chunk.text);
+                return;
+            }
+            // Declarations of all segments precede the arcs which may connect them
+            var body = new StringBuilder();
+            segments.forEach(segment -> body.append(String.format("    net_%s();%n", segment)));
+            driverStatements.forEach(statement -> appendStatement(body, statement));
+            segments.forEach(segment -> body.append(String.format("    net_%s_arcs();%n", segment)));
+            result.append(String.format("%s {%n%s}%n%n", chunk.getHeader(), body));
+        });
+        return result.toString();
+    }
+
+    private static String createMakefile(String modelName, Set<String> files) {
+        var objects = new ArrayList<String>();
+        files.forEach(file -> {
+            if(file.endsWith(".c"))
+                objects.add(String.format("%s.o", file.substring(0, file.length() - 2)));
+        });
+        var result = new StringBuilder();
+        result.append(String.format("# Generated by UMLSPNP, only the changed segments are recompiled%n"));
+        result.append(String.format("SPNP_DIRECTORY ?= /usr/local/spnp%n"));
+        result.append(String.format("CC ?= cc%n"));
+        result.append(String.format("CFLAGS ?= -O2%n"));
+        result.append(String.format("CPPFLAGS += -I$(SPNP_DIRECTORY)/include%n"));
+        result.append(String.format("LDLIBS += -L$(SPNP_DIRECTORY)/lib -lspnp -lm%n%n"));
+        result.append(String.format("OBJECTS = %s%n%n", String.join(" ", objects)));
+        result.append(String.format("%s: $(OBJECTS)%n", modelName));
+        result.append(String.format("\t$(CC) $(LDFLAGS) -o $@ $(OBJECTS) $(LDLIBS)%n%n"));
+        result.append(String.format("%%.o: %%.c %s%n", HEADER_FILE));
+        result.append(String.format("\t$(CC) $(CPPFLAGS) $(CFLAGS) -c $< -o $@%n%n"));
+        result.append(String.format(".PHONY: clean%n"));
+        result.append(String.format("clean:%n"));
+        result.append(String.format("\trm -f $(OBJECTS) %s%n", modelName));
+        return result.toString();
+    }
+
+    private static Set<String> readManifest(Path manifest) throws IOException {
+        var result = new HashSet<String>();
+        if(!Files.exists(manifest))
+            return result;
+        for(var line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+            var separator = line.indexOf("  ");
+            if(separator > 0)
+                result.add(line.substring(separator + 2).strip());
+        }
+        return result;
+    }
+
+    private static String hash(String content) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            var result = new StringBuilder();
+            for(var b : digest)
+                result.append(String.format("%02x", b));
+            return result.toString();
+        }
+        catch(NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void appendChunk(StringBuilder result, String text) {
+        result.append(String.format("%s%n%n", text.strip()));
+    }
+
+    private static void appendFunction(StringBuilder result, String header, List<Statement> statements) {
+        var body = new StringBuilder();
+        statements.forEach(statement -> appendStatement(body, statement));
+        result.append(String.format("%s {%n%s}%n%n", header, body));
+    }
+
+    private static void appendStatement(StringBuilder result, Statement statement) {
+        for(var line : statement.text.strip().split("\\R"))
+            result.append(String.format("    %s%n", line.strip()));
+    }
+
+    private static String stripComments(String text) {
+        return COMMENT.matcher(text).replaceAll("").strip();
+    }
+
+    /**
+     * Splits C code into statements (or top-level chunks) ending with a semicolon or a block
+     * following a parenthesis (function definitions, loops). String literals and comments are skipped,
+     * the comments preceding a statement belong to it.
+     *
+     * @param text The code.
+     * @param topLevel True if the preprocessor lines form separate chunks.
+     * @return The statements or null if the braces or parentheses are unbalanced.
+     */
+    private static List<String> split(String text, boolean topLevel) {
+        var result = new ArrayList<String>();
+        int start = 0;
+        int braces = 0;
+        int parentheses = 0;
+        int blockStart = -1;
+        boolean lineStart = true;
+        int i = 0;
+        while(i < text.length()) {
+            var c = text.charAt(i);
+            if(text.startsWith("//", i)) {
+                i = skipTo(text, i, "\n");
+                lineStart = true;
+                continue;
+            }
+            if(text.startsWith("/*", i)) {
+                var end = text.indexOf("*/", i + 2);
+                i = end < 0 ? text.length() : end + 2;
+                continue;
+            }
+            if(c == '"' || c == '\'') {
+                i = skipLiteral(text, i, c);
+                lineStart = false;
+                continue;
+            }
+            if(c == '#' && topLevel && lineStart && braces == 0 && parentheses == 0) {
+                var end = i;
+                do {
+                    end = skipTo(text, end, "\n");
+                } while(end < text.length() && end >= 2 && text.charAt(end - 2) == '\\');
+                addPiece(result, text.substring(start, end));
+                start = end;
+                i = end;
+                continue;
+            }
+            if(c == '\n')
+                lineStart = true;
+            else if(!Character.isWhitespace(c))
+                lineStart = false;
+
+            switch(c) {
+                case '(':
+                    parentheses++;
+                    break;
+                case ')':
+                    parentheses--;
+                    break;
+                case '{':
+                    if(braces == 0)
+                        blockStart = i;
+                    braces++;
+                    break;
+                case '}':
+                    braces--;
+                    if(braces == 0 && parentheses == 0 && stripComments(text.substring(start, blockStart)).endsWith(")")) {
+                        addPiece(result, text.substring(start, i + 1));
+                        start = i + 1;
+                    }
+                    break;
+                case ';':
+                    if(braces == 0 && parentheses == 0) {
+                        addPiece(result, text.substring(start, i + 1));
+                        start = i + 1;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            if(braces < 0 || parentheses < 0)
+                return null;
+            i++;
+        }
+        if(braces != 0 || parentheses != 0)
+            return null;
+        // Trailing comments are kept with the last statement
+        var rest = text.substring(start);
+        if(!rest.isBlank()) {
+            if(stripComments(rest).isEmpty() && !result.isEmpty())
+                result.set(result.size() - 1, String.format("%s%n%s", result.get(result.size() - 1), rest.strip()));
+            else
+                addPiece(result, rest);
+        }
+        return result;
+    }
+
+    private static void addPiece(List<String> result, String piece) {
+        if(!piece.isBlank())
+            result.add(piece.strip());
+    }
+
+    private static int skipTo(String text, int from, String end) {
+        var index = text.indexOf(end, from);
+        return index < 0 ? text.length() : index + end.length();
+    }
+
+    private static int skipLiteral(String text, int from, char quote) {
+        int i = from + 1;
+        while(i < text.length() && text.charAt(i) != quote) {
+            if(text.charAt(i) == '\\')
+                i++;
+            i++;
+        }
+        return Math.min(i + 1, text.length());
+    }
+
+    @Override
+    public String toString() {
+        var result = new StringBuilder();
+        result.append(String.format("Segmented output: %d segments, %d files written, %d unchanged, %d removed%n",
+                                    segmentSizes.size(), writtenFiles, unchangedFiles, removedFiles));
+        segmentSizes.forEach((segment, size) -> result.append(String.format("  %-30s %6d statements%n", segment, size)));
+        return result.toString();
+    }
+}
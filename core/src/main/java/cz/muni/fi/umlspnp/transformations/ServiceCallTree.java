@@ -0,0 +1,120 @@
+package cz.muni.fi.umlspnp.transformations;
+
+import cz.muni.fi.umlspnp.models.sequencediagram.Activation;
+import cz.muni.fi.umlspnp.models.sequencediagram.SequenceDiagram;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An abstract tree which represents the message call hierarchy and is 
+ * constructed for several purposes during the transformation process.
+ * Every scenario (top-level activation of the highest lifeline) has its own tree.
+ *
+ */
+public class ServiceCallTree {
+    private final List<Scenario> scenarios = new ArrayList<>();
+
+    public ServiceCallTree(SequenceDiagram sequenceDiagram) {
+        buildTree(sequenceDiagram);
+    }
+
+    /**
+     * If no activation of the highest lifeline has a weight set, the first one starts
+     * the single scenario. Otherwise every activation with messages and a positive weight
+     * starts one scenario with its own tree, the activations without a weight are skipped.
+     */
+    private void buildTree(SequenceDiagram sequenceDiagram) {
+        var highestLifeline = sequenceDiagram.getHighestLevelLifeline();
+        if(highestLifeline == null)
+            return;
+        var activations = highestLifeline.getSortedActivations();
+        if(activations.size() < 1)
+            return;
+        var weighted = activations.stream().anyMatch(Activation::isScenarioWeightSet);
+        for(var highestActivation : activations) {
+            var messages = highestActivation.getSortedMessages();
+            if(messages.size() < 1)
+                continue;
+            if(!weighted && highestActivation != activations.get(0))
+                break;
+            if(weighted && !highestActivation.isScenarioWeightSet()) {
+                System.err.println(String.format("Service call tree: activation %d skipped (scenario weight is not set)",
+                                                 highestActivation.getObjectInfo().getID()));
+                continue;
+            }
+            if(!(highestActivation.getScenarioWeight() > 0.0)) {
+                System.err.println(String.format("Service call tree: activation %d skipped (scenario weight is zero)",
+                                                 highestActivation.getObjectInfo().getID()));
+                continue;
+            }
+
+            var root = new ServiceCallTreeNode(highestLifeline.getArtifact());
+            processActivation(root, highestActivation);
+            scenarios.add(new Scenario(scenarios.size() + 1, highestActivation, root));
+        }
+    }
+
+    private void processActivation(ServiceCallTreeNode parent, Activation activation) {
+        var parentMessage = parent.getMessage();
+        int parentMessageOrder = 0;
+        if(parentMessage != null)
+            parentMessageOrder = parentMessage.getOrder();
+
+        var sortedMessages = activation.getSortedMessages();
+        for (var message : sortedMessages) {
+            if(message.getOrder() >= parentMessageOrder) {
+                if(message.isSelfMessage() || message.getTo() != activation) {
+                    var node = new ServiceCallTreeNode(message.getTo().getLifeline().getArtifact(), message);
+                    node.setParent(parent);
+                    int parentOrder;
+                    if(parentMessage == null)
+                        parentOrder = 0;
+                    else
+                        parentOrder = sortedMessages.indexOf(parentMessage) + 1;
+                    node.setOrder(sortedMessages.indexOf(message) - parentOrder);
+                    if(!message.isLeafMessage()) {
+                        processActivation(node, message.getTo());
+                    }
+                }
+                else if(message.getOrder() > parentMessageOrder) {
+                    // Encountered next caller message - all following messages are its responsibility
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * 
+     * @return Root of the first scenario or null if there is no scenario.
+     */
+    public ServiceCallTreeNode getRoot() {
+        if(scenarios.isEmpty())
+            return null;
+        return scenarios.get(0).getRoot();
+    }
+
+    public List<Scenario> getScenarios() {
+        return scenarios;
+    }
+
+    /**
+     * 
+     * @return True if the workload consists of more than one scenario.
+     */
+    public boolean isWorkload() {
+        return scenarios.size() > 1;
+    }
+
+    @Override
+    public String toString() {
+        if(scenarios.isEmpty())
+            return "ROOT: null";
+        if(!isWorkload())
+            return getRoot().toString();
+
+        var result = new StringBuilder();
+        scenarios.forEach(scenario -> result.append(scenario.toString()).append(System.lineSeparator()));
+        return result.toString();
+    }
+}
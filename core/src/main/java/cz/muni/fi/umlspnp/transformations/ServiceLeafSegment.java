@@ -14,14 +14,14 @@ import cz.muni.fi.spnp.core.models.transitions.TimedTransition;
 import cz.muni.fi.spnp.core.models.transitions.probabilities.ConstantTransitionProbability;
 import cz.muni.fi.spnp.core.transformators.spnp.code.FunctionSPNP;
 import cz.muni.fi.spnp.core.transformators.spnp.distributions.ExponentialTransitionDistribution;
+import cz.muni.fi.umlspnp.common.Pair;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import javafx.util.Pair;
 
 /**
  *  The execution (leaf) service segment which represents a call to a leaf message.
@@ -44,15 +44,16 @@ public class ServiceLeafSegment extends Segment implements ActionServiceSegment
     protected ImmediateTransition failHWTransition = null;
     protected StandardPlace failHWPlace = null;
     
-    protected Map<TimedTransition, Pair<StandardPlace, Boolean>> failTypes = new HashMap<>();
+    protected Map<TimedTransition, Pair<StandardPlace, Boolean>> failTypes = new LinkedHashMap<>();
 
     
     public ServiceLeafSegment(PetriNet petriNet,
                               boolean generateComments,
+                              RateParameters rateParameters,
                               List<PhysicalSegment> physicalSegments,
                               ServiceCallTreeNode serviceCallNode,
                               ServiceCall serviceCall) {
-        super(petriNet, generateComments);
+        super(petriNet, generateComments, rateParameters);
         
         this.physicalSegments = physicalSegments;
         this.serviceCallNode = serviceCallNode;
@@ -106,7 +107,7 @@ public class ServiceLeafSegment extends Segment implements ActionServiceSegment
     
     private void transformInitialTransition(String messageName) {
         var initialTransitionName = SPNPUtils.createTransitionName(messageName, "start");
-        initialTransition = new ImmediateTransition(SPNPUtils.transitionCounter++,
+        initialTransition = new ImmediateTransition(SPNPUtils.nextTransitionNumber(),
                                                     initialTransitionName,
                                                     SPNPUtils.TR_PRIORTY_DEFAULT_IMMEDIATE,
                                                     null,
@@ -137,18 +138,18 @@ public class ServiceLeafSegment extends Segment implements ActionServiceSegment
     
     private void transformStartPlace(String messageName) {
         var startPlaceName = SPNPUtils.createPlaceName(messageName, "start");
-        startPlace = new StandardPlace(SPNPUtils.placeCounter++, startPlaceName);
+        startPlace = new StandardPlace(SPNPUtils.nextPlaceNumber(), startPlaceName);
         if(generateComments)
             startPlace.setCommentary(String.format("%s - Start place", commentPrefix));
         petriNet.addPlace(startPlace);
 
-        var outputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Output, startPlace, initialTransition);
+        var outputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Output, startPlace, initialTransition);
         petriNet.addArc(outputArc);
     }
 
     private void transformFlushTransition(String messageName) {
         var flushTransitionName = SPNPUtils.createTransitionName(messageName, "flush");
-        flushTransition = new ImmediateTransition(SPNPUtils.transitionCounter++,
+        flushTransition = new ImmediateTransition(SPNPUtils.nextTransitionNumber(),
                                                   flushTransitionName,
                                                   SPNPUtils.TR_PRIORTY_ACTION_FLUSH,
                                                   null,
@@ -209,6 +210,8 @@ public class ServiceLeafSegment extends Segment implements ActionServiceSegment
         var executionTime = (double) serviceCall.getMessage().getExecutionTimeValue();
         executionTime = executionTime > 0 ? executionTime : 1.0;
         var operationType = message.getOperationType();
+        var executionTimeReference = rateParameters.reference(RateParameters.Category.EXECUTION, messageName,
+                                                              String.format("Execution time of %s", messageName), executionTime);
 
         var functionBody = new StringBuilder();
         for(var state : dt.getStates()) {
@@ -219,7 +222,7 @@ public class ServiceLeafSegment extends Segment implements ActionServiceSegment
                 if(statePlace != null){
                     if(functionBody.length() > 0)
                         functionBody.append(" + ");
-                    functionBody.append(String.format("(mark(\"%s\") * %f * %f)", statePlace.getName(), executionTime, speedCoefficient));
+                    functionBody.append(String.format("(mark(\"%s\") * %s * %f)", statePlace.getName(), executionTimeReference, speedCoefficient));
                 }
                 else{
                     System.err.println(String.format("Leaf service segment transformation error: hw place for state %s not found.",
@@ -238,7 +241,7 @@ public class ServiceLeafSegment extends Segment implements ActionServiceSegment
 
     private void transformEnd(String messageName) {
         var endPlaceName = SPNPUtils.createPlaceName(messageName, "end");
-        endPlace = new StandardPlace(SPNPUtils.placeCounter++, endPlaceName);
+        endPlace = new StandardPlace(SPNPUtils.nextPlaceNumber(), endPlaceName);
         if(generateComments)
             endPlace.setCommentary(String.format("%s - End place", commentPrefix));
         petriNet.addPlace(endPlace);
@@ -246,26 +249,26 @@ public class ServiceLeafSegment extends Segment implements ActionServiceSegment
         var endTransitionName = SPNPUtils.createTransitionName(messageName, "end");
         var distributionFunction = createEndRateDistributionFunction(messageName);
         var distribution = new ExponentialTransitionDistribution(distributionFunction);
-        endTransition = new TimedTransition(SPNPUtils.transitionCounter++, endTransitionName, SPNPUtils.TR_PRIORTY_DEFAULT, null, distribution);
+        endTransition = new TimedTransition(SPNPUtils.nextTransitionNumber(), endTransitionName, SPNPUtils.TR_PRIORTY_DEFAULT, null, distribution);
         if(generateComments)
             endTransition.setCommentary(String.format("%s - End transition", commentPrefix));
         petriNet.addTransition(endTransition);
 
-        var inputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Input, startPlace, endTransition);
+        var inputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Input, startPlace, endTransition);
         petriNet.addArc(inputArc);
 
-        var outputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Output, endPlace, endTransition);
+        var outputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Output, endPlace, endTransition);
         petriNet.addArc(outputArc);
         
         var cardinalityFunctionName = SPNPUtils.createFunctionName(String.format("cardinality_%s_end_to_flush", SPNPUtils.prepareName(messageName, 15)));
         var cardinalityFunctionBody = String.format("return mark(\"%s\");", endPlace.getName());
         var cardinalityFunction = new FunctionSPNP<Integer>(cardinalityFunctionName, FunctionType.ArcCardinality, cardinalityFunctionBody, Integer.class);
-        var flushInputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Input, endPlace, flushTransition, cardinalityFunction);
+        var flushInputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Input, endPlace, flushTransition, cardinalityFunction);
         petriNet.addArc(flushInputArc);
     }
 
     private Set<ServiceCallTreeNode> getMarkedNodesInTree() {
-        var result = new HashSet<ServiceCallTreeNode>();
+        var result = new LinkedHashSet<ServiceCallTreeNode>();
         result.add(serviceCallNode);
         serviceCallNode.setMarkedForLabelCheck(true);
 
@@ -342,7 +345,7 @@ public class ServiceLeafSegment extends Segment implements ActionServiceSegment
         var guardBody = new StringBuilder("return ");
 
         var hwFailNodes = getMarkedNodesInTree();
-        var controlSet = new HashSet<DeploymentTarget>();
+        var controlSet = new LinkedHashSet<DeploymentTarget>();
         for(var treeNode : hwFailNodes) {
             var dt = SPNPUtils.getDeploymentTargetFromArtifact(treeNode.getArtifact());
             if(!controlSet.contains(dt)) {
@@ -368,13 +371,13 @@ public class ServiceLeafSegment extends Segment implements ActionServiceSegment
     
     private void transformFailHW(String messageName) {
         var failHWPlaceName = SPNPUtils.createPlaceName(messageName, "HW_fail");
-        failHWPlace = new StandardPlace(SPNPUtils.placeCounter++, failHWPlaceName);
+        failHWPlace = new StandardPlace(SPNPUtils.nextPlaceNumber(), failHWPlaceName);
         if(generateComments)
             failHWPlace.setCommentary(String.format("%s - Hardware failure place", commentPrefix));
         petriNet.addPlace(failHWPlace);
 
         var failHWTransitionName = SPNPUtils.createTransitionName(messageName, "HW_fail");
-        failHWTransition = new ImmediateTransition(SPNPUtils.transitionCounter++,
+        failHWTransition = new ImmediateTransition(SPNPUtils.nextTransitionNumber(),
                                                    failHWTransitionName,
                                                    SPNPUtils.TR_PRIORTY_DEFAULT_IMMEDIATE, 
                                                    createHWFailGuard(messageName),
@@ -383,45 +386,46 @@ public class ServiceLeafSegment extends Segment implements ActionServiceSegment
             failHWTransition.setCommentary(String.format("%s - Hardware failure transition", commentPrefix));
         petriNet.addTransition(failHWTransition);
 
-        var inputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Input, startPlace, failHWTransition);
+        var inputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Input, startPlace, failHWTransition);
         petriNet.addArc(inputArc);
 
-        var outputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Output, failHWPlace, failHWTransition);
+        var outputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Output, failHWPlace, failHWTransition);
         petriNet.addArc(outputArc);
         
         var cardinalityFunctionName = SPNPUtils.createFunctionName(String.format("cardinality_%s_HW_fail_to_flush", SPNPUtils.prepareName(messageName, 15)));
         var cardinalityFunctionBody = String.format("return mark(\"%s\");", failHWPlace.getName());
         var cardinalityFunction = new FunctionSPNP<>(cardinalityFunctionName, FunctionType.ArcCardinality, cardinalityFunctionBody, Integer.class);
-        var flushInputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Input, failHWPlace, flushTransition, cardinalityFunction);
+        var flushInputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Input, failHWPlace, flushTransition, cardinalityFunction);
         petriNet.addArc(flushInputArc);
     }
     
     private void transformFailType(String messageName, String failureName, double failureRate, boolean causeHWfailure) {
         var failTypePlaceName = SPNPUtils.createPlaceName(messageName, "FT_" + failureName);
-        var failTypePlace = new StandardPlace(SPNPUtils.placeCounter++, failTypePlaceName);
+        var failTypePlace = new StandardPlace(SPNPUtils.nextPlaceNumber(), failTypePlaceName);
         if(generateComments)
             failTypePlace.setCommentary(String.format("%s - Failure place (\"%s\")", commentPrefix, failureName));
         petriNet.addPlace(failTypePlace);
 
         var failTypeTransitionName = SPNPUtils.createTransitionName(messageName, "FT_" + failureName);
-        var distribution = new ExponentialTransitionDistribution(failureRate);
-        var failTypeTransition = new TimedTransition(SPNPUtils.transitionCounter++, failTypeTransitionName, SPNPUtils.TR_PRIORTY_DEFAULT, null, distribution);
+        var distribution = rateParameters.createDistribution(RateParameters.Category.FAILURE, String.format("%s/%s", messageName, failureName),
+                                                             String.format("Rate of failure %s of %s", failureName, messageName), failureRate);
+        var failTypeTransition = new TimedTransition(SPNPUtils.nextTransitionNumber(), failTypeTransitionName, SPNPUtils.TR_PRIORTY_DEFAULT, null, distribution);
         if(generateComments)
             failTypeTransition.setCommentary(String.format("%s - Failure transition (\"%s\")", commentPrefix, failureName));
         petriNet.addTransition(failTypeTransition);
 
-        failTypes.put(failTypeTransition, new Pair(failTypePlace, causeHWfailure));
+        failTypes.put(failTypeTransition, new Pair<>(failTypePlace, causeHWfailure));
         
-        var inputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Input, startPlace, failTypeTransition);
+        var inputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Input, startPlace, failTypeTransition);
         petriNet.addArc(inputArc);
 
-        var outputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Output, failTypePlace, failTypeTransition);
+        var outputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Output, failTypePlace, failTypeTransition);
         petriNet.addArc(outputArc);
         
         var cardinalityFunctionName = SPNPUtils.createFunctionName(String.format("cardinality_%s_FT_to_flush", SPNPUtils.prepareName(messageName, 15)));
         var cardinalityFunctionBody = String.format("return mark(\"%s\");", failTypePlace.getName());
         var cardinalityFunction = new FunctionSPNP<Integer>(cardinalityFunctionName, FunctionType.ArcCardinality, cardinalityFunctionBody, Integer.class);
-        var flushInputArc = new StandardArc(SPNPUtils.arcCounter++, ArcDirection.Input, failTypePlace, flushTransition, cardinalityFunction);
+        var flushInputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Input, failTypePlace, flushTransition, cardinalityFunction);
         petriNet.addArc(flushInputArc);
     }
 
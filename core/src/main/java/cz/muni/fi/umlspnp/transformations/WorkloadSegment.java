@@ -0,0 +1,154 @@
+package cz.muni.fi.umlspnp.transformations;
+
+import cz.muni.fi.spnp.core.models.PetriNet;
+import cz.muni.fi.spnp.core.models.arcs.ArcDirection;
+import cz.muni.fi.spnp.core.models.arcs.StandardArc;
+import cz.muni.fi.spnp.core.models.functions.FunctionType;
+import cz.muni.fi.spnp.core.models.places.StandardPlace;
+import cz.muni.fi.spnp.core.models.transitions.ImmediateTransition;
+import cz.muni.fi.spnp.core.models.transitions.probabilities.ConstantTransitionProbability;
+import cz.muni.fi.spnp.core.transformators.spnp.code.FunctionSPNP;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *  Joins the control service segments of several scenarios into one workload.
+ * The token of the choice place selects one scenario by an immediate transition with
+ * the normalized weight of the scenario, all scenarios end in the shared end place
+ * which halts the net. The physical and communication segments are shared by all scenarios.
+ *
+ */
+public class WorkloadSegment extends Segment {
+    private final String commentPrefix = "Workload segment";
+    private final List<Scenario> scenarios;
+
+    private StandardPlace choicePlace = null;
+    private StandardPlace endPlace = null;
+    private final List<ImmediateTransition> choiceTransitions = new ArrayList<>();
+    private FunctionSPNP<Integer> haltingFunction = null;
+    private ImmediateTransition restartTransition = null;
+
+    public WorkloadSegment(PetriNet petriNet,
+                           boolean generateComments,
+                           RateParameters rateParameters,
+                           List<Scenario> scenarios) {
+        super(petriNet, generateComments, rateParameters);
+
+        this.scenarios = scenarios;
+    }
+
+    /**
+     * Creates the choice place and the shared end place, needs to be called before
+     * the control service segments of the scenarios are transformed.
+     */
+    public void transformPlaces() {
+        var choicePlaceName = SPNPUtils.createPlaceName("workload", "choice");
+        choicePlace = new StandardPlace(SPNPUtils.nextPlaceNumber(), choicePlaceName);
+        if(generateComments)
+            choicePlace.setCommentary(String.format("%s - Scenario choice place", commentPrefix));
+        choicePlace.setNumberOfTokens(1);
+        petriNet.addPlace(choicePlace);
+
+        var endPlaceName = SPNPUtils.createPlaceName("workload", "end");
+        endPlace = new StandardPlace(SPNPUtils.nextPlaceNumber(), endPlaceName);
+        if(generateComments)
+            endPlace.setCommentary(String.format("%s - End place of all scenarios", commentPrefix));
+        petriNet.addPlace(endPlace);
+    }
+
+    /**
+     * Connects the choice place to the start places of the scenarios.
+     *
+     * @param controlServiceSegments Control service segments of the scenarios in their order.
+     */
+    public void transformChoice(List<ControlServiceSegment> controlServiceSegments) {
+        var totalWeight = scenarios.stream().mapToDouble(Scenario::getWeight).sum();
+        for(int i = 0; i < scenarios.size(); i++) {
+            var scenario = scenarios.get(i);
+            var controlServiceSegment = controlServiceSegments.get(i);
+
+            var choiceTransitionName = SPNPUtils.createTransitionName("workload", String.format("scen%d", scenario.getIndex()));
+            var probability = scenario.getWeight() / totalWeight;
+            var choiceTransition = new ImmediateTransition(SPNPUtils.nextTransitionNumber(), choiceTransitionName,
+                                   SPNPUtils.TR_PRIORTY_DEFAULT_IMMEDIATE, null, new ConstantTransitionProbability(probability));
+            if(generateComments)
+                choiceTransition.setCommentary(String.format("%s - Choice of %s (probability %s)",
+                                                             commentPrefix, scenario.getName(), Double.toString(probability)));
+            petriNet.addTransition(choiceTransition);
+            choiceTransitions.add(choiceTransition);
+
+            var inputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Input, choicePlace, choiceTransition);
+            petriNet.addArc(inputArc);
+            var outputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Output, controlServiceSegment.getInitialPlace(), choiceTransition);
+            petriNet.addArc(outputArc);
+        }
+
+        var functionName = SPNPUtils.createFunctionName("halting_workload");
+        haltingFunction = new FunctionSPNP<>(functionName,
+                                             FunctionType.Halting, String.format("return !mark(\"%s\");", endPlace.getName()),
+                                             Integer.class);
+        petriNet.addFunction(haltingFunction);
+    }
+
+    /**
+     * Closes the workload for the regenerative simulation, the same way as the control
+     * service segment of a single scenario does (see ControlServiceSegment.transformRegeneration).
+     * The restart transition returns the token to the choice place, so every regeneration
+     * cycle chooses a scenario again.
+     */
+    public void transformRegeneration() {
+        if(haltingFunction != null) {
+            petriNet.removeFunction(haltingFunction);
+            haltingFunction = null;
+        }
+
+        var restartTransitionName = SPNPUtils.createTransitionName("workload", "restart");
+        restartTransition = new ImmediateTransition(SPNPUtils.nextTransitionNumber(), restartTransitionName,
+                            SPNPUtils.TR_PRIORTY_DEFAULT_IMMEDIATE, null, new ConstantTransitionProbability(1.0));
+        if(generateComments)
+            restartTransition.setCommentary(String.format("%s - Restart transition (regenerative simulation)", commentPrefix));
+        petriNet.addTransition(restartTransition);
+
+        var inputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Input, endPlace, restartTransition);
+        petriNet.addArc(inputArc);
+        var outputArc = new StandardArc(SPNPUtils.nextArcNumber(), ArcDirection.Output, choicePlace, restartTransition);
+        petriNet.addArc(outputArc);
+    }
+
+    public List<Scenario> getScenarios() {
+        return scenarios;
+    }
+
+    public StandardPlace getChoicePlace() {
+        return choicePlace;
+    }
+
+    public StandardPlace getEndPlace() {
+        return endPlace;
+    }
+
+    public List<ImmediateTransition> getChoiceTransitions() {
+        return choiceTransitions;
+    }
+
+    /**
+     *
+     * @return The restart transition or null if the regeneration was not transformed.
+     */
+    public ImmediateTransition getRestartTransition() {
+        return restartTransition;
+    }
+
+    @Override
+    public String toString() {
+        var result = new StringBuilder();
+        result.append(String.format("Workload Segment:%n"));
+        result.append(String.format("(ChoicePlace %s)", choicePlace.getName()));
+        for(int i = 0; i < choiceTransitions.size(); i++)
+            result.append(String.format("%n  -> [%s] -> %s", choiceTransitions.get(i).getName(), scenarios.get(i).getName()));
+        result.append(String.format("%n  -> (EndPlace %s)", endPlace.getName()));
+        if(restartTransition != null)
+            result.append(String.format(" -> [RestartTransition %s] -> (ChoicePlace %s)", restartTransition.getName(), choicePlace.getName()));
+        return result.toString();
+    }
+}
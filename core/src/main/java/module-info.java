@@ -0,0 +1,23 @@
+module cz.muni.fi.umlspnp.core {
+    requires jdk.jfr;
+    requires jdk.httpserver;
+    requires transitive com.google.gson;
+    requires transitive spnp.core.models;
+    requires transitive spnp.core.transformators;
+
+    exports cz.muni.fi.umlspnp.analysis;
+    exports cz.muni.fi.umlspnp.common;
+    exports cz.muni.fi.umlspnp.common.observable;
+    exports cz.muni.fi.umlspnp.metrics;
+    exports cz.muni.fi.umlspnp.models;
+    exports cz.muni.fi.umlspnp.models.deploymentdiagram;
+    exports cz.muni.fi.umlspnp.models.sequencediagram;
+    exports cz.muni.fi.umlspnp.service;
+    exports cz.muni.fi.umlspnp.solver;
+    exports cz.muni.fi.umlspnp.transformations;
+    
+    opens cz.muni.fi.umlspnp.common;
+    opens cz.muni.fi.umlspnp.models;
+    opens cz.muni.fi.umlspnp.models.deploymentdiagram;
+    opens cz.muni.fi.umlspnp.models.sequencediagram;
+}
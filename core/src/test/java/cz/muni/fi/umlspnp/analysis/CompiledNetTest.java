@@ -0,0 +1,100 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import cz.muni.fi.spnp.core.models.functions.FunctionType;
+import cz.muni.fi.spnp.core.models.transitions.TimedTransition;
+import cz.muni.fi.spnp.core.transformators.spnp.code.FunctionSPNP;
+import cz.muni.fi.spnp.core.transformators.spnp.distributions.ExponentialTransitionDistribution;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ *  Firing rules of the compiled net: arc weights, guards, rate functions
+ * and the preemption of the timed transitions by the immediate ones.
+ *
+ */
+public class CompiledNetTest {
+
+    @Test
+    public void queueFiresAsDefined() {
+        var net = TestNets.compile(TestNets.queue(3, 1.0, 2.0));
+        var free = net.getPlaceIndex(TestNets.FREE_PLACE);
+        var queue = net.getPlaceIndex(TestNets.QUEUE_PLACE);
+        var marking = net.getInitialMarking();
+        assertEquals(3, marking[free]);
+        assertEquals(0, marking[queue]);
+
+        var enabled = new int[net.getTransitionCount()];
+        assertEquals(1, net.getEnabledTransitions(marking, enabled));
+        assertEquals(TestNets.ARRIVAL_TRANSITION, net.getTransitionName(enabled[0]));
+        assertEquals(1.0, net.getRate(enabled[0], marking), 0.0);
+
+        var next = new int[marking.length];
+        net.fire(enabled[0], marking, next);
+        assertEquals(2, next[free]);
+        assertEquals(1, next[queue]);
+        assertEquals(2, net.getEnabledTransitions(next, enabled));
+        assertEquals(-1, net.getPlaceIndex("Pmissing"));
+    }
+
+    @Test
+    public void guardAndRateFunctionAreEvaluatedInMarking() {
+        var guard = new FunctionSPNP<>("guard_arrival", FunctionType.Guard, "return mark(\"Pqueue\") < 2;", Integer.class);
+        var rate = new FunctionSPNP<>("rate_arrival", FunctionType.Distribution, "return 0.5 * mark(\"Pfree\");", Double.class);
+        var arrival = new TimedTransition(1, TestNets.ARRIVAL_TRANSITION, 0, guard, new ExponentialTransitionDistribution(rate));
+        var service = new TimedTransition(2, TestNets.SERVICE_TRANSITION, new ExponentialTransitionDistribution(2.0));
+        var net = TestNets.compile(TestNets.queue(3, arrival, service));
+
+        var transition = findTransition(net, TestNets.ARRIVAL_TRANSITION);
+        assertTrue(net.hasConcession(transition, new int[] {3, 0}));
+        assertEquals(1.5, net.getRate(transition, new int[] {3, 0}), 1e-15);
+        assertFalse(net.hasConcession(transition, new int[] {1, 2}));
+    }
+
+    @Test
+    public void immediateTransitionPreemptsTimed() {
+        var net = TestNets.compile(TestNets.flushedQueue(2, 1.0, 2.0));
+        var enabled = new int[net.getTransitionCount()];
+        var full = new int[] {0, 2};
+        assertEquals(1, net.getEnabledTransitions(full, enabled));
+        assertTrue(net.isImmediate(enabled[0]));
+        var next = new int[full.length];
+        net.fire(enabled[0], full, next);
+        assertArrayEquals(new int[] {2, 0}, next);
+    }
+
+    @Test
+    public void unsupportedGuardIsRefused() {
+        var guard = new FunctionSPNP<>("guard_arrival", FunctionType.Guard, "int x = mark(\"Pqueue\"); return x < 2;", Integer.class);
+        var arrival = new TimedTransition(1, TestNets.ARRIVAL_TRANSITION, 0, guard, new ExponentialTransitionDistribution(1.0));
+        var service = new TimedTransition(2, TestNets.SERVICE_TRANSITION, new ExponentialTransitionDistribution(2.0));
+
+        assertNull(CompiledNet.compile(TestNets.queue(3, arrival, service)));
+    }
+
+    @Test
+    public void parametersReplaceIdentifiers() {
+        var rate = new FunctionSPNP<>("rate_service", FunctionType.Distribution, "return MU;", Double.class);
+        var arrival = new TimedTransition(1, TestNets.ARRIVAL_TRANSITION, new ExponentialTransitionDistribution(1.0));
+        var service = new TimedTransition(2, TestNets.SERVICE_TRANSITION, new ExponentialTransitionDistribution(rate));
+        var petriNet = TestNets.queue(1, arrival, service);
+
+        assertNull(CompiledNet.compile(petriNet));
+        var net = CompiledNet.compile(petriNet, Map.of("MU", 4.0));
+        assertNotNull(net);
+        assertEquals(4.0, net.getRate(findTransition(net, TestNets.SERVICE_TRANSITION), new int[] {0, 1}), 0.0);
+    }
+
+    private static int findTransition(CompiledNet net, String transitionName) {
+        for(int t = 0; t < net.getTransitionCount(); t++) {
+            if(net.getTransitionName(t).equals(transitionName))
+                return t;
+        }
+        return -1;
+    }
+}
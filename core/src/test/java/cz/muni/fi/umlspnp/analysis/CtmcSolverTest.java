@@ -0,0 +1,120 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ *  The solutions of the CTMC solver compared with the closed forms of the M/M/1/K queue,
+ * of the two-state chain and of a race of two exponential transitions.
+ *
+ */
+public class CtmcSolverTest {
+    private static final int CAPACITY = 10;
+    private static final double LAMBDA = 1.0;
+    private static final double MU = 2.0;
+
+    private static SolverOptions createOptions() {
+        var options = new SolverOptions();
+        options.setPrecision(1e-12);
+        options.setIterations(100000);
+        options.setParallelism(2);
+        return options;
+    }
+
+    private static ReachabilityGraph generate(CompiledNet net) {
+        var graph = new ReachabilityGraphGenerator(net).generate();
+        assertTrue(graph != null && graph.isComplete());
+        return graph;
+    }
+
+    private static int findTransition(CompiledNet net, String transitionName) {
+        for(int t = 0; t < net.getTransitionCount(); t++) {
+            if(net.getTransitionName(t).equals(transitionName))
+                return t;
+        }
+        return -1;
+    }
+
+    @Test
+    public void steadyStateOfQueue() {
+        var net = TestNets.compile(TestNets.queue(CAPACITY, LAMBDA, MU));
+        var graph = generate(net);
+        var queue = net.getPlaceIndex(TestNets.QUEUE_PLACE);
+        var service = findTransition(net, TestNets.SERVICE_TRANSITION);
+
+        var expectedTokens = 0.0;
+        for(int n = 0; n <= CAPACITY; n++)
+            expectedTokens += n * TestNets.queueProbability(n, CAPACITY, LAMBDA, MU);
+        for(var method : SolverOptions.SteadyStateMethod.values()) {
+            var options = createOptions();
+            options.setSteadyStateMethod(method);
+            var solver = new CtmcSolver(graph, options);
+            assertEquals(0, solver.getAbsorbingStateCount());
+            assertEquals(2 * CAPACITY, solver.getNonZeroCount());
+
+            var solution = solver.solveSteadyState();
+            assertTrue(solution.isConverged(), method.name());
+            assertTrue(solution.isSteadyState());
+            for(int s = 0; s < graph.getStateCount(); s++) {
+                var n = graph.getMarking(s)[queue];
+                assertEquals(TestNets.queueProbability(n, CAPACITY, LAMBDA, MU), solution.getProbabilities()[s], 1e-9);
+            }
+            var measures = new CtmcMeasures(graph, solution);
+            assertEquals(expectedTokens, measures.getPlaceAverageTokens(queue), 1e-9);
+            assertEquals(MU * (1.0 - TestNets.queueProbability(0, CAPACITY, LAMBDA, MU)),
+                         measures.getTransitionThroughput(service), 1e-9);
+            assertTrue(Double.isNaN(solution.getMeanTimeToAbsorption()));
+        }
+    }
+
+    @Test
+    public void transientSolutionOfTwoStateChain() {
+        var net = TestNets.compile(TestNets.queue(1, LAMBDA, MU));
+        var graph = generate(net);
+        var busy = graph.findState(new int[] {0, 1});
+        var rate = LAMBDA + MU;
+        double[] times = {0.1, 1.0, 5.0};
+
+        for(var method : SolverOptions.TransientMethod.values()) {
+            var options = createOptions();
+            options.setTransientMethod(method);
+            options.setSteadyStateDetection(false);
+            var solutions = new CtmcSolver(graph, options).solveTransient(times);
+            assertEquals(times.length, solutions.length);
+            for(var solution : solutions) {
+                var t = solution.getTime();
+                var decay = 1.0 - Math.exp(-rate * t);
+                assertEquals(LAMBDA / rate * decay, solution.getProbabilities()[busy], 1e-9);
+                assertEquals(LAMBDA / rate * (t - decay / rate), solution.getCumulative()[busy], 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void absorptionProbabilitiesOfRace() {
+        var net = TestNets.compile(TestNets.race(1.0, 3.0));
+        var graph = generate(net);
+
+        for(var method : SolverOptions.SteadyStateMethod.values()) {
+            var options = createOptions();
+            options.setSteadyStateMethod(method);
+            var solver = new CtmcSolver(graph, options);
+            assertEquals(2, solver.getAbsorbingStateCount());
+            var solution = solver.solveSteadyState();
+            assertEquals(0.25, solution.getMeanTimeToAbsorption(), 1e-12);
+            assertEquals(0.25, solution.getProbabilities()[graph.findState(new int[] {0, 1, 0})], 1e-12);
+            assertEquals(0.75, solution.getProbabilities()[graph.findState(new int[] {0, 0, 1})], 1e-12);
+            assertEquals(0.0, solution.getProbabilities()[graph.findState(new int[] {1, 0, 0})], 0.0);
+        }
+    }
+
+    @Test
+    public void selfCheckPasses() {
+        assertEquals(0, SolverSelfCheck.run(new String[0]));
+        assertEquals(0, SolverSelfCheck.run(new String[] {"--tolerance", "1e-8"}));
+        assertEquals(2, SolverSelfCheck.run(new String[] {"--tolerance"}));
+        assertEquals(2, SolverSelfCheck.run(new String[] {"--tolerance", "-1"}));
+        assertEquals(2, SolverSelfCheck.run(new String[] {"--unknown"}));
+    }
+}
@@ -0,0 +1,62 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ *  The function bodies the parser accepts and evaluates and the bodies it refuses
+ * because the returned value would depend on statements it does not evaluate.
+ *
+ */
+public class ExpressionParserTest {
+    private final ExpressionParser parser = new ExpressionParser(Map.of("A", 0, "B", 1), Map.of("RATE", 2.5));
+
+    private double evaluate(String body, int... marking) {
+        var expression = parser.parseFunctionBody(body);
+        assertNotNull(expression, body);
+        return expression.compile().evaluate(marking);
+    }
+
+    @Test
+    public void operatorsFollowCPrecedence() {
+        assertEquals(9.0, evaluate("return (mark(\"A\") + 2) * 3;", 1, 0), 0.0);
+        assertEquals(7.0, evaluate("return mark(\"A\") + 2 * 3;", 1, 0), 0.0);
+        assertEquals(1.0, evaluate("return mark(\"A\") < 2 && !mark(\"B\");", 1, 0), 0.0);
+        assertEquals(0.0, evaluate("return mark(\"A\") < 2 && !mark(\"B\");", 1, 1), 0.0);
+        assertEquals(1.0, evaluate("return mark(\"A\") || mark(\"B\");", 0, 3), 0.0);
+        assertEquals(1.0, evaluate("return mark(\"A\") == 0;", 0, 0), 0.0);
+        assertEquals(-0.5, evaluate("return -1e-1 * 5;", 0, 0), 1e-15);
+    }
+
+    @Test
+    public void parametersAreReplacedByValues() {
+        var expression = parser.parseFunctionBody("return RATE * mark(\"B\");");
+        assertNotNull(expression);
+        assertEquals(5.0, expression.compile().evaluate(new int[] {0, 2}), 0.0);
+        assertTrue(parser.parseExpression("2 * RATE").isConstant());
+    }
+
+    @Test
+    public void outputStatementsBeforeReturnAreSkipped() {
+        var body = "if(mark(\"A\"))\n  fprintf(stderr, \"x;y\\n\");\n/* c; */ fprintf(stderr, \"%d\", mark(\"B\"));\nreturn 0;";
+        assertEquals(0.0, evaluate(body, 1, 1), 0.0);
+        assertEquals(1.0, evaluate("// return 2;\nreturn 1;", 0, 0), 0.0);
+    }
+
+    @Test
+    public void unsupportedBodiesAreRefused() {
+        assertNull(parser.parseFunctionBody("if(mark(\"A\")) return 1; return 0;"));
+        assertNull(parser.parseFunctionBody("int x = 1; return x;"));
+        assertNull(parser.parseFunctionBody("trace_i++; return 0;"));
+        assertNull(parser.parseFunctionBody("return 1; fprintf(stderr, \"\");"));
+        assertNull(parser.parseFunctionBody("if(mark(\"A\")) { fprintf(stderr, \"\"); } return 0;"));
+        assertNull(parser.parseFunctionBody("return 1"));
+        assertNull(parser.parseFunctionBody("return mark(\"C\");"));
+        assertNull(parser.parseFunctionBody("return UNKNOWN;"));
+        assertNull(parser.parseFunctionBody(null));
+    }
+}
@@ -0,0 +1,94 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ *  The importance function of the splitting simulation and the thresholds suggested
+ * by the pilot runs, the levels of the race are reached with known probabilities.
+ *
+ */
+public class ImportancePilotTest {
+
+    private static ImportanceFunction busyQueues(int count) {
+        var importance = new ImportanceFunction("busy queues");
+        var places = new ArrayList<String>();
+        var weights = new ArrayList<Integer>();
+        for(int i = 0; i < count; i++) {
+            places.add(TestNets.QUEUE_PLACE + (i == 0 ? "" : String.valueOf(i + 1)));
+            weights.add(1);
+        }
+        importance.addTerm("queues", places, weights);
+        return importance;
+    }
+
+    @Test
+    public void importanceIsMaximumOfTerms() {
+        var importance = new ImportanceFunction("test");
+        assertTrue(importance.isEmpty());
+        importance.addTerm("first", List.of(TestNets.QUEUE_PLACE, TestNets.QUEUE_PLACE + "2"), List.of(1, 2));
+        importance.addTerm("second", List.of(TestNets.FREE_PLACE), List.of(4));
+        assertFalse(importance.isEmpty());
+        assertEquals(4, importance.getMaximalLevel());
+
+        var net = TestNets.compile(TestNets.twoQueues(1, 1));
+        var function = importance.bind(net);
+        var marking = new int[net.getPlaceCount()];
+        marking[net.getPlaceIndex(TestNets.QUEUE_PLACE)] = 1;
+        marking[net.getPlaceIndex(TestNets.QUEUE_PLACE + "2")] = 1;
+        assertEquals(3.0, function.evaluate(marking), 0.0);
+        marking[net.getPlaceIndex(TestNets.FREE_PLACE)] = 1;
+        assertEquals(4.0, function.evaluate(marking), 0.0);
+
+        var cspl = importance.toCspl();
+        assertTrue(cspl.contains("2 * mark(\"Pqueue2\")"));
+        assertTrue(cspl.endsWith("return level;"));
+
+        importance.addTerm("missing", List.of("Pmissing"), List.of(1));
+        assertNull(importance.bind(net));
+        assertFalse(new ImportancePilot(net, importance).run());
+    }
+
+    @Test
+    public void thresholdsFollowStageProbability() {
+        var net = TestNets.compile(TestNets.race(1.0, 3.0));
+        var importance = new ImportanceFunction("first");
+        importance.addTerm("first", List.of("Pfirst"), List.of(1));
+        var runs = 20000;
+
+        var pilot = new ImportancePilot(net, importance);
+        pilot.setRuns(runs);
+        assertNull(pilot.getThresholds());
+        assertTrue(pilot.run());
+        assertEquals(1.0, pilot.getReachedProbability(0), 0.0);
+        assertEquals(0.25, pilot.getReachedProbability(1), 5 * Math.sqrt(0.25 * 0.75 / runs));
+        // The level is reached too often to be a separate stage with the default e^-2
+        assertTrue(pilot.getThresholds().isEmpty());
+
+        pilot.setStageProbability(0.3);
+        assertTrue(pilot.run());
+        assertEquals(List.of(1), pilot.getThresholds());
+        assertEquals(List.of(4), pilot.getSplittingFactors());
+    }
+
+    @Test
+    public void unreachedLevelsAreSeparateStages() {
+        var net = TestNets.compile(TestNets.queues(4, 1));
+        var pilot = new ImportancePilot(net, busyQueues(4));
+        pilot.setRuns(100);
+        pilot.setLength(0.01);
+        assertTrue(pilot.run());
+
+        assertEquals(0.0, pilot.getReachedProbability(4), 0.0);
+        var thresholds = pilot.getThresholds();
+        assertEquals(4, (int) thresholds.get(thresholds.size() - 1));
+        var factors = pilot.getSplittingFactors();
+        assertEquals(thresholds.size(), factors.size());
+        assertEquals((int) Math.round(Math.exp(2.0)), (int) factors.get(factors.size() - 1));
+    }
+}
@@ -0,0 +1,140 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import cz.muni.fi.spnp.core.models.PetriNet;
+import cz.muni.fi.spnp.core.models.arcs.ArcDirection;
+import cz.muni.fi.spnp.core.models.arcs.StandardArc;
+import cz.muni.fi.spnp.core.models.places.StandardPlace;
+import cz.muni.fi.spnp.core.models.transitions.TimedTransition;
+import cz.muni.fi.spnp.core.transformators.spnp.distributions.ExponentialTransitionDistribution;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ *  The minimal P-invariants and T-invariants of small nets, the place bounds derived
+ * from them and the places which are not covered.
+ *
+ */
+public class InvariantAnalysisTest {
+
+    private static InvariantAnalysis analyze(CompiledNet net) {
+        var analysis = new InvariantAnalysis(net);
+        assertTrue(analysis.analyze());
+        return analysis;
+    }
+
+    /**
+     * Invariants as strings "weight*name + ..." in the alphabetical order.
+     */
+    private static List<String> describe(List<FarkasAlgorithm.Invariant> invariants, CompiledNet net, boolean places) {
+        var result = new ArrayList<String>();
+        for(var invariant : invariants) {
+            var terms = new ArrayList<String>();
+            for(int i = 0; i < invariant.getIndices().length; i++) {
+                var index = invariant.getIndices()[i];
+                var name = places ? net.getPlaceName(index) : net.getTransitionName(index);
+                terms.add(invariant.getWeights()[i] + "*" + name);
+            }
+            result.add(String.join(" + ", terms));
+        }
+        result.sort(null);
+        return result;
+    }
+
+    @Test
+    public void queueHasTwoPlaceInvariant() {
+        var net = TestNets.compile(TestNets.queue(5, 1.0, 2.0));
+        var analysis = analyze(net);
+
+        assertEquals(List.of("1*Pfree + 1*Pqueue"), describe(analysis.getPlaceInvariants(), net, true));
+        assertEquals(List.of("1*Tarrival + 1*Tservice"), describe(analysis.getTransitionInvariants(), net, false));
+        assertEquals(5, analysis.getPlaceBound(net.getPlaceIndex(TestNets.FREE_PLACE)));
+        assertEquals(5, analysis.getPlaceBound(net.getPlaceIndex(TestNets.QUEUE_PLACE)));
+        assertTrue(analysis.getUncoveredPlaces().isEmpty());
+        assertTrue(analysis.getUncoveredTransitions().isEmpty());
+        assertArrayEquals(new int[] {5, 5}, analysis.getEncodingBounds(new int[] {5, 1}));
+        assertEquals(1, analysis.getConservativeComponents().size());
+    }
+
+    @Test
+    public void minimalTransitionInvariantsOfFlushedQueue() {
+        var net = TestNets.compile(TestNets.flushedQueue(3, 1.0, 2.0));
+        var analysis = analyze(net);
+
+        assertEquals(List.of("1*Pfree + 1*Pqueue"), describe(analysis.getPlaceInvariants(), net, true));
+        assertEquals(List.of("1*Tarrival + 1*Tservice", "3*Tarrival + 1*Tflush"),
+                     describe(analysis.getTransitionInvariants(), net, false));
+    }
+
+    @Test
+    public void weightedInvariantBoundsPlaces() {
+        // Pa --2--> Tjoin --> Pb --> Tsplit --2--> Pa, conserved: Pa + 2 * Pb = 5
+        var petriNet = new PetriNet();
+        var a = new StandardPlace(1, "Pa", 5);
+        var b = new StandardPlace(2, "Pb");
+        var join = new TimedTransition(1, "Tjoin", new ExponentialTransitionDistribution(1.0));
+        var split = new TimedTransition(2, "Tsplit", new ExponentialTransitionDistribution(1.0));
+        List.of(a, b).forEach(petriNet::addPlace);
+        List.of(join, split).forEach(petriNet::addTransition);
+        petriNet.addArc(new StandardArc(1, ArcDirection.Input, a, join, 2));
+        petriNet.addArc(new StandardArc(2, ArcDirection.Output, b, join));
+        petriNet.addArc(new StandardArc(3, ArcDirection.Input, b, split));
+        petriNet.addArc(new StandardArc(4, ArcDirection.Output, a, split, 2));
+        var net = TestNets.compile(petriNet);
+        var analysis = analyze(net);
+
+        assertEquals(List.of("1*Pa + 2*Pb"), describe(analysis.getPlaceInvariants(), net, true));
+        assertEquals(5, analysis.getPlaceBound(net.getPlaceIndex("Pa")));
+        assertEquals(2, analysis.getPlaceBound(net.getPlaceIndex("Pb")));
+        // Markings (5, 0), (3, 1) and (1, 2)
+        assertEquals(3, new ReachabilityGraphGenerator(net).generate().getStateCount());
+    }
+
+    @Test
+    public void uncoveredElements() {
+        var race = TestNets.compile(TestNets.race(1.0, 3.0));
+        var raceAnalysis = analyze(race);
+        assertEquals(List.of("1*Pstart + 1*Pfirst + 1*Psecond"), describe(raceAnalysis.getPlaceInvariants(), race, true));
+        assertTrue(raceAnalysis.getTransitionInvariants().isEmpty());
+        assertEquals(2, raceAnalysis.getUncoveredTransitions().size());
+
+        // A source transition makes its output place unbounded
+        var petriNet = TestNets.queue(2, 1.0, 2.0);
+        var extra = new StandardPlace(10, "Pextra");
+        var source = new TimedTransition(10, "Tsource", new ExponentialTransitionDistribution(1.0));
+        petriNet.addPlace(extra);
+        petriNet.addTransition(source);
+        petriNet.addArc(new StandardArc(10, ArcDirection.Output, extra, source));
+        var net = TestNets.compile(petriNet);
+        var analysis = analyze(net);
+        var extraIndex = net.getPlaceIndex("Pextra");
+        assertEquals(List.of(extraIndex), analysis.getUncoveredPlaces());
+        assertEquals(-1, analysis.getPlaceBound(extraIndex));
+        assertEquals(7, analysis.getEncodingBounds(new int[] {2, 1, 7})[extraIndex]);
+    }
+
+    @Test
+    public void rowLimitAbortsComputation() {
+        var net = TestNets.compile(TestNets.queues(6, 1));
+        var matrix = IncidenceMatrix.fromNet(net);
+        assertEquals(12, matrix.getRows());
+        assertEquals(12, matrix.getColumns());
+
+        var farkas = new FarkasAlgorithm(matrix);
+        farkas.setRowLimit(2);
+        assertNull(farkas.compute());
+        assertNotNull(farkas.getError());
+
+        var analysis = new InvariantAnalysis(net);
+        analysis.setRowLimit(2);
+        assertFalse(analysis.analyze());
+        assertEquals(-1, analysis.getPlaceBound(0));
+        assertEquals(6, analyze(net).getPlaceInvariants().size());
+    }
+}
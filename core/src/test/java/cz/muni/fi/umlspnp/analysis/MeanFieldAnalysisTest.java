@@ -0,0 +1,138 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import cz.muni.fi.spnp.core.models.PetriNet;
+import cz.muni.fi.spnp.core.models.arcs.ArcDirection;
+import cz.muni.fi.spnp.core.models.arcs.StandardArc;
+import cz.muni.fi.spnp.core.models.functions.FunctionType;
+import cz.muni.fi.spnp.core.models.places.StandardPlace;
+import cz.muni.fi.spnp.core.models.transitions.TimedTransition;
+import cz.muni.fi.spnp.core.transformators.spnp.code.FunctionSPNP;
+import cz.muni.fi.spnp.core.transformators.spnp.distributions.ExponentialTransitionDistribution;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ *  Repairable nodes with a constant failure and repair rate, the fractions of the DOWN
+ * nodes follow the transient solution of the two-state chain. The scenario completes
+ * by a transition guarded by the first node and fails by a competing transition,
+ * with the node states frozen the completion probability is 2a / (2a + 1) for the availability a.
+ *
+ */
+public class MeanFieldAnalysisTest {
+    private static final int NODES = 3;
+    private static final double FAILURE_RATE = 1.0;
+    private static final double REPAIR_RATE = 4.0;
+
+    private final PetriNet petriNet = new PetriNet();
+    private final List<StandardPlace> upPlaces = new ArrayList<>();
+    private final List<StandardPlace> downPlaces = new ArrayList<>();
+
+    public MeanFieldAnalysisTest() {
+        for(int i = 1; i <= NODES; i++) {
+            var up = new StandardPlace(2 * i, "Up" + i, 1);
+            var down = new StandardPlace(2 * i + 1, "Down" + i);
+            var fail = new TimedTransition(2 * i, "Tfail" + i, new ExponentialTransitionDistribution(FAILURE_RATE));
+            var repair = new TimedTransition(2 * i + 1, "Trepair" + i, new ExponentialTransitionDistribution(REPAIR_RATE));
+            List.of(up, down).forEach(petriNet::addPlace);
+            List.of(fail, repair).forEach(petriNet::addTransition);
+            petriNet.addArc(new StandardArc(4 * i, ArcDirection.Input, up, fail));
+            petriNet.addArc(new StandardArc(4 * i + 1, ArcDirection.Output, down, fail));
+            petriNet.addArc(new StandardArc(4 * i + 2, ArcDirection.Input, down, repair));
+            petriNet.addArc(new StandardArc(4 * i + 3, ArcDirection.Output, up, repair));
+            upPlaces.add(up);
+            downPlaces.add(down);
+        }
+
+        var job = new StandardPlace(100, "Pjob", 1);
+        var done = new StandardPlace(101, "Pdone");
+        var failed = new StandardPlace(102, "Pfailed");
+        List.of(job, done, failed).forEach(petriNet::addPlace);
+        var guard = new FunctionSPNP<>("guard_done", FunctionType.Guard, "return mark(\"Up1\");", Integer.class);
+        var complete = new TimedTransition(100, "Tdone", 0, guard, new ExponentialTransitionDistribution(2.0));
+        var abort = new TimedTransition(101, "Tabort", new ExponentialTransitionDistribution(1.0));
+        List.of(complete, abort).forEach(petriNet::addTransition);
+        petriNet.addArc(new StandardArc(100, ArcDirection.Input, job, complete));
+        petriNet.addArc(new StandardArc(101, ArcDirection.Output, done, complete));
+        petriNet.addArc(new StandardArc(102, ArcDirection.Input, job, abort));
+        petriNet.addArc(new StandardArc(103, ArcDirection.Output, failed, abort));
+        petriNet.addFunction(new FunctionSPNP<>("halting", FunctionType.Halting, "return !mark(\"Pdone\");", Integer.class));
+    }
+
+    private MeanFieldAnalysis createAnalysis(CompiledNet net) {
+        var groups = new ArrayList<int[]>();
+        var names = new ArrayList<String>();
+        var down = new int[NODES];
+        for(int i = 0; i < NODES; i++) {
+            groups.add(new int[] {net.getPlaceIndex(upPlaces.get(i).getName()), net.getPlaceIndex(downPlaces.get(i).getName())});
+            names.add("Node" + (i + 1));
+            down[i] = net.getPlaceIndex(downPlaces.get(i).getName());
+        }
+        var analysis = new MeanFieldAnalysis(net, groups, names, down);
+        analysis.setRelativeTolerance(1e-9);
+        analysis.setSteadyStateTolerance(1e-10);
+        return analysis;
+    }
+
+    private static double downFraction(double time) {
+        var rate = FAILURE_RATE + REPAIR_RATE;
+        return FAILURE_RATE / rate * (1.0 - Math.exp(-rate * time));
+    }
+
+    private static void checkScenario(MeanFieldResult.Snapshot snapshot, double availability) {
+        assertEquals(2.0 * availability / (2.0 * availability + 1.0), snapshot.getCompletionProbability(), 1e-6);
+        assertEquals(1.0 / (2.0 * availability + 1.0), snapshot.getFailureProbability(), 1e-6);
+        assertEquals(1.0 / (2.0 * availability + 1.0), snapshot.getMeanCompletionTime(), 1e-6);
+    }
+
+    @Test
+    public void identicalNodesFormOneClass() {
+        var analysis = createAnalysis(TestNets.compile(petriNet));
+        assertTrue(analysis.prepare());
+        assertEquals(1, analysis.getClassCount());
+        assertEquals(2, analysis.getDimension());
+
+        var result = analysis.solve(0.5, 0.0);
+        assertNotNull(result);
+        var snapshots = result.getSnapshots();
+        assertEquals(3, snapshots.size());
+        assertEquals(0.0, snapshots.get(0).getTime(), 0.0);
+        assertEquals(0.5, snapshots.get(1).getTime(), 0.0);
+        assertTrue(Double.isInfinite(snapshots.get(2).getTime()));
+        assertEquals(NODES, snapshots.get(0).getClasses().get(0).getMembers().size());
+    }
+
+    @Test
+    public void fractionsFollowTwoStateChain() {
+        var analysis = createAnalysis(TestNets.compile(petriNet));
+        assertTrue(analysis.prepare());
+        var snapshots = analysis.solve(0.0, 0.2, 0.5).getSnapshots();
+
+        for(var snapshot : snapshots) {
+            var nodeClass = snapshot.getClasses().get(0);
+            var expectedDown = Double.isInfinite(snapshot.getTime())
+                               ? FAILURE_RATE / (FAILURE_RATE + REPAIR_RATE)
+                               : downFraction(snapshot.getTime());
+            assertEquals(expectedDown, nodeClass.getFraction(1), 1e-6);
+            assertEquals(1.0, nodeClass.getFraction(0) + nodeClass.getFraction(1), 1e-9);
+            assertEquals(1.0 - expectedDown, nodeClass.getAvailability(), 1e-6);
+            checkScenario(snapshot, 1.0 - expectedDown);
+        }
+    }
+
+    @Test
+    public void synchronizedNodesAreRefused() {
+        var repairBoth = new TimedTransition(200, "TrepairBoth", new ExponentialTransitionDistribution(1.0));
+        petriNet.addTransition(repairBoth);
+        petriNet.addArc(new StandardArc(200, ArcDirection.Input, downPlaces.get(0), repairBoth));
+        petriNet.addArc(new StandardArc(201, ArcDirection.Input, downPlaces.get(1), repairBoth));
+        petriNet.addArc(new StandardArc(202, ArcDirection.Output, upPlaces.get(0), repairBoth));
+        petriNet.addArc(new StandardArc(203, ArcDirection.Output, upPlaces.get(1), repairBoth));
+
+        assertFalse(createAnalysis(TestNets.compile(petriNet)).prepare());
+    }
+}
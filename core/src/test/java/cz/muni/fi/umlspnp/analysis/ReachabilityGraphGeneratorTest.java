@@ -0,0 +1,111 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import java.util.HashSet;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ *  The state counts of the generated graphs, the widening of the place bounds
+ * which were estimated too small and the packed storage of the markings.
+ *
+ */
+public class ReachabilityGraphGeneratorTest {
+
+    private static ReachabilityGraph generate(ReachabilityGraphGenerator generator) {
+        var graph = generator.generate();
+        assertNotNull(graph);
+        return graph;
+    }
+
+    @Test
+    public void queueHasCapacityPlusOneStates() {
+        var net = TestNets.compile(TestNets.queue(5, 1.0, 2.0));
+        var graph = generate(new ReachabilityGraphGenerator(net));
+
+        assertTrue(graph.isComplete());
+        assertEquals(6, graph.getStateCount());
+        assertEquals(10, graph.getEdgeCount());
+        assertEquals(0, graph.getDeadStates().length);
+        var initial = graph.getInitialStates();
+        assertEquals(1, initial.length);
+        assertArrayEquals(net.getInitialMarking(), graph.getMarking(initial[0]));
+    }
+
+    @Test
+    public void boundsAreWidenedOnOverflow() {
+        var net = TestNets.compile(TestNets.queue(20, 1.0, 2.0));
+        var queue = net.getPlaceIndex(TestNets.QUEUE_PLACE);
+        assertEquals(1, ReachabilityGraphGenerator.estimateBounds(net)[queue]);
+
+        var graph = generate(new ReachabilityGraphGenerator(net));
+        assertEquals(21, graph.getStateCount());
+        assertTrue(graph.getEncoder().getCapacity(queue) >= 20);
+        var full = new int[2];
+        full[queue] = 20;
+        assertTrue(graph.findState(full) >= 0);
+    }
+
+    @Test
+    public void parallelGenerationFindsProductStateSpace() {
+        var net = TestNets.compile(TestNets.twoQueues(30, 40));
+        var generator = new ReachabilityGraphGenerator(net);
+        generator.setParallelism(4);
+        var graph = generate(generator);
+
+        assertEquals(31 * 41, graph.getStateCount());
+        var markings = new HashSet<String>();
+        for(int s = 0; s < graph.getStateCount(); s++)
+            assertTrue(markings.add(net.markingToString(graph.getMarking(s))));
+
+        generator.setOffHeap(true);
+        assertEquals(31 * 41, generate(generator).getStateCount());
+    }
+
+    @Test
+    public void stateLimitStopsGeneration() {
+        var net = TestNets.compile(TestNets.twoQueues(30, 40));
+        var generator = new ReachabilityGraphGenerator(net);
+        generator.setStateLimit(100);
+        var graph = generate(generator);
+
+        assertFalse(graph.isComplete());
+        assertTrue(graph.getStateCount() < 31 * 41);
+    }
+
+    @Test
+    public void encoderReportsOverflowingPlace() {
+        var encoder = new MarkingEncoder(new int[] {1, 5, 1000});
+        assertEquals(1, encoder.getCapacity(0));
+        assertEquals(7, encoder.getCapacity(1));
+        assertEquals(1023, encoder.getCapacity(2));
+
+        var packed = new long[encoder.getWordCount()];
+        assertEquals(-1, encoder.encode(new int[] {1, 7, 1000}, packed, 0));
+        var marking = new int[3];
+        encoder.decode(packed, 0, marking);
+        assertArrayEquals(new int[] {1, 7, 1000}, marking);
+        assertEquals(1, encoder.encode(new int[] {0, 8, 0}, packed, 0));
+        assertEquals(0, encoder.encode(new int[] {-1, 0, 0}, packed, 0));
+    }
+
+    @Test
+    public void stateSetReturnsExistingIdentifiers() {
+        for(var offHeap : new boolean[] {false, true}) {
+            var states = new PackedStateSet(2, 1, offHeap);
+            for(long i = 0; i < 5000; i++)
+                assertEquals((int) i, states.add(new long[] {i, -i}, 0));
+            assertEquals(5000, states.size());
+            assertEquals(-(42 + 1), states.add(new long[] {42, -42}, 0));
+            assertEquals(4999, states.find(new long[] {0, 0, 4999, -4999}, 2));
+            assertEquals(-1, states.find(new long[] {1, 1}, 0));
+
+            var key = new long[3];
+            states.get(1234, key, 1);
+            assertArrayEquals(new long[] {0, 1234, -1234}, key);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ *  The estimates of the simulator compared with the closed forms, the tolerances
+ * are a few half-widths of the confidence intervals. The results must not depend
+ * on the number of threads.
+ *
+ */
+public class SimulatorTest {
+    private static final int CAPACITY = 5;
+    private static final double LAMBDA = 1.0;
+    private static final double MU = 2.0;
+
+    private static SimulationOptions createOptions(int runs, int parallelism) {
+        var options = new SimulationOptions();
+        options.setRuns(runs);
+        options.setMinimalRuns(runs);
+        options.setLength(200.0);
+        options.setParallelism(parallelism);
+        return options;
+    }
+
+    private static SimulationResult simulate(CompiledNet net, SimulationOptions options) {
+        var result = new Simulator(net, options).run();
+        assertNotNull(result);
+        return result;
+    }
+
+    private static int findTransition(CompiledNet net, String transitionName) {
+        for(int t = 0; t < net.getTransitionCount(); t++) {
+            if(net.getTransitionName(t).equals(transitionName))
+                return t;
+        }
+        return -1;
+    }
+
+    @Test
+    public void queueMeasuresMatchSteadyState() {
+        var net = TestNets.compile(TestNets.queue(CAPACITY, LAMBDA, MU));
+        var result = simulate(net, createOptions(2000, 4));
+        var queue = net.getPlaceIndex(TestNets.QUEUE_PLACE);
+        var service = findTransition(net, TestNets.SERVICE_TRANSITION);
+
+        var expectedTokens = 0.0;
+        for(int n = 0; n <= CAPACITY; n++)
+            expectedTokens += n * TestNets.queueProbability(n, CAPACITY, LAMBDA, MU);
+        var expectedThroughput = MU * (1.0 - TestNets.queueProbability(0, CAPACITY, LAMBDA, MU));
+        assertEquals(2000, result.getReplications());
+        // The runs start empty, the bias of the time averages is below 1 % over the length 200
+        assertEquals(expectedTokens, result.getAverageTokens(queue), 4 * result.getAverageTokensHalfWidth(queue) + 0.01);
+        assertEquals(expectedThroughput, result.getThroughput(service), 4 * result.getThroughputHalfWidth(service) + 0.01);
+        assertEquals(CAPACITY, result.getAverageTokens(queue) + result.getAverageTokens(net.getPlaceIndex(TestNets.FREE_PLACE)), 1e-9);
+        assertEquals(0.0, result.getAbsorptionProbability(), 0.0);
+    }
+
+    @Test
+    public void absorbedRunsOfRace() {
+        var net = TestNets.compile(TestNets.race(1.0, 3.0));
+        var result = simulate(net, createOptions(4000, 2));
+
+        assertEquals(1.0, result.getAbsorptionProbability(), 0.0);
+        var first = net.getPlaceIndex("Pfirst");
+        assertEquals(0.25, result.getFinalTokens(first), 4 * result.getFinalTokensHalfWidth(first));
+        var slow = findTransition(net, "Tslow");
+        // One firing per run of the length 200
+        assertEquals(0.25 / 200.0, result.getThroughput(slow), 4 * result.getThroughputHalfWidth(slow));
+    }
+
+    @Test
+    public void resultsDoNotDependOnThreads() {
+        var net = TestNets.compile(TestNets.twoQueues(3, 4));
+        var single = simulate(net, createOptions(500, 1));
+        var parallel = simulate(net, createOptions(500, 4));
+
+        assertArrayEquals(measures(net, single), measures(net, parallel), 0.0);
+    }
+
+    @Test
+    public void stopsWhenPrecise() {
+        var net = TestNets.compile(TestNets.queue(CAPACITY, LAMBDA, MU));
+        var options = createOptions(100000, 2);
+        options.setMinimalRuns(100);
+        options.setError(0.05);
+        var result = simulate(net, options);
+
+        assertTrue(result.isPrecise());
+        assertTrue(result.getReplications() < 100000);
+        var queue = net.getPlaceIndex(TestNets.QUEUE_PLACE);
+        assertTrue(result.getAverageTokensHalfWidth(queue) <= 0.05 * result.getAverageTokens(queue));
+
+        options.setRuns(50);
+        assertFalse(simulate(net, options).isPrecise());
+    }
+
+    private static double[] measures(CompiledNet net, SimulationResult result) {
+        var places = net.getPlaceCount();
+        var values = new double[2 * places + net.getTransitionCount()];
+        for(int p = 0; p < places; p++) {
+            values[p] = result.getAverageTokens(p);
+            values[places + p] = result.getFinalTokens(p);
+        }
+        for(int t = 0; t < net.getTransitionCount(); t++)
+            values[2 * places + t] = result.getThroughput(t);
+        return values;
+    }
+}
@@ -0,0 +1,84 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ *  The set operations of the decision diagrams and the state counts of the saturation,
+ * which must agree with the explicit generation where it is feasible.
+ *
+ */
+public class SymbolicStateSpaceTest {
+
+    private static List<int[]> queueGroups(CompiledNet net, int count) {
+        var groups = new ArrayList<int[]>();
+        for(int i = 0; i < count; i++) {
+            var suffix = i == 0 ? "" : String.valueOf(i + 1);
+            groups.add(new int[] {net.getPlaceIndex(TestNets.FREE_PLACE + suffix),
+                                  net.getPlaceIndex(TestNets.QUEUE_PLACE + suffix)});
+        }
+        return groups;
+    }
+
+    @Test
+    public void forestOperationsCountPaths() {
+        var forest = new MddForest(10, 1000);
+        var first = forest.makeNode(1, new int[] {MddForest.TERMINAL, MddForest.TERMINAL, MddForest.EMPTY});
+        var second = forest.makeNode(1, new int[] {MddForest.EMPTY, MddForest.TERMINAL, MddForest.TERMINAL});
+        assertSame(first, forest.makeNode(1, new int[] {MddForest.TERMINAL, MddForest.TERMINAL}));
+        assertEquals(MddForest.EMPTY, forest.makeNode(1, new int[] {MddForest.EMPTY}));
+
+        assertEquals(BigInteger.valueOf(3), forest.count(forest.union(first, second)));
+        assertEquals(BigInteger.ONE, forest.count(forest.intersect(first, second)));
+        assertEquals(BigInteger.ONE, forest.count(forest.difference(first, second)));
+
+        var top = forest.makeNode(2, new int[] {first, second, first});
+        assertEquals(BigInteger.valueOf(6), forest.count(top));
+        forest.collectGarbage(top);
+        assertEquals(5, forest.getNodeCount());
+        assertEquals(BigInteger.valueOf(6), forest.count(top));
+    }
+
+    @Test
+    public void saturationAgreesWithExplicitGeneration() {
+        var net = TestNets.compile(TestNets.twoQueues(30, 40));
+        var stateSpace = new SymbolicStateSpace(net, queueGroups(net, 2));
+        stateSpace.generate();
+
+        assertEquals(2, stateSpace.getLevelCount());
+        assertEquals(31, stateSpace.getLocalStateCount(1));
+        var explicit = new ReachabilityGraphGenerator(net).generate();
+        assertEquals(BigInteger.valueOf(explicit.getStateCount()), stateSpace.getStateCount());
+        assertEquals(BigInteger.valueOf(41), stateSpace.countStates("mark(\"Pqueue\") == 3"));
+        assertTrue(stateSpace.isReachable("mark(\"Pqueue\") == 30 && mark(\"Pqueue2\") == 40"));
+        assertFalse(stateSpace.isReachable("mark(\"Pqueue\") + mark(\"Pfree\") != 30"));
+        assertNull(stateSpace.countStates("mark(\"Pmissing\")"));
+    }
+
+    @Test
+    public void stateSpaceBeyondExplicitGeneration() {
+        var net = TestNets.compile(TestNets.queues(20, 9));
+        var stateSpace = new SymbolicStateSpace(net, queueGroups(net, 20));
+        stateSpace.generate();
+
+        assertEquals(BigInteger.TEN.pow(20), stateSpace.getStateCount());
+        assertTrue(stateSpace.getForest().getNodeCount() < 1000);
+    }
+
+    @Test
+    public void vanishingMarkingsAreNotTangible() {
+        var net = TestNets.compile(TestNets.flushedQueue(2, 1.0, 2.0));
+        var stateSpace = new SymbolicStateSpace(net, queueGroups(net, 1));
+        stateSpace.generate();
+        assertEquals(BigInteger.valueOf(3), stateSpace.getStateCount());
+        assertEquals(BigInteger.valueOf(2), stateSpace.getTangibleStateCount());
+        assertEquals(2, new ReachabilityGraphGenerator(net).generate().getStateCount());
+    }
+}
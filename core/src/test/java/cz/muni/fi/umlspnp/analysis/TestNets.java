@@ -0,0 +1,174 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import cz.muni.fi.spnp.core.models.PetriNet;
+import cz.muni.fi.spnp.core.models.arcs.ArcDirection;
+import cz.muni.fi.spnp.core.models.arcs.StandardArc;
+import cz.muni.fi.spnp.core.models.places.StandardPlace;
+import cz.muni.fi.spnp.core.models.transitions.ImmediateTransition;
+import cz.muni.fi.spnp.core.models.transitions.TimedTransition;
+import cz.muni.fi.spnp.core.models.transitions.probabilities.ConstantTransitionProbability;
+import cz.muni.fi.spnp.core.transformators.spnp.distributions.ExponentialTransitionDistribution;
+import java.util.List;
+
+/**
+ *  Small nets whose state spaces and measures can be checked by hand.
+ *
+ */
+final class TestNets {
+    static final String FREE_PLACE = "Pfree";
+    static final String QUEUE_PLACE = "Pqueue";
+    static final String ARRIVAL_TRANSITION = "Tarrival";
+    static final String SERVICE_TRANSITION = "Tservice";
+    static final String FLUSH_TRANSITION = "Tflush";
+
+    private TestNets() {
+    }
+
+    /**
+     * An M/M/1/K queue: the free slots and the waiting customers are two places
+     * whose token sum is always K, the queue has K + 1 states.
+     *
+     * @param capacity Capacity K of the queue.
+     * @param lambda Arrival rate.
+     * @param mu Service rate.
+     * @return The net of the queue.
+     */
+    static PetriNet queue(int capacity, double lambda, double mu) {
+        return queue(capacity,
+                     new TimedTransition(1, ARRIVAL_TRANSITION, new ExponentialTransitionDistribution(lambda)),
+                     new TimedTransition(2, SERVICE_TRANSITION, new ExponentialTransitionDistribution(mu)));
+    }
+
+    /**
+     * An M/M/1/K queue with the given arrival and service transitions (e.g. with guards or rate functions).
+     *
+     * @param capacity Capacity K of the queue.
+     * @param arrival Arrival transition.
+     * @param service Service transition.
+     * @return The net of the queue.
+     */
+    static PetriNet queue(int capacity, TimedTransition arrival, TimedTransition service) {
+        var petriNet = new PetriNet();
+        addQueue(petriNet, 0, "", capacity, arrival, service);
+        return petriNet;
+    }
+
+    /**
+     * An M/M/1/K queue which is emptied by the immediate transition Tflush as soon as it is full,
+     * the full marking is vanishing and the queue has K tangible states.
+     *
+     * @param capacity Capacity K of the queue.
+     * @param lambda Arrival rate.
+     * @param mu Service rate.
+     * @return The net of the queue.
+     */
+    static PetriNet flushedQueue(int capacity, double lambda, double mu) {
+        var petriNet = new PetriNet();
+        var places = addQueue(petriNet, 0, "", capacity,
+                              new TimedTransition(1, ARRIVAL_TRANSITION, new ExponentialTransitionDistribution(lambda)),
+                              new TimedTransition(2, SERVICE_TRANSITION, new ExponentialTransitionDistribution(mu)));
+        var flush = new ImmediateTransition(3, FLUSH_TRANSITION, 1, null, new ConstantTransitionProbability(1.0));
+        petriNet.addTransition(flush);
+        petriNet.addArc(new StandardArc(5, ArcDirection.Input, places[1], flush, capacity));
+        petriNet.addArc(new StandardArc(6, ArcDirection.Output, places[0], flush, capacity));
+        return petriNet;
+    }
+
+    /**
+     * Two independent M/M/1/K queues, the state space is the product of their state spaces.
+     *
+     * @param firstCapacity Capacity of the first queue.
+     * @param secondCapacity Capacity of the second queue.
+     * @return The net of both queues, the elements of the second queue have the suffix "2".
+     */
+    static PetriNet twoQueues(int firstCapacity, int secondCapacity) {
+        var petriNet = new PetriNet();
+        addQueue(petriNet, 0, "", firstCapacity,
+                 new TimedTransition(1, ARRIVAL_TRANSITION, new ExponentialTransitionDistribution(1.0)),
+                 new TimedTransition(2, SERVICE_TRANSITION, new ExponentialTransitionDistribution(2.0)));
+        addQueue(petriNet, 10, "2", secondCapacity,
+                 new TimedTransition(11, ARRIVAL_TRANSITION + "2", new ExponentialTransitionDistribution(1.0)),
+                 new TimedTransition(12, SERVICE_TRANSITION + "2", new ExponentialTransitionDistribution(3.0)));
+        return petriNet;
+    }
+
+    /**
+     * Independent M/M/1/K queues of the same capacity, there are (K + 1)^count states.
+     *
+     * @param count Number of the queues.
+     * @param capacity Capacity K of each queue.
+     * @return The net of the queues, the elements of the i-th queue (from 1) have the suffix i,
+     *         except for the first queue.
+     */
+    static PetriNet queues(int count, int capacity) {
+        var petriNet = new PetriNet();
+        for(int i = 0; i < count; i++) {
+            var suffix = i == 0 ? "" : String.valueOf(i + 1);
+            addQueue(petriNet, i * 10, suffix, capacity,
+                     new TimedTransition(i * 10 + 1, ARRIVAL_TRANSITION + suffix, new ExponentialTransitionDistribution(1.0)),
+                     new TimedTransition(i * 10 + 2, SERVICE_TRANSITION + suffix, new ExponentialTransitionDistribution(2.0)));
+        }
+        return petriNet;
+    }
+
+    /**
+     * A race of two transitions for the token of Pstart, the winner moves it to Pfirst or Psecond
+     * where it is absorbed. Pfirst is reached with the probability slowRate / (slowRate + fastRate)
+     * and the mean time to absorption is 1 / (slowRate + fastRate).
+     *
+     * @param slowRate Rate of the transition Tslow to Pfirst.
+     * @param fastRate Rate of the transition Tfast to Psecond.
+     * @return The net of the race.
+     */
+    static PetriNet race(double slowRate, double fastRate) {
+        var petriNet = new PetriNet();
+        var start = new StandardPlace(1, "Pstart", 1);
+        var first = new StandardPlace(2, "Pfirst");
+        var second = new StandardPlace(3, "Psecond");
+        List.of(start, first, second).forEach(petriNet::addPlace);
+        var slow = new TimedTransition(1, "Tslow", new ExponentialTransitionDistribution(slowRate));
+        var fast = new TimedTransition(2, "Tfast", new ExponentialTransitionDistribution(fastRate));
+        List.of(slow, fast).forEach(petriNet::addTransition);
+
+        petriNet.addArc(new StandardArc(1, ArcDirection.Input, start, slow));
+        petriNet.addArc(new StandardArc(2, ArcDirection.Output, first, slow));
+        petriNet.addArc(new StandardArc(3, ArcDirection.Input, start, fast));
+        petriNet.addArc(new StandardArc(4, ArcDirection.Output, second, fast));
+        return petriNet;
+    }
+
+    /**
+     * Expected steady state probability of n customers in an M/M/1/K queue.
+     *
+     * @param n Number of customers.
+     * @param capacity Capacity K of the queue.
+     * @param lambda Arrival rate.
+     * @param mu Service rate.
+     * @return Probability of the state n.
+     */
+    static double queueProbability(int n, int capacity, double lambda, double mu) {
+        var rho = lambda / mu;
+        return Math.pow(rho, n) * (1.0 - rho) / (1.0 - Math.pow(rho, capacity + 1));
+    }
+
+    static CompiledNet compile(PetriNet petriNet) {
+        var net = CompiledNet.compile(petriNet);
+        if(net == null)
+            throw new IllegalStateException("The test net could not be compiled.");
+        return net;
+    }
+
+    private static StandardPlace[] addQueue(PetriNet petriNet, int firstID, String suffix, int capacity,
+                                            TimedTransition arrival, TimedTransition service) {
+        var free = new StandardPlace(firstID + 1, FREE_PLACE + suffix, capacity);
+        var queue = new StandardPlace(firstID + 2, QUEUE_PLACE + suffix);
+        List.of(free, queue).forEach(petriNet::addPlace);
+        List.of(arrival, service).forEach(petriNet::addTransition);
+
+        petriNet.addArc(new StandardArc(firstID + 1, ArcDirection.Input, free, arrival));
+        petriNet.addArc(new StandardArc(firstID + 2, ArcDirection.Output, queue, arrival));
+        petriNet.addArc(new StandardArc(firstID + 3, ArcDirection.Input, queue, service));
+        petriNet.addArc(new StandardArc(firstID + 4, ArcDirection.Output, free, service));
+        return new StandardPlace[] {free, queue};
+    }
+}
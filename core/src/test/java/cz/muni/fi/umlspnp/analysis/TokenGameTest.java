@@ -0,0 +1,105 @@
+package cz.muni.fi.umlspnp.analysis;
+
+import java.util.SplittableRandom;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ *  Manual and random steps of the token game, the undo of the steps and the frequencies
+ * of the random choices.
+ *
+ */
+public class TokenGameTest {
+
+    private static int findTransition(CompiledNet net, String transitionName) {
+        for(int t = 0; t < net.getTransitionCount(); t++) {
+            if(net.getTransitionName(t).equals(transitionName))
+                return t;
+        }
+        return -1;
+    }
+
+    @Test
+    public void fireAndUndo() {
+        var net = TestNets.compile(TestNets.queue(2, 1.0, 2.0));
+        var game = new TokenGame(net);
+        var arrival = findTransition(net, TestNets.ARRIVAL_TRANSITION);
+        var service = findTransition(net, TestNets.SERVICE_TRANSITION);
+
+        assertFalse(game.fire(service));
+        assertTrue(game.fire(arrival));
+        assertTrue(game.fire(arrival));
+        assertArrayEquals(new int[] {0, 2}, game.getMarking());
+        assertArrayEquals(new int[] {service}, game.getEnabledTransitions());
+        assertFalse(game.fire(arrival));
+        assertEquals(2, game.getSteps());
+        assertEquals(0.0, game.getTime(), 0.0);
+
+        assertTrue(game.undo());
+        assertArrayEquals(new int[] {1, 1}, game.getMarking());
+        assertTrue(game.isEnabled(arrival) && game.isEnabled(service));
+        assertTrue(game.undo());
+        assertFalse(game.undo());
+        assertArrayEquals(net.getInitialMarking(), game.getMarking());
+        assertEquals(0, game.getSteps());
+    }
+
+    @Test
+    public void vanishingMarkingIsLeftImmediately() {
+        var net = TestNets.compile(TestNets.flushedQueue(2, 1.0, 2.0));
+        var game = new TokenGame(net);
+        var arrival = findTransition(net, TestNets.ARRIVAL_TRANSITION);
+        var flush = findTransition(net, TestNets.FLUSH_TRANSITION);
+
+        game.fire(arrival);
+        game.fire(arrival);
+        assertTrue(game.isVanishing());
+        assertArrayEquals(new int[] {flush}, game.getEnabledTransitions());
+        var time = game.getTime();
+        assertEquals(flush, game.randomStep(new SplittableRandom(1)));
+        assertEquals(time, game.getTime(), 0.0);
+        assertArrayEquals(new int[] {2, 0}, game.getMarking());
+    }
+
+    @Test
+    public void randomStepsFollowRates() {
+        var net = TestNets.compile(TestNets.race(1.0, 3.0));
+        var game = new TokenGame(net);
+        var slow = findTransition(net, "Tslow");
+        var random = new SplittableRandom(7);
+        var runs = 20000;
+
+        int slowWins = 0;
+        double time = 0.0;
+        for(int i = 0; i < runs; i++) {
+            game.reset();
+            assertEquals(1, game.run(random, 10, null));
+            assertTrue(game.isAbsorbing());
+            assertEquals(-1, game.randomStep(random));
+            if(game.getMarking()[net.getPlaceIndex("Pfirst")] == 1) {
+                slowWins++;
+                assertFalse(game.isEnabled(slow));
+            }
+            time += game.getTime();
+        }
+        // Five standard deviations of the estimates
+        assertEquals(0.25, (double) slowWins / runs, 5 * Math.sqrt(0.25 * 0.75 / runs));
+        assertEquals(0.25, time / runs, 5 * 0.25 / Math.sqrt(runs));
+    }
+
+    @Test
+    public void runStopsWhenConditionHolds() {
+        var net = TestNets.compile(TestNets.queue(5, 1.0, 2.0));
+        var game = new TokenGame(net);
+        var queue = net.getPlaceIndex(TestNets.QUEUE_PLACE);
+
+        var steps = game.run(new SplittableRandom(3), 100000, marking -> marking[queue] == 5);
+        assertEquals(5, game.getMarking()[queue]);
+        assertEquals(steps, game.getSteps());
+        assertTrue(game.getTime() > 0.0);
+        assertEquals(10, game.run(new SplittableRandom(3), 10, null));
+    }
+}
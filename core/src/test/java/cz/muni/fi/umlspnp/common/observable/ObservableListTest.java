@@ -0,0 +1,138 @@
+package cz.muni.fi.umlspnp.common.observable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ *  The change events of the observable list: the indices and the removed elements
+ * of each change, the bulk operations reported as one change and the updates
+ * of the observed values of the elements.
+ *
+ */
+public class ObservableListTest {
+
+    private static List<ListChangeListener.Change<? extends String>> record(ObservableList<String> list) {
+        var changes = new ArrayList<ListChangeListener.Change<? extends String>>();
+        list.addListener(changes::add);
+        return changes;
+    }
+
+    @Test
+    public void addAndRemoveReportIndices() {
+        var list = new ObservableList<String>();
+        var changes = record(list);
+
+        list.add("a");
+        list.add("c");
+        list.add(1, "b");
+        list.remove("a");
+
+        assertEquals(4, changes.size());
+        var insert = changes.get(2);
+        assertTrue(insert.wasAdded());
+        assertFalse(insert.wasRemoved());
+        assertEquals(1, insert.getFrom());
+        assertEquals(2, insert.getTo());
+        var removal = changes.get(3);
+        assertFalse(removal.wasAdded());
+        assertTrue(removal.wasRemoved());
+        assertEquals(0, removal.getFrom());
+        assertEquals(List.of("a"), removal.getRemoved());
+        assertEquals(List.of("b", "c"), list);
+    }
+
+    @Test
+    public void setIsReportedAsReplacement() {
+        var list = new ObservableList<String>();
+        list.addAll(List.of("a", "b"));
+        var changes = record(list);
+
+        list.set(1, "x");
+
+        assertEquals(1, changes.size());
+        var change = changes.get(0);
+        assertTrue(change.wasReplaced());
+        assertEquals(List.of("b"), change.getRemoved());
+        assertEquals(List.of("x"), change.getAddedSubList());
+    }
+
+    @Test
+    public void bulkOperationsAreSingleChanges() {
+        var list = new ObservableList<String>();
+        var changes = record(list);
+
+        list.addAll(List.of("c", "a", "b"));
+        assertEquals(1, changes.size());
+        assertEquals(List.of("c", "a", "b"), changes.get(0).getAddedSubList());
+
+        list.sort(Comparator.naturalOrder());
+        assertEquals(2, changes.size());
+        assertTrue(changes.get(1).wasPermutated());
+        assertFalse(changes.get(1).wasAdded());
+        assertEquals(List.of("a", "b", "c"), list);
+
+        list.setAll(List.of("d"));
+        assertEquals(3, changes.size());
+        assertEquals(List.of("a", "b", "c"), changes.get(2).getRemoved());
+        assertEquals(List.of("d"), changes.get(2).getAddedSubList());
+
+        list.clear();
+        assertEquals(4, changes.size());
+        assertEquals(List.of("d"), changes.get(3).getRemoved());
+
+        list.addAll(List.of());
+        list.setAll(List.of());
+        assertEquals(4, changes.size());
+    }
+
+    @Test
+    public void removeIfReportsEachElement() {
+        var list = new ObservableList<String>();
+        list.addAll(List.of("a", "b", "a"));
+        var changes = record(list);
+
+        list.removeIf("a"::equals);
+
+        assertEquals(2, changes.size());
+        changes.forEach(change -> assertEquals(List.of("a"), change.getRemoved()));
+        assertEquals(List.of("b"), list);
+    }
+
+    @Test
+    public void changeOfObservedValueIsUpdate() {
+        var first = new StringProperty(null, "first", "a");
+        var second = new StringProperty(null, "second", "b");
+        var list = new ObservableList<StringProperty>((StringProperty element) -> new ObservableValue<?>[]{element});
+        list.addAll(List.of(first, second));
+        var updates = new ArrayList<Integer>();
+        list.addListener((ListChangeListener.Change<? extends StringProperty> change) -> {
+            if(change.wasUpdated())
+                updates.add(change.getFrom());
+        });
+
+        second.setValue("x");
+        list.remove(second);
+        second.setValue("y");
+        first.setValue("z");
+
+        assertEquals(List.of(1, 0), updates);
+    }
+
+    @Test
+    public void removedListenerIsNotNotified() {
+        var list = new ObservableList<String>();
+        var changes = new ArrayList<Object>();
+        ListChangeListener<Object> listener = change -> changes.addAll(change.getAddedSubList());
+        list.addListener(listener);
+        list.add("a");
+        list.removeListener(listener);
+        list.add("b");
+
+        assertEquals(List.of("a"), changes);
+    }
+}
@@ -0,0 +1,79 @@
+package cz.muni.fi.umlspnp.common.observable;
+
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ *  The change events of the observable map: added, replaced and removed values,
+ * the insertion order of the keys and the listeners with wider types.
+ *
+ */
+public class ObservableMapTest {
+
+    @Test
+    public void putAndRemoveAreReported() {
+        var map = new ObservableMap<Number, String>();
+        var changes = new ArrayList<MapChangeListener.Change<? extends Number, ? extends String>>();
+        map.addListener(changes::add);
+
+        map.put(1, "a");
+        map.put(1, "b");
+        map.remove(1);
+        map.remove(2);
+
+        assertEquals(3, changes.size());
+        var added = changes.get(0);
+        assertTrue(added.wasAdded());
+        assertFalse(added.wasRemoved());
+        assertEquals("a", added.getValueAdded());
+        assertSame(map, added.getMap());
+
+        var replaced = changes.get(1);
+        assertTrue(replaced.wasAdded());
+        assertTrue(replaced.wasRemoved());
+        assertEquals("b", replaced.getValueAdded());
+        assertEquals("a", replaced.getValueRemoved());
+
+        var removed = changes.get(2);
+        assertFalse(removed.wasAdded());
+        assertTrue(removed.wasRemoved());
+        assertEquals(1, removed.getKey());
+        assertEquals("b", removed.getValueRemoved());
+        assertNull(removed.getValueAdded());
+    }
+
+    @Test
+    public void clearRemovesInInsertionOrder() {
+        var map = new ObservableMap<Number, String>();
+        map.put(3, "c");
+        map.put(1, "a");
+        map.put(2, "b");
+        assertEquals(List.of(3, 1, 2), new ArrayList<>(map.keySet()));
+
+        var removedKeys = new ArrayList<Number>();
+        map.addListener((MapChangeListener.Change<? extends Number, ? extends String> change) -> removedKeys.add(change.getKey()));
+        map.clear();
+
+        assertEquals(List.of(3, 1, 2), removedKeys);
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void listenerOfSupertypes() {
+        var map = new ObservableMap<Integer, String>();
+        var values = new ArrayList<Object>();
+        MapChangeListener<Object, CharSequence> listener = change -> values.add(change.getValueAdded());
+        map.addListener(listener);
+        map.put(1, "a");
+        map.removeListener(listener);
+        map.put(2, "b");
+
+        assertEquals(List.of("a"), values);
+    }
+}
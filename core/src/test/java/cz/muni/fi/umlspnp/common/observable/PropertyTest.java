@@ -0,0 +1,109 @@
+package cz.muni.fi.umlspnp.common.observable;
+
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ *  The change notifications of the properties: only actual changes are reported,
+ * with the old and the new value, to every listener in the order of registration.
+ *
+ */
+public class PropertyTest {
+
+    @Test
+    public void changeIsReportedWithOldAndNewValue() {
+        var property = new StringProperty(this, "name", "a");
+        var changes = new ArrayList<String>();
+        property.addListener((observable, oldValue, newValue) -> {
+            assertSame(property, observable);
+            changes.add(oldValue + "->" + newValue);
+        });
+
+        property.setValue("b");
+        property.setValue("b");
+        property.setValue(null);
+
+        assertEquals(List.of("a->b", "b->null"), changes);
+        assertSame(this, property.getBean());
+        assertEquals("name", property.getName());
+    }
+
+    @Test
+    public void nullSetsDefaultOfPrimitiveProperty() {
+        var property = new IntegerProperty(null, null, 5);
+        var changes = new ArrayList<Integer>();
+        property.addListener((observable, oldValue, newValue) -> changes.add(newValue));
+
+        property.setValue(null);
+        property.set(0);
+
+        assertEquals(List.of(0), changes);
+        assertEquals("", property.getName());
+    }
+
+    @Test
+    public void listenersAreNotifiedInRegistrationOrder() {
+        var property = new IntegerProperty();
+        var calls = new ArrayList<String>();
+        ChangeListener<Number> first = (observable, oldValue, newValue) -> calls.add("first");
+        ChangeListener<Object> second = (observable, oldValue, newValue) -> calls.add("second");
+        ChangeListener<Integer> third = (observable, oldValue, newValue) -> calls.add("third");
+        property.addListener(first);
+        property.addListener(second);
+        property.addListener(third);
+
+        property.set(1);
+        assertEquals(List.of("first", "second", "third"), calls);
+
+        calls.clear();
+        property.removeListener(second);
+        property.set(2);
+        assertEquals(List.of("first", "third"), calls);
+
+        calls.clear();
+        property.removeListener(first);
+        property.removeListener(third);
+        property.set(3);
+        assertTrue(calls.isEmpty());
+    }
+
+    @Test
+    public void listenerCanBeRemovedWhileNotified() {
+        var property = new IntegerProperty();
+        var calls = new ArrayList<String>();
+        var removing = new ChangeListener<Integer>() {
+            @Override
+            public void changed(ObservableValue<? extends Integer> observable, Integer oldValue, Integer newValue) {
+                calls.add("removing");
+                property.removeListener(this);
+            }
+        };
+        property.addListener(removing);
+        property.addListener((observable, oldValue, newValue) -> calls.add("other"));
+
+        property.set(1);
+        property.set(2);
+
+        assertEquals(List.of("removing", "other", "other"), calls);
+    }
+
+    @Test
+    public void invalidatedIsCalledBeforeListeners() {
+        var calls = new ArrayList<String>();
+        var property = new DoubleProperty(null, "rate", 1.0) {
+            @Override
+            protected void invalidated() {
+                calls.add("invalidated " + get());
+            }
+        };
+        property.addListener((observable, oldValue, newValue) -> calls.add("changed " + newValue));
+
+        property.set(2.0);
+
+        assertEquals(List.of("invalidated 2.0", "changed 2.0"), calls);
+    }
+}
@@ -0,0 +1,87 @@
+package cz.muni.fi.umlspnp.transformations;
+
+import cz.muni.fi.spnp.core.models.PetriNet;
+import cz.muni.fi.spnp.core.models.arcs.ArcDirection;
+import cz.muni.fi.spnp.core.models.arcs.StandardArc;
+import cz.muni.fi.spnp.core.models.places.StandardPlace;
+import cz.muni.fi.spnp.core.models.transitions.ImmediateTransition;
+import cz.muni.fi.spnp.core.models.transitions.TimedTransition;
+import cz.muni.fi.spnp.core.models.transitions.probabilities.ConstantTransitionProbability;
+import cz.muni.fi.spnp.core.transformators.spnp.distributions.ExponentialTransitionDistribution;
+import cz.muni.fi.umlspnp.analysis.CompiledNet;
+import cz.muni.fi.umlspnp.analysis.SimulationOptions;
+import cz.muni.fi.umlspnp.analysis.Simulator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ *  The scenario success per regeneration cycle of a net whose success probability
+ * is known: a cycle starts the service, which either finishes (rate MU) and restarts
+ * the cycle, or fails (rate LAMBDA) into an absorbing place, so a cycle succeeds
+ * with the probability MU / (LAMBDA + MU).
+ *
+ */
+public class RegenerationCycleTest {
+    private static final double MU = 3.0;
+    private static final double LAMBDA = 1.0;
+
+    @Test
+    public void successProbabilityOfSimulatedCycles() {
+        var petriNet = new PetriNet();
+        var start = new StandardPlace(1, "Pstart", 1);
+        var busy = new StandardPlace(2, "Pbusy");
+        var end = new StandardPlace(3, "Pend");
+        var failed = new StandardPlace(4, "Pfailed");
+        List.of(start, busy, end, failed).forEach(petriNet::addPlace);
+
+        var startTransition = new ImmediateTransition(1, "Tstart", 1, null, new ConstantTransitionProbability(1.0));
+        var done = new TimedTransition(2, "Tdone", new ExponentialTransitionDistribution(MU));
+        var fail = new TimedTransition(3, "Tfail", new ExponentialTransitionDistribution(LAMBDA));
+        var restart = new ImmediateTransition(4, "Trestart", 1, null, new ConstantTransitionProbability(1.0));
+        List.of(startTransition, done, fail, restart).forEach(petriNet::addTransition);
+
+        petriNet.addArc(new StandardArc(1, ArcDirection.Input, start, startTransition));
+        petriNet.addArc(new StandardArc(2, ArcDirection.Output, busy, startTransition));
+        petriNet.addArc(new StandardArc(3, ArcDirection.Input, busy, done));
+        petriNet.addArc(new StandardArc(4, ArcDirection.Output, end, done));
+        petriNet.addArc(new StandardArc(5, ArcDirection.Input, busy, fail));
+        petriNet.addArc(new StandardArc(6, ArcDirection.Output, failed, fail));
+        petriNet.addArc(new StandardArc(7, ArcDirection.Input, end, restart));
+        petriNet.addArc(new StandardArc(8, ArcDirection.Output, start, restart));
+
+        var compiledNet = CompiledNet.compile(petriNet);
+        assertNotNull(compiledNet);
+        var options = new SimulationOptions();
+        options.setRuns(4000);
+        options.setMinimalRuns(4000);
+        options.setLength(1000.0);
+        options.setError(0.001);
+        var result = new Simulator(compiledNet, options).run();
+        assertNotNull(result);
+
+        var transitionIndices = new HashMap<String, Integer>();
+        for(int t = 0; t < compiledNet.getTransitionCount(); t++)
+            transitionIndices.put(compiledNet.getTransitionName(t), t);
+        var cycle = new RegenerationCycle(List.of("Tstart"), "Trestart");
+        var success = cycle.getSuccessProbability(name -> result.getThroughput(transitionIndices.get(name)));
+        assertEquals(MU / (LAMBDA + MU), success, 0.02);
+    }
+
+    @Test
+    public void cyclesOfAllStartTransitions() {
+        Map<String, Double> throughputs = Map.of("Tscen1", 0.3, "Tscen2", 0.1, "Trestart", 0.2);
+        var cycle = new RegenerationCycle(List.of("Tscen1", "Tscen2"), "Trestart");
+        assertEquals(0.5, cycle.getSuccessProbability(throughputs::get), 1e-12);
+    }
+
+    @Test
+    public void noStartedCycle() {
+        var cycle = new RegenerationCycle(List.of("Tstart"), "Trestart");
+        assertTrue(Double.isNaN(cycle.getSuccessProbability(name -> 0.0)));
+    }
+}
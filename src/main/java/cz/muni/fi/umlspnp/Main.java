@@ -1,7 +0,0 @@
-package cz.muni.fi.umlspnp;
-
-public class Main {
-    public static void main(String[] args) {
-        App.main(args);
-    }
-}
@@ -1,7 +1,7 @@
 package cz.muni.fi.umlspnp;
 
 import cz.muni.fi.umlspnp.controllers.MainController;
-import static cz.muni.fi.umlspnp.common.Utils.setStageIcon;
+import static cz.muni.fi.umlspnp.views.common.ViewUtils.setStageIcon;
 import cz.muni.fi.umlspnp.models.MainModel;
 import cz.muni.fi.umlspnp.views.MainView;
 
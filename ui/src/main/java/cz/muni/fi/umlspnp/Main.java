@@ -0,0 +1,20 @@
+package cz.muni.fi.umlspnp;
+
+import cz.muni.fi.umlspnp.benchmark.UiBenchmark;
+import cz.muni.fi.umlspnp.metrics.Metrics;
+import cz.muni.fi.umlspnp.service.HeadlessMain;
+import java.util.Arrays;
+
+public class Main {
+    public static void main(String[] args) {
+        args = Metrics.parseFlag(args);
+        if(args == null)
+            System.exit(2);
+        var exitCode = HeadlessMain.run(args);
+        if(exitCode != null)
+            System.exit(exitCode);
+        if(args.length > 0 && args[0].equals(UiBenchmark.COMMAND))
+            System.exit(UiBenchmark.run(Arrays.copyOfRange(args, 1, args.length)));
+        App.main(args);
+    }
+}
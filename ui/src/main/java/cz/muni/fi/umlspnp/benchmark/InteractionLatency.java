@@ -0,0 +1,115 @@
+package cz.muni.fi.umlspnp.benchmark;
+
+import com.google.gson.JsonObject;
+import java.util.Arrays;
+
+/**
+ *  Latencies of one scripted interaction on a model of one size and the times of the pulses
+ * which followed it. The latency is measured from the first event of the interaction to
+ * the end of the layout of the next pulse, the pulse time is the CSS and layout time
+ * of a pulse of the scene.
+ *
+ */
+public class InteractionLatency {
+    private final String interaction;
+    private final int modelSize;
+    private long[] latencies = new long[16];
+    private int latencyCount = 0;
+    private long[] pulses = new long[16];
+    private int pulseCount = 0;
+    private int timeouts = 0;
+
+    public InteractionLatency(String interaction, int modelSize) {
+        this.interaction = interaction;
+        this.modelSize = modelSize;
+    }
+
+    public String getInteraction() {
+        return interaction;
+    }
+
+    public int getModelSize() {
+        return modelSize;
+    }
+
+    public void addLatency(long nanos) {
+        if(latencyCount == latencies.length)
+            latencies = Arrays.copyOf(latencies, 2 * latencyCount);
+        latencies[latencyCount++] = nanos;
+    }
+
+    public void addPulse(long nanos) {
+        if(pulseCount == pulses.length)
+            pulses = Arrays.copyOf(pulses, 2 * pulseCount);
+        pulses[pulseCount++] = nanos;
+    }
+
+    public void addTimeout() {
+        timeouts++;
+    }
+
+    public int getSamples() {
+        return latencyCount;
+    }
+
+    public int getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     *
+     * @param percentile Percentile from 0 to 100.
+     * @return The latency percentile in milliseconds (nearest rank) or NaN if there is no sample.
+     */
+    public double getLatency(double percentile) {
+        return percentile(latencies, latencyCount, percentile);
+    }
+
+    /**
+     *
+     * @param percentile Percentile from 0 to 100.
+     * @return The pulse time percentile in milliseconds (nearest rank) or NaN if there is no pulse.
+     */
+    public double getPulse(double percentile) {
+        return percentile(pulses, pulseCount, percentile);
+    }
+
+    private static double percentile(long[] values, int count, double percentile) {
+        if(count == 0)
+            return Double.NaN;
+        var sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        var rank = (int) Math.ceil(percentile / 100.0 * count);
+        return sorted[Math.min(count, Math.max(1, rank)) - 1] / 1e6;
+    }
+
+    public JsonObject toJson() {
+        var result = new JsonObject();
+        result.addProperty("interaction", interaction);
+        result.addProperty("modelSize", modelSize);
+        result.addProperty("samples", latencyCount);
+        result.addProperty("timeouts", timeouts);
+        var latencyJson = new JsonObject();
+        latencyJson.addProperty("p50", getLatency(50));
+        latencyJson.addProperty("p90", getLatency(90));
+        latencyJson.addProperty("p99", getLatency(99));
+        latencyJson.addProperty("max", getLatency(100));
+        result.add("latencyMillis", latencyJson);
+        var pulseJson = new JsonObject();
+        pulseJson.addProperty("count", pulseCount);
+        pulseJson.addProperty("p50", getPulse(50));
+        pulseJson.addProperty("p99", getPulse(99));
+        pulseJson.addProperty("max", getPulse(100));
+        result.add("pulseMillis", pulseJson);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-18s %6d %8d %9.3f %9.3f %9.3f %9.3f %7d %9.3f %9.3f%s",
+                             interaction, modelSize, latencyCount,
+                             getLatency(50), getLatency(90), getLatency(99), getLatency(100),
+                             pulseCount, getPulse(50), getPulse(100),
+                             timeouts > 0 ? String.format("  (%d timeouts)", timeouts) : "");
+    }
+}
@@ -0,0 +1,415 @@
+package cz.muni.fi.umlspnp.benchmark;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import cz.muni.fi.umlspnp.SystemInfo;
+import cz.muni.fi.umlspnp.controllers.MainController;
+import cz.muni.fi.umlspnp.controllers.Serializer;
+import cz.muni.fi.umlspnp.models.MainModel;
+import cz.muni.fi.umlspnp.models.deploymentdiagram.DeploymentTarget;
+import cz.muni.fi.umlspnp.models.sequencediagram.Activation;
+import cz.muni.fi.umlspnp.models.sequencediagram.Message;
+import cz.muni.fi.umlspnp.views.MainView;
+import cz.muni.fi.umlspnp.views.common.BasicRectangle;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.IntConsumer;
+import javafx.application.Platform;
+import javafx.event.Event;
+import javafx.event.EventType;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.TabPane;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.stage.Stage;
+
+/**
+ *  Interaction latency benchmark of the editor: runs the real controllers and diagram views,
+ * replays scripted interactions on generated models of increasing size and reports
+ * the latency percentiles and pulse times of each interaction:
+ * --ui-benchmark [--sizes N,N...] [--iterations N] [--warmup N] [--output FILE.json]
+ * It is meant to run on the headless Monocle platform (mvn -P ui-benchmark, see the pom),
+ * on a desktop platform the stage is shown for the time of the benchmark.
+ *
+ */
+public class UiBenchmark {
+    public static final String COMMAND = "--ui-benchmark";
+
+    private static final long PULSE_TIMEOUT = 30;
+    private static final int LIFELINES = 10;
+    private static final double LIFELINE_SPACING = 170;
+    private static final int NODES_PER_ROW = 10;
+    private static final int DRAG_STEPS = 4;
+
+    private final int iterations;
+    private final int warmup;
+    private final List<InteractionLatency> results = new ArrayList<>();
+    private final PrintStream out;
+    private final PrintStream err;
+
+    private Stage stage = null;
+    private MainModel model = null;
+    private MainView view = null;
+    private MainController controller = null;
+    private final List<DeploymentTarget> targets = new ArrayList<>();
+    private final List<Activation> activations = new ArrayList<>();
+    private final Set<Message> generatedMessages = new HashSet<>();
+
+    /* Accessed only on the application thread */
+    private InteractionLatency current = null;
+    private CountDownLatch pendingPulse = null;
+    private long interactionStart = 0;
+    private long pulseStart = 0;
+
+    private UiBenchmark(int iterations, int warmup, PrintStream out, PrintStream err) {
+        this.iterations = iterations;
+        this.warmup = warmup;
+        this.out = out;
+        this.err = err;
+    }
+
+    /**
+     *
+     * @param args Arguments following the --ui-benchmark command.
+     * @return Exit code, 0 if all interactions were measured.
+     */
+    public static int run(String[] args) {
+        var sizes = List.of(10, 50, 100, 200);
+        var iterations = 50;
+        var warmup = 10;
+        Path output = null;
+        try {
+            for(int i = 0; i < args.length; i++) {
+                switch(args[i]) {
+                    case "--sizes":
+                        var parsedSizes = new ArrayList<Integer>();
+                        for(var size : args[++i].split(","))
+                            parsedSizes.add(Integer.parseInt(size.strip()));
+                        sizes = parsedSizes;
+                        break;
+                    case "--iterations":
+                        iterations = Integer.parseInt(args[++i]);
+                        break;
+                    case "--warmup":
+                        warmup = Integer.parseInt(args[++i]);
+                        break;
+                    case "--output":
+                        output = Path.of(args[++i]);
+                        break;
+                    default:
+                        printUsage();
+                        return 2;
+                }
+            }
+        }
+        catch(NumberFormatException | ArrayIndexOutOfBoundsException ex) {
+            printUsage();
+            return 2;
+        }
+        if(iterations < 1 || warmup < 0 || sizes.isEmpty() || sizes.stream().anyMatch(size -> size < 2)) {
+            printUsage();
+            return 2;
+        }
+
+        var started = new CountDownLatch(1);
+        try {
+            Platform.startup(started::countDown);
+            started.await();
+        }
+        catch(IllegalStateException | InterruptedException ex) {
+            System.err.println(String.format("UI benchmark error: unable to start the JavaFX platform: %s", ex.getMessage()));
+            return 1;
+        }
+        Platform.setImplicitExit(false);
+
+        // The main view redirects the standard streams into its console tabs
+        var benchmark = new UiBenchmark(iterations, warmup, System.out, System.err);
+        var result = 0;
+        try {
+            for(var size : sizes)
+                benchmark.runSize(size);
+        }
+        catch(Exception ex) {
+            benchmark.err.println(String.format("UI benchmark error: %s", ex));
+            result = 1;
+        }
+        finally {
+            System.setOut(benchmark.out);
+            System.setErr(benchmark.err);
+            Platform.exit();
+        }
+
+        benchmark.out.println(benchmark);
+        if(output != null && !benchmark.writeJson(output))
+            result = 1;
+        if(benchmark.results.stream().anyMatch(latency -> latency.getTimeouts() > 0))
+            result = 1;
+        return result;
+    }
+
+    private static void printUsage() {
+        System.err.println(String.format("Usage: %s [--sizes N,N...] [--iterations N] [--warmup N] [--output FILE.json]", COMMAND));
+    }
+
+    private void runSize(int size) throws Exception {
+        onApplicationThread(() -> {
+            createApplication();
+            generateModel(size);
+            return null;
+        });
+
+        var deploymentView = view.getDeploymentDiagramView();
+        var sequenceView = view.getSequenceDiagramView();
+        var sequence = model.getSequenceDiagram();
+
+        measure("drag node", size, deploymentView, i -> {
+            var targetView = deploymentView.getDeploymentTargetView(targets.get(0).getObjectInfo().getID());
+            drag(targetView, (i % 2 == 0 ? 3 : -3) * 10.0, 0);
+        }, null);
+
+        measure("move activation", size, sequenceView, i -> {
+            var activationView = sequenceView.getActivationView(activations.get(0).getObjectInfo().getID());
+            drag(activationView, 0, i % 2 == 0 ? 40 : -40);
+        }, null);
+
+        measure("create message", size, sequenceView, i -> {
+            var connectionContainer = sequenceView.getConnectionContainer();
+            var first = activations.get(i % activations.size());
+            var second = activations.get((i + 1) % activations.size());
+            connectionContainer.setFirstElement(sequenceView.getActivationView(first.getObjectInfo().getID()));
+            connectionContainer.setSecondElement(sequenceView.getActivationView(second.getObjectInfo().getID()));
+        }, i -> {
+            new ArrayList<>(sequence.getSortedMessages()).forEach(message -> {
+                if(!generatedMessages.contains(message))
+                    sequence.removeMessage(message.getObjectInfo().getID());
+            });
+        });
+
+        // Opening the project replaces the views, it has to be the last interaction
+        var projectFile = File.createTempFile("uml2spnp_benchmark", ".json");
+        projectFile.deleteOnExit();
+        var serializer = onApplicationThread(() -> {
+            var result = new Serializer(controller);
+            if(!result.saveToFile(projectFile))
+                throw new IOException("unable to save the generated project");
+            return result;
+        });
+        measure("open project", size, null, i -> serializer.loadFromFile(projectFile), null);
+        projectFile.delete();
+    }
+
+    private void createApplication() {
+        if(stage == null)
+            stage = new Stage();
+        model = new MainModel();
+        view = new MainView(stage);
+        System.setOut(out);
+        System.setErr(err);
+        controller = new MainController(model, view);
+
+        var scene = new Scene(view, 1280, 800);
+        scene.addPreLayoutPulseListener(() -> pulseStart = System.nanoTime());
+        scene.addPostLayoutPulseListener(this::pulseFinished);
+        stage.setScene(scene);
+        stage.show();
+    }
+
+    /**
+     * Generates a chain of size deployment targets connected by communication links,
+     * up to ten lifelines with one activation each, size messages between the activations
+     * and size nested loops which all cover the activations.
+     */
+    private void generateModel(int size) {
+        targets.clear();
+        activations.clear();
+        generatedMessages.clear();
+
+        var deployment = model.getDeploymentDiagram();
+        var deploymentView = view.getDeploymentDiagramView();
+        for(int i = 0; i < size; i++) {
+            var target = deployment.createDeploymentTarget(null);
+            target.getNameProperty().setValue(String.format("Node %d", i));
+            var targetView = deploymentView.getDeploymentTargetView(target.getObjectInfo().getID());
+            targetView.setTranslateX(20 + (i % NODES_PER_ROW) * 180);
+            targetView.setTranslateY(20 + (i / NODES_PER_ROW) * 140);
+            targets.add(target);
+            if(i > 0)
+                deployment.createCommunicationLink(targets.get(i - 1), target);
+        }
+
+        var sequence = model.getSequenceDiagram();
+        var sequenceView = view.getSequenceDiagramView();
+        var lifelineCount = Math.min(LIFELINES, size);
+        for(int i = 0; i < lifelineCount; i++) {
+            var lifeline = sequence.createLifeline(targets.get(i));
+            sequenceView.getLifelineView(lifeline.getObjectInfo().getID()).setTranslateX(10 + i * LIFELINE_SPACING);
+            activations.add(lifeline.createActivation());
+        }
+        for(int i = 0; i < size; i++)
+            sequence.createMessage(activations.get(i % lifelineCount), activations.get((i + 1) % lifelineCount));
+        generatedMessages.addAll(sequence.getSortedMessages());
+
+        for(int i = 0; i < size; i++) {
+            var loop = sequence.createLoop();
+            var loopView = sequenceView.getNode(loop.getObjectInfo().getID());
+            var inset = (i % 20) * 2;
+            loopView.setTranslateX(inset);
+            loopView.setTranslateY(60 + inset);
+            loopView.changeDimensions(lifelineCount * LIFELINE_SPACING - 2 * inset, 700 - 2 * inset);
+        }
+    }
+
+    /**
+     * Replays the interaction, the warmup iterations are not recorded.
+     *
+     * @param diagram Diagram which is shown during the interaction, null to keep the current one.
+     * @param action Interaction, gets the iteration number.
+     * @param cleanup Undoes the interaction outside the measured time, may be null.
+     */
+    private void measure(String interaction, int size, Node diagram, IntConsumer action, IntConsumer cleanup) throws Exception {
+        var latency = new InteractionLatency(interaction, size);
+        if(diagram != null) {
+            onApplicationThread(() -> {
+                showDiagram(diagram);
+                return null;
+            });
+        }
+        for(int i = 0; i < warmup + iterations; i++) {
+            var iteration = i;
+            var recorded = i >= warmup ? latency : null;
+            var latch = new CountDownLatch(1);
+            onApplicationThread(() -> {
+                current = recorded;
+                pendingPulse = latch;
+                interactionStart = System.nanoTime();
+                action.accept(iteration);
+                Platform.requestNextPulse();
+                return null;
+            });
+            if(!latch.await(PULSE_TIMEOUT, TimeUnit.SECONDS)) {
+                latency.addTimeout();
+                onApplicationThread(() -> {
+                    pendingPulse = null;
+                    return null;
+                });
+            }
+            if(cleanup != null) {
+                onApplicationThread(() -> {
+                    current = null;
+                    cleanup.accept(iteration);
+                    return null;
+                });
+            }
+        }
+        onApplicationThread(() -> {
+            current = null;
+            return null;
+        });
+        results.add(latency);
+    }
+
+    private void pulseFinished() {
+        var now = System.nanoTime();
+        if(current != null)
+            current.addPulse(now - pulseStart);
+        if(pendingPulse != null) {
+            if(current != null)
+                current.addLatency(now - interactionStart);
+            pendingPulse.countDown();
+            pendingPulse = null;
+        }
+    }
+
+    private void showDiagram(Node diagram) {
+        view.lookupAll(".tab-pane").forEach(node -> {
+            var tabPane = (TabPane) node;
+            tabPane.getTabs().forEach(tab -> {
+                if(tab.getContent() == diagram)
+                    tabPane.getSelectionModel().select(tab);
+            });
+        });
+    }
+
+    /**
+     * Drags the element with the primary button from its center by the given offset.
+     */
+    private static void drag(BasicRectangle element, double dx, double dy) {
+        var bounds = element.getLayoutBounds();
+        var start = element.localToScene(bounds.getMinX() + bounds.getWidth() / 2, bounds.getMinY() + bounds.getHeight() / 2);
+        fireMouseEvent(element, MouseEvent.MOUSE_PRESSED, start.getX(), start.getY());
+        for(int step = 1; step <= DRAG_STEPS; step++)
+            fireMouseEvent(element, MouseEvent.MOUSE_DRAGGED, start.getX() + dx * step / DRAG_STEPS, start.getY() + dy * step / DRAG_STEPS);
+        fireMouseEvent(element, MouseEvent.MOUSE_RELEASED, start.getX() + dx, start.getY() + dy);
+    }
+
+    private static void fireMouseEvent(Node target, EventType<MouseEvent> type, double sceneX, double sceneY) {
+        var primaryDown = type != MouseEvent.MOUSE_RELEASED;
+        var event = new MouseEvent(type, sceneX, sceneY, sceneX, sceneY, MouseButton.PRIMARY, 1,
+                                   false, false, false, false, primaryDown, false, false, true, false, false, null);
+        Event.fireEvent(target, event);
+    }
+
+    private static <T> T onApplicationThread(Callable<T> callable) throws Exception {
+        var task = new FutureTask<>(callable);
+        Platform.runLater(task);
+        try {
+            return task.get(PULSE_TIMEOUT, TimeUnit.SECONDS);
+        }
+        catch(ExecutionException ex) {
+            if(ex.getCause() instanceof Exception)
+                throw (Exception) ex.getCause();
+            throw ex;
+        }
+        catch(TimeoutException ex) {
+            throw new TimeoutException("the application thread did not respond");
+        }
+    }
+
+    private boolean writeJson(Path file) {
+        var json = new JsonObject();
+        json.addProperty("javaVersion", SystemInfo.javaVersion());
+        json.addProperty("javafxVersion", SystemInfo.javafxVersion());
+        json.addProperty("glassPlatform", System.getProperty("glass.platform", "default"));
+        json.addProperty("iterations", iterations);
+        json.addProperty("warmup", warmup);
+        var interactions = new JsonArray();
+        results.forEach(latency -> interactions.add(latency.toJson()));
+        json.add("interactions", interactions);
+        try {
+            Files.writeString(file, new GsonBuilder().setPrettyPrinting().create().toJson(json) + System.lineSeparator(), StandardCharsets.UTF_8);
+            return true;
+        }
+        catch(IOException ex) {
+            err.println(String.format("UI benchmark error: unable to write \"%s\": %s", file, ex.getMessage()));
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        var result = new StringBuilder();
+        result.append(String.format("UI interaction latency (%d iterations, %d warmup, glass platform %s):%n",
+                                    iterations, warmup, System.getProperty("glass.platform", "default")));
+        result.append(String.format("%-18s %6s %8s %9s %9s %9s %9s %7s %9s %9s%n",
+                                    "interaction", "size", "samples", "p50 ms", "p90 ms", "p99 ms", "max ms",
+                                    "pulses", "pulse p50", "pulse max"));
+        results.forEach(latency -> result.append(String.format("%s%n", latency)));
+        return result.toString();
+    }
+}
@@ -0,0 +1,160 @@
+package cz.muni.fi.umlspnp.controllers;
+
+import cz.muni.fi.umlspnp.common.observable.BooleanProperty;
+import cz.muni.fi.umlspnp.common.observable.ChangeListener;
+import cz.muni.fi.umlspnp.common.observable.DoubleProperty;
+import cz.muni.fi.umlspnp.common.observable.IntegerProperty;
+import cz.muni.fi.umlspnp.common.observable.ListChangeListener;
+import cz.muni.fi.umlspnp.common.observable.ObjectProperty;
+import cz.muni.fi.umlspnp.common.observable.ObservableList;
+import cz.muni.fi.umlspnp.common.observable.ObservableValue;
+import cz.muni.fi.umlspnp.common.observable.StringProperty;
+import java.lang.ref.WeakReference;
+import javafx.beans.Observable;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleLongProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.value.WritableValue;
+import javafx.collections.FXCollections;
+
+/**
+ *  Adapts the properties and lists of the models (see cz.muni.fi.umlspnp.common.observable
+ * in the core module) to the JavaFX properties and lists which the views bind to.
+ * An adapted property writes its changes to the model property and follows the model
+ * property as long as the adapter is referenced (e.g. bound by a view), so the controllers
+ * can adapt a property whenever they need it. An adapted list is read only, the controllers
+ * change the model list.
+ *
+ */
+public final class FxAdapters {
+    private FxAdapters() {
+    }
+
+    public static javafx.beans.property.StringProperty adapt(StringProperty property) {
+        var adapter = new SimpleStringProperty(property.getBean(), property.getName(), property.get()) {
+            @Override
+            protected void invalidated() {
+                property.set(get());
+            }
+        };
+        property.addListener(new WeakValueListener<>(adapter));
+        return adapter;
+    }
+
+    public static javafx.beans.property.IntegerProperty adapt(IntegerProperty property) {
+        var adapter = new SimpleIntegerProperty(property.getBean(), property.getName(), property.get()) {
+            @Override
+            protected void invalidated() {
+                property.set(get());
+            }
+        };
+        property.addListener(new WeakValueListener<>(adapter));
+        return adapter;
+    }
+
+    public static javafx.beans.property.DoubleProperty adapt(DoubleProperty property) {
+        var adapter = new SimpleDoubleProperty(property.getBean(), property.getName(), property.get()) {
+            @Override
+            protected void invalidated() {
+                property.set(get());
+            }
+        };
+        property.addListener(new WeakValueListener<>(adapter));
+        return adapter;
+    }
+
+    public static javafx.beans.property.BooleanProperty adapt(BooleanProperty property) {
+        var adapter = new SimpleBooleanProperty(property.getBean(), property.getName(), property.get()) {
+            @Override
+            protected void invalidated() {
+                property.set(get());
+            }
+        };
+        property.addListener(new WeakValueListener<>(adapter));
+        return adapter;
+    }
+
+    public static <T> javafx.beans.property.ObjectProperty<T> adapt(ObjectProperty<T> property) {
+        var adapter = new SimpleObjectProperty<T>(property.getBean(), property.getName(), property.get()) {
+            @Override
+            protected void invalidated() {
+                property.set(get());
+            }
+        };
+        property.addListener(new WeakValueListener<>(adapter));
+        return adapter;
+    }
+
+    /**
+     * The elements of the adapted list are reported as updated (e.g. redrawn by a list view)
+     * when an element of the model list is updated.
+     *
+     * @param <E> Type of the elements.
+     * @param list The model list.
+     * @return Read only JavaFX list which follows the model list.
+     */
+    public static <E> javafx.collections.ObservableList<E> adapt(ObservableList<E> list) {
+        var revision = new SimpleLongProperty();
+        var adapter = FXCollections.observableArrayList((E element) -> new Observable[]{revision});
+        adapter.setAll(list);
+        list.addListener(new WeakListListener<>(adapter, revision));
+        return FXCollections.unmodifiableObservableList(adapter);
+    }
+
+    /**
+     *  Forwards the changes of a model property to its adapter, removes itself
+     * after the adapter was collected.
+     */
+    private static final class WeakValueListener<T> implements ChangeListener<T> {
+        private final WeakReference<WritableValue<? super T>> adapter;
+
+        WeakValueListener(WritableValue<? super T> adapter) {
+            this.adapter = new WeakReference<>(adapter);
+        }
+
+        @Override
+        public void changed(ObservableValue<? extends T> observable, T oldValue, T newValue) {
+            var target = adapter.get();
+            if(target != null)
+                target.setValue(newValue);
+            else
+                observable.removeListener(this);
+        }
+    }
+
+    /**
+     *  Applies the changes of a model list to its adapter, removes itself
+     * after the adapter was collected.
+     */
+    private static final class WeakListListener<E> implements ListChangeListener<E> {
+        private final WeakReference<javafx.collections.ObservableList<E>> adapter;
+        private final SimpleLongProperty revision;
+
+        WeakListListener(javafx.collections.ObservableList<E> adapter, SimpleLongProperty revision) {
+            this.adapter = new WeakReference<>(adapter);
+            this.revision = revision;
+        }
+
+        @Override
+        public void onChanged(ListChangeListener.Change<? extends E> change) {
+            var target = adapter.get();
+            if(target == null) {
+                change.getList().removeListener(this);
+                return;
+            }
+            if(change.wasUpdated()) {
+                revision.set(revision.get() + 1);
+            }
+            else if(change.wasPermutated()) {
+                target.setAll(change.getList());
+            }
+            else {
+                target.remove(change.getFrom(), change.getFrom() + change.getRemoved().size());
+                target.addAll(change.getFrom(), change.getAddedSubList());
+            }
+        }
+    }
+}
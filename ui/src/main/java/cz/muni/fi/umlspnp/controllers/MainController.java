@@ -0,0 +1,890 @@
+package cz.muni.fi.umlspnp.controllers;
+
+import cz.muni.fi.umlspnp.SystemInfo;
+import cz.muni.fi.umlspnp.analysis.TokenGame;
+import cz.muni.fi.umlspnp.controllers.deploymentdiagram.DeploymentDiagramController;
+import cz.muni.fi.umlspnp.controllers.sequencediagram.SequenceDiagramController;
+import cz.muni.fi.umlspnp.metrics.Metrics;
+import cz.muni.fi.umlspnp.models.MainModel;
+import cz.muni.fi.umlspnp.models.sequencediagram.Activation;
+import cz.muni.fi.umlspnp.models.sequencediagram.Lifeline;
+import cz.muni.fi.umlspnp.solver.FakeSolverRunner;
+import cz.muni.fi.umlspnp.solver.MarkingTraceDecoder;
+import cz.muni.fi.umlspnp.solver.ResultAnnotation;
+import cz.muni.fi.umlspnp.solver.SolverJob;
+import cz.muni.fi.umlspnp.solver.SolverListener;
+import cz.muni.fi.umlspnp.solver.SolverPool;
+import cz.muni.fi.umlspnp.solver.SpnpProcessRunner;
+import cz.muni.fi.umlspnp.solver.SpnpResultParser;
+import cz.muni.fi.umlspnp.solver.SpnpResults;
+import cz.muni.fi.umlspnp.transformations.DefaultTransformator;
+import cz.muni.fi.umlspnp.transformations.NetAnalysis;
+import cz.muni.fi.umlspnp.transformations.ParameterSweepEngine;
+import cz.muni.fi.umlspnp.transformations.RateParameters;
+import cz.muni.fi.umlspnp.transformations.RegenerationCycle;
+import cz.muni.fi.umlspnp.views.MainView;
+import cz.muni.fi.umlspnp.views.TransformatorOptionConstant;
+import cz.muni.fi.umlspnp.views.TransformatorOptionDouble;
+import cz.muni.fi.umlspnp.views.TransformatorOptionInteger;
+import cz.muni.fi.umlspnp.views.common.layouts.AboutModalWindow;
+import cz.muni.fi.umlspnp.views.common.layouts.MarkingTraceWindow;
+import cz.muni.fi.umlspnp.views.common.layouts.ParameterSweepModalWindow;
+import cz.muni.fi.umlspnp.views.common.layouts.SolverResultWindow;
+import cz.muni.fi.umlspnp.views.common.layouts.TokenGameWindow;
+import cz.muni.fi.umlspnp.views.common.layouts.TransformModalWindow;
+import cz.muni.fi.umlspnp.views.common.layouts.TransformProgressWindow;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+import javafx.event.ActionEvent;
+import javafx.scene.Node;
+import javafx.scene.control.Menu;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.Tooltip;
+import javafx.scene.effect.DropShadow;
+import javafx.scene.layout.GridPane;
+import javafx.scene.paint.Color;
+import javafx.stage.DirectoryChooser;
+import javafx.stage.FileChooser;
+import javafx.stage.WindowEvent;
+
+/**
+ *  Main controller which handles the main menu functionality.
+ *
+ */
+public class MainController extends BaseController<MainModel, MainView> {
+    private static final String MODEL_NAME = "model";
+    private static final String TRACE_EXTENSION = ".trace";
+
+    private final Menu fileMenu;
+    private final Menu aboutMenu;
+    
+    private final Serializer serializer;
+    private File file = null;
+    private Node highlightedElement = null;
+    private SolverPool spnpSolverPool = null;
+    private SolverPool standInSolverPool = null;
+    private Map<String, Integer> lastElementOrigins = Collections.emptyMap();
+    private RegenerationCycle lastRegenerationCycle = null;
+    private Task<?> transformTask = null;
+    private final Map<Node, Tooltip> annotatedElements = new HashMap<>();
+    
+    private DeploymentDiagramController deploymentDiagramController;
+    private SequenceDiagramController sequenceDiagramController;
+
+    public MainController(MainModel model, MainView view){
+        super(model, view, model, view);
+        
+        serializer = new Serializer(this);
+
+        fileMenu = new Menu("File");
+        aboutMenu = new Menu("Help");
+        view.addMenu(fileMenu);
+        view.addMenu(aboutMenu);
+
+        initTransformMenu();
+        initAboutMenu();
+        
+        setDeploymentDiagramController(new DeploymentDiagramController(mainModel, mainView));
+        setSequenceDiagramController(new SequenceDiagramController(mainModel, mainView));
+        
+        view.getAppStage().addEventHandler(WindowEvent.WINDOW_CLOSE_REQUEST, e -> shutdownSolverPools());
+    }
+    
+    public final void setDeploymentDiagramController(DeploymentDiagramController ddc) {
+        deploymentDiagramController = ddc;
+    }
+    
+    public final DeploymentDiagramController getDeploymentDiagramController() {
+        return deploymentDiagramController;
+    }
+    
+    public final void setSequenceDiagramController(SequenceDiagramController sdc) {
+        sequenceDiagramController = sdc;
+    }
+
+    public final SequenceDiagramController getSequenceDiagramController() {
+        return sequenceDiagramController;
+    }
+    
+    private void open(File file) {
+        if(!file.canRead()) {
+            System.err.println(String.format("Error: unable to read file \"%s\"", file.getAbsolutePath()));
+            return;
+        }
+        if(serializer.loadFromFile(file)) {
+            System.err.println(String.format("Successfully loaded from \"%s\"", file.getAbsolutePath()));
+        }
+        Metrics.endRun("load");
+    }
+    
+    private void openFrom() {
+        var fileChooser = new FileChooser();
+
+        var extensionFilter = new FileChooser.ExtensionFilter("JSON files (*.json)", "*.json");
+        fileChooser.getExtensionFilters().add(extensionFilter);
+        var tmpFile = fileChooser.showOpenDialog(mainView.getAppStage());
+        if(tmpFile != null) {
+            open(tmpFile);
+        }
+    }
+    
+    private void save(File file) {
+        if(serializer.saveToFile(file)) {
+            System.err.println(String.format("Successfully saved to \"%s\"", file.getAbsolutePath()));
+        }
+        Metrics.endRun("save");
+    }
+    
+    private void saveAs() {
+        var fileChooser = new FileChooser();
+        fileChooser.setInitialFileName("uml2spnp_project");
+
+        var extensionFilter = new FileChooser.ExtensionFilter("JSON files (*.json)", "*.json");
+        fileChooser.getExtensionFilters().add(extensionFilter);
+        var tmpFile = fileChooser.showSaveDialog(mainView.getAppStage());
+        if(tmpFile != null) {
+            file = tmpFile;
+            save(file);
+        }
+    }
+    
+    private void initTransformMenu() {
+        var openMenuItem = new MenuItem("Open...");
+        openMenuItem.setOnAction((ActionEvent tt) -> {
+            openFrom();
+        });
+        fileMenu.getItems().add(openMenuItem);
+
+        var saveMenuItem = new MenuItem("Save");
+        saveMenuItem.setOnAction((ActionEvent tt) -> {
+            if(file == null)
+                saveAs();
+            else
+                save(file);
+        });
+        fileMenu.getItems().add(saveMenuItem);
+        
+        var saveAsMenuItem = new MenuItem("Save as...");
+        saveAsMenuItem.setOnAction((ActionEvent tt) -> {
+            saveAs();
+        });
+        fileMenu.getItems().add(saveAsMenuItem);
+
+
+        var transformMenuItem = new MenuItem("Transform...");
+        transformMenuItem.setOnAction((ActionEvent tt) -> {
+            if(tt.getSource().equals(transformMenuItem)){
+                var transformWindow = new TransformModalWindow(view.getAppStage(),
+                                                               "Transform model",
+                                                               window -> {
+                                                                   try(var phase = Metrics.phase("ui.transform")) {
+                                                                       startTransform(window);
+                                                                   }
+                                                                   // A background transformation ends the run when it finishes
+                                                                   if(transformTask == null)
+                                                                       Metrics.endRun("transform");
+                                                               });
+                initSimulationOptions(transformWindow);
+                initNumericOptions(transformWindow);
+                transformWindow.setAnalysisPlan(model.getAnalysisPlan());
+                transformWindow.showAndWait();
+            }
+        });
+        fileMenu.getItems().add(transformMenuItem);
+        
+        var parameterSweepMenuItem = new MenuItem("Parameter sweep...");
+        parameterSweepMenuItem.setOnAction((ActionEvent tt) -> {
+            var sweepWindow = new ParameterSweepModalWindow(view.getAppStage(),
+                                                            "Parameter sweep",
+                                                            model.getParameterSweep());
+            sweepWindow.showAndWait();
+        });
+        fileMenu.getItems().add(parameterSweepMenuItem);
+        
+        var cancelSolverMenuItem = new MenuItem("Cancel solver jobs");
+        cancelSolverMenuItem.setOnAction((ActionEvent tt) -> {
+            var cancelled = 0;
+            if(spnpSolverPool != null)
+                cancelled += spnpSolverPool.cancelAll();
+            if(standInSolverPool != null)
+                cancelled += standInSolverPool.cancelAll();
+            System.err.println(String.format("Solver jobs cancelled: %d", cancelled));
+        });
+        fileMenu.getItems().add(cancelSolverMenuItem);
+        
+        var openResultsMenuItem = new MenuItem("Open SPNP results...");
+        openResultsMenuItem.setOnAction((ActionEvent tt) -> openResults());
+        fileMenu.getItems().add(openResultsMenuItem);
+        
+        var openTraceMenuItem = new MenuItem("Open marking trace...");
+        openTraceMenuItem.setOnAction((ActionEvent tt) -> openMarkingTrace());
+        fileMenu.getItems().add(openTraceMenuItem);
+    }
+    
+    /**
+     * Transforms a snapshot of the model in the background, so that the diagrams stay
+     * editable during the transformation. The settings of the transform window are read
+     * before the window is closed, the results are published on the application thread.
+     */
+    private void startTransform(TransformModalWindow transformWindow) {
+        if(transformTask != null) {
+            System.err.println("Transformation error: the previous transformation is still running.");
+            return;
+        }
+        performPreTransformActions();
+        if(!transformWindow.updateAnalysisPlan(model.getAnalysisPlan()))
+            return;
+        if(transformWindow.getParameterSweepSelected()) {
+            runParameterSweep(transformWindow);
+            return;
+        }
+
+        var initOptions = captureOptions(transformWindow);
+        var inputParameters = transformWindow.getInputParametersSelected();
+        var generateComments = transformWindow.getGenerateComments();
+        var debugInfo = transformWindow.getDebugInfoSelected();
+        var reachabilityGraphSelected = transformWindow.getReachabilityGraphSelected();
+        var offHeapStates = transformWindow.getOffHeapStatesSelected();
+        var symbolicStateSpaceSelected = transformWindow.getSymbolicStateSpaceSelected();
+        var invariantAnalysis = transformWindow.getInvariantAnalysisSelected();
+        var meanField = transformWindow.getMeanFieldSelected();
+        var inProcessSimulation = transformWindow.getInProcessSimulationSelected();
+        var importancePilot = transformWindow.getImportancePilotSelected();
+        var numericSolution = transformWindow.getNumericSolutionSelected();
+        var tokenGameSelected = transformWindow.getTokenGameSelected();
+        var debugPrintSegment = transformWindow.getGenerateDebugPrintSegmentSelected();
+        var runSolverSelected = transformWindow.getRunSolverSelected();
+        var standInSolver = transformWindow.getStandInSolverSelected();
+        var traceOptions = transformWindow.getMarkingTraceSelected() ? transformWindow.getMarkingTraceOptions(MODEL_NAME + TRACE_EXTENSION) : null;
+        if(transformWindow.getMarkingTraceSelected() && traceOptions == null)
+            return;
+        var segmentedOutputDirectory = transformWindow.getSegmentedOutputSelected() ? chooseDirectory("Segmented output directory", transformWindow) : null;
+
+        var snapshot = serializer.createModelSnapshot();
+        transformWindow.close();
+
+        transformTask = new Task<DefaultTransformator>() {
+            private TokenGame tokenGame = null;
+            private String output = null;
+
+            @Override
+            protected DefaultTransformator call() {
+                var transformator = new DefaultTransformator(snapshot);
+                transformator.setProgressListener((phase, progress) -> {
+                    updateMessage(phase);
+                    updateProgress(0.5 * progress, 1.0);
+                });
+                initOptions.accept(transformator);
+                if(inputParameters)
+                    transformator.setRateParameters(RateParameters.all());
+                transformator.transform(generateComments);
+
+                step("analysis", 0.5);
+                if(debugInfo)
+                    System.err.print(transformator.getDebugInfo());
+
+                var analysis = new NetAnalysis(transformator);
+                if(reachabilityGraphSelected) {
+                    var reachabilityGraph = analysis.generateReachabilityGraph(offHeapStates);
+                    if(reachabilityGraph != null)
+                        System.err.println(reachabilityGraph);
+                }
+
+                if(symbolicStateSpaceSelected) {
+                    var stateSpace = analysis.generateSymbolicStateSpace();
+                    if(stateSpace != null) {
+                        System.err.println(stateSpace);
+                        analysis.getDefaultReachabilityQueries().forEach((description, condition) -> {
+                            System.err.println(String.format("%s: %s", description, stateSpace.isReachable(condition)));
+                        });
+                    }
+                }
+
+                if(invariantAnalysis) {
+                    var invariants = analysis.analyzeInvariants();
+                    if(invariants != null)
+                        System.err.println(invariants);
+                }
+
+                if(meanField) {
+                    var meanFieldResult = analysis.solveMeanField();
+                    if(meanFieldResult != null)
+                        System.err.println(meanFieldResult);
+                }
+
+                step("simulation", 0.6);
+                if(inProcessSimulation) {
+                    var simulationResult = analysis.simulate();
+                    if(simulationResult != null) {
+                        System.err.println(simulationResult);
+                        if(transformator.getRegenerationCycle() != null)
+                            System.err.println(String.format("Scenario success per regeneration cycle: %s",
+                                                             Double.toString(analysis.getCycleSuccessProbability(simulationResult))));
+                    }
+                }
+
+                if(importancePilot) {
+                    var pilot = analysis.runImportancePilot();
+                    if(pilot != null)
+                        System.err.println(pilot);
+                    else
+                        System.err.println("Importance pilot: not run, the splitting simulation (VAL_SPLIT, VAL_RESTART) is not selected or the net can not be analyzed.");
+                }
+
+                step("numeric solution", 0.7);
+                if(numericSolution) {
+                    var solution = analysis.solveNumerically(offHeapStates);
+                    if(solution != null)
+                        System.err.println(solution);
+                }
+
+                if(tokenGameSelected)
+                    tokenGame = analysis.createTokenGame();
+
+                step("output", 0.8);
+                if(traceOptions != null) {
+                    var watchedPlaces = transformator.generateMarkingTraceSegment(traceOptions);
+                    if(watchedPlaces > 0)
+                        System.err.println(String.format("%s: %d watched places", traceOptions, watchedPlaces));
+                }
+                else if(debugPrintSegment)
+                    transformator.generatePrintingSegment();
+
+                var elimination = transformator.eliminateDeadElements();
+                if(debugInfo)
+                    System.err.println(elimination);
+
+                if(segmentedOutputDirectory != null) {
+                    var segmentedOutput = transformator.writeSegmentedOutput(segmentedOutputDirectory.toPath(), MODEL_NAME);
+                    if(segmentedOutput != null) {
+                        System.err.println(segmentedOutput);
+                        System.err.println(String.format("Segmented output written to \"%s\"", segmentedOutputDirectory.getAbsolutePath()));
+                    }
+                }
+
+                transformator.getNetStatistics().record();
+                output = transformator.getOutput();
+                updateProgress(1.0, 1.0);
+                return transformator;
+            }
+
+            private void step(String name, double progress) {
+                if(isCancelled())
+                    throw new CancellationException();
+                updateMessage(name);
+                updateProgress(progress, 1.0);
+            }
+
+            @Override
+            protected void succeeded() {
+                var transformator = getValue();
+                lastElementOrigins = transformator.getElementOrigins();
+                lastRegenerationCycle = transformator.getRegenerationCycle();
+                if(tokenGame != null) {
+                    var tokenGameWindow = new TokenGameWindow(view.getAppStage(),
+                                                              "Token game",
+                                                              tokenGame,
+                                                              transformator.getElementOrigins(),
+                                                              transformator.getControlEndPlaceName(),
+                                                              MainController.this::highlightElement);
+                    tokenGameWindow.show();
+                }
+                System.out.println(output);
+                if(runSolverSelected)
+                    runSolver(output, standInSolver);
+                transformFinished();
+            }
+
+            @Override
+            protected void failed() {
+                System.err.println(String.format("Transformation error: %s", getException()));
+                transformFinished();
+            }
+
+            @Override
+            protected void cancelled() {
+                System.err.println("Transformation cancelled.");
+                transformFinished();
+            }
+        };
+        var progressWindow = new TransformProgressWindow(view.getAppStage(), "Transforming model", transformTask);
+        progressWindow.show();
+
+        var thread = new Thread(transformTask, "transform");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void transformFinished() {
+        transformTask = null;
+        Metrics.endRun("transform");
+    }
+
+    private File chooseDirectory(String title, TransformModalWindow transformWindow) {
+        var directoryChooser = new DirectoryChooser();
+        directoryChooser.setTitle(title);
+        return directoryChooser.showDialog(transformWindow);
+    }
+    
+    /**
+     * Solves the generated code in the background, the solver output is streamed into
+     * the error output. The pools live for the whole session, so the results of an
+     * unchanged model are taken from their cache. A finished result is shown in a window
+     * and its measures of the places and transitions on the elements of the transformed model.
+     */
+    private void runSolver(String code, boolean standIn) {
+        SolverListener listener = (job, error, line) -> System.err.println(String.format("[%s] %s", job.getName(), line));
+        if(standIn && standInSolverPool == null)
+            standInSolverPool = new SolverPool(new FakeSolverRunner(), 0, listener);
+        else if(!standIn && spnpSolverPool == null)
+            spnpSolverPool = new SolverPool(new SpnpProcessRunner(), 0, listener);
+        var pool = standIn ? standInSolverPool : spnpSolverPool;
+        var elementOrigins = lastElementOrigins;
+        var regenerationCycle = lastRegenerationCycle;
+        pool.submit(new SolverJob(MODEL_NAME, code, 0)).whenComplete((result, exception) -> {
+            if(result != null)
+                System.err.println(result);
+            else if(!(exception instanceof CancellationException))
+                System.err.println(String.format("Solver error: %s", exception));
+            var poolStatus = pool.toString();
+            System.err.println(poolStatus);
+            if(result == null || !result.isFinished())
+                return;
+            var annotation = annotateSolverOutput(result.getOutput(), elementOrigins, regenerationCycle);
+            Platform.runLater(() -> {
+                if(annotation != null)
+                    annotateElements(annotation.getDescriptions());
+                var resultWindow = new SolverResultWindow(view.getAppStage(),
+                                                          String.format("Solver result %s", result.getJob().getName()),
+                                                          result, poolStatus);
+                resultWindow.show();
+            });
+        });
+    }
+    
+    /**
+     * Parses the output of a solver job like an SPNP output file.
+     * 
+     * @return Annotation of the elements or null if the output could not be parsed.
+     */
+    private static ResultAnnotation annotateSolverOutput(String output, Map<String, Integer> elementOrigins,
+                                                         RegenerationCycle regenerationCycle) {
+        if(output == null || output.isEmpty() || elementOrigins.isEmpty())
+            return null;
+        try {
+            var outputFile = Files.createTempFile(MODEL_NAME, ".out");
+            try {
+                Files.writeString(outputFile, output);
+                var parser = new SpnpResultParser();
+                if(!parser.parse(outputFile))
+                    return null;
+                printCycleSuccess(parser.getResults(), regenerationCycle);
+                return new ResultAnnotation(parser.getResults(), elementOrigins);
+            }
+            finally {
+                Files.deleteIfExists(outputFile);
+            }
+        }
+        catch(IOException ex) {
+            System.err.println(String.format("Solver result error: %s", ex));
+            return null;
+        }
+    }
+    
+    /**
+     * Prints the scenario success of the regenerative simulation, which SPNP does not
+     * print as a measure, from the throughputs of the regeneration cycle.
+     */
+    private static void printCycleSuccess(SpnpResults results, RegenerationCycle regenerationCycle) {
+        if(regenerationCycle == null)
+            return;
+        var success = regenerationCycle.getSuccessProbability(results::getTransitionThroughput);
+        System.err.println(String.format("Scenario success per regeneration cycle: %s", Double.toString(success)));
+    }
+    
+    /**
+     * Cancels the solver jobs and stops the threads of the solver pools, called when
+     * the application window is closed.
+     */
+    private void shutdownSolverPools() {
+        if(spnpSolverPool != null)
+            spnpSolverPool.shutdown();
+        if(standInSolverPool != null)
+            standInSolverPool.shutdown();
+        spnpSolverPool = null;
+        standInSolverPool = null;
+    }
+    
+    /**
+     * Performs the parameter sweep of a snapshot of the model in the background,
+     * the same way as the transformation.
+     */
+    private void runParameterSweep(TransformModalWindow transformWindow) {
+        if(model.getParameterSweep().getDimensions().isEmpty()) {
+            System.err.println("Parameter sweep error: no dimension is defined (File > Parameter sweep...).");
+            return;
+        }
+        var directory = chooseDirectory("Parameter sweep output directory", transformWindow);
+        if(directory == null)
+            return;
+        var initOptions = captureOptions(transformWindow);
+        var generateComments = transformWindow.getGenerateComments();
+        var snapshot = serializer.createModelSnapshot();
+        transformWindow.close();
+
+        var sweepTask = new Task<ParameterSweepEngine>() {
+            private boolean written = false;
+
+            @Override
+            protected ParameterSweepEngine call() {
+                var engine = new ParameterSweepEngine(snapshot, initOptions, generateComments);
+                engine.setProgressListener((phase, progress) -> {
+                    updateMessage(phase);
+                    updateProgress(progress, 1.0);
+                });
+                written = engine.run(directory.toPath());
+                return engine;
+            }
+
+            @Override
+            protected void succeeded() {
+                if(written)
+                    System.err.println(String.format("Parameter sweep written to \"%s\"", directory.getAbsolutePath()));
+                System.err.println(getValue());
+                transformFinished();
+            }
+
+            @Override
+            protected void failed() {
+                System.err.println(String.format("Parameter sweep error: %s", getException()));
+                transformFinished();
+            }
+
+            @Override
+            protected void cancelled() {
+                System.err.println("Parameter sweep cancelled.");
+                transformFinished();
+            }
+        };
+        transformTask = sweepTask;
+        var progressWindow = new TransformProgressWindow(view.getAppStage(), "Parameter sweep", sweepTask);
+        progressWindow.show();
+
+        var thread = new Thread(sweepTask, "parameter-sweep");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * Highlights the view of a model object in one of the diagrams.
+     * 
+     * @param objectID Identifier of the model object or -1 to remove the highlight.
+     */
+    private void highlightElement(int objectID) {
+        if(highlightedElement != null)
+            highlightedElement.setEffect(null);
+        highlightedElement = null;
+        if(objectID < 0)
+            return;
+
+        var element = findElementView(objectID);
+        if(element != null) {
+            element.setEffect(new DropShadow(20, Color.ORANGE));
+            highlightedElement = element;
+        }
+    }
+    
+    private Node findElementView(int objectID) {
+        var deploymentDiagramView = view.getDeploymentDiagramView();
+        var sequenceDiagramView = view.getSequenceDiagramView();
+        Node element = deploymentDiagramView.getNode(objectID);
+        if(element == null)
+            element = deploymentDiagramView.getConnection(objectID);
+        if(element == null)
+            element = sequenceDiagramView.getNode(objectID);
+        if(element == null)
+            element = sequenceDiagramView.getConnection(objectID);
+        return element;
+    }
+    
+    /**
+     * Parses the SPNP output files in the background and shows the results of the places
+     * and transitions on the elements of the last transformed model.
+     */
+    private void openResults() {
+        if(lastElementOrigins.isEmpty()) {
+            System.err.println("SPNP results error: transform the model first, the results are mapped by the names of its places and transitions.");
+            return;
+        }
+        var fileChooser = new FileChooser();
+        var extensionFilter = new FileChooser.ExtensionFilter("SPNP output files (*.out, *.log, *.rg)", "*.out", "*.log", "*.rg");
+        fileChooser.getExtensionFilters().add(extensionFilter);
+        var files = fileChooser.showOpenMultipleDialog(view.getAppStage());
+        if(files == null)
+            return;
+        var elementOrigins = lastElementOrigins;
+        var regenerationCycle = lastRegenerationCycle;
+        var thread = new Thread(() -> {
+            var parser = new SpnpResultParser();
+            for(var resultFile : files) {
+                if(!parser.parse(resultFile.toPath()))
+                    return;
+            }
+            var results = parser.getResults();
+            var annotation = new ResultAnnotation(results, elementOrigins);
+            System.err.println(results);
+            System.err.println(annotation);
+            printCycleSuccess(results, regenerationCycle);
+            Platform.runLater(() -> annotateElements(annotation.getDescriptions()));
+        }, "spnp-results");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * Decodes the binary marking trace written by the trace segment in the background
+     * and shows it in a table window.
+     */
+    private void openMarkingTrace() {
+        var fileChooser = new FileChooser();
+        var extensionFilter = new FileChooser.ExtensionFilter(String.format("Marking traces (*%s)", TRACE_EXTENSION), "*" + TRACE_EXTENSION);
+        fileChooser.getExtensionFilters().add(extensionFilter);
+        var file = fileChooser.showOpenDialog(view.getAppStage());
+        if(file == null)
+            return;
+        var thread = new Thread(() -> {
+            var trace = MarkingTraceDecoder.decode(file.toPath());
+            if(trace == null)
+                return;
+            System.err.println(trace);
+            Platform.runLater(() -> {
+                var traceWindow = new MarkingTraceWindow(view.getAppStage(),
+                                                         String.format("Marking trace %s", file.getName()),
+                                                         trace);
+                traceWindow.show();
+            });
+        }, "marking-trace");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    private void annotateElements(Map<Integer, String> descriptions) {
+        annotatedElements.forEach((element, tooltip) -> {
+            Tooltip.uninstall(element, tooltip);
+            if(element != highlightedElement)
+                element.setEffect(null);
+        });
+        annotatedElements.clear();
+        descriptions.forEach((objectID, description) -> {
+            var element = findElementView(objectID);
+            if(element == null)
+                return;
+            var tooltip = new Tooltip(description);
+            Tooltip.install(element, tooltip);
+            element.setEffect(new DropShadow(10, Color.CORNFLOWERBLUE));
+            annotatedElements.put(element, tooltip);
+        });
+    }
+    
+    private void initAboutMenu() {
+        var aboutMenuItem = new MenuItem("About");
+        aboutMenuItem.setOnAction((ActionEvent tt) -> {
+            if(tt.getSource().equals(aboutMenuItem)){
+                var content = new StringBuilder();
+                content.append(String.format("The UML2SPNP application allows you to create a general %n"
+                                           + "system representation in UML diagrams and transform %n"
+                                           + "it into CSPL code for further analysis in the SPNP tool.%n%n"));
+                content.append(String.format("The program was developed as a part of my master's thesis. %n%n"));
+                var version = getClass().getPackage().getImplementationVersion();
+                if(version != null)
+                    content.append(String.format("Version: %s%n", version));
+                content.append(String.format("Java SE version: %s%n", SystemInfo.javaVersion()));
+                content.append(String.format("JavaFX version: %s%n%n", SystemInfo.javafxVersion()));
+                content.append(String.format("License: The 3-Clause BSD License%n"));
+                content.append(String.format("©2021 Ondrej Marek%n"));
+                var aboutWindow = new AboutModalWindow(view.getAppStage(),
+                                                       "About",
+                                                       content.toString());
+                aboutWindow.showAndWait();
+            }
+        });
+        aboutMenu.getItems().add(aboutMenuItem);
+    }
+    
+    private void initSimulationOptions(TransformModalWindow transformWindow) {
+        transformWindow.addIntegerInputItem("IOP_SIM_RUNS", 100000, true);
+        
+        var IOP_SIM_RUNMETHOD = new ArrayList<String>();
+        IOP_SIM_RUNMETHOD.add("VAL_REPL");
+        IOP_SIM_RUNMETHOD.add("VAL_BATCH");
+        IOP_SIM_RUNMETHOD.add("VAL_RESTART");
+        IOP_SIM_RUNMETHOD.add("VAL_SPLIT");
+        IOP_SIM_RUNMETHOD.add("VAL_IS");
+        IOP_SIM_RUNMETHOD.add("VAL_THIN");
+        IOP_SIM_RUNMETHOD.add("VAL_ISTHIN");
+        IOP_SIM_RUNMETHOD.add("VAL_REG");
+        IOP_SIM_RUNMETHOD.add("VAL_ISREG");
+        transformWindow.addConstantInputItem("IOP_SIM_RUNMETHOD", IOP_SIM_RUNMETHOD, 0, true);
+
+        transformWindow.addIntegerInputItem("IOP_SIM_SEED", 52836, true);
+        
+        var IOP_SIM_CUMULATIVE = new ArrayList<String>();
+        IOP_SIM_CUMULATIVE.add("VAL_YES");
+        IOP_SIM_CUMULATIVE.add("VAL_NO");
+        transformWindow.addConstantInputItem("IOP_SIM_CUMULATIVE", IOP_SIM_CUMULATIVE, 0, true);
+
+        var IOP_SIM_STD_REPORT = new ArrayList<String>();
+        IOP_SIM_STD_REPORT.add("VAL_YES");
+        IOP_SIM_STD_REPORT.add("VAL_NO");
+        transformWindow.addConstantInputItem("IOP_SIM_STD_REPORT", IOP_SIM_STD_REPORT, 0, true);
+        
+        transformWindow.addIntegerInputItem("IOP_SPLIT_LEVEL_DOWN", 60, true);
+        
+        var IOP_SPLIT_PRESIM = new ArrayList<String>();
+        IOP_SPLIT_PRESIM.add("VAL_YES");
+        IOP_SPLIT_PRESIM.add("VAL_NO");
+        transformWindow.addConstantInputItem("IOP_SPLIT_PRESIM", IOP_SPLIT_PRESIM, 0, true);
+        
+        transformWindow.addIntegerInputItem("IOP_SPLIT_NUMBER", 6, true);
+        
+        var IOP_SPLIT_RESTART_FINISH = new ArrayList<String>();
+        IOP_SPLIT_RESTART_FINISH.add("VAL_YES");
+        IOP_SPLIT_RESTART_FINISH.add("VAL_NO");
+        transformWindow.addConstantInputItem("IOP_SPLIT_RESTART_FINISH", IOP_SPLIT_RESTART_FINISH, 1, true);
+        
+        transformWindow.addIntegerInputItem("IOP_SPLIT_PRESIM_RUNS", 10, true);
+        transformWindow.addDoubleInputItem("FOP_SIM_LENGTH", 50.0, true);
+        transformWindow.addDoubleInputItem("FOP_SIM_CONFIDENCE", 0.95, true);
+        transformWindow.addDoubleInputItem("FOP_SIM_ERROR", 0.1, true);
+    }
+    
+    private void initNumericOptions(TransformModalWindow transformWindow) {
+        var IOP_MC = new ArrayList<String>();
+        IOP_MC.add("VAL_CTMC");
+        IOP_MC.add("VAL_DTMC");
+        transformWindow.addConstantInputItem("IOP_MC", IOP_MC, 0, false);
+
+        var IOP_SSMETHOD = new ArrayList<String>();
+        IOP_SSMETHOD.add("VAL_SSSOR");
+        IOP_SSMETHOD.add("VAL_GASEI");
+        IOP_SSMETHOD.add("VAL_POWER");
+        transformWindow.addConstantInputItem("IOP_SSMETHOD", IOP_SSMETHOD, 0, false);
+
+        var IOP_SSDETECT = new ArrayList<String>();
+        IOP_SSDETECT.add("VAL_YES");
+        IOP_SSDETECT.add("VAL_NO");
+        transformWindow.addConstantInputItem("IOP_SSDETECT", IOP_SSDETECT, 0, false);
+        
+        transformWindow.addDoubleInputItem("FOP_SSPRES", 0.25, false);
+        
+        var IOP_TSMETHOD = new ArrayList<String>();
+        IOP_TSMETHOD.add("VAL_TSUNIF");
+        IOP_TSMETHOD.add("VAL_FOXUNIF");
+        transformWindow.addConstantInputItem("IOP_TSMETHOD", IOP_TSMETHOD, 1, false);
+        
+        var IOP_CUMULATIVE = new ArrayList<String>();
+        IOP_CUMULATIVE.add("VAL_YES");
+        IOP_CUMULATIVE.add("VAL_NO");
+        transformWindow.addConstantInputItem("IOP_CUMULATIVE", IOP_CUMULATIVE, 0, false);    
+
+        var IOP_SENSITIVITY = new ArrayList<String>();
+        IOP_SENSITIVITY.add("VAL_YES");
+        IOP_SENSITIVITY.add("VAL_NO");
+        transformWindow.addConstantInputItem("IOP_SENSITIVITY", IOP_SENSITIVITY, 1, false);
+        
+        transformWindow.addIntegerInputItem("IOP_ITERATIONS", 2000, false);
+        transformWindow.addDoubleInputItem("FOP_PRECISION", 0.000001, false);
+    }
+    
+    /**
+     * Reads the SPNP options of the transform window, so that they can be applied
+     * to transformators created on another thread or after the window is closed.
+     *
+     * @return Initializer which creates the options in a transformator.
+     */
+    private Consumer<DefaultTransformator> captureOptions(TransformModalWindow transformWindow) {
+        var options = new ArrayList<Consumer<DefaultTransformator>>();
+        GridPane pane;
+        if(transformWindow.simulationSelected()){
+            options.add(transformator -> transformator.createSPNPOptionConstant("IOP_SIMULATION", "VAL_YES"));
+            pane = transformWindow.getSimulationGroup();
+        }
+        else {
+            options.add(transformator -> transformator.createSPNPOptionConstant("IOP_SIMULATION", "VAL_NO"));
+            pane = transformWindow.getNumericGroup();
+        }
+
+        pane.getChildren().forEach(child -> {
+            
+            if(child instanceof TransformatorOptionConstant){
+                var option = (TransformatorOptionConstant) child;
+                var key = option.getKey();
+                var value = option.getOptionValue();
+                options.add(transformator -> transformator.createSPNPOptionConstant(key, value));
+            }
+            else if(child instanceof TransformatorOptionInteger){
+                var option = (TransformatorOptionInteger) child;
+                var key = option.getKey();
+                var value = option.getOptionValue();
+                options.add(transformator -> transformator.createSPNPOptionInteger(key, value));
+            }
+            else if(child instanceof TransformatorOptionDouble){
+                var option = (TransformatorOptionDouble) child;
+                var key = option.getKey();
+                var value = option.getOptionValue();
+                options.add(transformator -> transformator.createSPNPOptionDouble(key, value));
+            }
+        });
+        return transformator -> options.forEach(option -> option.accept(transformator));
+    }
+
+    private void createActivationSortedMessages(Activation activation) {
+        var messages = new ArrayList<>(activation.getMessages());
+        
+        Collections.sort(messages, (m1, m2) -> {
+            return m1.getOrder().compareTo(m2.getOrder());
+        });
+
+        activation.setSortedMessages(messages);
+    }
+    
+    private void createLifelineSortedActivations(Lifeline lifeline) {
+        var sequenceDiagramView = view.getSequenceDiagramView();
+
+        var activationIDs = new ArrayList<Integer>();
+        lifeline.getActivations().forEach(activation -> {
+            activationIDs.add(activation.getObjectInfo().getID());
+        });
+
+        var sortedActivationViews = sequenceDiagramView.sortActivations(activationIDs);
+        var sortedActivations = new ArrayList<Activation>();
+        for(var activationView : sortedActivationViews){
+            var activation = lifeline.getActivation(activationView.getObjectInfo().getID());
+            if(activation != null){
+                sortedActivations.add(activation);
+            }
+        }
+        lifeline.setSortedActivations(sortedActivations);
+    }
+    
+    private void performPreTransformActions() {
+        try(var phase = Metrics.phase("ui.preTransform")) {
+            model.getSequenceDiagram().getLifelines().forEach(lifeline -> {
+                createLifelineSortedActivations(lifeline);
+
+                lifeline.getActivations().forEach(activation -> {
+                    createActivationSortedMessages(activation);
+                });
+            });
+        }
+    }
+}
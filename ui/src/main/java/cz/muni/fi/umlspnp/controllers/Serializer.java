@@ -0,0 +1,392 @@
+package cz.muni.fi.umlspnp.controllers;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSerializationContext;
+import com.google.gson.JsonSerializer;
+import cz.muni.fi.umlspnp.common.ModelSerializer;
+import cz.muni.fi.umlspnp.metrics.Metrics;
+import cz.muni.fi.umlspnp.metrics.SerializationEvent;
+import cz.muni.fi.umlspnp.controllers.deploymentdiagram.DeploymentDiagramController;
+import cz.muni.fi.umlspnp.controllers.sequencediagram.SequenceDiagramController;
+import cz.muni.fi.umlspnp.models.AnalysisPlan;
+import cz.muni.fi.umlspnp.models.MainModel;
+import cz.muni.fi.umlspnp.models.ParameterSweep;
+import cz.muni.fi.umlspnp.models.deploymentdiagram.DeploymentDiagram;
+import cz.muni.fi.umlspnp.models.sequencediagram.SequenceDiagram;
+import cz.muni.fi.umlspnp.views.DiagramView;
+import cz.muni.fi.umlspnp.views.MainView;
+import cz.muni.fi.umlspnp.views.common.BasicRectangle;
+import cz.muni.fi.umlspnp.views.common.ConnectionSlot;
+import cz.muni.fi.umlspnp.views.common.ConnectionView;
+import cz.muni.fi.umlspnp.views.common.NamedRectangle;
+import cz.muni.fi.umlspnp.views.deploymentdiagram.CommunicationLinkView;
+import cz.muni.fi.umlspnp.views.deploymentdiagram.DeploymentDiagramView;
+import cz.muni.fi.umlspnp.views.sequencediagram.ActivationView;
+import cz.muni.fi.umlspnp.views.sequencediagram.LifelineView;
+import cz.muni.fi.umlspnp.views.sequencediagram.LoopView;
+import cz.muni.fi.umlspnp.views.sequencediagram.MessageView;
+import cz.muni.fi.umlspnp.views.sequencediagram.SequenceDiagramView;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import org.hildan.fxgson.FxGson;
+
+/**
+ * Serializes and deserializes the UML models and views to/from their JSON representation,
+ * the models are serialized by the ModelSerializer.
+ *
+ */
+public class Serializer {
+    private final ModelSerializer modelSerializer = new ModelSerializer();
+    private final Gson gson;
+    
+    private final MainController mainController;
+    private final MainModel mainModel;
+    private final MainView mainView;
+    
+    public Serializer(MainController mainController) {
+        this.mainController = mainController;
+        this.mainModel = mainController.getModel();
+        this.mainView = mainController.getView();
+        
+        var mainControllerSerializer = createMainControllerSerializer();
+        var rectangleSerializer = createRectangleSerializer();
+        var connectionSlotSerializer = createConnectionSlotSerializer();
+        var connectionViewSerializer = createConnectionViewSerializer();
+        var lifelineViewSerializer = createLifelineViewSerializer(rectangleSerializer);
+        
+        var mainControllerDeserializer = createMainControllerDeserializer();
+        var deploymentDiagramDeserializer = createDeploymentDiagramDeserializer();
+        var sequenceDiagramDeserializer = createSequenceDiagramDeserializer();
+        var analysisPlanDeserializer = createAnalysisPlanDeserializer();
+        var parameterSweepDeserializer = createParameterSweepDeserializer();
+        var deploymentDiagramViewDeserializer = createDeploymentDiagramViewDeserializer();
+        var sequenceDiagramViewDeserializer = createSequenceDiagramViewDeserializer();
+        
+        gson = modelSerializer.registerSerializers(FxGson.coreBuilder()
+                .setPrettyPrinting()
+                .excludeFieldsWithoutExposeAnnotation())
+
+                /* Serializers (the models are registered by the ModelSerializer) */
+                .registerTypeAdapter(MainController.class, mainControllerSerializer)
+                // Views
+                .registerTypeAdapter(BasicRectangle.class, rectangleSerializer)
+                .registerTypeAdapter(NamedRectangle.class, rectangleSerializer)
+                .registerTypeAdapter(ConnectionSlot.class, connectionSlotSerializer)
+                .registerTypeAdapter(CommunicationLinkView.class, connectionViewSerializer)
+                .registerTypeAdapter(LifelineView.class, lifelineViewSerializer)
+                .registerTypeAdapter(ActivationView.class, rectangleSerializer)
+                .registerTypeAdapter(MessageView.class, connectionViewSerializer)
+                .registerTypeAdapter(LoopView.class, rectangleSerializer)
+                
+                /* Deserializers */
+                .registerTypeAdapter(MainController.class, mainControllerDeserializer)
+                // Models
+                .registerTypeAdapter(DeploymentDiagram.class, deploymentDiagramDeserializer)
+                .registerTypeAdapter(SequenceDiagram.class, sequenceDiagramDeserializer)
+                .registerTypeAdapter(AnalysisPlan.class, analysisPlanDeserializer)
+                .registerTypeAdapter(ParameterSweep.class, parameterSweepDeserializer)
+                // Views
+                .registerTypeAdapter(DeploymentDiagramView.class, deploymentDiagramViewDeserializer)
+                .registerTypeAdapter(SequenceDiagramView.class, sequenceDiagramViewDeserializer)
+                .create();
+    }
+    
+    public String toJson(MainController mainController) {
+        return gson.toJson(mainController);
+    }
+
+    public void fromJson(String json) {
+        gson.fromJson(json, MainController.class);
+    }
+
+    public boolean saveToFile(File file) {
+        var event = new SerializationEvent("save", file.getAbsolutePath());
+        try(var phase = Metrics.phase("serializer.save", event)) {
+            var writer = new FileWriter(file);
+            gson.toJson(mainController, writer);
+            writer.close();
+            event.setBytes(file.length());
+            Metrics.count("serializer.save.bytes", event.getBytes());
+            return true;
+        } catch (IOException ex) {
+            System.err.println("Error: unable to save file. " + ex.getMessage());
+        }
+        return false;
+    }
+    
+    public boolean loadFromFile(File file) {
+        var event = new SerializationEvent("load", file.getAbsolutePath());
+        try(var phase = Metrics.phase("serializer.load", event)) {
+            event.setBytes(file.length());
+            Metrics.count("serializer.load.bytes", event.getBytes());
+            var reader = new FileReader(file);
+            gson.fromJson(reader, MainController.class);
+            reader.close();
+            return true;
+        } catch (IOException ex) {
+            System.err.println("Error: unable to load file. " + ex.getMessage());
+        }
+        return false;
+    }
+    
+    /**
+     * Copies the model into a new model which is not referenced by any view or controller,
+     * so it can be transformed on a background thread while the original is being edited
+     * (see ModelSerializer.createSnapshot).
+     *
+     * @return Detached copy of the model with the same object identifiers.
+     */
+    public MainModel createModelSnapshot() {
+        try(var phase = Metrics.phase("ui.snapshot")) {
+            return modelSerializer.createSnapshot(mainModel);
+        }
+    }
+    
+    private JsonSerializer<MainController> createMainControllerSerializer() {
+        return new JsonSerializer<MainController>() {
+            @Override
+            public JsonElement serialize(MainController src, Type typeOfSrc, JsonSerializationContext context) {
+                var modelTree = context.serialize(src.getModel(), MainModel.class);
+                var viewTree = context.serialize(src.getView(), MainView.class);
+
+                var json = new JsonObject();
+                json.add("model", modelTree);
+                json.add("view", viewTree);
+                return json;
+            }
+        };
+    }
+            
+    private JsonSerializer<BasicRectangle> createRectangleSerializer() {
+        return new JsonSerializer<BasicRectangle>() {  
+            @Override
+            public JsonElement serialize(BasicRectangle src, Type typeOfSrc, JsonSerializationContext context) {
+                JsonObject json = new JsonObject();
+                json.addProperty("objectId", src.getObjectInfo().getID());
+                json.addProperty("width", src.getWidth());
+                json.addProperty("height", src.getHeight());
+                json.addProperty("x", src.getTranslateX());
+                json.addProperty("y", src.getTranslateY());
+                return json;
+            }
+        };
+    }
+    
+    private JsonSerializer<LifelineView> createLifelineViewSerializer(JsonSerializer<BasicRectangle> rectangleSerializer) {
+        return new JsonSerializer<LifelineView>() {  
+            @Override
+            public JsonElement serialize(LifelineView src, Type typeOfSrc, JsonSerializationContext context) {
+                JsonObject json = rectangleSerializer.serialize(src, typeOfSrc, context).getAsJsonObject();
+                json.add("ActivationViews", context.serialize(src.getActivationViews()));
+                return json;
+            }
+        };
+    }
+
+    private JsonSerializer<ConnectionSlot> createConnectionSlotSerializer() {
+        return new JsonSerializer<ConnectionSlot>() {  
+            @Override
+            public JsonElement serialize(ConnectionSlot src, Type typeOfSrc, JsonSerializationContext context) {
+                JsonObject json = new JsonObject();
+                json.addProperty("x", src.getTranslateX());
+                json.addProperty("y", src.getTranslateY());
+                return json;
+            }
+        };
+    }
+            
+    private JsonSerializer<ConnectionView> createConnectionViewSerializer() {
+        return new JsonSerializer<ConnectionView>() {  
+            @Override
+            public JsonElement serialize(ConnectionView src, Type typeOfSrc, JsonSerializationContext context) {
+                JsonObject json = new JsonObject();
+                json.addProperty("objectId", src.getObjectInfo().getID());
+
+                var fromSlot = context.serialize(src.getSourceConnectionSlot(), ConnectionSlot.class);
+                json.add("fromSlot", fromSlot);
+
+                var toSlot = context.serialize(src.getDestinationConnectionSlot(), ConnectionSlot.class);
+                json.add("toSlot", toSlot);
+
+                return json;
+            }
+        };
+    }
+
+    private JsonDeserializer<MainController> createMainControllerDeserializer() {
+        return new JsonDeserializer<MainController>() {
+            @Override
+            public MainController deserialize(JsonElement je, Type type, JsonDeserializationContext jdc) throws JsonParseException {
+                mainModel.clear();
+                mainView.reinit();
+
+                JsonObject jobj = je.getAsJsonObject();
+                var modelJson = jobj.get("model");
+                var viewJson = jobj.get("view");
+
+                jdc.deserialize(modelJson, MainModel.class);
+                jdc.deserialize(viewJson, MainView.class);
+
+                return null;
+            }
+        };
+    }
+
+    private JsonDeserializer<DeploymentDiagram> createDeploymentDiagramDeserializer() {
+        return new JsonDeserializer<DeploymentDiagram>() {
+            @Override
+            public DeploymentDiagram deserialize(JsonElement je, Type type, JsonDeserializationContext jdc) throws JsonParseException {
+                var result = modelSerializer.fromJson(je, DeploymentDiagram.class);
+                mainModel.setDeploymentDiagram(result);
+                mainController.setDeploymentDiagramController(new DeploymentDiagramController(mainModel, mainView));
+
+                modelSerializer.readDeploymentDiagramElements(je, result);
+                return result;
+            }
+        };
+    }
+
+    private JsonDeserializer<AnalysisPlan> createAnalysisPlanDeserializer() {
+        return new JsonDeserializer<AnalysisPlan>() {
+            @Override
+            public AnalysisPlan deserialize(JsonElement je, Type type, JsonDeserializationContext jdc) throws JsonParseException {
+                var result = modelSerializer.fromJson(je, AnalysisPlan.class);
+                mainModel.setAnalysisPlan(result);
+                return result;
+            }
+        };
+    }
+
+    private JsonDeserializer<ParameterSweep> createParameterSweepDeserializer() {
+        return new JsonDeserializer<ParameterSweep>() {
+            @Override
+            public ParameterSweep deserialize(JsonElement je, Type type, JsonDeserializationContext jdc) throws JsonParseException {
+                var result = modelSerializer.fromJson(je, ParameterSweep.class);
+                mainModel.setParameterSweep(result);
+                return result;
+            }
+        };
+    }
+
+    private JsonDeserializer<SequenceDiagram> createSequenceDiagramDeserializer() {
+        return new JsonDeserializer<SequenceDiagram>() {
+            @Override
+            public SequenceDiagram deserialize(JsonElement je, Type type, JsonDeserializationContext jdc) throws JsonParseException {
+                var dd = mainModel.getDeploymentDiagram();
+                var result = modelSerializer.fromJson(je, SequenceDiagram.class);
+                mainModel.setSequenceDiagram(result);
+                mainController.setSequenceDiagramController(new SequenceDiagramController(mainModel, mainView));
+
+                modelSerializer.readSequenceDiagramElements(je, dd, result);
+                return result;
+            }
+        };
+    }
+            
+            
+    private JsonDeserializer<DeploymentDiagramView> createDeploymentDiagramViewDeserializer() {
+        return new JsonDeserializer<DeploymentDiagramView>() {  
+            @Override
+            public DeploymentDiagramView deserialize(JsonElement je, Type type, JsonDeserializationContext jdc) throws JsonParseException {
+                var ddv = mainView.getDeploymentDiagramView();
+
+                JsonObject jobj = je.getAsJsonObject();
+                var elements = jobj.get("allElements").getAsJsonObject();
+                var nodes = elements.get("allNodes").getAsJsonObject().entrySet();
+                var links = elements.get("allConnections").getAsJsonObject().entrySet();
+
+                nodes.forEach(entry -> {
+                    deserializeRectangle(ddv, entry.getValue());
+                });
+
+                links.forEach(entry -> {
+                    deserializeConnectionView(ddv, entry.getValue());
+                });
+
+                return null;
+            }
+        };
+    }
+
+    private JsonDeserializer<SequenceDiagramView> createSequenceDiagramViewDeserializer() {
+        return new JsonDeserializer<SequenceDiagramView>() {  
+            @Override
+            public SequenceDiagramView deserialize(JsonElement je, Type type, JsonDeserializationContext jdc) throws JsonParseException {
+                var sdv = mainView.getSequenceDiagramView();
+
+                JsonObject jobj = je.getAsJsonObject();
+                var loops = jobj.get("loopViews").getAsJsonObject().entrySet();
+                var elements = jobj.get("allElements").getAsJsonObject();
+                var lifelines = elements.get("allNodes").getAsJsonObject().entrySet();
+                var messages = elements.get("allConnections").getAsJsonObject().entrySet();
+
+                lifelines.forEach(entry -> {
+                    var element = entry.getValue();
+                    var jsonObj = element.getAsJsonObject();
+                    var activationsArr = jsonObj.get("ActivationViews").getAsJsonArray();
+                    deserializeRectangle(sdv, element);
+                    activationsArr.forEach(activation -> {
+                        deserializeRectangle(sdv, activation);
+                    });
+                });
+
+                messages.forEach(entry -> {
+                    deserializeConnectionView(sdv, entry.getValue());
+                });
+
+                loops.forEach(entry -> {
+                    deserializeRectangle(sdv, entry.getValue());
+                });
+
+                mainController.getSequenceDiagramController().refresh();
+                return null;
+            }
+        };
+    }
+
+    private void deserializeRectangle(DiagramView dv, JsonElement rectangle) {
+        var nodeObj = rectangle.getAsJsonObject();
+
+        var nodeId = nodeObj.get("objectId").getAsInt();
+        var width = nodeObj.get("width").getAsDouble();
+        var height = nodeObj.get("height").getAsDouble();
+        var x = nodeObj.get("x").getAsDouble();
+        var y = nodeObj.get("y").getAsDouble();
+
+        var nodeView = dv.getNode(nodeId);
+        nodeView.changeDimensions(width, height);
+        nodeView.setTranslateX(x);
+        nodeView.setTranslateY(y);
+    }
+    
+    private void deserializeConnectionView(DiagramView dv, JsonElement connection) {
+        var connectionObj = connection.getAsJsonObject();
+
+        var connectionId = connectionObj.get("objectId").getAsInt();
+        var fromSlotObj = connectionObj.get("fromSlot").getAsJsonObject();
+        var fromSlotX = fromSlotObj.get("x").getAsDouble();
+        var fromSlotY = fromSlotObj.get("y").getAsDouble();
+        
+        var toSlotObj = connectionObj.get("toSlot").getAsJsonObject();
+        var toSlotX = toSlotObj.get("x").getAsDouble();
+        var toSlotY = toSlotObj.get("y").getAsDouble();
+        
+        var connectionView = dv.getConnection(connectionId);
+        var sourceSlot = connectionView.getSourceConnectionSlot();
+        var destinationSlot = connectionView.getDestinationConnectionSlot();
+        
+        sourceSlot.setTranslateX(fromSlotX);
+        sourceSlot.setTranslateY(fromSlotY);
+        
+        destinationSlot.setTranslateX(toSlotX);
+        destinationSlot.setTranslateY(toSlotY);
+    }
+}
@@ -2,6 +2,7 @@ package cz.muni.fi.umlspnp.controllers.deploymentdiagram;
 
 import cz.muni.fi.umlspnp.common.Utils;
 import cz.muni.fi.umlspnp.controllers.BaseController;
+import cz.muni.fi.umlspnp.controllers.FxAdapters;
 import cz.muni.fi.umlspnp.models.MainModel;
 import cz.muni.fi.umlspnp.models.deploymentdiagram.Artifact;
 import cz.muni.fi.umlspnp.views.MainView;
@@ -20,7 +21,7 @@ public class ArtifactController extends BaseController<Artifact, ArtifactView>{
                                 ArtifactView view) {
         super(mainModel, mainView, model, view);
         
-        view.getNameProperty().bind(model.getNameProperty());
+        view.getNameProperty().bind(FxAdapters.adapt(model.getNameProperty()));
         artifactMenuInit();
     }
 
@@ -34,6 +35,6 @@ public class ArtifactController extends BaseController<Artifact, ArtifactView>{
                                () -> {deploymentDiagram.removeNode(model.getObjectInfo().getID());});
 
         view.createStringMenu("Rename", "Rename artifact", "New name",
-                              model.getNameProperty(), Utils.SPNP_NAME_RESTRICTION_REGEX);
+                              FxAdapters.adapt(model.getNameProperty()), Utils.SPNP_NAME_RESTRICTION_REGEX);
     }
 }
@@ -2,6 +2,7 @@ package cz.muni.fi.umlspnp.controllers.deploymentdiagram;
 
 import cz.muni.fi.umlspnp.common.Utils;
 import cz.muni.fi.umlspnp.controllers.BaseController;
+import cz.muni.fi.umlspnp.controllers.FxAdapters;
 import cz.muni.fi.umlspnp.models.ConnectionFailure;
 import cz.muni.fi.umlspnp.models.MainModel;
 import cz.muni.fi.umlspnp.models.deploymentdiagram.CommunicationLink;
@@ -56,7 +57,7 @@ public class CommunicationLinkController extends BaseController<CommunicationLin
 
     private EditableListView createLinkTypeProperties(){
         var deploymentDiagram = mainModel.getDeploymentDiagram();
-        var linkTypes = deploymentDiagram.getAllLinkTypes();
+        var linkTypes = FxAdapters.adapt(deploymentDiagram.getAllLinkTypes());
         var linkTypesView = new EditableListView("Link type:", linkTypes);
         
         var selectBtnHandler = (EventHandler<ActionEvent>) (ActionEvent e) -> {
@@ -87,8 +88,8 @@ public class CommunicationLinkController extends BaseController<CommunicationLin
             if(selected != null){
                 var editWindow = new EditAllLinkTypesModalWindow((Stage) linkTypesView.getScene().getWindow(),
                         "Edit link type",
-                        selected.nameProperty(),
-                        selected.rateProperty());
+                        FxAdapters.adapt(selected.nameProperty()),
+                        FxAdapters.adapt(selected.rateProperty()));
                 editWindow.showAndWait();
                 linkTypesView.refresh();
             }
@@ -107,7 +108,7 @@ public class CommunicationLinkController extends BaseController<CommunicationLin
 
     private EditableListView createFailureTypesProperties(){
         var failures = model.getLinkFailures();
-        var failuresView = new EditableListView("Failure types:", failures);
+        var failuresView = new EditableListView("Failure types:", FxAdapters.adapt(failures));
 
         var addBtnHandler = (EventHandler<ActionEvent>) (ActionEvent e) -> {
             model.addLinkFailure(new ConnectionFailure("New failure", 0.01));
@@ -130,8 +131,8 @@ public class CommunicationLinkController extends BaseController<CommunicationLin
             if(selected != null){
                 var editWindow = new EditFailureTypeModalWindow(   (Stage) failuresView.getScene().getWindow(),
                         "Edit failure type",
-                        selected.nameProperty(),
-                        selected.rateProperty());
+                        FxAdapters.adapt(selected.nameProperty()),
+                        FxAdapters.adapt(selected.rateProperty()));
                 editWindow.showAndWait();
                 failuresView.refresh();
             }
@@ -145,7 +146,7 @@ public class CommunicationLinkController extends BaseController<CommunicationLin
     }
 
     private void communicationLinkAnnotationsInit(){
-        view.getLinkTypeAnnotation().setItems(model.getLinkTypeList());
-        view.getLinkFailuresAnnotation().setItems(model.getLinkFailures());
+        view.getLinkTypeAnnotation().setItems(FxAdapters.adapt(model.getLinkTypeList()));
+        view.getLinkFailuresAnnotation().setItems(FxAdapters.adapt(model.getLinkFailures()));
     }
 }
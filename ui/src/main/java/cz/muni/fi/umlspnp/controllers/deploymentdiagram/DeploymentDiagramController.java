@@ -8,7 +8,10 @@ import cz.muni.fi.umlspnp.models.deploymentdiagram.RedundancyGroup;
 import cz.muni.fi.umlspnp.models.deploymentdiagram.DeploymentTarget;
 import cz.muni.fi.umlspnp.models.MainModel;
 import cz.muni.fi.umlspnp.common.Utils;
+import cz.muni.fi.umlspnp.common.observable.ListChangeListener;
+import cz.muni.fi.umlspnp.common.observable.MapChangeListener;
 import cz.muni.fi.umlspnp.controllers.BaseController;
+import cz.muni.fi.umlspnp.controllers.FxAdapters;
 import cz.muni.fi.umlspnp.models.OperationType;
 import cz.muni.fi.umlspnp.views.common.layouts.BooleanModalWindow;
 import cz.muni.fi.umlspnp.views.common.layouts.EditableListView;
@@ -18,8 +21,6 @@ import java.util.ArrayList;
 import java.util.List;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
-import javafx.collections.ListChangeListener;
-import javafx.collections.MapChangeListener;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.scene.control.Menu;
@@ -96,9 +97,9 @@ public class DeploymentDiagramController extends BaseController<DeploymentDiagra
     }
     
     private void communicationLinkManagerInit() {
-        model.addCommunicationLinksChangeListener(new MapChangeListener(){
+        model.addCommunicationLinksChangeListener(new MapChangeListener<Number, CommunicationLink>(){
             @Override
-            public void onChanged(MapChangeListener.Change change) {
+            public void onChanged(MapChangeListener.Change<? extends Number, ? extends CommunicationLink> change) {
                 if(change.wasAdded()){
                     if(change.getValueAdded() instanceof CommunicationLink) {
                         var newConnection = (CommunicationLink) change.getValueAdded();
@@ -122,9 +123,9 @@ public class DeploymentDiagramController extends BaseController<DeploymentDiagra
     }
     
     private void nodeManagerInit() {
-        model.addAllNodesChangeListener(new MapChangeListener(){
+        model.addAllNodesChangeListener(new MapChangeListener<Number, Artifact>(){
             @Override
-            public void onChanged(MapChangeListener.Change change) {
+            public void onChanged(MapChangeListener.Change<? extends Number, ? extends Artifact> change) {
                 if(change.wasAdded()){
                     var newNode = change.getValueAdded();
                     if(newNode instanceof DeploymentTarget){
@@ -208,22 +209,20 @@ public class DeploymentDiagramController extends BaseController<DeploymentDiagra
     
     private void globalOperationTypesInit() {
         var allOperationTypes = model.getOperationTypes();
-        allOperationTypes.addListener(new ListChangeListener(){
+        allOperationTypes.addListener(new ListChangeListener<OperationType>(){
             @Override
-            public void onChanged(ListChangeListener.Change change) {
-                while (change.next()) {
-                    if (change.wasRemoved()) {
-                        change.getRemoved().forEach(removedItem -> {
-                            model.getNodes().forEach(node -> {
-                                if(node instanceof DeploymentTarget) {
-                                    ((DeploymentTarget) node).getStateOperations().forEach(stateOperation -> {
-                                        stateOperation.getOperationEntries().removeIf(operationEntry -> 
-                                                removedItem.equals(operationEntry.getOperationType()));
-                                    });
-                                }
-                            });
+            public void onChanged(ListChangeListener.Change<? extends OperationType> change) {
+                if (change.wasRemoved()) {
+                    change.getRemoved().forEach(removedItem -> {
+                        model.getNodes().forEach(node -> {
+                            if(node instanceof DeploymentTarget) {
+                                ((DeploymentTarget) node).getStateOperations().forEach(stateOperation -> {
+                                    stateOperation.getOperationEntries().removeIf(operationEntry -> 
+                                            removedItem.equals(operationEntry.getOperationType()));
+                                });
+                            }
                         });
-                    }
+                    });
                 }
             }
         });
@@ -231,7 +230,7 @@ public class DeploymentDiagramController extends BaseController<DeploymentDiagra
     
     private EditableListView createOperationTypesView(){
         var operationTypes = model.getOperationTypes();
-        var operationTypesView = new EditableListView("Operation Types:", operationTypes);
+        var operationTypesView = new EditableListView("Operation Types:", FxAdapters.adapt(operationTypes));
         
         var addBtnHandler = (EventHandler<ActionEvent>) (ActionEvent e) -> {
             model.addOperationType(new OperationType("New operation"));
@@ -255,7 +254,7 @@ public class DeploymentDiagramController extends BaseController<DeploymentDiagra
 
         var editBtnHandler = (EventHandler<ActionEvent>) (ActionEvent e) -> {
             var selected = (OperationType) operationTypesView.getSelected();
-            mainView.createStringModalWindow("Rename", "New name", selected.nameProperty(), null);
+            mainView.createStringModalWindow("Rename", "New name", FxAdapters.adapt(selected.nameProperty()), null);
             operationTypesView.refresh();
         };
         
@@ -267,7 +266,7 @@ public class DeploymentDiagramController extends BaseController<DeploymentDiagra
 
     private EditableListView createRedundancyGroupsView(){
         var redundancyGroups = model.getRedundancyGroups();
-        var redundancyGroupsView = new EditableListView("Redundancy Groups:", redundancyGroups);
+        var redundancyGroupsView = new EditableListView("Redundancy Groups:", FxAdapters.adapt(redundancyGroups));
         
         var addBtnHandler = (EventHandler<ActionEvent>) (ActionEvent e) -> {
             model.createRedundancyGroup();
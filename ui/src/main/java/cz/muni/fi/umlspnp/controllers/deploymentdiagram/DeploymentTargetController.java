@@ -1,7 +1,10 @@
 package cz.muni.fi.umlspnp.controllers.deploymentdiagram;
 
 import cz.muni.fi.umlspnp.common.Utils;
+import cz.muni.fi.umlspnp.common.observable.ChangeListener;
+import cz.muni.fi.umlspnp.common.observable.ObservableValue;
 import cz.muni.fi.umlspnp.controllers.BaseController;
+import cz.muni.fi.umlspnp.controllers.FxAdapters;
 import cz.muni.fi.umlspnp.models.MainModel;
 import cz.muni.fi.umlspnp.models.OperationEntry;
 import cz.muni.fi.umlspnp.models.OperationType;
@@ -19,8 +22,6 @@ import cz.muni.fi.umlspnp.views.deploymentdiagram.EditTransitionModalWindow;
 import java.util.ArrayList;
 import java.util.List;
 import javafx.beans.binding.Bindings;
-import javafx.beans.value.ChangeListener;
-import javafx.beans.value.ObservableValue;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
@@ -39,7 +40,7 @@ public class DeploymentTargetController extends BaseController<DeploymentTarget,
                                        DeploymentTargetView view) {
         super(mainModel, mainView, model, view);
         
-        view.getNameProperty().bind(model.getNameProperty());
+        view.getNameProperty().bind(FxAdapters.adapt(model.getNameProperty()));
         redundancyGroupInit();
         deploymentTargetMenuInit();
         deploymentTargetAnnotationsInit();
@@ -57,12 +58,12 @@ public class DeploymentTargetController extends BaseController<DeploymentTarget,
             @Override
             public void changed(ObservableValue ov, Object oldValue, Object newValue) {
                 if(newValue == null) {
-                    view.getNameProperty().bind(model.getNameProperty());
+                    view.getNameProperty().bind(FxAdapters.adapt(model.getNameProperty()));
                 }
                 else{
                     view.getNameProperty().bind(
                             Bindings.format("[%d.] ", model.getRedundancyGroup().getGroupID())
-                            .concat(model.getNameProperty()));
+                            .concat(FxAdapters.adapt(model.getNameProperty())));
                 }
             }
         });
@@ -81,7 +82,7 @@ public class DeploymentTargetController extends BaseController<DeploymentTarget,
                                () -> {deploymentDiagram.removeNode(deploymentTargetObjectID);});
         
         view.createStringMenu("Rename", "Rename deployment target", "New name",
-                              model.getNameProperty(), Utils.SPNP_NAME_RESTRICTION_REGEX);
+                              FxAdapters.adapt(model.getNameProperty()), Utils.SPNP_NAME_RESTRICTION_REGEX);
 
         view.createToggleAnnotationsMenu();
 
@@ -118,9 +119,9 @@ public class DeploymentTargetController extends BaseController<DeploymentTarget,
     }
     
     private EditableListView createStateTransitionsProperties(){
-        var states = model.getStates();
+        var states = FxAdapters.adapt(model.getStates());
         var transitions = model.getStateTransitions();
-        var transitionsView = new EditableListView("State Transitions:", transitions);
+        var transitionsView = new EditableListView("State Transitions:", FxAdapters.adapt(transitions));
         
         var addBtnHandler = (EventHandler<ActionEvent>) (ActionEvent e) -> {
             if(states.size() >= 2) {
@@ -151,10 +152,10 @@ public class DeploymentTargetController extends BaseController<DeploymentTarget,
             if(selected != null){
                 EditTransitionModalWindow editWindow = new EditTransitionModalWindow(   (Stage) transitionsView.getScene().getWindow(),
                         "Edit transition",
-                        selected.nameProperty(),
-                        selected.rateProperty(),
-                        selected.fromStateProperty(),
-                        selected.toStateProperty(),
+                        FxAdapters.adapt(selected.nameProperty()),
+                        FxAdapters.adapt(selected.rateProperty()),
+                        FxAdapters.adapt(selected.fromStateProperty()),
+                        FxAdapters.adapt(selected.toStateProperty()),
                         states
                 );
                 editWindow.showAndWait();
@@ -170,9 +171,9 @@ public class DeploymentTargetController extends BaseController<DeploymentTarget,
     }
 
     private EditableListView createStateOperationsProperties(){
-        var statesWithNoOperations = model.getStatesWithoutOperations();
+        var statesWithNoOperations = FxAdapters.adapt(model.getStatesWithoutOperations());
         var operations = model.getStateOperations();
-        var operationsView = new EditableListView("Supported Operations:", operations);
+        var operationsView = new EditableListView("Supported Operations:", FxAdapters.adapt(operations));
         
         var addBtnHandler = (EventHandler<ActionEvent>) (ActionEvent e) -> {
             if(statesWithNoOperations.size() >= 1)
@@ -196,7 +197,7 @@ public class DeploymentTargetController extends BaseController<DeploymentTarget,
                 EditableListView operationEntriesView = createStateOperationEntriesProperties(selected);
                 EditOperationModalWindow editWindow = new EditOperationModalWindow(   (Stage) operationsView.getScene().getWindow(),
                         "Edit operation",
-                        selected.stateProperty(),
+                        FxAdapters.adapt(selected.stateProperty()),
                         statesWithNoOperations,
                         operationEntriesView
                 );
@@ -212,9 +213,9 @@ public class DeploymentTargetController extends BaseController<DeploymentTarget,
         return operationsView;
     }
 
-    private ObservableList<OperationType> getAvailableOperationTypes(ObservableList<OperationType> allOperationTypes,
+    private ObservableList<OperationType> getAvailableOperationTypes(cz.muni.fi.umlspnp.common.observable.ObservableList<OperationType> allOperationTypes,
                                                                      List<OperationEntry> operationEntries) {
-        return allOperationTypes.filtered(operationType -> {
+        return FxAdapters.adapt(allOperationTypes).filtered(operationType -> {
             for(var operationEntry : operationEntries) {
                 if(operationEntry.getOperationType().equals(operationType))
                     return false;
@@ -226,7 +227,7 @@ public class DeploymentTargetController extends BaseController<DeploymentTarget,
     private EditableListView createStateOperationEntriesProperties(StateOperation operation){
         var allOperationTypes = mainModel.getDeploymentDiagram().getOperationTypes();
         var operationEntries = operation.getOperationEntries();
-        var operationEntriesView = new EditableListView("Operations:", operation.getOperationEntries());
+        var operationEntriesView = new EditableListView("Operations:", FxAdapters.adapt(operationEntries));
 
         var addBtnHandler = (EventHandler<ActionEvent>) (ActionEvent e) -> {
             var operationEntry = new OperationEntry(null, -1);
@@ -234,8 +235,8 @@ public class DeploymentTargetController extends BaseController<DeploymentTarget,
             var editWindow = new EditOperationEntryModalWindow( (Stage) operationEntriesView.getScene().getWindow(),
                     "Edit Operation Entry",
                     availableOperationTypes,
-                    operationEntry.operationTypeProperty(),
-                    operationEntry.speedLimitProperty()
+                    FxAdapters.adapt(operationEntry.operationTypeProperty()),
+                    FxAdapters.adapt(operationEntry.speedLimitProperty())
             );
             editWindow.showAndWait();
             if(operationEntry.getOperationType() != null){
@@ -258,8 +259,8 @@ public class DeploymentTargetController extends BaseController<DeploymentTarget,
             var editWindow = new EditOperationEntryModalWindow( (Stage) operationEntriesView.getScene().getWindow(),
                     "Edit Operation Entry",
                     availableOperationTypes,
-                    selected.operationTypeProperty(),
-                    selected.speedLimitProperty()
+                    FxAdapters.adapt(selected.operationTypeProperty()),
+                    FxAdapters.adapt(selected.speedLimitProperty())
             );
             editWindow.showAndWait();
 
@@ -280,7 +281,7 @@ public class DeploymentTargetController extends BaseController<DeploymentTarget,
         };
         
         var addButton = operationEntriesView.createButton("Add", addBtnHandler, false);
-        addButton.disableProperty().bind(Bindings.size(operationEntries).greaterThanOrEqualTo(Bindings.size(allOperationTypes)));
+        addButton.disableProperty().bind(Bindings.size(FxAdapters.adapt(operationEntries)).greaterThanOrEqualTo(Bindings.size(FxAdapters.adapt(allOperationTypes))));
 
         operationEntriesView.createButton("Edit", editBtnHandler, true);
         operationEntriesView.createButton("Remove", removeBtnHandler, true);
@@ -289,7 +290,7 @@ public class DeploymentTargetController extends BaseController<DeploymentTarget,
 
     private EditableListView createStatesProperties(Runnable refreshCallback){
         var states = model.getStates();
-        var statesView = new EditableListView("States:", states);
+        var statesView = new EditableListView("States:", FxAdapters.adapt(states));
 
         var addBtnHandler = (EventHandler<ActionEvent>) (ActionEvent e) -> {
             model.addState(new State("New state"));
@@ -319,7 +320,7 @@ public class DeploymentTargetController extends BaseController<DeploymentTarget,
                 }
                 else {
                     var promptText = String.format("New name of the state \"%s\":", Utils.shortenString(selected.toString(), 50));
-                    view.createStringModalWindow("Rename state", promptText, selected.nameProperty(), Utils.SPNP_NAME_RESTRICTION_REGEX);
+                    view.createStringModalWindow("Rename state", promptText, FxAdapters.adapt(selected.nameProperty()), Utils.SPNP_NAME_RESTRICTION_REGEX);
                     statesView.refresh();
                     refreshCallback.run();
                 }
@@ -345,7 +346,7 @@ public class DeploymentTargetController extends BaseController<DeploymentTarget,
     private EditableListView createRedundancyGroupView(){
         var deploymentDiagram = mainModel.getDeploymentDiagram();
         var redundancyGroups = deploymentDiagram.getRedundancyGroups();
-        var redundancyGroupsView = new EditableListView("Redundancy group:", redundancyGroups);
+        var redundancyGroupsView = new EditableListView("Redundancy group:", FxAdapters.adapt(redundancyGroups));
         
         var selectBtnHandler = (EventHandler<ActionEvent>) (ActionEvent e) -> {
             var selected = (RedundancyGroup) redundancyGroupsView.getSelected();
@@ -368,14 +369,14 @@ public class DeploymentTargetController extends BaseController<DeploymentTarget,
 
         redundancyGroupsView.createButton("Select", selectBtnHandler, true);
         var clearButton = redundancyGroupsView.createButton("Clear", clearBtnHandler, false);
-        clearButton.disableProperty().bind(model.redundancyGroupProperty().isNull());
+        clearButton.disableProperty().bind(FxAdapters.adapt(model.redundancyGroupProperty()).isNull());
         
         return redundancyGroupsView;
     }
     
     private void deploymentTargetAnnotationsInit(){
-        view.getStatesAnnotation().setItems(model.getStates());
-        view.getStateTransitionsAnnotation().setItems(model.getStateTransitions());
-        view.getStateOperationsAnnotation().setItems(model.getStateOperations());
+        view.getStatesAnnotation().setItems(FxAdapters.adapt(model.getStates()));
+        view.getStateTransitionsAnnotation().setItems(FxAdapters.adapt(model.getStateTransitions()));
+        view.getStateOperationsAnnotation().setItems(FxAdapters.adapt(model.getStateOperations()));
     }
 }
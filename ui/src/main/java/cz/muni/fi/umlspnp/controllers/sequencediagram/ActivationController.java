@@ -1,13 +1,14 @@
 package cz.muni.fi.umlspnp.controllers.sequencediagram;
 
 import cz.muni.fi.umlspnp.common.Utils;
+import cz.muni.fi.umlspnp.common.observable.ChangeListener;
+import cz.muni.fi.umlspnp.common.observable.ObservableValue;
 import cz.muni.fi.umlspnp.controllers.BaseController;
+import cz.muni.fi.umlspnp.controllers.FxAdapters;
 import cz.muni.fi.umlspnp.models.MainModel;
 import cz.muni.fi.umlspnp.models.sequencediagram.Activation;
 import cz.muni.fi.umlspnp.views.MainView;
 import cz.muni.fi.umlspnp.views.sequencediagram.ActivationView;
-import javafx.beans.value.ChangeListener;
-import javafx.beans.value.ObservableValue;
 
 /**
  *  Controller which handles all functionalities within the activation
@@ -79,5 +80,12 @@ public class ActivationController extends BaseController<Activation, ActivationV
         view.createMenuItem("Create message", (e) -> {
             sequenceDiagramView.startConnection(view);
         });
+        
+        view.createDoubleMenu("Change scenario weight",
+                              "Change scenario weight",
+                              "Scenario weight",
+                              0.0,
+                              null,
+                              FxAdapters.adapt(model.scenarioWeightProperty()));
     }
 }
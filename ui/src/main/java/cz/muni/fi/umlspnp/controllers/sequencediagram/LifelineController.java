@@ -1,7 +1,9 @@
 package cz.muni.fi.umlspnp.controllers.sequencediagram;
 
 import cz.muni.fi.umlspnp.common.Utils;
+import cz.muni.fi.umlspnp.common.observable.MapChangeListener;
 import cz.muni.fi.umlspnp.controllers.BaseController;
+import cz.muni.fi.umlspnp.controllers.FxAdapters;
 import cz.muni.fi.umlspnp.models.MainModel;
 import cz.muni.fi.umlspnp.models.sequencediagram.Activation;
 import cz.muni.fi.umlspnp.models.sequencediagram.Lifeline;
@@ -9,7 +11,6 @@ import cz.muni.fi.umlspnp.views.MainView;
 import cz.muni.fi.umlspnp.views.sequencediagram.LifelineView;
 import java.util.ArrayList;
 import java.util.List;
-import javafx.collections.MapChangeListener;
 
 /**
  *  Controller which handles all functionalities within the lifeline
@@ -35,11 +36,11 @@ public class LifelineController extends BaseController<Lifeline, LifelineView>{
     private void lifelineInit() {
         var sequenceDiagramView = mainView.getSequenceDiagramView();
         
-        view.getNameProperty().bind(model.nameProperty());
+        view.getNameProperty().bind(FxAdapters.adapt(model.nameProperty()));
 
-        model.addActivationsChangeListener(new MapChangeListener(){
+        model.addActivationsChangeListener(new MapChangeListener<Number, Activation>(){
             @Override
-            public void onChanged(MapChangeListener.Change change) {
+            public void onChanged(MapChangeListener.Change<? extends Number, ? extends Activation> change) {
                 if(change.wasAdded()){
                     var newNode = change.getValueAdded();
                     if(newNode instanceof Activation){
@@ -1,6 +1,7 @@
 package cz.muni.fi.umlspnp.controllers.sequencediagram;
 
 import cz.muni.fi.umlspnp.controllers.BaseController;
+import cz.muni.fi.umlspnp.controllers.FxAdapters;
 import cz.muni.fi.umlspnp.models.MainModel;
 import cz.muni.fi.umlspnp.models.sequencediagram.Loop;
 import cz.muni.fi.umlspnp.views.MainView;
@@ -20,7 +21,7 @@ public class LoopController extends BaseController<Loop, LoopView>{
                                LoopView view) {
         super(mainModel, mainView, model, view);
 
-        view.getNameProperty().bind(model.nameProperty());
+        view.getNameProperty().bind(FxAdapters.adapt(model.nameProperty()));
         loopMenuInit();
     }
 
@@ -38,13 +39,13 @@ public class LoopController extends BaseController<Loop, LoopView>{
                                 "Iterations",
                                 2,
                                 null,
-                                model.iterationsProperty());
+                                FxAdapters.adapt(model.iterationsProperty()));
         
         view.createDoubleMenu( "Change restart rate",
                         "Change restart rate",
                         "Restart rate",
                         0.0,
                         null,
-                        model.restartRateProperty());
+                        FxAdapters.adapt(model.restartRateProperty()));
     }
 }
@@ -2,6 +2,7 @@ package cz.muni.fi.umlspnp.controllers.sequencediagram;
 
 import cz.muni.fi.umlspnp.common.Utils;
 import cz.muni.fi.umlspnp.controllers.BaseController;
+import cz.muni.fi.umlspnp.controllers.FxAdapters;
 import cz.muni.fi.umlspnp.models.MainModel;
 import cz.muni.fi.umlspnp.models.OperationType;
 import cz.muni.fi.umlspnp.models.sequencediagram.ExecutionTime;
@@ -40,11 +41,8 @@ public class MessageController extends BaseController<Message, MessageView>{
         messageMenuInit();
         messageAnnotationsInit();
         
-        model.nameProperty().addListener(new ChangeListener() {
-            @Override
-            public void changed(ObservableValue ov, Object t, Object t1) {
-                messageMenuInit();
-            }
+        model.nameProperty().addListener((ov, oldValue, newValue) -> {
+            messageMenuInit();
         });
     }
     
@@ -60,11 +58,8 @@ public class MessageController extends BaseController<Message, MessageView>{
     }
 
     private void messageInit(){
-        model.orderProperty().addListener(new ChangeListener() {
-            @Override
-            public void changed(ObservableValue ov, Object oldValue, Object newValue) {
-                refreshAnnotationVisibility();
-            }
+        model.orderProperty().addListener((ov, oldValue, newValue) -> {
+            refreshAnnotationVisibility();
         });
 
         view.loopProperty().addListener(new ChangeListener() {
@@ -85,7 +80,7 @@ public class MessageController extends BaseController<Message, MessageView>{
             }
         });
 
-        view.nameProperty().bind(model.orderProperty().asString().concat(". ").concat(model.nameProperty()));
+        view.nameProperty().bind(FxAdapters.adapt(model.orderProperty()).asString().concat(". ").concat(FxAdapters.adapt(model.nameProperty())));
     }
     
     private void messageMenuInit(){
@@ -100,7 +95,7 @@ public class MessageController extends BaseController<Message, MessageView>{
                                () -> {sequenceDiagram.removeMessage(messageObjectID);});
 
         view.createStringMenu("Rename", "Rename message", "New name",
-                              model.nameProperty(), Utils.SPNP_NAME_RESTRICTION_REGEX);
+                              FxAdapters.adapt(model.nameProperty()), Utils.SPNP_NAME_RESTRICTION_REGEX);
 
         view.createToggleAnnotationsMenu();
         view.createMenuSeparator();
@@ -131,7 +126,7 @@ public class MessageController extends BaseController<Message, MessageView>{
     
     private EditableListView createExecutionTimeProperties(){
         var executionTimeList = model.getExecutionTimeList();
-        var executionTimeView = new EditableListView("Execution time:", executionTimeList);
+        var executionTimeView = new EditableListView("Execution time:", FxAdapters.adapt(executionTimeList));
 
         var editBtnHandler = (EventHandler<ActionEvent>) (ActionEvent e) -> {
             var selected = (ExecutionTime) executionTimeView.getSelected();
@@ -140,7 +135,7 @@ public class MessageController extends BaseController<Message, MessageView>{
                                               "Execution time",
                                               0,
                                               null,
-                                              selected.executionTimeProperty());
+                                              FxAdapters.adapt(selected.executionTimeProperty()));
                 executionTimeView.refresh();
             }
         };
@@ -150,7 +145,7 @@ public class MessageController extends BaseController<Message, MessageView>{
     }
     
     private EditableListView createMessageSizeProperties(){
-        var messageSizeList = model.getMessageSizeList();
+        var messageSizeList = FxAdapters.adapt(model.getMessageSizeList());
         var messageSizeView = new EditableListView("Message size:", messageSizeList);
 
         var addBtnHandler = (EventHandler<ActionEvent>) (ActionEvent e) -> {
@@ -172,16 +167,16 @@ public class MessageController extends BaseController<Message, MessageView>{
                                               "Message size",
                                               1,
                                               null,
-                                              selected.messageSizeProperty());
+                                              FxAdapters.adapt(selected.messageSizeProperty()));
                 messageSizeView.refresh();
             }
         };
 
         var addBtn = messageSizeView.createButton("Add", addBtnHandler, false);
-        addBtn.disableProperty().bind(Bindings.size(model.getMessageSizeList()).greaterThan(0));
+        addBtn.disableProperty().bind(Bindings.size(messageSizeList).greaterThan(0));
 
         var removeBtn = messageSizeView.createButton("Remove", removeBtnHandler, false);
-        removeBtn.disableProperty().bind(Bindings.size(model.getMessageSizeList()).lessThan(1));
+        removeBtn.disableProperty().bind(Bindings.size(messageSizeList).lessThan(1));
         
         messageSizeView.createButton("Edit", editBtnHandler, true);
         
@@ -190,7 +185,7 @@ public class MessageController extends BaseController<Message, MessageView>{
     
     private EditableListView createOperationTypeProperties(){
         var operationEntriesList = mainModel.getDeploymentDiagram().getOperationTypes();
-        var operationEntriesView = new EditableListView("Operation type:", operationEntriesList);
+        var operationEntriesView = new EditableListView("Operation type:", FxAdapters.adapt(operationEntriesList));
 
         var selectBtnHandler = (EventHandler<ActionEvent>) (ActionEvent e) -> {
             var selected = (OperationType) operationEntriesView.getSelected();
@@ -206,14 +201,14 @@ public class MessageController extends BaseController<Message, MessageView>{
         operationEntriesView.createButton("Select", selectBtnHandler, true);
         
         var clearBtn = operationEntriesView.createButton("Clear", clearBtnHandler, false);
-        clearBtn.disableProperty().bind(Bindings.size(model.getOperationTypeList()).lessThan(1));
+        clearBtn.disableProperty().bind(Bindings.size(FxAdapters.adapt(model.getOperationTypeList())).lessThan(1));
 
         return operationEntriesView;
     }
 
     private EditableListView createMessageFailureTypesProperties(){
         var failures = model.getMessageFailures();
-        var failuresView = new EditableListView("Failure types:", failures);
+        var failuresView = new EditableListView("Failure types:", FxAdapters.adapt(failures));
         
         var addBtnHandler = (EventHandler<ActionEvent>) (ActionEvent e) -> {
             model.addMessageFailure(new MessageFailureType("New failure", 0.01, false));
@@ -237,9 +232,9 @@ public class MessageController extends BaseController<Message, MessageView>{
                 var editWindow = new EditMessageFailureTypeModalWindow(
                                         (Stage) failuresView.getScene().getWindow(),
                                         "Edit failure type",
-                                        selected.nameProperty(),
-                                        selected.rateProperty(),
-                                        selected.causeHWfailProperty());
+                                        FxAdapters.adapt(selected.nameProperty()),
+                                        FxAdapters.adapt(selected.rateProperty()),
+                                        FxAdapters.adapt(selected.causeHWfailProperty()));
                 editWindow.showAndWait();
                 failuresView.refresh();
             }
@@ -253,10 +248,10 @@ public class MessageController extends BaseController<Message, MessageView>{
     }
     
     private void messageAnnotationsInit(){
-        view.getExecutionTimeAnnotation().setItems(model.getExecutionTimeList());
-        view.getOperationTypeAnnotation().setItems(model.getOperationTypeList());
-        view.getFailureTypesAnnotation().setItems(model.getMessageFailures());
-        view.getMessageSizeAnnotation().setItems(model.getMessageSizeList());
+        view.getExecutionTimeAnnotation().setItems(FxAdapters.adapt(model.getExecutionTimeList()));
+        view.getOperationTypeAnnotation().setItems(FxAdapters.adapt(model.getOperationTypeList()));
+        view.getFailureTypesAnnotation().setItems(FxAdapters.adapt(model.getMessageFailures()));
+        view.getMessageSizeAnnotation().setItems(FxAdapters.adapt(model.getMessageSizeList()));
     }
     
     public void addSortMessagesCallback(Runnable callback) {
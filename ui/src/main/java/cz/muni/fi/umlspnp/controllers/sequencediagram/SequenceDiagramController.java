@@ -1,7 +1,11 @@
 package cz.muni.fi.umlspnp.controllers.sequencediagram;
 
+import cz.muni.fi.umlspnp.common.observable.ListChangeListener;
+import cz.muni.fi.umlspnp.common.observable.MapChangeListener;
 import cz.muni.fi.umlspnp.controllers.BaseController;
+import cz.muni.fi.umlspnp.controllers.FxAdapters;
 import cz.muni.fi.umlspnp.models.MainModel;
+import cz.muni.fi.umlspnp.models.OperationType;
 import cz.muni.fi.umlspnp.models.deploymentdiagram.Artifact;
 import cz.muni.fi.umlspnp.models.sequencediagram.Lifeline;
 import cz.muni.fi.umlspnp.models.sequencediagram.Loop;
@@ -19,8 +23,6 @@ import javafx.beans.binding.Bindings;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.collections.FXCollections;
-import javafx.collections.ListChangeListener;
-import javafx.collections.MapChangeListener;
 import javafx.collections.ObservableMap;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
@@ -58,9 +60,9 @@ public class SequenceDiagramController extends BaseController<SequenceDiagram, S
         var deployment = mainModel.getDeploymentDiagram();
         
         // Reassign orders to messages when their order is supposed to change
-        model.getSortedMessages().addListener(new ListChangeListener() {
+        model.getSortedMessages().addListener(new ListChangeListener<Message>() {
             @Override
-            public void onChanged(ListChangeListener.Change change) {
+            public void onChanged(ListChangeListener.Change<? extends Message> change) {
                 var sortedMessages = model.getSortedMessages();
                 sortedMessages.forEach(message -> {
                     message.setOrder(sortedMessages.indexOf(message));
@@ -70,18 +72,16 @@ public class SequenceDiagramController extends BaseController<SequenceDiagram, S
 
         // Remove operation types from messages if the operation type no longer exists
         var allOperationTypes = deployment.getOperationTypes();
-        allOperationTypes.addListener(new ListChangeListener(){
+        allOperationTypes.addListener(new ListChangeListener<OperationType>(){
             @Override
-            public void onChanged(ListChangeListener.Change change) {
-                while (change.next()) {
-                    if (change.wasRemoved()) {
-                        change.getRemoved().forEach(removedItem -> {
-                            model.getSortedMessages().forEach(message -> {
-                                if(removedItem.equals(message.getOperationType()))
-                                    message.removeOperationType();
-                            });
+            public void onChanged(ListChangeListener.Change<? extends OperationType> change) {
+                if (change.wasRemoved()) {
+                    change.getRemoved().forEach(removedItem -> {
+                        model.getSortedMessages().forEach(message -> {
+                            if(removedItem.equals(message.getOperationType()))
+                                message.removeOperationType();
                         });
-                    }
+                    });
                 }
             }
         });
@@ -103,9 +103,9 @@ public class SequenceDiagramController extends BaseController<SequenceDiagram, S
     }
 
     private void lifelineManagerInit() {
-        model.addLifelinesListener(new MapChangeListener(){
+        model.addLifelinesListener(new MapChangeListener<Number, Lifeline>(){
             @Override
-            public void onChanged(MapChangeListener.Change change) {
+            public void onChanged(MapChangeListener.Change<? extends Number, ? extends Lifeline> change) {
                 if(change.wasAdded()){
                     var newNode = change.getValueAdded();
                     if(newNode instanceof Lifeline){
@@ -136,9 +136,9 @@ public class SequenceDiagramController extends BaseController<SequenceDiagram, S
     }
     
     private void messageManagerInit() {
-        model.addMessagesListener(new MapChangeListener(){
+        model.addMessagesListener(new MapChangeListener<Number, Message>(){
             @Override
-            public void onChanged(MapChangeListener.Change change) {
+            public void onChanged(MapChangeListener.Change<? extends Number, ? extends Message> change) {
                 if(change.wasAdded()){
                     var newMessage = (Message) change.getValueAdded();
                     var firstID = newMessage.getFirst().getObjectInfo().getID();
@@ -163,9 +163,9 @@ public class SequenceDiagramController extends BaseController<SequenceDiagram, S
     }
     
     private void loopManagerInit() {
-        model.addLoopsChangeListener(new MapChangeListener(){
+        model.addLoopsChangeListener(new MapChangeListener<Number, Loop>(){
             @Override
-            public void onChanged(MapChangeListener.Change change) {
+            public void onChanged(MapChangeListener.Change<? extends Number, ? extends Loop> change) {
                 if(change.wasAdded()){
                     var newLoop = (Loop) change.getValueAdded();
                     var newLoopView = view.createLoop(newLoop.getObjectInfo().getID());
@@ -212,7 +212,7 @@ public class SequenceDiagramController extends BaseController<SequenceDiagram, S
     
     private MenuItem createLifelineSubmenu(SequenceDiagram sequence, Artifact artifact){
         var submenu = new MenuItem(artifact.getNameProperty().getValue());
-        submenu.textProperty().bind(artifact.getNameProperty());
+        submenu.textProperty().bind(FxAdapters.adapt(artifact.getNameProperty()));
         
         EventHandler<ActionEvent> submenuEventHandler = (ActionEvent tt) -> {
             if(tt.getSource().equals(submenu)){
@@ -235,9 +235,9 @@ public class SequenceDiagramController extends BaseController<SequenceDiagram, S
         ObservableMap<Artifact, MenuItem> lifelineSubmenus = FXCollections.observableHashMap();
 
         // Changes in the deployment diagram
-        deployment.addAllNodesChangeListener(new MapChangeListener(){
+        deployment.addAllNodesChangeListener(new MapChangeListener<Number, Artifact>(){
             @Override
-            public void onChanged(MapChangeListener.Change change) {
+            public void onChanged(MapChangeListener.Change<? extends Number, ? extends Artifact> change) {
                 if(change.wasAdded()){
                     var newNode = (Artifact) change.getValueAdded();
                     var newMenuItem = createLifelineSubmenu(model, newNode);
@@ -253,9 +253,9 @@ public class SequenceDiagramController extends BaseController<SequenceDiagram, S
         });
         
         // Changes in the sequence diagram
-        model.addLifelinesListener(new MapChangeListener(){
+        model.addLifelinesListener(new MapChangeListener<Number, Lifeline>(){
             @Override
-            public void onChanged(MapChangeListener.Change change) {
+            public void onChanged(MapChangeListener.Change<? extends Number, ? extends Lifeline> change) {
                 if(change.wasAdded()){
                     var newLifeline = (Lifeline) change.getValueAdded();
                     lifelineSubmenus.remove(newLifeline.getArtifact());
@@ -280,9 +280,9 @@ public class SequenceDiagramController extends BaseController<SequenceDiagram, S
         
         var lifelineSubmenus = createLifelineSubmenus();
 
-        lifelineSubmenus.addListener(new MapChangeListener(){
+        lifelineSubmenus.addListener(new javafx.collections.MapChangeListener(){
             @Override
-            public void onChanged(MapChangeListener.Change change) {
+            public void onChanged(javafx.collections.MapChangeListener.Change change) {
                 if(change.wasAdded()){
                     var newItem = (MenuItem) change.getValueAdded();
                     lifelineMenu.getItems().add(newItem);
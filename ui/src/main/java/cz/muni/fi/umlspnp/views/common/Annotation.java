@@ -1,6 +1,5 @@
 package cz.muni.fi.umlspnp.views.common;
 
-import cz.muni.fi.umlspnp.common.Utils;
 import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
 import javafx.beans.binding.DoubleExpression;
@@ -149,7 +148,7 @@ public class Annotation extends NamedRectangle {
                 longest = strItem;
         }
         
-        items.setPrefWidth(Utils.getStringWidth(longest) + 30);
+        items.setPrefWidth(ViewUtils.getStringWidth(longest) + 30);
     }
     
     public void setDisplayed(boolean value){
@@ -2,7 +2,6 @@ package cz.muni.fi.umlspnp.views.common;
 
 import cz.muni.fi.umlspnp.common.BaseObject;
 import cz.muni.fi.umlspnp.common.ObjectInfo;
-import cz.muni.fi.umlspnp.common.Utils;
 import cz.muni.fi.umlspnp.views.common.layouts.BooleanModalWindow;
 import cz.muni.fi.umlspnp.views.common.layouts.DoubleModalWindow;
 import cz.muni.fi.umlspnp.views.common.layouts.EditableListView;
@@ -157,7 +156,7 @@ public abstract class BasicElement extends Group implements BaseObject {
     }
 
     public void showAlert(String windowName, String title, String text) {
-        var alert = Utils.createAlertDialog(windowName, title, text);
+        var alert = ViewUtils.createAlertDialog(windowName, title, text);
         alert.showAndWait();
     }
     
@@ -1,6 +1,5 @@
 package cz.muni.fi.umlspnp.views.common;
 
-import cz.muni.fi.umlspnp.common.Utils;
 import java.util.ArrayList;
 import javafx.beans.binding.Bindings;
 import javafx.beans.binding.DoubleExpression;
@@ -209,7 +208,7 @@ public abstract class BasicRectangle extends BasicElement{
         this.localToSceneTransformProperty().addListener(new ChangeListener(){
             @Override
             public void changed(ObservableValue ov, Object oldValue, Object newValue) {
-                Point2D minVal = Utils.getPositionRelativeTo(thisReference, parent, Point2D.ZERO);
+                Point2D minVal = ViewUtils.getPositionRelativeTo(thisReference, parent, Point2D.ZERO);
                 if(minVal == null)
                     return;
                 
@@ -1,6 +1,5 @@
 package cz.muni.fi.umlspnp.views.common;
 
-import cz.muni.fi.umlspnp.common.Utils;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.geometry.Point2D;
@@ -90,7 +89,7 @@ public abstract class ConnectionView extends BasicElement {
     
     private Point2D calculatePosition(Node relativeTo, Transform newPositionTransform){
         var newLocalPosition = sceneToLocal(new Point2D(newPositionTransform.getTx(), newPositionTransform.getTy()));
-        return Utils.getPositionRelativeTo(this, relativeTo, newLocalPosition);
+        return ViewUtils.getPositionRelativeTo(this, relativeTo, newLocalPosition);
     }
     
     public void refreshLinePosition(){
@@ -110,7 +109,7 @@ public abstract class ConnectionView extends BasicElement {
         if(startPosition == null)
             return;
 
-        double angle =  Utils.getAngle(startPosition, endPosition);
+        double angle =  ViewUtils.getAngle(startPosition, endPosition);
 
         // The line should start/end on the edge of the ConnectionSlot circle
         double sourceCircleOffsetX = source.getDefaultRadius() * Math.cos(angle);
@@ -1,4 +1,4 @@
-package cz.muni.fi.umlspnp.common;
+package cz.muni.fi.umlspnp.views.common;
 
 import javafx.geometry.Point2D;
 import javafx.scene.Group;
@@ -10,25 +10,10 @@ import javafx.scene.text.Text;
 import javafx.stage.Stage;
 
 /**
- * Constants and functions used in the modeling part of the project.
+ * Functions used by the views, they need the JavaFX toolkit.
  * 
  */
-public class Utils {
-    // Note: The name itself is not restricted anymore, however during the 
-    // transformation all illegal characters will be removed (replaced with a "")
-    public static String SPNP_NAME_RESTRICTION_REGEX = "^.*$";
-    public static String SPNP_NAME_RESTRICTION_REPLACE_REGEX = "[^a-zA-Z0-9_]";
-    private static int objectIDCounter = 0;
-    
-    public static int generateObjectID(){
-        return ++objectIDCounter;
-    }
-    
-    public static void updateId(Integer id) {
-        if(id > objectIDCounter)
-            objectIDCounter = id;
-    }
-
+public class ViewUtils {
     public static double getStringWidth(String text){
         final Text t = new Text(text);
         Scene _unused = new Scene(new Group(t));
@@ -36,14 +21,6 @@ public class Utils {
         return t.getLayoutBounds().getWidth();
     }
     
-    public static String shortenString(String text, int maxLength){
-        String shortenedString = text;
-        if (text.length() > maxLength){
-            shortenedString = text.substring(0, maxLength).concat("...");
-        }
-        return shortenedString;
-    }
-    
     public static Point2D getPositionRelativeTo(Node child, Node parent, Point2D coordinates){
         Point2D finalPosition = coordinates;
         var currentNode = child;
@@ -0,0 +1,76 @@
+package cz.muni.fi.umlspnp.views.common.layouts;
+
+import cz.muni.fi.umlspnp.solver.MarkingTrace;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextArea;
+import javafx.scene.layout.HBox;
+import javafx.scene.text.Font;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+
+/**
+ * A window which shows the decoded binary marking trace as a table of the token counts,
+ * filtered by the segments which created the places.
+ * The window is not modal so that the diagrams stay usable.
+ *
+ */
+public class MarkingTraceWindow extends ModalWindow {
+    private static final String ALL_SEGMENTS = "All segments";
+    private static final String CONTROL_SEGMENTS = "control";
+    private static final String NODE_SEGMENTS = "node";
+    private static final String LINK_SEGMENTS = "link";
+    private static final String MESSAGE_SEGMENTS = "msg";
+    private static final String LOOP_SEGMENTS = "loop";
+    private static final int ROW_LIMIT = 10000;
+
+    private final MarkingTrace trace;
+    private final ChoiceBox<String> segmentChoice;
+    private final CheckBox changedOnlyCheckBox;
+    private final TextArea tableArea;
+
+    /**
+     *
+     * @param parentStage Parent stage.
+     * @param windowName Window name.
+     * @param trace The decoded trace.
+     */
+    public MarkingTraceWindow(Stage parentStage, String windowName, MarkingTrace trace) {
+        super(parentStage, windowName);
+        this.initModality(Modality.NONE);
+        this.trace = trace;
+
+        segmentChoice = new ChoiceBox<>();
+        segmentChoice.getItems().addAll(ALL_SEGMENTS, CONTROL_SEGMENTS, NODE_SEGMENTS, LINK_SEGMENTS, MESSAGE_SEGMENTS, LOOP_SEGMENTS);
+        segmentChoice.getItems().addAll(trace.getSegments());
+        segmentChoice.getSelectionModel().selectFirst();
+        segmentChoice.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) -> refresh());
+
+        changedOnlyCheckBox = new CheckBox("Only the records which change the shown places");
+        changedOnlyCheckBox.setSelected(true);
+        changedOnlyCheckBox.setOnAction(e -> refresh());
+
+        tableArea = new TextArea();
+        tableArea.setEditable(false);
+        tableArea.setFont(Font.font("Monospaced", 12));
+        tableArea.setPrefSize(800, 500);
+
+        var closeButton = new Button("Close");
+        closeButton.setOnAction(e -> close());
+
+        rootGrid.add(new Label(trace.toString().strip()), 0, 0);
+        rootGrid.add(new HBox(5, new Label("Segment:"), segmentChoice, changedOnlyCheckBox), 0, 1);
+        rootGrid.add(tableArea, 0, 2);
+        rootGrid.add(closeButton, 0, 3);
+
+        refresh();
+    }
+
+    private void refresh() {
+        var segment = segmentChoice.getValue();
+        tableArea.setText(trace.formatTable(ALL_SEGMENTS.equals(segment) ? null : segment,
+                                            changedOnlyCheckBox.isSelected(), ROW_LIMIT));
+    }
+}
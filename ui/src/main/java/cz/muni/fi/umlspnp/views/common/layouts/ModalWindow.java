@@ -1,7 +1,7 @@
 package cz.muni.fi.umlspnp.views.common.layouts;
 
-import cz.muni.fi.umlspnp.common.Utils;
-import static cz.muni.fi.umlspnp.common.Utils.setStageIcon;
+import cz.muni.fi.umlspnp.views.common.ViewUtils;
+import static cz.muni.fi.umlspnp.views.common.ViewUtils.setStageIcon;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.geometry.Insets;
@@ -65,7 +65,7 @@ public abstract class ModalWindow extends Stage{
    }
 
     protected void showAlert(String errorMessage){
-        var alert = Utils.createAlertDialog("Input error", "Incorrect values!", errorMessage);
+        var alert = ViewUtils.createAlertDialog("Input error", "Incorrect values!", errorMessage);
         alert.showAndWait();
     }
 }
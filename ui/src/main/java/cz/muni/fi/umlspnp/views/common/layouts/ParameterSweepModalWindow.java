@@ -0,0 +1,114 @@
+package cz.muni.fi.umlspnp.views.common.layouts;
+
+import cz.muni.fi.umlspnp.models.ParameterSweep;
+import cz.muni.fi.umlspnp.models.SweepDimension;
+import java.util.ArrayList;
+import java.util.stream.Collectors;
+import javafx.event.ActionEvent;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.stage.Stage;
+
+/**
+ * A modal window which edits the parameter sweep of the project. Every line defines
+ * one dimension: "PROPERTY; element; from; to; steps" with an optional "; log".
+ *
+ */
+public class ParameterSweepModalWindow extends ModalWindow {
+    private final TextArea dimensionsArea;
+    private final CheckBox structuralSharingCheckBox;
+    private final TextField threadsField;
+    private final Button confirmButton;
+
+    private final ParameterSweep parameterSweep;
+
+    public ParameterSweepModalWindow(Stage parentStage, String windowName, ParameterSweep parameterSweep) {
+        super(parentStage, windowName);
+        this.parameterSweep = parameterSweep;
+
+        var properties = new ArrayList<String>();
+        for(var property : SweepDimension.PropertyType.values())
+            properties.add(property.toString());
+        var helpLabel = new Label(String.format("One dimension per line: PROPERTY; element; from; to; steps[; log]%n"
+                                              + "Properties: %s%n"
+                                              + "Elements: node/transition, message, link type, message/failure, link type/failure, loop",
+                                                String.join(", ", properties)));
+
+        dimensionsArea = new TextArea(parameterSweep.getDimensions().stream()
+                                                    .map(dimension -> dimension.toString())
+                                                    .collect(Collectors.joining(System.lineSeparator())));
+        dimensionsArea.setPrefRowCount(8);
+        dimensionsArea.setPrefColumnCount(60);
+        structuralSharingCheckBox = new CheckBox("Generate the net once and rewrite only the rate functions");
+        structuralSharingCheckBox.setSelected(parameterSweep.isStructuralSharing());
+        threadsField = new TextField(Integer.toString(parameterSweep.getThreads()));
+
+        confirmButton = new Button("Confirm");
+        confirmButton.setOnAction((ActionEvent e) -> {
+            if(update())
+                close();
+        });
+
+        rootGrid.add(helpLabel, 0, 0, 2, 1);
+        rootGrid.add(dimensionsArea, 0, 1, 2, 1);
+        rootGrid.add(structuralSharingCheckBox, 0, 2, 2, 1);
+        rootGrid.add(new Label("Threads (0 for all processors):"), 0, 3);
+        rootGrid.add(threadsField, 1, 3);
+        rootGrid.add(confirmButton, 0, 4);
+    }
+
+    private boolean update() {
+        var dimensions = new ArrayList<SweepDimension>();
+        for(var line : dimensionsArea.getText().split("\\R")) {
+            if(line.isBlank())
+                continue;
+            var dimension = parseDimension(line);
+            if(dimension == null) {
+                showAlert(String.format("Invalid dimension \"%s\".", line.strip()));
+                return false;
+            }
+            dimensions.add(dimension);
+        }
+        int threads;
+        try {
+            threads = Integer.parseInt(threadsField.getText().strip());
+            if(threads < 0)
+                throw new NumberFormatException();
+        }
+        catch(NumberFormatException ex) {
+            showAlert("The number of threads must be a non-negative integer.");
+            return false;
+        }
+        parameterSweep.setDimensions(dimensions);
+        parameterSweep.setStructuralSharing(structuralSharingCheckBox.isSelected());
+        parameterSweep.setThreads(threads);
+        return true;
+    }
+
+    private static SweepDimension parseDimension(String line) {
+        var items = line.split(";");
+        if(items.length < 5 || items.length > 6)
+            return null;
+        try {
+            var property = SweepDimension.PropertyType.valueOf(items[0].strip());
+            var element = items[1].strip();
+            var from = Double.parseDouble(items[2].strip());
+            var to = Double.parseDouble(items[3].strip());
+            var steps = Integer.parseInt(items[4].strip());
+            var logarithmic = items.length == 6 && items[5].strip().equalsIgnoreCase("log");
+            if(items.length == 6 && !logarithmic)
+                return null;
+            if(element.isEmpty() || steps < 1 || !Double.isFinite(from) || !Double.isFinite(to))
+                return null;
+            if(logarithmic && (from <= 0.0 || to <= 0.0))
+                return null;
+            return new SweepDimension(property, element, from, to, steps, logarithmic);
+        }
+        catch(IllegalArgumentException ex) {
+            return null;
+        }
+    }
+}
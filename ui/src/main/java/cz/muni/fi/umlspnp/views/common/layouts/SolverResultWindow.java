@@ -0,0 +1,48 @@
+package cz.muni.fi.umlspnp.views.common.layouts;
+
+import cz.muni.fi.umlspnp.solver.SolverResult;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextArea;
+import javafx.scene.text.Font;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+
+/**
+ * A window which shows the measures and the output of a finished solver job.
+ * The window is not modal so that the diagrams stay usable.
+ *
+ */
+public class SolverResultWindow extends ModalWindow {
+    private final TextArea outputArea;
+
+    /**
+     *
+     * @param parentStage Parent stage.
+     * @param windowName Window name.
+     * @param result The solver result.
+     * @param poolStatus Statistics of the solver pool which solved the job.
+     */
+    public SolverResultWindow(Stage parentStage, String windowName, SolverResult result, String poolStatus) {
+        super(parentStage, windowName);
+        this.initModality(Modality.NONE);
+
+        outputArea = new TextArea();
+        outputArea.setEditable(false);
+        outputArea.setFont(Font.font("Monospaced", 12));
+        outputArea.setPrefSize(800, 500);
+        var text = new StringBuilder(result.toString());
+        if(result.getOutput() != null && !result.getOutput().isEmpty())
+            text.append(String.format("%nSolver output:%n%s", result.getOutput()));
+        if(result.getErrorOutput() != null && !result.getErrorOutput().isEmpty())
+            text.append(String.format("%nSolver error output:%n%s", result.getErrorOutput()));
+        outputArea.setText(text.toString());
+
+        var closeButton = new Button("Close");
+        closeButton.setOnAction(e -> close());
+
+        rootGrid.add(new Label(poolStatus.strip()), 0, 0);
+        rootGrid.add(outputArea, 0, 1);
+        rootGrid.add(closeButton, 0, 2);
+    }
+}
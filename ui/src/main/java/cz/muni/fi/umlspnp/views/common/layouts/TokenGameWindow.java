@@ -0,0 +1,183 @@
+package cz.muni.fi.umlspnp.views.common.layouts;
+
+import cz.muni.fi.umlspnp.analysis.TokenGame;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+import javafx.event.ActionEvent;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.HBox;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+
+/**
+ * A window which steps through the transformed Petri net (token game) and highlights
+ * the model elements which produced the selected places and transitions.
+ * The window is not modal so that the highlighted diagrams stay usable.
+ *
+ */
+public class TokenGameWindow extends ModalWindow {
+    private static final int RANDOM_WALK_STEPS = 100;
+    private static final int RUN_STEP_LIMIT = 1000000;
+
+    private final TokenGame tokenGame;
+    private final Map<String, Integer> elementOrigins;
+    private final Consumer<Integer> onHighlight;
+    private final int endPlace;
+    private final SplittableRandom random = new SplittableRandom();
+
+    private final Label statusLabel;
+    private final ListView<String> enabledList;
+    private final ListView<String> markingList;
+    private final List<Integer> enabledTransitions = new ArrayList<>();
+    private final List<Integer> markedPlaces = new ArrayList<>();
+
+    /**
+     *
+     * @param parentStage Parent stage.
+     * @param windowName Window name.
+     * @param tokenGame Token game of the transformed net.
+     * @param elementOrigins Identifiers of the model objects which produced the places and transitions.
+     * @param endPlace Name of the place which ends the run or null.
+     * @param onHighlight Called with the identifier of the model object to highlight (-1 to clear the highlight).
+     */
+    public TokenGameWindow(Stage parentStage,
+                           String windowName,
+                           TokenGame tokenGame,
+                           Map<String, Integer> elementOrigins,
+                           String endPlace,
+                           Consumer<Integer> onHighlight) {
+        super(parentStage, windowName);
+        this.initModality(Modality.NONE);
+
+        this.tokenGame = tokenGame;
+        this.elementOrigins = elementOrigins;
+        this.onHighlight = onHighlight;
+        this.endPlace = endPlace != null ? tokenGame.getNet().getPlaceIndex(endPlace) : -1;
+
+        statusLabel = new Label();
+        enabledList = new ListView<>();
+        enabledList.setPrefSize(360, 300);
+        markingList = new ListView<>();
+        markingList.setPrefSize(360, 300);
+
+        enabledList.getSelectionModel().selectedIndexProperty().addListener((observable, oldValue, newValue) -> {
+            var index = newValue.intValue();
+            if(index >= 0 && index < enabledTransitions.size())
+                highlight(tokenGame.getNet().getTransitionName(enabledTransitions.get(index)));
+        });
+        markingList.getSelectionModel().selectedIndexProperty().addListener((observable, oldValue, newValue) -> {
+            var index = newValue.intValue();
+            if(index >= 0 && index < markedPlaces.size())
+                highlight(tokenGame.getNet().getPlaceName(markedPlaces.get(index)));
+        });
+        enabledList.setOnMouseClicked(e -> {
+            if(e.getClickCount() == 2)
+                fireSelected();
+        });
+
+        var fireButton = new Button("Fire");
+        fireButton.setOnAction((ActionEvent e) -> {
+            fireSelected();
+        });
+        var stepButton = new Button("Random step");
+        stepButton.setOnAction((ActionEvent e) -> {
+            tokenGame.randomStep(random);
+            refresh();
+        });
+        var walkButton = new Button(String.format("%d random steps", RANDOM_WALK_STEPS));
+        walkButton.setOnAction((ActionEvent e) -> {
+            tokenGame.run(random, RANDOM_WALK_STEPS, null);
+            refresh();
+        });
+        var runButton = new Button("Run to the end place");
+        runButton.setDisable(this.endPlace < 0);
+        runButton.setOnAction((ActionEvent e) -> {
+            tokenGame.run(random, RUN_STEP_LIMIT, marking -> marking[this.endPlace] > 0);
+            refresh();
+        });
+        var undoButton = new Button("Undo");
+        undoButton.setOnAction((ActionEvent e) -> {
+            tokenGame.undo();
+            refresh();
+        });
+        var resetButton = new Button("Reset");
+        resetButton.setOnAction((ActionEvent e) -> {
+            tokenGame.reset();
+            refresh();
+        });
+        var closeButton = new Button("Close");
+        closeButton.setOnAction((ActionEvent e) -> {
+            close();
+        });
+        setOnHidden(e -> onHighlight.accept(-1));
+
+        var buttons = new HBox(5, fireButton, stepButton, walkButton, runButton, undoButton, resetButton, closeButton);
+
+        rootGrid.add(statusLabel, 0, 0, 2, 1);
+        rootGrid.add(new Label("Enabled transitions:"), 0, 1);
+        rootGrid.add(new Label("Marking:"), 1, 1);
+        rootGrid.add(enabledList, 0, 2);
+        rootGrid.add(markingList, 1, 2);
+        rootGrid.add(buttons, 0, 3, 2, 1);
+
+        refresh();
+    }
+
+    private void fireSelected() {
+        var index = enabledList.getSelectionModel().getSelectedIndex();
+        if(index < 0 || index >= enabledTransitions.size())
+            return;
+        tokenGame.fire(enabledTransitions.get(index));
+        refresh();
+    }
+
+    private void highlight(String elementName) {
+        var objectID = elementOrigins.get(elementName);
+        onHighlight.accept(objectID != null ? objectID : -1);
+    }
+
+    private void refresh() {
+        var net = tokenGame.getNet();
+        var marking = tokenGame.getMarking();
+
+        String state;
+        if(tokenGame.isHalted())
+            state = "halted";
+        else if(tokenGame.isAbsorbing())
+            state = "dead";
+        else if(tokenGame.isVanishing())
+            state = "vanishing";
+        else
+            state = "tangible";
+        statusLabel.setText(String.format("Step: %d   Time: %.6f   Marking: %s",
+                                          tokenGame.getSteps(), tokenGame.getTime(), state));
+
+        enabledTransitions.clear();
+        var enabledItems = new ArrayList<String>();
+        if(!tokenGame.isHalted()) {
+            for(var transition : tokenGame.getEnabledTransitions()) {
+                enabledTransitions.add(transition);
+                enabledItems.add(String.format("%s (%s %s)",
+                                               net.getTransitionName(transition),
+                                               net.isImmediate(transition) ? "weight" : "rate",
+                                               Double.toString(net.getRate(transition, marking))));
+            }
+        }
+        enabledList.getItems().setAll(enabledItems);
+
+        markedPlaces.clear();
+        var markingItems = new ArrayList<String>();
+        for(int p = 0; p < marking.length; p++) {
+            if(marking[p] > 0) {
+                markedPlaces.add(p);
+                markingItems.add(String.format("%s: %d", net.getPlaceName(p), marking[p]));
+            }
+        }
+        markingList.getItems().setAll(markingItems);
+    }
+}
@@ -0,0 +1,454 @@
+package cz.muni.fi.umlspnp.views.common.layouts;
+
+import cz.muni.fi.umlspnp.models.AnalysisPlan;
+import cz.muni.fi.umlspnp.transformations.MarkingTraceOptions;
+import cz.muni.fi.umlspnp.views.TransformatorOptionConstant;
+import cz.muni.fi.umlspnp.views.TransformatorOptionDouble;
+import cz.muni.fi.umlspnp.views.TransformatorOptionInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import javafx.collections.FXCollections;
+import javafx.event.ActionEvent;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.RadioButton;
+import javafx.scene.control.TextField;
+import javafx.scene.control.ToggleGroup;
+import javafx.scene.layout.GridPane;
+import javafx.stage.Stage;
+
+/**
+ * A modal window which sets transform properties and performs 
+ * the model transformation itself.
+ *
+ */
+public class TransformModalWindow extends ModalWindow {
+    private final Button transformButton;
+    private final Button closeButton;
+    
+    private final CheckBox generateCommentsCheckBox;
+    private final CheckBox debugInfoCheckBox;
+    private final CheckBox debugPrintCheckBox;
+    private final CheckBox reachabilityGraphCheckBox;
+    private final CheckBox offHeapStatesCheckBox;
+    private final CheckBox symbolicStateSpaceCheckBox;
+    private final CheckBox invariantAnalysisCheckBox;
+    private final CheckBox numericSolutionCheckBox;
+    private final CheckBox inProcessSimulationCheckBox;
+    private final CheckBox importancePilotCheckBox;
+    private final CheckBox meanFieldCheckBox;
+    private final CheckBox tokenGameCheckBox;
+    private final CheckBox inputParametersCheckBox;
+    private final CheckBox parameterSweepCheckBox;
+    private final CheckBox segmentedOutputCheckBox;
+    private final CheckBox runSolverCheckBox;
+    private final CheckBox standInSolverCheckBox;
+    private final CheckBox markingTraceCheckBox;
+    private final TextField traceSampleEveryField;
+    private final TextField traceSampleProbabilityField;
+    private final TextField traceSegmentsField;
+    private final TextField tracePlaceFilterField;
+    
+    private final CheckBox steadyStateCheckBox;
+    private final TextField transientTimesField;
+    private final CheckBox printQcolCheckBox;
+    private final CheckBox printRgraphCheckBox;
+    private final CheckBox printQrowCheckBox;
+    private final CheckBox printMcInfoCheckBox;
+    private final CheckBox printStdAverageCheckBox;
+    private final CheckBox scenarioSuccessCheckBox;
+    private final CheckBox nodeAvailabilityCheckBox;
+    private final CheckBox failureProbabilitiesCheckBox;
+    
+    private final RadioButton simulationRadio;
+    private final RadioButton numericRadio;
+    
+    private final GridPane numericGroup;
+    private int numericGroupIndex = 0;
+
+    private final GridPane simulationGroup;
+    private int simulationGroupIndex = 0;
+    
+    public TransformModalWindow(Stage parentStage, String windowName, Consumer<TransformModalWindow> onTransform) {
+        super(parentStage, windowName);
+        
+        simulationGroup = new GridPane();
+        simulationGroup.setHgap(5);
+        simulationGroup.setVgap(5);
+        
+        numericGroup = new GridPane();
+        numericGroup.setHgap(5);
+        numericGroup.setVgap(5);
+
+        debugInfoCheckBox = new CheckBox("Print debug info to stderr");
+        debugInfoCheckBox.setSelected(true);
+        
+        generateCommentsCheckBox = new CheckBox("Generate comments for net elements");
+        generateCommentsCheckBox.setSelected(true);
+
+        debugPrintCheckBox = new CheckBox("Generate debug print segment");
+        markingTraceCheckBox = new CheckBox("Binary marking trace instead of the debug print");
+        markingTraceCheckBox.disableProperty().bind(debugPrintCheckBox.selectedProperty().not());
+        traceSampleEveryField = new TextField("1");
+        traceSampleProbabilityField = new TextField("1.0");
+        traceSegmentsField = new TextField();
+        traceSegmentsField.setPromptText("e.g. node, msg_Login (empty for all)");
+        tracePlaceFilterField = new TextField();
+        tracePlaceFilterField.setPromptText("regular expression (empty for all)");
+        var markingTraceGroup = new GridPane();
+        markingTraceGroup.setHgap(5);
+        markingTraceGroup.setVgap(5);
+        markingTraceGroup.add(new Label("Every N-th marking:"), 0, 0);
+        markingTraceGroup.add(traceSampleEveryField, 1, 0);
+        markingTraceGroup.add(new Label("Sample probability:"), 0, 1);
+        markingTraceGroup.add(traceSampleProbabilityField, 1, 1);
+        markingTraceGroup.add(new Label("Segments:"), 0, 2);
+        markingTraceGroup.add(traceSegmentsField, 1, 2);
+        markingTraceGroup.add(new Label("Places:"), 0, 3);
+        markingTraceGroup.add(tracePlaceFilterField, 1, 3);
+        markingTraceGroup.disableProperty().bind(markingTraceCheckBox.selectedProperty().not()
+                                                 .or(markingTraceCheckBox.disabledProperty()));
+
+        reachabilityGraphCheckBox = new CheckBox("Generate reachability graph to stderr");
+        offHeapStatesCheckBox = new CheckBox("Store reachability graph states off-heap");
+        offHeapStatesCheckBox.disableProperty().bind(reachabilityGraphCheckBox.selectedProperty().not());
+        symbolicStateSpaceCheckBox = new CheckBox("Generate symbolic state space to stderr");
+        invariantAnalysisCheckBox = new CheckBox("Structural invariant analysis to stderr");
+        meanFieldCheckBox = new CheckBox("Mean-field approximation to stderr");
+        tokenGameCheckBox = new CheckBox("Open token game");
+        inputParametersCheckBox = new CheckBox("Rates as SPNP input parameters");
+        parameterSweepCheckBox = new CheckBox("Run the parameter sweep of the project");
+        segmentedOutputCheckBox = new CheckBox("Write one C file per segment (incremental build)");
+        runSolverCheckBox = new CheckBox("Run the solver on the output");
+        standInSolverCheckBox = new CheckBox("Use the stand-in solver (without SPNP)");
+        standInSolverCheckBox.disableProperty().bind(runSolverCheckBox.selectedProperty().not());
+        
+        steadyStateCheckBox = new CheckBox("Steady state");
+        transientTimesField = new TextField();
+        transientTimesField.setPromptText("e.g. 10, 100, 1000");
+        printQcolCheckBox = new CheckBox("print_qcol");
+        printRgraphCheckBox = new CheckBox("print_rgraph");
+        printQrowCheckBox = new CheckBox("print_qrow");
+        printMcInfoCheckBox = new CheckBox("pr_mc_info");
+        printStdAverageCheckBox = new CheckBox("pr_std_average");
+        scenarioSuccessCheckBox = new CheckBox("Scenario success probability");
+        nodeAvailabilityCheckBox = new CheckBox("Node availabilities");
+        failureProbabilitiesCheckBox = new CheckBox("Failure type probabilities");
+        
+        var analysisPlanGroup = new GridPane();
+        analysisPlanGroup.setHgap(5);
+        analysisPlanGroup.setVgap(5);
+        analysisPlanGroup.add(steadyStateCheckBox, 0, 0, 2, 1);
+        analysisPlanGroup.add(new Label("Transient time points:"), 0, 1);
+        analysisPlanGroup.add(transientTimesField, 1, 1);
+        analysisPlanGroup.add(new Label("Printed results:"), 0, 2, 2, 1);
+        analysisPlanGroup.add(printQcolCheckBox, 0, 3, 2, 1);
+        analysisPlanGroup.add(printRgraphCheckBox, 0, 4, 2, 1);
+        analysisPlanGroup.add(printQrowCheckBox, 0, 5, 2, 1);
+        analysisPlanGroup.add(printMcInfoCheckBox, 0, 6, 2, 1);
+        analysisPlanGroup.add(printStdAverageCheckBox, 0, 7, 2, 1);
+        analysisPlanGroup.add(new Label("Measures:"), 0, 8, 2, 1);
+        analysisPlanGroup.add(scenarioSuccessCheckBox, 0, 9, 2, 1);
+        analysisPlanGroup.add(nodeAvailabilityCheckBox, 0, 10, 2, 1);
+        analysisPlanGroup.add(failureProbabilitiesCheckBox, 0, 11, 2, 1);
+        
+        Label solutionLabel = new Label("Solution method:");
+        ToggleGroup radioGroup = new ToggleGroup();
+        simulationRadio = new RadioButton("Simulation");
+        numericRadio = new RadioButton("Numeric analysis");
+        simulationRadio.setToggleGroup(radioGroup);
+        simulationRadio.setSelected(true);
+        numericRadio.setToggleGroup(radioGroup);
+        
+        numericSolutionCheckBox = new CheckBox("Solve the CTMC in-process to stderr");
+        numericSolutionCheckBox.disableProperty().bind(numericRadio.selectedProperty().not());
+        inProcessSimulationCheckBox = new CheckBox("Simulate in-process to stderr");
+        inProcessSimulationCheckBox.disableProperty().bind(simulationRadio.selectedProperty().not());
+        importancePilotCheckBox = new CheckBox("Importance pilot of the splitting simulation to stderr");
+        importancePilotCheckBox.disableProperty().bind(simulationRadio.selectedProperty().not());
+        
+        simulationRadio.setOnAction(eh -> {
+            if(simulationRadio.isSelected()) {
+                numericGroup.setVisible(false);
+                simulationGroup.setVisible(true);
+            }
+        });
+
+        numericRadio.setOnAction(eh -> {
+            if(numericRadio.isSelected()) {
+                numericGroup.setVisible(true);
+                simulationGroup.setVisible(false);
+            }
+        });
+
+        closeButton = new Button("Close");
+        closeButton.setOnAction((e) -> {
+            close();
+        });
+        transformButton = new Button("Transform");
+        transformButton.setOnAction((ActionEvent e) -> {
+            onTransform.accept(this);
+        });
+
+        var generalLabel = new Label("General:");
+
+        rootGrid.setHgap(10);
+        rootGrid.setVgap(10);
+        
+        rootGrid.add(generalLabel, 0, 0);
+        rootGrid.add(new Label("Analysis plan (ac_final):"), 2, 0);
+        rootGrid.add(analysisPlanGroup, 2, 1, 1, 12);
+        rootGrid.add(inputParametersCheckBox, 2, 13);
+        rootGrid.add(parameterSweepCheckBox, 2, 14);
+        rootGrid.add(segmentedOutputCheckBox, 2, 15);
+        rootGrid.add(runSolverCheckBox, 2, 16);
+        rootGrid.add(standInSolverCheckBox, 2, 17);
+        rootGrid.add(markingTraceCheckBox, 2, 18);
+        rootGrid.add(markingTraceGroup, 2, 19);
+        rootGrid.add(generateCommentsCheckBox, 0, 1, 2, 1);
+        rootGrid.add(debugInfoCheckBox, 0, 2, 2, 1);
+        rootGrid.add(debugPrintCheckBox, 0, 3, 2, 1);
+        rootGrid.add(reachabilityGraphCheckBox, 0, 4, 2, 1);
+        rootGrid.add(offHeapStatesCheckBox, 0, 5, 2, 1);
+        rootGrid.add(symbolicStateSpaceCheckBox, 0, 6, 2, 1);
+        rootGrid.add(invariantAnalysisCheckBox, 0, 7, 2, 1);
+        rootGrid.add(meanFieldCheckBox, 0, 8, 2, 1);
+        rootGrid.add(tokenGameCheckBox, 0, 9, 2, 1);
+        rootGrid.add(solutionLabel, 0, 10);
+        rootGrid.add(simulationRadio, 0, 11);
+        rootGrid.add(numericRadio, 1, 11);
+        
+        rootGrid.add(simulationGroup, 0, 12, 2, 1);
+        rootGrid.add(numericGroup, 0, 12, 2, 1);
+        numericGroup.setVisible(false);
+        
+        rootGrid.add(inProcessSimulationCheckBox, 0, 13, 2, 1);
+        rootGrid.add(importancePilotCheckBox, 0, 14, 2, 1);
+        rootGrid.add(numericSolutionCheckBox, 0, 15, 2, 1);
+        
+        rootGrid.add(transformButton, 0, 16);
+        rootGrid.add(closeButton, 1, 16);
+    }
+    
+    /**
+     * Shows the settings of an analysis plan.
+     * 
+     * @param analysisPlan The analysis plan.
+     */
+    public void setAnalysisPlan(AnalysisPlan analysisPlan) {
+        steadyStateCheckBox.setSelected(analysisPlan.isSteadyState());
+        transientTimesField.setText(analysisPlan.getTransientTimes().stream()
+                                                .map(time -> time.toString())
+                                                .collect(Collectors.joining(", ")));
+        printQcolCheckBox.setSelected(analysisPlan.isPrintQcol());
+        printRgraphCheckBox.setSelected(analysisPlan.isPrintRgraph());
+        printQrowCheckBox.setSelected(analysisPlan.isPrintQrow());
+        printMcInfoCheckBox.setSelected(analysisPlan.isPrintMcInfo());
+        printStdAverageCheckBox.setSelected(analysisPlan.isPrintStdAverage());
+        scenarioSuccessCheckBox.setSelected(analysisPlan.isScenarioSuccess());
+        nodeAvailabilityCheckBox.setSelected(analysisPlan.isNodeAvailability());
+        failureProbabilitiesCheckBox.setSelected(analysisPlan.isFailureProbabilities());
+    }
+    
+    /**
+     * Stores the shown settings into an analysis plan.
+     * 
+     * @param analysisPlan The analysis plan.
+     * @return False if the transient time points are not valid, the plan keeps its previous time points.
+     */
+    public boolean updateAnalysisPlan(AnalysisPlan analysisPlan) {
+        analysisPlan.setSteadyState(steadyStateCheckBox.isSelected());
+        analysisPlan.setPrintQcol(printQcolCheckBox.isSelected());
+        analysisPlan.setPrintRgraph(printRgraphCheckBox.isSelected());
+        analysisPlan.setPrintQrow(printQrowCheckBox.isSelected());
+        analysisPlan.setPrintMcInfo(printMcInfoCheckBox.isSelected());
+        analysisPlan.setPrintStdAverage(printStdAverageCheckBox.isSelected());
+        analysisPlan.setScenarioSuccess(scenarioSuccessCheckBox.isSelected());
+        analysisPlan.setNodeAvailability(nodeAvailabilityCheckBox.isSelected());
+        analysisPlan.setFailureProbabilities(failureProbabilitiesCheckBox.isSelected());
+        
+        var times = new ArrayList<Double>();
+        for(var item : transientTimesField.getText().split("[,;\\s]+")) {
+            if(item.isEmpty())
+                continue;
+            try {
+                var time = Double.parseDouble(item);
+                if(!(time > 0.0) || Double.isInfinite(time))
+                    throw new NumberFormatException(item);
+                times.add(time);
+            }
+            catch(NumberFormatException ex) {
+                System.err.println(String.format("Analysis plan error: invalid transient time point \"%s\"", item));
+                return false;
+            }
+        }
+        analysisPlan.setTransientTimes(times);
+        return true;
+    }
+    
+    public GridPane getSimulationGroup() {
+        return simulationGroup;
+    }
+    
+    public GridPane getNumericGroup() {
+        return numericGroup;
+    }
+    
+    public boolean getDebugInfoSelected() {
+        return debugInfoCheckBox.isSelected();
+    }
+
+    public boolean getGenerateDebugPrintSegmentSelected() {
+        return debugPrintCheckBox.isSelected();
+    }
+
+    public boolean getMarkingTraceSelected() {
+        return markingTraceCheckBox.isSelected() && debugPrintCheckBox.isSelected();
+    }
+    
+    /**
+     * Reads the sampling and the place filters of the marking trace.
+     * 
+     * @param fileName Name of the trace file written by SPNP.
+     * @return The trace options or null if some value is not valid.
+     */
+    public MarkingTraceOptions getMarkingTraceOptions(String fileName) {
+        var options = new MarkingTraceOptions();
+        options.setFileName(fileName);
+        try {
+            var sampleEvery = Integer.parseInt(traceSampleEveryField.getText().strip());
+            var sampleProbability = Double.parseDouble(traceSampleProbabilityField.getText().strip());
+            if(sampleEvery < 1 || !(sampleProbability > 0.0 && sampleProbability <= 1.0))
+                throw new NumberFormatException(String.format("%d, %s", sampleEvery, sampleProbability));
+            options.setSampleEvery(sampleEvery);
+            options.setSampleProbability(sampleProbability);
+        }
+        catch(NumberFormatException ex) {
+            System.err.println(String.format("Marking trace error: invalid sampling (%s)", ex.getMessage()));
+            return null;
+        }
+        options.setSegments(Arrays.asList(traceSegmentsField.getText().split("[,;\\s]+")));
+        var placeFilter = tracePlaceFilterField.getText().strip();
+        if(!placeFilter.isEmpty()) {
+            try {
+                options.setPlaceFilter(Pattern.compile(placeFilter));
+            }
+            catch(PatternSyntaxException ex) {
+                System.err.println(String.format("Marking trace error: invalid place filter \"%s\"", placeFilter));
+                return null;
+            }
+        }
+        return options;
+    }
+    
+    public boolean getReachabilityGraphSelected() {
+        return reachabilityGraphCheckBox.isSelected();
+    }
+
+    public boolean getOffHeapStatesSelected() {
+        return offHeapStatesCheckBox.isSelected();
+    }
+
+    public boolean getSymbolicStateSpaceSelected() {
+        return symbolicStateSpaceCheckBox.isSelected();
+    }
+
+    public boolean getNumericSolutionSelected() {
+        return numericSolutionCheckBox.isSelected() && !simulationSelected();
+    }
+
+    public boolean getInvariantAnalysisSelected() {
+        return invariantAnalysisCheckBox.isSelected();
+    }
+
+    public boolean getMeanFieldSelected() {
+        return meanFieldCheckBox.isSelected();
+    }
+
+    public boolean getTokenGameSelected() {
+        return tokenGameCheckBox.isSelected();
+    }
+
+    public boolean getInputParametersSelected() {
+        return inputParametersCheckBox.isSelected();
+    }
+
+    public boolean getParameterSweepSelected() {
+        return parameterSweepCheckBox.isSelected();
+    }
+
+    public boolean getSegmentedOutputSelected() {
+        return segmentedOutputCheckBox.isSelected();
+    }
+
+    public boolean getRunSolverSelected() {
+        return runSolverCheckBox.isSelected();
+    }
+
+    public boolean getStandInSolverSelected() {
+        return standInSolverCheckBox.isSelected();
+    }
+
+    public boolean getInProcessSimulationSelected() {
+        return inProcessSimulationCheckBox.isSelected() && simulationSelected();
+    }
+
+    public boolean getImportancePilotSelected() {
+        return importancePilotCheckBox.isSelected() && simulationSelected();
+    }
+
+    public boolean getGenerateComments() {
+        return generateCommentsCheckBox.isSelected();
+    }
+    
+    public void addConstantInputItem(String labelText, Collection<String> stringItems, int selectedIndex, boolean isSimulation) {
+        var constantOption = createConstantOption(labelText, stringItems, selectedIndex);
+        var label = new Label(labelText);
+        addInputItem(label, constantOption, isSimulation);
+    }
+
+    public void addIntegerInputItem(String labelText, Integer initValue, boolean isSimulation) {
+        var input = new TransformatorOptionInteger(labelText, initValue.toString());
+        var label = new Label(labelText);
+        addInputItem(label, input, isSimulation);
+    }
+
+    public void addDoubleInputItem(String labelText, Double initValue, boolean isSimulation) {
+        var input = new TransformatorOptionDouble(labelText, initValue.toString());
+        var label = new Label(labelText);
+        addInputItem(label, input, isSimulation);
+    }
+    
+    public void addInputItem(Label label, Node input, boolean isSimulation) {
+        if(isSimulation) {
+            simulationGroup.add(label, 0, simulationGroupIndex);
+            simulationGroup.add(input, 1, simulationGroupIndex++);
+        }
+        else {
+            numericGroup.add(label, 0, numericGroupIndex);
+            numericGroup.add(input, 1, numericGroupIndex++);
+        }
+    }
+
+    public TransformatorOptionConstant createConstantOption(String labelText, Collection<String> stringItems, int selectedIndex) {
+        var items = FXCollections.observableArrayList(stringItems);
+        var comboBox = new TransformatorOptionConstant(labelText);
+
+        comboBox.setItems(items);
+        comboBox.getSelectionModel().selectFirst();
+        comboBox.getSelectionModel().select(selectedIndex);
+        return comboBox;
+    }
+    
+    public boolean simulationSelected() {
+        return simulationRadio.isSelected();
+    }
+
+}
@@ -0,0 +1,48 @@
+package cz.muni.fi.umlspnp.views.common.layouts;
+
+import javafx.concurrent.Worker;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+
+/**
+ * A window which shows the progress of a transformation running in the background
+ * and allows to cancel it. It closes itself when the transformation ends.
+ * The window is not modal so that the diagrams stay usable.
+ *
+ */
+public class TransformProgressWindow extends ModalWindow {
+
+    /**
+     *
+     * @param parentStage Parent stage.
+     * @param windowName Window name.
+     * @param worker The running transformation.
+     */
+    public TransformProgressWindow(Stage parentStage, String windowName, Worker<?> worker) {
+        super(parentStage, windowName);
+        this.initModality(Modality.NONE);
+
+        var progressBar = new ProgressBar();
+        progressBar.setPrefWidth(350);
+        progressBar.progressProperty().bind(worker.progressProperty());
+
+        var messageLabel = new Label();
+        messageLabel.textProperty().bind(worker.messageProperty());
+
+        var cancelButton = new Button("Cancel");
+        cancelButton.setOnAction(e -> worker.cancel());
+        this.setOnCloseRequest(e -> worker.cancel());
+
+        worker.runningProperty().addListener((observable, oldValue, newValue) -> {
+            if(!newValue)
+                close();
+        });
+
+        rootGrid.add(messageLabel, 0, 0);
+        rootGrid.add(progressBar, 0, 1);
+        rootGrid.add(cancelButton, 0, 2);
+    }
+}